@@ -0,0 +1,85 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.goobi.viewer.controller.ALTOTools;
+import io.goobi.viewer.controller.StringTools;
+
+/**
+ * Benchmarks for ALTO parsing: search hit coordinates and plain text extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ALTOToolsBenchmark {
+
+    private String alto;
+    private Set<String> singleTerm;
+    private Set<String> phraseTerms;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkEnvironment.init();
+        alto = FileUtils.readFileToString(new File("src/test/resources/data/sample_alto.xml"), StringTools.DEFAULT_ENCODING);
+        singleTerm = Collections.singleton("hinauf");
+        phraseTerms = new LinkedHashSet<>(List.of("hinauf", "und", "die"));
+    }
+
+    @Benchmark
+    public List<String> getWordCoordsSingleTerm() {
+        return ALTOTools.getWordCoords(alto, StringTools.DEFAULT_ENCODING, singleTerm, 0);
+    }
+
+    @Benchmark
+    public List<String> getWordCoordsMultipleTerms() {
+        return ALTOTools.getWordCoords(alto, StringTools.DEFAULT_ENCODING, phraseTerms, 90);
+    }
+
+    @Benchmark
+    public String getFulltext() {
+        return ALTOTools.getFulltext(alto, StringTools.DEFAULT_ENCODING, true);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.security.AccessConditionUtils;
+import io.goobi.viewer.model.security.AccessPermission;
+import io.goobi.viewer.model.security.IPrivilegeHolder;
+import io.goobi.viewer.model.security.License;
+import io.goobi.viewer.model.security.LicenseType;
+import io.goobi.viewer.model.security.user.IpRange;
+
+/**
+ * Benchmarks for the access permission check that runs for every image, thumbnail and download request. License types and IP ranges are
+ * served by the mocked DAO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessConditionUtilsBenchmark {
+
+    private static final int LICENSE_TYPE_COUNT = 20;
+    private static final int IP_RANGE_COUNT = 50;
+
+    private List<LicenseType> licenseTypes;
+    private Set<String> openAccessConditions;
+    private Set<String> restrictedConditions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DAOException {
+        BenchmarkEnvironment.init();
+
+        licenseTypes = new ArrayList<>(LICENSE_TYPE_COUNT);
+        for (int i = 0; i < LICENSE_TYPE_COUNT; ++i) {
+            LicenseType licenseType = new LicenseType("license" + i);
+            licenseType.getPrivileges().add(IPrivilegeHolder.PRIV_LIST);
+            licenseTypes.add(licenseType);
+        }
+        LicenseType openAccess = new LicenseType("OPENACCESS");
+        openAccess.setOpenAccess(true);
+        licenseTypes.add(openAccess);
+
+        // Only the last IP range grants the privilege, so each check walks the full list
+        List<IpRange> ipRanges = new ArrayList<>(IP_RANGE_COUNT);
+        for (int i = 0; i < IP_RANGE_COUNT; ++i) {
+            IpRange ipRange = new IpRange();
+            ipRange.setName("range" + i);
+            ipRange.setSubnetMask("10.0." + i + ".0/24");
+            License license = new License();
+            license.setLicenseType(licenseTypes.get(i % LICENSE_TYPE_COUNT));
+            license.addPrivilege(IPrivilegeHolder.PRIV_VIEW_IMAGES);
+            ipRange.addLicense(license);
+            ipRanges.add(ipRange);
+        }
+        Mockito.when(BenchmarkEnvironment.getDao().getAllIpRanges()).thenReturn(ipRanges);
+
+        openAccessConditions = new HashSet<>(List.of("OPENACCESS"));
+        restrictedConditions = new HashSet<>(List.of("license" + ((IP_RANGE_COUNT - 1) % LICENSE_TYPE_COUNT)));
+    }
+
+    @Benchmark
+    public AccessPermission checkAccessPermissionOpenAccess() throws IndexUnreachableException, PresentationException, DAOException {
+        return AccessConditionUtils.checkAccessPermission(licenseTypes, openAccessConditions, IPrivilegeHolder.PRIV_VIEW_IMAGES, null,
+                "10.0." + (IP_RANGE_COUNT - 1) + ".17", Optional.empty(), "+PI:PPN123");
+    }
+
+    @Benchmark
+    public AccessPermission checkAccessPermissionIpRange() throws IndexUnreachableException, PresentationException, DAOException {
+        return AccessConditionUtils.checkAccessPermission(licenseTypes, restrictedConditions, IPrivilegeHolder.PRIV_VIEW_IMAGES, null,
+                "10.0." + (IP_RANGE_COUNT - 1) + ".17", Optional.empty(), "+PI:PPN123");
+    }
+
+    @Benchmark
+    public AccessPermission checkAccessPermissionDenied() throws IndexUnreachableException, PresentationException, DAOException {
+        return AccessConditionUtils.checkAccessPermission(licenseTypes, restrictedConditions, IPrivilegeHolder.PRIV_VIEW_IMAGES, null,
+                "192.168.0.17", Optional.empty(), "+PI:PPN123");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.mockito.Mockito;
+
+import de.unigoettingen.sub.commons.contentlib.servlet.model.ContentServerConfiguration;
+import io.goobi.viewer.controller.Configuration;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.RestApiManager;
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.solr.SolrSearchIndex;
+
+/**
+ * Shared setup for JMH benchmarks. Loads the unit test configuration and replaces the database and the Solr index with Mockito mocks so that
+ * benchmarks run offline. Benchmarks that need specific DAO or Solr responses stub them on {@link #getDao()} and {@link #getSearchIndex()}.
+ */
+public final class BenchmarkEnvironment {
+
+    public static final String TEST_CONFIG_PATH = new File("src/test/resources/config_viewer.test.xml").getAbsolutePath();
+    public static final String TEST_LOG_CONFIG_PATH = new File("src/test/resources/log4j2.test.xml").getAbsolutePath();
+
+    private static IDAO dao;
+    private static SolrSearchIndex searchIndex;
+
+    private BenchmarkEnvironment() {
+    }
+
+    /**
+     * Initializes configuration, mocked DAO and mocked Solr index. Safe to call from multiple benchmark setup methods.
+     */
+    public static synchronized void init() {
+        if (dao != null) {
+            return;
+        }
+        System.setProperty("log4j.configurationFile", TEST_LOG_CONFIG_PATH);
+        DataManager.getInstance().injectConfiguration(new Configuration(TEST_CONFIG_PATH));
+        ContentServerConfiguration.getInstance(Path.of("src/test/resources/contentServerConfig.xml").toAbsolutePath().toString());
+        DataManager.getInstance().setRestApiManager(new RestApiManager());
+
+        dao = Mockito.mock(IDAO.class);
+        searchIndex = Mockito.mock(SolrSearchIndex.class);
+        DataManager.getInstance().injectDao(dao);
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+    }
+
+    /**
+     * @return Mocked DAO
+     */
+    public static IDAO getDao() {
+        init();
+        return dao;
+    }
+
+    /**
+     * @return Mocked Solr index
+     */
+    public static SolrSearchIndex getSearchIndex() {
+        init();
+        return searchIndex;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.undercouch.citeproc.csl.CSLType;
+import io.goobi.viewer.model.citation.Citation;
+import io.goobi.viewer.model.citation.CitationDataProvider;
+import io.goobi.viewer.model.citation.CitationProcessorPool;
+
+/**
+ * Compares citation rendering from 8 threads with a single processor per style (the previous behaviour, where all threads waited for the
+ * same processor) against a pool of processors, and rendering a list of citations with one borrowed processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class CitationBenchmark {
+
+    private static final String STYLE = "apa";
+    private static final int BATCH_SIZE = 100;
+
+    private CitationProcessorPool singleProcessor;
+    private CitationProcessorPool pool;
+    private Citation citation;
+    private List<Citation> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        singleProcessor = new CitationProcessorPool(1);
+        singleProcessor.warmUp(Collections.singletonList(STYLE));
+        pool = new CitationProcessorPool(8);
+        pool.warmUp(Collections.singletonList(STYLE));
+        citation = createCitation("PPN123");
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            batch.add(createCitation("PPN" + i));
+        }
+    }
+
+    private static Citation createCitation(String id) {
+        Map<String, List<String>> fields = new HashMap<>();
+        fields.put(CitationDataProvider.AUTHOR, Collections.singletonList("Zahn, Timothy"));
+        fields.put(CitationDataProvider.TITLE, Collections.singletonList("Thrawn " + id));
+        fields.put(CitationDataProvider.ISSUED, Collections.singletonList("2017"));
+        fields.put(CitationDataProvider.ISBN, Collections.singletonList("9780606412148"));
+        return new Citation(id, STYLE, CSLType.BOOK, fields);
+    }
+
+    @Benchmark
+    public Map<String, String> renderWithSingleProcessor() throws IOException {
+        return singleProcessor.getCitationStrings("html", Collections.singletonList(citation));
+    }
+
+    @Benchmark
+    public Map<String, String> renderWithPool() throws IOException {
+        return pool.getCitationStrings("html", Collections.singletonList(citation));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Map<String, String> renderBatchWithPool() throws IOException {
+        return pool.getCitationStrings("html", batch);
+    }
+}
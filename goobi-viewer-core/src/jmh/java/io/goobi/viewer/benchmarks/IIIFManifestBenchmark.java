@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.intranda.api.iiif.presentation.content.ImageContent;
+import de.intranda.api.iiif.presentation.v2.Canvas2;
+import de.intranda.api.iiif.presentation.v2.Manifest2;
+import de.intranda.api.iiif.presentation.v2.Sequence;
+import de.intranda.metadata.multilanguage.Metadata;
+import de.intranda.metadata.multilanguage.SimpleMetadataValue;
+import io.goobi.viewer.api.rest.filters.IIIFPresentationResponseFilter;
+
+/**
+ * Benchmarks JSON serialization of a IIIF presentation 2 manifest with a large page sequence, as delivered for every viewer page load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IIIFManifestBenchmark {
+
+    private static final String BASE_URL = "https://viewer.goobi.io/api/v1/records/PPN123/";
+    private static final int PAGE_COUNT = 500;
+    private static final int METADATA_COUNT = 30;
+
+    private Manifest2 manifest;
+    private ObjectWriter writer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment.init();
+
+        manifest = new Manifest2(URI.create(BASE_URL + "manifest/"));
+        manifest.setContext(IIIFPresentationResponseFilter.CONTEXT_PRESENTATION_2);
+        manifest.setLabel(new SimpleMetadataValue("Benchmark record"));
+        for (int i = 0; i < METADATA_COUNT; ++i) {
+            manifest.addMetadata(new Metadata(new SimpleMetadataValue("MD_FIELD_" + i), new SimpleMetadataValue("Value " + i)));
+        }
+        Sequence sequence = new Sequence(URI.create(BASE_URL + "sequences/basic/"));
+        for (int i = 1; i <= PAGE_COUNT; ++i) {
+            Canvas2 canvas = new Canvas2(URI.create(BASE_URL + "pages/" + i + "/canvas/"));
+            canvas.setLabel(new SimpleMetadataValue(String.valueOf(i)));
+            canvas.setWidth(2000);
+            canvas.setHeight(3000);
+            canvas.addThumbnail(new ImageContent(URI.create(BASE_URL + "files/images/" + i + ".tif/full/!200,200/0/default.jpg")));
+            sequence.addCanvas(canvas);
+        }
+        manifest.setSequence(sequence);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+        writer = mapper.writer().forType(Manifest2.class);
+    }
+
+    @Benchmark
+    public String serializeManifest() throws JsonProcessingException {
+        return writer.writeValueAsString(manifest);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.goobi.viewer.exceptions.RecordLimitExceededException;
+import io.goobi.viewer.model.security.recordlock.RecordLockManager;
+
+/**
+ * Compares the throughput of {@link RecordLockManager} with the previous implementation that serialized all lock operations on a single
+ * monitor. Each benchmark thread acts as one HTTP session that repeatedly opens records, which releases its locks for all other records and
+ * acquires a lock for the requested one (see <code>FilterTools.filterForConcurrentViewLimit()</code>).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RecordLockManagerBenchmark {
+
+    private static final int RECORD_COUNT = 1000;
+    private static final int LIMIT = 4;
+    private static final AtomicInteger SESSION_COUNTER = new AtomicInteger();
+
+    private final RecordLockManager manager = new RecordLockManager();
+    private final SynchronizedRecordLockManager synchronizedManager = new SynchronizedRecordLockManager();
+
+    /**
+     * Per-thread session state.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        private final String sessionId = "SID" + SESSION_COUNTER.incrementAndGet();
+        private int next = sessionId.hashCode() & 0xffff;
+
+        String nextPi() {
+            next = (next + 7) % RECORD_COUNT;
+            return "PPN" + next;
+        }
+    }
+
+    @Benchmark
+    public void openRecord(Session session, Blackhole blackhole) {
+        String pi = session.nextPi();
+        blackhole.consume(manager.removeLocksForSessionId(session.sessionId, Collections.singletonList(pi)));
+        try {
+            manager.lockRecord(pi, session.sessionId, LIMIT);
+        } catch (RecordLimitExceededException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void openRecordSynchronized(Session session, Blackhole blackhole) {
+        String pi = session.nextPi();
+        blackhole.consume(synchronizedManager.removeLocksForSessionId(session.sessionId, Collections.singletonList(pi)));
+        try {
+            synchronizedManager.lockRecord(pi, session.sessionId, LIMIT);
+        } catch (RecordLimitExceededException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    /**
+     * Copy of the previous {@link RecordLockManager} locking logic, kept as the baseline for this benchmark.
+     */
+    static class SynchronizedRecordLockManager {
+
+        private final Map<String, Set<String>> loadedRecordMap = new ConcurrentHashMap<>();
+
+        public synchronized void lockRecord(String pi, String sessionId, Integer limit) throws RecordLimitExceededException {
+            Set<String> recordLocks = loadedRecordMap.computeIfAbsent(pi, k -> new HashSet<>(limit));
+            if (recordLocks.size() == limit) {
+                if (recordLocks.contains(sessionId)) {
+                    return;
+                }
+                throw new RecordLimitExceededException(pi + ":" + limit);
+            }
+            recordLocks.add(sessionId);
+        }
+
+        public synchronized int removeLocksForSessionId(String sessionId, List<String> skipPiList) {
+            int count = 0;
+            for (String pi : loadedRecordMap.keySet()) {
+                if (skipPiList != null && skipPiList.contains(pi)) {
+                    continue;
+                }
+                if (removeLockForPiAndSessionId(pi, sessionId)) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        public synchronized boolean removeLockForPiAndSessionId(String pi, String sessionId) {
+            Set<String> recordLocks = loadedRecordMap.get(pi);
+            return recordLocks != null && recordLocks.remove(sessionId);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.goobi.viewer.controller.ALTOTools;
+import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.search.CollectionResult;
+import io.goobi.viewer.model.search.SearchHelper;
+import io.goobi.viewer.solr.SolrConstants;
+
+/**
+ * Benchmarks for full-text snippet generation, search term highlighting and collection facet post-processing in {@link SearchHelper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchHelperBenchmark {
+
+    private static final int COLLECTION_COUNT = 2000;
+
+    private String fulltext;
+    private Set<String> searchTerms;
+    private String phrase;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, PresentationException, IndexUnreachableException {
+        BenchmarkEnvironment.init();
+
+        String alto = FileUtils.readFileToString(new File("src/test/resources/data/sample_alto.xml"), StringTools.DEFAULT_ENCODING);
+        fulltext = ALTOTools.getFulltext(alto, StringTools.DEFAULT_ENCODING, true);
+        searchTerms = new HashSet<>(List.of("hinauf", "berg", "wasser"));
+        phrase = fulltext.substring(0, Math.min(fulltext.length(), 500));
+
+        // Hierarchical collection names (a.b.c) as returned by a DC facet query
+        FacetField facetField = new FacetField(SolrConstants.DC);
+        for (int i = 0; i < COLLECTION_COUNT; ++i) {
+            facetField.add("collection" + (i % 20) + ".sub" + (i % 100) + ".leaf" + i, i % 50 + 1L);
+        }
+        QueryResponse response = Mockito.mock(QueryResponse.class);
+        Mockito.when(response.getFacetField(SolrConstants.DC)).thenReturn(facetField);
+        Mockito.when(BenchmarkEnvironment.getSearchIndex()
+                .searchFacetsAndStatistics(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.anyList(),
+                        ArgumentMatchers.anyInt(), ArgumentMatchers.anyBoolean()))
+                .thenReturn(response);
+    }
+
+    @Benchmark
+    public List<String> truncateFulltext() {
+        return SearchHelper.truncateFulltext(searchTerms, fulltext, 200, false, true, 0);
+    }
+
+    @Benchmark
+    public List<String> truncateFulltextFirstMatchOnly() {
+        return SearchHelper.truncateFulltext(searchTerms, fulltext, 200, true, true, 0);
+    }
+
+    @Benchmark
+    public String applyHighlightingToPhrase() {
+        return SearchHelper.applyHighlightingToPhrase(phrase, searchTerms);
+    }
+
+    @Benchmark
+    public Map<String, CollectionResult> findAllCollectionsFromField() throws IndexUnreachableException {
+        return SearchHelper.findAllCollectionsFromField(SolrConstants.DC, null, null, false, false, ".");
+    }
+}
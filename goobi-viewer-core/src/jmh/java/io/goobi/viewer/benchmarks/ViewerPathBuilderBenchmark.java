@@ -0,0 +1,71 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.model.urlresolution.ViewerPath;
+import io.goobi.viewer.model.urlresolution.ViewerPathBuilder;
+
+/**
+ * Benchmarks URL resolution into {@link ViewerPath} objects, which runs for every request passing the URL rewrite filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewerPathBuilderBenchmark {
+
+    private static final String APPLICATION_URL = "http://localhost:8082/viewer";
+    private static final String APPLICATION_NAME = "/viewer";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment.init();
+    }
+
+    @Benchmark
+    public Optional<ViewerPath> createRecordPath() throws DAOException {
+        return ViewerPathBuilder.createPath(APPLICATION_URL, APPLICATION_NAME, APPLICATION_URL + "/!fulltext/AC03343066/13/", "");
+    }
+
+    @Benchmark
+    public Optional<ViewerPath> createSearchPath() throws DAOException {
+        return ViewerPathBuilder.createPath(APPLICATION_URL, APPLICATION_NAME, APPLICATION_URL + "/search/-/foo/1/-/-/", "lang=de");
+    }
+}
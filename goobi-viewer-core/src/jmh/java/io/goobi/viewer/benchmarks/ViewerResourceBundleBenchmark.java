@@ -0,0 +1,83 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.goobi.viewer.messages.ViewerResourceBundle;
+
+/**
+ * Benchmarks message key translation, which is called many times per rendered page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewerResourceBundleBenchmark {
+
+    /** Mix of keys as rendered on a typical record page: mostly plain hits, some key variants and a few keys without any translation */
+    private static final String[] KEY_MIX = { "MD_AUTHOR", "MD_TITLE", "MD_AUTHOR_LANG_DE", "FACET_AUTHOR", "MD_AUTHOR_UNTOKENIZED", "SORT_TITLE",
+            "DC_DOES_NOT_EXIST_DD", "MD_DOES_NOT_EXIST", "search", "MD_YEARPUBLISH" };
+
+    private int keyIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkEnvironment.init();
+    }
+
+    @Benchmark
+    public String getTranslationExistingKey() {
+        return ViewerResourceBundle.getTranslation("MD_AUTHOR", Locale.GERMAN);
+    }
+
+    @Benchmark
+    public String getTranslationFallbackLocale() {
+        return ViewerResourceBundle.getTranslation("MD_AUTHOR", Locale.FRENCH);
+    }
+
+    @Benchmark
+    public String getTranslationKeyMix() {
+        keyIndex = (keyIndex + 1) % KEY_MIX.length;
+        return ViewerResourceBundle.getTranslation(KEY_MIX[keyIndex], Locale.GERMAN);
+    }
+
+    @Benchmark
+    public String getTranslationMissingKey() {
+        return ViewerResourceBundle.getTranslation("MD_DOES_NOT_EXIST", Locale.GERMAN);
+    }
+}
@@ -39,6 +39,7 @@ import javax.servlet.annotation.WebListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.goobi.viewer.api.rest.model.MediaDeliveryService;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.messages.ViewerResourceBundle;
@@ -136,6 +137,16 @@ public class ContextListener implements ServletContextListener {
 
         // Create local message files
         ViewerResourceBundle.createLocalMessageFiles();
+
+        // Load citation styles in the background
+        if (DataManager.getInstance().getConfiguration().isCitationProcessorWarmUpEnabled()) {
+            Thread citationWarmUp = new Thread(() -> DataManager.getInstance()
+                    .getCitationProcessorPool()
+                    .warmUp(DataManager.getInstance().getConfiguration().getSidebarWidgetUsageCitationRecommendationStyles()),
+                    "CitationProcessorWarmUp");
+            citationWarmUp.setDaemon(true);
+            citationWarmUp.start();
+        }
     }
 
     /** {@inheritDoc} */
@@ -144,6 +155,7 @@ public class ContextListener implements ServletContextListener {
         try {
             DataManager.getInstance().getDao().shutdown();
             DataManager.getInstance().getThreadPoolManager().shutdown();
+            MediaDeliveryService.shutdown();
             logger.info("Successfully stopped DAO");
         } catch (DAOException e) {
             logger.error("Error stopping DAO", e);
@@ -48,7 +48,7 @@ public class SessionListener implements HttpSessionListener {
     /** {@inheritDoc} */
     @Override
     public void sessionCreated(HttpSessionEvent event) {
-        //        if (DataManager.getInstance().getSessionMap().put(event.getSession().getId(), new HashMap<>()) == null) {
+        //        if (DataManager.getInstance().getSessionRegistry().update(event.getSession().getId(), m -> {})) {
         //            logger.trace("Session created: {}", event.getSession().getId()); //NOSONAR Debug
         //        }
     }
@@ -59,7 +59,7 @@ public class SessionListener implements HttpSessionListener {
     /** {@inheritDoc} */
     @Override
     public void sessionDestroyed(HttpSessionEvent event) {
-        if (DataManager.getInstance().getSessionMap().remove(event.getSession().getId()) != null) {
+        if (DataManager.getInstance().getSessionRegistry().remove(event.getSession().getId())) {
             String sessionId = event.getSession().getId();
             // logger.trace("Session destroyed: {}", sessionId); //NOSONAR Debug
             DataManager.getInstance().getRecordLockManager().removeLocksForSessionId(sessionId, null);
@@ -80,8 +80,9 @@ public final class FilterTools {
             DataManager.getInstance().getRecordLockManager().removeLocksForSessionId(session.getId(), Collections.singletonList(pi));
         }
         try {
-            List<String> limits = DataManager.getInstance().getRecordLockManager().getRecordLimitsCache().get(pi);
-            List<String> accessConditions = DataManager.getInstance().getRecordLockManager().getRecordAccessConditionsCache().get(pi);
+            List<String> limits = DataManager.getInstance().getRecordLockManager().getRecordLimitsCache().getIfPresent(pi).orElse(null);
+            List<String> accessConditions =
+                    DataManager.getInstance().getRecordLockManager().getRecordAccessConditionsCache().getIfPresent(pi).orElse(null);
 
             // Retrieve from Solr if record limits and access conditions not yet in cache
             if (limits == null || accessConditions == null) {
@@ -0,0 +1,116 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.filters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.annotation.Priority;
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.ext.Provider;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.unigoettingen.sub.commons.contentlib.servlet.rest.ContentServerImageBinding;
+import de.unigoettingen.sub.commons.contentlib.servlet.rest.ImageResource;
+import io.goobi.viewer.controller.DataFileTools;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.imaging.ThumbnailStore;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+
+/**
+ * <p>
+ * Serves record image requests for full-region, unrotated JPEG thumbnails from the {@link ThumbnailStore}, if a current derivative exists. Other
+ * requests and misses continue to the content server; a miss schedules the creation of the derivatives. Runs after the access condition checks.
+ * </p>
+ */
+@Provider
+@ContentServerImageBinding
+@Priority(Priorities.USER)
+public class ThumbnailStoreFilter implements ContainerRequestFilter {
+
+    private static final Logger logger = LogManager.getLogger(ThumbnailStoreFilter.class);
+
+    @Context
+    private HttpServletRequest servletRequest;
+
+    /** {@inheritDoc} */
+    @Override
+    public void filter(ContainerRequestContext request) throws IOException {
+        if (!DataManager.getInstance().getConfiguration().isThumbnailStoreEnabled()
+                || servletRequest.getAttribute(ImageResource.REQUEST_ATTRIBUTE_ERROR) != null) {
+            return;
+        }
+
+        String pi = (String) servletRequest.getAttribute(FilterTools.ATTRIBUTE_PI);
+        String fileName = (String) servletRequest.getAttribute(FilterTools.ATTRIBUTE_FILENAME);
+        String size = (String) servletRequest.getAttribute("iiif-size");
+        if (StringUtils.isBlank(pi) || !"full".equals(servletRequest.getAttribute("iiif-region"))
+                || !"0".equals(servletRequest.getAttribute("iiif-rotation")) || !"default.jpg".equals(servletRequest.getAttribute("iiif-format"))) {
+            return;
+        }
+        ThumbnailStore store = DataManager.getInstance().getThumbnailStore();
+        if (!store.isStoredSize(size) || !ThumbnailStore.isStorableFileName(fileName)) {
+            return;
+        }
+
+        Path master;
+        try {
+            master = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getMediaFolder(), null, fileName);
+        } catch (PresentationException | IndexUnreachableException e) {
+            logger.debug("Cannot resolve image {}/{}: {}", pi, fileName, e.getMessage());
+            return;
+        }
+        if (!Files.isRegularFile(master)) {
+            return;
+        }
+
+        Optional<Path> derivative = store.find(pi, fileName, size, master);
+        if (!derivative.isPresent()) {
+            // Sizes that would enlarge the image are left to the image resource
+            if (!store.isNotApplicable(pi, fileName, size, master)) {
+                store.scheduleGeneration(pi, fileName, master);
+            }
+            return;
+        }
+
+        EntityTag tag = new EntityTag(ThumbnailStore.getEntityTag(derivative.get()));
+        ResponseBuilder notModified = request.getRequest().evaluatePreconditions(tag);
+        if (notModified != null) {
+            request.abortWith(notModified.build());
+            return;
+        }
+        request.abortWith(Response.ok(derivative.get().toFile(), "image/jpeg").tag(tag).build());
+    }
+}
@@ -21,42 +21,131 @@
  */
 package io.goobi.viewer.api.rest.model;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.GZIPOutputStream;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import de.unigoettingen.sub.commons.contentlib.exceptions.IllegalRequestException;
+import io.goobi.viewer.controller.DataManager;
 
 /**
  * <p>
  * MediaDeliveryService class.
  * </p>
+ * <p>
+ * Small files are written on the request thread. Large transfers (see
+ * {@link io.goobi.viewer.controller.Configuration#getMediaDeliveryLargeTransferThreshold()}) are limited in number and are either handed to
+ * the container's sendfile support or written with non-blocking servlet I/O, so that slow clients do not hold a request thread for the
+ * duration of the download. Non-blocking transfers are aborted after a configurable time, so that stalled clients cannot hold a transfer
+ * permit forever. Callers must not write a response entity after {@link #processRequest(HttpServletRequest, HttpServletResponse, String, String)}
+ * has returned.
+ * </p>
  *
  * @author Florian Alpers
  */
 public class MediaDeliveryService {
 
+    private static final Logger logger = LogManager.getLogger(MediaDeliveryService.class);
+
     private static final String CONTENT_RANGE_HEADER = "Content-Range";
     private static final int DEFAULT_BUFFER_SIZE = 10240; // ..bytes = 10KB.
     private static final long DEFAULT_EXPIRE_TIME = 604800000L; // ..ms = 1 week.
     private static final String MULTIPART_BOUNDARY = "MULTIPART_BYTERANGES";
+    /** Maximum number of bytes handed to a single {@link FileChannel#transferTo(long, long, WritableByteChannel)} call. */
+    private static final long TRANSFER_CHUNK_SIZE = 1024L * 1024L; // ..bytes = 1MB.
+    /** Size of the buffer used for non-blocking writes. */
+    private static final int ASYNC_BUFFER_SIZE = 65536; // ..bytes = 64KB.
+    /** Seconds after which a client refused because of too many large transfers may try again. */
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    static final String ATTRIBUTE_SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String ATTRIBUTE_SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String ATTRIBUTE_SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String ATTRIBUTE_SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /** Checks running asynchronous transfers for stalled clients. Threads are only started once a transfer is watched. */
+    private static final ScheduledThreadPoolExecutor STALL_WATCHDOG = createWatchdog();
+
+    private final Semaphore transferPermits;
+    private final long largeTransferThreshold;
+    private final boolean sendfileEnabled;
+    private final long stallTimeoutMillis;
+
+    /**
+     * Creates a service using the configured transfer limits.
+     */
+    public MediaDeliveryService() {
+        this(DataManager.getInstance().getMediaTransferPermits(),
+                DataManager.getInstance().getConfiguration().getMediaDeliveryLargeTransferThreshold(),
+                DataManager.getInstance().getConfiguration().isMediaDeliverySendfileEnabled(),
+                Duration.ofSeconds(DataManager.getInstance().getConfiguration().getMediaDeliveryStallTimeout()));
+    }
+
+    /**
+     * 
+     * @param transferPermits Permits for concurrent large transfers
+     * @param largeTransferThreshold Response size in bytes from which a transfer counts as large
+     * @param sendfileEnabled If true, large files are handed to the container's sendfile support where available
+     * @param stallTimeout Maximum time a non-blocking transfer may go without writing any data
+     */
+    public MediaDeliveryService(Semaphore transferPermits, long largeTransferThreshold, boolean sendfileEnabled, Duration stallTimeout) {
+        this.transferPermits = transferPermits;
+        this.largeTransferThreshold = largeTransferThreshold;
+        this.sendfileEnabled = sendfileEnabled;
+        this.stallTimeoutMillis = Math.max(1, stallTimeout.toMillis());
+    }
+
+    /**
+     * @return Executor for stall checks; checks of finished transfers are removed from its queue immediately
+     */
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        ScheduledThreadPoolExecutor ret = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "media-transfer-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ret.setRemoveOnCancelPolicy(true);
+        return ret;
+    }
+
+    /**
+     * Stops the thread watching asynchronous transfers. Transfers started afterwards fall back to the container's asynchronous timeout.
+     */
+    public static void shutdown() {
+        STALL_WATCHDOG.shutdownNow();
+    }
 
     /**
      * Process the actual request.
@@ -66,6 +155,12 @@ public class MediaDeliveryService {
      * @param filePath a {@link java.lang.String} object.
      * @param mimeType a {@link java.lang.String} object.
      * @throws java.io.IOException if any.
+     * @should return 503 if too many large transfers are running
+     * @should not block request threads while slow clients read large files
+     * @should return requested range of large file
+     * @should hand large files to sendfile if supported
+     * @should release permit and close connection if asynchronous transfer stalls
+     * @should not abort slow asynchronous transfers that keep making progress
      */
     public void processRequest(HttpServletRequest request, HttpServletResponse response, String filePath, String mimeType) throws IOException {
 
@@ -129,82 +224,193 @@ public class MediaDeliveryService {
             String accept = request.getHeader("Accept");
             disposition = accept != null && accepts(accept, contentType) ? "inline" : "attachment";
         }
-        if (acceptsGzip) {
-            response.setHeader("Content-Encoding", "gzip");
-        }
 
-        // Initialize response.
-        initResponse(response, fileName, lastModified, eTag, disposition);
+        // Large transfers are limited in number. Sendfile transfers are done by the container without
+        // holding a thread or a buffer of the application, so they don't need a permit.
+        long transferLength = sections.isEmpty() ? length : sections.stream().mapToLong(Section::getLength).sum();
+        boolean large = transferLength >= largeTransferThreshold;
+        boolean sendfile = large && sections.size() <= 1 && !acceptsGzip && sendfileEnabled
+                && Boolean.TRUE.equals(request.getAttribute(ATTRIBUTE_SENDFILE_SUPPORT));
+        boolean permitAcquired = false;
+        if (large && !sendfile) {
+            if (!transferPermits.tryAcquire()) {
+                logger.debug("Too many concurrent large transfers, refusing request for {}", fileName);
+                response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            permitAcquired = true;
+        }
 
-        // Send requested file (part(s)) to client ------------------------------------------------
+        boolean handedOver = false;
+        try {
+            // Initialize response.
+            initResponse(response, fileName, lastModified, eTag, disposition);
+            if (acceptsGzip) {
+                response.setHeader("Content-Encoding", "gzip");
+            }
 
-        try (RandomAccessFile raf = new RandomAccessFile(file.toString(), "r"); FileChannel input = raf.getChannel();
-                OutputStream out = acceptsGzip ? new GZIPOutputStream(response.getOutputStream(), DEFAULT_BUFFER_SIZE) : response.getOutputStream();
-                WritableByteChannel output = Channels.newChannel(response.getOutputStream())) {
-            // Open streams.
+            // Send requested file (part(s)) to client --------------------------------------------
 
-            if (sections.isEmpty()) {
+            if (sections.size() > 1) {
+                writeMultipart(response, file, sections, contentType);
+                return;
+            }
 
-                // Return full file.
-                Section sec = new Section(length);
-                response.setContentType(contentType);
-                response.setHeader(CONTENT_RANGE_HEADER, "bytes " + sec.start + "-" + sec.end + "/" + sec.total);
+            // Return full file or single part of file.
+            Section sec = sections.isEmpty() ? new Section(length) : sections.get(0);
+            response.setContentType(contentType);
+            response.setHeader(CONTENT_RANGE_HEADER, "bytes " + sec.start + "-" + sec.end + "/" + sec.total);
+            if (!sections.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
+            }
 
+            if (acceptsGzip) {
                 // Content length is not directly predictable in case of GZIP.
                 // So only add it if there is no means of GZIP, else browser will hang.
-                if (!acceptsGzip) {
-                    response.setHeader("Content-Length", String.valueOf(sec.length));
+                try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+                        OutputStream out = new GZIPOutputStream(response.getOutputStream(), DEFAULT_BUFFER_SIZE)) {
+                    copy(input, Channels.newChannel(out), sec);
                 }
+                return;
+            }
 
-                // Copy full range.
-                copy(input, output, sec);
-
-            } else if (sections.size() == 1) {
-
-                // Return single part of file.
-                Section sec = sections.get(0);
-                response.setContentType(contentType);
-                response.setHeader(CONTENT_RANGE_HEADER, "bytes " + sec.start + "-" + sec.end + "/" + sec.total);
-                response.setHeader("Content-Length", String.valueOf(sec.length));
-                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
-                copy(input, output, sec);
+            response.setHeader("Content-Length", String.valueOf(sec.length));
+            if (sendfile) {
+                // The container copies the file to the socket once the response is committed. End is exclusive.
+                request.setAttribute(ATTRIBUTE_SENDFILE_FILENAME, file.toFile().getCanonicalPath());
+                request.setAttribute(ATTRIBUTE_SENDFILE_START, sec.start);
+                request.setAttribute(ATTRIBUTE_SENDFILE_END, sec.end + 1);
+                response.flushBuffer();
+                return;
+            }
 
-            } else {
+            if (large && request.isAsyncSupported()) {
+                handedOver = writeAsync(request, response, file, sec);
+                if (handedOver) {
+                    return;
+                }
+            }
 
-                // Return multiple parts of file.
-                response.setContentType("multipart/byteranges; boundary=" + MULTIPART_BOUNDARY);
-                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
+            try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+                copy(input, Channels.newChannel(response.getOutputStream()), sec);
+            }
+        } finally {
+            if (permitAcquired && !handedOver) {
+                transferPermits.release();
+            }
+        }
+    }
 
-                // Cast back to ServletOutputStream to get the easy println methods.
-                ServletOutputStream sos = response.getOutputStream();
+    /**
+     * Writes the given sections as a multipart/byteranges response on the request thread.
+     *
+     * @param response
+     * @param file
+     * @param sections
+     * @param contentType
+     * @throws IOException
+     */
+    private static void writeMultipart(HttpServletResponse response, Path file, List<Section> sections, String contentType) throws IOException {
+        response.setContentType("multipart/byteranges; boundary=" + MULTIPART_BOUNDARY);
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
+
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Cast back to ServletOutputStream to get the easy println methods.
+            ServletOutputStream sos = response.getOutputStream();
+            WritableByteChannel output = Channels.newChannel(sos);
+
+            // Copy multi part range.
+            for (Section sec : sections) {
+                // Add multipart boundary and header fields for every range.
+                sos.println();
+                sos.println("--" + MULTIPART_BOUNDARY);
+                sos.println("Content-Type: " + contentType);
+                sos.println("Content-Range: bytes " + sec.start + "-" + sec.end + "/" + sec.total);
 
-                // Copy multi part range.
-                for (Section sec : sections) {
-                    // Add multipart boundary and header fields for every range.
-                    sos.println();
-                    sos.println("--" + MULTIPART_BOUNDARY);
-                    sos.println("Content-Type: " + contentType);
-                    sos.println("Content-Range: bytes " + sec.start + "-" + sec.end + "/" + sec.total);
+                // Copy single part range of multi part range.
+                copy(input, output, sec);
+            }
 
-                    // Copy single part range of multi part range.
-                    copy(input, output, sec);
-                }
+            // End with multipart boundary.
+            sos.println();
+            sos.println("--" + MULTIPART_BOUNDARY + "--");
+        }
+    }
 
-                // End with multipart boundary.
-                sos.println();
-                sos.println("--" + MULTIPART_BOUNDARY + "--");
-            }
+    /**
+     * Switches the request to asynchronous mode and writes the given section whenever the client is ready to receive more data. The request thread
+     * is returned to the container immediately. The transfer permit is released once the transfer is complete, has failed or has not written
+     * any data for the stall timeout. Slow clients that keep reading are not aborted, however long the transfer takes.
+     *
+     * @param request
+     * @param response
+     * @param file
+     * @param sec
+     * @return true if the transfer has been handed over; false if the request could not be switched to asynchronous mode
+     * @throws IOException
+     */
+    private boolean writeAsync(HttpServletRequest request, HttpServletResponse response, Path file, Section sec) throws IOException {
+        FileChannel input = FileChannel.open(file, StandardOpenOption.READ);
+        AsyncContext asyncContext;
+        try {
+            asyncContext = request.startAsync(request, response);
+        } catch (IllegalStateException e) {
+            logger.debug("Cannot start asynchronous transfer, falling back to blocking I/O: {}", e.getMessage());
+            input.close();
+            return false;
+        }
+        AsyncFileWriter writer = new AsyncFileWriter(asyncContext, input, sec, transferPermits, stallTimeoutMillis);
+        try {
+            writer.watch();
+            // The container timeout would cap the total transfer time; stalls are detected by the watchdog instead
+            asyncContext.setTimeout(0);
+        } catch (RejectedExecutionException e) {
+            asyncContext.setTimeout(stallTimeoutMillis);
+        }
+        asyncContext.addListener(writer);
+        try {
+            response.flushBuffer();
+            ServletOutputStream out = response.getOutputStream();
+            writer.setOutputStream(out);
+            out.setWriteListener(writer);
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            asyncContext.complete();
+            throw e;
+        }
+        // Not all containers call the listener before isReady() has returned false once (e.g. Grizzly), so start writing here.
+        // Calls are serialized by the writer.
+        try {
+            writer.onWritePossible();
+        } catch (IOException e) {
+            writer.onError(e);
         }
+        return true;
     }
 
     /**
+     * Copies the given section in chunks. A single {@link FileChannel#transferTo(long, long, WritableByteChannel)} call may transfer fewer bytes
+     * than requested.
+     * 
      * @param input
      * @param output
      * @param sec
      * @throws IOException
      */
     private static void copy(FileChannel input, WritableByteChannel output, Section sec) throws IOException {
-        input.transferTo(sec.start, sec.length, output);
+        long position = sec.start;
+        long end = sec.start + sec.length;
+        while (position < end) {
+            long transferred = input.transferTo(position, Math.min(TRANSFER_CHUNK_SIZE, end - position), output);
+            if (transferred <= 0) {
+                if (position >= input.size()) {
+                    throw new EOFException("File is shorter than the requested range");
+                }
+                continue;
+            }
+            position += transferred;
+        }
     }
 
     /**
@@ -401,6 +607,164 @@ public class MediaDeliveryService {
                 || Arrays.binarySearch(acceptValues, "*/*") > -1;
     }
 
+    /**
+     * Writes a file section to a non-blocking servlet output stream. {@link #onWritePossible()} may be called by the request thread and by
+     * container threads and is therefore synchronized. The transfer is aborted if no data could be written for the stall timeout.
+     */
+    private static class AsyncFileWriter implements WriteListener, AsyncListener {
+
+        private final AsyncContext asyncContext;
+        private final FileChannel input;
+        private final Semaphore transferPermits;
+        private final long end;
+        private final long stallTimeoutNanos;
+        private final byte[] buffer = new byte[ASYNC_BUFFER_SIZE];
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private ServletOutputStream out;
+        private long position;
+        private volatile long lastProgress = System.nanoTime();
+        private volatile ScheduledFuture<?> stallCheck;
+
+        /**
+         * 
+         * @param asyncContext
+         * @param input
+         * @param sec
+         * @param transferPermits Permits to release one of when the transfer ends
+         * @param stallTimeoutMillis Time in milliseconds without progress after which the transfer is aborted
+         */
+        AsyncFileWriter(AsyncContext asyncContext, FileChannel input, Section sec, Semaphore transferPermits, long stallTimeoutMillis) {
+            this.asyncContext = asyncContext;
+            this.input = input;
+            this.transferPermits = transferPermits;
+            this.position = sec.start;
+            this.end = sec.start + sec.length;
+            this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        }
+
+        /**
+         * Schedules the next stall check for when the stall timeout would be reached without further progress.
+         *
+         * @throws RejectedExecutionException if the watchdog has been shut down
+         */
+        void watch() {
+            long delay = lastProgress + stallTimeoutNanos - System.nanoTime();
+            stallCheck = STALL_WATCHDOG.schedule(this::checkStall, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Aborts the transfer if it has not made progress for the stall timeout; otherwise checks again later.
+         */
+        private void checkStall() {
+            if (closed.get()) {
+                return;
+            }
+            if (System.nanoTime() - lastProgress >= stallTimeoutNanos) {
+                logger.debug("Asynchronous media transfer stalled at byte {} of {}", position, end);
+                close();
+                complete();
+                return;
+            }
+            try {
+                watch();
+            } catch (RejectedExecutionException e) {
+                // Watchdog shut down with the application
+            }
+        }
+
+        /**
+         * @param out the out to set
+         */
+        void setOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public synchronized void onWritePossible() throws IOException {
+            ByteBuffer buf = ByteBuffer.wrap(buffer);
+            while (!completed.get() && out.isReady()) {
+                if (position >= end) {
+                    complete();
+                    return;
+                }
+                buf.clear();
+                buf.limit((int) Math.min(buffer.length, end - position));
+                int read = input.read(buf, position);
+                if (read < 0) {
+                    throw new EOFException("File is shorter than the requested range");
+                }
+                out.write(buffer, 0, read);
+                position += read;
+                lastProgress = System.nanoTime();
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onError(Throwable t) {
+            // Usually the client has closed the connection
+            logger.debug("Asynchronous media transfer aborted: {}", t.getMessage());
+            close();
+            complete();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            logger.debug("Asynchronous media transfer timed out at byte {} of {}", position, end);
+            close();
+            complete();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+            complete();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not used
+        }
+
+        /**
+         * Completes the asynchronous request. Only the first call has an effect.
+         */
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                asyncContext.complete();
+            }
+        }
+
+        /**
+         * Closes the file and releases the transfer permit. Only the first call has an effect.
+         */
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                ScheduledFuture<?> check = stallCheck;
+                if (check != null) {
+                    check.cancel(false);
+                }
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    logger.warn(e.getMessage());
+                }
+                transferPermits.release();
+            }
+        }
+    }
+
     /**
      * A section within a byte array
      */
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.api.rest.model.monitoring;
+
+import java.util.List;
+
+import io.goobi.viewer.controller.telemetry.CallSiteStatistics;
+import io.goobi.viewer.controller.telemetry.QueryTelemetry;
+import io.goobi.viewer.controller.telemetry.SlowQuery;
+
+/**
+ * Solr query and database call statistics as reported by the monitoring API.
+ */
+public class QueryMetrics {
+
+    private final boolean enabled;
+    private final long slowQueryThreshold;
+    private final List<CallSiteStatistics> callSites;
+    private final List<SlowQuery> slowQueries;
+
+    /**
+     * 
+     * @param telemetry
+     */
+    public QueryMetrics(QueryTelemetry telemetry) {
+        this.enabled = telemetry.isEnabled();
+        this.slowQueryThreshold = telemetry.getSlowQueryThreshold();
+        this.callSites = telemetry.getStatistics();
+        this.slowQueries = telemetry.getSlowQueries();
+    }
+
+    /**
+     * @return the enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the slowQueryThreshold in milliseconds
+     */
+    public long getSlowQueryThreshold() {
+        return slowQueryThreshold;
+    }
+
+    /**
+     * @return the callSites
+     */
+    public List<CallSiteStatistics> getCallSites() {
+        return callSites;
+    }
+
+    /**
+     * @return the slowQueries
+     */
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueries;
+    }
+}
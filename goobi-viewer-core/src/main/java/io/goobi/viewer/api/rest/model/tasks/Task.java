@@ -153,6 +153,7 @@ public class Task {
             case UPDATE_UPLOAD_JOBS:
             case INDEX_USAGE_STATISTICS:
             case PRERENDER_PDF:
+            case BUILD_NER_INDEX:
                 return Accessibility.TOKEN;
             case SEARCH_EXCEL_EXPORT:
                 return Accessibility.SESSION;
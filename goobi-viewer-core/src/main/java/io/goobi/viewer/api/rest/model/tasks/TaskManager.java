@@ -194,6 +194,12 @@ public class TaskManager {
                     DataManager.getInstance().getSearchIndex().updateDataRepositoryNames(params.getPi(), params.getDataRepositoryName());
                     // Reset access condition and view limit for record
                     DataManager.getInstance().getRecordLockManager().emptyCacheForRecord(params.getPi());
+                    // Discard shared TOC skeletons containing the record
+                    DataManager.getInstance().getTocSkeletonCache().invalidate(params.getPi());
+                    // Named entity tags are read from the record's ALTO files
+                    DataManager.getInstance().getNerIndexManager().invalidate(params.getPi());
+                    // Rendered CMS fragments may list the record
+                    DataManager.getInstance().getCmsFragmentCache().invalidateAll();
                 };
             case UPDATE_UPLOAD_JOBS:
                 return (request, job) -> {
@@ -204,6 +210,23 @@ public class TaskManager {
                         job.setError(e.getMessage());
                     }
                 };
+            case BUILD_NER_INDEX:
+                return (request, job) -> {
+                    ToolsRequestParameters params = Optional.ofNullable(job.getParams())
+                            .filter(ToolsRequestParameters.class::isInstance)
+                            .map(p -> (ToolsRequestParameters) p)
+                            .orElse(null);
+                    if (params == null || StringUtils.isBlank(params.getPi())) {
+                        job.setError("No pi given");
+                        return;
+                    }
+                    try {
+                        DataManager.getInstance().getNerIndexManager().getIndex(params.getPi());
+                    } catch (PresentationException | IndexUnreachableException e) {
+                        logger.error(ERROR_IN_JOB, job.getId(), e.toString());
+                        job.setError(e.getMessage());
+                    }
+                };
             case INDEX_USAGE_STATISTICS:
                 return (request, job) -> {
                     try {
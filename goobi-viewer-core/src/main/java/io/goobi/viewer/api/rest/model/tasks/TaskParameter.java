@@ -50,7 +50,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 @JsonSubTypes({
         @JsonSubTypes.Type(value = SitemapRequestParameters.class, name = "UPDATE_SITEMAP"),
         @JsonSubTypes.Type(value = ToolsRequestParameters.class, name = "UPDATE_DATA_REPOSITORY_NAMES"),
-        @JsonSubTypes.Type(value = PrerenderPdfsRequestParameters.class, name = "PRERENDER_PDF")
+        @JsonSubTypes.Type(value = PrerenderPdfsRequestParameters.class, name = "PRERENDER_PDF"),
+        @JsonSubTypes.Type(value = ToolsRequestParameters.class, name = "BUILD_NER_INDEX")
 })
 @Schema(name = "ViewerTaskParameter",
         description = "Contains the type of the task to execute as well as possible additional parameters depending on the type of the task",
@@ -155,7 +155,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationCollection getWebAnnotationCollectionForRecord(String pi, URI uri) throws DAOException {
-        long count = DataManager.getInstance().getDao().getAnnotationCountForWork(pi);
+        long count = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations().size();
         AnnotationCollectionBuilder builder = new AnnotationCollectionBuilder(uri, count);
         AnnotationCollection collection = builder.setItemsPerPage((int) count).buildCollection();
         if (count > 0) {
@@ -177,7 +177,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationCollection getWebAnnotationCollectionForPage(String pi, Integer pageNo, URI uri) throws DAOException {
-        long count = DataManager.getInstance().getDao().getAnnotationCountForTarget(pi, pageNo);
+        long count = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations(pageNo).size();
         AnnotationCollectionBuilder builder = new AnnotationCollectionBuilder(uri, count);
         AnnotationCollection collection = builder.setItemsPerPage((int) count).buildCollection();
         if (count > 0) {
@@ -197,7 +197,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationList getOAnnotationListForRecord(String pi, URI uri) throws DAOException {
-        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getDao().getAnnotationsForWork(pi);
+        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations();
         AnnotationList list = new AnnotationList(uri);
         data.stream().map(converter::getAsOpenAnnotation).forEach(list::addResource);
         return list;
@@ -211,7 +211,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public IAnnotationCollection getOAnnotationListForPage(String pi, Integer pageNo, URI uri) throws DAOException {
-        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getDao().getAnnotationsForTarget(pi, pageNo);
+        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations(pageNo);
         AnnotationList list = new AnnotationList(uri);
         data.stream().map(converter::getAsOpenAnnotation).forEach(list::addResource);
         return list;
@@ -229,7 +229,7 @@ public class AnnotationsResourceBuilder {
         if (page == null || page < 1) {
             throw new IllegalRequestException("Page number must be at least 1");
         }
-        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getDao().getAnnotationsForWork(pi);
+        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations();
         if (data.isEmpty()) {
             throw new IllegalRequestException("Page number is out of bounds");
         }
@@ -252,7 +252,7 @@ public class AnnotationsResourceBuilder {
         if (page == null || page < 1) {
             throw new IllegalRequestException("Page number must be at least 1");
         }
-        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getDao().getAnnotationsForTarget(pi, pageNo);
+        List<CrowdsourcingAnnotation> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations(pageNo);
         if (data.isEmpty()) {
             throw new IllegalRequestException("Page number is out of bounds");
         }
@@ -268,7 +268,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationCollection getWebAnnotationCollectionForRecordComments(String pi, URI uri) throws DAOException {
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForWork(pi);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments();
 
         AnnotationCollectionBuilder builder = new AnnotationCollectionBuilder(uri, data.size());
         AnnotationCollection collection = builder.setItemsPerPage(data.size()).buildCollection();
@@ -290,7 +290,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationCollection getWebAnnotationCollectionForPageComments(String pi, int pageNo, URI uri) throws DAOException {
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForPage(pi, pageNo);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments(pageNo);
 
         AnnotationCollectionBuilder builder = new AnnotationCollectionBuilder(uri, data.size());
         AnnotationCollection collection = builder.setItemsPerPage(data.size()).buildCollection();
@@ -317,7 +317,7 @@ public class AnnotationsResourceBuilder {
         if (page == null || page < 1) {
             throw new IllegalRequestException("Page number must be at least 1");
         }
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForWork(pi);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments();
         if (data.isEmpty()) {
             throw new IllegalRequestException("Page number is out of bounds");
         }
@@ -335,7 +335,7 @@ public class AnnotationsResourceBuilder {
         if (collectionPage == null || collectionPage < 1) {
             throw new IllegalRequestException("Page number must be at least 1");
         }
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForPage(pi, pageNo);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments(pageNo);
         if (data.isEmpty()) {
             throw new IllegalRequestException("Page number is out of bounds");
         }
@@ -356,7 +356,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationList getOAnnotationListForRecordComments(String pi, URI uri) throws DAOException {
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForWork(pi);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments();
 
         AnnotationList list = new AnnotationList(uri);
         data.stream().map(converter::getAsOpenAnnotation).forEach(list::addResource);
@@ -372,7 +372,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationList getOAnnotationListForPageComments(String pi, Integer pageNo, URI uri) throws DAOException {
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForPage(pi, pageNo);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments(pageNo);
 
         AnnotationList list = new AnnotationList(uri);
         data.stream().map(converter::getAsOpenAnnotation).forEach(list::addResource);
@@ -388,7 +388,7 @@ public class AnnotationsResourceBuilder {
      * @throws DAOException
      */
     public AnnotationPage getWebAnnotationPageForPageComments(String pi, Integer pageNo, URI uri) throws DAOException {
-        List<Comment> data = DataManager.getInstance().getDao().getCommentsForPage(pi, pageNo);
+        List<Comment> data = DataManager.getInstance().getRecordAnnotationCache().get(pi).getComments(pageNo);
         AnnotationPage page = new AnnotationPage(uri);
         data.stream()
                 .map(converter::getAsWebAnnotation)
@@ -49,8 +49,11 @@ import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.exceptions.ViewerConfigurationException;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.ner.NERIndexManager;
+import io.goobi.viewer.model.ner.RecordNERIndex;
+import io.goobi.viewer.model.ner.RecordNERIndex.PageEntry;
 import io.goobi.viewer.model.security.AccessConditionUtils;
-import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrTools;
 
@@ -62,22 +65,82 @@ public class NERBuilder {
 
     private static final Logger logger = LogManager.getLogger(NERBuilder.class);
 
+    /**
+     * Returns the named entity tags of the given record, grouped into ranges of <code>rangeSize</code> pages. Tags are served from the
+     * precomputed {@link RecordNERIndex} of the record. Single page requests for records without a current index are answered by parsing the
+     * requested page directly while the index is built in the background.
+     *
+     * @param pi Record identifier
+     * @param type Optional tag type
+     * @param start First page order; optional
+     * @param end Last page order; optional
+     * @param rangeSize Number of pages per tag group
+     * @param request
+     * @return {@link DocumentReference}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
     public DocumentReference getNERTags(String pi, String type, Integer start, Integer end, int rangeSize, HttpServletRequest request)
             throws PresentationException, IndexUnreachableException {
-        StringBuilder query = new StringBuilder();
-        query.append(SolrConstants.PI_TOPSTRUCT).append(':').append(pi);
-
-        if (start != null && end != null) {
-            query.append(SolrConstants.SOLR_QUERY_AND).append(SolrConstants.ORDER).append(":[").append(start).append(" TO ").append(end).append("]");
-        } else if (start != null) {
-            query.append(SolrConstants.SOLR_QUERY_AND).append(SolrConstants.ORDER).append(":[").append(start).append(" TO *]");
-        } else if (end != null) {
-            query.append(SolrConstants.SOLR_QUERY_AND).append(SolrConstants.ORDER).append(":[* TO ").append(end).append("]");
-        } else {
-            query.append(SolrConstants.SOLR_QUERY_AND).append(SolrConstants.DOCTYPE).append(":PAGE");
+        NERIndexManager indexManager = DataManager.getInstance().getNerIndexManager();
+        if (start != null && start.equals(end)) {
+            RecordNERIndex index = indexManager.getCachedIndex(pi);
+            if (index == null) {
+                indexManager.scheduleBuild(pi);
+                StringBuilder query = new StringBuilder();
+                query.append(SolrConstants.PI_TOPSTRUCT).append(':').append(pi);
+                query.append(SolrConstants.SOLR_QUERY_AND).append(SolrConstants.ORDER).append(':').append(start);
+                return getNERTagsByQuery(request, query.toString(), type, rangeSize);
+            }
+            return getNERTagsFromIndex(request, index, type, start, end, rangeSize);
+        }
+
+        return getNERTagsFromIndex(request, indexManager.getIndex(pi), type, start, end, rangeSize);
+    }
+
+    /**
+     * 
+     * @param request
+     * @param index Precomputed tags of the record
+     * @param typeString
+     * @param start
+     * @param end
+     * @param rangeSize
+     * @return {@link DocumentReference}
+     */
+    DocumentReference getNERTagsFromIndex(HttpServletRequest request, RecordNERIndex index, String typeString, Integer start, Integer end,
+            int rangeSize) {
+        List<PageEntry> pages = index.getPages(start, end);
+        if (pages.isEmpty()) {
+            return new DocumentReference();
         }
 
-        return getNERTagsByQuery(request, query.toString(), type, rangeSize);
+        DocumentReference doc = new DocumentReference(index.getPi());
+        NERTag.Type type = NERTag.Type.getByLabel(typeString);
+        int useRangeSize = Math.max(1, rangeSize);
+        for (int i = 0; i < pages.size(); i += useRangeSize) {
+            List<PageEntry> rangeList = pages.subList(i, Math.min(i + useRangeSize, pages.size()));
+            PageEntry first = rangeList.get(0);
+            PageEntry last = rangeList.get(rangeList.size() - 1);
+            TagGroup range = first.getOrder() == last.getOrder() ? new PageReference(first.getOrder())
+                    : new MultiPageReference(first.getOrder(), last.getOrder());
+            for (PageEntry page : rangeList) {
+                if (page.getAltoFileName() == null || page.getTagCount() == 0) {
+                    continue;
+                }
+                try {
+                    if (AccessConditionUtils.checkAccess(request, "text", index.getPi(), page.getAltoFileName(), false).isGranted()) {
+                        range.addTags(page.getTags(type));
+                    }
+                } catch (IndexUnreachableException | DAOException e) {
+                    logger.error(e.toString());
+                }
+            }
+            Collections.sort(range.getTags());
+            Collections.reverse(range.getTags());
+            doc.addPageRange(range);
+        }
+        return doc;
     }
 
     /**
@@ -123,17 +186,14 @@ public class NERBuilder {
                         }
                         if (AccessConditionUtils.checkAccess(request, "text", topStructPi, altoFileName, false).isGranted()) {
 
-                            String altoString = "";
-                            String charset = null;
+                            AltoPage altoPage;
                             try {
-                                StringPair alto = DataFileTools.loadAlto(altoFileName);
-                                altoString = alto.getOne();
-                                charset = alto.getTwo();
+                                altoPage = DataFileTools.loadAltoPage(altoFileName);
                             } catch (FileNotFoundException e) {
                                 continue;
                             }
                             Integer pageOrder = getPageOrder(solrDoc);
-                            List<TagCount> tags = ALTOTools.getNERTags(altoString, charset, type);
+                            List<TagCount> tags = ALTOTools.getNERTags(altoPage, type);
                             for (TagCount tagCount : tags) {
                                 for (ElementReference reference : tagCount.getReferences()) {
                                     reference.setPage(pageOrder);
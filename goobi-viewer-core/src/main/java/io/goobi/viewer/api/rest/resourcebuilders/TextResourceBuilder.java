@@ -27,6 +27,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -44,6 +45,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.ws.rs.core.StreamingOutput;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -77,6 +79,8 @@ import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.exceptions.UncheckedPresentationException;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.alto.AltoPageCache;
 import io.goobi.viewer.model.translations.language.Language;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
@@ -196,7 +200,7 @@ public class TextResourceBuilder {
         if (file == null) {
             throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
         }
-        if (!Files.isRegularFile(file)) {
+        if (!DataFileTools.isDataFile(pi, file)) {
             logger.warn("ALTO file not found: {}", file.toAbsolutePath());
             throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
         }
@@ -215,6 +219,36 @@ public class TextResourceBuilder {
         }
     }
 
+    /**
+     * Returns the parsed ALTO page for the given file from the shared {@link AltoPageCache}.
+     *
+     * @param pi
+     * @param fileName
+     * @return {@link AltoPage}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws ContentNotFoundException
+     */
+    public AltoPage getAltoPage(String pi, String fileName) throws PresentationException,
+            IndexUnreachableException, ContentNotFoundException {
+        java.nio.file.Path file = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getAltoCrowdsourcingFolder(),
+                DataManager.getInstance().getConfiguration().getAltoFolder(), fileName);
+
+        if (file == null || !DataFileTools.isDataFile(pi, file)) {
+            throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
+        }
+
+        try {
+            return DataManager.getInstance().getAltoPageCache().getPage(file);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            logger.debug(e.getMessage());
+            throw new ContentNotFoundException(StringConstants.EXCEPTION_RESOURCE_NOT_FOUND);
+        } catch (IOException | XMLStreamException e) {
+            logger.error(e.getMessage(), e);
+            throw new PresentationException("Error reading resource");
+        }
+    }
+
     /**
      * 
      * @param pi
@@ -266,9 +300,9 @@ public class TextResourceBuilder {
 
         final Language language = DataManager.getInstance().getLanguageHelper().getLanguage(langCode);
         java.nio.file.Path teiPath = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getTeiFolder(), null, null);
-        java.nio.file.Path filePath = getDocumentLanguageVersion(teiPath, language);
+        java.nio.file.Path filePath = getDocumentLanguageVersion(pi, teiPath, language);
 
-        if (filePath != null && Files.isRegularFile(filePath)) {
+        if (filePath != null && DataFileTools.isDataFile(pi, filePath)) {
             // TEI-based records
             try {
                 Document doc = XmlTools.readXmlFile(filePath);
@@ -328,9 +362,9 @@ public class TextResourceBuilder {
 
         final Language language = DataManager.getInstance().getLanguageHelper().getLanguage(langCode);
         java.nio.file.Path teiPath = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getTeiFolder(), null, null);
-        java.nio.file.Path filePath = getDocumentLanguageVersion(teiPath, language);
+        java.nio.file.Path filePath = getDocumentLanguageVersion(pi, teiPath, language);
 
-        if (filePath != null && Files.isRegularFile(filePath)) {
+        if (filePath != null && DataFileTools.isDataFile(pi, filePath)) {
 
             String filename = pi + "_tei.zip";
             return writeZipFile(Collections.singletonList(filePath), filename);
@@ -388,8 +422,8 @@ public class TextResourceBuilder {
             throws PresentationException, IndexUnreachableException, ContentNotFoundException, IOException {
         final Language language = DataManager.getInstance().getLanguageHelper().getLanguage(langCode);
         java.nio.file.Path cmdiPath = DataFileTools.getDataFolder(pi, DataManager.getInstance().getConfiguration().getCmdiFolder());
-        java.nio.file.Path filePath = getDocumentLanguageVersion(cmdiPath, language);
-        if (filePath != null && Files.isRegularFile(filePath)) {
+        java.nio.file.Path filePath = getDocumentLanguageVersion(pi, cmdiPath, language);
+        if (filePath != null && DataFileTools.isDataFile(pi, filePath)) {
             try {
                 Document doc = XmlTools.readXmlFile(filePath);
                 return XmlTools.getXMLOutputter().outputString(doc);
@@ -407,7 +441,7 @@ public class TextResourceBuilder {
             throws PresentationException, IndexUnreachableException, ContentNotFoundException {
 
         java.nio.file.Path file = DataFileTools.getDataFilePath(pi, contentFolder, null, fileName);
-        if (file != null && Files.isRegularFile(file)) {
+        if (file != null && DataFileTools.isDataFile(pi, file)) {
             try {
                 return FileTools.getStringFromFile(file.toFile(), StringTools.DEFAULT_ENCODING);
             } catch (FileNotFoundException e) {
@@ -438,7 +472,7 @@ public class TextResourceBuilder {
 
         java.nio.file.Path file = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getFulltextCrowdsourcingFolder(),
                 DataManager.getInstance().getConfiguration().getFulltextFolder(), fileName);
-        if (file != null && Files.isRegularFile(file)) {
+        if (file != null && DataFileTools.isDataFile(pi, file)) {
             try {
                 return FileTools.getStringFromFile(file.toFile(), StringTools.DEFAULT_ENCODING);
             } catch (FileNotFoundException e) {
@@ -449,9 +483,9 @@ public class TextResourceBuilder {
         } else {
             file = DataFileTools.getDataFilePath(pi, DataManager.getInstance().getConfiguration().getAltoFolder(),
                     DataManager.getInstance().getConfiguration().getAltoFolder(), fileName.replaceAll("(i?)\\.txt", ".xml"));
-            if (file != null && Files.isRegularFile(file)) {
+            if (file != null && DataFileTools.isDataFile(pi, file)) {
                 try {
-                    return ALTOTools.getFulltext(file, StringTools.DEFAULT_ENCODING);
+                    return ALTOTools.getFulltext(file);
                 } catch (IOException e) {
                     logger.error(e.getMessage(), e);
                 }
@@ -500,7 +534,7 @@ public class TextResourceBuilder {
                             p -> Paths.get(p.toString().replaceAll("(i?)\\.(alto|xml)", ".txt")),
                             p -> {
                                 try {
-                                    return ALTOTools.getFulltext(p, StringTools.DEFAULT_ENCODING);
+                                    return ALTOTools.getFulltext(p);
                                 } catch (IOException e) {
                                     logger.error("Error reading file {}", p, e);
                                     return "";
@@ -550,7 +584,7 @@ public class TextResourceBuilder {
         java.nio.file.Path folder1 = DataFileTools.getDataFilePath(pi, foldername, null, null);
         java.nio.file.Path folder2 = DataFileTools.getDataFilePath(pi, altFoldername, null, null);
 
-        return getFiles(folder1, folder2, filter);
+        return getFiles(pi, folder1, folder2, filter);
     }
 
     /**
@@ -558,38 +592,33 @@ public class TextResourceBuilder {
      * getFiles.
      * </p>
      *
+     * @param pi a {@link java.lang.String} object.
      * @param folder a {@link java.nio.file.Path} object.
      * @param altFolder a {@link java.nio.file.Path} object.
      * @param filter a {@link java.lang.String} object.
      * @return a {@link java.util.List} object.
      * @throws java.io.IOException if any.
      */
-    private static List<java.nio.file.Path> getFiles(java.nio.file.Path folder, java.nio.file.Path altFolder, String filter) throws IOException {
-
-        List<java.nio.file.Path> files = new ArrayList<>();
+    private static List<java.nio.file.Path> getFiles(String pi, java.nio.file.Path folder, java.nio.file.Path altFolder, String filter)
+            throws IOException {
+        String useFilter = StringUtils.isBlank(filter) ? ".*" : filter;
+        List<java.nio.file.Path> files = DataFileTools.listDataFolder(pi, folder)
+                .stream()
+                .filter(p -> p.getFileName().toString().toLowerCase().matches(useFilter))
+                .toList();
 
-        if (folder != null && Files.isDirectory(folder)) {
-            try (Stream<java.nio.file.Path> paths = Files.list(folder)
-                    .filter(p -> p.getFileName().toString().toLowerCase().matches(StringUtils.isBlank(filter) ? ".*" : filter))
-                    .sorted((p1, p2) -> p1.getFileName().toString().compareTo(p2.getFileName().toString()))) {
-                files = paths.toList();
-            }
+        List<java.nio.file.Path> altFiles = DataFileTools.listDataFolder(pi, altFolder)
+                .stream()
+                .filter(p -> p.getFileName().toString().toLowerCase().matches(useFilter))
+                .toList();
+        if (!altFiles.isEmpty()) {
+            files = new ArrayList<>(Stream.of(files, altFiles)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toMap(java.nio.file.Path::getFileName, path -> path,
+                            (java.nio.file.Path path1, java.nio.file.Path path2) -> path1 == null ? path2 : path1))
+                    .values());
         }
 
-        if (altFolder != null && Files.isDirectory(altFolder)) {
-            try (Stream<java.nio.file.Path> paths = Files.list(altFolder)
-                    .filter(p -> p.getFileName().toString().toLowerCase().matches(StringUtils.isBlank(filter) ? ".*" : filter))
-                    .sorted((p1, p2) -> p1.getFileName().toString().compareTo(p2.getFileName().toString()))) {
-                List<java.nio.file.Path> altFiles = paths.toList();
-
-                files = new ArrayList<>(Stream.of(files, altFiles)
-                        .flatMap(List::stream)
-                        .collect(Collectors.toMap(java.nio.file.Path::getFileName, path -> path,
-                                (java.nio.file.Path path1, java.nio.file.Path path2) -> path1 == null ? path2 : path1))
-                        .values());
-            }
-
-        }
         return files;
     }
 
@@ -634,31 +663,30 @@ public class TextResourceBuilder {
      * Returns the first file on the given folder path that contains the requested language code in its name. ISO-3 files are preferred, with a
      * fallback to ISO-2.
      *
+     * @param pi
      * @param folder
      * @param language
      * @return Path of the requested file; null if not found
      * @throws IOException
      */
-    private static java.nio.file.Path getDocumentLanguageVersion(java.nio.file.Path folder, Language language) throws IOException {
+    private static java.nio.file.Path getDocumentLanguageVersion(String pi, java.nio.file.Path folder, Language language) throws IOException {
         if (language == null) {
             throw new IllegalArgumentException("language may not be null");
         }
-        if (folder == null || !Files.isDirectory(folder)) {
+        if (folder == null) {
             return null;
         }
 
-        java.nio.file.Path ret;
+        List<java.nio.file.Path> files = DataFileTools.listDataFolder(pi, folder);
         // This will return the file with the requested language or alternatively the first file in the TEI folder
-        try (Stream<java.nio.file.Path> teiFiles = Files.list(folder)) {
-            ret = teiFiles.filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCode() + ".xml")).findFirst().orElse(null);
-        }
+        java.nio.file.Path ret =
+                files.stream().filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCode() + ".xml")).findFirst().orElse(null);
         // Fallback to ISO-2
         if (ret == null) {
-            try (Stream<java.nio.file.Path> teiFiles = Files.list(folder)) {
-                ret = teiFiles.filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCodeOld() + ".xml"))
-                        .findFirst()
-                        .orElse(null);
-            }
+            ret = files.stream()
+                    .filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCodeOld() + ".xml"))
+                    .findFirst()
+                    .orElse(null);
         }
 
         return ret;
@@ -676,13 +704,13 @@ public class TextResourceBuilder {
         try {
             java.nio.file.Path teiPath = DataFileTools.getDataFolder(pi, DataManager.getInstance().getConfiguration().getTeiFolder());
             List<java.nio.file.Path> filePaths = new ArrayList<>();
-            if (Files.exists(teiPath)) {
-                // This will return the file with the requested language or alternatively the first file in the TEI folder
-                try (Stream<java.nio.file.Path> teiFiles = Files.list(teiPath)) {
-                    filePaths = teiFiles.filter(path -> path.getFileName().toString().matches(".*_[a-z]{1,3}\\.xml")).toList();
-                } catch (IOException e) {
-                    logger.error(e.toString(), e);
-                }
+            try {
+                filePaths = DataFileTools.listDataFolder(pi, teiPath)
+                        .stream()
+                        .filter(path -> path.getFileName().toString().matches(".*_[a-z]{1,3}\\.xml"))
+                        .toList();
+            } catch (IOException e) {
+                logger.error(e.toString(), e);
             }
 
             return filePaths;
@@ -708,19 +736,17 @@ public class TextResourceBuilder {
         try {
             java.nio.file.Path teiPath = DataFileTools.getDataFolder(pi, DataManager.getInstance().getConfiguration().getTeiFolder());
             List<java.nio.file.Path> filePaths = new ArrayList<>();
-            if (Files.exists(teiPath)) {
-                Language language = DataManager.getInstance().getLanguageHelper().getLanguage(langCode);
-                if (language == null) {
-                    return Collections.emptyList();
-                }
-                // This will return the file with the requested language or alternatively the first file in the TEI folder
-                try (Stream<java.nio.file.Path> teiFiles = Files.list(teiPath)) {
-                    filePaths = teiFiles
-                            .filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCode() + ".xml"))
-                            .toList();
-                } catch (IOException e) {
-                    logger.error(e.toString(), e);
-                }
+            Language language = DataManager.getInstance().getLanguageHelper().getLanguage(langCode);
+            if (language == null) {
+                return Collections.emptyList();
+            }
+            try {
+                filePaths = DataFileTools.listDataFolder(pi, teiPath)
+                        .stream()
+                        .filter(path -> path.getFileName().toString().endsWith("_" + language.getIsoCode() + ".xml"))
+                        .toList();
+            } catch (IOException e) {
+                logger.error(e.toString(), e);
             }
 
             return filePaths;
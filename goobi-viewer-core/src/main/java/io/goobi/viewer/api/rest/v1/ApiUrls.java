@@ -54,6 +54,10 @@ public class ApiUrls extends AbstractApiUrlManager {
 
     public static final String MONITORING = "/monitoring";
     public static final String MONITORING_CORE_VERSION = "/version/core";
+    public static final String MONITORING_QUERIES = "/queries";
+    public static final String MONITORING_QUERIES_PROMETHEUS = "/queries/prometheus";
+    public static final String MONITORING_THREADPOOLS = "/threadpools";
+    public static final String MONITORING_THREADPOOLS_PROMETHEUS = "/threadpools/prometheus";
 
     public static final String RECORDS_RSS = "/records/rss";
     public static final String RECORDS_RSS_JSON = "/channel.json";
@@ -181,6 +185,7 @@ public class ApiUrls extends AbstractApiUrlManager {
     public static final String SEARCH = "/search";
     public static final String SEARCH_HIT_CHILDREN = "/hit/{id}/{numChildren}";
     public static final String SEARCH_HIT_CHILDREN_GROUP = "/hit/{id}/{numChildren}/{resultGroup}";
+    public static final String SEARCH_EXPORT = "/export";
 
     public static final String TASKS = "/tasks";
     public static final String TASKS_TASK = "/{id}";
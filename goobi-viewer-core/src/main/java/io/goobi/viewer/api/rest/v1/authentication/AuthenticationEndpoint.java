@@ -48,6 +48,7 @@ import io.goobi.viewer.api.rest.v1.ApiUrls;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.AuthenticationException;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.managedbeans.NavigationHelper;
 import io.goobi.viewer.managedbeans.UserBean;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
@@ -103,6 +104,8 @@ public class AuthenticationEndpoint {
         } catch (AuthenticationException e) {
             logger.debug(e.getMessage());
             return Response.status(Response.Status.FORBIDDEN).build();
+        } catch (TooManyRequestsException e) {
+            return Response.status(e.getCode()).header("Retry-After", (long) Math.ceil(e.getRetryAfter() / 1000.0)).build();
         } catch (DAOException e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         }
@@ -114,8 +117,9 @@ public class AuthenticationEndpoint {
      * @param password
      * @throws AuthenticationException
      * @throws DAOException
+     * @throws TooManyRequestsException
      */
-    private static void authenticate(String email, String password) throws AuthenticationException, DAOException {
+    private static void authenticate(String email, String password) throws AuthenticationException, DAOException, TooManyRequestsException {
         User user = new User().auth(email, password);
         if (!user.isSuperuser()) {
             throw new AuthenticationException("Superuser access required");
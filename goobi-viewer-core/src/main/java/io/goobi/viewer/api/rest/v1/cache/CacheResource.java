@@ -46,7 +46,11 @@ import io.goobi.viewer.api.rest.bindings.AuthorizationBinding;
 import io.goobi.viewer.api.rest.model.IResponseMessage;
 import io.goobi.viewer.api.rest.model.SuccessMessage;
 import io.goobi.viewer.api.rest.v1.ApiUrls;
+import io.goobi.viewer.controller.DataFileTools;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.model.job.download.DownloadJobTools;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -107,6 +111,9 @@ public class CacheResource {
 
         // TODO delete all download jobs for all records here?
         CacheUtils.emptyCache(content, thumbs, pdf);
+        if (thumbs) {
+            DataManager.getInstance().getThumbnailStore().clear();
+        }
 
         return new SuccessMessage(true, "Cache emptied successfully");
     }
@@ -140,6 +147,19 @@ public class CacheResource {
 
         int deleted = CacheUtils.deleteFromCache(pi, content, thumbs, pdf);
 
+        // The indexer calls this after a record has been (re-)indexed, so its images may have changed
+        if (thumbs) {
+            deleted += DataManager.getInstance().getThumbnailStore().invalidate(pi);
+            if (DataManager.getInstance().getConfiguration().isThumbnailStoreEnabled()
+                    && DataManager.getInstance().getConfiguration().isThumbnailStorePrecomputeOnIndex()) {
+                try {
+                    DataManager.getInstance().getThumbnailStore().schedulePrecomputation(pi, DataFileTools.getMediaFolder(pi));
+                } catch (PresentationException | IndexUnreachableException e) {
+                    logger.warn("Cannot precompute thumbnails for {}: {}", pi.replaceAll("[\n\r\t]", "_"), e.getMessage());
+                }
+            }
+        }
+
         // Delete download jobs/files
         if (pdf) {
             try {
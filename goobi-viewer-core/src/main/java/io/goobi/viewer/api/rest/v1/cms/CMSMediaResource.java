@@ -589,7 +589,8 @@ public class CMSMediaResource {
                 throw new WebApplicationException(e);
             }
         }
-        return "";
+        // The response has been written (or is being written asynchronously) by MediaDeliveryService; no entity must be added
+        return null;
     }
 
 }
@@ -282,6 +282,7 @@ public class CampaignItemResource {
             }
             DataManager.getInstance().getDao().updateAnnotation(anno);
         }
+        DataManager.getInstance().getRecordAnnotationCache().invalidate(pi);
     }
 
     private static String getPublishedAccessCondition(Campaign campaign) {
@@ -309,6 +310,7 @@ public class CampaignItemResource {
             }
             DataManager.getInstance().getDao().updateAnnotation(anno);
         }
+        DataManager.getInstance().getRecordAnnotationCache().invalidate(pi);
     }
 
     /**
@@ -418,6 +420,7 @@ public class CampaignItemResource {
                     logger.error("Error persisting annotation: {}", e.getMessage());
                 }
             }
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(herePi);
         }
     }
 
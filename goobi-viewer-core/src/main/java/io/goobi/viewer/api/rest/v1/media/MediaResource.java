@@ -80,6 +80,7 @@ public class MediaResource {
      * @throws io.goobi.viewer.exceptions.PresentationException if any.
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.AccessDeniedException if any.
+     * @should return file content without adding an entity
      */
     @GET
     @Path(RECORDS_FILES_AUDIO)
@@ -129,7 +130,8 @@ public class MediaResource {
                 throw new WebApplicationException(e);
             }
         }
-        return "";
+        // The response has been written (or is being written asynchronously) by MediaDeliveryService; no entity must be added
+        return null;
     }
 
     /**
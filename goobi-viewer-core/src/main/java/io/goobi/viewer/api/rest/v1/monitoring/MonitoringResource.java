@@ -23,6 +23,7 @@ package io.goobi.viewer.api.rest.v1.monitoring;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.inject.Inject;
@@ -44,11 +45,14 @@ import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundExcepti
 import de.unigoettingen.sub.commons.contentlib.servlet.model.ApplicationInfo;
 import de.unigoettingen.sub.commons.contentlib.servlet.rest.ApplicationResource;
 import io.goobi.viewer.Version;
+import io.goobi.viewer.api.rest.bindings.AuthorizationBinding;
 import io.goobi.viewer.api.rest.model.monitoring.MonitoringStatus;
+import io.goobi.viewer.api.rest.model.monitoring.QueryMetrics;
 import io.goobi.viewer.api.rest.v1.ApiUrls;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.JsonTools;
 import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.ThreadPoolStatistics;
 import io.goobi.viewer.controller.mq.MessageQueueManager;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.HTTPException;
@@ -153,6 +157,58 @@ public class MonitoringResource {
         return ret;
     }
 
+    /**
+     * @return {@link QueryMetrics} as JSON
+     */
+    @GET
+    @Path(ApiUrls.MONITORING_QUERIES)
+    @Produces({ MediaType.APPLICATION_JSON })
+    @AuthorizationBinding
+    @Operation(summary = "Requires an authentication token. Reports latency statistics of Solr queries and database calls per call site"
+            + " and the slow query log", tags = { "monitoring" })
+    public QueryMetrics getQueryMetrics() {
+        return new QueryMetrics(DataManager.getInstance().getQueryTelemetry());
+    }
+
+    /**
+     * @return Latency statistics of Solr queries and database calls in Prometheus text format
+     */
+    @GET
+    @Path(ApiUrls.MONITORING_QUERIES_PROMETHEUS)
+    @Produces({ MediaType.TEXT_PLAIN })
+    @AuthorizationBinding
+    @Operation(summary = "Requires an authentication token. Reports latency statistics of Solr queries and database calls per call site"
+            + " in Prometheus text format", tags = { "monitoring" })
+    public String getQueryMetricsPrometheus() {
+        return DataManager.getInstance().getQueryTelemetry().toPrometheusText();
+    }
+
+    /**
+     * @return {@link ThreadPoolStatistics} of all background thread pools as JSON
+     */
+    @GET
+    @Path(ApiUrls.MONITORING_THREADPOOLS)
+    @Produces({ MediaType.APPLICATION_JSON })
+    @AuthorizationBinding
+    @Operation(summary = "Requires an authentication token. Reports queue depth, active threads, completed and rejected tasks"
+            + " of the background thread pools", tags = { "monitoring" })
+    public List<ThreadPoolStatistics> getThreadPoolMetrics() {
+        return DataManager.getInstance().getThreadPoolManager().getStatistics();
+    }
+
+    /**
+     * @return Statistics of all background thread pools in Prometheus text format
+     */
+    @GET
+    @Path(ApiUrls.MONITORING_THREADPOOLS_PROMETHEUS)
+    @Produces({ MediaType.TEXT_PLAIN })
+    @AuthorizationBinding
+    @Operation(summary = "Requires an authentication token. Reports queue depth, active threads, completed and rejected tasks"
+            + " of the background thread pools in Prometheus text format", tags = { "monitoring" })
+    public String getThreadPoolMetricsPrometheus() {
+        return DataManager.getInstance().getThreadPoolManager().toPrometheusText();
+    }
+
     /**
      * 
      * @param versionMap
@@ -22,31 +22,51 @@
 package io.goobi.viewer.api.rest.v1.search;
 
 import static io.goobi.viewer.api.rest.v1.ApiUrls.RECORDS_RIS_FILE;
+import static io.goobi.viewer.api.rest.v1.ApiUrls.SEARCH_EXPORT;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentLibException;
 import io.goobi.viewer.api.rest.bindings.AccessConditionBinding;
 import io.goobi.viewer.api.rest.bindings.ViewerRestServiceBinding;
 import io.goobi.viewer.api.rest.resourcebuilders.RisResourceBuilder;
 import io.goobi.viewer.api.rest.v1.ApiUrls;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.DateTools;
+import io.goobi.viewer.controller.NetTools;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.exceptions.ViewerConfigurationException;
 import io.goobi.viewer.model.export.RISExport;
+import io.goobi.viewer.model.export.SearchExport;
+import io.goobi.viewer.model.export.SearchExportFormat;
+import io.goobi.viewer.model.export.SearchExportWriter;
 import io.goobi.viewer.model.search.Search;
 import io.goobi.viewer.model.search.SearchAggregationType;
 import io.goobi.viewer.model.search.SearchFacets;
@@ -62,6 +82,11 @@ import io.swagger.v3.oas.annotations.Operation;
 @ViewerRestServiceBinding
 public class SearchResultResource {
 
+    private static final Logger logger = LogManager.getLogger(SearchResultResource.class);
+
+    /** IDs of sessions with a search export in progress. Each session may only run one export at a time. */
+    private static final Set<String> RUNNING_EXPORTS = ConcurrentHashMap.newKeySet();
+
     @Context
     private HttpServletRequest servletRequest;
     @Context
@@ -102,4 +127,75 @@ public class SearchResultResource {
         }
         return Response.status(Status.OK).build();
     }
+
+    /**
+     * Streams all hits of the given search, up to the configured maximum number of hits. Like the Excel download in the web interface, exports
+     * are bound to an existing HTTP session and each session may only run one export at a time.
+     *
+     * @param query
+     * @param sortString
+     * @param activeFacetString
+     * @param formatName
+     * @return {@link Response}
+     * @should return forbidden if request has no session
+     * @should return too many requests if session already runs an export
+     */
+    @GET
+    @javax.ws.rs.Path(SEARCH_EXPORT)
+    @Produces({ "text/csv", "application/x-ndjson", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" })
+    @Operation(tags = { "search" }, summary = "Stream all hits of a search with the configured export fields as CSV, JSON Lines or Excel")
+    public Response exportSearch(@QueryParam("query") String query, @QueryParam("sortString") String sortString,
+            @QueryParam("facetString") String activeFacetString, @QueryParam("format") @DefaultValue("csv") String formatName) {
+        if (!DataManager.getInstance().getConfiguration().isSearchExcelExportEnabled()) {
+            return Response.status(Status.FORBIDDEN).build();
+        }
+        SearchExportFormat format = SearchExportFormat.getByName(formatName);
+        if (format == null || StringUtils.isBlank(query)) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+        HttpSession session = servletRequest != null ? servletRequest.getSession(false) : null;
+        if (session == null) {
+            return Response.status(Status.FORBIDDEN).build();
+        }
+        String sessionId = session.getId();
+        if (!RUNNING_EXPORTS.add(sessionId)) {
+            logger.debug("Search export refused, session already runs an export");
+            return Response.status(TooManyRequestsException.SC_TOO_MANY_REQUESTS).build();
+        }
+
+        try {
+            String currentQuery = SearchHelper.prepareQuery(query);
+            String finalQuery = SearchHelper.buildFinalQuery(currentQuery, true, servletRequest, SearchAggregationType.AGGREGATE_TO_TOPSTRUCT);
+
+            Search search = new Search();
+            search.setSortString(sortString);
+
+            SearchFacets facets = new SearchFacets();
+            facets.setActiveFacetString(activeFacetString);
+
+            SearchExport export = new SearchExport(finalQuery, currentQuery, search.getAllSortFields(), facets.generateFacetFilterQueries(true),
+                    SearchHelper.generateQueryParams(null), servletRequest.getLocale())
+                            .setBatchSize(DataManager.getInstance().getConfiguration().getSearchExportBatchSize())
+                            .setMaxHits(DataManager.getInstance().getConfiguration().getSearchExportMaxHits());
+
+            StreamingOutput output = os -> {
+                try (SearchExportWriter writer = format.createWriter(os)) {
+                    export.write(writer);
+                } catch (PresentationException | IndexUnreachableException e) {
+                    logger.error("Search export failed: {}", e.getMessage());
+                    throw new WebApplicationException(e);
+                } finally {
+                    RUNNING_EXPORTS.remove(sessionId);
+                }
+            };
+
+            String fileName = "viewer_search_" + LocalDateTime.now().format(DateTools.FORMATTERFILENAME) + "." + format.getFileExtension();
+            return Response.ok(output, format.getMimeType())
+                    .header(NetTools.HTTP_HEADER_CONTENT_DISPOSITION, NetTools.HTTP_HEADER_VALUE_ATTACHMENT_FILENAME + fileName + "\"")
+                    .build();
+        } catch (RuntimeException e) {
+            RUNNING_EXPORTS.remove(sessionId);
+            throw e;
+        }
+    }
 }
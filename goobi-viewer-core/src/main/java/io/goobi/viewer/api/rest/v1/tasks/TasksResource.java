@@ -153,6 +153,17 @@ public class TasksResource {
                         message.getProperties().put("force", Boolean.toString(force));
                         break;
 
+                    case BUILD_NER_INDEX:
+                        ToolsRequestParameters nerParams = Optional.ofNullable(desc)
+                                .filter(ToolsRequestParameters.class::isInstance)
+                                .map(ToolsRequestParameters.class::cast)
+                                .orElse(null);
+                        if (nerParams == null || StringUtils.isBlank(nerParams.getPi())) {
+                            return null;
+                        }
+                        message.getProperties().put("pi", nerParams.getPi());
+                        break;
+
                     default:
                         // unknown type
                         return null;
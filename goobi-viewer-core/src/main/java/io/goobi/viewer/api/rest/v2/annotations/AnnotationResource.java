@@ -184,6 +184,7 @@ public class AnnotationResource {
         CrowdsourcingAnnotation pAnno = createPersistentAnnotation(anno);
         if (pAnno != null) {
             DataManager.getInstance().getDao().addAnnotation(pAnno);
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(pAnno.getTargetPI());
             return converter.getAsWebAnnotation(pAnno);
         }
         throw new NotImplementedException();
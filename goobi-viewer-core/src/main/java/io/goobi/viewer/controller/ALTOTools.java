@@ -23,46 +23,37 @@ package io.goobi.viewer.controller;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.nio.charset.UnsupportedCharsetException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import javax.xml.stream.FactoryConfigurationError;
 import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.Document;
-import org.jdom2.JDOMException;
 
 import de.intranda.digiverso.normdataimporter.NormDataImporter;
 import de.intranda.digiverso.normdataimporter.Utils;
-import de.intranda.digiverso.ocr.alto.model.structureclasses.Line;
-import de.intranda.digiverso.ocr.alto.model.structureclasses.Page;
 import de.intranda.digiverso.ocr.alto.model.structureclasses.lineelements.Word;
-import de.intranda.digiverso.ocr.alto.model.structureclasses.logical.AltoDocument;
 import de.intranda.digiverso.ocr.alto.model.structureclasses.logical.Tag;
 import de.intranda.digiverso.ocr.alto.model.superclasses.GeometricData;
-import de.intranda.digiverso.ocr.alto.utils.HyphenationLinker;
 import io.goobi.viewer.api.rest.model.ner.ElementReference;
 import io.goobi.viewer.api.rest.model.ner.NERTag;
 import io.goobi.viewer.api.rest.model.ner.NERTag.Type;
 import io.goobi.viewer.api.rest.model.ner.TagCount;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.alto.AltoPageCache;
+import io.goobi.viewer.model.alto.AltoPageParser;
 import io.goobi.viewer.model.search.FuzzySearchTerm;
 import io.goobi.viewer.model.viewer.PageType;
 
@@ -98,16 +89,21 @@ public final class ALTOTools {
     }
 
     /**
-     * Read the plain full-text from an alto file. Don't merge line breaks.
+     * Read the plain full-text from an alto file. Don't merge line breaks. The parsed page is taken from the shared {@link AltoPageCache}. The
+     * file encoding is taken from the XML declaration.
      *
      * @param path
-     * @param encoding
      * @return {@link String} containing plain text from ALTO at the given path
      * @throws IOException
      */
-    public static String getFulltext(Path path, String encoding) throws IOException {
-        String altoString = FileTools.getStringFromFile(path.toFile(), encoding);
-        return getFulltext(altoString, encoding, false);
+    public static String getFulltext(Path path) throws IOException {
+        try {
+            return alto2Txt(DataManager.getInstance().getAltoPageCache().getPage(path), false);
+        } catch (XMLStreamException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        return null;
     }
 
     /**
@@ -124,13 +120,42 @@ public final class ALTOTools {
     public static String getFulltext(String alto, String charset, boolean mergeLineBreakWords) {
         try {
             return alto2Txt(alto, charset, mergeLineBreakWords);
-        } catch (IOException | XMLStreamException | JDOMException e) {
+        } catch (XMLStreamException e) {
             logger.error(e.getMessage(), e);
         }
 
         return null;
     }
 
+    /**
+     * Returns the plain full-text of the given parsed ALTO page.
+     *
+     * @param page Parsed ALTO page
+     * @param mergeLineBreakWords a boolean.
+     * @return a {@link java.lang.String} object.
+     */
+    public static String getFulltext(AltoPage page, boolean mergeLineBreakWords) {
+        return alto2Txt(page, mergeLineBreakWords);
+    }
+
+    /**
+     * Reads named entity tags from the ALTO file at the given path. The parsed page is taken from the shared {@link AltoPageCache}.
+     *
+     * @param path ALTO file
+     * @param type Optional tag type filter
+     * @return a {@link java.util.List} object.
+     * @throws IOException
+     */
+    public static List<TagCount> getNERTags(Path path, NERTag.Type type) throws IOException {
+        try {
+            return getNERTags(DataManager.getInstance().getAltoPageCache().getPage(path), type);
+        } catch (XMLStreamException e) {
+            logger.error(e.getMessage(), e);
+        }
+
+        return new ArrayList<>();
+    }
+
     /**
      * <p>
      * getNERTags.
@@ -142,23 +167,27 @@ public final class ALTOTools {
      * @return a {@link java.util.List} object.
      */
     public static List<TagCount> getNERTags(String alto, final String inCharset, NERTag.Type type) {
-        String charset = inCharset;
-        // Make sure an empty charset value is changed to null to avoid exceptions
-        if (StringUtils.isBlank(charset)) {
-            charset = null;
+        try {
+            return getNERTags(AltoPageParser.parse(alto), type);
+        } catch (XMLStreamException e) {
+            logger.error(e.getMessage(), e);
         }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * 
+     * @param page Parsed ALTO page
+     * @param type Optional tag type filter
+     * @return a {@link java.util.List} object.
+     */
+    public static List<TagCount> getNERTags(AltoPage page, NERTag.Type type) {
         List<TagCount> ret = new ArrayList<>();
-        try {
-            AltoDocument doc = AltoDocument.getDocumentFromString(alto, charset);
-            for (Tag tag : doc.getTags().getTagsAsList()) {
-                if (type == null || type.matches(tag.getType())) {
-                    addTags(createNERTag(tag), ret);
-                }
+        for (int i = 0; i < page.getTagCount(); i++) {
+            if (type == null || type.matches(page.getTagType(i))) {
+                addTags(createNERTag(page, i), ret);
             }
-        } catch (UnsupportedEncodingException e) {
-            logger.error("{}: {}", e.getMessage(), charset);
-        } catch (JDOMException | IOException e) {
-            logger.error(e.getMessage(), e);
         }
 
         return ret;
@@ -216,177 +245,100 @@ public final class ALTOTools {
         return ret;
     }
 
+    /**
+     * @param page
+     * @param tagIndex
+     * @return List<TagCount>
+     */
+    static List<TagCount> createNERTag(AltoPage page, int tagIndex) {
+        String value = page.getTagLabel(tagIndex) != null ? page.getTagLabel(tagIndex) : "";
+        value = value.replaceAll(TAG_LABEL_IGNORE_REGEX, ""); //NOSONAR TAG_LABEL_IGNORE_REGEX contains no lazy internal repetitions
+        Type type = Type.getByLabel(page.getTagType(tagIndex));
+        if (type == null) {
+            logger.trace("Unknown tag type: {}, using {}", page.getTagType(tagIndex), Type.MISC.name());
+            type = Type.MISC;
+        }
+        String uri = page.getTagUri(tagIndex);
+        String identifier = uri != null ? Utils.getIdentifierFromURI(uri) : null;
+
+        List<Integer> references = page.getTagReferences(tagIndex);
+        List<TagCount> ret = new ArrayList<>(references.size());
+        for (int wordIndex : references) {
+            ElementReference element =
+                    new ElementReference(page.getWordId(wordIndex), page.getWordBounds(wordIndex), page.getWordContent(wordIndex), uri);
+            TagCount nerTag = new TagCount(value, type, element);
+            if (StringUtils.isNotEmpty(identifier)) {
+                nerTag.setIdentifier(identifier);
+            }
+            ret.add(nerTag);
+        }
+
+        return ret;
+    }
+
     /**
      * <p>
      * alto2Txt.
      * </p>
      *
      * @param alto a {@link java.lang.String} object.
-     * @param charset ALTO charset
+     * @param charset ALTO charset (not used since the document is already decoded)
      * @param mergeLineBreakWords a boolean.
      * @return a {@link java.lang.String} object.
-     * @throws java.io.IOException if any.
      * @throws javax.xml.stream.XMLStreamException if any.
-     * @throws JDOMException
      * @should extract fulltext correctly
      * @should concatenate word at line break correctly
      * @should add uris correctly
      */
-    protected static String alto2Txt(String alto, String charset, boolean mergeLineBreakWords)
-            throws IOException, XMLStreamException, JDOMException {
+    protected static String alto2Txt(String alto, String charset, boolean mergeLineBreakWords) throws XMLStreamException {
         if (alto == null) {
             throw new IllegalArgumentException("alto may not be null");
         }
 
-        String useAlto = alto;
-        String useCharset = charset != null ? charset : StringTools.DEFAULT_ENCODING;
+        return alto2Txt(AltoPageParser.parse(alto), mergeLineBreakWords);
+    }
 
-        // Link hyphenated words before parsing the document
-        if (mergeLineBreakWords) {
-            AltoDocument altoDoc = AltoDocument.getDocumentFromString(alto, charset);
-            new HyphenationLinker().linkWords(altoDoc);
-            Document doc = new Document(altoDoc.writeToDom());
-            useAlto = XmlTools.getXMLOutputter().outputString(doc);
+    /**
+     * Creates the full-text representation of the given parsed ALTO page, including HTML buttons for named entities.
+     *
+     * @param page Parsed ALTO page
+     * @param mergeLineBreakWords If true, hyphenated words are replaced with their SUBS_CONTENT
+     * @return a {@link java.lang.String} object.
+     */
+    static String alto2Txt(AltoPage page, boolean mergeLineBreakWords) {
+        if (page == null) {
+            throw new IllegalArgumentException("page may not be null");
         }
 
-        Map<String, String> neTypeMap = new HashMap<>();
-        Map<String, String> neLabelMap = new HashMap<>();
-        Map<String, String> neUriMap = new HashMap<>();
         Set<String> usedTags = new HashSet<>();
         StringBuilder strings = new StringBuilder(500);
-        XMLStreamReader parser = null;
-        try (InputStream is = new ByteArrayInputStream(useAlto.getBytes(useCharset))) {
-            parser = createXmlParser(is);
-
-            String prevSubsContent = null;
-            while (parser.hasNext()) {
-                switch (parser.getEventType()) {
-                    case XMLStreamConstants.START_DOCUMENT:
-                        break;
-
-                    case XMLStreamConstants.END_DOCUMENT:
-                        parser.close();
-                        break;
-
-                    case XMLStreamConstants.NAMESPACE:
-                        break;
-
-                    case XMLStreamConstants.START_ELEMENT:
-                        if (STRING.equals(parser.getLocalName())) {
-                            String content = null;
-                            String subsContent = null;
-                            String tagref = null;
-                            for (int i = 0; i < parser.getAttributeCount(); i++) {
-                                switch (parser.getAttributeLocalName(i)) {
-                                    case CONTENT:
-                                        content = parser.getAttributeValue(i);
-                                        break;
-                                    case SUBS_CONTENT:
-                                        if (mergeLineBreakWords) {
-                                            subsContent = parser.getAttributeValue(i);
-                                        }
-                                        break;
-                                    case TAGREFS:
-                                        tagref = parser.getAttributeValue(i);
-                                        break;
-                                    default:
-                                        break;
-                                }
-                            }
-                            if (tagref != null && neTypeMap.get(tagref) != null) {
-                                // NE tag found
-                                if (!usedTags.contains(tagref)) {
-                                    // Tag ID
-                                    strings.append("<button class=\"view-fulltext__entity-action-button\" type=\"button\" data-entity-id=\"")
-                                            .append(tagref)
-                                            .append('"');
-                                    // Tag type
-                                    strings.append(" data-entity-type=\"")
-                                            .append(neTypeMap.get(tagref).toLowerCase())
-                                            .append('"');
-                                    if (neUriMap.get(tagref) != null) {
-                                        // Authority data URI
-                                        strings.append(" data-entity-authority-data-uri=\"")
-                                                .append(DataManager.getInstance().getConfiguration().getRestApiUrl())
-                                                .append("authority/resolver?id=")
-                                                .append(neUriMap.get(tagref))
-                                                .append("&amp;lang=de\"");
-                                        // Authority data search URL
-                                        String identifier = neUriMap.get(tagref).replaceAll("^https?:\\/\\/d-nb.info\\/gnd\\/([\\d-]+)\\/?$", "$1");
-                                        strings.append(" data-entity-authority-data-search=\"")
-                                                .append(BeanUtils.getServletPathWithHostAsUrlFromJsfContext())
-                                                .append('/')
-                                                .append(PageType.search.getName())
-                                                .append("/-/")
-                                                .append(NormDataImporter.FIELD_IDENTIFIER)
-                                                .append(":%22")
-                                                .append(identifier)
-                                                .append("%22/1/-/-/-/\"");
-                                    }
-                                    strings.append('>')
-                                            .append(neLabelMap.get(tagref))
-                                            .append("</button> ");
-                                    usedTags.add(tagref);
-                                }
-                            } else {
-                                // No NE tag
-                                if (subsContent != null) {
-                                    subsContent = StringTools.escapeHtmlLtGt(subsContent);
-                                    // Add concatenated SUBS_CONTENT word, if found, but only once
-                                    if (!subsContent.equals(prevSubsContent)) {
-                                        strings.append(subsContent);
-                                        prevSubsContent = subsContent;
-                                    }
-                                    subsContent = null;
-                                } else {
-                                    content = StringTools.escapeHtmlLtGt(content);
-                                    strings.append(content);
-                                }
-                                strings.append(' ');
-                            }
-                        } else if (NETAG.equals(parser.getLocalName())) {
-                            String id = null;
-                            String type = null;
-                            String label = null;
-                            String uri = null;
-                            for (int i = 0; i < parser.getAttributeCount(); i++) {
-                                switch (parser.getAttributeLocalName(i)) {
-                                    case ID:
-                                        id = parser.getAttributeValue(i);
-                                        break;
-                                    case TYPE:
-                                        type = parser.getAttributeValue(i);
-                                        break;
-                                    case URI:
-                                        uri = parser.getAttributeValue(i);
-                                        break;
-                                    case LABEL:
-                                        label = parser.getAttributeValue(i);
-                                        break;
-                                    default:
-                                        break;
-                                }
-                            }
-                            neTypeMap.put(id, type);
-                            neLabelMap.put(id, label);
-                            neUriMap.put(id, uri);
-                        } else if (TEXTLINE.equals(parser.getLocalName())) {
-                            strings.append("\n");
+        String prevSubsContent = null;
+        for (int line = 0; line < page.getLineCount(); line++) {
+            strings.append("\n");
+            for (int i = page.getLineFirstWord(line); i < page.getLineWordEnd(line); i++) {
+                String tagref = page.getWordTagRefs(i);
+                int tagIndex = page.getTagIndex(tagref);
+                if (tagIndex != AltoPage.NONE && page.getTagType(tagIndex) != null) {
+                    // NE tag found
+                    if (!usedTags.contains(tagref)) {
+                        appendEntityButton(page, tagIndex, strings);
+                        usedTags.add(tagref);
+                    }
+                } else {
+                    // No NE tag
+                    String subsContent = mergeLineBreakWords ? page.getWordSubsContent(i) : null;
+                    if (subsContent != null) {
+                        subsContent = StringTools.escapeHtmlLtGt(subsContent);
+                        // Add concatenated SUBS_CONTENT word, if found, but only once
+                        if (!subsContent.equals(prevSubsContent)) {
+                            strings.append(subsContent);
+                            prevSubsContent = subsContent;
                         }
-                        break;
-
-                    default:
-                        break;
-
+                    } else {
+                        strings.append(StringTools.escapeHtmlLtGt(page.getWordContent(i)));
+                    }
+                    strings.append(' ');
                 }
-                parser.next();
-            }
-        } catch (UnsupportedCharsetException e) {
-            // Wrong charset can result in an exception being thrown by the underlying parser implementation
-            logger.warn(e.getMessage());
-        } finally {
-            if (parser != null) {
-                parser.close();
             }
         }
         if (strings.length() > 0) {
@@ -396,6 +348,47 @@ public final class ALTOTools {
         return strings.toString();
     }
 
+    /**
+     * 
+     * @param page
+     * @param tagIndex
+     * @param strings
+     */
+    private static void appendEntityButton(AltoPage page, int tagIndex, StringBuilder strings) {
+        String tagId = page.getTagId(tagIndex);
+        String uri = page.getTagUri(tagIndex);
+        // Tag ID
+        strings.append("<button class=\"view-fulltext__entity-action-button\" type=\"button\" data-entity-id=\"")
+                .append(tagId)
+                .append('"');
+        // Tag type
+        strings.append(" data-entity-type=\"")
+                .append(page.getTagType(tagIndex).toLowerCase())
+                .append('"');
+        if (uri != null) {
+            // Authority data URI
+            strings.append(" data-entity-authority-data-uri=\"")
+                    .append(DataManager.getInstance().getConfiguration().getRestApiUrl())
+                    .append("authority/resolver?id=")
+                    .append(uri)
+                    .append("&amp;lang=de\"");
+            // Authority data search URL
+            String identifier = uri.replaceAll("^https?:\\/\\/d-nb.info\\/gnd\\/([\\d-]+)\\/?$", "$1");
+            strings.append(" data-entity-authority-data-search=\"")
+                    .append(BeanUtils.getServletPathWithHostAsUrlFromJsfContext())
+                    .append('/')
+                    .append(PageType.search.getName())
+                    .append("/-/")
+                    .append(NormDataImporter.FIELD_IDENTIFIER)
+                    .append(":%22")
+                    .append(identifier)
+                    .append("%22/1/-/-/-/\"");
+        }
+        strings.append('>')
+                .append(page.getTagLabel(tagIndex))
+                .append("</button> ");
+    }
+
     public static XMLStreamReader createXmlParser(InputStream is) throws FactoryConfigurationError, XMLStreamException {
         XMLStreamReader parser;
         XMLInputFactory factory = XMLInputFactory.newInstance();
@@ -463,67 +456,77 @@ public final class ALTOTools {
         if (altoString == null) {
             throw new IllegalArgumentException("altoDoc may not be null");
         }
-        List<Word> words = new ArrayList<>();
-        Dimension pageSize = new Dimension(0, 0);
         try {
-            AltoDocument document = AltoDocument.getDocumentFromString(altoString, charset);
-            HyphenationLinker linker = new HyphenationLinker();
-            linker.linkWords(document);
-
-            Page page = document.getFirstPage();
-            List<Line> lines = page.getAllLinesAsList();
-            for (Line line : lines) {
-                words.addAll(line.getWords());
-            }
-            pageSize = new Dimension((int) page.getWidth(), (int) page.getHeight());
-        } catch (NullPointerException e) {
-            logger.error("Could not parse ALTO: No width or height specified in 'page' element.");
-        } catch (NumberFormatException e) {
-            logger.error("Could not parse ALTO: Could not parse page width or height.");
-        } catch (IOException | JDOMException e) {
+            return getWordCoords(AltoPageParser.parse(altoString), searchTerms, proximitySearchDistance, rotation);
+        } catch (XMLStreamException e) {
             logger.error("Could not parse ALTO: ", e);
         }
-        logger.trace("{} ALTO words found for this page.", words.size());
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Returns the coordinates of all words in the given parsed ALTO page that match any of the given search terms.
+     *
+     * @param page Parsed ALTO page
+     * @param searchTerms Set of search terms
+     * @param proximitySearchDistance
+     * @param rotation Image rotation in degrees
+     * @return a {@link java.util.List} object.
+     */
+    public static List<String> getWordCoords(AltoPage page, Set<String> searchTerms, int proximitySearchDistance, int rotation) {
+        if (page == null) {
+            throw new IllegalArgumentException("page may not be null");
+        }
+        if (rotation != 0 && (page.getWidth() == 0 || page.getHeight() == 0)) {
+            logger.warn("No width or height specified in ALTO 'page' element, word coordinates cannot be rotated.");
+        }
+        Dimension pageSize = new Dimension(page.getWidth(), page.getHeight());
+        int wordCount = page.getWordCount();
+        logger.trace("{} ALTO words found for this page.", wordCount);
         List<String> coordList = new ArrayList<>();
         for (String s : searchTerms) {
-            String[] searchWords = s.split("\\s+");
-            if (searchWords == null || searchWords.length == 0 || StringUtils.isBlank(searchWords[0])) {
+            String[] searchWordStrings = s.split("\\s+");
+            if (searchWordStrings == null || searchWordStrings.length == 0 || StringUtils.isBlank(searchWordStrings[0])) {
                 continue;
             }
-            for (int wordIndex = 0; wordIndex < words.size(); wordIndex++) {
+            // Build matchers once per search term rather than once per ALTO word
+            FuzzySearchTerm[] searchWords = toFuzzySearchTerms(searchWordStrings);
+            for (int wordIndex = 0; wordIndex < wordCount; wordIndex++) {
                 List<String> tempList = new ArrayList<>();
-                Word eleWord = words.get(wordIndex);
-                int totalHits = ALTOTools.getMatchALTOWord(eleWord, searchWords);
+                int eleWord = wordIndex;
+                int totalHits = getMatchALTOWord(page.getWordContent(eleWord), page.getWordSubsContent(eleWord), searchWords);
                 if (totalHits > 0) {
                     boolean match = true;
-                    addWordCoords(rotation, pageSize, eleWord, tempList);
-                    if (eleWord.getHyphenationPartNext() != null && eleWord.getHyphenationPartNext().getContent().matches("\\S+")) {
+                    addWordCoords(rotation, pageSize, page, eleWord, tempList);
+                    int hyphenationPartNext = page.getHyphenationPartNext(eleWord);
+                    if (hyphenationPartNext != AltoPage.NONE && page.getWordContent(hyphenationPartNext).matches("\\S+")) {
                         wordIndex++;
-                        addWordCoords(rotation, pageSize, eleWord.getHyphenationPartNext(), tempList);
+                        addWordCoords(rotation, pageSize, page, hyphenationPartNext, tempList);
                     }
                     // Match next words if search term has more than one word
                     if (totalHits < searchWords.length) {
                         int remainingProximityReach = proximitySearchDistance;
-                        while (totalHits < searchWords.length && words.size() > wordIndex + 1) {
+                        while (totalHits < searchWords.length && wordCount > wordIndex + 1) {
                             wordIndex++;
-                            Word nextWord = words.get(wordIndex);
-                            int hits = ALTOTools.getMatchALTOWord(nextWord, Arrays.copyOfRange(searchWords, totalHits, searchWords.length));
+                            int nextWord = wordIndex;
+                            int hits = getMatchALTOWord(page.getWordContent(nextWord), page.getWordSubsContent(nextWord),
+                                    Arrays.copyOfRange(searchWords, totalHits, searchWords.length));
                             if (hits == 0) {
                                 if (remainingProximityReach < 1) {
                                     wordIndex--;
                                     match = false;
                                     break;
-                                } else {
-                                    remainingProximityReach--;
                                 }
+                                remainingProximityReach--;
                             } else {
                                 remainingProximityReach = proximitySearchDistance;
                             }
                             totalHits += hits;
-                            addWordCoords(rotation, pageSize, nextWord, tempList);
-                            if (nextWord.getHyphenationPartNext() != null) {
+                            addWordCoords(rotation, pageSize, page, nextWord, tempList);
+                            if (page.getHyphenationPartNext(nextWord) != AltoPage.NONE) {
                                 wordIndex++;
-                                addWordCoords(rotation, pageSize, nextWord.getHyphenationPartNext(), tempList);
+                                addWordCoords(rotation, pageSize, page, page.getHyphenationPartNext(nextWord), tempList);
                             }
                         }
                     }
@@ -541,13 +544,14 @@ public final class ALTOTools {
      * 
      * @param rotation
      * @param pageSize
-     * @param eleWord
+     * @param page
+     * @param wordIndex
      * @param tempList
      * @return ALTO word coordinates as a {@link String}
      */
-    private static String addWordCoords(int rotation, Dimension pageSize, Word eleWord, List<String> tempList) {
-        String coords = ALTOTools.getALTOCoords(eleWord);
-        if (coords != null && rotation != 0) {
+    private static String addWordCoords(int rotation, Dimension pageSize, AltoPage page, int wordIndex, List<String> tempList) {
+        String coords = page.getWordCoordsAsString(wordIndex);
+        if (rotation != 0) {
             try {
                 Rectangle wordRect = getRectangle(coords);
                 wordRect = rotate(wordRect, rotation, pageSize);
@@ -556,11 +560,9 @@ public final class ALTOTools {
                 logger.error("Cannot rotate coords {}: {}", coords, e.getMessage());
             }
         }
-        if (coords != null) {
-            tempList.add(coords);
-            if (logger.isTraceEnabled()) {
-                logger.trace("ALTO word found: {} ({})", eleWord.getAttributeValue(CONTENT), coords);
-            }
+        tempList.add(coords);
+        if (logger.isTraceEnabled()) {
+            logger.trace("ALTO word found: {} ({})", page.getWordContent(wordIndex), coords);
         }
 
         return coords;
@@ -690,34 +692,70 @@ public final class ALTOTools {
             return 0;
         }
 
-        // Word exists and has content
-        String content = eleWord.getContent();
+        return getMatchALTOWord(eleWord.getContent(), eleWord.getSubsContent(), words);
+    }
+
+    /**
+     * 
+     * @param wordContent CONTENT value of the ALTO word
+     * @param wordSubsContent SUBS_CONTENT value of the ALTO word; may be null
+     * @param words an array of {@link java.lang.String} objects.
+     * @return Number of matched search words
+     */
+    static int getMatchALTOWord(String wordContent, String wordSubsContent, String[] words) {
+        if (words == null || words.length == 0 || wordContent == null) {
+            return 0;
+        }
+
+        return getMatchALTOWord(wordContent, wordSubsContent, toFuzzySearchTerms(words));
+    }
+
+    /**
+     * 
+     * @param wordContent CONTENT value of the ALTO word
+     * @param wordSubsContent SUBS_CONTENT value of the ALTO word; may be null
+     * @param words Search words
+     * @return Number of matched search words
+     */
+    static int getMatchALTOWord(String wordContent, String wordSubsContent, FuzzySearchTerm[] words) {
+        if (words == null || words.length == 0 || wordContent == null) {
+            return 0;
+        }
+
         // Normalize (remove diacritical marks)
-        content = StringTools.removeDiacriticalMarks(content);
+        String content = StringTools.removeDiacriticalMarks(wordContent);
         // Clean up leading non-alphanumeric characters so that matching works
         while (content.length() > 0 && !StringUtils.isAlphanumeric(content.substring(0, 1))) {
             content = content.substring(1);
         }
         // replace content with complete content of hyphenated word if applicable
-        if (content.matches("\\S+")) {
-            String subsContent = eleWord.getSubsContent();
-            if (subsContent != null && !subsContent.isEmpty()) {
-                content = subsContent;
-            }
+        if (content.matches("\\S+") && wordSubsContent != null && !wordSubsContent.isEmpty()) {
+            content = wordSubsContent;
         }
 
         String[] contents = content.trim().split("\\s+");
         int hits = 0;
         for (String altoWord : contents) {
-            for (String searchWord : words) {
-                FuzzySearchTerm fuzzy = new FuzzySearchTerm(searchWord);
+            for (FuzzySearchTerm fuzzy : words) {
                 if (fuzzy.matches(altoWord)) {
                     hits++;
                 }
             }
         }
         return hits;
+    }
 
+    /**
+     * 
+     * @param words
+     * @return Array of {@link FuzzySearchTerm}s for words
+     */
+    private static FuzzySearchTerm[] toFuzzySearchTerms(String[] words) {
+        FuzzySearchTerm[] ret = new FuzzySearchTerm[words.length];
+        for (int i = 0; i < words.length; ++i) {
+            ret[i] = new FuzzySearchTerm(words[i]);
+        }
+        return ret;
     }
 
     /**
@@ -0,0 +1,301 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Matches text against a fixed pattern within a maximum optimal string alignment distance (the same distance as
+ * {@link DamerauLevenshtein#getSimilarity()}). The pattern is preprocessed once into bit masks, after which each comparison runs in a single
+ * pass over the text using the bit-parallel algorithm by Hyyrö (2003), stops as soon as the distance bound can no longer be met and does not
+ * allocate. Instances are immutable and can be shared between threads. Patterns longer than 64 characters fall back to a row-wise dynamic
+ * programming computation.
+ */
+public final class BoundedDamerauLevenshtein {
+
+    /** Maximum pattern length for the bit-parallel algorithm */
+    static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+
+    private static final int LATIN_TABLE_SIZE = 256;
+
+    private final String pattern;
+    private final int maxDistance;
+    /** Bit of the last pattern character */
+    private final long lastBit;
+    /** Bit masks of pattern positions per character for characters below {@link #LATIN_TABLE_SIZE} */
+    private final long[] latinMasks;
+    /** Other pattern characters, sorted */
+    private final char[] otherChars;
+    /** Bit masks for {@link #otherChars} */
+    private final long[] otherMasks;
+
+    /**
+     *
+     * @param pattern Pattern to match
+     * @param maxDistance Maximum distance for a match
+     */
+    public BoundedDamerauLevenshtein(String pattern, int maxDistance) {
+        if (pattern == null) {
+            throw new IllegalArgumentException("pattern may not be null");
+        }
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("maxDistance may not be negative");
+        }
+        this.pattern = pattern;
+        this.maxDistance = maxDistance;
+        if (pattern.isEmpty() || pattern.length() > MAX_BIT_PARALLEL_LENGTH) {
+            this.lastBit = 0;
+            this.latinMasks = null;
+            this.otherChars = null;
+            this.otherMasks = null;
+            return;
+        }
+
+        this.lastBit = 1L << (pattern.length() - 1);
+        this.latinMasks = new long[LATIN_TABLE_SIZE];
+        Map<Character, Long> others = new TreeMap<>();
+        for (int i = 0; i < pattern.length(); ++i) {
+            char c = pattern.charAt(i);
+            if (c < LATIN_TABLE_SIZE) {
+                latinMasks[c] |= 1L << i;
+            } else {
+                others.merge(c, 1L << i, (a, b) -> a | b);
+            }
+        }
+        this.otherChars = new char[others.size()];
+        this.otherMasks = new long[others.size()];
+        int index = 0;
+        for (Map.Entry<Character, Long> entry : others.entrySet()) {
+            otherChars[index] = entry.getKey();
+            otherMasks[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    /**
+     * @return the pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the maxDistance
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     *
+     * @param text Text to compare
+     * @return true if the distance between the whole text and the pattern is at most maxDistance; false otherwise
+     */
+    public boolean matches(CharSequence text) {
+        return matches(text, 0, text.length());
+    }
+
+    /**
+     *
+     * @param text Text containing the region to compare
+     * @param start Start index of the region (inclusive)
+     * @param end End index of the region (exclusive)
+     * @return true if the distance between the text region and the pattern is at most maxDistance; false otherwise
+     * @should match words within max distance
+     * @should not match words beyond max distance
+     * @should count transpositions as one edit
+     * @should only compare given region
+     */
+    public boolean matches(CharSequence text, int start, int end) {
+        return distance(text, start, end) <= maxDistance;
+    }
+
+    /**
+     *
+     * @param text Text containing the region to search
+     * @param start Start index of the region (inclusive)
+     * @param end End index of the region (exclusive)
+     * @return true if any substring of the text region is within maxDistance of the pattern; false otherwise
+     * @should match pattern within longer text
+     * @should not match if no substring is within max distance
+     */
+    public boolean matchesSubstring(CharSequence text, int start, int end) {
+        int m = pattern.length();
+        if (m <= maxDistance) {
+            return true;
+        }
+        if (latinMasks == null) {
+            return computeDistance(text, start, end, true) <= maxDistance;
+        }
+
+        long vp = -1L;
+        long vn = 0;
+        long d0 = 0;
+        long pmPrev = 0;
+        int score = m;
+        for (int j = start; j < end; ++j) {
+            long pm = getMask(text.charAt(j));
+            d0 = ((((~d0) & pm) << 1) & pmPrev) | (((pm & vp) + vp) ^ vp) | pm | vn;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & lastBit) != 0) {
+                score++;
+            } else if ((hn & lastBit) != 0) {
+                score--;
+            }
+            // Free start position in the text: no carry into the first row
+            hp <<= 1;
+            hn <<= 1;
+            vp = hn | ~(d0 | hp);
+            vn = d0 & hp;
+            pmPrev = pm;
+            if (score <= maxDistance) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * @param text Text containing the region to compare
+     * @param start Start index of the region (inclusive)
+     * @param end End index of the region (exclusive)
+     * @return Distance between the text region and the pattern; maxDistance + 1 if the distance exceeds maxDistance
+     * @should return same distance as DamerauLevenshtein
+     */
+    public int distance(CharSequence text, int start, int end) {
+        int m = pattern.length();
+        int n = end - start;
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (m == 0) {
+            return n;
+        }
+        if (latinMasks == null) {
+            return computeDistance(text, start, end, false);
+        }
+
+        long vp = -1L;
+        long vn = 0;
+        long d0 = 0;
+        long pmPrev = 0;
+        int score = m;
+        for (int j = start; j < end; ++j) {
+            long pm = getMask(text.charAt(j));
+            d0 = ((((~d0) & pm) << 1) & pmPrev) | (((pm & vp) + vp) ^ vp) | pm | vn;
+            long hp = vn | ~(d0 | vp);
+            long hn = d0 & vp;
+            if ((hp & lastBit) != 0) {
+                score++;
+            } else if ((hn & lastBit) != 0) {
+                score--;
+            }
+            hp = (hp << 1) | 1;
+            hn <<= 1;
+            vp = hn | ~(d0 | hp);
+            vn = d0 & hp;
+            pmPrev = pm;
+            // Each remaining text character can lower the score by at most one
+            if (score - (end - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+
+        return score <= maxDistance ? score : maxDistance + 1;
+    }
+
+    /**
+     *
+     * @param c
+     * @return Bit mask of the pattern positions containing c
+     */
+    private long getMask(char c) {
+        if (c < LATIN_TABLE_SIZE) {
+            return latinMasks[c];
+        }
+        int low = 0;
+        int high = otherChars.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (otherChars[mid] < c) {
+                low = mid + 1;
+            } else if (otherChars[mid] > c) {
+                high = mid - 1;
+            } else {
+                return otherMasks[mid];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Row-wise optimal string alignment distance for patterns that are too long for the bit-parallel algorithm.
+     *
+     * @param text
+     * @param start
+     * @param end
+     * @param substring If true, the pattern may match any substring of the text region
+     * @return Distance; maxDistance + 1 if the distance exceeds maxDistance
+     */
+    private int computeDistance(CharSequence text, int start, int end, boolean substring) {
+        int m = pattern.length();
+        int[] prev2 = new int[m + 1];
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int i = 0; i <= m; ++i) {
+            prev[i] = i;
+        }
+        int best = prev[m];
+        for (int j = start; j < end; ++j) {
+            char tc = text.charAt(j);
+            cur[0] = substring ? 0 : j - start + 1;
+            int rowMin = cur[0];
+            for (int i = 1; i <= m; ++i) {
+                char pc = pattern.charAt(i - 1);
+                int cost = pc == tc ? 0 : 1;
+                int value = Math.min(Math.min(prev[i] + 1, cur[i - 1] + 1), prev[i - 1] + cost);
+                if (i > 1 && j > start && pc == text.charAt(j - 1) && pattern.charAt(i - 2) == tc) {
+                    value = Math.min(value, prev2[i - 2] + 1);
+                }
+                cur[i] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            best = substring ? Math.min(best, cur[m]) : cur[m];
+            if (substring && best <= maxDistance) {
+                return best;
+            }
+            if (!substring && rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] tmp = prev2;
+            prev2 = prev;
+            prev = cur;
+            cur = tmp;
+        }
+
+        return best <= maxDistance ? best : maxDistance + 1;
+    }
+}
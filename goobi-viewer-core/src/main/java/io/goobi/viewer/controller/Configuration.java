@@ -4285,6 +4285,69 @@ public class Configuration extends AbstractConfiguration {
         return getLocalBoolean(("performance.solr.backwardsCompatible"), false);
     }
 
+    /**
+     * Returns additional Solr URLs (e.g. followers of the index configured in urls.solr) across which read requests are distributed.
+     *
+     * @return List of URLs without trailing slashes; empty list if none configured
+     * @should return all configured elements
+     */
+    public List<String> getSolrReplicaUrls() {
+        return getLocalList("performance.solr.replicas.url").stream()
+                .filter(StringUtils::isNotBlank)
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+    }
+
+    /**
+     * Returns the interval in which Solr replicas are checked for availability.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getSolrReplicaHealthCheckInterval() {
+        return getLocalInt("performance.solr.replicas[@healthCheckInterval]", 10);
+    }
+
+    /**
+     * Returns the period after which a Solr replica that was removed due to repeated request failures receives requests again.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getSolrReplicaFailureBackoff() {
+        return getLocalInt("performance.solr.replicas[@failureBackoff]", 30);
+    }
+
+    /**
+     * Returns the ping duration above which a Solr replica no longer receives requests until it responds faster again.
+     *
+     * @return Configured value in milliseconds
+     * @should return correct value
+     */
+    public int getSolrReplicaSlowThreshold() {
+        return getLocalInt("performance.solr.replicas[@slowThreshold]", 2000);
+    }
+
+    /**
+     * Returns the latency percentile of recent queries after which a query is additionally sent to a second replica.
+     *
+     * @return Configured value between 0 and 100; 0 disables hedged requests
+     * @should return correct value
+     */
+    public float getSolrReplicaHedgePercentile() {
+        return getLocalFloat("performance.solr.replicas[@hedgePercentile]", 0);
+    }
+
+    /**
+     * Returns the maximum number of Solr replica queries that run concurrently while hedging is enabled.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getSolrReplicaHedgePoolSize() {
+        return getLocalInt("performance.solr.replicas[@hedgePoolSize]", 50);
+    }
+
     /**
      * @return Configured value
      */
@@ -5077,6 +5140,26 @@ public class Configuration extends AbstractConfiguration {
         return getLocalInt("search.export.excel.timeout", 120);
     }
 
+    /**
+     * Returns the number of hits fetched from Solr per request when exporting search results.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getSearchExportBatchSize() {
+        return getLocalInt("search.export[@batchSize]", 500);
+    }
+
+    /**
+     * Returns the maximum number of hits a single search export via the REST API may contain.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getSearchExportMaxHits() {
+        return getLocalInt("search.export[@maxHits]", 10000);
+    }
+
     /**
      * <p>
      * isDoublePageNavigationEnabled.
@@ -6214,4 +6297,450 @@ public class Configuration extends AbstractConfiguration {
         return getLocalString("viewer.viewStyleClass", "docstructtype__{record.DOCSTRCT}");
     }
 
+    /**
+     * Returns the maximum memory footprint of the shared parsed-ALTO cache.
+     *
+     * @return Configured value in MB
+     * @should return correct value
+     */
+    public int getAltoCacheMaxSize() {
+        return getLocalInt("performance.altoCache[@maxSize]", 64);
+    }
+
+    /**
+     * Returns the maximum number of records whose named entity tag index is kept in memory.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getNerIndexMaxRecords() {
+        return getLocalInt("performance.nerIndex[@maxRecords]", 20);
+    }
+
+    /**
+     * Returns the time in seconds after which a cached named entity tag index is rebuilt.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getNerIndexTtl() {
+        return getLocalInt("performance.nerIndex[@ttl]", 3600);
+    }
+
+    /**
+     * Returns the maximum number of records whose data repository name is kept in memory.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getRecordLocationCacheMaxSize() {
+        return getLocalInt("performance.recordLocationCache[@maxSize]", 10000);
+    }
+
+    /**
+     * Returns the time for which the data repository name of a record is remembered by the record location cache.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getRecordLocationCacheTtl() {
+        return getLocalInt("performance.recordLocationCache[@ttl]", 3600);
+    }
+
+    /**
+     * Returns the time for which identifiers not found in the index are remembered by the record location cache.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getRecordLocationCacheNotFoundTtl() {
+        return getLocalInt("performance.recordLocationCache[@notFoundTtl]", 60);
+    }
+
+    /**
+     * Returns the maximum number of records whose data folder listings are kept in memory.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getFolderListingCacheMaxSize() {
+        return getLocalInt("performance.folderListingCache[@maxSize]", 1000);
+    }
+
+    /**
+     * Returns the time for which a cached data folder listing is used before the folder is read again.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getFolderListingCacheTtl() {
+        return getLocalInt("performance.folderListingCache[@ttl]", 30);
+    }
+
+    /**
+     * Returns the maximum number of shared TOC skeletons kept in memory.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getTocCacheMaxSize() {
+        return getLocalInt("performance.tocCache[@maxSize]", 500);
+    }
+
+    /**
+     * Returns the time after which a shared TOC skeleton is rebuilt from the index.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getTocCacheTtl() {
+        return getLocalInt("performance.tocCache[@ttl]", 600);
+    }
+
+    /**
+     * Returns the maximum number of records whose comments and crowdsourcing annotations are kept in memory.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getAnnotationCacheMaxSize() {
+        return getLocalInt("performance.annotationCache[@maxSize]", 500);
+    }
+
+    /**
+     * Returns the time after which the comments and crowdsourcing annotations of a record are loaded again.
+     *
+     * @return Configured value in seconds; 0 disables the cache
+     * @should return correct value
+     */
+    public int getAnnotationCacheTtl() {
+        return getLocalInt("performance.annotationCache[@ttl]", 60);
+    }
+
+    /**
+     * Returns whether usage statistics summaries may use monthly and yearly rollups instead of reading each daily statistics document.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isUsageStatisticsRollupsEnabled() {
+        return getLocalBoolean("performance.usageStatisticsRollups[@enabled]", true);
+    }
+
+    /**
+     * Returns whether the rendered markup of CMS page components is cached for visitors who are not logged in.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isCmsFragmentCacheEnabled() {
+        return getLocalBoolean("performance.cmsFragmentCache[@enabled]", true);
+    }
+
+    /**
+     * Returns the maximum number of cached CMS component fragments.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getCmsFragmentCacheMaxSize() {
+        return getLocalInt("performance.cmsFragmentCache[@maxSize]", 1000);
+    }
+
+    /**
+     * Returns the time after which cached CMS component fragments are rendered again, unless configured differently for a content type.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getCmsFragmentCacheTtl() {
+        return getLocalInt("performance.cmsFragmentCache[@ttl]", 300);
+    }
+
+    /**
+     * Returns the configured time to live of cached CMS component fragments per content type (simple class name, e.g. CMSMediumImageContent).
+     *
+     * @return Map with content types as keys and time to live in seconds as values
+     * @should return all configured elements
+     */
+    public Map<String, Integer> getCmsFragmentCacheContentTypeTtls() {
+        List<HierarchicalConfiguration<ImmutableNode>> elements = getLocalConfigurationsAt("performance.cmsFragmentCache.contentType");
+        if (elements == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> ret = new HashMap<>(elements.size());
+        for (HierarchicalConfiguration<ImmutableNode> sub : elements) {
+            String name = sub.getString(XML_PATH_ATTRIBUTE_NAME);
+            if (StringUtils.isNotBlank(name)) {
+                ret.put(name, sub.getInt("[@ttl]", 0));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns whether timings of Solr queries and database calls are recorded per call site.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isQueryTelemetryEnabled() {
+        return getLocalBoolean("performance.queryTelemetry[@enabled]", true);
+    }
+
+    /**
+     * Returns the duration above which Solr queries and database calls are added to the slow query log.
+     *
+     * @return Configured value in milliseconds
+     * @should return correct value
+     */
+    public int getQueryTelemetrySlowQueryThreshold() {
+        return getLocalInt("performance.queryTelemetry[@slowQueryThreshold]", 1000);
+    }
+
+    /**
+     * Returns the number of recent slow queries to keep.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getQueryTelemetrySlowQueryLogSize() {
+        return getLocalInt("performance.queryTelemetry[@slowQueryLogSize]", 100);
+    }
+
+    /**
+     * Returns whether Solr documents looked up by IDDOC or PI are memoized for the duration of a request.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isSolrRequestMemoEnabled() {
+        return getLocalBoolean("performance.solr.requestMemo[@enabled]", true);
+    }
+
+    /**
+     * Returns the maximum number of citation processors kept for each citation style.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getCitationProcessorPoolMaxSize() {
+        return getLocalInt("performance.citationProcessors[@maxPerStyle]", 4);
+    }
+
+    /**
+     * Returns whether citation processors for the configured citation recommendation styles are created at startup.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isCitationProcessorWarmUpEnabled() {
+        return getLocalBoolean("performance.citationProcessors[@warmUp]", true);
+    }
+
+    /**
+     * Returns whether rendered RSS feeds are shared between requests until the index changes.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isRssFeedCacheEnabled() {
+        return getLocalBoolean("performance.rssFeedCache[@enabled]", true);
+    }
+
+    /**
+     * Returns the maximum number of cached RSS feeds.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getRssFeedCacheMaxSize() {
+        return getLocalInt("performance.rssFeedCache[@maxSize]", 200);
+    }
+
+    /**
+     * Returns the time after which a cached RSS feed is rendered again, even if the index has not changed.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getRssFeedCacheTtl() {
+        return getLocalInt("performance.rssFeedCache[@ttl]", 600);
+    }
+
+    /**
+     * Returns the minimum time between two checks whether the index has changed since the cached RSS feeds were rendered.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getRssFeedCacheIndexCheckInterval() {
+        return getLocalInt("performance.rssFeedCache[@indexCheckInterval]", 10);
+    }
+
+    /**
+     * Returns the maximum number of threads of the background thread pool with the given name.
+     *
+     * @param poolName Pool name ({@link ThreadPoolManager#POOL_IO}, {@link ThreadPoolManager#POOL_CPU} or {@link ThreadPoolManager#POOL_AUTH})
+     * @return Configured value; if not configured 10 for the I/O pool, the number of processors for the CPU pool and half of them for the
+     *         password hashing pool
+     * @should return correct value
+     */
+    public int getThreadPoolSize(String poolName) {
+        int defaultSize;
+        switch (poolName) {
+            case ThreadPoolManager.POOL_CPU:
+                defaultSize = Runtime.getRuntime().availableProcessors();
+                break;
+            case ThreadPoolManager.POOL_AUTH:
+                defaultSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                break;
+            default:
+                defaultSize = 10;
+                break;
+        }
+        return getLocalInt("performance.threadPools." + poolName + "[@size]", defaultSize);
+    }
+
+    /**
+     * Returns the maximum number of tasks waiting for a thread of the background thread pool with the given name.
+     *
+     * @param poolName Pool name
+     * @return Configured value; if not configured 50 for the password hashing pool and 1000 for the others
+     * @should return correct value
+     */
+    public int getThreadPoolQueueSize(String poolName) {
+        return getLocalInt("performance.threadPools." + poolName + "[@queueSize]", ThreadPoolManager.POOL_AUTH.equals(poolName) ? 50 : 1000);
+    }
+
+    /**
+     * Returns the behaviour of the background thread pool with the given name when all threads are busy and the queue is full.
+     *
+     * @param poolName Pool name
+     * @return Configured value
+     * @should return correct value
+     * @should return callerRuns if not configured
+     */
+    public String getThreadPoolRejectionPolicy(String poolName) {
+        return getLocalString("performance.threadPools." + poolName + "[@rejectionPolicy]", ThreadPoolManager.RejectionPolicy.CALLER_RUNS.getName());
+    }
+
+    /**
+     * Returns the maximum number of password checks that may be pending at the same time for one IP address or one account. Further login
+     * attempts are refused until one of them is done.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getPasswordVerificationMaxPendingPerClient() {
+        return getLocalInt("performance.passwordVerification[@maxPendingPerClient]", 2);
+    }
+
+    /**
+     * Returns the maximum time a request waits for a password check before it is refused.
+     *
+     * @return Configured value in milliseconds
+     * @should return correct value
+     */
+    public int getPasswordVerificationTimeout() {
+        return getLocalInt("performance.passwordVerification[@timeout]", 5000);
+    }
+
+    /**
+     * Returns the maximum number of large media files that may be streamed at the same time. Further requests for large files receive HTTP status
+     * 503 until a transfer is finished.
+     *
+     * @return Configured value
+     * @should return correct value
+     */
+    public int getMediaDeliveryMaxConcurrentTransfers() {
+        return getLocalInt("performance.mediaDelivery[@maxConcurrentTransfers]", 50);
+    }
+
+    /**
+     * Returns the response size from which a media file counts as a large transfer. Large transfers are limited in number and are streamed
+     * without blocking a request thread where the servlet container allows it.
+     *
+     * @return Configured value in bytes
+     * @should return correct value
+     */
+    public int getMediaDeliveryLargeTransferThreshold() {
+        return getLocalInt("performance.mediaDelivery[@largeTransferThreshold]", 1048576);
+    }
+
+    /**
+     * Returns whether large media files are handed to the servlet container's sendfile support (Tomcat NIO connector), so that the file content
+     * is copied to the socket by the operating system.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isMediaDeliverySendfileEnabled() {
+        return getLocalBoolean("performance.mediaDelivery[@sendfile]", true);
+    }
+
+    /**
+     * Returns the time a large media transfer written with non-blocking servlet I/O may go without writing any data. Stalled transfers are
+     * aborted, so that clients that stop reading do not hold a transfer permit forever. The total duration of a transfer is not limited.
+     *
+     * @return Configured value in seconds
+     * @should return correct value
+     */
+    public int getMediaDeliveryStallTimeout() {
+        return getLocalInt("performance.mediaDelivery[@stallTimeout]", 60);
+    }
+
+    /**
+     * Returns whether thumbnails are served from precomputed derivatives where available.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isThumbnailStoreEnabled() {
+        return getLocalBoolean("performance.thumbnailStore[@enabled]", false);
+    }
+
+    /**
+     * Returns the root folder of the precomputed thumbnails.
+     *
+     * @return Configured value; if not configured the folder "thumbnails" in the viewer home folder
+     * @should return correct value
+     */
+    public String getThumbnailStoreFolder() {
+        return getLocalString("performance.thumbnailStore[@folder]", Paths.get(getViewerHome(), "thumbnails").toString());
+    }
+
+    /**
+     * Returns the IIIF size parameters for which thumbnails are precomputed.
+     *
+     * @return Configured values; if not configured the configured thumbnail size and twice and four times that size
+     * @should return correct value
+     */
+    public List<String> getThumbnailStoreSizes() {
+        int width = getThumbnailsWidth();
+        int height = getThumbnailsHeight();
+        return getLocalList("performance.thumbnailStore.size",
+                Arrays.asList("!" + width + "," + height, "!" + width * 2 + "," + height * 2, "!" + width * 4 + "," + height * 4));
+    }
+
+    /**
+     * Returns the JPEG quality of precomputed thumbnails.
+     *
+     * @return Configured value (0-100)
+     * @should return correct value
+     */
+    public int getThumbnailStoreQuality() {
+        return getLocalInt("performance.thumbnailStore[@quality]", 85);
+    }
+
+    /**
+     * Returns whether the thumbnails of all images of a record are precomputed when the indexer reports the record as updated. If false, thumbnails
+     * are only created after they have been requested once.
+     *
+     * @return true if enabled; false otherwise
+     * @should return correct value
+     */
+    public boolean isThumbnailStorePrecomputeOnIndex() {
+        return getLocalBoolean("performance.thumbnailStore[@precomputeOnIndex]", false);
+    }
 }
@@ -32,6 +32,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -45,6 +47,9 @@ import io.goobi.viewer.api.rest.v1.ApiUrls;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.exceptions.RecordNotFoundException;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.alto.AltoPageCache;
+import io.goobi.viewer.model.alto.AltoPageParser;
 import io.goobi.viewer.model.viewer.Dataset;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.StructElement;
@@ -227,13 +232,38 @@ public final class DataFileTools {
         }
 
         // If selected path doesn't exist in the primary data folder, call again with alternative data folder
-        if (StringUtils.isNotBlank(altDataFolderName) && !Files.exists(dataFolderPath)) {
+        if (StringUtils.isNotBlank(altDataFolderName)
+                && !(StringUtils.isNotBlank(useFileName) ? isDataFile(pi, dataFolderPath) : Files.exists(dataFolderPath))) {
             return getDataFilePath(pi, altDataFolderName, null, useFileName);
         }
 
         return dataFolderPath;
     }
 
+    /**
+     * Returns the files in the given data folder of the given record, sorted by name. Folder listings are cached for a short time and discarded
+     * when the record is re-indexed.
+     *
+     * @param pi Identifier of the record the folder belongs to
+     * @param folder Data folder of the record
+     * @return Files in the folder; empty list if the folder does not exist
+     * @throws IOException
+     */
+    public static List<Path> listDataFolder(String pi, Path folder) throws IOException {
+        return DataManager.getInstance().getSearchIndex().getRecordLocationResolver().listFiles(pi, folder);
+    }
+
+    /**
+     * Checks whether the given data file of the given record exists, using the cached listing of its folder.
+     *
+     * @param pi Identifier of the record the file belongs to
+     * @param file Data file of the record
+     * @return true if the file exists; false otherwise
+     */
+    public static boolean isDataFile(String pi, Path file) {
+        return DataManager.getInstance().getSearchIndex().getRecordLocationResolver().isFile(pi, file);
+    }
+
     /**
      * Removes any path elements from the given file name.
      *
@@ -445,9 +475,9 @@ public final class DataFileTools {
         if (altoFilePath != null) {
             // ALTO file
             try {
-                StringPair alto = loadAlto(altoFilePath);
-                if (alto != null) {
-                    return ALTOTools.getFulltext(alto.getOne(), alto.getTwo(), mergeLineBreakWords);
+                AltoPage altoPage = loadAltoPage(altoFilePath);
+                if (altoPage != null) {
+                    return ALTOTools.getFulltext(altoPage, mergeLineBreakWords);
                 }
             } catch (ContentNotFoundException e) {
                 throw new FileNotFoundException(e.getMessage());
@@ -510,6 +540,41 @@ public final class DataFileTools {
         }
     }
 
+    /**
+     * Loads the parsed ALTO page for the given file path. Local files are served from the shared {@link AltoPageCache}; if the file is only
+     * available via the content API, the retrieved document is parsed without caching.
+     *
+     * @param altoFilePath ALTO file path relative to the repository root (e.g. "alto/PPN123/00000001.xml")
+     * @return {@link AltoPage}; null if altoFilePath is null
+     * @throws ContentNotFoundException
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @throws FileNotFoundException
+     */
+    public static AltoPage loadAltoPage(String altoFilePath)
+            throws ContentNotFoundException, IndexUnreachableException, PresentationException, FileNotFoundException {
+        if (altoFilePath == null) {
+            return null;
+        }
+
+        String filename = FileTools.getFilenameFromPathString(altoFilePath);
+        String pi = FileTools.getBottomFolderFromPathString(altoFilePath);
+        try {
+            return new TextResourceBuilder().getAltoPage(pi, filename);
+        } catch (ContentNotFoundException e) {
+            StringPair alto = loadAlto(altoFilePath);
+            if (alto == null || StringUtils.isEmpty(alto.getOne())) {
+                throw e;
+            }
+            try {
+                return AltoPageParser.parse(alto.getOne());
+            } catch (XMLStreamException e1) {
+                logger.error(e1.getMessage());
+                throw new PresentationException("Error reading resource");
+            }
+        }
+    }
+
     /**
      * <p>
      * loadTei.
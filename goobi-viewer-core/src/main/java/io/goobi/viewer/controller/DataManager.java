@@ -21,13 +21,14 @@
  */
 package io.goobi.viewer.controller;
 
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
 
 import javax.faces.context.FacesContext;
 import javax.servlet.ServletContext;
@@ -38,18 +39,28 @@ import org.apache.logging.log4j.Logger;
 
 import de.intranda.monitoring.timer.TimeAnalysis;
 import io.goobi.viewer.api.rest.model.tasks.TaskManager;
+import io.goobi.viewer.controller.imaging.ThumbnailStore;
+import io.goobi.viewer.controller.telemetry.QueryTelemetry;
 import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.dao.impl.JPADAO;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.ModuleMissingException;
+import io.goobi.viewer.model.alto.AltoPageCache;
+import io.goobi.viewer.model.annotation.RecordAnnotationCache;
 import io.goobi.viewer.model.archives.ArchiveManager;
 import io.goobi.viewer.model.bookmark.SessionStoreBookmarkManager;
+import io.goobi.viewer.model.citation.CitationProcessorPool;
+import io.goobi.viewer.model.cms.pages.content.CMSFragmentCache;
 import io.goobi.viewer.model.crowdsourcing.campaigns.Campaign;
+import io.goobi.viewer.model.ner.NERIndexManager;
+import io.goobi.viewer.model.security.DownloadTicket;
 import io.goobi.viewer.model.security.authentication.AuthResponseListener;
 import io.goobi.viewer.model.security.authentication.OpenIdProvider;
 import io.goobi.viewer.model.security.clients.ClientApplicationManager;
 import io.goobi.viewer.model.security.recordlock.RecordLockManager;
 import io.goobi.viewer.model.statistics.usage.UsageStatisticsRecorder;
+import io.goobi.viewer.model.rss.RssFeedCache;
+import io.goobi.viewer.model.toc.TocSkeletonCache;
 import io.goobi.viewer.model.translations.language.LanguageHelper;
 import io.goobi.viewer.modules.IModule;
 import io.goobi.viewer.modules.interfaces.DefaultURLBuilder;
@@ -67,13 +78,11 @@ public final class DataManager {
 
     private static final Object LOCK = new Object();
 
-    private static final int THREAD_POOL_SIZE = 10;
-
     private static DataManager instance = null;
 
     private final List<IModule> modules = new ArrayList<>();
 
-    private final Map<String, Map<String, String>> sessionMap = new LinkedHashMap<>();
+    private final SessionRegistry sessionRegistry = new SessionRegistry();
 
     private final RecordLockManager recordLockManager = new RecordLockManager();
 
@@ -117,6 +126,28 @@ public final class DataManager {
 
     private ThreadPoolManager threadPoolManager = null;
 
+    private AltoPageCache altoPageCache = null;
+
+    private NERIndexManager nerIndexManager = null;
+
+    private TocSkeletonCache tocSkeletonCache = null;
+
+    private RecordAnnotationCache recordAnnotationCache = null;
+
+    private CMSFragmentCache cmsFragmentCache = null;
+
+    private QueryTelemetry queryTelemetry = null;
+
+    private CitationProcessorPool citationProcessorPool = null;
+
+    private RssFeedCache rssFeedCache = null;
+
+    private PasswordVerifier passwordVerifier = null;
+
+    private Semaphore mediaTransferPermits = null;
+
+    private ThumbnailStore thumbnailStore = null;
+
     /**
      * <p>
      * Getter for the field <code>instance</code>.
@@ -253,18 +284,26 @@ public final class DataManager {
      * @return a int.
      */
     public int getSessionCount() {
-        return sessionMap.size();
+        return sessionRegistry.size();
     }
 
     /**
      * <p>
-     * Getter for the field <code>sessionMap</code>.
+     * Read-only view of the active sessions and their metadata. Use {@link #getSessionRegistry()} for modifications.
      * </p>
      *
      * @return the sessionMap
      */
     public Map<String, Map<String, String>> getSessionMap() {
-        return sessionMap;
+        return sessionRegistry.asMap();
+    }
+
+    /**
+     * 
+     * @return Registry of active sessions
+     */
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
     }
 
     /**
@@ -330,7 +369,8 @@ public final class DataManager {
     public IDAO getDao() throws DAOException {
         if (dao == null) {
             synchronized (LOCK) {
-                dao = new JPADAO(getConfiguration().getDbPersistenceUnit());
+                IDAO jpaDao = new JPADAO(getConfiguration().getDbPersistenceUnit());
+                dao = getQueryTelemetry().isEnabled() ? getQueryTelemetry().instrument(jpaDao) : jpaDao;
             }
         }
 
@@ -602,11 +642,210 @@ public final class DataManager {
         this.usageStatisticsRecorder = usageStatisticsRecorder;
     }
 
-    public synchronized ThreadPoolManager getThreadPoolManager() {
+    /**
+     * 
+     * @return Named background thread pools
+     */
+    public ThreadPoolManager getThreadPoolManager() {
         if (threadPoolManager == null) {
-            this.threadPoolManager = new ThreadPoolManager(THREAD_POOL_SIZE);
+            synchronized (LOCK) {
+                if (threadPoolManager == null) {
+                    threadPoolManager = new ThreadPoolManager(getConfiguration());
+                }
+            }
         }
+
         return threadPoolManager;
     }
 
+    /**
+     * 
+     * @return Shared cache of parsed ALTO pages
+     */
+    public AltoPageCache getAltoPageCache() {
+        if (altoPageCache == null) {
+            synchronized (LOCK) {
+                if (altoPageCache == null) {
+                    altoPageCache = new AltoPageCache(getConfiguration().getAltoCacheMaxSize() * 1024L * 1024L);
+                }
+            }
+        }
+
+        return altoPageCache;
+    }
+
+    /**
+     * 
+     * @return Manager of precomputed named entity tag indexes
+     */
+    public NERIndexManager getNerIndexManager() {
+        if (nerIndexManager == null) {
+            synchronized (LOCK) {
+                if (nerIndexManager == null) {
+                    nerIndexManager =
+                            new NERIndexManager(getConfiguration().getNerIndexMaxRecords(), Duration.ofSeconds(getConfiguration().getNerIndexTtl()));
+                }
+            }
+        }
+
+        return nerIndexManager;
+    }
+
+    /**
+     * 
+     * @return Shared cache of table of contents skeletons
+     */
+    public TocSkeletonCache getTocSkeletonCache() {
+        if (tocSkeletonCache == null) {
+            synchronized (LOCK) {
+                if (tocSkeletonCache == null) {
+                    tocSkeletonCache =
+                            new TocSkeletonCache(getConfiguration().getTocCacheMaxSize(), Duration.ofSeconds(getConfiguration().getTocCacheTtl()));
+                }
+            }
+        }
+
+        return tocSkeletonCache;
+    }
+
+    /**
+     * 
+     * @return Shared cache of comments and crowdsourcing annotations per record
+     */
+    public RecordAnnotationCache getRecordAnnotationCache() {
+        if (recordAnnotationCache == null) {
+            synchronized (LOCK) {
+                if (recordAnnotationCache == null) {
+                    recordAnnotationCache = new RecordAnnotationCache(getConfiguration().getAnnotationCacheMaxSize(),
+                            Duration.ofSeconds(getConfiguration().getAnnotationCacheTtl()));
+                }
+            }
+        }
+
+        return recordAnnotationCache;
+    }
+
+    /**
+     * 
+     * @return Shared cache of rendered CMS component markup for anonymous visitors
+     */
+    public CMSFragmentCache getCmsFragmentCache() {
+        if (cmsFragmentCache == null) {
+            synchronized (LOCK) {
+                if (cmsFragmentCache == null) {
+                    cmsFragmentCache = new CMSFragmentCache(getConfiguration().isCmsFragmentCacheEnabled(),
+                            getConfiguration().getCmsFragmentCacheMaxSize(), getConfiguration().getCmsFragmentCacheTtl(),
+                            getConfiguration().getCmsFragmentCacheContentTypeTtls());
+                }
+            }
+        }
+
+        return cmsFragmentCache;
+    }
+
+    /**
+     * 
+     * @return Latency statistics and slow query log of Solr queries and database calls
+     */
+    public QueryTelemetry getQueryTelemetry() {
+        if (queryTelemetry == null) {
+            synchronized (LOCK) {
+                if (queryTelemetry == null) {
+                    queryTelemetry = new QueryTelemetry(getConfiguration().isQueryTelemetryEnabled(),
+                            getConfiguration().getQueryTelemetrySlowQueryThreshold(), getConfiguration().getQueryTelemetrySlowQueryLogSize());
+                }
+            }
+        }
+
+        return queryTelemetry;
+    }
+
+    /**
+     * 
+     * @return Shared pool of citation processors
+     */
+    public CitationProcessorPool getCitationProcessorPool() {
+        if (citationProcessorPool == null) {
+            synchronized (LOCK) {
+                if (citationProcessorPool == null) {
+                    citationProcessorPool = new CitationProcessorPool(getConfiguration().getCitationProcessorPoolMaxSize());
+                }
+            }
+        }
+
+        return citationProcessorPool;
+    }
+
+    /**
+     * 
+     * @return Shared cache of rendered RSS feeds
+     */
+    public RssFeedCache getRssFeedCache() {
+        if (rssFeedCache == null) {
+            synchronized (LOCK) {
+                if (rssFeedCache == null) {
+                    rssFeedCache = new RssFeedCache(getConfiguration().isRssFeedCacheEnabled(), getConfiguration().getRssFeedCacheMaxSize(),
+                            Duration.ofSeconds(getConfiguration().getRssFeedCacheTtl()),
+                            Duration.ofSeconds(getConfiguration().getRssFeedCacheIndexCheckInterval()));
+                }
+            }
+        }
+
+        return rssFeedCache;
+    }
+
+    /**
+     * 
+     * @return Offloaded, rate limited password verification
+     */
+    public PasswordVerifier getPasswordVerifier() {
+        if (passwordVerifier == null) {
+            synchronized (LOCK) {
+                if (passwordVerifier == null) {
+                    passwordVerifier = new PasswordVerifier(getThreadPoolManager(), ThreadPoolManager.POOL_AUTH,
+                            getConfiguration().getPasswordVerificationMaxPendingPerClient(), getConfiguration().getPasswordVerificationTimeout(),
+                            Duration.ofDays(DownloadTicket.VALIDITY_DAYS));
+                }
+            }
+        }
+
+        return passwordVerifier;
+    }
+
+    /**
+     * Returns the permits for concurrent large media transfers. The number of permits is set once from the configuration.
+     *
+     * @return the mediaTransferPermits
+     */
+    public Semaphore getMediaTransferPermits() {
+        if (mediaTransferPermits == null) {
+            synchronized (LOCK) {
+                if (mediaTransferPermits == null) {
+                    mediaTransferPermits = new Semaphore(Math.max(1, getConfiguration().getMediaDeliveryMaxConcurrentTransfers()));
+                }
+            }
+        }
+
+        return mediaTransferPermits;
+    }
+
+    /**
+     * Returns the store of precomputed thumbnails. Whether it is used for requests is decided by
+     * {@link Configuration#isThumbnailStoreEnabled()}.
+     *
+     * @return the thumbnailStore
+     */
+    public ThumbnailStore getThumbnailStore() {
+        if (thumbnailStore == null) {
+            synchronized (LOCK) {
+                if (thumbnailStore == null) {
+                    thumbnailStore = new ThumbnailStore(Paths.get(getConfiguration().getThumbnailStoreFolder()),
+                            getConfiguration().getThumbnailStoreSizes(), getConfiguration().getThumbnailStoreQuality(), getThreadPoolManager());
+                }
+            }
+        }
+
+        return thumbnailStore;
+    }
+
 }
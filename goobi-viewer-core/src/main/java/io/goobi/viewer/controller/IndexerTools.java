@@ -142,6 +142,9 @@ public final class IndexerTools {
         if (StringUtils.isEmpty(pi)) {
             throw new IllegalArgumentException("pi may not be null or empty");
         }
+        // Data files of the record may have changed
+        DataManager.getInstance().getSearchIndex().getRecordLocationResolver().invalidateListings(pi);
+        DataManager.getInstance().getNerIndexManager().invalidate(pi);
 
         String dataRepository = null;
         String recordType = null;
@@ -283,6 +286,9 @@ public final class IndexerTools {
         if (page <= 0) {
             throw new IllegalArgumentException("Illegal page number: " + page);
         }
+        // Data files of the record may have changed
+        DataManager.getInstance().getSearchIndex().getRecordLocationResolver().invalidateListings(pi);
+        DataManager.getInstance().getNerIndexManager().invalidate(pi);
 
         String dataRepository = DataManager.getInstance().getSearchIndex().findDataRepositoryName(pi);
 
@@ -352,6 +358,10 @@ public final class IndexerTools {
             throw new IllegalArgumentException("hotfolderPath may not be null");
         }
 
+        DataManager.getInstance().getSearchIndex().getRecordLocationResolver().invalidate(pi);
+        DataManager.getInstance().getThumbnailStore().invalidate(pi);
+        DataManager.getInstance().getNerIndexManager().invalidate(pi);
+
         String fileName = pi + (createTraceDocument ? ".delete" : ".purge");
         Path file = Paths.get(hotfolderPath.toAbsolutePath().toString(), fileName);
         try {
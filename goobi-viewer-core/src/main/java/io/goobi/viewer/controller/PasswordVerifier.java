@@ -0,0 +1,262 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
+
+/**
+ * Runs bcrypt password checks and hashes in a dedicated, bounded thread pool instead of on the request thread that asks for them. At most
+ * the pool's thread count of hashes are computed at once, so a burst of login or download ticket attempts cannot occupy all servlet worker
+ * threads with bcrypt work. Each client (IP address, account) may only have a few verifications pending; further attempts and attempts
+ * arriving while the pool's queue is full are refused with a {@link TooManyRequestsException}.
+ */
+public class PasswordVerifier {
+
+    private static final Logger logger = LogManager.getLogger(PasswordVerifier.class);
+
+    /** Suggested wait time for refused clients in milliseconds. */
+    public static final long RETRY_AFTER = 1000;
+    /** Maximum number of cached hashes of verified passwords. */
+    private static final int VERIFIED_HASH_CACHE_SIZE = 1000;
+
+    private final ThreadPoolManager threadPoolManager;
+    private final String poolName;
+    private final int maxPendingPerClient;
+    private final long timeout;
+    /** Number of pending verifications per client key. */
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+    /** Hashes of passwords that have been verified before, by SHA-256 of salt and password. */
+    private final ApplicationCache<String, String> verifiedHashes;
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * 
+     * @param threadPoolManager Thread pools
+     * @param poolName Name of the pool that runs verifications
+     * @param maxPendingPerClient Maximum number of pending verifications per IP address and per account
+     * @param timeout Maximum time in milliseconds a caller waits for a verification
+     * @param verifiedHashTtl Time for which hashes of verified passwords are kept
+     */
+    public PasswordVerifier(ThreadPoolManager threadPoolManager, String poolName, int maxPendingPerClient, long timeout,
+            Duration verifiedHashTtl) {
+        this.threadPoolManager = threadPoolManager;
+        this.poolName = poolName;
+        this.maxPendingPerClient = Math.max(1, maxPendingPerClient);
+        this.timeout = timeout;
+        this.verifiedHashes = new ApplicationCache<>("verifiedPasswordHashes", VERIFIED_HASH_CACHE_SIZE, verifiedHashTtl, 0, null);
+    }
+
+    /**
+     * @param ipAddress
+     * @return Admission key for the given IP address
+     */
+    public static String ipKey(String ipAddress) {
+        return "ip:" + ipAddress;
+    }
+
+    /**
+     * @param account User name or e-mail address
+     * @return Admission key for the given account
+     */
+    public static String accountKey(String account) {
+        return "account:" + account;
+    }
+
+    /**
+     * Checks the given password against the given bcrypt hash.
+     * 
+     * @param bcrypt {@link BCrypt} instance that performs the check
+     * @param password Plain text password
+     * @param hash bcrypt hash
+     * @param clientKeys Admission keys of the requesting client (see {@link #ipKey(String)}, {@link #accountKey(String)})
+     * @return true if the password matches; false otherwise
+     * @throws TooManyRequestsException if the client has too many pending verifications or the verification pool is saturated
+     * @should return check result
+     * @should refuse client with too many pending verifications
+     * @should refuse if pool saturated
+     * @should release client keys after timeout
+     */
+    public boolean checkPassword(BCrypt bcrypt, String password, String hash, String... clientKeys) throws TooManyRequestsException {
+        return run(() -> bcrypt.checkpw(password, hash), clientKeys);
+    }
+
+    /**
+     * Hashes the given password with the given salt. If the same password has been hashed with the same salt and then reported with
+     * {@link #addVerifiedHash(String, String, String)}, the remembered hash is returned without hashing again.
+     * 
+     * @param password Plain text password
+     * @param salt bcrypt salt
+     * @param clientKeys Admission keys of the requesting client
+     * @return bcrypt hash
+     * @throws TooManyRequestsException if the client has too many pending verifications or the verification pool is saturated
+     * @should return remembered hash without hashing
+     */
+    public String hashPassword(String password, String salt, String... clientKeys) throws TooManyRequestsException {
+        String key = getVerifiedHashKey(password, salt);
+        String ret = verifiedHashes.getIfPresent(key).orElse(null);
+        if (ret != null) {
+            return ret;
+        }
+        return run(() -> BCrypt.hashpw(password, salt), clientKeys);
+    }
+
+    /**
+     * Remembers the hash of a password that turned out to be correct, so that {@link #hashPassword(String, String, String...)} can skip the
+     * hashing for the next attempt with the same password. Must only be called after a successful verification.
+     * 
+     * @param password Plain text password
+     * @param salt bcrypt salt
+     * @param hash bcrypt hash of password and salt
+     */
+    public void addVerifiedHash(String password, String salt, String hash) {
+        verifiedHashes.put(getVerifiedHashKey(password, salt), hash);
+    }
+
+    /**
+     * @return Number of verifications refused since startup
+     */
+    public long getRefusedCount() {
+        return refused.sum();
+    }
+
+    /**
+     * 
+     * @param password
+     * @param salt
+     * @return Cache key that does not reveal the password
+     */
+    private static String getVerifiedHashKey(String password, String salt) {
+        return StringTools.generateHash(salt + password);
+    }
+
+    /**
+     * Runs the given task in the verification pool and waits for the result.
+     * 
+     * @param <T>
+     * @param task
+     * @param clientKeys
+     * @return Result of task
+     * @throws TooManyRequestsException
+     */
+    private <T> T run(Callable<T> task, String... clientKeys) throws TooManyRequestsException {
+        acquire(clientKeys);
+        // Whoever sets this flag first (the worker by starting the task or the caller by giving up) releases the client keys
+        AtomicBoolean claimed = new AtomicBoolean();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                release(clientKeys, clientKeys.length);
+            }
+        });
+        try {
+            threadPoolManager.executeInBackground(poolName, future);
+        } catch (RejectedExecutionException e) {
+            release(clientKeys, clientKeys.length);
+            throw refuse("Password verification pool is saturated");
+        }
+
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, claimed, clientKeys);
+            throw refuse("Password verification timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(future, claimed, clientKeys);
+            throw refuse("Password verification interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Gives up waiting for the given task. A task that is still queued will not run; a running hash cannot be interrupted and releases the
+     * client keys when it is done.
+     * 
+     * @param future
+     * @param claimed
+     * @param clientKeys
+     */
+    private void abandon(Future<?> future, AtomicBoolean claimed, String... clientKeys) {
+        future.cancel(false);
+        if (claimed.compareAndSet(false, true)) {
+            release(clientKeys, clientKeys.length);
+        }
+    }
+
+    /**
+     * Registers a pending verification for each of the given keys.
+     * 
+     * @param clientKeys
+     * @throws TooManyRequestsException if one of the keys already has the maximum number of pending verifications
+     */
+    private void acquire(String... clientKeys) throws TooManyRequestsException {
+        for (int i = 0; i < clientKeys.length; ++i) {
+            if (pending.merge(clientKeys[i], 1, Integer::sum) > maxPendingPerClient) {
+                release(clientKeys, i + 1);
+                throw refuse("Too many pending password verifications for " + clientKeys[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes a pending verification for the first <code>count</code> of the given keys.
+     * 
+     * @param clientKeys
+     * @param count
+     */
+    private void release(String[] clientKeys, int count) {
+        for (int i = 0; i < count; ++i) {
+            pending.computeIfPresent(clientKeys[i], (k, v) -> v > 1 ? v - 1 : null);
+        }
+    }
+
+    private TooManyRequestsException refuse(String message) {
+        refused.increment();
+        logger.debug(message);
+        return new TooManyRequestsException(message, RETRY_AFTER);
+    }
+}
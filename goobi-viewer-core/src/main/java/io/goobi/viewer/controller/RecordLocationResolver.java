@@ -0,0 +1,346 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
+import io.goobi.viewer.solr.SolrTools;
+
+/**
+ * Resolves where the data files of a record are located and caches both the data repository of each record and the contents of its data
+ * folders. Repository names are kept until the indexer reports a change or the configured time to live has passed; identifiers not found in
+ * the index are cached for a short time only. Folder listings are grouped by record, expire after a short time and are discarded whenever the
+ * record is re-indexed, so that checks for existing files do not hit the (possibly network mounted) file system on every request.
+ */
+public class RecordLocationResolver {
+
+    private static final Logger logger = LogManager.getLogger(RecordLocationResolver.class);
+
+    /** Maximum number of identifiers resolved in a single prefetch query. */
+    static final int PREFETCH_BATCH_SIZE = 100;
+
+    private static final List<String> FIELDS = List.of(SolrConstants.PI, SolrConstants.DATAREPOSITORY);
+
+    private final SolrSearchIndex searchIndex;
+    private final ApplicationCache<String, Location> locations;
+    /** Folder listings per record identifier */
+    private final ApplicationCache<String, Map<Path, FolderListing>> listings;
+    private final long notFoundTtl;
+    private final long listingTtl;
+
+    /**
+     * Cached data repository of a record. <code>found</code> is false for identifiers not present in the index.
+     */
+    static final class Location {
+
+        private final String repository;
+        private final boolean found;
+        private final long timestamp;
+
+        Location(String repository, boolean found) {
+            this.repository = repository;
+            this.found = found;
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Cached names of the files in a data folder. <code>fileNames</code> is empty if the folder does not exist.
+     */
+    static final class FolderListing {
+
+        private final List<Path> files;
+        private final Set<String> fileNames;
+        private final long timestamp;
+
+        FolderListing(List<Path> files) {
+            this.files = files;
+            this.fileNames = new LinkedHashSet<>(files.size());
+            for (Path file : files) {
+                fileNames.add(file.getFileName().toString());
+            }
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     *
+     * @param searchIndex Index used to look up data repositories
+     * @param maxRecords Maximum number of cached record locations
+     * @param ttl Time in milliseconds for which the data repository of a record is remembered
+     * @param notFoundTtl Time in milliseconds for which an identifier not found in the index is remembered
+     * @param maxListingRecords Maximum number of records whose folder listings are cached
+     * @param listingTtl Time in milliseconds for which a folder listing is used
+     */
+    public RecordLocationResolver(SolrSearchIndex searchIndex, int maxRecords, long ttl, long notFoundTtl, int maxListingRecords,
+            long listingTtl) {
+        this.searchIndex = searchIndex;
+        this.locations = new ApplicationCache<>("recordLocations", Math.max(1, maxRecords), Duration.ofMillis(ttl), 0, null);
+        this.listings = new ApplicationCache<>("folderListings", Math.max(1, maxListingRecords), Duration.ofMillis(listingTtl), 0, null);
+        this.notFoundTtl = notFoundTtl;
+        this.listingTtl = listingTtl;
+    }
+
+    /**
+     * Returns the data repository name for the record with the given identifier, querying the index if not cached.
+     *
+     * @param pi Record identifier
+     * @return Data repository name for the record with the given identifier; null if not in a repository or not found
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should return cached value if available
+     * @should query index again once value expired
+     */
+    public String getDataRepositoryName(String pi) throws PresentationException, IndexUnreachableException {
+        if (StringUtils.isEmpty(pi)) {
+            throw new IllegalArgumentException("pi may not be null or empty");
+        }
+
+        Location location = getLocation(pi);
+        if (location == null) {
+            prefetch(Collections.singletonList(pi));
+            location = getLocation(pi);
+        }
+
+        return location != null ? location.repository : null;
+    }
+
+    /**
+     * Resolves the data repositories of all given records that are not cached yet using as few index queries as possible. Intended for lists
+     * of records (e.g. a search result page) whose data files are about to be accessed.
+     *
+     * @param pis Record identifiers
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public void prefetch(Collection<String> pis) throws PresentationException, IndexUnreachableException {
+        if (pis == null || pis.isEmpty()) {
+            return;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String pi : pis) {
+            if (StringUtils.isNotEmpty(pi) && !missing.contains(pi) && getLocation(pi) == null) {
+                missing.add(pi);
+            }
+        }
+
+        for (int i = 0; i < missing.size(); i += PREFETCH_BATCH_SIZE) {
+            List<String> batch = missing.subList(i, Math.min(i + PREFETCH_BATCH_SIZE, missing.size()));
+            SolrDocumentList docs = searchIndex.search(buildQuery(batch), batch.size(), null, FIELDS);
+            Set<String> unresolved = new LinkedHashSet<>(batch);
+            for (SolrDocument doc : docs) {
+                String pi = SolrTools.getSingleFieldStringValue(doc, SolrConstants.PI);
+                if (pi != null && unresolved.remove(pi)) {
+                    locations.put(pi, new Location(SolrTools.getSingleFieldStringValue(doc, SolrConstants.DATAREPOSITORY), true));
+                }
+            }
+            for (String pi : unresolved) {
+                logger.trace("Record not found in index: {}", pi);
+                locations.put(pi, new Location(null, false));
+            }
+        }
+    }
+
+    /**
+     *
+     * @param pis Record identifiers
+     * @return Query matching the top level documents of the given records
+     * @should build query correctly
+     */
+    static String buildQuery(Collection<String> pis) {
+        StringBuilder sb = new StringBuilder(SolrConstants.PI).append(":(");
+        boolean first = true;
+        for (String pi : pis) {
+            if (!first) {
+                sb.append(' ');
+            }
+            sb.append('"').append(SolrTools.cleanUpQuery(pi)).append('"');
+            first = false;
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Sets the data repository name of the given record (e.g. after the indexer has reported a change) and discards all cached folder listings
+     * of that record.
+     *
+     * @param pi Record identifier
+     * @param dataRepositoryName Data repository name; null if the record is not in a repository
+     * @should update value correctly
+     * @should discard folder listings of record
+     */
+    public void update(String pi, String dataRepositoryName) {
+        if (pi == null) {
+            return;
+        }
+        locations.put(pi, new Location(dataRepositoryName, true));
+        invalidateListings(pi);
+    }
+
+    /**
+     * Discards all cached information about the given record.
+     *
+     * @param pi Record identifier
+     */
+    public void invalidate(String pi) {
+        if (pi == null) {
+            return;
+        }
+        locations.invalidate(pi);
+        invalidateListings(pi);
+    }
+
+    /**
+     *
+     * @param pi Record identifier
+     * @return Cached data repository name of the given record; null if not cached or not in a repository
+     */
+    public String getCachedDataRepositoryName(String pi) {
+        Location location = getLocation(pi);
+        return location != null ? location.repository : null;
+    }
+
+    /**
+     * Returns the files in the given data folder of the given record, sorted by name. The listing is cached for a short time.
+     *
+     * @param pi Identifier of the record the folder belongs to
+     * @param folder Data folder
+     * @return Files in the folder; empty list if the folder does not exist
+     * @throws IOException
+     * @should return sorted files
+     * @should return empty list if folder does not exist
+     * @should return cached listing within ttl
+     */
+    public List<Path> listFiles(String pi, Path folder) throws IOException {
+        if (folder == null) {
+            return Collections.emptyList();
+        }
+        return getListing(pi, folder).files;
+    }
+
+    /**
+     * Checks whether the given file exists, using the cached listing of the containing folder.
+     *
+     * @param pi Identifier of the record the file belongs to
+     * @param file File to check
+     * @return true if the file exists; false otherwise
+     * @should return true if file exists
+     * @should return false if file does not exist
+     */
+    public boolean isFile(String pi, Path file) {
+        if (file == null || file.getParent() == null || file.getFileName() == null) {
+            return false;
+        }
+        try {
+            return getListing(pi, file.getParent()).fileNames.contains(file.getFileName().toString());
+        } catch (IOException e) {
+            logger.warn(e.getMessage());
+            return Files.isRegularFile(file);
+        }
+    }
+
+    /**
+     * Discards all cached folder listings of the given record.
+     *
+     * @param pi Record identifier
+     * @should remove listings of given record only
+     */
+    public void invalidateListings(String pi) {
+        listings.invalidate(pi != null ? pi : "");
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public void clear() {
+        locations.invalidateAll();
+        listings.invalidateAll();
+    }
+
+    /**
+     *
+     * @param pi
+     * @return Cached {@link Location}; null if not cached or expired
+     */
+    private Location getLocation(String pi) {
+        Location location = locations.getIfPresent(pi).orElse(null);
+        if (location != null && !location.found && System.currentTimeMillis() - location.timestamp > notFoundTtl) {
+            return null;
+        }
+        return location;
+    }
+
+    /**
+     *
+     * @param pi
+     * @param folder
+     * @return Current {@link FolderListing} for the given folder
+     * @throws IOException
+     */
+    private FolderListing getListing(String pi, Path folder) throws IOException {
+        Map<Path, FolderListing> recordListings = listings.get(pi != null ? pi : "", k -> new ConcurrentHashMap<>());
+        FolderListing listing = recordListings.get(folder);
+        if (listing != null && System.currentTimeMillis() - listing.timestamp <= listingTtl) {
+            return listing;
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            files.clear();
+        }
+        files.sort((p1, p2) -> p1.getFileName().toString().compareTo(p2.getFileName().toString()));
+        listing = new FolderListing(Collections.unmodifiableList(files));
+        recordListings.put(folder, listing);
+
+        return listing;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Registry of active HTTP sessions and a small amount of descriptive metadata per session (address, timestamps, etc.). Each session's
+ * metadata is an immutable snapshot that is replaced atomically on update, so readers never see partially updated state and updates of
+ * different sessions do not block each other.
+ */
+public class SessionRegistry {
+
+    private static final Logger logger = LogManager.getLogger(SessionRegistry.class);
+
+    /** Default maximum number of metadata entries per session. */
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+    /** Default maximum length of a metadata value; longer values are truncated. */
+    public static final int DEFAULT_MAX_VALUE_LENGTH = 1024;
+
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> readOnlyView = Collections.unmodifiableMap(sessions);
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final int maxEntries;
+    private final int maxValueLength;
+
+    /**
+     * Creates a registry with the default limits.
+     */
+    public SessionRegistry() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_VALUE_LENGTH);
+    }
+
+    /**
+     * 
+     * @param maxEntries Maximum number of metadata entries per session
+     * @param maxValueLength Maximum length of a metadata value
+     */
+    public SessionRegistry(int maxEntries, int maxValueLength) {
+        this.maxEntries = maxEntries;
+        this.maxValueLength = maxValueLength;
+    }
+
+    /**
+     * Updates the metadata of the session with the given ID, registering the session if necessary. The updater receives a mutable copy of the
+     * current metadata (empty for new sessions); the result is limited to the maximum number of entries and value length and then replaces
+     * the previous metadata atomically. The updater must not access this registry.
+     * 
+     * @param sessionId
+     * @param updater
+     * @return true if the session was newly registered; false otherwise
+     * @should register new session
+     * @should not modify previous snapshot
+     * @should limit number of entries
+     * @should truncate long values
+     */
+    public boolean update(String sessionId, Consumer<Map<String, String>> updater) {
+        if (sessionId == null) {
+            throw new IllegalArgumentException("sessionId may not be null");
+        }
+        boolean[] added = { false };
+        sessions.compute(sessionId, (k, current) -> {
+            Map<String, String> metadata;
+            if (current == null) {
+                metadata = new LinkedHashMap<>();
+                added[0] = true;
+            } else {
+                metadata = new LinkedHashMap<>(current);
+            }
+            updater.accept(metadata);
+            return limit(k, metadata);
+        });
+        if (added[0]) {
+            created.increment();
+        }
+        return added[0];
+    }
+
+    /**
+     * 
+     * @param sessionId
+     * @return true if the session was registered; false otherwise
+     * @should remove session
+     * @should return false if session unknown
+     */
+    public boolean remove(String sessionId) {
+        if (sessionId == null || sessions.remove(sessionId) == null) {
+            return false;
+        }
+        destroyed.increment();
+        return true;
+    }
+
+    /**
+     * 
+     * @param sessionId
+     * @return Read-only metadata of the session with the given ID; null if not registered
+     */
+    public Map<String, String> get(String sessionId) {
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    /**
+     * @return Read-only live view of all registered sessions and their metadata
+     * @should not allow modifications
+     */
+    public Map<String, Map<String, String>> asMap() {
+        return readOnlyView;
+    }
+
+    /**
+     * @return Number of registered sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Number of sessions registered since startup
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * @return Number of sessions removed since startup
+     */
+    public long getDestroyedCount() {
+        return destroyed.sum();
+    }
+
+    /**
+     * 
+     * @param sessionId
+     * @param metadata
+     * @return Immutable copy of metadata with at most maxEntries entries and values of at most maxValueLength characters
+     */
+    private Map<String, String> limit(String sessionId, Map<String, String> metadata) {
+        Map<String, String> ret = new LinkedHashMap<>(Math.min(metadata.size(), maxEntries) * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            if (ret.size() >= maxEntries) {
+                logger.debug("Session {} exceeds {} metadata entries, further entries are dropped.", sessionId, maxEntries);
+                break;
+            }
+            String value = entry.getValue();
+            if (value != null && value.length() > maxValueLength) {
+                value = value.substring(0, maxValueLength);
+            }
+            ret.put(entry.getKey(), value);
+        }
+        return Collections.unmodifiableMap(ret);
+    }
+}
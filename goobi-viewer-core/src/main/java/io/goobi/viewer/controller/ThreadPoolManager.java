@@ -21,44 +21,446 @@
  */
 package io.goobi.viewer.controller;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
 
-import org.apache.poi.ss.formula.functions.T;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+/**
+ * Registry of named, bounded thread pools for background work. I/O-bound tasks (Solr queries, downloads, cache refreshes) and CPU-bound
+ * tasks (parsing, index building) run in separate pools so that one kind of work cannot starve the other. Each pool has a bounded queue;
+ * tasks that arrive while the queue is full are handled according to the pool's {@link RejectionPolicy}. Submission does not lock.
+ */
 public class ThreadPoolManager {
 
-    private final ExecutorService executorService;
-    private final Object lock = new Object();
+    private static final Logger logger = LogManager.getLogger(ThreadPoolManager.class);
+
+    /** Pool for tasks that mostly wait for Solr, the database or other remote resources. */
+    public static final String POOL_IO = "io";
+    /** Pool for tasks that mostly keep a processor busy. */
+    public static final String POOL_CPU = "cpu";
+    /** Pool for password hashing, kept small so that login attempts cannot occupy all processors. */
+    public static final String POOL_AUTH = "auth";
+
+    /** Time after which idle threads are stopped. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    /** Time that {@link #shutdown()} waits for queued and running tasks to finish. */
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Behaviour of a pool when both its threads and its queue are busy.
+     */
+    public enum RejectionPolicy {
+        /** The task is run on the submitting thread, which slows down the submitter. */
+        CALLER_RUNS("callerRuns"),
+        /** A {@link RejectedExecutionException} is thrown. */
+        ABORT("abort"),
+        /**
+         * The task is dropped and its {@link Future} cancelled. Tasks without a {@link Future} (passed to the {@link Executor} returned by
+         * {@link ThreadPoolManager#getExecutor(String)}) are rejected with a {@link RejectedExecutionException} instead, so that callers
+         * waiting for them learn about it.
+         */
+        DISCARD("discard"),
+        /**
+         * The oldest queued task is dropped and its {@link Future} cancelled in favour of the new one. If the oldest task has no {@link Future},
+         * the new task is dropped as with {@link #DISCARD}.
+         */
+        DISCARD_OLDEST("discardOldest");
+
+        private final String name;
+
+        private RejectionPolicy(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the name used in the configuration
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 
+         * @param name
+         * @return {@link RejectionPolicy} with the given name; {@link #CALLER_RUNS} if none matches
+         * @should return correct policy
+         * @should return caller runs if name unknown
+         */
+        public static RejectionPolicy getByName(String name) {
+            for (RejectionPolicy policy : values()) {
+                if (policy.name.equalsIgnoreCase(name)) {
+                    return policy;
+                }
+            }
+            return CALLER_RUNS;
+        }
+    }
 
-    public ThreadPoolManager(int size) {
-        this.executorService = Executors.newFixedThreadPool(size);
+    /** Immutable after construction, so that lookups need no synchronization. */
+    private final Map<String, Pool> pools;
+    private final String defaultPoolName;
+
+    /**
+     * Creates the standard I/O, CPU and password hashing pools with the given configuration. The I/O pool is the default pool.
+     * 
+     * @param config
+     */
+    public ThreadPoolManager(Configuration config) {
+        this(POOL_IO,
+                new PoolSettings(POOL_IO, config.getThreadPoolSize(POOL_IO), config.getThreadPoolQueueSize(POOL_IO),
+                        RejectionPolicy.getByName(config.getThreadPoolRejectionPolicy(POOL_IO))),
+                new PoolSettings(POOL_CPU, config.getThreadPoolSize(POOL_CPU), config.getThreadPoolQueueSize(POOL_CPU),
+                        RejectionPolicy.getByName(config.getThreadPoolRejectionPolicy(POOL_CPU))),
+                new PoolSettings(POOL_AUTH, config.getThreadPoolSize(POOL_AUTH), config.getThreadPoolQueueSize(POOL_AUTH),
+                        RejectionPolicy.getByName(config.getThreadPoolRejectionPolicy(POOL_AUTH))));
     }
 
-    public Future<T> execute(Callable<T> task) {
-        synchronized (lock) {
-            return this.executorService.submit(task);
+    /**
+     * 
+     * @param defaultPoolName Name of the pool used by {@link #execute(Callable)} and {@link #execute(Runnable)}
+     * @param settings Pools to create
+     */
+    public ThreadPoolManager(String defaultPoolName, PoolSettings... settings) {
+        Map<String, Pool> map = new LinkedHashMap<>(settings.length);
+        for (PoolSettings s : settings) {
+            map.put(s.name, new Pool(s));
+        }
+        if (!map.containsKey(defaultPoolName)) {
+            throw new IllegalArgumentException("Unknown default pool: " + defaultPoolName);
         }
+        this.pools = Collections.unmodifiableMap(map);
+        this.defaultPoolName = defaultPoolName;
+    }
+
+    /**
+     * Submits the given task to the default pool.
+     * 
+     * @param <T>
+     * @param task
+     * @return {@link Future} of the task
+     * @throws RejectedExecutionException if the pool is saturated and rejects tasks or has been shut down
+     */
+    public <T> Future<T> execute(Callable<T> task) {
+        return execute(defaultPoolName, task);
     }
 
+    /**
+     * Submits the given task to the default pool.
+     * 
+     * @param task
+     * @return {@link Future} of the task
+     * @throws RejectedExecutionException if the pool is saturated and rejects tasks or has been shut down
+     * @should reject tasks if saturated and policy is abort
+     * @should run task on caller thread if saturated and policy is caller runs
+     * @should drop task if saturated and policy is discard
+     * @should cancel dropped tasks if policy is discard oldest
+     */
     public Future<?> execute(Runnable task) {
-        synchronized (lock) {
-            return this.executorService.submit(task);
+        return execute(defaultPoolName, task);
+    }
+
+    /**
+     * Submits the given task to the pool with the given name.
+     * 
+     * @param <T>
+     * @param poolName
+     * @param task
+     * @return {@link Future} of the task
+     * @throws RejectedExecutionException if the pool is saturated and rejects tasks or has been shut down
+     * @should run task in named pool
+     */
+    public <T> Future<T> execute(String poolName, Callable<T> task) {
+        return getPool(poolName).executor.submit(task);
+    }
+
+    /**
+     * Submits the given task to the pool with the given name.
+     * 
+     * @param poolName
+     * @param task
+     * @return {@link Future} of the task
+     * @throws RejectedExecutionException if the pool is saturated and rejects tasks or has been shut down
+     */
+    public Future<?> execute(String poolName, Runnable task) {
+        return getPool(poolName).executor.submit(task);
+    }
+
+    /**
+     * Submits the given task to the pool with the given name. Unlike {@link #execute(String, Runnable)}, the task is never run on the calling
+     * thread, even if the pool uses {@link RejectionPolicy#CALLER_RUNS}. Use this for tasks the caller waits for or communicates with.
+     * 
+     * @param poolName
+     * @param task
+     * @return {@link Future} of the task
+     * @throws RejectedExecutionException if the pool is saturated or has been shut down
+     * @should throw RejectedExecutionException instead of running task on caller thread
+     */
+    public Future<?> executeInBackground(String poolName, Runnable task) {
+        BackgroundTask<Object> future = new BackgroundTask<>(task);
+        getPool(poolName).executor.execute(future);
+        return future;
+    }
+
+    /**
+     * 
+     * @param poolName
+     * @return {@link Executor} that submits to the pool with the given name
+     * @should throw RejectedExecutionException instead of dropping task if saturated and policy is discard
+     */
+    public Executor getExecutor(String poolName) {
+        return getPool(poolName).executor;
+    }
+
+    /**
+     * @return {@link ExecutorService} of the default pool
+     */
+    public ExecutorService getExecutorService() {
+        return getPool(defaultPoolName).executor;
+    }
+
+    /**
+     * @return Current statistics of all pools
+     * @should return statistics for all pools
+     */
+    public List<ThreadPoolStatistics> getStatistics() {
+        List<ThreadPoolStatistics> ret = new ArrayList<>(pools.size());
+        for (Pool pool : pools.values()) {
+            ret.add(pool.getStatistics());
+        }
+        return ret;
+    }
+
+    /**
+     * @return Pool statistics in Prometheus text format
+     * @should contain metrics for all pools
+     */
+    public String toPrometheusText() {
+        List<ThreadPoolStatistics> stats = getStatistics();
+        StringBuilder sb = new StringBuilder();
+        appendMetric(sb, stats, "viewer_threadpool_threads", "gauge", "Current number of threads", ThreadPoolStatistics::getPoolSize);
+        appendMetric(sb, stats, "viewer_threadpool_active_threads", "gauge", "Threads currently running a task",
+                ThreadPoolStatistics::getActiveCount);
+        appendMetric(sb, stats, "viewer_threadpool_queue_depth", "gauge", "Tasks waiting in the queue", ThreadPoolStatistics::getQueueDepth);
+        appendMetric(sb, stats, "viewer_threadpool_queue_capacity", "gauge", "Maximum number of waiting tasks",
+                ThreadPoolStatistics::getQueueCapacity);
+        appendMetric(sb, stats, "viewer_threadpool_completed_total", "counter", "Completed tasks", ThreadPoolStatistics::getCompletedCount);
+        appendMetric(sb, stats, "viewer_threadpool_rejected_total", "counter", "Tasks rejected because the pool was saturated",
+                ThreadPoolStatistics::getRejectedCount);
+        return sb.toString();
+    }
+
+    private static void appendMetric(StringBuilder sb, List<ThreadPoolStatistics> stats, String name, String type, String help,
+            ToLongFunction<ThreadPoolStatistics> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n').append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (ThreadPoolStatistics stat : stats) {
+            sb.append(name).append("{pool=\"").append(stat.getName()).append("\"} ").append(value.applyAsLong(stat)).append('\n');
         }
     }
 
+    /**
+     * Stops accepting new tasks and waits up to ten seconds for queued and running tasks to finish before interrupting the remaining ones.
+     */
     public void shutdown() {
-        synchronized (lock) {
-            this.executorService.shutdownNow();
+        shutdown(DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    /**
+     * Stops accepting new tasks and waits up to the given time for queued and running tasks to finish before interrupting the remaining ones.
+     * 
+     * @param timeout Maximum time to wait for all pools together
+     * @return true if all tasks finished in time; false otherwise
+     * @should run queued tasks before terminating
+     * @should interrupt tasks still running after timeout
+     * @should reject tasks submitted after shutdown
+     */
+    public boolean shutdown(Duration timeout) {
+        for (Pool pool : pools.values()) {
+            pool.executor.shutdown();
         }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean drained = true;
+        for (Pool pool : pools.values()) {
+            try {
+                if (!pool.executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    List<Runnable> dropped = pool.executor.shutdownNow();
+                    logger.warn("Thread pool '{}' did not finish in time, {} queued tasks dropped.", pool.settings.name, dropped.size());
+                    drained = false;
+                }
+            } catch (InterruptedException e) {
+                pool.executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                drained = false;
+            }
+        }
+        return drained;
     }
 
-    public ExecutorService getExecutorService() {
-        synchronized (lock) {
-            return executorService;
+    /**
+     * 
+     * @param poolName
+     * @return {@link Pool} with the given name
+     * @throws IllegalArgumentException if no pool with the given name exists
+     */
+    private Pool getPool(String poolName) {
+        Pool pool = pools.get(poolName);
+        if (pool == null) {
+            throw new IllegalArgumentException("Unknown thread pool: " + poolName);
+        }
+        return pool;
+    }
+
+    /**
+     * Size, queue capacity and rejection policy of a pool.
+     */
+    public static class PoolSettings {
+
+        private final String name;
+        private final int size;
+        private final int queueSize;
+        private final RejectionPolicy rejectionPolicy;
+
+        /**
+         * 
+         * @param name Pool name
+         * @param size Maximum number of threads
+         * @param queueSize Maximum number of waiting tasks
+         * @param rejectionPolicy Behaviour when threads and queue are busy
+         */
+        public PoolSettings(String name, int size, int queueSize, RejectionPolicy rejectionPolicy) {
+            if (name == null) {
+                throw new IllegalArgumentException("name may not be null");
+            }
+            this.name = name;
+            this.size = Math.max(1, size);
+            this.queueSize = Math.max(1, queueSize);
+            this.rejectionPolicy = rejectionPolicy != null ? rejectionPolicy : RejectionPolicy.CALLER_RUNS;
+        }
+    }
+
+    /**
+     * A named executor with its rejection counter.
+     */
+    private static class Pool {
+
+        private final PoolSettings settings;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder rejected = new LongAdder();
+
+        Pool(PoolSettings settings) {
+            this.settings = settings;
+            this.executor = new ThreadPoolExecutor(settings.size, settings.size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(settings.queueSize), new NamedThreadFactory(settings.name), new CountingRejectionHandler());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        ThreadPoolStatistics getStatistics() {
+            return new ThreadPoolStatistics(settings.name, settings.rejectionPolicy.getName(), executor.getPoolSize(), settings.size,
+                    executor.getActiveCount(), executor.getQueue().size(), settings.queueSize, executor.getCompletedTaskCount(), rejected.sum());
+        }
+
+        /**
+         * Counts rejected tasks and applies the configured {@link RejectionPolicy}.
+         */
+        private class CountingRejectionHandler implements RejectedExecutionHandler {
+
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+                if (e.isShutdown()) {
+                    throw new RejectedExecutionException("Thread pool '" + settings.name + "' has been shut down");
+                }
+                rejected.increment();
+                if (r instanceof BackgroundTask) {
+                    throw new RejectedExecutionException("Thread pool '" + settings.name + "' is saturated");
+                }
+                switch (settings.rejectionPolicy) {
+                    case ABORT:
+                        throw new RejectedExecutionException("Thread pool '" + settings.name + "' is saturated");
+                    case DISCARD:
+                        discard(r);
+                        break;
+                    case DISCARD_OLDEST:
+                        // Only tasks with a Future can be dropped without leaving their submitter waiting forever
+                        Runnable oldest = e.getQueue().peek();
+                        if (oldest instanceof Future<?> f && e.getQueue().remove(oldest)) {
+                            f.cancel(false);
+                            logger.debug("Thread pool '{}' is saturated, oldest task discarded.", settings.name);
+                            e.execute(r);
+                        } else {
+                            discard(r);
+                        }
+                        break;
+                    case CALLER_RUNS:
+                    default:
+                        r.run();
+                        break;
+                }
+            }
+
+            /**
+             * Drops the given task. The {@link Future} of the task is cancelled so that waiting callers are released; tasks without a
+             * {@link Future} are rejected.
+             *
+             * @param r Task to drop
+             * @throws RejectedExecutionException if r is not a {@link Future}
+             */
+            private void discard(Runnable r) {
+                if (r instanceof Future<?> f) {
+                    f.cancel(false);
+                    logger.debug("Thread pool '{}' is saturated, task discarded.", settings.name);
+                    return;
+                }
+                throw new RejectedExecutionException("Thread pool '" + settings.name + "' is saturated");
+            }
+        }
+    }
+
+    /**
+     * Task that must not run on the submitting thread.
+     * 
+     * @param <V>
+     */
+    private static class BackgroundTask<V> extends FutureTask<V> {
+
+        BackgroundTask(Runnable runnable) {
+            super(runnable, null);
         }
     }
 
+    /**
+     * Creates threads named after their pool.
+     */
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String poolName) {
+            this.prefix = "viewer-" + poolName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, prefix + counter.incrementAndGet());
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+/**
+ * Snapshot of the state of one pool of the {@link ThreadPoolManager}.
+ */
+public class ThreadPoolStatistics {
+
+    private final String name;
+    private final String rejectionPolicy;
+    private final int poolSize;
+    private final int maxPoolSize;
+    private final int activeCount;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long completedCount;
+    private final long rejectedCount;
+
+    /**
+     * 
+     * @param name Pool name
+     * @param rejectionPolicy Name of the rejection policy
+     * @param poolSize Current number of threads
+     * @param maxPoolSize Maximum number of threads
+     * @param activeCount Number of threads running a task
+     * @param queueDepth Number of waiting tasks
+     * @param queueCapacity Maximum number of waiting tasks
+     * @param completedCount Number of completed tasks
+     * @param rejectedCount Number of tasks that arrived while the pool was saturated
+     */
+    public ThreadPoolStatistics(String name, String rejectionPolicy, int poolSize, int maxPoolSize, int activeCount, int queueDepth,
+            int queueCapacity, long completedCount, long rejectedCount) {
+        this.name = name;
+        this.rejectionPolicy = rejectionPolicy;
+        this.poolSize = poolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.activeCount = activeCount;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.completedCount = completedCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the rejectionPolicy
+     */
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * @return the poolSize
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return the maxPoolSize
+     */
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * @return the activeCount
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return the queueDepth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return the queueCapacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the completedCount
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @return the rejectedCount
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+}
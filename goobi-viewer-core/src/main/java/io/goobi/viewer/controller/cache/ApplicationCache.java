@@ -0,0 +1,509 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Thread-safe application-wide cache whose values are computed by loader functions.
+ * <ul>
+ * <li>Only one thread computes a missing or expired value per key; concurrent callers wait for that computation or, if an expired value is
+ * still present, are served the stale value in the meantime.</li>
+ * <li>Entries expire after a time to live, which may be overridden per call, and the least recently used entries are evicted once the
+ * maximum size is exceeded.</li>
+ * <li>Once an entry has reached the configured share of its time to live, it is reloaded in the background while callers keep receiving the
+ * current value (refresh-ahead).</li>
+ * </ul>
+ * Values loaded while their key is invalidated are returned to the waiting callers but not stored. Loaders should not access the cache
+ * recursively for the same key.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class ApplicationCache<K, V> {
+
+    private static final Logger logger = LogManager.getLogger(ApplicationCache.class);
+
+    private final String name;
+    private final int maxSize;
+    private final Duration timeToLive;
+    private final double refreshAheadRatio;
+    private final Executor refreshExecutor;
+
+    private final Map<K, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    /** Keys of bounded caches ordered by their last access, least recently used first */
+    private final ConcurrentSkipListMap<Long, K> accessOrder = new ConcurrentSkipListMap<>();
+    private final AtomicLong accessCounter = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    /**
+     * Cached value with its load time.
+     *
+     * @param <V> Value type
+     */
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long loaded = System.nanoTime();
+        private final AtomicLong accessStamp;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CacheEntry(V value, long accessStamp) {
+            this.value = value;
+            this.accessStamp = new AtomicLong(accessStamp);
+        }
+
+        private long getAge(long now) {
+            return now - loaded;
+        }
+    }
+
+    /**
+     *
+     * @param name Name used in log messages and statistics
+     * @param maxSize Maximum number of entries; values &lt;= 0 mean unbounded
+     * @param timeToLive Default time to live of entries; null means entries do not expire
+     * @param refreshAheadRatio Share of the time to live after which an entry is reloaded in the background (e.g. 0.75); values outside of
+     *            (0,1) disable refresh-ahead
+     * @param refreshExecutor Executor for background reloads; null disables refresh-ahead
+     */
+    public ApplicationCache(String name, int maxSize, Duration timeToLive, double refreshAheadRatio, Executor refreshExecutor) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.refreshAheadRatio = refreshAheadRatio;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * Returns the value for the given key, using the default time to live.
+     *
+     * @param key Cache key
+     * @param loader Function computing the value if it is missing or expired
+     * @return Cached or newly loaded value; null if the loader returned null
+     * @see #get(Object, Duration, Function)
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, timeToLive, loader);
+    }
+
+    /**
+     * Returns the value for the given key if it is no older than <code>maxAge</code>. Otherwise the value is computed by the given loader. If
+     * another thread is already computing the value, the caller waits for its result, or receives the expired value if one is still present.
+     * Exceptions thrown by the loader are passed on to all waiting callers.
+     *
+     * @param key Cache key
+     * @param maxAge Maximum age of the returned value; null means cached values never expire
+     * @param loader Function computing the value if it is missing or expired
+     * @return Cached or newly loaded value; null if the loader returned null
+     * @should return cached value if not expired
+     * @should load value if missing
+     * @should reload value if expired
+     * @should load value only once for concurrent callers
+     * @should return stale value while value is loaded by another thread
+     * @should refresh value in background after refresh ahead threshold
+     * @should pass loader exception to caller
+     * @should not store value if key invalidated during load
+     */
+    public V get(K key, Duration maxAge, Function<? super K, ? extends V> loader) {
+        if (key == null) {
+            throw new IllegalArgumentException("key may not be null");
+        }
+        if (loader == null) {
+            throw new IllegalArgumentException("loader may not be null");
+        }
+
+        long now = System.nanoTime();
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null) {
+            long age = entry.getAge(now);
+            if (maxAge == null || age <= maxAge.toNanos()) {
+                hits.increment();
+                touch(key, entry);
+                if (maxAge != null && isRefreshAheadEnabled() && age >= maxAge.toNanos() * refreshAheadRatio) {
+                    refreshAhead(key, entry, loader);
+                }
+                return entry.value;
+            }
+        }
+
+        misses.increment();
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            if (entry != null) {
+                // Another thread is already loading the value; serve the expired value in the meantime
+                staleHits.increment();
+                return entry.value;
+            }
+            return await(running);
+        }
+
+        try {
+            V value = load(key, loader, future);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the value for the given key if present and not expired according to the default time to live.
+     *
+     * @param key Cache key
+     * @return Optional containing the cached value; empty if missing or expired
+     */
+    public Optional<V> getIfPresent(K key) {
+        return getIfPresent(key, timeToLive);
+    }
+
+    /**
+     * Returns the value for the given key if present and no older than <code>maxAge</code>. Does not trigger any loading.
+     *
+     * @param key Cache key
+     * @param maxAge Maximum age of the returned value; null means cached values never expire
+     * @return Optional containing the cached value; empty if missing or expired
+     * @should return empty if expired
+     */
+    public Optional<V> getIfPresent(K key, Duration maxAge) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null || (maxAge != null && entry.getAge(now) > maxAge.toNanos())) {
+            misses.increment();
+            if (entry != null && timeToLive != null && entry.getAge(now) > timeToLive.toNanos()) {
+                // Discard entries that have outlived the default time to live
+                if (entries.remove(key, entry)) {
+                    forget(key, entry);
+                }
+            }
+            return Optional.empty();
+        }
+        hits.increment();
+        touch(key, entry);
+        return Optional.ofNullable(entry.value);
+    }
+
+    /**
+     *
+     * @param key Cache key
+     * @param maxAge Maximum age
+     * @return true if a value for the given key is present and no older than <code>maxAge</code>; false otherwise
+     */
+    public boolean isPresent(K key, Duration maxAge) {
+        CacheEntry<V> entry = key != null ? entries.get(key) : null;
+        return entry != null && (maxAge == null || entry.getAge(System.nanoTime()) <= maxAge.toNanos());
+    }
+
+    /**
+     * Stores the given value under the given key, replacing any existing value. A value that is being loaded for the same key at the same
+     * time is not stored.
+     *
+     * @param key Cache key
+     * @param value Value to store; null removes the entry
+     * @should evict least recently used entries after removals
+     */
+    public void put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key may not be null");
+        }
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        loading.remove(key);
+        store(key, value);
+        evictIfNecessary();
+    }
+
+    /**
+     * Removes the entry with the given key. A value that is being loaded for the key at the same time is not stored.
+     *
+     * @param key Cache key
+     */
+    public void invalidate(K key) {
+        if (key != null) {
+            loading.remove(key);
+            CacheEntry<V> entry = entries.remove(key);
+            if (entry != null) {
+                forget(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries whose key and value match the given predicate. Since the predicate cannot be applied to values that are still being
+     * loaded, none of those are stored.
+     *
+     * @param predicate Predicate receiving key and value
+     * @return Number of removed entries
+     * @should remove matching entries only
+     * @should not store values loaded during invalidation
+     */
+    public int invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("predicate may not be null");
+        }
+        loading.clear();
+        int count = 0;
+        Iterator<Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<K, CacheEntry<V>> e = iterator.next();
+            if (predicate.test(e.getKey(), e.getValue().value)) {
+                iterator.remove();
+                forget(e.getKey(), e.getValue());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Removes all entries. Values that are being loaded at the same time are not stored.
+     */
+    public void invalidateAll() {
+        loading.clear();
+        entries.clear();
+        accessOrder.clear();
+    }
+
+    /**
+     * @return Number of cached entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Snapshot of the usage statistics of this cache
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(name, entries.size(), hits.sum(), staleHits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), refreshes.sum(),
+                evictions.sum(), totalLoadTime.sum());
+    }
+
+    /**
+     * Loads the value for the given key and stores it, unless <code>future</code> has been removed from {@link #loading} by an invalidation in
+     * the meantime.
+     *
+     * @param key
+     * @param loader
+     * @param future Future registered in {@link #loading} for this load
+     * @return Loaded value
+     */
+    private V load(K key, Function<? super K, ? extends V> loader, CompletableFuture<V> future) {
+        long start = System.nanoTime();
+        try {
+            V value = loader.apply(key);
+            loads.increment();
+            // Storing and deregistering the load is atomic with respect to invalidate(), which removes the future first
+            loading.computeIfPresent(key, (k, f) -> {
+                if (f != future) {
+                    return f;
+                }
+                if (value != null) {
+                    store(key, value);
+                } else {
+                    CacheEntry<V> old = entries.remove(key);
+                    if (old != null) {
+                        forget(key, old);
+                    }
+                }
+                return null;
+            });
+            evictIfNecessary();
+            return value;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            totalLoadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reloads the given entry in the background unless it is already being reloaded.
+     *
+     * @param key
+     * @param entry
+     * @param loader
+     */
+    private void refreshAhead(K key, CacheEntry<V> entry, Function<? super K, ? extends V> loader) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (loading.putIfAbsent(key, future) != null) {
+            // A regular load is already running
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    future.complete(load(key, loader, future));
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    logger.warn("Background refresh of '{}' in cache '{}' failed: {}", key, name, e.getMessage());
+                    future.completeExceptionally(e);
+                    // Allow another attempt
+                    entry.refreshing.set(false);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Background refresh of '{}' in cache '{}' rejected: {}", key, name, e.getMessage());
+            loading.remove(key, future);
+            future.cancel(false);
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * @return true if background reloading is configured; false otherwise
+     */
+    private boolean isRefreshAheadEnabled() {
+        return refreshExecutor != null && refreshAheadRatio > 0 && refreshAheadRatio < 1;
+    }
+
+    /**
+     * Stores a new entry for the given value and registers it in the access order.
+     *
+     * @param key
+     * @param value
+     */
+    private void store(K key, V value) {
+        CacheEntry<V> entry = new CacheEntry<>(value, accessCounter.incrementAndGet());
+        CacheEntry<V> old = entries.put(key, entry);
+        if (old != null) {
+            forget(key, old);
+        }
+        // Register after the entry is visible, so that eviction cannot discard the record as outdated
+        if (maxSize > 0) {
+            accessOrder.put(entry.accessStamp.get(), key);
+        }
+    }
+
+    /**
+     * Moves the given entry to the most recently used end of the access order.
+     *
+     * @param key
+     * @param entry
+     */
+    private void touch(K key, CacheEntry<V> entry) {
+        if (maxSize <= 0) {
+            return;
+        }
+        long oldStamp = entry.accessStamp.get();
+        long newStamp = accessCounter.incrementAndGet();
+        // Concurrent accesses of the same entry only need to be recorded once
+        if (entry.accessStamp.compareAndSet(oldStamp, newStamp)) {
+            accessOrder.put(newStamp, key);
+            accessOrder.remove(oldStamp, key);
+        }
+    }
+
+    /**
+     * Removes the given (already removed) entry from the access order.
+     *
+     * @param key
+     * @param entry
+     */
+    private void forget(K key, CacheEntry<V> entry) {
+        if (maxSize > 0) {
+            accessOrder.remove(entry.accessStamp.get(), key);
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache no longer exceeds its maximum size. Each eviction takes logarithmic time.
+     */
+    private void evictIfNecessary() {
+        while (maxSize > 0 && entries.size() > maxSize) {
+            Entry<Long, K> eldest = accessOrder.pollFirstEntry();
+            if (eldest == null) {
+                return;
+            }
+            CacheEntry<V> entry = entries.get(eldest.getValue());
+            // Skip order records left behind by races with concurrent accesses or removals
+            if (entry != null && entry.accessStamp.get() == eldest.getKey() && entries.remove(eldest.getValue(), entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     *
+     * @param future
+     * @return Result of the given future
+     */
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+}
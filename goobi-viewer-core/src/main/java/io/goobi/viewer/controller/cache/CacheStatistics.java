@@ -0,0 +1,163 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.cache;
+
+import java.io.Serializable;
+
+/**
+ * Immutable snapshot of the usage statistics of an {@link ApplicationCache}.
+ */
+public class CacheStatistics implements Serializable {
+
+    private static final long serialVersionUID = 4308447419744327625L;
+
+    private final String name;
+    private final int size;
+    private final long hitCount;
+    private final long staleHitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long loadFailureCount;
+    private final long refreshCount;
+    private final long evictionCount;
+    private final long totalLoadTime;
+
+    /**
+     *
+     * @param name
+     * @param size
+     * @param hitCount
+     * @param staleHitCount
+     * @param missCount
+     * @param loadCount
+     * @param loadFailureCount
+     * @param refreshCount
+     * @param evictionCount
+     * @param totalLoadTime Total load time in nanoseconds
+     */
+    public CacheStatistics(String name, int size, long hitCount, long staleHitCount, long missCount, long loadCount, long loadFailureCount,
+            long refreshCount, long evictionCount, long totalLoadTime) {
+        this.name = name;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.staleHitCount = staleHitCount;
+        this.missCount = missCount;
+        this.loadCount = loadCount;
+        this.loadFailureCount = loadFailureCount;
+        this.refreshCount = refreshCount;
+        this.evictionCount = evictionCount;
+        this.totalLoadTime = totalLoadTime;
+    }
+
+    /**
+     * @return Share of requests served from the cache (including stale values); 0 if there were no requests
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) (hitCount + staleHitCount) / requests;
+    }
+
+    /**
+     * @return Average load time in milliseconds; 0 if nothing has been loaded
+     */
+    public double getAverageLoadTime() {
+        long count = loadCount + loadFailureCount;
+        return count == 0 ? 0 : totalLoadTime / 1_000_000.0 / count;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the hitCount
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the staleHitCount
+     */
+    public long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    /**
+     * @return the missCount
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the loadCount
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return the loadFailureCount
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * @return the refreshCount
+     */
+    public long getRefreshCount() {
+        return refreshCount;
+    }
+
+    /**
+     * @return the evictionCount
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the totalLoadTime in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d, hits=%d (stale %d), misses=%d, loads=%d, failures=%d, refreshes=%d, evictions=%d, avgLoad=%.1fms", name,
+                size, hitCount, staleHitCount, missCount, loadCount, loadFailureCount, refreshCount, evictionCount, getAverageLoadTime());
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.imaging;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.controller.ThreadPoolManager;
+
+/**
+ * Keeps precomputed JPEG thumbnails of record images on disk, so that the thumbnails of search result lists, collection views and CMS record
+ * lists can be served without decoding the master image. The derivatives of a record are kept in one folder below a two-level hashed directory
+ * tree: <code>&lt;root&gt;/ab/cd/&lt;sha256(pi)&gt;/&lt;file name&gt;_&lt;size&gt;.jpg</code>.
+ * <p>
+ * Derivatives are written for a fixed set of IIIF size parameters (e.g. <code>!100,120</code>). They are created in the background, either after
+ * the first request for an image or for all images of a record when the indexer reports an updated record. A derivative is only used while it
+ * is at least as new as its master image. Sizes that would enlarge a master image are recorded with an empty marker file
+ * (<code>&lt;file name&gt;_&lt;size&gt;.none</code>), so that such requests are passed on without creating the derivatives again.
+ * </p>
+ */
+public class ThumbnailStore {
+
+    private static final Logger logger = LogManager.getLogger(ThumbnailStore.class);
+
+    /** File extension of stored derivatives. */
+    private static final String EXTENSION = ".jpg";
+    /** File extension of markers for sizes that are not stored for an image. */
+    private static final String MARKER_EXTENSION = ".none";
+    /** IIIF size parameters that can be stored: <code>w,</code>, <code>,h</code> and <code>!w,h</code>. */
+    private static final Pattern SIZE_PATTERN = Pattern.compile("(!)?(\\d*),(\\d*)");
+    /** Maximum number of remembered master images that could not be processed. */
+    private static final int MAX_FAILED_ENTRIES = 10000;
+
+    private final Path root;
+    private final List<String> sizes;
+    private final float quality;
+    private final ThreadPoolManager threadPoolManager;
+    /** Keys of images for which derivatives are being created. */
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    /** Modification times of master images that could not be processed, so that they are not decoded again on every request. */
+    private final Map<String, FileTime> failed = new ConcurrentHashMap<>();
+    private final LongAdder generatedCount = new LongAdder();
+
+    /**
+     * 
+     * @param root Root folder of the store
+     * @param sizes IIIF size parameters for which derivatives are created
+     * @param quality JPEG quality (0-100)
+     * @param threadPoolManager Thread pools for background generation
+     */
+    public ThumbnailStore(Path root, List<String> sizes, int quality, ThreadPoolManager threadPoolManager) {
+        if (root == null) {
+            throw new IllegalArgumentException("root may not be null");
+        }
+        this.root = root;
+        this.sizes = sizes != null ? Collections.unmodifiableList(new ArrayList<>(sizes)) : Collections.emptyList();
+        this.quality = Math.max(0, Math.min(100, quality)) / 100f;
+        this.threadPoolManager = threadPoolManager;
+    }
+
+    /**
+     * @param size IIIF size parameter
+     * @return true if derivatives are stored for the given size; false otherwise
+     */
+    public boolean isStoredSize(String size) {
+        return size != null && sizes.contains(size);
+    }
+
+    /**
+     * Checks whether derivatives can be stored for the given image file name. Only plain file names of formats that can be decoded here are
+     * accepted.
+     *
+     * @param fileName Image file name
+     * @return true if derivatives can be stored; false otherwise
+     * @should return false for external urls
+     * @should return false for unsupported formats
+     * @should return true for tiff and jpeg files
+     */
+    public static boolean isStorableFileName(String fileName) {
+        if (StringUtils.isBlank(fileName) || fileName.startsWith(".")) {
+            return false;
+        }
+        try {
+            if (!fileName.equals(Paths.get(fileName).getFileName().toString())) {
+                return false;
+            }
+        } catch (InvalidPathException e) {
+            return false;
+        }
+        String extension = FilenameUtils.getExtension(fileName).toLowerCase();
+        return StringUtils.isNotEmpty(extension) && ImageIO.getImageReadersBySuffix(extension).hasNext();
+    }
+
+    /**
+     * @param pi Record identifier
+     * @return Folder containing all derivatives of the given record
+     */
+    public Path getRecordFolder(String pi) {
+        String hash = StringTools.generateHash(pi);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    /**
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param size IIIF size parameter
+     * @return Location of the derivative of the given image in the given size
+     */
+    public Path getDerivativePath(String pi, String fileName, String size) {
+        return getRecordFolder(pi).resolve(getDerivativeBaseName(fileName, size) + EXTENSION);
+    }
+
+    /**
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param size IIIF size parameter
+     * @return Location of the marker recording that the given size is not stored for the given image
+     */
+    Path getMarkerPath(String pi, String fileName, String size) {
+        return getRecordFolder(pi).resolve(getDerivativeBaseName(fileName, size) + MARKER_EXTENSION);
+    }
+
+    /**
+     * Returns the stored derivative of the given image in the given size, if it exists and is not older than the master image.
+     *
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param size IIIF size parameter
+     * @param master Master image file
+     * @return Derivative file; empty if there is none or it is outdated
+     * @should return derivative if up to date
+     * @should return empty if master is newer
+     * @should return empty for sizes that are not stored
+     * @should serve stored thumbnail in same size as scaling on the fly
+     */
+    public Optional<Path> find(String pi, String fileName, String size, Path master) {
+        if (!isStoredSize(size) || !isStorableFileName(fileName)) {
+            return Optional.empty();
+        }
+        Path derivative = getDerivativePath(pi, fileName, size);
+        try {
+            if (Files.getLastModifiedTime(derivative).compareTo(Files.getLastModifiedTime(master)) >= 0) {
+                return Optional.of(derivative);
+            }
+        } catch (NoSuchFileException e) {
+            // Not (yet) stored
+        } catch (IOException e) {
+            logger.warn("Cannot check thumbnail {}: {}", derivative, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether the given size has been found not to apply to the given image, because it would enlarge the image. Such requests are to be
+     * answered without the store and without scheduling generation.
+     *
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param size IIIF size parameter
+     * @param master Master image file
+     * @return true if the size is not stored for the current version of the master image; false otherwise
+     * @should return true for sizes larger than master after generation
+     * @should return false if master has changed since
+     */
+    public boolean isNotApplicable(String pi, String fileName, String size, Path master) {
+        if (!isStoredSize(size) || !isStorableFileName(fileName)) {
+            return false;
+        }
+        Path marker = getMarkerPath(pi, fileName, size);
+        try {
+            return Files.getLastModifiedTime(marker).compareTo(Files.getLastModifiedTime(master)) >= 0;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            logger.warn("Cannot check thumbnail marker {}: {}", marker, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the derivatives of the given image in the background, unless this is already in progress or the image could not be processed
+     * before.
+     *
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param master Master image file
+     * @return true if generation has been scheduled; false otherwise
+     * @should create derivatives in background
+     * @should not schedule images that could not be processed before
+     */
+    public boolean scheduleGeneration(String pi, String fileName, Path master) {
+        if (!isStorableFileName(fileName) || hasFailed(pi, fileName, master)) {
+            return false;
+        }
+        String key = getKey(pi, fileName);
+        if (!pending.add(key)) {
+            return false;
+        }
+        try {
+            threadPoolManager.executeInBackground(ThreadPoolManager.POOL_CPU, () -> {
+                try {
+                    generateQuietly(pi, fileName, master);
+                } finally {
+                    pending.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            logger.debug("Thumbnail generation for {} not scheduled: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the missing or outdated derivatives of all images in the given media folder of a record in a single background task.
+     *
+     * @param pi Record identifier
+     * @param mediaFolder Media folder of the record
+     * @return true if generation has been scheduled; false otherwise
+     */
+    public boolean schedulePrecomputation(String pi, Path mediaFolder) {
+        try {
+            threadPoolManager.executeInBackground(ThreadPoolManager.POOL_CPU, () -> precompute(pi, mediaFolder));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug("Thumbnail precomputation for {} not scheduled: {}", pi, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the missing or outdated derivatives of all images in the given media folder of a record.
+     *
+     * @param pi Record identifier
+     * @param mediaFolder Media folder of the record
+     * @return Number of derivatives written
+     * @should create derivatives for all images in folder
+     * @should skip up to date images
+     * @should skip images smaller than stored sizes
+     */
+    public int precompute(String pi, Path mediaFolder) {
+        if (!Files.isDirectory(mediaFolder)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(mediaFolder)) {
+            files = stream.filter(p -> isStorableFileName(p.getFileName().toString())).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.warn("Cannot list media folder of {}: {}", pi, e.getMessage());
+            return 0;
+        }
+        int count = 0;
+        for (Path master : files) {
+            String fileName = master.getFileName().toString();
+            boolean upToDate =
+                    sizes.stream().allMatch(size -> find(pi, fileName, size, master).isPresent() || isNotApplicable(pi, fileName, size, master));
+            if (!upToDate && !hasFailed(pi, fileName, master) && pending.add(getKey(pi, fileName))) {
+                try {
+                    count += generateQuietly(pi, fileName, master);
+                } finally {
+                    pending.remove(getKey(pi, fileName));
+                }
+            }
+        }
+        logger.debug("{} thumbnails written for {}", count, pi);
+        return count;
+    }
+
+    /**
+     * Decodes the given master image once and writes its derivatives for all configured sizes. Sizes that would enlarge the image are skipped
+     * and recorded with a marker file.
+     *
+     * @param pi Record identifier
+     * @param fileName Image file name
+     * @param master Master image file
+     * @return Number of derivatives written
+     * @throws IOException if the image cannot be read or a derivative cannot be written
+     * @should write derivatives for all sizes
+     * @should read tiff images
+     * @should skip sizes larger than master
+     */
+    public int generate(String pi, String fileName, Path master) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(master.toFile())) {
+            if (iis == null) {
+                throw new IOException("Cannot open " + master);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new IOException("No image reader for " + master);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Largest derivative first, so that each one can be scaled from the previous one
+                List<Entry<String, Dimension>> targets = new ArrayList<>();
+                for (String size : sizes) {
+                    Dimension target = getTargetSize(size, width, height);
+                    Path marker = getMarkerPath(pi, fileName, size);
+                    if (target != null) {
+                        targets.add(new SimpleEntry<>(size, target));
+                        Files.deleteIfExists(marker);
+                    } else {
+                        writeMarker(marker, master);
+                    }
+                }
+                if (targets.isEmpty()) {
+                    return 0;
+                }
+                targets.sort(Comparator.comparingInt((Entry<String, Dimension> e) -> e.getValue().width).reversed());
+
+                // Only decode as many pixels as are needed for good downscaling
+                int maxTargetWidth = targets.get(0).getValue().width;
+                int subsampling = Math.max(1, width / (maxTargetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+
+                for (Entry<String, Dimension> entry : targets) {
+                    image = scale(image, entry.getValue().width, entry.getValue().height);
+                    write(image, getDerivativePath(pi, fileName, entry.getKey()));
+                    generatedCount.increment();
+                }
+                return targets.size();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Deletes all derivatives of the given record.
+     *
+     * @param pi Record identifier
+     * @return Number of deleted derivatives
+     * @should delete all derivatives of record
+     */
+    public int invalidate(String pi) {
+        String prefix = pi + "/";
+        failed.keySet().removeIf(key -> key.startsWith(prefix));
+        Path folder = getRecordFolder(pi);
+        if (!Files.isDirectory(folder)) {
+            return 0;
+        }
+        int count;
+        try (Stream<Path> stream = Files.list(folder)) {
+            count = (int) stream.filter(p -> p.getFileName().toString().endsWith(EXTENSION)).count();
+        } catch (IOException e) {
+            count = 0;
+        }
+        if (!FileUtils.deleteQuietly(folder.toFile())) {
+            logger.warn("Cannot delete thumbnails of {}", pi);
+        }
+        return count;
+    }
+
+    /**
+     * Deletes all derivatives.
+     */
+    public void clear() {
+        failed.clear();
+        if (Files.isDirectory(root)) {
+            try {
+                FileUtils.cleanDirectory(root.toFile());
+            } catch (IOException e) {
+                logger.warn("Cannot clear thumbnail store {}: {}", root, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns a strong entity tag for the given derivative. It changes whenever the derivative is written again.
+     *
+     * @param derivative Derivative file
+     * @return Entity tag value (without quotes)
+     * @throws IOException
+     */
+    public static String getEntityTag(Path derivative) throws IOException {
+        return StringTools
+                .generateHash(derivative.toString() + "_" + Files.size(derivative) + "_" + Files.getLastModifiedTime(derivative).toMillis());
+    }
+
+    /**
+     * Computes the pixel size of an image of the given size for the given IIIF size parameter.
+     *
+     * @param size IIIF size parameter
+     * @param width Width of the master image
+     * @param height Height of the master image
+     * @return Target size; null if the size parameter is not supported or would enlarge the image
+     * @should fit image into box
+     * @should scale to width
+     * @should scale to height
+     * @should return null if image would be enlarged
+     * @should return null for unsupported sizes
+     */
+    static Dimension getTargetSize(String size, int width, int height) {
+        Matcher m = SIZE_PATTERN.matcher(size);
+        if (!m.matches() || width <= 0 || height <= 0) {
+            return null;
+        }
+        boolean box = m.group(1) != null;
+        int w = StringUtils.isNotEmpty(m.group(2)) ? Integer.parseInt(m.group(2)) : 0;
+        int h = StringUtils.isNotEmpty(m.group(3)) ? Integer.parseInt(m.group(3)) : 0;
+        double scale;
+        if (box) {
+            if (w <= 0 || h <= 0) {
+                return null;
+            }
+            scale = Math.min((double) w / width, (double) h / height);
+        } else if (w > 0 && h <= 0) {
+            scale = (double) w / width;
+        } else if (h > 0 && w <= 0) {
+            scale = (double) h / height;
+        } else {
+            // Distorting sizes are not stored
+            return null;
+        }
+        if (scale >= 1) {
+            return null;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        if (box) {
+            targetWidth = Math.min(targetWidth, w);
+            targetHeight = Math.min(targetHeight, h);
+        }
+        return new Dimension(targetWidth, targetHeight);
+    }
+
+    /**
+     * Scales the given image to the given size in steps of at most one half, which keeps thin lines and text legible without an expensive
+     * filter.
+     *
+     * @param source
+     * @param width
+     * @param height
+     * @return Scaled RGB image
+     */
+    static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            if (currentWidth > width * 2 && currentHeight > height * 2) {
+                currentWidth /= 2;
+                currentHeight /= 2;
+            } else {
+                currentWidth = width;
+                currentHeight = height;
+            }
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // JPEG has no transparency
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, currentWidth, currentHeight);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width || currentHeight != height);
+
+        return current;
+    }
+
+    /**
+     * Writes the given image as JPEG. The file is written under a temporary name first, so that readers never see a partial file.
+     *
+     * @param image
+     * @param target
+     * @throws IOException
+     */
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(ios);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes an empty marker file with the modification time of the given master image, so that it is valid as long as the master is unchanged.
+     *
+     * @param marker
+     * @param master
+     * @throws IOException
+     */
+    private static void writeMarker(Path marker, Path master) throws IOException {
+        Files.createDirectories(marker.getParent());
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+        Files.setLastModifiedTime(marker, Files.getLastModifiedTime(master));
+    }
+
+    /**
+     * Calls {@link #generate(String, String, Path)} and remembers images that cannot be processed.
+     *
+     * @param pi
+     * @param fileName
+     * @param master
+     * @return Number of derivatives written
+     */
+    private int generateQuietly(String pi, String fileName, Path master) {
+        try {
+            return generate(pi, fileName, master);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot create thumbnails for {}/{}: {}", pi, fileName, e.getMessage());
+            if (failed.size() >= MAX_FAILED_ENTRIES) {
+                failed.clear();
+            }
+            try {
+                failed.put(getKey(pi, fileName), Files.getLastModifiedTime(master));
+            } catch (IOException e1) {
+                logger.trace(e1.getMessage());
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * @param pi
+     * @param fileName
+     * @param master
+     * @return true if the given master image could not be processed before and has not changed since
+     */
+    private boolean hasFailed(String pi, String fileName, Path master) {
+        FileTime failedTime = failed.get(getKey(pi, fileName));
+        if (failedTime == null) {
+            return false;
+        }
+        try {
+            return failedTime.equals(Files.getLastModifiedTime(master));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @param fileName
+     * @param size
+     * @return File name of the derivative of the given image in the given size, without extension
+     */
+    private static String getDerivativeBaseName(String fileName, String size) {
+        return fileName + "_" + size.replace("!", "b").replace(",", "x").replaceAll("[^0-9a-z]", "_");
+    }
+
+    private static String getKey(String pi, String fileName) {
+        return pi + "/" + fileName;
+    }
+
+    /**
+     * @return Number of derivatives written since startup
+     */
+    public long getGeneratedCount() {
+        return generatedCount.sum();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.goobi.viewer.controller.telemetry.QueryTelemetry.Backend;
+
+/**
+ * Accumulated timings of the Solr queries or database calls issued by a single call site.
+ */
+public class CallSiteStatistics {
+
+    private final Backend backend;
+    private final String callSite;
+    private final String operation;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder qTimeMillis = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+
+    /**
+     *
+     * @param backend
+     * @param callSite Calling class and method, e.g. TocMaker.generateToc
+     * @param operation Called index or DAO method
+     */
+    CallSiteStatistics(Backend backend, String callSite, String operation) {
+        this.backend = backend;
+        this.callSite = callSite;
+        this.operation = operation;
+    }
+
+    void record(long nanos, int qTime, long rowCount, boolean error, boolean slowQuery) {
+        histogram.record(nanos);
+        if (qTime > 0) {
+            qTimeMillis.add(qTime);
+        }
+        rows.add(Math.max(rowCount, 0));
+        if (error) {
+            errors.increment();
+        }
+        if (slowQuery) {
+            slow.increment();
+        }
+    }
+
+    public String getBackend() {
+        return backend.getLabel();
+    }
+
+    public String getCallSite() {
+        return callSite;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getSlow() {
+        return slow.sum();
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * @return Sum of wall times in milliseconds
+     */
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(histogram.getSumNanos());
+    }
+
+    /**
+     * @return Mean wall time in milliseconds
+     */
+    public double getMeanMillis() {
+        long count = histogram.getCount();
+        return count > 0 ? histogram.getSumNanos() / 1_000_000d / count : 0;
+    }
+
+    public long getMaxMillis() {
+        return histogram.getMaxMillis();
+    }
+
+    /**
+     * @return Estimated 95th percentile of wall times in milliseconds
+     */
+    public long getP95Millis() {
+        return histogram.getPercentileMillis(95);
+    }
+
+    /**
+     * @return Sum of the query times reported by Solr in milliseconds; the difference to {@link #getTotalMillis()} is spent on network and
+     *         response parsing
+     */
+    public long getSolrQTimeMillis() {
+        return qTimeMillis.sum();
+    }
+
+    /**
+     * @return Number of calls per upper bucket boundary in milliseconds (cumulative)
+     */
+    public Map<String, Long> getBuckets() {
+        long[] counts = histogram.getCumulativeCounts();
+        Map<String, Long> ret = new LinkedHashMap<>(counts.length);
+        for (int i = 0; i < LatencyHistogram.BUCKET_BOUNDS_MILLIS.length; ++i) {
+            ret.put(String.valueOf(LatencyHistogram.BUCKET_BOUNDS_MILLIS[i]), counts[i]);
+        }
+        ret.put("+Inf", counts[counts.length - 1]);
+        return ret;
+    }
+
+    LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
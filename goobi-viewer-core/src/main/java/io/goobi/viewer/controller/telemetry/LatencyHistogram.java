@@ -0,0 +1,121 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed bucket boundaries.
+ */
+public class LatencyHistogram {
+
+    /** Upper bucket boundaries in milliseconds; a last bucket collects all larger values */
+    static final long[] BUCKET_BOUNDS_MILLIS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; ++i) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets[getBucketIndex(value)].increment();
+        count.increment();
+        sumNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     *
+     * @param nanos
+     * @return Index of the bucket for the given duration
+     * @should return correct index
+     */
+    static int getBucketIndex(long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; ++i) {
+            if (nanos <= TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[i])) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    /**
+     *
+     * @return Number of values up to each bucket boundary, the last element being the total count
+     */
+    public long[] getCumulativeCounts() {
+        long[] ret = new long[buckets.length];
+        long sum = 0;
+        for (int i = 0; i < buckets.length; ++i) {
+            sum += buckets[i].sum();
+            ret[i] = sum;
+        }
+        return ret;
+    }
+
+    /**
+     * Returns an estimate of the given percentile as the upper boundary of the bucket containing it.
+     *
+     * @param percentile Value between 0 and 100
+     * @return Upper bucket boundary in milliseconds; maximum value for the last bucket; 0 if empty
+     * @should return upper bound of bucket containing percentile
+     */
+    public long getPercentileMillis(double percentile) {
+        long[] cumulative = getCumulativeCounts();
+        long total = cumulative[cumulative.length - 1];
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; ++i) {
+            if (cumulative[i] >= rank) {
+                return BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.dao.IDAO;
+
+/**
+ * Collects latency histograms of Solr queries and database calls, grouped by the viewer class and method that issued them, and keeps a
+ * ring buffer of the most recent queries exceeding a threshold. The call site is determined from the stack, so callers need no changes.
+ * Database calls, which are frequent and often fast, are grouped by DAO method only; their call site is determined for slow calls only.
+ * Statistics are exposed by the monitoring API in JSON and Prometheus text format.
+ */
+public class QueryTelemetry {
+
+    private static final Logger logger = LogManager.getLogger(QueryTelemetry.class);
+
+    /** Maximum length of query strings in the slow query log */
+    static final int MAX_QUERY_LENGTH = 1000;
+    /** Call site of statistics that are not grouped by call site */
+    static final String ANY_CALL_SITE = "*";
+
+    /** Stack frames of these classes are skipped when determining the call site */
+    private static final String[] INTERNAL_CLASS_PREFIXES = { QueryTelemetry.class.getPackageName() + ".", "io.goobi.viewer.solr.SolrSearchIndex",
+            "io.goobi.viewer.solr.SolrTools", "io.goobi.viewer.dao.", "jdk.proxy", "com.sun.proxy", "java.lang.reflect.", "jdk.internal.reflect." };
+
+    /** Stack walker without class references is sufficient for class and method names */
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    public enum Backend {
+        SOLR("solr"),
+        DAO("dao");
+
+        private final String label;
+
+        private Backend(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final boolean enabled;
+    private final long slowQueryThresholdNanos;
+    private final Map<String, CallSiteStatistics> statistics = new ConcurrentHashMap<>();
+    private final SlowQuery[] slowQueries;
+    private int slowQueriesNext = 0;
+    private int slowQueriesCount = 0;
+
+    /**
+     *
+     * @param enabled If false, nothing is recorded
+     * @param slowQueryThreshold Calls taking longer than this many milliseconds are added to the slow query log
+     * @param slowQueryLogSize Number of slow queries to keep
+     */
+    public QueryTelemetry(boolean enabled, long slowQueryThreshold, int slowQueryLogSize) {
+        this.enabled = enabled;
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryThreshold);
+        this.slowQueries = new SlowQuery[Math.max(slowQueryLogSize, 1)];
+    }
+
+    /**
+     * @return true if calls are recorded; false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a finished call. The call site is the first stack frame outside of the index and DAO classes.
+     *
+     * @param backend
+     * @param operation Called method; if null, the outermost {@link io.goobi.viewer.solr.SolrSearchIndex} method on the stack
+     * @param startNanos Value of {@link System#nanoTime()} before the call
+     * @param qTime Query time reported by Solr in milliseconds; -1 if not available
+     * @param rows Number of returned rows
+     * @param error true if the call failed
+     * @param query Supplies a description of the query for the slow query log
+     */
+    public void record(Backend backend, String operation, long startNanos, int qTime, long rows, boolean error, Supplier<String> query) {
+        record(backend, operation, true, startNanos, qTime, rows, error, query);
+    }
+
+    /**
+     *
+     * @param backend
+     * @param operation Called method; if null, the outermost {@link io.goobi.viewer.solr.SolrSearchIndex} method on the stack
+     * @param groupByCallSite If false, statistics are grouped by operation only and the stack is only inspected for slow calls
+     * @param startNanos Value of {@link System#nanoTime()} before the call
+     * @param qTime Query time reported by Solr in milliseconds; -1 if not available
+     * @param rows Number of returned rows
+     * @param error true if the call failed
+     * @param query Supplies a description of the query for the slow query log
+     */
+    private void record(Backend backend, String operation, boolean groupByCallSite, long startNanos, int qTime, long rows, boolean error,
+            Supplier<String> query) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        boolean slow = nanos > slowQueryThresholdNanos;
+        String[] callSite = groupByCallSite || slow || operation == null ? findCallSite() : null;
+        String site = groupByCallSite ? callSite[0] : ANY_CALL_SITE;
+        String op = operation != null ? operation : callSite[1];
+        statistics.computeIfAbsent(backend.getLabel() + '|' + site + '|' + op, k -> new CallSiteStatistics(backend, site, op))
+                .record(nanos, qTime, rows, error, slow);
+        if (slow) {
+            String q = query != null ? StringUtils.abbreviate(query.get(), MAX_QUERY_LENGTH) : null;
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            logger.warn("Slow {} call ({} ms, QTime {} ms, {} rows) from {} via {}: {}", backend.getLabel(), millis, qTime, rows, callSite[0], op,
+                    q);
+            addSlowQuery(new SlowQuery(System.currentTimeMillis(), backend.getLabel(), callSite[0], op, millis, qTime, rows, q));
+        }
+    }
+
+    /**
+     *
+     * @return Array containing the calling class and method as well as the outermost internal method
+     */
+    static String[] findCallSite() {
+        String[] ret = { "unknown", "unknown" };
+        STACK_WALKER.walk(frames -> {
+            frames.filter(frame -> {
+                if (isInternal(frame.getClassName())) {
+                    if (frame.getClassName().startsWith("io.goobi.viewer.solr.") || frame.getClassName().startsWith("io.goobi.viewer.dao.")) {
+                        ret[1] = frame.getMethodName();
+                    }
+                    return false;
+                }
+                return true;
+            }).findFirst().ifPresent(frame -> ret[0] = getSimpleClassName(frame.getClassName()) + '.' + frame.getMethodName());
+            return null;
+        });
+        return ret;
+    }
+
+    private static boolean isInternal(String className) {
+        for (String prefix : INTERNAL_CLASS_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param className
+     * @return Class name without package
+     */
+    static String getSimpleClassName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private synchronized void addSlowQuery(SlowQuery slowQuery) {
+        slowQueries[slowQueriesNext] = slowQuery;
+        slowQueriesNext = (slowQueriesNext + 1) % slowQueries.length;
+        if (slowQueriesCount < slowQueries.length) {
+            slowQueriesCount++;
+        }
+    }
+
+    /**
+     *
+     * @return Slow query log, most recent entry first
+     */
+    public synchronized List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> ret = new ArrayList<>(slowQueriesCount);
+        for (int i = 1; i <= slowQueriesCount; ++i) {
+            ret.add(slowQueries[Math.floorMod(slowQueriesNext - i, slowQueries.length)]);
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @return Statistics of all call sites, sorted by descending total time
+     */
+    public List<CallSiteStatistics> getStatistics() {
+        List<CallSiteStatistics> ret = new ArrayList<>(statistics.values());
+        ret.sort(Comparator.comparingLong(CallSiteStatistics::getTotalMillis).reversed());
+        return ret;
+    }
+
+    /**
+     * @return Slow query threshold in milliseconds
+     */
+    public long getSlowQueryThreshold() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    /**
+     * Returns a proxy of the given DAO recording the duration of each call. Calls are grouped by DAO method; the caller is only determined
+     * for slow calls.
+     *
+     * @param dao
+     * @return Instrumented {@link IDAO}
+     * @should record dao calls by operation
+     * @should log caller and redacted arguments of slow dao calls
+     */
+    public IDAO instrument(IDAO dao) {
+        return (IDAO) Proxy.newProxyInstance(IDAO.class.getClassLoader(), new Class<?>[] { IDAO.class }, new DAOInvocationHandler(dao));
+    }
+
+    /**
+     * Writes all statistics in the Prometheus text exposition format.
+     *
+     * @return Metrics as text
+     * @should write histogram and counters for each call site
+     */
+    public String toPrometheusText() {
+        List<CallSiteStatistics> stats = getStatistics();
+        StringBuilder sb = new StringBuilder();
+        sb.append("# HELP viewer_query_duration_seconds Wall time of Solr queries and database calls by call site\n")
+                .append("# TYPE viewer_query_duration_seconds histogram\n");
+        for (CallSiteStatistics stat : stats) {
+            String labels = getLabels(stat);
+            long[] counts = stat.getHistogram().getCumulativeCounts();
+            for (int i = 0; i < counts.length; ++i) {
+                String le = i < LatencyHistogram.BUCKET_BOUNDS_MILLIS.length ? formatSeconds(LatencyHistogram.BUCKET_BOUNDS_MILLIS[i]) : "+Inf";
+                sb.append("viewer_query_duration_seconds_bucket{")
+                        .append(labels)
+                        .append(",le=\"")
+                        .append(le)
+                        .append("\"} ")
+                        .append(counts[i])
+                        .append('\n');
+            }
+            sb.append("viewer_query_duration_seconds_sum{")
+                    .append(labels)
+                    .append("} ")
+                    .append(stat.getHistogram().getSumNanos() / 1_000_000_000d)
+                    .append('\n');
+            sb.append("viewer_query_duration_seconds_count{").append(labels).append("} ").append(counts[counts.length - 1]).append('\n');
+        }
+        appendCounter(sb, stats, "viewer_query_solr_qtime_seconds_total", "Query time reported by Solr",
+                stat -> String.valueOf(stat.getSolrQTimeMillis() / 1000d));
+        appendCounter(sb, stats, "viewer_query_rows_total", "Returned rows", stat -> String.valueOf(stat.getRows()));
+        appendCounter(sb, stats, "viewer_query_errors_total", "Failed calls", stat -> String.valueOf(stat.getErrors()));
+        appendCounter(sb, stats, "viewer_query_slow_total", "Calls exceeding the slow query threshold", stat -> String.valueOf(stat.getSlow()));
+
+        return sb.toString();
+    }
+
+    private static void appendCounter(StringBuilder sb, List<CallSiteStatistics> stats, String name, String help,
+            Function<CallSiteStatistics, String> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n').append("# TYPE ").append(name).append(" counter\n");
+        for (CallSiteStatistics stat : stats) {
+            sb.append(name).append('{').append(getLabels(stat)).append("} ").append(value.apply(stat)).append('\n');
+        }
+    }
+
+    private static String getLabels(CallSiteStatistics stat) {
+        return "backend=\"" + stat.getBackend() + "\",call_site=\"" + escapeLabelValue(stat.getCallSite()) + "\",operation=\""
+                + escapeLabelValue(stat.getOperation()) + "\"";
+    }
+
+    private static String formatSeconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000d);
+    }
+
+    /**
+     *
+     * @param value
+     * @return value with backslashes, quotes and line breaks escaped
+     */
+    static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Times each DAO method call.
+     */
+    private class DAOInvocationHandler implements InvocationHandler {
+
+        private final IDAO dao;
+
+        DAOInvocationHandler(IDAO dao) {
+            this.dao = dao;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                if ("equals".equals(method.getName())) {
+                    return proxy == args[0];
+                }
+                return method.invoke(dao, args);
+            }
+            long start = System.nanoTime();
+            boolean error = false;
+            Object ret = null;
+            try {
+                ret = method.invoke(dao, args);
+                return ret;
+            } catch (InvocationTargetException e) {
+                error = true;
+                throw e.getCause();
+            } finally {
+                long rows = ret instanceof Collection<?> collection ? collection.size() : (ret != null ? 1 : 0);
+                record(Backend.DAO, method.getName(), false, start, -1, rows, error, () -> method.getName() + getArgumentsDescription(args));
+            }
+        }
+    }
+
+    /**
+     * Describes the arguments of a DAO call without revealing their contents. Strings may contain e-mail addresses, password hashes or other
+     * personal data and are only described by their length.
+     *
+     * @param args
+     * @return Short description of the arguments of a DAO call
+     * @should describe simple values and types of other arguments
+     * @should not reveal strings
+     */
+    static String getArgumentsDescription(Object[] args) {
+        if (args == null || args.length == 0) {
+            return "()";
+        }
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < args.length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object arg = args[i];
+            if (arg instanceof String str) {
+                sb.append("String[").append(str.length()).append(']');
+            } else if (arg == null || arg instanceof Number || arg instanceof Boolean || arg instanceof Enum) {
+                sb.append(arg);
+            } else {
+                // Entity contents are not logged
+                sb.append(arg.getClass().getSimpleName());
+            }
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+/**
+ * Entry of the slow query log.
+ */
+public class SlowQuery {
+
+    private final long timestamp;
+    private final String backend;
+    private final String callSite;
+    private final String operation;
+    private final long durationMillis;
+    private final int qTimeMillis;
+    private final long rows;
+    private final String query;
+
+    /**
+     *
+     * @param timestamp
+     * @param backend
+     * @param callSite
+     * @param operation
+     * @param durationMillis
+     * @param qTimeMillis
+     * @param rows
+     * @param query
+     */
+    SlowQuery(long timestamp, String backend, String callSite, String operation, long durationMillis, int qTimeMillis, long rows,
+            String query) {
+        this.timestamp = timestamp;
+        this.backend = backend;
+        this.callSite = callSite;
+        this.operation = operation;
+        this.durationMillis = durationMillis;
+        this.qTimeMillis = qTimeMillis;
+        this.rows = rows;
+        this.query = query;
+    }
+
+    /**
+     * @return Time of the call in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getCallSite() {
+        return callSite;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return Query time reported by Solr; -1 if not available
+     */
+    public int getSolrQTimeMillis() {
+        return qTimeMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+}
@@ -75,6 +75,7 @@ import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
 import io.goobi.viewer.model.security.user.UserRole;
 import io.goobi.viewer.model.statistics.usage.DailySessionUsageStatistics;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup;
 import io.goobi.viewer.model.transkribus.TranskribusJob;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.themes.ThemeConfiguration;
@@ -2596,6 +2597,55 @@ public interface IDAO {
 
     public boolean deleteUsageStatistics(long id) throws DAOException;
 
+    /**
+     * Returns the rollup with the counts of all records for the given period.
+     *
+     * @param granularity Period length
+     * @param periodStart First day of the period
+     * @return {@link UsageStatisticsRollup}; null if none exists
+     * @throws DAOException
+     * @should return overall rollup of period
+     * @should return null if period has no rollup
+     */
+    public UsageStatisticsRollup getUsageStatisticsRollup(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart)
+            throws DAOException;
+
+    /**
+     * Returns the per-record rollups for the given period.
+     *
+     * @param granularity Period length
+     * @param periodStart First day of the period
+     * @param recordIdentifiers Record identifiers to return; null returns the rollups of all records
+     * @return List of {@link UsageStatisticsRollup}s
+     * @throws DAOException
+     * @should return rollups of given records
+     * @should return rollups of all records if recordIdentifiers null
+     * @should return empty list if recordIdentifiers empty
+     */
+    public List<UsageStatisticsRollup> getUsageStatisticsRollups(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart,
+            List<String> recordIdentifiers) throws DAOException;
+
+    /**
+     * Persists the given rollups in a single transaction.
+     *
+     * @param rollups
+     * @return true if successful; false otherwise
+     * @throws DAOException
+     * @should add all rollups
+     */
+    public boolean addUsageStatisticsRollups(List<UsageStatisticsRollup> rollups) throws DAOException;
+
+    /**
+     * Deletes all rollups (overall and per record) of the given period.
+     *
+     * @param granularity Period length
+     * @param periodStart First day of the period
+     * @return Number of deleted rows
+     * @throws DAOException
+     * @should delete all rollups of period
+     */
+    public int deleteUsageStatisticsRollups(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart) throws DAOException;
+
     public boolean deleteCMSComponent(PersistentCMSComponent persistentCMSComponent) throws DAOException;
 
     public boolean deleteCMSContent(CMSContent content) throws DAOException;
@@ -98,6 +98,7 @@ import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
 import io.goobi.viewer.model.security.user.UserRole;
 import io.goobi.viewer.model.statistics.usage.DailySessionUsageStatistics;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup;
 import io.goobi.viewer.model.transkribus.TranskribusJob;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.themes.ThemeConfiguration;
@@ -6638,6 +6639,100 @@ public class JPADAO implements IDAO {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public UsageStatisticsRollup getUsageStatisticsRollup(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart)
+            throws DAOException {
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            Query q = em.createQuery("SELECT r FROM UsageStatisticsRollup r WHERE r.granularity = :granularity AND r.periodStart = :periodStart"
+                    + " AND r.recordIdentifier IS NULL");
+            q.setParameter("granularity", granularity);
+            q.setParameter("periodStart", periodStart);
+            q.setMaxResults(1);
+            return (UsageStatisticsRollup) q.getSingleResult();
+        } catch (NoResultException e) {
+            return null;
+        } finally {
+            close(em);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<UsageStatisticsRollup> getUsageStatisticsRollups(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart,
+            List<String> recordIdentifiers) throws DAOException {
+        if (recordIdentifiers != null && recordIdentifiers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            StringBuilder sbQuery = new StringBuilder(
+                    "SELECT r FROM UsageStatisticsRollup r WHERE r.granularity = :granularity AND r.periodStart = :periodStart");
+            if (recordIdentifiers != null) {
+                sbQuery.append(" AND r.recordIdentifier IN :recordIdentifiers");
+            } else {
+                sbQuery.append(" AND r.recordIdentifier IS NOT NULL");
+            }
+            Query q = em.createQuery(sbQuery.toString());
+            q.setParameter("granularity", granularity);
+            q.setParameter("periodStart", periodStart);
+            if (recordIdentifiers != null) {
+                q.setParameter("recordIdentifiers", recordIdentifiers);
+            }
+            return q.getResultList();
+        } catch (NoResultException e) {
+            return Collections.emptyList();
+        } finally {
+            close(em);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean addUsageStatisticsRollups(List<UsageStatisticsRollup> rollups) throws DAOException {
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            startTransaction(em);
+            for (UsageStatisticsRollup rollup : rollups) {
+                em.persist(rollup);
+            }
+            commitTransaction(em);
+            return true;
+        } catch (PersistenceException e) {
+            logger.error("Error saving usage statistics rollups", e);
+            handleException(em);
+            return false;
+        } finally {
+            close(em);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int deleteUsageStatisticsRollups(UsageStatisticsRollup.Granularity granularity, LocalDate periodStart) throws DAOException {
+        preQuery();
+        EntityManager em = getEntityManager();
+        try {
+            startTransaction(em);
+            int rows = em.createQuery("DELETE FROM UsageStatisticsRollup r WHERE r.granularity = :granularity AND r.periodStart = :periodStart")
+                    .setParameter("granularity", granularity)
+                    .setParameter("periodStart", periodStart)
+                    .executeUpdate();
+            commitTransaction(em);
+            return rows;
+        } catch (PersistenceException e) {
+            handleException(em);
+            return 0;
+        } finally {
+            close(em);
+        }
+    }
+
     /** {@inheritDoc} */
     @SuppressWarnings("unchecked")
     @Override
@@ -0,0 +1,52 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.exceptions;
+
+/**
+ * Thrown when a request is refused because the server or the client's share of it is busy (HTTP 429).
+ */
+public class TooManyRequestsException extends HTTPException {
+
+    private static final long serialVersionUID = 3587226190466361523L;
+
+    /** HTTP status code for too many requests. */
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final long retryAfter;
+
+    /**
+     * 
+     * @param message
+     * @param retryAfter Suggested wait time in milliseconds
+     */
+    public TooManyRequestsException(String message, long retryAfter) {
+        super(SC_TOO_MANY_REQUESTS, message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return Suggested wait time in milliseconds before the client tries again
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -24,8 +24,6 @@ package io.goobi.viewer.filters;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -67,29 +65,32 @@ public class SessionCounterFilter implements Filter {
         // logger.trace("doFilter"); //NOSONAR Debug
         HttpServletRequest req = (HttpServletRequest) request;
         String id = req.getSession().getId();
-        Map<String, String> metadataMap = DataManager.getInstance().getSessionMap().get(id);
-        ZonedDateTime now = LocalDateTime.now().atZone(ZoneId.systemDefault());
-        if (metadataMap == null) {
-            metadataMap = new LinkedHashMap<>();
-            DataManager.getInstance().getSessionMap().put(id, metadataMap);
-            metadataMap.put("id", id);
-            metadataMap.put("created", now.format(DateTools.FORMATTERJAVAUTILDATETOSTRING));
-        }
-        metadataMap.put("address", req.getRemoteAddr());
-        metadataMap.put("x-forwarded-for", req.getHeader("x-forwarded-for"));
-        metadataMap.put("last request", now.format(DateTools.FORMATTERJAVAUTILDATETOSTRING));
-        metadataMap.put("previous request",
-                DateTools.getLocalDateTimeFromMillis(req.getSession().getLastAccessedTime(), false)
-                        .atZone(ZoneId.systemDefault())
-                        .format(DateTools.FORMATTERJAVAUTILDATETOSTRING));
-        metadataMap.put("timeout", String.valueOf(req.getSession().getMaxInactiveInterval()) + " s");
+        String now = LocalDateTime.now().atZone(ZoneId.systemDefault()).format(DateTools.FORMATTERJAVAUTILDATETOSTRING);
+        String address = req.getRemoteAddr();
+        String forwardedFor = req.getHeader("x-forwarded-for");
+        String previousRequest = DateTools.getLocalDateTimeFromMillis(req.getSession().getLastAccessedTime(), false)
+                .atZone(ZoneId.systemDefault())
+                .format(DateTools.FORMATTERJAVAUTILDATETOSTRING);
+        String timeout = String.valueOf(req.getSession().getMaxInactiveInterval()) + " s";
 
         Optional<Map<Object, Map>> logicalViews =
                 Optional.ofNullable((Map) req.getSession().getAttribute("com.sun.faces.renderkit.ServerSideStateHelper.LogicalViewMap"));
         Integer numberOfLogicalViews = logicalViews.map(map -> map.keySet().size()).orElse(0);
         Integer numberOfTotalViews = logicalViews.map(map -> map.values().stream().mapToInt(value -> value.keySet().size()).sum()).orElse(0);
-        metadataMap.put("Logical Views stored in session", numberOfLogicalViews.toString());
-        metadataMap.put("Total views stored in session", numberOfTotalViews.toString());
+
+        DataManager.getInstance().getSessionRegistry().update(id, metadataMap -> {
+            if (metadataMap.isEmpty()) {
+                metadataMap.put("id", id);
+                metadataMap.put("created", now);
+            }
+            metadataMap.put("address", address);
+            metadataMap.put("x-forwarded-for", forwardedFor);
+            metadataMap.put("last request", now);
+            metadataMap.put("previous request", previousRequest);
+            metadataMap.put("timeout", timeout);
+            metadataMap.put("Logical Views stored in session", numberOfLogicalViews.toString());
+            metadataMap.put("Total views stored in session", numberOfTotalViews.toString());
+        });
 
         fc.doFilter(request, response); // continue
     }
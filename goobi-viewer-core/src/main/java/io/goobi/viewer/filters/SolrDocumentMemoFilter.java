@@ -0,0 +1,81 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.filters;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.solr.SolrDocumentMemo;
+
+/**
+ * Opens a {@link SolrDocumentMemo} for the duration of each request (JSF pages as well as REST calls), so that repeated lookups of the same
+ * Solr document by IDDOC or PI are only sent to Solr once.
+ */
+@WebFilter
+public class SolrDocumentMemoFilter implements Filter {
+
+    private static final Logger logger = LogManager.getLogger(SolrDocumentMemoFilter.class);
+
+    /** {@inheritDoc} */
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        //
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain fc) throws IOException, ServletException {
+        if (!DataManager.getInstance().getConfiguration().isSolrRequestMemoEnabled()) {
+            fc.doFilter(request, response);
+            return;
+        }
+
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        try {
+            fc.doFilter(request, response);
+        } finally {
+            SolrDocumentMemo.end();
+            if (SolrDocumentMemo.getCurrent() == null && memo.getDeduplicatedCount() > 0 && logger.isDebugEnabled()) {
+                logger.debug("{}: {} of {} Solr document lookups served from request memo", ((HttpServletRequest) request).getRequestURI(),
+                        memo.getDeduplicatedCount(), memo.getLookupCount());
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void destroy() {
+        //
+    }
+}
@@ -55,9 +55,12 @@ import de.unigoettingen.sub.commons.util.CacheUtils;
 import io.goobi.viewer.controller.BCrypt;
 import io.goobi.viewer.controller.DataFileTools;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.PasswordVerifier;
 import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.controller.XmlTools;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.managedbeans.tabledata.TableDataProvider;
 import io.goobi.viewer.managedbeans.tabledata.TableDataProvider.SortOrder;
 import io.goobi.viewer.managedbeans.tabledata.TableDataSource;
@@ -295,9 +298,19 @@ public class AdminBean implements Serializable {
             if (StringUtils.isNotEmpty(passwordOne) || StringUtils.isNotEmpty(passwordTwo)) {
                 // Only match current password if not an admin
                 // TODO Current logic will omit current password check for superuser accounts even when operating outside the admin backend
-                if (!activeUser.isSuperuser() && activeUser.getId().equals(user.getId()) && currentPassword != null
-                        && !new BCrypt().checkpw(currentPassword, user.getPasswordHash())) {
-                    Messages.error("user_currentPasswordWrong");
+                try {
+                    if (!activeUser.isSuperuser() && activeUser.getId().equals(user.getId()) && currentPassword != null
+                            && !DataManager.getInstance()
+                                    .getPasswordVerifier()
+                                    .checkPassword(new BCrypt(), currentPassword, user.getPasswordHash(),
+                                            PasswordVerifier.ipKey(NetTools.getIpAddress(BeanUtils.getRequest())),
+                                            PasswordVerifier.accountKey(user.getEmail()))) {
+                        Messages.error("user_currentPasswordWrong");
+                        return false;
+                    }
+                } catch (TooManyRequestsException e) {
+                    Messages.error(ViewerResourceBundle.getTranslation("errLoginDelay", null)
+                            .replace("{0}", String.valueOf((int) Math.ceil(e.getRetryAfter() / 1000.0))));
                     return false;
                 }
                 if (!passwordOne.equals(passwordTwo)) {
@@ -1082,7 +1095,8 @@ public class AdminBean implements Serializable {
      * @return a int.
      */
     public int deleteFromCache(List<String> identifiers, boolean fromContentCache, boolean fromThumbnailCache) {
-        return CacheUtils.deleteFromCache(identifiers, fromContentCache, fromThumbnailCache);
+        return CacheUtils.deleteFromCache(identifiers, fromContentCache, fromThumbnailCache)
+                + deleteFromThumbnailStore(identifiers, fromThumbnailCache);
     }
 
     /**
@@ -1105,7 +1119,25 @@ public class AdminBean implements Serializable {
                 DownloadJobTools.removeJobsForRecord(identifier);
             }
         }
-        return CacheUtils.deleteFromCache(identifiers, fromContentCache, fromThumbnailCache, fromPdfCache);
+        return CacheUtils.deleteFromCache(identifiers, fromContentCache, fromThumbnailCache, fromPdfCache)
+                + deleteFromThumbnailStore(identifiers, fromThumbnailCache);
+    }
+
+    /**
+     * Deletes the precomputed thumbnails of the given records.
+     *
+     * @param identifiers
+     * @param fromThumbnailCache
+     * @return Number of deleted thumbnails
+     */
+    private static int deleteFromThumbnailStore(List<String> identifiers, boolean fromThumbnailCache) {
+        int count = 0;
+        if (fromThumbnailCache) {
+            for (String identifier : identifiers) {
+                count += DataManager.getInstance().getThumbnailStore().invalidate(identifier);
+            }
+        }
+        return count;
     }
 
     /**
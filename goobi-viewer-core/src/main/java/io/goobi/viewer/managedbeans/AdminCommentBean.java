@@ -334,12 +334,14 @@ public class AdminCommentBean implements Serializable {
             comment.setDateModified(LocalDateTime.now());
             logger.trace(comment.getContentString());
             if (DataManager.getInstance().getDao().updateComment(comment)) {
+                DataManager.getInstance().getRecordAnnotationCache().invalidate(comment.getTargetPI());
                 Messages.info("updatedSuccessfully");
             } else {
                 Messages.info(StringConstants.MSG_ADMIN_SAVE_ERROR);
             }
         } else {
             if (DataManager.getInstance().getDao().addComment(comment)) {
+                DataManager.getInstance().getRecordAnnotationCache().invalidate(comment.getTargetPI());
                 Messages.info("addedSuccessfully");
             } else {
                 Messages.info(StringConstants.MSG_ADMIN_SAVE_ERROR);
@@ -359,6 +361,7 @@ public class AdminCommentBean implements Serializable {
      */
     public String deleteCommentAction(Comment comment) throws DAOException {
         if (DataManager.getInstance().getDao().deleteComment(comment)) {
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(comment.getTargetPI());
             Messages.info("commentDeleteSuccess");
         } else {
             Messages.error("commentDeleteFailure");
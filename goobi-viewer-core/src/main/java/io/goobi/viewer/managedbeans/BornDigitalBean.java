@@ -34,12 +34,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import io.goobi.viewer.controller.BCrypt;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.PasswordVerifier;
 import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.faces.validators.EmailValidator;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.Messages;
@@ -106,15 +107,31 @@ public class BornDigitalBean implements Serializable {
         }
 
         try {
-            String hash = BCrypt.hashpw(downloadTicketPassword, DownloadTicket.SALT);
+            String hash;
+            try {
+                // Hashes of correct ticket passwords are remembered, so that repeated downloads do not hash again
+                hash = DataManager.getInstance()
+                        .getPasswordVerifier()
+                        .hashPassword(downloadTicketPassword, DownloadTicket.SALT, PasswordVerifier.ipKey(ipAddress));
+            } catch (TooManyRequestsException e) {
+                if (BeanUtils.getResponse() != null) {
+                    BeanUtils.getResponse().setStatus(e.getCode());
+                }
+                String msg =
+                        ViewerResourceBundle.getTranslation("errLoginDelay", BeanUtils.getLocale())
+                                .replace("{0}", String.valueOf((int) Math.ceil(e.getRetryAfter() / 1000.0)));
+                Messages.error(msg);
+                return "";
+            }
             DownloadTicket ticket = DataManager.getInstance().getDao().getDownloadTicketByPasswordHash(hash);
             String pi = activeDocumentBean.getPersistentIdentifier();
             if ("-".equals(pi)) {
                 Messages.error("errPassword");
                 return "";
             }
-            if (ticket != null && ticket.isActive() && ticket.getPi().equals(pi) && ticket.checkPassword(downloadTicketPassword)
+            if (ticket != null && ticket.isActive() && ticket.getPi().equals(pi) && ticket.checkPasswordHash(hash)
                     && AccessConditionUtils.addDownloadTicketToSession(pi, BeanUtils.getSession())) {
+                DataManager.getInstance().getPasswordVerifier().addVerifiedHash(downloadTicketPassword, DownloadTicket.SALT, hash);
                 logger.trace("Born digital download permission for {} added to user session.", pi);
                 DataManager.getInstance().getSecurityManager().resetFailedLoginAttemptForIpAddress(ipAddress);
                 Messages.info("");
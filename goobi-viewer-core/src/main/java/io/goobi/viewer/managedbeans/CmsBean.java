@@ -840,8 +840,10 @@ public class CmsBean implements Serializable {
 
         //Execute all page loading reoutines of content items.
         //If one returns a redirect url, return that, otherwise an empty string
+        //Components served from the fragment cache need no preparation; the cached markup is kept for rendering
         return currentPage.getComponents()
                 .stream()
+                .filter(comp -> !DataManager.getInstance().getCmsFragmentCache().captureCachedMarkup(comp, FacesContext.getCurrentInstance()))
                 .flatMap(comp -> comp.getContentItems().stream())
                 .map(content -> {
                     try {
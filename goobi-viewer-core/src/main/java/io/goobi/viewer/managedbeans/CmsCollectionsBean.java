@@ -289,6 +289,9 @@ public class CmsCollectionsBean implements Serializable {
         }
 
         logger.trace("Updated {} description texts in {} collections.", stringCount, collectionCount);
+        if (collectionCount > 0) {
+            DataManager.getInstance().getCmsFragmentCache().invalidateAll();
+        }
         Messages.info("Updated: " + stringCount);
 
         return "";
@@ -484,6 +487,7 @@ public class CmsCollectionsBean implements Serializable {
      */
     public void deleteCollection(CMSCollection collection) throws DAOException {
         DataManager.getInstance().getDao().deleteCMSCollection(collection);
+        DataManager.getInstance().getCmsFragmentCache().invalidateAll();
         removeFromCollectionViews(collection);
         updateCollections();
     }
@@ -557,6 +561,7 @@ public class CmsCollectionsBean implements Serializable {
             } else {
                 DataManager.getInstance().getDao().addCMSCollection(getCurrentCollection());
             }
+            DataManager.getInstance().getCmsFragmentCache().invalidateAll();
             updateCollections();
             addToCollectionViews(getCurrentCollection());
 
@@ -220,6 +220,7 @@ public class CmsPageEditBean implements Serializable {
         }
 
         if (success) {
+            DataManager.getInstance().getCmsFragmentCache().invalidateAll();
             Messages.info("cms_pageSaveSuccess");
             logger.trace("reload cms page");
             logger.trace("update pages");
@@ -317,6 +318,7 @@ public class CmsPageEditBean implements Serializable {
                 dao.deleteCMSComponent(persistentComponent);
             }
             if (this.dao.deleteCMSPage(page)) {
+                DataManager.getInstance().getCmsFragmentCache().invalidateAll();
                 // Delete files matching content item IDs of the deleted page and re-index record
                 try {
                     if (page.deleteExportedTextFiles() > 0) {
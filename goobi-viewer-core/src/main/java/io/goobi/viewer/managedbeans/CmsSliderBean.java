@@ -85,7 +85,11 @@ public class CmsSliderBean implements Serializable {
     }
 
     public boolean deleteSlider(CMSSlider slider) throws DAOException {
-        return DataManager.getInstance().getDao().deleteSlider(slider);
+        boolean deleted = DataManager.getInstance().getDao().deleteSlider(slider);
+        if (deleted) {
+            DataManager.getInstance().getCmsFragmentCache().invalidateAll();
+        }
+        return deleted;
     }
 
     /**
@@ -166,6 +166,7 @@ public class CmsSliderEditBean implements Serializable {
                     saved = DataManager.getInstance().getDao().addSlider(selectedSlider);
                 }
                 if (saved) {
+                    DataManager.getInstance().getCmsFragmentCache().invalidateAll();
                     Messages.info(null, "button__save__success", "\"" + selectedSlider.getName() + "\"");
                 } else {
                     Messages.error("button__save__error");
@@ -22,6 +22,7 @@
 package io.goobi.viewer.managedbeans;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
@@ -566,11 +567,29 @@ public class GeoMapBean implements Serializable, IPolyglott {
     public GeoMap getFromCache(GeoMap geomap) {
         if (geomap != null && geomap.getId() != null) {
             return BeanUtils.getPersistentStorageBean()
-                    .getIfRecentOrPut("cms_geomap_" + geomap.getId(), geomap, GeoMapUpdateHandler.getGeoMapTimeToLive());
+                    .getGeoMaps()
+                    .get(geomap.getId(), Duration.ofMinutes(GeoMapUpdateHandler.getGeoMapTimeToLive()), id -> loadGeoMap(geomap));
         }
         return geomap;
     }
 
+    /**
+     * Creates a copy of the given geomap with freshly loaded features. Used as loader for the geomap cache, which also calls it in the background
+     * to refresh cached maps before they expire.
+     *
+     * @param geomap
+     * @return Copy of the given geomap
+     */
+    private static GeoMap loadGeoMap(GeoMap geomap) {
+        GeoMap copy = new GeoMap(geomap);
+        try {
+            GeoMapUpdateHandler.loadFeatures(copy);
+        } catch (PresentationException e) {
+            logger.error("Error loading features of geomap {}: {}", geomap.getId(), e.toString());
+        }
+        return copy;
+    }
+
     /**
      * {@inheritDoc}
      *
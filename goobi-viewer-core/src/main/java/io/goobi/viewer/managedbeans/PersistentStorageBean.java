@@ -22,12 +22,14 @@
 package io.goobi.viewer.managedbeans;
 
 import java.io.Serializable;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalUnit;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -35,16 +37,20 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.omnifaces.cdi.Eager;
 
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.DataStorage;
+import io.goobi.viewer.controller.ThreadPoolManager;
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
 import io.goobi.viewer.controller.mq.MessageQueueManager;
 import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.dao.update.DatabaseUpdater;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.model.cms.pages.CMSTemplateManager;
+import io.goobi.viewer.model.job.download.ExternalFilesDownloadJob;
+import io.goobi.viewer.model.maps.GeoMap;
 
 /**
  * Used for application wide storage of objects accessible to other managed objects
@@ -59,7 +65,23 @@ public class PersistentStorageBean implements DataStorage, Serializable {
 
     private static final long serialVersionUID = -5127431137772735598L;
 
-    private Map<String, Pair<Object, Instant>> map = new HashMap<>();
+    /** Share of the time to live after which cached values are reloaded in the background. */
+    private static final double REFRESH_AHEAD_RATIO = 0.75;
+    /** Maximum number of cached CMS geomaps. */
+    private static final int GEOMAP_CACHE_SIZE = 200;
+    /** Maximum number of tracked external resource downloads. */
+    private static final int DOWNLOAD_JOB_CACHE_SIZE = 1000;
+    /** Time for which the state of an external resource download is kept. */
+    private static final Duration DOWNLOAD_JOB_TIME_TO_LIVE = Duration.ofDays(1);
+
+    /** Refreshes that the saturated pool cannot accept are rejected rather than dropped, so the cache does not wait for them. */
+    private transient Executor refreshExecutor =
+            task -> DataManager.getInstance().getThreadPoolManager().getExecutor(ThreadPoolManager.POOL_IO).execute(task);
+    private transient ApplicationCache<String, Object> storage = new ApplicationCache<>("applicationStorage", 0, null, 0, null);
+    private transient ApplicationCache<Long, GeoMap> geoMaps = new ApplicationCache<>("cmsGeoMaps", GEOMAP_CACHE_SIZE, null,
+            REFRESH_AHEAD_RATIO, refreshExecutor);
+    private transient ApplicationCache<String, ExternalFilesDownloadJob> downloadJobs =
+            new ApplicationCache<>("externalResourceDownloads", DOWNLOAD_JOB_CACHE_SIZE, DOWNLOAD_JOB_TIME_TO_LIVE, 0, null);
 
     @Inject
     private transient CMSTemplateManager templateManager;
@@ -75,25 +97,21 @@ public class PersistentStorageBean implements DataStorage, Serializable {
 
     @PreDestroy
     public void shutdown() {
-        //
+        storage.invalidateAll();
+        geoMaps.invalidateAll();
+        downloadJobs.invalidateAll();
     }
 
     public Object get(String key) {
-        synchronized (map) {
-            return Optional.ofNullable(map.get(key)).map(Pair::getLeft).orElse(null);
-        }
+        return storage.getIfPresent(key, null).orElse(null);
     }
 
     public boolean olderThan(String key, Instant time) {
-        synchronized (map) {
-            return Optional.ofNullable(map.get(key)).map(Pair::getRight).map(i -> i.isBefore(time)).orElse(true);
-        }
+        return !storage.isPresent(key, Duration.between(time, Instant.now()));
     }
 
     public void put(String key, Object object) {
-        synchronized (map) {
-            map.put(key, Pair.of(object, Instant.now()));
-        }
+        storage.put(key, object);
     }
 
     /**
@@ -108,15 +126,8 @@ public class PersistentStorageBean implements DataStorage, Serializable {
      * @param unit The {@link TemporalUnit} in which the timeToLive parameter is given
      * @return the object stored under the given key if viable, otherwise the given object
      */
-    @SuppressWarnings("unchecked")
-    public synchronized <T> T getIfRecentOrPut(String key, T object, long timeToLive, TemporalUnit unit) {
-        Instant oldestViable = Instant.now().minus(timeToLive, unit);
-        if (contains(key) && !olderThan(key, oldestViable)) {
-            return (T) get(key);
-        } else {
-            put(key, object);
-            return object;
-        }
+    public <T> T getIfRecentOrPut(String key, T object, long timeToLive, TemporalUnit unit) {
+        return getIfRecentOrLoad(key, () -> object, timeToLive, unit);
     }
 
     /**
@@ -129,29 +140,62 @@ public class PersistentStorageBean implements DataStorage, Serializable {
      *            passed object
      * @return the object stored under the given key if viable, otherwise the given object
      */
-    @SuppressWarnings("unchecked")
-    public synchronized <T> T getIfRecentOrPut(String key, T object, long timeToLiveMinutes) {
+    public <T> T getIfRecentOrPut(String key, T object, long timeToLiveMinutes) {
         return getIfRecentOrPut(key, object, timeToLiveMinutes, ChronoUnit.MINUTES);
     }
 
+    /**
+     * If the given key exists and the entry is no older than the given timeToLive, return the object stored under the key. Otherwise the object is
+     * created by the given loader and stored. The loader is only called if needed and only by one thread at a time for the same key.
+     *
+     * @param <T>
+     * @param key the identifier under which to store the object
+     * @param loader creates the object if the key doesn't exist yet or is older than timeToLive
+     * @param timeToLive the maximum age in the given time unit the stored object may have to be returned
+     * @param unit The {@link TemporalUnit} in which the timeToLive parameter is given
+     * @return the object stored under the given key if viable, otherwise the newly created object
+     */
     @SuppressWarnings("unchecked")
-    public synchronized <T> Optional<T> getIfRecentOrRemove(String key, long timeToLiveMinutes) {
+    public <T> T getIfRecentOrLoad(String key, Supplier<T> loader, long timeToLive, TemporalUnit unit) {
+        return (T) storage.get(key, Duration.of(timeToLive, unit), k -> loader.get());
+    }
+
+    public <T> Optional<T> getIfRecentOrRemove(String key, long timeToLiveMinutes) {
         return getIfRecentOrRemove(key, timeToLiveMinutes, ChronoUnit.MINUTES);
     }
 
     @SuppressWarnings("unchecked")
-    public synchronized <T> Optional<T> getIfRecentOrRemove(String key, long timeToLive, TemporalUnit unit) {
-        Instant oldestViable = Instant.now().minus(timeToLive, unit);
-        if (contains(key) && !olderThan(key, oldestViable)) {
-            return Optional.ofNullable((T) get(key));
-        } else {
+    public <T> Optional<T> getIfRecentOrRemove(String key, long timeToLive, TemporalUnit unit) {
+        Optional<T> ret = (Optional<T>) storage.getIfPresent(key, Duration.of(timeToLive, unit));
+        if (ret.isEmpty()) {
             remove(key);
-            return Optional.empty();
         }
+        return ret;
     }
 
     public boolean contains(String key) {
-        return map.containsKey(key);
+        return storage.isPresent(key, null);
+    }
+
+    /**
+     * @return Cache of prepared CMS geomaps, keyed by geomap ID
+     */
+    public ApplicationCache<Long, GeoMap> getGeoMaps() {
+        return geoMaps;
+    }
+
+    /**
+     * @return States of running or recently finished external resource downloads, keyed by resource URL
+     */
+    public ApplicationCache<String, ExternalFilesDownloadJob> getDownloadJobs() {
+        return downloadJobs;
+    }
+
+    /**
+     * @return Usage statistics of all application caches
+     */
+    public List<CacheStatistics> getCacheStatistics() {
+        return List.of(storage.getStatistics(), geoMaps.getStatistics(), downloadJobs.getStatistics());
     }
 
     public CMSTemplateManager getTemplateManager() {
@@ -171,8 +215,6 @@ public class PersistentStorageBean implements DataStorage, Serializable {
     }
 
     public void remove(String key) {
-        synchronized (map) {
-            this.map.remove(key);
-        }
+        storage.invalidate(key);
     }
 }
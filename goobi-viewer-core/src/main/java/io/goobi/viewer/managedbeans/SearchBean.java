@@ -2482,6 +2482,31 @@ public class SearchBean implements SearchInterface, Serializable {
                 .build();
     }
 
+    /**
+     * Returns the URL of the streaming export of the current search in the given format.
+     *
+     * @param format csv, jsonl or xlsx
+     * @return URL to the export of the current search; null if no search or no REST API configured
+     */
+    public String getSearchExportUrl(String format) {
+        if (searchStringInternal == null) {
+            return null;
+        }
+
+        AbstractApiUrlManager urls = DataManager.getInstance().getRestApiManager().getDataApiManager().orElse(null);
+        if (urls == null) {
+            return null;
+        }
+
+        String facetQuery = StringUtils.isBlank(facets.getActiveFacetString().replace("-", "")) ? null : facets.getActiveFacetString();
+        return urls.path(ApiUrls.SEARCH, ApiUrls.SEARCH_EXPORT)
+                .query("query", searchStringInternal)
+                .query("sortString", currentSearch != null ? currentSearch.getSortString() : null)
+                .query("facetString", facetQuery)
+                .query("format", format)
+                .build();
+    }
+
     /**
      * <p>
      * isSearchSavingEnabled.
@@ -2634,7 +2659,7 @@ public class SearchBean implements SearchInterface, Serializable {
 
         BiConsumer<HttpServletRequest, Task> task = (request, job) -> {
             if (!facesContext.getResponseComplete()) {
-                try (SXSSFWorkbook wb = buildExcelSheet(facesContext, finalQuery, currentQuery, proximitySearchDistance, locale)) {
+                try (SXSSFWorkbook wb = buildExcelSheet(facesContext, finalQuery, currentQuery, locale)) {
                     if (wb == null) {
                         job.setError("Failed to create excel sheet");
                     } else if (Thread.interrupted()) {
@@ -2717,7 +2742,6 @@ public class SearchBean implements SearchInterface, Serializable {
      * @param facesContext
      * @param finalQuery Complete query with suffixes.
      * @param exportQuery Query constructed from the user's input, without any secret suffixes.
-     * @param proximitySearchDistance
      * @param locale
      * @return {@link SXSSFWorkbook}
      * @throws InterruptedException
@@ -2726,8 +2750,8 @@ public class SearchBean implements SearchInterface, Serializable {
      * @throws DAOException
      * @throws PresentationException
      */
-    private SXSSFWorkbook buildExcelSheet(final FacesContext facesContext, String finalQuery, String exportQuery, int proximitySearchDistance,
-            Locale locale) throws InterruptedException, ViewerConfigurationException {
+    private SXSSFWorkbook buildExcelSheet(final FacesContext facesContext, String finalQuery, String exportQuery, Locale locale)
+            throws InterruptedException, ViewerConfigurationException {
         try {
             String termQuery = null;
             if (searchTerms != null) {
@@ -2736,7 +2760,7 @@ public class SearchBean implements SearchInterface, Serializable {
             Map<String, String> params = SearchHelper.generateQueryParams(termQuery);
             SXSSFWorkbook wb = new SXSSFWorkbook(25); //NOSONAR try-with-resources in the calling method
             SearchHelper.exportSearchAsExcel(wb, finalQuery, exportQuery, currentSearch.getAllSortFields(), facets.generateFacetFilterQueries(true),
-                    params, searchTerms, locale, proximitySearchDistance);
+                    params, locale);
             if (Thread.interrupted()) {
                 throw new InterruptedException();
             }
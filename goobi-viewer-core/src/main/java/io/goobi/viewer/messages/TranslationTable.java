@@ -0,0 +1,144 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.messages;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flattened translations of one locale. The default and the local resource bundles (including their parent bundles) are copied into plain
+ * hash maps once, so that lookups no longer go through the {@link ResourceBundle} parent chain. Resolved translations for both priority
+ * orders are stored together with their cleaned-up values, so that repeated lookups of the same message key are a single hash lookup. Key
+ * variants (e.g. <code>_LANG_XX</code> or <code>_UNTOKENIZED</code> suffixes) are resolved on first use and then stored as well.
+ * <p>
+ * Instances are never modified after construction apart from adding resolved key variants; a reloaded messages file results in a new
+ * instance that replaces this one.
+ */
+final class TranslationTable {
+
+    /** Maximum number of resolved keys that are not contained in either bundle, to keep arbitrary lookup keys from growing the table */
+    static final int MAX_RESOLVED_VARIANTS = 10000;
+
+    private final Map<String, String> defaultValues;
+    private final Map<String, String> localValues;
+    private final Map<String, Translation> translations;
+    private final int maxSize;
+
+    /**
+     *
+     * @param defaultBundle Bundle shipped with the application
+     * @param localBundle Bundle from the local configuration folder; takes precedence over <code>defaultBundle</code> unless reversed
+     */
+    TranslationTable(ResourceBundle defaultBundle, ResourceBundle localBundle) {
+        this.defaultValues = flatten(defaultBundle);
+        this.localValues = localBundle == defaultBundle ? defaultValues : flatten(localBundle);
+        this.translations = new ConcurrentHashMap<>(defaultValues.size() + localValues.size());
+        for (String key : defaultValues.keySet()) {
+            translations.put(key, resolve(key));
+        }
+        for (String key : localValues.keySet()) {
+            translations.computeIfAbsent(key, this::resolve);
+        }
+        this.maxSize = translations.size() + MAX_RESOLVED_VARIANTS;
+    }
+
+    /**
+     *
+     * @param key Message key
+     * @param reversePriority If true, the default bundle is checked first, then the local
+     * @param cleanup If true, elements such as 'zzz' will be removed from the translation
+     * @return Translation for the given key; null if none found
+     */
+    String getTranslation(String key, boolean reversePriority, boolean cleanup) {
+        String useKey = key;
+        // Remove trailing asterisk
+        if (useKey.endsWith("*")) {
+            useKey = useKey.substring(0, useKey.length() - 1);
+        }
+
+        Translation translation = translations.get(useKey);
+        if (translation == null) {
+            translation = resolve(useKey);
+            if (translations.size() < maxSize) {
+                translations.putIfAbsent(useKey, translation);
+            }
+        }
+
+        return translation.get(reversePriority, cleanup);
+    }
+
+    /**
+     *
+     * @param key
+     * @return {@link Translation} for both priority orders
+     */
+    private Translation resolve(String key) {
+        String localValue = ViewerResourceBundle.resolveKey(key, localValues::get);
+        String defaultValue = localValues == defaultValues ? localValue : ViewerResourceBundle.resolveKey(key, defaultValues::get);
+        return new Translation(localValue != null ? localValue : defaultValue, defaultValue != null ? defaultValue : localValue);
+    }
+
+    /**
+     *
+     * @param bundle
+     * @return Map containing all keys and values of the given bundle and its parents
+     */
+    private static Map<String, String> flatten(ResourceBundle bundle) {
+        if (bundle == null) {
+            return new HashMap<>();
+        }
+
+        Map<String, String> ret = new HashMap<>();
+        for (String key : bundle.keySet()) {
+            ret.put(key, bundle.getString(key));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Translation values for one message key.
+     */
+    private static final class Translation {
+
+        private final String localFirst;
+        private final String localFirstCleanedUp;
+        private final String defaultFirst;
+        private final String defaultFirstCleanedUp;
+
+        Translation(String localFirst, String defaultFirst) {
+            this.localFirst = localFirst;
+            this.localFirstCleanedUp = ViewerResourceBundle.cleanUpTranslation(localFirst);
+            this.defaultFirst = defaultFirst;
+            this.defaultFirstCleanedUp = ViewerResourceBundle.cleanUpTranslation(defaultFirst);
+        }
+
+        String get(boolean reversePriority, boolean cleanup) {
+            if (reversePriority) {
+                return cleanup ? defaultFirstCleanedUp : defaultFirst;
+            }
+            return cleanup ? localFirstCleanedUp : localFirst;
+        }
+    }
+}
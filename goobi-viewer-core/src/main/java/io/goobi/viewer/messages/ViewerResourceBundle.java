@@ -48,6 +48,8 @@ import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import javax.faces.context.FacesContext;
@@ -88,11 +90,13 @@ public class ViewerResourceBundle extends ResourceBundle {
 
     private static final String BUNDLE_NAME = "messages";
 
+    private static final Pattern PATTERN_LANG_MIDFIX = Pattern.compile(SolrConstants.MIDFIX_LANG + "[A-Z{][A-Z}]");
+
     private static Map<Locale, ResourceBundle> defaultBundles = new ConcurrentHashMap<>();
     /** Constant <code>localBundles</code> */
     protected static Map<Locale, ResourceBundle> localBundles = new ConcurrentHashMap<>();
-    /** Constant <code>reloadNeededMap</code> */
-    protected static Map<String, Boolean> reloadNeededMap = new ConcurrentHashMap<>();
+    /** Flattened translations for each loaded locale; replaced as a whole when a local messages file changes */
+    private static final Map<Locale, TranslationTable> translationTables = new ConcurrentHashMap<>();
     /** Constant <code>defaultLocale</code> */
     protected static volatile Locale defaultLocale;
     private static List<Locale> allLocales = null;
@@ -111,7 +115,7 @@ public class ViewerResourceBundle extends ResourceBundle {
     }
 
     /**
-     * Registers a WatchService that checks for modified messages.properties files and tags them for reloading.
+     * Registers a WatchService that checks for modified messages.properties files and reloads the translations for their language.
      *
      * @param path
      * @throws IOException
@@ -133,9 +137,9 @@ public class ViewerResourceBundle extends ResourceBundle {
                             if (fileName.startsWith("messages_")) {
                                 logger.trace("File has been modified: {}", fileName);
                                 final String language = fileName.substring(9, 11);
-                                reloadNeededMap.put(language, true);
                                 logger.debug("File '{}' (language: {}) has been modified, triggering bundle reload...",
                                         changed.getFileName(), language);
+                                reloadLocalBundles(language);
                             }
                         }
                         if (!wk.reset()) {
@@ -167,7 +171,7 @@ public class ViewerResourceBundle extends ResourceBundle {
                     }
                     // logger.trace(defaultLocale.getLanguage()); //NOSONAR Debug
                 }
-                checkAndLoadResourceBundles(defaultLocale);
+                getTranslationTable(getThisOrFallback(defaultLocale));
             }
         }
     }
@@ -199,43 +203,61 @@ public class ViewerResourceBundle extends ResourceBundle {
     }
 
     /**
-     * Loads resource bundles for the current locale and reloads them if the locale has since changed.
+     * Returns the translation table for the given locale, loading the resource bundles if not yet loaded.
      *
-     * @param inLocale
-     * @return The selected locale
+     * @param locale
+     * @return {@link TranslationTable} for locale
      */
-    private static Locale checkAndLoadResourceBundles(Locale inLocale) {
-        Locale locale = getThisOrFallback(inLocale);
-        // Reload default bundle if the locale is different
-        if (!defaultBundles.containsKey(locale)) {
+    private static TranslationTable getTranslationTable(Locale locale) {
+        TranslationTable table = translationTables.get(locale);
+        if (table == null) {
             synchronized (LOCK) {
-                // Bundle could have been initialized by a different thread in the meanwhile
-                defaultBundles.computeIfAbsent(locale, k -> ResourceBundle.getBundle(BUNDLE_NAME, locale));
+                // Table could have been initialized by a different thread in the meanwhile
+                table = translationTables.get(locale);
+                if (table == null) {
+                    table = loadTranslationTable(locale);
+                }
             }
         }
-        // Reload local bundle if the locale is different or the corresponding messages files has been modified
-        if (!localBundles.containsKey(locale) || (reloadNeededMap.containsKey(locale.getLanguage()) && reloadNeededMap.get(locale.getLanguage()))) {
-            synchronized (LOCK) {
-                // Bundle could have been initialized by a different thread in the meanwhile
-                if (!localBundles.containsKey(locale)
-                        || (reloadNeededMap.containsKey(locale.getLanguage()) && reloadNeededMap.get(locale.getLanguage()))) {
-                    logger.debug("Reloading local resource bundle for '{}'...", locale.getLanguage());
-                    try {
-                        ResourceBundle localBundle = loadLocalResourceBundle(locale);
-                        if (localBundle != null) {
-                            localBundles.put(locale, localBundle);
-                        } else {
-                            localBundles.put(locale, defaultBundles.get(locale));
-                            logger.warn("Could not load local resource bundle.");
-                        }
-                    } finally {
-                        reloadNeededMap.remove(locale.getLanguage());
-                    }
+
+        return table;
+    }
+
+    /**
+     * (Re-)loads the resource bundles for the given locale and replaces its translation table. Must be called while holding <code>LOCK</code>.
+     *
+     * @param locale
+     * @return New {@link TranslationTable}
+     */
+    private static TranslationTable loadTranslationTable(Locale locale) {
+        ResourceBundle defaultBundle = defaultBundles.computeIfAbsent(locale, k -> ResourceBundle.getBundle(BUNDLE_NAME, locale));
+        logger.debug("Reloading local resource bundle for '{}'...", locale.getLanguage());
+        ResourceBundle localBundle = loadLocalResourceBundle(locale);
+        if (localBundle == null) {
+            localBundle = defaultBundle;
+            logger.warn("Could not load local resource bundle.");
+        }
+        localBundles.put(locale, localBundle);
+        TranslationTable table = new TranslationTable(defaultBundle, localBundle);
+        translationTables.put(locale, table);
+
+        return table;
+    }
+
+    /**
+     * Reloads the local resource bundles for all loaded locales with the given language. Translations requested while reloading are still
+     * served from the previous tables.
+     *
+     * @param language ISO 639-1 language code
+     */
+    static void reloadLocalBundles(String language) {
+        synchronized (LOCK) {
+            for (Locale locale : new ArrayList<>(translationTables.keySet())) {
+                if (locale.getLanguage().equals(language)) {
+                    loadTranslationTable(locale);
                 }
             }
         }
-
-        return locale;
     }
 
     /**
@@ -265,8 +287,12 @@ public class ViewerResourceBundle extends ResourceBundle {
             try {
                 URL resourceURL = file.getParentFile().toURI().toURL();
                 // logger.debug("URL: " + file.getParentFile().toURI().toURL()); //NOSONAR Debug
-                URLClassLoader urlLoader = new URLClassLoader(new URL[] { resourceURL });
-                return ResourceBundle.getBundle(BUNDLE_NAME, locale, urlLoader);
+                // No parent loader, so that only the files in the local config folder are considered; the bundle is fully loaded once returned.
+                // No fallback to the JVM default locale, so that a missing local file does not yield the local bundle of another language.
+                try (URLClassLoader urlLoader = new URLClassLoader(new URL[] { resourceURL }, null)) {
+                    return ResourceBundle.getBundle(BUNDLE_NAME, locale, urlLoader,
+                            ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+                }
             } catch (Exception e) {
                 // some error while loading bundle from file system; use default bundle now ...
             }
@@ -403,17 +429,21 @@ public class ViewerResourceBundle extends ResourceBundle {
      * @param reversePriority If true, the global bundle will be checked first, then the local
      * @param cleanup If true, elements such as 'zzz' will be removed from the translation
      * @return Translated message key
+     * @should resolve key variants
      */
     public static String getTranslation(final String key, final Locale inLocale, boolean useFallback, boolean returnKeyIfNoneFound,
             boolean reversePriority, boolean cleanup) {
         //        logger.trace("Translation for: {}", key); //NOSONAR Debug
-        Locale locale = checkAndLoadResourceBundles(inLocale); // If locale is null, the return value will be the current locale
-        Map<Locale, ResourceBundle> bundles1 = reversePriority ? localBundles : defaultBundles;
-        Map<Locale, ResourceBundle> bundles2 = reversePriority ? defaultBundles : localBundles;
-        String value = getTranslation(key, bundles1.get(locale), bundles2.get(locale), cleanup);
-        if (useFallback && StringUtils.isEmpty(value) && defaultLocale != null && bundles1.containsKey(defaultLocale)
-                && !defaultLocale.equals(locale)) {
-            value = getTranslation(key, bundles1.get(defaultLocale), bundles2.get(defaultLocale), cleanup);
+        if (key == null) {
+            return null;
+        }
+        Locale locale = getThisOrFallback(inLocale); // If locale is null, the return value will be the current locale
+        String value = getTranslationTable(locale).getTranslation(key, reversePriority, cleanup);
+        if (useFallback && StringUtils.isEmpty(value) && defaultLocale != null && !defaultLocale.equals(locale)) {
+            TranslationTable defaultLocaleTable = translationTables.get(defaultLocale);
+            if (defaultLocaleTable != null) {
+                value = defaultLocaleTable.getTranslation(key, reversePriority, cleanup);
+            }
         }
         if (value == null && returnKeyIfNoneFound) {
             value = key;
@@ -481,48 +511,61 @@ public class ViewerResourceBundle extends ResourceBundle {
             throw new IllegalArgumentException("bundle may not be null");
         }
 
+        return resolveKey(key, k -> bundle.containsKey(k) ? bundle.getString(k) : null);
+    }
+
+    /**
+     * Looks up the given key and, if not found, its cleaned-up variants (without language part, <code>_DD</code> and <code>_UNTOKENIZED</code>
+     * suffixes, <code>MD_</code>, <code>SORT_</code> and <code>FACET_</code> prefixes).
+     *
+     * @param key Message key
+     * @param lookup Function returning the value for a key or null if the key is not found
+     * @return Translated message key; null if neither the key nor any of its variants was found
+     */
+    static String resolveKey(final String key, UnaryOperator<String> lookup) {
         String useKey = key;
-        if (bundle.containsKey(useKey)) {
-            return bundle.getString(useKey);
+        String value = lookup.apply(useKey);
+        if (value != null) {
+            return value;
         }
 
         // Remove leading _LANG_XX
         if (useKey.contains(SolrConstants.MIDFIX_LANG)) {
-            String translation = getTranslationFromBundleUsingCleanedUpKeys(useKey, bundle);
+            String translation = resolveCleanedUpKey(useKey, lookup);
             if (translation != null) {
                 return translation;
             }
             // Fall back to translations without the language part
-            useKey = useKey.replaceAll(SolrConstants.MIDFIX_LANG + "[A-Z{][A-Z}]", "");
+            useKey = PATTERN_LANG_MIDFIX.matcher(useKey).replaceAll("");
         }
 
-        return getTranslationFromBundleUsingCleanedUpKeys(useKey, bundle);
-
+        return resolveCleanedUpKey(useKey, lookup);
     }
 
     /**
      *
      * @param key
-     * @param bundle
+     * @param lookup
      * @return Translated message key
      */
-    private static String getTranslationFromBundleUsingCleanedUpKeys(String key, ResourceBundle bundle) {
-        if (bundle.containsKey(key)) {
-            return bundle.getString(key);
+    private static String resolveCleanedUpKey(String key, UnaryOperator<String> lookup) {
+        String value = lookup.apply(key);
+        if (value != null) {
+            return value;
         }
 
         // Remove trailing _DD (collection names for drill-down)
         if (key.endsWith(SolrConstants.SUFFIX_DD)) {
-            String newKey = key.replace(SolrConstants.SUFFIX_DD, "");
-            if (bundle.containsKey(newKey)) {
-                return bundle.getString(newKey);
+            value = lookup.apply(key.replace(SolrConstants.SUFFIX_DD, ""));
+            if (value != null) {
+                return value;
             }
         }
         // Remove trailing _UNTOKENIZED
         if (key.endsWith(SolrConstants.SUFFIX_UNTOKENIZED)) {
-            String newKey = key.replace(SolrConstants.SUFFIX_UNTOKENIZED, "");
-            if (bundle.containsKey(newKey)) {
-                return bundle.getString(newKey);
+            value = lookup.apply(key.replace(SolrConstants.SUFFIX_UNTOKENIZED, ""));
+            if (value != null) {
+                return value;
             }
         }
         // Remove leading MD_ (metadata fields)
@@ -531,28 +574,33 @@ public class ViewerResourceBundle extends ResourceBundle {
             if (newKey.endsWith(SolrConstants.SUFFIX_UNTOKENIZED)) {
                 newKey = newKey.replace(SolrConstants.SUFFIX_UNTOKENIZED, "");
             }
-            if (bundle.containsKey(newKey)) {
-                return bundle.getString(newKey);
+            value = lookup.apply(newKey);
+            if (value != null) {
+                return value;
             }
         }
         // Remove leading SORT_
         if (key.startsWith(SolrConstants.PREFIX_SORT)) {
             String newKey = key.replace(SolrConstants.PREFIX_SORT, "");
-            if (bundle.containsKey("MD_" + newKey)) {
-                return bundle.getString("MD_" + newKey);
+            value = lookup.apply("MD_" + newKey);
+            if (value != null) {
+                return value;
             }
-            if (bundle.containsKey(newKey)) {
-                return bundle.getString(newKey);
+            value = lookup.apply(newKey);
+            if (value != null) {
+                return value;
             }
         }
         // Remove leading FACET_
         if (key.startsWith(SolrConstants.PREFIX_FACET)) {
             String newKey = key.replace(SolrConstants.PREFIX_FACET, "");
-            if (bundle.containsKey("MD_" + newKey)) {
-                return bundle.getString("MD_" + newKey);
+            value = lookup.apply("MD_" + newKey);
+            if (value != null) {
+                return value;
             }
-            if (bundle.containsKey(newKey)) {
-                return bundle.getString(newKey);
+            value = lookup.apply(newKey);
+            if (value != null) {
+                return value;
             }
         }
 
@@ -858,6 +906,7 @@ public class ViewerResourceBundle extends ResourceBundle {
      * @param language ISO 639-1 language code
      * @return true if file updated successfully; false otherwise
      * @should preserve spaces
+     * @should make new value visible without restart
      */
     public static boolean updateLocalMessageKey(String key, String value, String language) {
         if (StringUtils.isEmpty(key)) {
@@ -906,6 +955,8 @@ public class ViewerResourceBundle extends ResourceBundle {
             FileHandler fh = new FileHandler(config);
             fh.save(file);
             logger.trace("File written: {}", file.getAbsolutePath());
+            // Make the change visible immediately instead of waiting for the file watcher
+            reloadLocalBundles(language);
             return true;
         } catch (ConfigurationException e) {
             logger.error(e.getMessage());
@@ -0,0 +1,650 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, immutable, columnar representation of the text content of an ALTO page. Words, lines and text blocks are stored in parallel arrays
+ * (contents, IDs and int coordinates) instead of a full object tree, which keeps parsed pages small enough to be cached and shared between
+ * requests. Hyphenated words are already linked via {@link #getHyphenationPartNext(int)}.
+ */
+public final class AltoPage {
+
+    /** Value used in index arrays for "no element". */
+    public static final int NONE = -1;
+
+    private static final String ELEMENT_WORD = "Word";
+    private static final String ELEMENT_LINE = "Line";
+
+    private final int width;
+    private final int height;
+
+    // Words
+    private final String[] wordContents;
+    private final String[] wordSubsContents;
+    private final String[] wordIds;
+    private final String[] wordTagRefs;
+    /** x, y, width, height per word. */
+    private final int[] wordCoords;
+    private final int[] wordLines;
+    private final int[] wordHyphenationNext;
+
+    // Lines
+    private final String[] lineIds;
+    private final int[] lineCoords;
+    /** Index of the first word of each line; has one additional element marking the end of the last line. */
+    private final int[] lineWordOffsets;
+    private final int[] lineBlocks;
+
+    // Text blocks
+    private final String[] blockIds;
+    private final int[] blockCoords;
+
+    // Named entity tags
+    private final String[] tagIds;
+    private final String[] tagTypes;
+    private final String[] tagLabels;
+    private final String[] tagUris;
+    private final Map<String, Integer> tagIndexes;
+    /** Indexes of the words referencing each tag, in document order. */
+    private final int[][] tagWordRefs;
+
+    private final long estimatedSize;
+
+    private AltoPage(Builder builder) {
+        this.width = builder.width;
+        this.height = builder.height;
+        this.wordContents = builder.wordContents.toArray(new String[0]);
+        this.wordSubsContents = builder.wordSubsContents.toArray(new String[0]);
+        this.wordIds = builder.wordIds.toArray(new String[0]);
+        this.wordTagRefs = builder.wordTagRefs.toArray(new String[0]);
+        this.wordCoords = builder.wordCoords.toArray();
+        this.wordLines = builder.wordLines.toArray();
+        this.wordHyphenationNext = builder.wordHyphenationNext;
+        this.lineIds = builder.lineIds.toArray(new String[0]);
+        this.lineCoords = builder.lineCoords.toArray();
+        this.lineWordOffsets = builder.lineWordOffsets.toArray();
+        this.lineBlocks = builder.lineBlocks.toArray();
+        this.blockIds = builder.blockIds.toArray(new String[0]);
+        this.blockCoords = builder.blockCoords.toArray();
+        this.tagIds = builder.tagIds.toArray(new String[0]);
+        this.tagTypes = builder.tagTypes.toArray(new String[0]);
+        this.tagLabels = builder.tagLabels.toArray(new String[0]);
+        this.tagUris = builder.tagUris.toArray(new String[0]);
+        Map<String, Integer> indexes = new HashMap<>(tagIds.length * 2);
+        for (int i = 0; i < tagIds.length; i++) {
+            if (tagIds[i] != null) {
+                indexes.putIfAbsent(tagIds[i], i);
+            }
+        }
+        this.tagIndexes = Collections.unmodifiableMap(indexes);
+        this.tagWordRefs = indexTagReferences();
+        this.estimatedSize = estimateSize();
+    }
+
+    /**
+     * @return Page width as given in the ALTO Page element
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Page height as given in the ALTO Page element
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return true if this page contains at least one word; false otherwise
+     */
+    public boolean hasContent() {
+        return wordContents.length > 0;
+    }
+
+    /**
+     * @return Number of words on this page
+     */
+    public int getWordCount() {
+        return wordContents.length;
+    }
+
+    /**
+     * @param index Word index
+     * @return CONTENT value of the word; never null
+     */
+    public String getWordContent(int index) {
+        return wordContents[index];
+    }
+
+    /**
+     * @param index Word index
+     * @return SUBS_CONTENT value of the word (either explicit or created via hyphenation linking); null if none
+     */
+    public String getWordSubsContent(int index) {
+        return wordSubsContents[index];
+    }
+
+    /**
+     * @param index Word index
+     * @return SUBS_CONTENT value, if available; CONTENT value otherwise
+     */
+    public String getWordSubsContentOrContent(int index) {
+        return wordSubsContents[index] != null ? wordSubsContents[index] : wordContents[index];
+    }
+
+    /**
+     * @param index Word index
+     * @return ID attribute value of the word; if missing, an identifier is constructed from the element coordinates
+     */
+    public String getWordId(int index) {
+        if (wordIds[index] != null) {
+            return wordIds[index];
+        }
+        return buildId(ELEMENT_WORD, wordCoords, index);
+    }
+
+    /**
+     * @param index Word index
+     * @return Raw TAGREFS value of the word; null if none
+     */
+    public String getWordTagRefs(int index) {
+        return wordTagRefs[index];
+    }
+
+    /**
+     * @param index Word index
+     * @return Bounds of the word
+     */
+    public Rectangle getWordBounds(int index) {
+        return getBounds(wordCoords, index);
+    }
+
+    /**
+     * @param index Word index
+     * @return Coordinates of the word in the form "x1,y1,x2,y2"
+     */
+    public String getWordCoordsAsString(int index) {
+        int offset = index * 4;
+        return new StringBuilder().append(wordCoords[offset])
+                .append(',')
+                .append(wordCoords[offset + 1])
+                .append(',')
+                .append(wordCoords[offset] + wordCoords[offset + 2])
+                .append(',')
+                .append(wordCoords[offset + 1] + wordCoords[offset + 3])
+                .toString();
+    }
+
+    /**
+     * @param index Word index
+     * @return Index of the line containing the word
+     */
+    public int getWordLine(int index) {
+        return wordLines[index];
+    }
+
+    /**
+     * @param index Word index
+     * @return Index of the second part of a hyphenated word, if the given word is the first part; {@link #NONE} otherwise
+     */
+    public int getHyphenationPartNext(int index) {
+        return wordHyphenationNext[index];
+    }
+
+    /**
+     * @return Number of lines on this page
+     */
+    public int getLineCount() {
+        return lineIds.length;
+    }
+
+    /**
+     * @param line Line index
+     * @return ID attribute value of the line; if missing, an identifier is constructed from the element coordinates
+     */
+    public String getLineId(int line) {
+        if (lineIds[line] != null) {
+            return lineIds[line];
+        }
+        return buildId(ELEMENT_LINE, lineCoords, line);
+    }
+
+    /**
+     * @param line Line index
+     * @return Bounds of the line
+     */
+    public Rectangle getLineBounds(int line) {
+        return getBounds(lineCoords, line);
+    }
+
+    /**
+     * @param line Line index
+     * @return Index of the first word in the given line
+     */
+    public int getLineFirstWord(int line) {
+        return lineWordOffsets[line];
+    }
+
+    /**
+     * @param line Line index
+     * @return Index after the last word in the given line
+     */
+    public int getLineWordEnd(int line) {
+        return lineWordOffsets[line + 1];
+    }
+
+    /**
+     * @param line Line index
+     * @return Word contents of the given line, separated by spaces
+     */
+    public String getLineContent(int line) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = lineWordOffsets[line]; i < lineWordOffsets[line + 1]; i++) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(wordContents[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param line Line index
+     * @return Index of the text block containing the given line; {@link #NONE} if the line is not contained in a text block
+     */
+    public int getLineBlock(int line) {
+        return lineBlocks[line];
+    }
+
+    /**
+     * @return Number of text blocks on this page
+     */
+    public int getBlockCount() {
+        return blockIds.length;
+    }
+
+    /**
+     * @param block Block index
+     * @return ID attribute value of the text block
+     */
+    public String getBlockId(int block) {
+        return blockIds[block];
+    }
+
+    /**
+     * @param block Block index
+     * @return Bounds of the text block
+     */
+    public Rectangle getBlockBounds(int block) {
+        return getBounds(blockCoords, block);
+    }
+
+    /**
+     * @return Number of named entity tags on this page
+     */
+    public int getTagCount() {
+        return tagIds.length;
+    }
+
+    /**
+     * @param tag Tag index
+     * @return ID of the given tag
+     */
+    public String getTagId(int tag) {
+        return tagIds[tag];
+    }
+
+    /**
+     * @param tag Tag index
+     * @return TYPE of the given tag
+     */
+    public String getTagType(int tag) {
+        return tagTypes[tag];
+    }
+
+    /**
+     * @param tag Tag index
+     * @return LABEL of the given tag
+     */
+    public String getTagLabel(int tag) {
+        return tagLabels[tag];
+    }
+
+    /**
+     * @param tag Tag index
+     * @return URI of the given tag; null if none
+     */
+    public String getTagUri(int tag) {
+        return tagUris[tag];
+    }
+
+    /**
+     * @param tagId Tag ID
+     * @return Index of the tag with the given ID; {@link #NONE} if not found
+     */
+    public int getTagIndex(String tagId) {
+        if (tagId == null) {
+            return NONE;
+        }
+        Integer ret = tagIndexes.get(tagId);
+        return ret != null ? ret : NONE;
+    }
+
+    /**
+     * @param tag Tag index
+     * @return Indexes of all words referencing the given tag, in document order
+     * @should return words referencing tag in document order
+     * @should return empty list for unreferenced tag
+     */
+    public List<Integer> getTagReferences(int tag) {
+        int[] refs = tagWordRefs[tag];
+        List<Integer> ret = new ArrayList<>(refs.length);
+        for (int wordIndex : refs) {
+            ret.add(wordIndex);
+        }
+        return ret;
+    }
+
+    /**
+     * @return Rough estimate of the heap memory occupied by this object in bytes
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * Resolves the TAGREFS of all words in a single pass, so that the words referencing a tag can be looked up without scanning the page.
+     * 
+     * @return Word indexes per tag index; tags sharing an ID share the same references
+     */
+    private int[][] indexTagReferences() {
+        IntList[] refs = new IntList[tagIds.length];
+        for (int i = 0; i < wordTagRefs.length; i++) {
+            if (wordTagRefs[i] == null || wordTagRefs[i].isBlank()) {
+                continue;
+            }
+            for (String tagRef : wordTagRefs[i].trim().split("\\s+")) {
+                int tag = getTagIndex(tagRef);
+                if (tag == NONE) {
+                    continue;
+                }
+                if (refs[tag] == null) {
+                    refs[tag] = new IntList(4);
+                }
+                // A word may list the same tag more than once
+                if (refs[tag].size() == 0 || refs[tag].get(refs[tag].size() - 1) != i) {
+                    refs[tag].add(i);
+                }
+            }
+        }
+
+        int[][] ret = new int[tagIds.length][];
+        for (int tag = 0; tag < tagIds.length; tag++) {
+            int first = tagIds[tag] != null ? tagIndexes.get(tagIds[tag]) : tag;
+            ret[tag] = refs[first] != null ? refs[first].toArray() : new int[0];
+        }
+        return ret;
+    }
+
+    private static Rectangle getBounds(int[] coords, int index) {
+        int offset = index * 4;
+        return new Rectangle(coords[offset], coords[offset + 1], coords[offset + 2], coords[offset + 3]);
+    }
+
+    /**
+     * Constructs an element ID from the element coordinates, analogous to {@link io.goobi.viewer.model.annotation.AltoAnnotationBuilder}.
+     * 
+     * @param elementName
+     * @param coords
+     * @param index
+     * @return Constructed ID
+     */
+    private static String buildId(String elementName, int[] coords, int index) {
+        int offset = index * 4;
+        return elementName + "_" + coords[offset] + "_" + coords[offset + 1] + "_" + coords[offset + 2] + "_" + coords[offset + 3];
+    }
+
+    private long estimateSize() {
+        long ret = 128;
+        ret += estimateSize(wordContents) + estimateSize(wordSubsContents) + estimateSize(wordIds) + estimateSize(wordTagRefs);
+        ret += estimateSize(lineIds) + estimateSize(blockIds);
+        ret += estimateSize(tagIds) + estimateSize(tagTypes) + estimateSize(tagLabels) + estimateSize(tagUris);
+        ret += 4L * (wordCoords.length + wordLines.length + wordHyphenationNext.length + lineCoords.length + lineWordOffsets.length
+                + lineBlocks.length + blockCoords.length);
+        ret += 48L * tagIndexes.size();
+        for (int[] refs : tagWordRefs) {
+            ret += 16 + 4L * refs.length;
+        }
+        return ret;
+    }
+
+    private static long estimateSize(String[] array) {
+        long ret = 16 + 8L * array.length;
+        for (String s : array) {
+            if (s != null) {
+                ret += 40 + s.length();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Mutable builder used by {@link AltoPageParser}.
+     */
+    static final class Builder {
+
+        private static final String HYP_PART_1 = "HypPart1";
+
+        private int width;
+        private int height;
+
+        private final List<String> wordContents = new ArrayList<>();
+        private final List<String> wordSubsContents = new ArrayList<>();
+        private final List<String> wordSubsTypes = new ArrayList<>();
+        private final List<String> wordIds = new ArrayList<>();
+        private final List<String> wordTagRefs = new ArrayList<>();
+        private final IntList wordCoords = new IntList();
+        private final IntList wordLines = new IntList();
+        private final IntList wordHyphenatedAtLineEnd = new IntList();
+        private int[] wordHyphenationNext;
+
+        private final List<String> lineIds = new ArrayList<>();
+        private final IntList lineCoords = new IntList();
+        private final IntList lineWordOffsets = new IntList();
+        private final IntList lineBlocks = new IntList();
+
+        private final List<String> blockIds = new ArrayList<>();
+        private final IntList blockCoords = new IntList();
+
+        private final List<String> tagIds = new ArrayList<>();
+        private final List<String> tagTypes = new ArrayList<>();
+        private final List<String> tagLabels = new ArrayList<>();
+        private final List<String> tagUris = new ArrayList<>();
+
+        private int currentBlock = NONE;
+
+        void setPageSize(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        void startBlock(String id, int x, int y, int w, int h) {
+            blockIds.add(id);
+            blockCoords.add(x, y, w, h);
+            currentBlock = blockIds.size() - 1;
+        }
+
+        void endBlock() {
+            currentBlock = NONE;
+        }
+
+        void startLine(String id, int x, int y, int w, int h) {
+            lineIds.add(id);
+            lineCoords.add(x, y, w, h);
+            lineWordOffsets.add(wordContents.size());
+            lineBlocks.add(currentBlock);
+        }
+
+        void addWord(String id, String content, String subsContent, String subsType, String tagRefs, int x, int y, int w, int h) {
+            if (lineIds.isEmpty()) {
+                // Words outside of lines are attached to an artificial line
+                startLine(null, x, y, w, h);
+            }
+            wordIds.add(id);
+            wordContents.add(content != null ? content : "");
+            wordSubsContents.add(subsContent);
+            wordSubsTypes.add(subsType);
+            wordTagRefs.add(tagRefs);
+            wordCoords.add(x, y, w, h);
+            wordLines.add(lineIds.size() - 1);
+            wordHyphenatedAtLineEnd.add(0);
+        }
+
+        /**
+         * Marks the last word as followed by a HYP element.
+         */
+        void markHyphen() {
+            if (!wordContents.isEmpty()) {
+                wordHyphenatedAtLineEnd.set(wordContents.size() - 1, 1);
+            }
+        }
+
+        void addTag(String id, String type, String label, String uri) {
+            tagIds.add(id);
+            tagTypes.add(type);
+            tagLabels.add(label);
+            tagUris.add(uri);
+        }
+
+        AltoPage build() {
+            lineWordOffsets.add(wordContents.size());
+            linkHyphenatedWords();
+            return new AltoPage(this);
+        }
+
+        /**
+         * Links words that are split at a line break, either explicitly marked via SUBS_TYPE="HypPart1" or implicitly via a HYP element or a
+         * trailing hyphen character on the last word of a line. If no SUBS_CONTENT is given, the merged word is set as SUBS_CONTENT on both parts.
+         */
+        private void linkHyphenatedWords() {
+            int count = wordContents.size();
+            wordHyphenationNext = new int[count];
+            for (int i = 0; i < count; i++) {
+                wordHyphenationNext[i] = NONE;
+            }
+            for (int i = 0; i < count - 1; i++) {
+                boolean explicit = HYP_PART_1.equals(wordSubsTypes.get(i));
+                boolean lastInLine = wordLines.get(i) != wordLines.get(i + 1);
+                if (!explicit && !(lastInLine && isHyphenated(i))) {
+                    continue;
+                }
+                wordHyphenationNext[i] = i + 1;
+                String subsContent = wordSubsContents.get(i);
+                if (subsContent == null) {
+                    subsContent = stripHyphen(wordContents.get(i)) + wordContents.get(i + 1);
+                    wordSubsContents.set(i, subsContent);
+                }
+                if (wordSubsContents.get(i + 1) == null) {
+                    wordSubsContents.set(i + 1, subsContent);
+                }
+            }
+        }
+
+        private boolean isHyphenated(int index) {
+            if (wordHyphenatedAtLineEnd.get(index) == 1) {
+                return true;
+            }
+            String content = wordContents.get(index);
+            return content.length() > 1 && isHyphenChar(content.charAt(content.length() - 1));
+        }
+
+        private static String stripHyphen(String content) {
+            if (!content.isEmpty() && isHyphenChar(content.charAt(content.length() - 1))) {
+                return content.substring(0, content.length() - 1);
+            }
+            return content;
+        }
+
+        private static boolean isHyphenChar(char c) {
+            return c == '-' || c == '¬' || c == '⸗' || c == '\u00AD';
+        }
+    }
+
+    /**
+     * Minimal growable int array to avoid boxing while parsing.
+     */
+    static final class IntList {
+
+        private int[] data;
+        private int size = 0;
+
+        IntList() {
+            this(64);
+        }
+
+        IntList(int capacity) {
+            this.data = new int[Math.max(1, capacity)];
+        }
+
+        void add(int value) {
+            if (size == data.length) {
+                int[] newData = new int[data.length * 2];
+                System.arraycopy(data, 0, newData, 0, size);
+                data = newData;
+            }
+            data[size++] = value;
+        }
+
+        void add(int a, int b, int c, int d) {
+            add(a);
+            add(b);
+            add(c);
+            add(d);
+        }
+
+        int get(int index) {
+            return data[index];
+        }
+
+        void set(int index, int value) {
+            data[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            int[] ret = new int[size];
+            System.arraycopy(data, 0, ret, 0, size);
+            return ret;
+        }
+    }
+}
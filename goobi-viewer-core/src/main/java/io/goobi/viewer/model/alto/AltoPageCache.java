@@ -0,0 +1,186 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Application-wide, memory-bounded LRU cache of parsed {@link AltoPage}s. Entries are keyed by the absolute file path and validated against the
+ * file's modification time and size, so that updated ALTO files are re-parsed automatically. Parsing happens outside of the cache lock.
+ */
+public class AltoPageCache {
+
+    private static final Logger logger = LogManager.getLogger(AltoPageCache.class);
+
+    private final long maxSize;
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentSize = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * 
+     * @param maxSize Maximum estimated memory footprint of all cached pages in bytes
+     */
+    public AltoPageCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the parsed page for the given ALTO file, either from the cache or by parsing the file.
+     * 
+     * @param file ALTO file
+     * @return {@link AltoPage}
+     * @throws IOException
+     * @throws XMLStreamException
+     * @should return cached page for unchanged file
+     * @should reparse file if modified
+     */
+    public AltoPage getPage(Path file) throws IOException, XMLStreamException {
+        if (file == null) {
+            throw new IllegalArgumentException("file may not be null");
+        }
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        String key = file.toAbsolutePath().toString();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        long fileSize = attrs.size();
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.lastModified == lastModified && entry.fileSize == fileSize) {
+                hits.incrementAndGet();
+                return entry.page;
+            }
+        }
+
+        misses.incrementAndGet();
+        AltoPage page = AltoPageParser.parse(file);
+        put(key, new CacheEntry(page, lastModified, fileSize));
+
+        return page;
+    }
+
+    /**
+     * 
+     * @param key
+     * @param entry
+     */
+    private void put(String key, CacheEntry entry) {
+        long size = entry.page.getEstimatedSize();
+        if (size > maxSize) {
+            logger.debug("ALTO page too large to cache: {} ({} bytes)", key, size);
+            return;
+        }
+        synchronized (entries) {
+            CacheEntry old = entries.put(key, entry);
+            if (old != null) {
+                currentSize -= old.page.getEstimatedSize();
+            }
+            currentSize += size;
+            // Evict least recently used entries
+            Iterator<CacheEntry> iterator = entries.values().iterator();
+            while (currentSize > maxSize && iterator.hasNext()) {
+                CacheEntry eldest = iterator.next();
+                currentSize -= eldest.page.getEstimatedSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached pages.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            currentSize = 0;
+        }
+    }
+
+    /**
+     * 
+     * @return Number of cached pages
+     */
+    public int getEntryCount() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 
+     * @return Estimated memory footprint of all cached pages in bytes
+     */
+    public long getCurrentSize() {
+        synchronized (entries) {
+            return currentSize;
+        }
+    }
+
+    /**
+     * @return the maxSize
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return Number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class CacheEntry {
+
+        private final AltoPage page;
+        private final long lastModified;
+        private final long fileSize;
+
+        private CacheEntry(AltoPage page, long lastModified, long fileSize) {
+            this.page = page;
+            this.lastModified = lastModified;
+            this.fileSize = fileSize;
+        }
+    }
+}
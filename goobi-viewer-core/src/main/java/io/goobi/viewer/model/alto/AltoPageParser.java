@@ -0,0 +1,223 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Streaming (StAX) parser that reads an ALTO document into an {@link AltoPage} without building a DOM tree. Only the first Page element
+ * determines the page size; words from all pages are collected.
+ */
+public final class AltoPageParser {
+
+    private static final String ELEMENT_PAGE = "Page";
+    private static final String ELEMENT_TEXTBLOCK = "TextBlock";
+    private static final String ELEMENT_TEXTLINE = "TextLine";
+    private static final String ELEMENT_STRING = "String";
+    private static final String ELEMENT_HYP = "HYP";
+    private static final String ELEMENT_NETAG = "NamedEntityTag";
+
+    private static final String ATTRIBUTE_ID = "ID";
+    private static final String ATTRIBUTE_HPOS = "HPOS";
+    private static final String ATTRIBUTE_VPOS = "VPOS";
+    private static final String ATTRIBUTE_WIDTH = "WIDTH";
+    private static final String ATTRIBUTE_HEIGHT = "HEIGHT";
+    private static final String ATTRIBUTE_CONTENT = "CONTENT";
+    private static final String ATTRIBUTE_SUBS_CONTENT = "SUBS_CONTENT";
+    private static final String ATTRIBUTE_SUBS_TYPE = "SUBS_TYPE";
+    private static final String ATTRIBUTE_TAGREFS = "TAGREFS";
+    private static final String ATTRIBUTE_TYPE = "TYPE";
+    private static final String ATTRIBUTE_LABEL = "LABEL";
+    private static final String ATTRIBUTE_URI = "URI";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     * Private constructor.
+     */
+    private AltoPageParser() {
+        //
+    }
+
+    /**
+     * 
+     * @param file ALTO file
+     * @return Parsed {@link AltoPage}
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    public static AltoPage parse(Path file) throws IOException, XMLStreamException {
+        if (file == null) {
+            throw new IllegalArgumentException("file may not be null");
+        }
+        try (InputStream is = Files.newInputStream(file)) {
+            // The reader detects the encoding from the XML declaration
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(is);
+            return parse(reader);
+        }
+    }
+
+    /**
+     * 
+     * @param alto ALTO document as a string
+     * @return Parsed {@link AltoPage}
+     * @throws XMLStreamException
+     */
+    public static AltoPage parse(String alto) throws XMLStreamException {
+        if (alto == null) {
+            throw new IllegalArgumentException("alto may not be null");
+        }
+        try (Reader r = new StringReader(alto)) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(r);
+            return parse(reader);
+        } catch (IOException e) {
+            // StringReader does not actually throw IOException
+            throw new XMLStreamException(e);
+        }
+    }
+
+    /**
+     * 
+     * @param reader
+     * @return Parsed {@link AltoPage}
+     * @throws XMLStreamException
+     */
+    private static AltoPage parse(XMLStreamReader reader) throws XMLStreamException {
+        AltoPage.Builder builder = new AltoPage.Builder();
+        boolean pageFound = false;
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case ELEMENT_STRING:
+                            builder.addWord(getAttribute(reader, ATTRIBUTE_ID), getAttribute(reader, ATTRIBUTE_CONTENT),
+                                    getAttribute(reader, ATTRIBUTE_SUBS_CONTENT), getAttribute(reader, ATTRIBUTE_SUBS_TYPE),
+                                    getAttribute(reader, ATTRIBUTE_TAGREFS), getIntAttribute(reader, ATTRIBUTE_HPOS),
+                                    getIntAttribute(reader, ATTRIBUTE_VPOS), getIntAttribute(reader, ATTRIBUTE_WIDTH),
+                                    getIntAttribute(reader, ATTRIBUTE_HEIGHT));
+                            break;
+                        case ELEMENT_TEXTLINE:
+                            builder.startLine(getAttribute(reader, ATTRIBUTE_ID), getIntAttribute(reader, ATTRIBUTE_HPOS),
+                                    getIntAttribute(reader, ATTRIBUTE_VPOS), getIntAttribute(reader, ATTRIBUTE_WIDTH),
+                                    getIntAttribute(reader, ATTRIBUTE_HEIGHT));
+                            break;
+                        case ELEMENT_HYP:
+                            builder.markHyphen();
+                            break;
+                        case ELEMENT_TEXTBLOCK:
+                            builder.startBlock(getAttribute(reader, ATTRIBUTE_ID), getIntAttribute(reader, ATTRIBUTE_HPOS),
+                                    getIntAttribute(reader, ATTRIBUTE_VPOS), getIntAttribute(reader, ATTRIBUTE_WIDTH),
+                                    getIntAttribute(reader, ATTRIBUTE_HEIGHT));
+                            break;
+                        case ELEMENT_NETAG:
+                            builder.addTag(getAttribute(reader, ATTRIBUTE_ID), getAttribute(reader, ATTRIBUTE_TYPE),
+                                    getAttribute(reader, ATTRIBUTE_LABEL), getAttribute(reader, ATTRIBUTE_URI));
+                            break;
+                        case ELEMENT_PAGE:
+                            if (!pageFound) {
+                                builder.setPageSize(getIntAttribute(reader, ATTRIBUTE_WIDTH), getIntAttribute(reader, ATTRIBUTE_HEIGHT));
+                                pageFound = true;
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && ELEMENT_TEXTBLOCK.equals(reader.getLocalName())) {
+                    builder.endBlock();
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * 
+     * @param reader
+     * @param name Attribute local name
+     * @return Attribute value; null if not found
+     */
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (name.equals(reader.getAttributeLocalName(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 
+     * @param reader
+     * @param name Attribute local name
+     * @return Attribute value as int (decimal values are truncated); 0 if not found or not a number
+     */
+    static int getIntAttribute(XMLStreamReader reader, String name) {
+        return parseInt(getAttribute(reader, name));
+    }
+
+    /**
+     * 
+     * @param value
+     * @return value as int (decimal values are truncated); 0 if blank or not a number
+     * @should parse integers correctly
+     * @should truncate decimal values
+     * @should return zero for invalid values
+     */
+    static int parseInt(String value) {
+        if (StringUtils.isBlank(value)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (int) Double.parseDouble(value);
+            } catch (NumberFormatException e1) {
+                return 0;
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // Disable access to external entities
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+}
@@ -44,6 +44,7 @@ import de.intranda.digiverso.ocr.alto.model.superclasses.GeometricData;
 import io.goobi.viewer.api.rest.AbstractApiUrlManager;
 import io.goobi.viewer.api.rest.AbstractApiUrlManager.ApiPath;
 import io.goobi.viewer.api.rest.v1.ApiUrls;
+import io.goobi.viewer.model.alto.AltoPage;
 
 /**
  * Creates an {@link de.intranda.api.iiif.presentation.v2.AnnotationList} of {@link TextualResource}s from the content of an ALTO document.
@@ -105,6 +106,33 @@ public class AltoAnnotationBuilder {
         return elementsToInclude.stream().map(element -> createAnnotation(element, pi, pageNo, target, urlOnlyTarget)).collect(Collectors.toList());
     }
 
+    /**
+     * Creates annotations from a parsed {@link AltoPage}. Only line and word granularity are supported; other granularities fall back to lines.
+     *
+     * @param alto Parsed ALTO page
+     * @param pi
+     * @param pageNo
+     * @param target
+     * @param granularity a {@link io.goobi.viewer.model.annotation.AltoAnnotationBuilder.Granularity} object.
+     * @param urlOnlyTarget a boolean.
+     * @return a {@link java.util.List} object.
+     */
+    public List<AbstractAnnotation> createAnnotations(AltoPage alto, String pi, Integer pageNo, IResource target, Granularity granularity,
+            boolean urlOnlyTarget) {
+        List<AbstractAnnotation> ret = new ArrayList<>();
+        if (granularity == Granularity.WORD) {
+            for (int i = 0; i < alto.getWordCount(); i++) {
+                ret.add(createAnnotation(alto.getWordId(i), alto.getWordContent(i), alto.getWordBounds(i), pi, pageNo, target, urlOnlyTarget));
+            }
+        } else {
+            for (int i = 0; i < alto.getLineCount(); i++) {
+                ret.add(createAnnotation(alto.getLineId(i), alto.getLineContent(i), alto.getLineBounds(i), pi, pageNo, target, urlOnlyTarget));
+            }
+        }
+
+        return ret;
+    }
+
     /**
      * <p>
      * createAnnotations.
@@ -136,15 +164,32 @@ public class AltoAnnotationBuilder {
      */
     public AbstractAnnotation createAnnotation(GeometricData element, String pi, Integer pageNo, IResource canvas, boolean urlOnlyTarget) {
         String id = Optional.ofNullable(element.getId()).orElse(buildId(element));
+        return createAnnotation(id, element.getContent(), element.getBounds(), pi, pageNo, canvas, urlOnlyTarget);
+    }
+
+    /**
+     * Creates an annotation for an ALTO element given by its ID, text content and bounds.
+     *
+     * @param id ALTO element ID
+     * @param content Text content of the element
+     * @param bounds Element coordinates
+     * @param pi
+     * @param pageNo
+     * @param canvas a {@link de.intranda.api.annotation.IResource} object.
+     * @param urlOnlyTarget a boolean.
+     * @return a {@link de.intranda.api.annotation.IAnnotation} object.
+     */
+    public AbstractAnnotation createAnnotation(String id, String content, Rectangle bounds, String pi, Integer pageNo, IResource canvas,
+            boolean urlOnlyTarget) {
         AbstractAnnotation anno;
         if ("oa".equalsIgnoreCase(format)) {
             anno = new OpenAnnotation(createAnnotationId(pi, pageNo, id));
-            anno.setBody(new TextualResource(element.getContent()));
+            anno.setBody(new TextualResource(content));
         } else {
             anno = new WebAnnotation(createAnnotationId(pi, pageNo, id));
-            anno.setBody(new de.intranda.api.annotation.wa.TextualResource(element.getContent()));
+            anno.setBody(new de.intranda.api.annotation.wa.TextualResource(content));
         }
-        anno.setTarget(createSpecificResource(canvas, element.getBounds(), urlOnlyTarget));
+        anno.setTarget(createSpecificResource(canvas, bounds, urlOnlyTarget));
         anno.setMotivation(Motivation.PAINTING);
         return anno;
     }
@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.annotation;
+
+import java.time.Duration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
+import io.goobi.viewer.exceptions.DAOException;
+
+/**
+ * Application-wide cache of {@link RecordAnnotations}, used by the IIIF builders and annotation REST endpoints so that a manifest or
+ * annotation list of a record only requires one query for comments and one for crowdsourcing annotations. Entries are discarded when a
+ * comment or annotation of the record is saved or deleted, or after the configured time to live. A time to live of zero disables caching.
+ */
+public class RecordAnnotationCache {
+
+    private static final Logger logger = LogManager.getLogger(RecordAnnotationCache.class);
+
+    private final ApplicationCache<String, RecordAnnotations> cache;
+    private final boolean enabled;
+
+    /**
+     * Unchecked wrapper for exceptions thrown while loading annotations inside the cache loader.
+     */
+    private static final class AnnotationLoadException extends RuntimeException {
+
+        private static final long serialVersionUID = 4390123588473260522L;
+
+        private AnnotationLoadException(DAOException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     *
+     * @param maxSize Maximum number of cached records
+     * @param timeToLive Maximum age of cached annotations; zero disables caching
+     */
+    public RecordAnnotationCache(int maxSize, Duration timeToLive) {
+        this.cache = new ApplicationCache<>("annotations", maxSize, timeToLive, 0, null);
+        this.enabled = timeToLive != null && !timeToLive.isZero() && !timeToLive.isNegative();
+    }
+
+    /**
+     * Returns all comments and crowdsourcing annotations of the given record.
+     *
+     * @param pi Record identifier
+     * @return {@link RecordAnnotations}
+     * @throws DAOException
+     * @should load annotations only once
+     * @should reload annotations after invalidation
+     */
+    public RecordAnnotations get(String pi) throws DAOException {
+        if (pi == null) {
+            throw new IllegalArgumentException("pi may not be null");
+        }
+        if (!enabled) {
+            return RecordAnnotations.load(pi, DataManager.getInstance().getDao());
+        }
+        try {
+            return cache.get(pi, k -> {
+                try {
+                    return RecordAnnotations.load(k, DataManager.getInstance().getDao());
+                } catch (DAOException e) {
+                    throw new AnnotationLoadException(e);
+                }
+            });
+        } catch (AnnotationLoadException e) {
+            throw (DAOException) e.getCause();
+        }
+    }
+
+    /**
+     * Removes the annotations of the given record. Must be called whenever a comment or annotation of the record is saved or deleted.
+     *
+     * @param pi Record identifier
+     */
+    public void invalidate(String pi) {
+        if (pi != null) {
+            cache.invalidate(pi);
+            logger.trace("Removed cached annotations of {}", pi);
+        }
+    }
+
+    /**
+     * Removes the annotations of all records.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Usage statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.annotation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.model.annotation.comments.Comment;
+
+/**
+ * All comments and crowdsourcing annotations of a record, loaded with one query each and grouped by page order in memory. Instances are
+ * immutable and may be shared between threads via {@link RecordAnnotationCache}; the contained entities must not be modified.
+ */
+public class RecordAnnotations {
+
+    private final String pi;
+    private final List<Comment> comments;
+    /** Comments mapped by target page order, sorted */
+    private final Map<Integer, List<Comment>> commentsByPage;
+    private final List<CrowdsourcingAnnotation> annotations;
+    /** Annotations mapped by target page order; annotations targeting the whole record are mapped to null */
+    private final Map<Integer, List<CrowdsourcingAnnotation>> annotationsByPage;
+
+    /**
+     *
+     * @param pi
+     * @param comments
+     * @param annotations
+     */
+    public RecordAnnotations(String pi, List<Comment> comments, List<CrowdsourcingAnnotation> annotations) {
+        this.pi = pi;
+        this.comments = Collections.unmodifiableList(new ArrayList<>(comments));
+        this.annotations = Collections.unmodifiableList(new ArrayList<>(annotations));
+
+        Map<Integer, List<Comment>> tempComments = new TreeMap<>();
+        for (Comment comment : this.comments) {
+            if (comment.getTargetPageOrder() != null) {
+                tempComments.computeIfAbsent(comment.getTargetPageOrder(), k -> new ArrayList<>()).add(comment);
+            }
+        }
+        tempComments.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        this.commentsByPage = Collections.unmodifiableMap(tempComments);
+
+        Map<Integer, List<CrowdsourcingAnnotation>> tempAnnotations = new HashMap<>();
+        for (CrowdsourcingAnnotation annotation : this.annotations) {
+            tempAnnotations.computeIfAbsent(annotation.getTargetPageOrder(), k -> new ArrayList<>()).add(annotation);
+        }
+        tempAnnotations.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        this.annotationsByPage = Collections.unmodifiableMap(tempAnnotations);
+    }
+
+    /**
+     * Loads all comments and crowdsourcing annotations of the given record.
+     *
+     * @param pi Record identifier
+     * @param dao
+     * @return {@link RecordAnnotations}
+     * @throws DAOException
+     */
+    public static RecordAnnotations load(String pi, IDAO dao) throws DAOException {
+        return new RecordAnnotations(pi, dao.getCommentsForWork(pi), dao.getAnnotationsForWork(pi));
+    }
+
+    /**
+     * @return the pi
+     */
+    public String getPi() {
+        return pi;
+    }
+
+    /**
+     * @return All comments of the record
+     */
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    /**
+     * @param pageOrder
+     * @return Comments on the given page
+     * @should return comments of given page only
+     * @should return empty list if page has no comments
+     */
+    public List<Comment> getComments(int pageOrder) {
+        return commentsByPage.getOrDefault(pageOrder, Collections.emptyList());
+    }
+
+    /**
+     * @return Sorted page orders of all pages which have comments
+     */
+    public List<Integer> getPagesWithComments() {
+        return new ArrayList<>(commentsByPage.keySet());
+    }
+
+    /**
+     * @return All crowdsourcing annotations of the record, including those on single pages
+     */
+    public List<CrowdsourcingAnnotation> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * @param pageOrder Page order; null for annotations targeting the whole record
+     * @return Annotations on the given page
+     * @should return record annotations for null
+     */
+    public List<CrowdsourcingAnnotation> getAnnotations(Integer pageOrder) {
+        return annotationsByPage.getOrDefault(pageOrder, Collections.emptyList());
+    }
+
+    /**
+     * @return Annotations mapped by page order; annotations targeting the whole record are mapped to null
+     */
+    public Map<Integer, List<CrowdsourcingAnnotation>> getAnnotationsByPage() {
+        return annotationsByPage;
+    }
+}
@@ -56,6 +56,7 @@ public class SqlAnnotationDeleter implements AnnotationDeleter {
             } else {
                 throw new IllegalArgumentException("Deleting not implemented for annotation class " + annotation.getClass());
             }
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(annotation.getTargetPI());
         } catch (DAOException e) {
             throw new IOException(e);
         }
@@ -73,6 +73,7 @@ public class SqlAnnotationSaver implements AnnotationSaver {
             } else {
                 throw new IllegalArgumentException("Saving not implemented for class " + annotation.getClass());
             }
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(annotation.getTargetPI());
         }
     }
 
@@ -21,45 +21,34 @@
  */
 package io.goobi.viewer.model.citation;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import de.undercouch.citeproc.CSL;
-import de.undercouch.citeproc.csl.CSLItemData;
 import de.undercouch.citeproc.csl.CSLType;
-import de.undercouch.citeproc.output.Bibliography;
+import io.goobi.viewer.controller.DataManager;
 
 public class Citation {
 
-    private static final Logger logger = LogManager.getLogger(Citation.class);
-
-    private String id;
+    private final String id;
+    private final String style;
     private final CSLType type;
     private final Map<String, List<String>> fields;
-    private final CSL processor;
-    private final CitationDataProvider itemDataProvider;
 
     /**
      * Constructor.
      *
      * @param id
-     * @param processor
-     * @param itemDataProvider
+     * @param style Citation style
      * @param type
      * @param fields Map containing metadata fields
      */
-    public Citation(String id, CSL processor, CitationDataProvider itemDataProvider, CSLType type, Map<String, List<String>> fields) {
+    public Citation(String id, String style, CSLType type, Map<String, List<String>> fields) {
         if (id == null) {
             throw new IllegalArgumentException("id may not be null");
         }
-        if (processor == null) {
-            throw new IllegalArgumentException("processor may not be null");
-        }
-        if (itemDataProvider == null) {
-            throw new IllegalArgumentException("itemDataProvider may not be null");
+        if (style == null) {
+            throw new IllegalArgumentException("style may not be null");
         }
         if (type == null) {
             throw new IllegalArgumentException("type may not be null");
@@ -69,42 +58,49 @@ public class Citation {
         }
 
         this.id = id;
-        this.processor = processor;
-        this.itemDataProvider = itemDataProvider;
+        this.style = style;
         this.type = type;
         this.fields = fields;
     }
 
     /**
+     * Renders this citation using a processor from the shared {@link CitationProcessorPool}.
      *
      * @param outputFormat
-     * @param items
-     * @return {@link Bibliography}
+     * @return Citation string
+     * @throws IOException If the style cannot be loaded
+     * @should return apa html citation correctly
+     * @should return apa html plaintext correctly
      */
-    Bibliography makeAdhocBibliography(String outputFormat, CSLItemData... items) {
-        // logger.trace("makeAdhocBibliography"); //NOSONAR Debug
-        synchronized (processor) {
-            processor.reset();
-            processor.setOutputFormat(outputFormat);
-            String[] ids = new String[items.length];
-            for (int i = 0; i < items.length; ++i) {
-                ids[i] = items[i].getId();
-                // logger.trace("Item data id: {}", items[i].getId()); //NOSONAR Debug
-            }
-            processor.registerCitationItems(ids);
+    public String getCitationString(String outputFormat) throws IOException {
+        return DataManager.getInstance().getCitationProcessorPool().getCitationStrings(outputFormat, List.of(this)).getOrDefault(id, "");
+    }
 
-            return processor.makeBibliography();
-        }
+    /**
+     * @return the id
+     */
+    public String getId() {
+        return id;
     }
 
     /**
-     * @param outputFormat
-     * @return Citation string
-     * @should return apa html citation correctly
-     * @should return apa html plaintext correctly
+     * @return the style
+     */
+    public String getStyle() {
+        return style;
+    }
+
+    /**
+     * @return the type
+     */
+    public CSLType getType() {
+        return type;
+    }
+
+    /**
+     * @return the fields
      */
-    public String getCitationString(String outputFormat) {
-        CSLItemData itemData = itemDataProvider.addItemData(id, fields, type);
-        return makeAdhocBibliography(outputFormat, itemData).makeString().trim();
+    public Map<String, List<String>> getFields() {
+        return fields;
     }
 }
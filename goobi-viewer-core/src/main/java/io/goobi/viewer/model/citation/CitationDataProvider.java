@@ -188,6 +188,13 @@ public class CitationDataProvider implements ItemDataProvider {
         return item;
     }
 
+    /**
+     * Removes all added item data.
+     */
+    public void clear() {
+        itemDataMap.clear();
+    }
+
     /* (non-Javadoc)
      * @see de.undercouch.citeproc.ItemDataProvider#retrieveItem(java.lang.String)
      */
@@ -0,0 +1,265 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.citation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import de.undercouch.citeproc.CSL;
+import de.undercouch.citeproc.csl.CSLItemData;
+import de.undercouch.citeproc.csl.CSLType;
+
+/**
+ * Application-wide pool of citation processors. A {@link CSL} instance is not thread-safe and expensive to create, so each style has a
+ * bounded number of processors that are lent to one thread at a time. Processors are created on demand up to the configured maximum; further
+ * requests wait until a processor is returned.
+ */
+public class CitationProcessorPool {
+
+    private static final Logger logger = LogManager.getLogger(CitationProcessorPool.class);
+
+    private static final String WARM_UP_ID = "warmUp";
+
+    private static final long BORROW_WAIT_MILLIS = 1000;
+
+    /** Maximum number of processors per style */
+    private final int maxProcessorsPerStyle;
+    /** Pools for each used style */
+    private final Map<String, StylePool> pools = new ConcurrentHashMap<>();
+
+    /**
+     *
+     * @param maxProcessorsPerStyle Maximum number of processors per style
+     */
+    public CitationProcessorPool(int maxProcessorsPerStyle) {
+        this.maxProcessorsPerStyle = Math.max(1, maxProcessorsPerStyle);
+    }
+
+    /**
+     * Creates one processor for each of the given styles and renders a sample citation with it, so that the first request using a style does
+     * not have to wait for the style to be loaded.
+     *
+     * @param styles Citation styles
+     * @should create one processor per style
+     */
+    public void warmUp(List<String> styles) {
+        if (styles == null) {
+            return;
+        }
+
+        Map<String, List<String>> fields = new HashMap<>();
+        fields.put(CitationDataProvider.AUTHOR, Collections.singletonList("Doe, Jane"));
+        fields.put(CitationDataProvider.TITLE, Collections.singletonList("Title"));
+        fields.put(CitationDataProvider.ISSUED, Collections.singletonList("2000"));
+        for (String style : styles) {
+            try {
+                long start = System.currentTimeMillis();
+                getCitationStrings("text", Collections.singletonList(new Citation(WARM_UP_ID, style, CSLType.BOOK, fields)));
+                logger.debug("Citation style '{}' loaded in {} ms", style, System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                logger.error("Could not load citation style '{}': {}", style, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Renders the given citations. All citations using the same style are rendered with a single borrowed processor. Each citation is
+     * rendered on its own, so the result does not depend on the other citations in the batch (no disambiguation or numbering across
+     * citations).
+     *
+     * @param outputFormat Output format (html or text)
+     * @param citations Citations to render
+     * @return Map containing citation strings for each citation ID, in the order of the given citations
+     * @throws IOException If a style cannot be loaded
+     * @should render citations correctly
+     * @should render citations with different styles
+     * @should return empty map if citations empty
+     * @should render citations concurrently
+     */
+    public Map<String, String> getCitationStrings(String outputFormat, Collection<Citation> citations) throws IOException {
+        if (citations == null || citations.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<Citation>> citationsByStyle = new LinkedHashMap<>();
+        for (Citation citation : citations) {
+            citationsByStyle.computeIfAbsent(citation.getStyle(), k -> new ArrayList<>()).add(citation);
+        }
+
+        Map<String, String> rendered = new HashMap<>(citations.size());
+        for (Map.Entry<String, List<Citation>> entry : citationsByStyle.entrySet()) {
+            rendered.putAll(render(entry.getKey(), outputFormat, entry.getValue()));
+        }
+
+        // Restore order of the given citations
+        Map<String, String> ret = new LinkedHashMap<>(citations.size());
+        for (Citation citation : citations) {
+            String value = rendered.get(citation.getId());
+            if (value != null) {
+                ret.put(citation.getId(), value);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     *
+     * @param style
+     * @param outputFormat
+     * @param citations Citations using the given style
+     * @return Map containing citation strings for each citation ID
+     * @throws IOException
+     */
+    private Map<String, String> render(String style, String outputFormat, List<Citation> citations) throws IOException {
+        StylePool pool = pools.computeIfAbsent(style, StylePool::new);
+        PooledProcessor processor = pool.borrow();
+        try {
+            CSL csl = processor.getCsl();
+            CitationDataProvider itemDataProvider = processor.getItemDataProvider();
+            Map<String, String> ret = new HashMap<>(citations.size());
+            for (Citation citation : citations) {
+                CSLItemData itemData = itemDataProvider.addItemData(citation.getId(), citation.getFields(), citation.getType());
+                // reset() also restores the default output format
+                csl.reset();
+                csl.setOutputFormat(outputFormat);
+                csl.registerCitationItems(itemData.getId());
+                ret.put(citation.getId(), csl.makeBibliography().makeString().trim());
+            }
+
+            return ret;
+        } finally {
+            // Do not keep item data of past requests
+            processor.getItemDataProvider().clear();
+            pool.giveBack(processor);
+        }
+    }
+
+    /**
+     *
+     * @param style
+     * @return Number of processors created for the given style
+     */
+    int getProcessorCount(String style) {
+        StylePool pool = pools.get(style);
+        return pool != null ? pool.created.get() : 0;
+    }
+
+    /**
+     * @return the maxProcessorsPerStyle
+     */
+    public int getMaxProcessorsPerStyle() {
+        return maxProcessorsPerStyle;
+    }
+
+    /**
+     * Processors for one style.
+     */
+    private class StylePool {
+
+        private final String style;
+        private final BlockingQueue<PooledProcessor> idle = new LinkedBlockingQueue<>();
+        private final AtomicInteger created = new AtomicInteger();
+
+        StylePool(String style) {
+            this.style = style;
+        }
+
+        /**
+         *
+         * @return Idle or newly created processor
+         * @throws IOException If the style cannot be loaded
+         */
+        PooledProcessor borrow() throws IOException {
+            while (true) {
+                PooledProcessor ret = idle.poll();
+                if (ret != null) {
+                    return ret;
+                }
+                if (created.incrementAndGet() <= maxProcessorsPerStyle) {
+                    try {
+                        CitationDataProvider itemDataProvider = new CitationDataProvider();
+                        return new PooledProcessor(new CSL(itemDataProvider, style), itemDataProvider);
+                    } catch (IOException | RuntimeException e) {
+                        created.decrementAndGet();
+                        throw e;
+                    }
+                }
+                created.decrementAndGet();
+                // Wait for a processor to be returned; check again periodically in case a processor could not be created by another thread
+                try {
+                    ret = idle.poll(BORROW_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a citation processor for style " + style, e);
+                }
+                if (ret != null) {
+                    return ret;
+                }
+            }
+        }
+
+        /**
+         *
+         * @param processor
+         */
+        void giveBack(PooledProcessor processor) {
+            idle.offer(processor);
+        }
+    }
+
+    /**
+     * Citation processor together with its item data provider.
+     */
+    private static class PooledProcessor {
+
+        private final CSL csl;
+        private final CitationDataProvider itemDataProvider;
+
+        PooledProcessor(CSL csl, CitationDataProvider itemDataProvider) {
+            this.csl = csl;
+            this.itemDataProvider = itemDataProvider;
+        }
+
+        CSL getCsl() {
+            return csl;
+        }
+
+        CitationDataProvider getItemDataProvider() {
+            return itemDataProvider;
+        }
+    }
+}
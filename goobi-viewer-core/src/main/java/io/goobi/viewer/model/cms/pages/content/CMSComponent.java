@@ -38,6 +38,7 @@ import javax.faces.context.FacesContext;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.model.cms.pages.CMSPage;
 import io.goobi.viewer.model.jsf.DynamicContentBuilder;
@@ -283,7 +284,13 @@ public class CMSComponent implements Comparable<CMSComponent>, Serializable {
             DynamicContentBuilder builder = new DynamicContentBuilder();
             this.uiComponent = FacesContext.getCurrentInstance().getApplication().createComponent(HtmlPanelGroup.COMPONENT_TYPE);
             this.uiComponent.setId("cms_" + FilenameUtils.getBaseName(this.templateFilename) + "_" + Optional.ofNullable(this.order).orElse(0));
-            UIComponent component = builder.build(this.getJsfComponent(), this.uiComponent, Collections.emptyMap());
+            UIComponent parent = this.uiComponent;
+            if (DataManager.getInstance().getCmsFragmentCache().getTtl(this) > 0) {
+                parent = new CMSFragmentPanel(this);
+                parent.setId(this.uiComponent.getId() + "_cache");
+                this.uiComponent.getChildren().add(parent);
+            }
+            UIComponent component = builder.build(this.getJsfComponent(), parent, Collections.emptyMap());
             component.getAttributes().put("component", this);
             for (CMSComponentAttribute attribute : this.getAttributes().values()) {
                 component.getAttributes().put(attribute.getName(), attribute.isBooleanValue() ? attribute.getBooleanValue() : attribute.getValue());
@@ -0,0 +1,266 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.cms.pages.content;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.faces.context.FacesContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
+import io.goobi.viewer.managedbeans.utils.BeanUtils;
+import io.goobi.viewer.model.cms.pages.CMSPage;
+import io.goobi.viewer.model.search.SearchHelper;
+
+/**
+ * Application-wide cache of the rendered markup of CMS page components for anonymous visitors. Fragments are keyed by page, component,
+ * language, access context and request URL, so all anonymous visitors of a page with the same access rights share the same markup. The
+ * time to live is configured per content type (simple class name of the {@link CMSContent}); a component is only cached if all of its
+ * content types allow it. Content depending on the session's search state is not cached unless explicitly configured. The whole cache is
+ * cleared when a CMS page, slider or collection is saved or deleted and when the index is updated.
+ */
+public class CMSFragmentCache {
+
+    private static final Logger logger = LogManager.getLogger(CMSFragmentCache.class);
+
+    /** Content types which depend on session state and are not cached unless a time to live is configured for them */
+    static final Set<String> UNCACHED_CONTENT_TYPES = Set.of("CMSRecordListContent", "CMSSearchContent", "CMSSearchFacetsContent");
+
+    /** Prefix of the request attributes holding the markup chosen for a component during page load */
+    private static final String REQUEST_ATTRIBUTE_PREFIX = "cmsFragment:";
+
+    private final ApplicationCache<String, String> cache;
+    private final boolean enabled;
+    private final int defaultTtl;
+    private final Map<String, Integer> contentTypeTtls;
+
+    /**
+     *
+     * @param enabled If false, no fragments are cached
+     * @param maxSize Maximum number of cached fragments
+     * @param defaultTtl Time to live in seconds for content types without configured value
+     * @param contentTypeTtls Time to live in seconds per content type; 0 disables caching for that type
+     */
+    public CMSFragmentCache(boolean enabled, int maxSize, int defaultTtl, Map<String, Integer> contentTypeTtls) {
+        this.cache = new ApplicationCache<>("cmsFragments", maxSize, Duration.ofSeconds(Math.max(defaultTtl, 0)), 0, null);
+        this.enabled = enabled;
+        this.defaultTtl = defaultTtl;
+        this.contentTypeTtls = contentTypeTtls != null ? new HashMap<>(contentTypeTtls) : Collections.emptyMap();
+    }
+
+    /**
+     * @return true if fragments may be cached; false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the time to live of the rendered markup of the given component.
+     *
+     * @param component
+     * @return Time to live in seconds; 0 if the component may not be cached
+     */
+    public int getTtl(CMSComponent component) {
+        if (!enabled || component == null) {
+            return 0;
+        }
+        return getTtl(component.getContentItems()
+                .stream()
+                .map(CMSContentItem::getContent)
+                .map(content -> content.getClass().getSimpleName())
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     *
+     * @param contentTypes Simple class names of the contents of a component
+     * @return Smallest time to live of the given content types in seconds; 0 if any of them may not be cached
+     * @should return default ttl for components without content
+     * @should return smallest configured ttl
+     * @should return zero for uncached content types unless configured
+     */
+    int getTtl(Collection<String> contentTypes) {
+        int ret = defaultTtl;
+        for (String contentType : contentTypes) {
+            int ttl = contentTypeTtls.getOrDefault(contentType, UNCACHED_CONTENT_TYPES.contains(contentType) ? 0 : defaultTtl);
+            ret = Math.min(ret, ttl);
+        }
+        return Math.max(ret, 0);
+    }
+
+    /**
+     * Returns the key under which the markup of the given component is cached for the current request. Only non-postback GET requests of
+     * visitors who are not logged in, for published components on published pages, are served from the cache. Visitors whose access rights
+     * differ, e.g. due to IP based licenses, receive different keys.
+     *
+     * @param component
+     * @param context
+     * @return Cache key; null if the component may not be served from the cache for this request
+     */
+    public String getKey(CMSComponent component, FacesContext context) {
+        if (getTtl(component) <= 0 || context == null || context.isPostback()) {
+            return null;
+        }
+        if (!(context.getExternalContext().getRequest() instanceof HttpServletRequest request) || !"GET".equals(request.getMethod())
+                || BeanUtils.getUserFromRequest(request) != null) {
+            return null;
+        }
+        CMSPage page = component.getOwningPage();
+        if (page == null || page.getId() == null || !page.isPublished() || !component.isPublished() || component.isPrivate()) {
+            return null;
+        }
+        String accessContext = getAccessContext(request);
+        if (accessContext == null) {
+            return null;
+        }
+        Locale locale = BeanUtils.getLocale();
+        return buildKey(page.getId(), component.getPersistenceId(), component.getOrder(), locale != null ? locale.getLanguage() : "",
+                accessContext, request.getRequestURI(), request.getQueryString());
+    }
+
+    /**
+     * Returns a hash of the personal Solr filter query suffix of the given request's session, which reflects the licenses granted to the
+     * visitor's IP address and client application.
+     *
+     * @param request
+     * @return Hash of the filter query suffix; null if the session has none yet
+     * @should return null if no suffix in session
+     * @should return different values for different suffixes
+     */
+    static String getAccessContext(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null || !(session.getAttribute(SearchHelper.PARAM_NAME_FILTER_QUERY_SUFFIX) instanceof String suffix)) {
+            return null;
+        }
+        return StringTools.generateHash(suffix);
+    }
+
+    /**
+     *
+     * @param pageId
+     * @param componentId
+     * @param order
+     * @param language
+     * @param accessContext
+     * @param requestUri
+     * @param queryString
+     * @return Cache key
+     * @should include all parameters
+     */
+    static String buildKey(long pageId, long componentId, Integer order, String language, String accessContext, String requestUri,
+            String queryString) {
+        StringBuilder sb = new StringBuilder().append(pageId)
+                .append('|')
+                .append(componentId)
+                .append('|')
+                .append(order)
+                .append('|')
+                .append(language)
+                .append('|')
+                .append(accessContext)
+                .append('|')
+                .append(requestUri);
+        if (queryString != null) {
+            sb.append('?').append(queryString);
+        }
+        return sb.toString();
+    }
+
+    /**
+     *
+     * @param key
+     * @param ttl Time to live in seconds
+     * @return Cached markup if present and not older than ttl
+     */
+    public Optional<String> get(String key, int ttl) {
+        return cache.getIfPresent(key, Duration.ofSeconds(ttl));
+    }
+
+    /**
+     *
+     * @param key
+     * @param markup
+     */
+    public void put(String key, String markup) {
+        cache.put(key, markup);
+    }
+
+    /**
+     * Looks up the cached markup of the given component once during page load. If present, it is kept for the rest of the request, so that
+     * the component is rendered from it even if the cache entry expires before rendering, and its contents need not be prepared.
+     *
+     * @param component
+     * @param context
+     * @return true if the component will be rendered from cached markup; false if its contents must be prepared
+     */
+    public boolean captureCachedMarkup(CMSComponent component, FacesContext context) {
+        String key = getKey(component, context);
+        if (key == null) {
+            return false;
+        }
+        Optional<String> markup = get(key, getTtl(component));
+        markup.ifPresent(m -> context.getExternalContext().getRequestMap().put(REQUEST_ATTRIBUTE_PREFIX + key, m));
+        return markup.isPresent();
+    }
+
+    /**
+     *
+     * @param key
+     * @param context
+     * @return Markup captured for the given key during page load of the current request
+     */
+    public Optional<String> getCapturedMarkup(String key, FacesContext context) {
+        return Optional.ofNullable((String) context.getExternalContext().getRequestMap().get(REQUEST_ATTRIBUTE_PREFIX + key));
+    }
+
+    /**
+     * Removes all cached fragments.
+     */
+    public void invalidateAll() {
+        if (cache.size() > 0) {
+            logger.debug("Removing {} cached CMS fragments", cache.size());
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Usage statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.cms.pages.content;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Optional;
+
+import javax.faces.component.UIPanel;
+import javax.faces.context.FacesContext;
+import javax.faces.context.ResponseWriter;
+
+import io.goobi.viewer.controller.DataManager;
+
+/**
+ * Panel wrapping the frontend component of a {@link CMSComponent}. Renders the children once and serves the markup from the
+ * {@link CMSFragmentCache} to later requests with the same cache key, if it was captured during page load. Markup containing a form view
+ * state is never cached.
+ */
+public class CMSFragmentPanel extends UIPanel {
+
+    /** Not part of the component state; after a postback the panel renders its children without caching */
+    private transient CMSComponent cmsComponent;
+
+    /**
+     * Constructor for state restoration
+     */
+    public CMSFragmentPanel() {
+        super();
+    }
+
+    /**
+     * @param cmsComponent The CMS component rendered by the children of this panel
+     */
+    public CMSFragmentPanel(CMSComponent cmsComponent) {
+        super();
+        this.cmsComponent = cmsComponent;
+    }
+
+    @Override
+    public boolean getRendersChildren() {
+        return true;
+    }
+
+    @Override
+    public void encodeChildren(FacesContext context) throws IOException {
+        CMSFragmentCache cache = DataManager.getInstance().getCmsFragmentCache();
+        String key = cmsComponent != null ? cache.getKey(cmsComponent, context) : null;
+        if (key == null) {
+            super.encodeChildren(context);
+            return;
+        }
+
+        ResponseWriter writer = context.getResponseWriter();
+        // Close any pending start element before writing raw markup
+        writer.writeText("", null);
+        // Whether cached markup is used was decided during page load; unless it was, the children have been prepared and must be rendered
+        Optional<String> cached = cache.getCapturedMarkup(key, context);
+        if (cached.isPresent()) {
+            writer.write(cached.get());
+            return;
+        }
+
+        StringWriter buffer = new StringWriter();
+        context.setResponseWriter(writer.cloneWithWriter(buffer));
+        try {
+            super.encodeChildren(context);
+            context.getResponseWriter().flush();
+        } finally {
+            context.setResponseWriter(writer);
+        }
+        String markup = buffer.toString();
+        if (!markup.contains("faces.ViewState")) {
+            cache.put(key, markup);
+        }
+        writer.write(markup);
+    }
+}
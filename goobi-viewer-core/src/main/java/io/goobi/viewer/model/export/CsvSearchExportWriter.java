@@ -0,0 +1,103 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes search export rows as RFC 4180 CSV (UTF-8, CRLF line endings). The first line contains the field labels.
+ */
+public class CsvSearchExportWriter implements SearchExportWriter {
+
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer writer;
+
+    /**
+     * @param os Target stream
+     */
+    public CsvSearchExportWriter(OutputStream os) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeHeader(String query, List<String> fields, List<String> labels) throws IOException {
+        writeLine(labels);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeRow(List<String> values) throws IOException {
+        writeLine(values);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); ++i) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values.get(i)));
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    /**
+     *
+     * @param value
+     * @return value enclosed in double quotes if it contains separators, quotes or line breaks; empty string if null
+     * @should return empty string if value null
+     * @should leave plain values unchanged
+     * @should quote values containing separators or line breaks
+     * @should double contained quotes
+     */
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
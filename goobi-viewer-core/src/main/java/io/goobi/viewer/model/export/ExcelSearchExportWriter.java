@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+/**
+ * Writes search export rows into an Excel sheet. The workbook only keeps a small window of rows in memory and flushes older rows to disk.
+ */
+public class ExcelSearchExportWriter implements SearchExportWriter {
+
+    private static final int ROW_ACCESS_WINDOW = 25;
+
+    private final SXSSFWorkbook workbook;
+    private final OutputStream os;
+    private SXSSFSheet sheet;
+    private int currentRowIndex = 0;
+
+    /**
+     * Creates a writer that populates the given workbook. The caller remains responsible for writing and closing the workbook.
+     *
+     * @param workbook
+     */
+    public ExcelSearchExportWriter(SXSSFWorkbook workbook) {
+        this.workbook = workbook;
+        this.os = null;
+    }
+
+    /**
+     * Creates a writer with its own workbook, which is written to the given stream when the writer is closed.
+     *
+     * @param os Target stream
+     */
+    public ExcelSearchExportWriter(OutputStream os) {
+        this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.os = os;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeHeader(String query, List<String> fields, List<String> labels) throws IOException {
+        sheet = workbook.createSheet("Goobi_viewer_search");
+        CellStyle styleBold = workbook.createCellStyle();
+        Font font = workbook.createFont();
+        font.setFontHeightInPoints((short) 10);
+        font.setBold(true);
+        styleBold.setFont(font);
+
+        // Query row
+        SXSSFRow qRow = sheet.createRow(currentRowIndex++);
+        SXSSFCell qCell = qRow.createCell(0);
+        qCell.setCellStyle(styleBold);
+        qCell.setCellValue(new XSSFRichTextString("Query:"));
+        qCell = qRow.createCell(1);
+        qCell.setCellValue(new XSSFRichTextString(query));
+
+        // Title row
+        SXSSFRow row = sheet.createRow(currentRowIndex++);
+        int currentCellIndex = 0;
+        for (String label : labels) {
+            SXSSFCell cell = row.createCell(currentCellIndex++);
+            cell.setCellStyle(styleBold);
+            cell.setCellValue(new XSSFRichTextString(label));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeRow(List<String> values) throws IOException {
+        SXSSFRow row = sheet.createRow(currentRowIndex++);
+        int currentCellIndex = 0;
+        for (String value : values) {
+            SXSSFCell cell = row.createCell(currentCellIndex++);
+            cell.setCellValue(new XSSFRichTextString(value != null ? value : ""));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (os != null) {
+            try {
+                workbook.write(os);
+                os.flush();
+            } finally {
+                workbook.close();
+            }
+        }
+    }
+}
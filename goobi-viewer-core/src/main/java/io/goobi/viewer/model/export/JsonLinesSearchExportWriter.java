@@ -0,0 +1,123 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes search export rows as JSON Lines, i.e. one JSON object per hit and line, keyed by field name. Missing values are omitted.
+ */
+public class JsonLinesSearchExportWriter implements SearchExportWriter {
+
+    private final Writer writer;
+    private List<String> fieldKeys = new ArrayList<>();
+
+    /**
+     * @param os Target stream
+     */
+    public JsonLinesSearchExportWriter(OutputStream os) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeHeader(String query, List<String> fields, List<String> labels) throws IOException {
+        fieldKeys = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            fieldKeys.add(quote(field));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void writeRow(List<String> values) throws IOException {
+        writer.write('{');
+        boolean first = true;
+        for (int i = 0; i < values.size() && i < fieldKeys.size(); ++i) {
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(fieldKeys.get(i));
+            writer.write(':');
+            writer.write(quote(value));
+            first = false;
+        }
+        writer.write("}\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     *
+     * @param value
+     * @return value as a quoted JSON string
+     * @should escape quotes and backslashes
+     * @should escape control characters
+     */
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.ThreadPoolManager;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.messages.ViewerResourceBundle;
+import io.goobi.viewer.model.viewer.StringPair;
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrTools;
+
+/**
+ * Streams all hits of a search into a {@link SearchExportWriter}. Hits are fetched from Solr with cursor paging, requesting only the configured
+ * export fields. Fetching runs on a separate thread and hands over batches through a small bounded queue, so Solr requests and writing overlap
+ * while memory usage stays constant regardless of the number of hits.
+ */
+public class SearchExport {
+
+    private static final Logger logger = LogManager.getLogger(SearchExport.class);
+
+    /** Default number of hits fetched per Solr request */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final int QUEUE_CAPACITY = 2;
+    private static final long QUEUE_TIMEOUT_MS = 500;
+    /** Marks the end of the result stream; compared by identity */
+    private static final List<SolrDocument> END_OF_RESULTS = new ArrayList<>(0);
+
+    private final String finalQuery;
+    private final String exportQuery;
+    private final List<StringPair> sortFields;
+    private final List<String> filterQueries;
+    private final Map<String, String> params;
+    private final Locale locale;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    /** Maximum number of exported hits; 0 means no limit */
+    private long maxHits = 0;
+
+    /**
+     * 
+     * @param finalQuery Complete query with suffixes.
+     * @param exportQuery Query constructed from the user's input, without any secret suffixes.
+     * @param sortFields Optional sort fields
+     * @param filterQueries Optional filter queries
+     * @param params Optional additional query parameters
+     * @param locale Locale for the field labels
+     */
+    public SearchExport(String finalQuery, String exportQuery, List<StringPair> sortFields, List<String> filterQueries, Map<String, String> params,
+            Locale locale) {
+        this.finalQuery = finalQuery;
+        this.exportQuery = exportQuery;
+        this.sortFields = sortFields;
+        this.filterQueries = filterQueries;
+        this.params = params;
+        this.locale = locale;
+    }
+
+    /**
+     * Writes all hits to the given writer. The writer is not closed.
+     * 
+     * @param writer
+     * @return Number of exported hits
+     * @throws IOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should stop after max hits
+     */
+    public long write(SearchExportWriter writer) throws IOException, PresentationException, IndexUnreachableException {
+        if (writer == null) {
+            throw new IllegalArgumentException("writer may not be null");
+        }
+
+        List<ExportFieldConfiguration> exportFields = DataManager.getInstance().getConfiguration().getSearchExcelExportFields();
+        List<String> fieldNames = new ArrayList<>(exportFields.size());
+        List<String> labels = new ArrayList<>(exportFields.size());
+        for (ExportFieldConfiguration field : exportFields) {
+            fieldNames.add(field.getField());
+            labels.add(ViewerResourceBundle.getTranslation(field.getField(), locale));
+        }
+        writer.writeHeader(exportQuery, fieldNames, labels);
+
+        BlockingQueue<List<SolrDocument>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Future<?> producer;
+        try {
+            // The producer must not run on this thread, which consumes the queue
+            producer = DataManager.getInstance()
+                    .getThreadPoolManager()
+                    .executeInBackground(ThreadPoolManager.POOL_IO, () -> fetch(fieldNames, queue, cancelled, error));
+        } catch (RejectedExecutionException e) {
+            throw new PresentationException("Search export could not be started: " + e.getMessage(), e);
+        }
+
+        long count = 0;
+        List<String> values = new ArrayList<>(fieldNames.size());
+        try {
+            while (true) {
+                List<SolrDocument> batch = queue.take();
+                if (batch == END_OF_RESULTS) {
+                    break;
+                }
+                for (SolrDocument doc : batch) {
+                    values.clear();
+                    for (String field : fieldNames) {
+                        values.add(SolrTools.getSingleFieldStringValue(doc, field));
+                    }
+                    writer.writeRow(values);
+                    count++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Search export interrupted");
+        } finally {
+            cancelled.set(true);
+            producer.cancel(true);
+        }
+
+        Exception e = error.get();
+        if (e instanceof PresentationException pe) {
+            throw pe;
+        }
+        if (e instanceof IndexUnreachableException iue) {
+            throw iue;
+        }
+        if (e != null) {
+            throw new PresentationException(e.getMessage(), e);
+        }
+
+        logger.debug("Exported {} search hits", count);
+        return count;
+    }
+
+    /**
+     * Fetches all hits (up to {@link #maxHits}) with cursor paging and puts the batches into the given queue, followed by {@link #END_OF_RESULTS}.
+     * 
+     * @param fieldNames
+     * @param queue
+     * @param cancelled
+     * @param error
+     */
+    private void fetch(List<String> fieldNames, BlockingQueue<List<SolrDocument>> queue, AtomicBoolean cancelled,
+            AtomicReference<Exception> error) {
+        List<StringPair> cursorSortFields = getCursorSortFields(sortFields);
+        List<String> fieldList = new ArrayList<>(fieldNames);
+        fieldList.add(SolrConstants.IDDOC);
+        Map<String, String> useParams = params != null ? new HashMap<>(params) : new HashMap<>();
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        long fetched = 0;
+        try {
+            while (!cancelled.get()) {
+                int rows = maxHits > 0 ? (int) Math.min(batchSize, maxHits - fetched) : batchSize;
+                useParams.put(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                QueryResponse resp = DataManager.getInstance()
+                        .getSearchIndex()
+                        .search(finalQuery, 0, rows, cursorSortFields, null, fieldList, filterQueries, useParams);
+                if (resp.getResults() != null && !resp.getResults().isEmpty()) {
+                    if (!put(queue, resp.getResults(), cancelled)) {
+                        return;
+                    }
+                    fetched += resp.getResults().size();
+                }
+                if (maxHits > 0 && fetched >= maxHits) {
+                    logger.debug("Search export stopped at the limit of {} hits", maxHits);
+                    break;
+                }
+                String nextCursorMark = resp.getNextCursorMark();
+                if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+                    break;
+                }
+                cursorMark = nextCursorMark;
+            }
+        } catch (PresentationException | IndexUnreachableException | RuntimeException e) {
+            logger.error("Error fetching search hits for export: {}", e.getMessage());
+            error.set(e);
+        } finally {
+            put(queue, END_OF_RESULTS, cancelled);
+        }
+    }
+
+    /**
+     * 
+     * @param queue
+     * @param batch
+     * @param cancelled
+     * @return true if the batch was added; false if the export was cancelled
+     */
+    private static boolean put(BlockingQueue<List<SolrDocument>> queue, List<SolrDocument> batch, AtomicBoolean cancelled) {
+        try {
+            while (!cancelled.get()) {
+                if (queue.offer(batch, QUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Cursor paging requires a deterministic sort ending with the unique key. Relevance and random sorting are replaced by score.
+     * 
+     * @param sortFields
+     * @return Sort fields usable with a cursor mark
+     * @should append IDDOC to given sort fields
+     * @should sort by score if no sort fields given
+     * @should skip relevance and random sort fields
+     */
+    static List<StringPair> getCursorSortFields(List<StringPair> sortFields) {
+        List<StringPair> ret = new ArrayList<>();
+        if (sortFields != null) {
+            for (StringPair sortField : sortFields) {
+                String field = sortField.getOne();
+                if (StringUtils.isEmpty(field) || SolrConstants.SORT_RELEVANCE.equals(field) || SolrConstants.SORT_RANDOM.equals(field)
+                        || field.startsWith("random_") || SolrConstants.IDDOC.equals(field)) {
+                    continue;
+                }
+                ret.add(new StringPair(field, "desc".equals(sortField.getTwo()) ? "desc" : "asc"));
+            }
+        }
+        if (ret.isEmpty()) {
+            ret.add(new StringPair("score", "desc"));
+        }
+        ret.add(new StringPair(SolrConstants.IDDOC, "asc"));
+
+        return ret;
+    }
+
+    /**
+     * @return the batchSize
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize the batchSize to set
+     * @return this
+     */
+    public SearchExport setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    /**
+     * @return the maxHits
+     */
+    public long getMaxHits() {
+        return maxHits;
+    }
+
+    /**
+     * @param maxHits Maximum number of exported hits; 0 or less means no limit
+     * @return this
+     */
+    public SearchExport setMaxHits(long maxHits) {
+        this.maxHits = Math.max(0, maxHits);
+        return this;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.OutputStream;
+
+/**
+ * Output formats of the streaming search export.
+ */
+public enum SearchExportFormat {
+
+    CSV("text/csv", "csv"),
+    JSONL("application/x-ndjson", "jsonl"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String mimeType;
+    private final String fileExtension;
+
+    private SearchExportFormat(String mimeType, String fileExtension) {
+        this.mimeType = mimeType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * @return the mimeType
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    /**
+     * @return the fileExtension
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Creates a writer for this format that writes to the given stream.
+     *
+     * @param os Target stream
+     * @return {@link SearchExportWriter}
+     */
+    public SearchExportWriter createWriter(OutputStream os) {
+        switch (this) {
+            case JSONL:
+                return new JsonLinesSearchExportWriter(os);
+            case XLSX:
+                return new ExcelSearchExportWriter(os);
+            case CSV:
+            default:
+                return new CsvSearchExportWriter(os);
+        }
+    }
+
+    /**
+     *
+     * @param name
+     * @return {@link SearchExportFormat} matching the given name or file extension; null if none found
+     * @should return correct format
+     * @should return null for unknown names
+     */
+    public static SearchExportFormat getByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (SearchExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) || format.getFileExtension().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
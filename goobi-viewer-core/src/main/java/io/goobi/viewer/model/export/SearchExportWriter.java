@@ -0,0 +1,51 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes search export rows in a specific output format. Rows are written as they arrive so that no more than the current row needs to be held
+ * in memory. Closing the writer completes the output but does not close the underlying stream.
+ */
+public interface SearchExportWriter extends Closeable {
+
+    /**
+     * Writes the header of the export.
+     *
+     * @param query Query constructed from the user's input
+     * @param fields Names of the exported fields
+     * @param labels Translated labels of the exported fields
+     * @throws IOException
+     */
+    public void writeHeader(String query, List<String> fields, List<String> labels) throws IOException;
+
+    /**
+     * Writes a single search hit.
+     *
+     * @param values Field values in the order of the header fields; null for missing values
+     * @throws IOException
+     */
+    public void writeRow(List<String> values) throws IOException;
+}
@@ -114,7 +114,7 @@ public class OpenAnnotationBuilder extends AbstractAnnotationBuilder {
      */
     public Map<Integer, List<OpenAnnotation>> getCrowdsourcingAnnotations(String pi, boolean urlOnlyTarget, HttpServletRequest request)
             throws DAOException {
-        List<CrowdsourcingAnnotation> pAnnos = DataManager.getInstance().getDao().getAnnotationsForWork(pi);
+        List<CrowdsourcingAnnotation> pAnnos = DataManager.getInstance().getRecordAnnotationCache().get(pi).getAnnotations();
         Map<Integer, List<OpenAnnotation>> annoMap = new HashMap<>();
         if (pAnnos != null) {
             for (CrowdsourcingAnnotation pAnno : pAnnos) {
@@ -27,7 +27,6 @@ import static io.goobi.viewer.api.rest.v1.ApiUrls.RECORDS_FILES_PLAINTEXT;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
@@ -47,7 +46,6 @@ import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.JDOMException;
 
 import de.intranda.api.annotation.AbstractAnnotation;
 import de.intranda.api.annotation.SimpleResource;
@@ -67,7 +65,6 @@ import de.intranda.api.iiif.presentation.v2.AnnotationList;
 import de.intranda.api.iiif.presentation.v2.Canvas2;
 import de.intranda.api.iiif.presentation.v2.Manifest2;
 import de.intranda.api.iiif.presentation.v2.Sequence;
-import de.intranda.digiverso.ocr.alto.model.structureclasses.logical.AltoDocument;
 import de.intranda.metadata.multilanguage.SimpleMetadataValue;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentLibException;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundException;
@@ -81,13 +78,14 @@ import io.goobi.viewer.exceptions.ViewerConfigurationException;
 import io.goobi.viewer.managedbeans.ImageDeliveryBean;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
+import io.goobi.viewer.model.alto.AltoPage;
 import io.goobi.viewer.model.annotation.AltoAnnotationBuilder;
+import io.goobi.viewer.model.annotation.RecordAnnotations;
 import io.goobi.viewer.model.annotation.comments.Comment;
 import io.goobi.viewer.model.iiif.presentation.v2.builder.LinkingProperty.LinkingTarget;
 import io.goobi.viewer.model.viewer.BaseMimeType;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.PhysicalElement;
-import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.StructElement;
 import io.goobi.viewer.model.viewer.pageloader.AbstractPageLoader;
 import io.goobi.viewer.model.viewer.pageloader.IPageLoader;
@@ -234,15 +232,14 @@ public class SequenceBuilder extends AbstractBuilder {
     public List<AnnotationList> addComments(Map<Integer, Canvas2> canvases, String pi, boolean populate)
             throws DAOException, URISyntaxException, ViewerConfigurationException {
         List<AnnotationList> list = new ArrayList<>();
-        List<Integer> pages = DataManager.getInstance().getDao().getPagesWithComments(pi);
-        for (Integer order : pages) {
+        RecordAnnotations recordAnnotations = DataManager.getInstance().getRecordAnnotationCache().get(pi);
+        for (Integer order : recordAnnotations.getPagesWithComments()) {
             Canvas2 canvas = canvases.get(order);
             if (canvas != null) {
                 AnnotationList annoList = new AnnotationList(getAnnotationListURI(pi, order, AnnotationType.COMMENT, true));
                 annoList.setLabel(ViewerResourceBundle.getTranslations(AnnotationType.COMMENT.name()));
                 if (populate) {
-                    List<Comment> comments = DataManager.getInstance().getDao().getCommentsForPage(pi, order);
-                    for (Comment comment : comments) {
+                    for (Comment comment : recordAnnotations.getComments(order)) {
                         OpenAnnotation anno = new OpenAnnotation(getCommentAnnotationURI(comment.getId()));
                         anno.setMotivation(Motivation.COMMENTING);
                         anno.setTarget(createSpecificResource(canvas, 0, 0, canvas.getWidth(), canvas.getHeight()));
@@ -443,11 +440,10 @@ public class SequenceBuilder extends AbstractBuilder {
                 if (StringUtils.isNotBlank(page.getAltoFileName())) {
                     try {
                         String altoFilename = Paths.get(page.getAltoFileName()).getFileName().toString();
-                        StringPair altoPair = builder.getAltoDocument(doc.getPi(), altoFilename);
-                        AltoDocument alto = AltoDocument.getDocumentFromString(altoPair.getOne(), altoPair.getTwo());
-                        if (alto.getFirstPage() != null && StringUtils.isNotBlank(alto.getFirstPage().getContent())) {
+                        AltoPage alto = builder.getAltoPage(doc.getPi(), altoFilename);
+                        if (alto.hasContent()) {
                             List<AbstractAnnotation> annos =
-                                    new AltoAnnotationBuilder(urls, "oa").createAnnotations(alto.getFirstPage(), doc.getPi(), page.getOrder(), canvas,
+                                    new AltoAnnotationBuilder(urls, "oa").createAnnotations(alto, doc.getPi(), page.getOrder(), canvas,
                                             AltoAnnotationBuilder.Granularity.LINE, false);
                             for (AbstractAnnotation annotation : annos) {
                                 annoList.addResource(annotation);
@@ -455,7 +451,7 @@ public class SequenceBuilder extends AbstractBuilder {
                         }
                     } catch (ContentNotFoundException e) {
                         logger.trace("No alto file found: {}", page.getAltoFileName());
-                    } catch (PresentationException | IOException | JDOMException e) {
+                    } catch (PresentationException e) {
                         logger.error("Error loading alto text from {}", page.getAltoFileName(), e);
                     }
 
@@ -27,7 +27,6 @@ import static io.goobi.viewer.api.rest.v2.ApiUrls.RECORDS_FILES_IMAGE;
 import static io.goobi.viewer.api.rest.v2.ApiUrls.RECORDS_FILES_IMAGE_PDF;
 import static io.goobi.viewer.api.rest.v2.ApiUrls.RECORDS_FILES_PLAINTEXT;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
@@ -38,7 +37,6 @@ import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.jdom2.JDOMException;
 
 import de.intranda.api.annotation.AbstractAnnotation;
 import de.intranda.api.annotation.SimpleResource;
@@ -49,7 +47,6 @@ import de.intranda.api.annotation.wa.WebAnnotation;
 import de.intranda.api.annotation.wa.collection.AnnotationPage;
 import de.intranda.api.iiif.image.ImageInformation;
 import de.intranda.api.iiif.presentation.v3.Canvas3;
-import de.intranda.digiverso.ocr.alto.model.structureclasses.logical.AltoDocument;
 import de.intranda.metadata.multilanguage.SimpleMetadataValue;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentLibException;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundException;
@@ -61,11 +58,11 @@ import io.goobi.viewer.controller.StringTools;
 import io.goobi.viewer.controller.imaging.ImageHandler;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.alto.AltoPage;
 import io.goobi.viewer.model.annotation.AltoAnnotationBuilder;
 import io.goobi.viewer.model.iiif.presentation.v3.builder.LinkingProperty.LinkingTarget;
 import io.goobi.viewer.model.viewer.PageType;
 import io.goobi.viewer.model.viewer.PhysicalElement;
-import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.StructElement;
 import io.goobi.viewer.model.viewer.pageloader.AbstractPageLoader;
 
@@ -207,23 +204,20 @@ public class CanvasBuilder extends AbstractBuilder {
         if (StringUtils.isNotBlank(page.getAltoFileName())) {
             try {
                 String altoFilename = Paths.get(page.getAltoFileName()).getFileName().toString();
-                StringPair altoPair = builder.getAltoDocument(page.getPi(), altoFilename);
-                if (StringUtils.isNotBlank(altoPair.getOne())) {
-                    AltoDocument alto = AltoDocument.getDocumentFromString(altoPair.getOne(), altoPair.getTwo());
-                    if (alto.getFirstPage() != null && StringUtils.isNotBlank(alto.getFirstPage().getContent())) {
-                        AltoAnnotationBuilder altoBuilder = new AltoAnnotationBuilder(urls, null);
-                        List<AbstractAnnotation> annos =
-                                altoBuilder.createAnnotations(alto.getFirstPage(), page.getPi(), page.getOrder(), canvas,
-                                        AltoAnnotationBuilder.Granularity.LINE, false);
-                        for (AbstractAnnotation annotation : annos) {
-                            annotation.setMotivation(Motivation.SUPPLEMENTING);
-                            annoPage.addItem(annotation);
-                        }
+                AltoPage alto = builder.getAltoPage(page.getPi(), altoFilename);
+                if (alto.hasContent()) {
+                    AltoAnnotationBuilder altoBuilder = new AltoAnnotationBuilder(urls, null);
+                    List<AbstractAnnotation> annos =
+                            altoBuilder.createAnnotations(alto, page.getPi(), page.getOrder(), canvas, AltoAnnotationBuilder.Granularity.LINE,
+                                    false);
+                    for (AbstractAnnotation annotation : annos) {
+                        annotation.setMotivation(Motivation.SUPPLEMENTING);
+                        annoPage.addItem(annotation);
                     }
                 }
             } catch (ContentNotFoundException e) {
                 logger.trace("No alto file found: {}", page.getAltoFileName());
-            } catch (PresentationException | IOException | JDOMException e) {
+            } catch (PresentationException e) {
                 logger.error("Error loading alto text from {}", page.getAltoFileName(), e);
             }
 
@@ -126,6 +126,8 @@ public class DataRetriever {
         }
         Collections.sort(eles, new StructElementComparator());
         addEventMetadataToWorkElement(eles, events);
+        // Load the shapes of all structure elements at once rather than once per range thumbnail
+        StructElement.loadShapeMetadata(eles);
         return eles;
     }
 
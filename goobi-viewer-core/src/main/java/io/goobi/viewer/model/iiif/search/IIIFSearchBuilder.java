@@ -39,7 +39,6 @@ import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
-import org.jdom2.JDOMException;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
@@ -649,7 +648,7 @@ public class IIIFSearchBuilder {
                     String text = new String(Files.readAllBytes(fulltextFile), StandardCharsets.UTF_8.name());
                     results.add(converter.getAnnotationsFromFulltext(text, pi, pageNo, queryRegex, results.getNumHits(), firstIndex, numHits));
                 }
-            } catch (IOException | JDOMException e) {
+            } catch (IOException e) {
                 logger.error("Error reading {}", fulltextFile, e);
             }
         }
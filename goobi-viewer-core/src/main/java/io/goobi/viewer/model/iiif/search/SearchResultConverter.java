@@ -36,12 +36,13 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -71,7 +72,9 @@ import de.intranda.metadata.multilanguage.IMetadataValue;
 import de.intranda.metadata.multilanguage.Metadata;
 import de.intranda.metadata.multilanguage.SimpleMetadataValue;
 import io.goobi.viewer.api.rest.AbstractApiUrlManager;
+import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.messages.ViewerResourceBundle;
+import io.goobi.viewer.model.alto.AltoPage;
 import io.goobi.viewer.model.annotation.AltoAnnotationBuilder;
 import io.goobi.viewer.model.annotation.comments.Comment;
 import io.goobi.viewer.model.iiif.presentation.v2.builder.AbstractBuilder;
@@ -303,29 +306,44 @@ public class SearchResultConverter {
      * @param query a regex; each match of the query within the alto document creates a {@link de.intranda.api.iiif.search.SearchHit} with one or more
      *            annotations referencing alto word or line elements
      * @return A result list containing hits for each mach of the query and annotations containing the hits
-     * @throws JDOMException
      * @throws IOException
      */
-    public AnnotationResultList getAnnotationsFromAlto(Path path, String query) throws IOException, JDOMException {
+    public AnnotationResultList getAnnotationsFromAlto(Path path, String query) throws IOException {
+        AltoPage page;
+        try {
+            page = DataManager.getInstance().getAltoPageCache().getPage(path);
+        } catch (XMLStreamException e) {
+            throw new IOException("Error parsing ALTO file " + path, e);
+        }
+        if (page.getWordCount() == 0) {
+            return getAnnotationsFromAltoLines(path, query);
+        }
         AnnotationResultList results = new AnnotationResultList();
-        AltoSearchParser parser = new AltoSearchParser();
-        AltoDocument doc = AltoDocument.getDocumentFromFile(path.toFile());
-        List<Word> words = parser.getWords(doc);
-        if (!words.isEmpty()) {
-            List<List<Word>> matches = parser.findWordMatches(words, query);
-            for (List<Word> wordsHit : matches) {
-                SearchHit hit = convertAltoToHit(wordsHit);
-                results.add(hit);
-            }
-        } else {
-            List<Line> lines = parser.getLines(doc);
-            if (!lines.isEmpty()) {
-                Map<Range<Integer>, List<Line>> hits = parser.findLineMatches(lines, query);
-                for (Entry<Range<Integer>, List<Line>> entry : hits.entrySet()) {
-                    List<Line> containingLines = entry.getValue();
-                    SearchHit hit = createAltoHit(lines, entry.getKey(), containingLines);
-                    results.add(hit);
-                }
+        for (Range<Integer> match : altoParser.findWordMatches(page, query)) {
+            results.add(convertAltoToHit(page, match.getMinimum(), match.getMaximum()));
+        }
+        return results;
+    }
+
+    /**
+     * Fallback for ALTO files without word elements: matches the query against the line texts and creates annotations referencing the lines.
+     *
+     * @param path
+     * @param query
+     * @return A result list containing hits for each mach of the query and annotations containing the hits
+     * @throws IOException
+     */
+    private AnnotationResultList getAnnotationsFromAltoLines(Path path, String query) throws IOException {
+        AnnotationResultList results = new AnnotationResultList();
+        List<Line> lines;
+        try {
+            lines = altoParser.getLines(AltoDocument.getDocumentFromFile(path.toFile()));
+        } catch (JDOMException e) {
+            throw new IOException("Error parsing ALTO file " + path, e);
+        }
+        if (!lines.isEmpty()) {
+            for (Entry<Range<Integer>, List<Line>> entry : altoParser.findLineMatches(lines, query).entrySet()) {
+                results.add(createAltoHit(lines, entry.getKey(), entry.getValue()));
             }
         }
         return results;
@@ -398,6 +416,41 @@ public class SearchResultConverter {
         return terms;
     }
 
+    /**
+     * Convert a range of words of a parsed ALTO page to a search hit, containing an annotation for each word in the range
+     *
+     * @param page The parsed ALTO page
+     * @param firstWord Index of the first word of the hit
+     * @param lastWord Index of the last word of the hit (inclusive)
+     * @return A hit of the combined words
+     */
+    public SearchHit convertAltoToHit(AltoPage page, int firstWord, int lastWord) {
+        SearchHit hit = new SearchHit();
+        IResource canvas = createSimpleCanvasResource(getPi(), getPageNo());
+        List<IAnnotation> annotations = new ArrayList<>(lastWord - firstWord + 1);
+        StringBuilder match = new StringBuilder();
+        for (int i = firstWord; i <= lastWord; i++) {
+            annotations.add(altoBuilder.createAnnotation(page.getWordId(i), page.getWordContent(i), page.getWordBounds(i), getPi(), getPageNo(),
+                    canvas, true));
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(page.getWordSubsContentOrContent(i));
+        }
+        hit.setAnnotations(annotations);
+        hit.setMatch(match.toString());
+
+        String before = altoParser.getPrecedingText(page, firstWord, MAX_TEXT_LENGTH);
+        String after = altoParser.getSucceedingText(page, lastWord, MAX_TEXT_LENGTH);
+        if (StringUtils.isNotBlank(before)) {
+            hit.setBefore(before);
+        }
+        if (StringUtils.isNotBlank(after)) {
+            hit.setAfter(after);
+        }
+        return hit;
+    }
+
     /**
      * Convert a list of also word elements to a search hit, containing an annotation for each word in the list
      *
@@ -36,6 +36,7 @@ import de.intranda.digiverso.ocr.alto.model.structureclasses.Line;
 import de.intranda.digiverso.ocr.alto.model.structureclasses.lineelements.Word;
 import de.intranda.digiverso.ocr.alto.model.structureclasses.logical.AltoDocument;
 import de.intranda.digiverso.ocr.alto.model.superclasses.Child;
+import io.goobi.viewer.model.alto.AltoPage;
 
 /**
  * <p>
@@ -77,6 +78,34 @@ public class AltoSearchParser extends AbstractSearchParser {
         return results;
     }
 
+    /**
+     * Finds runs of consecutive words in the given page whose (substituted) content matches the given regex.
+     *
+     * @param page a parsed ALTO page
+     * @param regex a {@link java.lang.String} object.
+     * @return List of index ranges (inclusive) of matching word runs
+     */
+    public List<Range<Integer>> findWordMatches(AltoPage page, String regex) {
+        List<Range<Integer>> results = new ArrayList<>();
+        Pattern pattern = Pattern.compile(regex);
+        int count = page.getWordCount();
+        int i = 0;
+        while (i < count) {
+            if (pattern.matcher(page.getWordSubsContentOrContent(i)).matches()) {
+                int last = i;
+                while (last + 1 < count && pattern.matcher(page.getWordSubsContentOrContent(last + 1)).matches()) {
+                    last++;
+                }
+                results.add(Range.of(i, last));
+                // Skip the word terminating the run, like the list based variant does
+                i = last + 2;
+            } else {
+                i++;
+            }
+        }
+        return results;
+    }
+
     /**
      * <p>
      * findLineMatches.
@@ -247,4 +276,40 @@ public class AltoSearchParser extends AbstractSearchParser {
         return sb.toString();
     }
 
+    /**
+     * Returns the text of the words preceding the given word within the same line.
+     *
+     * @param page a parsed ALTO page
+     * @param wordIndex index of the word in the page
+     * @param maxLength a int.
+     * @return a {@link java.lang.String} object.
+     */
+    public String getPrecedingText(AltoPage page, int wordIndex, int maxLength) {
+        int line = page.getWordLine(wordIndex);
+        int lineStart = line == AltoPage.NONE ? wordIndex : page.getLineFirstWord(line);
+        String before = "";
+        for (int i = wordIndex - 1; i >= lineStart && before.length() < maxLength; i--) {
+            before = page.getWordSubsContentOrContent(i) + " " + before;
+        }
+        return before;
+    }
+
+    /**
+     * Returns the text of the words succeeding the given word within the same line.
+     *
+     * @param page a parsed ALTO page
+     * @param wordIndex index of the word in the page
+     * @param maxLength a int.
+     * @return a {@link java.lang.String} object.
+     */
+    public String getSucceedingText(AltoPage page, int wordIndex, int maxLength) {
+        int line = page.getWordLine(wordIndex);
+        int lineEnd = line == AltoPage.NONE ? wordIndex + 1 : page.getLineWordEnd(line);
+        StringBuilder sb = new StringBuilder();
+        for (int i = wordIndex + 1; i < lineEnd && sb.length() < maxLength; i++) {
+            sb.append(' ').append(page.getWordSubsContentOrContent(i));
+        }
+        return sb.toString();
+    }
+
 }
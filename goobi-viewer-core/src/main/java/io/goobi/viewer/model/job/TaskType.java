@@ -48,7 +48,9 @@ public enum TaskType {
     /** Delete a resouce previously downloaded by {@link #DOWNLOAD_EXTERNAL_RESOURCE} */
     DELETE_RESOURCE(""),
     /** Pull the git repository of the viewer theme if it exists in the configured location **/
-    PULL_THEME("0 */1 * * * ?");
+    PULL_THEME("0 */1 * * * ?"),
+    /** Precompute the named entity tag index of a record so NER requests need not parse its ALTO files */
+    BUILD_NER_INDEX("");
 
     private final String defaultCronExpression;
 
@@ -0,0 +1,67 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.job.mq;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.mq.MessageHandler;
+import io.goobi.viewer.controller.mq.MessageQueueManager;
+import io.goobi.viewer.controller.mq.MessageStatus;
+import io.goobi.viewer.controller.mq.ViewerMessage;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.job.TaskType;
+
+/**
+ * Builds the named entity tag index of the record given in the message property "pi".
+ */
+public class BuildNerIndexHandler implements MessageHandler<MessageStatus> {
+
+    private static final Logger logger = LogManager.getLogger(BuildNerIndexHandler.class);
+
+    @Override
+    public MessageStatus call(ViewerMessage message, MessageQueueManager queueManager) {
+        String pi = message.getProperties().get("pi");
+        if (StringUtils.isBlank(pi)) {
+            message.getProperties().put(ViewerMessage.MESSAGE_PROPERTY_ERROR, "No pi given");
+            return MessageStatus.ERROR;
+        }
+
+        try {
+            DataManager.getInstance().getNerIndexManager().getIndex(pi);
+            return MessageStatus.FINISH;
+        } catch (PresentationException | IndexUnreachableException e) {
+            logger.error("Error building NER index for {}: {}", pi, e.getMessage());
+            message.getProperties().put(ViewerMessage.MESSAGE_PROPERTY_ERROR, e.getMessage());
+            return MessageStatus.ERROR;
+        }
+    }
+
+    @Override
+    public String getMessageHandlerName() {
+        return TaskType.BUILD_NER_INDEX.name();
+    }
+
+}
@@ -138,16 +138,16 @@ public class DownloadExternalResourceHandler implements MessageHandler<MessageSt
 
     private void storeProgress(Progress progress, String identifier, Path path, String messageId) {
         ExternalFilesDownloadJob job = new ExternalFilesDownloadJob(progress, identifier, path, messageId);
-        storageBean.put(identifier, job);
+        storageBean.getDownloadJobs().put(identifier, job);
     }
 
     private void storeError(String errorMessage, String identifier, String messageId) {
         ExternalFilesDownloadJob job = new ExternalFilesDownloadJob(identifier, messageId, errorMessage);
-        storageBean.put(identifier, job);
+        storageBean.getDownloadJobs().put(identifier, job);
     }
 
     private void removeProgress(String identifier) {
-        storageBean.remove(identifier);
+        storageBean.getDownloadJobs().invalidate(identifier);
     }
 
     private boolean isFilesExist(String pi, String url, String downloadId) {
@@ -80,10 +80,21 @@ public class GeoMapUpdateHandler implements MessageHandler<MessageStatus> {
     }
 
     private static void updateMapInCache(PersistentStorageBean applicationBean, GeoMap geomap) throws PresentationException {
+        applicationBean.getGeoMaps().put(geomap.getId(), loadFeatures(geomap));
+    }
+
+    /**
+     * Loads the features of all feature sets of the given geomap so that they are readily available when the map is rendered.
+     *
+     * @param geomap
+     * @return The given geomap
+     * @throws PresentationException
+     */
+    public static GeoMap loadFeatures(GeoMap geomap) throws PresentationException {
         for (FeatureSet featureSet : geomap.getFeatureSets()) {
             featureSet.getFeaturesAsString();
         }
-        applicationBean.put("cms_geomap_" + geomap.getId(), geomap);
+        return geomap;
     }
 
     @Override
@@ -39,6 +39,12 @@ public class UpdateDataRepositoryHandler implements MessageHandler<MessageStatus
                 .updateDataRepositoryNames(message.getProperties().get("identifier"), message.getProperties().get("dataRepositoryName"));
         // Reset access condition and view limit for record
         DataManager.getInstance().getRecordLockManager().emptyCacheForRecord(message.getProperties().get("identifier"));
+        // Discard shared TOC skeletons containing the record
+        DataManager.getInstance().getTocSkeletonCache().invalidate(message.getProperties().get("identifier"));
+        // Named entity tags are read from the record's ALTO files
+        DataManager.getInstance().getNerIndexManager().invalidate(message.getProperties().get("identifier"));
+        // Rendered CMS fragments may list the record
+        DataManager.getInstance().getCmsFragmentCache().invalidateAll();
 
         return MessageStatus.FINISH;
     }
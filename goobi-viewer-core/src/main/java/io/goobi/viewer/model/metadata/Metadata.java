@@ -21,7 +21,6 @@
  */
 package io.goobi.viewer.model.metadata;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -56,11 +55,9 @@ import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.controller.StringTools;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
-import io.goobi.viewer.managedbeans.ActiveDocumentBean;
 import io.goobi.viewer.managedbeans.NavigationHelper;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
-import io.goobi.viewer.model.citation.CitationProcessorWrapper;
 import io.goobi.viewer.model.metadata.MetadataParameter.MetadataParameterType;
 import io.goobi.viewer.model.search.SearchHelper;
 import io.goobi.viewer.model.translations.IPolyglott;
@@ -106,7 +103,6 @@ public class Metadata implements Serializable {
     private String ownerDocstrctType;
     /** ID of the owning StructElement. Used for constructing unique value IDs, where required. */
     private String ownerStructElementIddoc;
-    private CitationProcessorWrapper citationProcessorWrapper;
     private int indentation = 0;
     private final List<MetadataValue> values = new ArrayList<>();
     private final List<MetadataParameter> params = new ArrayList<>();
@@ -416,13 +412,8 @@ public class Metadata implements Serializable {
         mdValue.setGroupType(groupType);
         mdValue.setDocstrct(ownerDocstrctType);
         mdValue.setOwnerIddoc(ownerStructElementIddoc);
-        if (StringUtils.isNotEmpty(citationTemplate) && citationProcessorWrapper != null) {
-            try {
-                mdValue.setCitationProcessor(citationProcessorWrapper.getCitationProcessor(citationTemplate));
-            } catch (IOException e) {
-                logger.error(e.getMessage());
-            }
-            mdValue.setCitationItemDataProvider(citationProcessorWrapper.getCitationItemDataProvider());
+        if (StringUtils.isNotEmpty(citationTemplate)) {
+            mdValue.setCitationStyle(citationTemplate);
         }
 
         MetadataParameter param = params.get(paramIndex);
@@ -816,20 +807,6 @@ public class Metadata implements Serializable {
         this.ownerStructElementIddoc = ownerIddoc;
         ownerDocstrctType = se.getDocStructType();
 
-        if (StringUtils.isNotEmpty(citationTemplate)) {
-            ActiveDocumentBean adb = BeanUtils.getActiveDocumentBean();
-            if (adb != null && adb.isRecordLoaded()) {
-                // Retrieve citation processor from ViewManager, if available
-                if (adb.getViewManager().getCitationProcessorWrapper() == null) {
-                    adb.getViewManager().setCitationProcessorWrapper(new CitationProcessorWrapper());
-                }
-                setCitationProcessorWrapper(adb.getViewManager().getCitationProcessorWrapper());
-            } else {
-                // Create a new processor for situations where no record is loaded, but a metadata view with citations is requested
-                setCitationProcessorWrapper(new CitationProcessorWrapper());
-            }
-        }
-
         // Grouped metadata
         if (group) {
             if (se.getMetadataFields().get(label) == null && parentMetadata == null) {
@@ -1288,20 +1265,6 @@ public class Metadata implements Serializable {
         return this;
     }
 
-    /**
-     * @return the citationProcessorWrapper
-     */
-    public CitationProcessorWrapper getCitationProcessorWrapper() {
-        return citationProcessorWrapper;
-    }
-
-    /**
-     * @param citationProcessorWrapper the citationProcessorWrapper to set
-     */
-    public void setCitationProcessorWrapper(CitationProcessorWrapper citationProcessorWrapper) {
-        this.citationProcessorWrapper = citationProcessorWrapper;
-    }
-
     /**
      * @return the parentMetadata
      */
@@ -22,6 +22,10 @@
 package io.goobi.viewer.model.metadata;
 
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +36,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 
 import de.intranda.digiverso.normdataimporter.NormDataImporter;
@@ -67,6 +72,9 @@ public final class MetadataTools {
     private static final String XML_ATTRIBUTE_LANG = " xml:lang=\"";
     private static final String XML_TAG_CLOSE = "\" />";
 
+    /** Maximum number of owner IDDOCs per grouped metadata query, below the default Solr limit of boolean clauses */
+    static final int MAX_OWNERS_PER_QUERY = 500;
+
     /**
      * Private constructor.
      */
@@ -665,6 +673,48 @@ public final class MetadataTools {
         return DataManager.getInstance().getSearchIndex().search(sbQuery.toString(), SolrSearchIndex.MAX_HITS, sortFields, null);
     }
 
+    /**
+     * Loads the grouped metadata docs of all given owners with a single query (or one query per {@link #MAX_OWNERS_PER_QUERY} owners).
+     *
+     * @param ownerIddocs owner IDDOCs
+     * @param subQuery Optional additional subQuery for filtering
+     * @return Map with owner IDDOCs as keys and their grouped metadata docs as values; owners without grouped metadata are not contained
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     * @should return grouped metadata docs of all owners
+     * @should return empty map if no owners given
+     */
+    public static Map<String, List<SolrDocument>> getGroupedMetadata(Collection<String> ownerIddocs, String subQuery)
+            throws PresentationException, IndexUnreachableException {
+        if (ownerIddocs == null || ownerIddocs.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<SolrDocument>> ret = new HashMap<>();
+        List<String> owners = new ArrayList<>(ownerIddocs);
+        for (int start = 0; start < owners.size(); start += MAX_OWNERS_PER_QUERY) {
+            StringBuilder sbQuery = new StringBuilder();
+            sbQuery.append('+')
+                    .append(SolrConstants.IDDOC_OWNER)
+                    .append(":(")
+                    .append(String.join(SolrConstants.SOLR_QUERY_OR,
+                            owners.subList(start, Math.min(start + MAX_OWNERS_PER_QUERY, owners.size()))))
+                    .append(") +")
+                    .append(SolrConstants.DOCTYPE)
+                    .append(':')
+                    .append(DocType.METADATA.name());
+            if (StringUtils.isNotEmpty(subQuery)) {
+                sbQuery.append(' ').append(subQuery);
+            }
+            for (SolrDocument doc : DataManager.getInstance().getSearchIndex().search(sbQuery.toString(), SolrSearchIndex.MAX_HITS, null, null)) {
+                String owner = String.valueOf(doc.getFieldValue(SolrConstants.IDDOC_OWNER));
+                ret.computeIfAbsent(owner, k -> new ArrayList<>()).add(doc);
+            }
+        }
+
+        return ret;
+    }
+
     /**
      * Retrieves authority data record from the given URL, using proxy configuration, if configured.
      * 
@@ -21,6 +21,7 @@
  */
 package io.goobi.viewer.model.metadata;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -35,11 +36,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import de.undercouch.citeproc.CSL;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
 import io.goobi.viewer.model.citation.Citation;
-import io.goobi.viewer.model.citation.CitationDataProvider;
 import io.goobi.viewer.model.citation.CitationTools;
 import io.goobi.viewer.model.metadata.MetadataParameter.MetadataParameterType;
 import io.goobi.viewer.model.search.SearchHelper;
@@ -79,8 +78,7 @@ public class MetadataValue implements Serializable {
     private String docstrct = null;
     private String topstruct = null;
     private String label;
-    private transient CSL citationProcessor = null;
-    private transient CitationDataProvider citationItemDataProvider = null;
+    private String citationStyle = null;
     private String citationString = null;
 
     /**
@@ -152,14 +150,18 @@ public class MetadataValue implements Serializable {
             // logger.trace("param value: {}", paramValue); //NOSONAR Debug
             if (MetadataParameterType.CITEPROC.getKey().equals(paramValue)) {
                 // logger.trace("CitePROC value: {}", index); //NOSONAR Debug
-                if (citationProcessor == null) {
+                if (citationStyle == null) {
                     return "No citation processor";
                 }
 
                 if (citationString == null) {
-                    citationString = new Citation(id, citationProcessor, citationItemDataProvider,
-                            CitationTools.getCSLTypeForDocstrct(docstrct, topstruct),
-                            citationValues).getCitationString("text");
+                    try {
+                        citationString = new Citation(id, citationStyle, CitationTools.getCSLTypeForDocstrct(docstrct, topstruct),
+                                citationValues).getCitationString("text");
+                    } catch (IOException e) {
+                        logger.error(e.getMessage());
+                        return "";
+                    }
                 }
                 return citationString;
             }
@@ -595,20 +597,11 @@ public class MetadataValue implements Serializable {
     }
 
     /**
-     * @param citationProcessor the citationProcessor to set
+     * @param citationStyle the citationStyle to set
      * @return this
      */
-    public MetadataValue setCitationProcessor(CSL citationProcessor) {
-        this.citationProcessor = citationProcessor;
-        return this;
-    }
-
-    /**
-     * @param citationItemDataProvider the citationItemDataProvider to set
-     * @return this
-     */
-    public MetadataValue setCitationItemDataProvider(CitationDataProvider citationItemDataProvider) {
-        this.citationItemDataProvider = citationItemDataProvider;
+    public MetadataValue setCitationStyle(String citationStyle) {
+        this.citationStyle = citationStyle;
         return this;
     }
 
@@ -0,0 +1,259 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.ner;
+
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import de.unigoettingen.sub.commons.contentlib.exceptions.ContentNotFoundException;
+import io.goobi.viewer.api.rest.model.ner.ElementReference;
+import io.goobi.viewer.api.rest.model.ner.TagCount;
+import io.goobi.viewer.controller.ALTOTools;
+import io.goobi.viewer.controller.DataFileTools;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.ThreadPoolManager;
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.ner.RecordNERIndex.PageEntry;
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrTools;
+
+/**
+ * Builds and caches {@link RecordNERIndex} instances. ALTO files of a record are parsed in parallel in the shared CPU pool of the
+ * {@link ThreadPoolManager} and each record is built at most once concurrently; further requests for the same record wait for the running
+ * build. Cached indexes are discarded when the record is re-indexed or after the configured time to live; the least recently used indexes are
+ * evicted once the maximum number of records is exceeded.
+ */
+public class NERIndexManager {
+
+    private static final Logger logger = LogManager.getLogger(NERIndexManager.class);
+
+    private static final List<String> PAGE_FIELDS = Arrays.asList(SolrConstants.ORDER, SolrConstants.FILENAME_ALTO);
+
+    private final ApplicationCache<String, RecordNERIndex> cache;
+
+    /**
+     * Unchecked wrapper for exceptions thrown while building an index inside the cache loader.
+     */
+    private static final class IndexLoadException extends RuntimeException {
+
+        private static final long serialVersionUID = 4218573925706219826L;
+
+        private IndexLoadException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * 
+     * @param maxRecords Maximum number of record indexes kept in memory
+     * @param timeToLive Maximum age of cached indexes
+     */
+    public NERIndexManager(int maxRecords, Duration timeToLive) {
+        this.cache = new ApplicationCache<>("ner", Math.max(1, maxRecords), timeToLive, 0, null);
+    }
+
+    /**
+     * Returns the NER index for the given record, building it if no index is cached.
+     * 
+     * @param pi Record identifier
+     * @return {@link RecordNERIndex}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public RecordNERIndex getIndex(String pi) throws PresentationException, IndexUnreachableException {
+        try {
+            return cache.get(pi, k -> {
+                try {
+                    return buildIndex(k);
+                } catch (PresentationException | IndexUnreachableException e) {
+                    throw new IndexLoadException(e);
+                }
+            });
+        } catch (IndexLoadException e) {
+            if (e.getCause() instanceof PresentationException pe) {
+                throw pe;
+            }
+            throw (IndexUnreachableException) e.getCause();
+        }
+    }
+
+    /**
+     * 
+     * @param pi Record identifier
+     * @return Cached index for the given record; null if none is cached
+     */
+    public RecordNERIndex getCachedIndex(String pi) {
+        return cache.getIfPresent(pi).orElse(null);
+    }
+
+    /**
+     * Builds the index for the given record in the background, unless it is already cached. Concurrent builds of the same record are merged by
+     * the cache.
+     * 
+     * @param pi Record identifier
+     */
+    public void scheduleBuild(String pi) {
+        if (cache.isPresent(pi, null)) {
+            return;
+        }
+        try {
+            // The build itself only waits for the parser tasks, which run in the CPU pool
+            DataManager.getInstance().getThreadPoolManager().executeInBackground(ThreadPoolManager.POOL_IO, () -> {
+                try {
+                    getIndex(pi);
+                } catch (PresentationException | IndexUnreachableException e) {
+                    logger.error("Could not build NER index for {}: {}", pi, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The index will be built on first access instead
+            logger.debug("NER index build for {} not scheduled: {}", pi, e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the cached index for the given record.
+     * 
+     * @param pi Record identifier
+     */
+    public void invalidate(String pi) {
+        cache.invalidate(pi);
+    }
+
+    /**
+     * @return Usage statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    /**
+     * 
+     * @param pi
+     * @return Newly built {@link RecordNERIndex}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    RecordNERIndex buildIndex(String pi) throws PresentationException, IndexUnreachableException {
+        long start = System.currentTimeMillis();
+        String query = new StringBuilder(SolrConstants.PI_TOPSTRUCT).append(':')
+                .append(pi)
+                .append(SolrConstants.SOLR_QUERY_AND)
+                .append(SolrConstants.DOCTYPE)
+                .append(":PAGE")
+                .toString();
+        SolrDocumentList docs = DataManager.getInstance().getSearchIndex().search(query, PAGE_FIELDS);
+
+        List<PageEntry> pages = new ArrayList<>(docs.size());
+        List<CompletableFuture<PageEntry>> results = new ArrayList<>(docs.size());
+        List<Future<?>> tasks = new ArrayList<>(docs.size());
+        for (SolrDocument doc : docs) {
+            Integer order = SolrTools.getAsInt(doc.getFieldValue(SolrConstants.ORDER));
+            if (order == null) {
+                continue;
+            }
+            String altoFileName = SolrTools.getAsString(doc.getFieldValue(SolrConstants.FILENAME_ALTO));
+            if (altoFileName == null) {
+                pages.add(new PageEntry(order, null, null));
+                continue;
+            }
+            String fileName = altoFileName.contains("/") ? altoFileName : pi + "/" + altoFileName;
+            CompletableFuture<PageEntry> result = new CompletableFuture<>();
+            results.add(result);
+            Runnable task = () -> {
+                try {
+                    result.complete(loadPage(order, fileName));
+                } catch (PresentationException | IndexUnreachableException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            };
+            try {
+                tasks.add(DataManager.getInstance().getThreadPoolManager().executeInBackground(ThreadPoolManager.POOL_CPU, task));
+            } catch (RejectedExecutionException e) {
+                // CPU pool saturated; parse on the calling thread
+                task.run();
+            }
+        }
+
+        try {
+            for (CompletableFuture<PageEntry> result : results) {
+                pages.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            tasks.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PresentationException("Interrupted while building NER index for " + pi);
+        } catch (ExecutionException e) {
+            tasks.forEach(f -> f.cancel(true));
+            throw new PresentationException("Error building NER index for " + pi + ": " + e.getCause().getMessage());
+        }
+
+        logger.debug("Built NER index for {} ({} pages) in {} ms", pi, pages.size(), System.currentTimeMillis() - start);
+        return new RecordNERIndex(pi, pages);
+    }
+
+    /**
+     * 
+     * @param order
+     * @param altoFileName
+     * @return {@link PageEntry} containing all tags of the given page
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private static PageEntry loadPage(int order, String altoFileName) throws PresentationException, IndexUnreachableException {
+        AltoPage altoPage;
+        try {
+            altoPage = DataFileTools.loadAltoPage(altoFileName);
+        } catch (ContentNotFoundException | FileNotFoundException e) {
+            logger.trace("No ALTO file: {}", altoFileName);
+            return new PageEntry(order, null, null);
+        }
+        if (altoPage == null) {
+            return new PageEntry(order, null, null);
+        }
+
+        List<TagCount> tags = ALTOTools.getNERTags(altoPage, null);
+        for (TagCount tagCount : tags) {
+            for (ElementReference reference : tagCount.getReferences()) {
+                reference.setPage(order);
+            }
+        }
+        return new PageEntry(order, altoFileName, tags.isEmpty() ? Collections.emptyList() : tags);
+    }
+}
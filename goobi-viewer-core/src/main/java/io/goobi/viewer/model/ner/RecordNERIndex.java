@@ -0,0 +1,170 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.ner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import io.goobi.viewer.api.rest.model.ner.NERTag;
+import io.goobi.viewer.api.rest.model.ner.TagCount;
+
+/**
+ * Precomputed named entity tags of all pages of a record. Instances are immutable once built and may be shared between requests; tags handed out
+ * to callers are always copies.
+ */
+public class RecordNERIndex {
+
+    private final String pi;
+    private final long created = System.currentTimeMillis();
+    private final NavigableMap<Integer, PageEntry> pages;
+
+    /**
+     * Tags of a single page.
+     */
+    public static class PageEntry {
+
+        private final int order;
+        private final String altoFileName;
+        private final List<TagCount> tags;
+
+        /**
+         * @param order Page order
+         * @param altoFileName ALTO file name relative to the record (pi/filename); may be null for pages without ALTO
+         * @param tags All tags on the page
+         */
+        public PageEntry(int order, String altoFileName, List<TagCount> tags) {
+            this.order = order;
+            this.altoFileName = altoFileName;
+            this.tags = tags != null ? Collections.unmodifiableList(new ArrayList<>(tags)) : Collections.emptyList();
+        }
+
+        /**
+         * @return the order
+         */
+        public int getOrder() {
+            return order;
+        }
+
+        /**
+         * @return the altoFileName
+         */
+        public String getAltoFileName() {
+            return altoFileName;
+        }
+
+        /**
+         * Returns copies of the tags on this page, optionally filtered by type.
+         *
+         * @param type Optional tag type filter
+         * @return List of {@link TagCount}s that may be modified by the caller
+         * @should return copies of tags
+         * @should filter by type
+         */
+        public List<TagCount> getTags(NERTag.Type type) {
+            List<TagCount> ret = new ArrayList<>(tags.size());
+            for (TagCount tag : tags) {
+                if (type == null || type.equals(tag.getType())) {
+                    ret.add(copy(tag));
+                }
+            }
+            return ret;
+        }
+
+        /**
+         * @return Number of distinct tags on this page
+         */
+        public int getTagCount() {
+            return tags.size();
+        }
+    }
+
+    /**
+     * @param pi Record identifier
+     * @param pages Page entries
+     */
+    public RecordNERIndex(String pi, List<PageEntry> pages) {
+        this.pi = pi;
+        TreeMap<Integer, PageEntry> map = new TreeMap<>();
+        if (pages != null) {
+            for (PageEntry page : pages) {
+                map.put(page.getOrder(), page);
+            }
+        }
+        this.pages = Collections.unmodifiableNavigableMap(map);
+    }
+
+    /**
+     * Returns all pages within the given order range, sorted by order.
+     *
+     * @param start First page order (inclusive); null for no lower bound
+     * @param end Last page order (inclusive); null for no upper bound
+     * @return List of {@link PageEntry}
+     * @should return all pages if no bounds given
+     * @should return pages within bounds
+     */
+    public List<PageEntry> getPages(Integer start, Integer end) {
+        NavigableMap<Integer, PageEntry> ret = pages;
+        if (start != null) {
+            ret = ret.tailMap(start, true);
+        }
+        if (end != null) {
+            ret = ret.headMap(end, true);
+        }
+        return new ArrayList<>(ret.values());
+    }
+
+    /**
+     * @return the pi
+     */
+    public String getPi() {
+        return pi;
+    }
+
+    /**
+     * @return the created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return Number of pages in this index
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * 
+     * @param tag
+     * @return Copy of the given tag with its own reference list
+     */
+    static TagCount copy(TagCount tag) {
+        TagCount ret = new TagCount(tag.getValue(), tag.getType(), null);
+        ret.setReferences(new ArrayList<>(tag.getReferences()));
+        ret.setIdentifier(tag.getIdentifier());
+        return ret;
+    }
+}
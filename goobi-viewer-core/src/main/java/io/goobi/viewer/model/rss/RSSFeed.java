@@ -23,11 +23,17 @@ package io.goobi.viewer.model.rss;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -92,6 +98,11 @@ public final class RSSFeed {
 
     private static final String HTML_STRONG_PUBLISHED = "<strong>Published: </strong>";
 
+    /** Cache key prefix of feeds rendered as RSS 2.0 XML */
+    private static final String FORMAT_RSS = "rss_2.0";
+    /** Cache key prefix of feeds returned as {@link Channel} */
+    private static final String FORMAT_CHANNEL = "channel";
+
     /**
      * 
      */
@@ -151,10 +162,11 @@ public final class RSSFeed {
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.ViewerConfigurationException if any.
      * @should produce feed correctly
+     * @should load related docs with a constant number of queries
      */
     public static SyndFeed createRss(String rootPath, String query, List<String> filterQueries, String language, int maxItems,
             final String sortField, boolean sortDescending) throws PresentationException, IndexUnreachableException, ViewerConfigurationException {
-        String feedType = "rss_2.0";
+        String feedType = FORMAT_RSS;
 
         Locale locale = null;
         if (StringUtils.isNotBlank(language)) {
@@ -192,38 +204,12 @@ public final class RSSFeed {
             return feed;
         }
 
+        RelatedDocs relatedDocs = RelatedDocs.load(docs, locale);
         for (SolrDocument doc : docs) {
             String docType = (String) doc.getFieldValue(SolrConstants.DOCTYPE);
-            boolean anchor = doc.containsKey(SolrConstants.ISANCHOR) && ((Boolean) doc.getFieldValue(SolrConstants.ISANCHOR));
-            boolean child = !anchor
-                    && (DocType.DOCSTRCT.name().equals(docType) || doc.getFieldValue(SolrConstants.LOGID) != null)
-                    && (!doc.containsKey(SolrConstants.ISWORK) || !((Boolean) doc.getFieldValue(SolrConstants.ISWORK)));
-            boolean page = DocType.PAGE.name().equals(docType) || doc.containsKey(SolrConstants.ORDER);
-            SolrDocument topDoc = null;
-            SolrDocument ownerDoc = null;
-            if (child || page) {
-                // Find top level docstruct to extract metadata such as DATECREATED
-                List<SolrDocument> topDocs = DataManager.getInstance()
-                        .getSearchIndex()
-                        .search(new StringBuilder(SolrConstants.PI).append(':').append(doc.getFieldValue(SolrConstants.PI_TOPSTRUCT)).toString(), 0,
-                                1, null, null, Arrays.asList(FIELDS))
-                        .getResults();
-                if (!topDocs.isEmpty()) {
-                    topDoc = topDocs.get(0);
-                }
-                if (page) {
-                    // Find page owner docstruct to extract its metadata
-                    List<SolrDocument> ownerDocs = DataManager.getInstance()
-                            .getSearchIndex()
-                            .search(new StringBuilder(SolrConstants.IDDOC).append(':')
-                                    .append(doc.getFieldValue(SolrConstants.IDDOC_PARENT))
-                                    .toString(), 0, 1, null, null, Arrays.asList(FIELDS))
-                            .getResults();
-                    if (!ownerDocs.isEmpty()) {
-                        ownerDoc = ownerDocs.get(0);
-                    }
-                }
-            }
+            boolean anchor = isAnchor(doc);
+            SolrDocument topDoc = relatedDocs.getTopDoc(doc);
+            SolrDocument ownerDoc = relatedDocs.getOwnerDoc(doc);
 
             String pi = (String) doc.getFirstValue(SolrConstants.PI_TOPSTRUCT);
             SyndEntry entry = new SyndEntryImpl();
@@ -249,18 +235,7 @@ public final class RSSFeed {
             int pageNo = getRepresentativePageNumber(doc);
 
             for (String field : FIELDS) {
-                Object value = doc.getFirstValue(field);
-                Optional<Object> translatedValue =
-                        Optional.ofNullable(doc.getFirstValue(field + SolrConstants.MIDFIX_LANG + locale.getLanguage().toUpperCase()));
-                value = translatedValue.orElse(value);
-                // If the doc has no field value, try the owner doc (in case of pages)
-                if (value == null && ownerDoc != null) {
-                    value = ownerDoc.getFirstValue(field);
-                }
-                // If there is still no value, try the root doc
-                if (value == null && topDoc != null) {
-                    value = topDoc.getFirstValue(field);
-                }
+                Object value = getFieldValue(field, doc, ownerDoc, topDoc, locale);
                 if (value == null) {
                     continue;
                 }
@@ -271,20 +246,12 @@ public final class RSSFeed {
                         label = (String) value;
                         break;
                     case SolrConstants.IDDOC_PARENT:
-                        // TODO This query is executed O(size of feed) times.
-                        SolrDocumentList hits = DataManager.getInstance()
-                                .getSearchIndex()
-                                .search(new StringBuilder(SolrConstants.IDDOC).append(':').append(value).toString(), 1, null,
-                                        Collections.singletonList(SolrConstants.LABEL));
-                        if (hits != null && hits.getNumFound() > 0) {
-                            SolrDocument parent = hits.get(0);
-                            Object fieldParentLabel = parent.getFieldValue(SolrConstants.LABEL);
-                            if (fieldParentLabel != null) {
-                                label = new StringBuilder((String) fieldParentLabel).append("; ").append(label).toString();
-                                bookSeries = new StringBuilder("<strong>Book series: </strong>").append((String) fieldParentLabel)
-                                        .append(StringConstants.HTML_BR)
-                                        .toString();
-                            }
+                        String parentLabel = relatedDocs.getParentLabel(value);
+                        if (parentLabel != null) {
+                            label = new StringBuilder(parentLabel).append("; ").append(label).toString();
+                            bookSeries = new StringBuilder("<strong>Book series: </strong>").append(parentLabel)
+                                    .append(StringConstants.HTML_BR)
+                                    .toString();
                         }
                         break;
                     case SolrConstants.PERSON_ONEFIELD:
@@ -408,6 +375,193 @@ public final class RSSFeed {
         return 1;
     }
 
+    /**
+     *
+     * @param doc
+     * @return true if doc is an anchor; false otherwise
+     */
+    private static boolean isAnchor(SolrDocument doc) {
+        return doc.containsKey(SolrConstants.ISANCHOR) && ((Boolean) doc.getFieldValue(SolrConstants.ISANCHOR));
+    }
+
+    /**
+     *
+     * @param doc
+     * @return true if doc is a structure element below the top level; false otherwise
+     */
+    private static boolean isChild(SolrDocument doc) {
+        return !isAnchor(doc)
+                && (DocType.DOCSTRCT.name().equals(doc.getFieldValue(SolrConstants.DOCTYPE)) || doc.getFieldValue(SolrConstants.LOGID) != null)
+                && (!doc.containsKey(SolrConstants.ISWORK) || !((Boolean) doc.getFieldValue(SolrConstants.ISWORK)));
+    }
+
+    /**
+     *
+     * @param doc
+     * @return true if doc is a page; false otherwise
+     */
+    private static boolean isPage(SolrDocument doc) {
+        return DocType.PAGE.name().equals(doc.getFieldValue(SolrConstants.DOCTYPE)) || doc.containsKey(SolrConstants.ORDER);
+    }
+
+    /**
+     * Returns the (translated) value of the given field from the item doc, falling back to the page owner doc and then the top level doc.
+     *
+     * @param field
+     * @param doc
+     * @param ownerDoc Optional page owner doc
+     * @param topDoc Optional top level doc
+     * @param locale
+     * @return First found value; null if none found
+     */
+    private static Object getFieldValue(String field, SolrDocument doc, SolrDocument ownerDoc, SolrDocument topDoc, Locale locale) {
+        Object value = doc.getFirstValue(field);
+        Optional<Object> translatedValue =
+                Optional.ofNullable(doc.getFirstValue(field + SolrConstants.MIDFIX_LANG + locale.getLanguage().toUpperCase()));
+        value = translatedValue.orElse(value);
+        // If the doc has no field value, try the owner doc (in case of pages)
+        if (value == null && ownerDoc != null) {
+            value = ownerDoc.getFirstValue(field);
+        }
+        // If there is still no value, try the root doc
+        if (value == null && topDoc != null) {
+            value = topDoc.getFirstValue(field);
+        }
+        return value;
+    }
+
+    /**
+     * Loads all docs with one of the given values in the given field using a single query.
+     *
+     * @param field Solr field to match
+     * @param values Field values
+     * @param fieldList Fields to return
+     * @return Map with field values as keys and the matching docs as values
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    static Map<String, SolrDocument> loadDocs(String field, Collection<String> values, List<String> fieldList)
+            throws PresentationException, IndexUnreachableException {
+        if (values.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        StringBuilder sbQuery = new StringBuilder(field).append(":(");
+        int count = 0;
+        for (String value : values) {
+            if (count > 0) {
+                sbQuery.append(SolrConstants.SOLR_QUERY_OR);
+            }
+            sbQuery.append(SolrTools.escapeSpecialCharacters(value));
+            count++;
+        }
+        sbQuery.append(')');
+
+        Map<String, SolrDocument> ret = new HashMap<>(values.size());
+        SolrDocumentList hits = DataManager.getInstance().getSearchIndex().search(sbQuery.toString(), values.size(), null, fieldList);
+        if (hits != null) {
+            for (SolrDocument hit : hits) {
+                Object key = hit.getFirstValue(field);
+                if (key != null) {
+                    ret.putIfAbsent(String.valueOf(key), hit);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Top level docs, page owner docs and parent labels referenced by the items of a feed. Each kind is loaded with a single query for the whole
+     * feed instead of once per item.
+     */
+    private static final class RelatedDocs {
+
+        private final Map<String, SolrDocument> topDocs;
+        private final Map<String, SolrDocument> ownerDocs;
+        private final Map<String, String> parentLabels = new HashMap<>();
+
+        private RelatedDocs(Map<String, SolrDocument> topDocs, Map<String, SolrDocument> ownerDocs) {
+            this.topDocs = topDocs;
+            this.ownerDocs = ownerDocs;
+        }
+
+        /**
+         *
+         * @param docs Feed item docs
+         * @param locale
+         * @return Loaded {@link RelatedDocs}
+         * @throws PresentationException
+         * @throws IndexUnreachableException
+         */
+        static RelatedDocs load(SolrDocumentList docs, Locale locale) throws PresentationException, IndexUnreachableException {
+            Set<String> topPis = new LinkedHashSet<>();
+            Set<String> ownerIddocs = new LinkedHashSet<>();
+            for (SolrDocument doc : docs) {
+                boolean page = isPage(doc);
+                if ((page || isChild(doc)) && doc.getFieldValue(SolrConstants.PI_TOPSTRUCT) != null) {
+                    topPis.add(String.valueOf(doc.getFieldValue(SolrConstants.PI_TOPSTRUCT)));
+                }
+                if (page && doc.getFieldValue(SolrConstants.IDDOC_PARENT) != null) {
+                    ownerIddocs.add(String.valueOf(doc.getFieldValue(SolrConstants.IDDOC_PARENT)));
+                }
+            }
+            RelatedDocs ret = new RelatedDocs(loadDocs(SolrConstants.PI, topPis, Arrays.asList(FIELDS)),
+                    loadDocs(SolrConstants.IDDOC, ownerIddocs, Arrays.asList(FIELDS)));
+
+            // Parent IDDOCs may come from the owner or top level docs
+            Set<String> parentIddocs = new LinkedHashSet<>();
+            for (SolrDocument doc : docs) {
+                Object parentIddoc = getFieldValue(SolrConstants.IDDOC_PARENT, doc, ret.getOwnerDoc(doc), ret.getTopDoc(doc), locale);
+                if (parentIddoc != null) {
+                    parentIddocs.add(String.valueOf(parentIddoc));
+                }
+            }
+            for (Entry<String, SolrDocument> entry : loadDocs(SolrConstants.IDDOC, parentIddocs,
+                    Arrays.asList(SolrConstants.IDDOC, SolrConstants.LABEL)).entrySet()) {
+                Object label = entry.getValue().getFieldValue(SolrConstants.LABEL);
+                if (label != null) {
+                    ret.parentLabels.put(entry.getKey(), String.valueOf(label));
+                }
+            }
+
+            return ret;
+        }
+
+        /**
+         *
+         * @param doc Feed item doc
+         * @return Top level doc for child elements and pages; null otherwise
+         */
+        SolrDocument getTopDoc(SolrDocument doc) {
+            if (!isPage(doc) && !isChild(doc)) {
+                return null;
+            }
+            return topDocs.get(String.valueOf(doc.getFieldValue(SolrConstants.PI_TOPSTRUCT)));
+        }
+
+        /**
+         *
+         * @param doc Feed item doc
+         * @return Owner doc for pages; null otherwise
+         */
+        SolrDocument getOwnerDoc(SolrDocument doc) {
+            if (!isPage(doc)) {
+                return null;
+            }
+            return ownerDocs.get(String.valueOf(doc.getFieldValue(SolrConstants.IDDOC_PARENT)));
+        }
+
+        /**
+         *
+         * @param parentIddoc
+         * @return Label of the parent doc with the given IDDOC; null if not found
+         */
+        String getParentLabel(Object parentIddoc) {
+            return parentLabels.get(String.valueOf(parentIddoc));
+        }
+    }
+
     /**
      * <p>
      * createRssFeed.
@@ -443,6 +597,7 @@ public final class RSSFeed {
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.ViewerConfigurationException if any.
      * @should produce feed correctly
+     * @should load related docs with a constant number of queries
      */
     public static Channel createRssFeed(String rootPath, String query, List<String> filterQueries, int rssFeedItems, String language,
             final String sortField, boolean sortDescending) throws PresentationException, IndexUnreachableException, ViewerConfigurationException {
@@ -475,38 +630,12 @@ public final class RSSFeed {
             return feed;
         }
 
+        RelatedDocs relatedDocs = RelatedDocs.load(docs, locale);
         for (SolrDocument doc : docs) {
             String docType = (String) doc.getFieldValue(SolrConstants.DOCTYPE);
-            boolean anchor = doc.containsKey(SolrConstants.ISANCHOR) && ((Boolean) doc.getFieldValue(SolrConstants.ISANCHOR));
-            boolean child = !anchor
-                    && (DocType.DOCSTRCT.name().equals(docType) || doc.getFieldValue(SolrConstants.LOGID) != null)
-                    && (!doc.containsKey(SolrConstants.ISWORK) || !((Boolean) doc.getFieldValue(SolrConstants.ISWORK)));
-            boolean page = DocType.PAGE.name().equals(docType) || doc.containsKey(SolrConstants.ORDER);
-            SolrDocument topDoc = null;
-            SolrDocument ownerDoc = null;
-            if (child || page) {
-                // Find top level docstruct to extract metadata such as DATECREATED
-                List<SolrDocument> topDocs = DataManager.getInstance()
-                        .getSearchIndex()
-                        .search(new StringBuilder(SolrConstants.PI).append(':').append(doc.getFieldValue(SolrConstants.PI_TOPSTRUCT)).toString(), 0,
-                                1, null, null, Arrays.asList(FIELDS))
-                        .getResults();
-                if (!topDocs.isEmpty()) {
-                    topDoc = topDocs.get(0);
-                }
-                if (page) {
-                    // Find page owner docstruct to extract its metadata
-                    List<SolrDocument> ownerDocs = DataManager.getInstance()
-                            .getSearchIndex()
-                            .search(new StringBuilder(SolrConstants.IDDOC).append(':')
-                                    .append(doc.getFieldValue(SolrConstants.IDDOC_PARENT))
-                                    .toString(), 0, 1, null, null, Arrays.asList(FIELDS))
-                            .getResults();
-                    if (!ownerDocs.isEmpty()) {
-                        ownerDoc = ownerDocs.get(0);
-                    }
-                }
-            }
+            boolean anchor = isAnchor(doc);
+            SolrDocument topDoc = relatedDocs.getTopDoc(doc);
+            SolrDocument ownerDoc = relatedDocs.getOwnerDoc(doc);
 
             String pi = (String) doc.getFirstValue(SolrConstants.PI_TOPSTRUCT);
             RssItem entry = new RssItem();
@@ -534,17 +663,7 @@ public final class RSSFeed {
             entry.setDocType(ViewerResourceBundle.getTranslation(docStructType, locale));
 
             for (String field : FIELDS) {
-                Object value = doc.getFirstValue(field);
-                Optional<Object> translatedValue = Optional.ofNullable(doc.getFirstValue(field + "_LANG_" + locale.getLanguage().toUpperCase()));
-                value = translatedValue.orElse(value);
-                // If the doc has no field value, try the owner doc (in case of pages)
-                if (value == null && ownerDoc != null) {
-                    value = ownerDoc.getFirstValue(field);
-                }
-                // If there is still no value, try the root doc
-                if (value == null && topDoc != null) {
-                    value = topDoc.getFirstValue(field);
-                }
+                Object value = getFieldValue(field, doc, ownerDoc, topDoc, locale);
                 if (value != null) {
                     switch (field) {
                         case SolrConstants.LABEL:
@@ -552,18 +671,10 @@ public final class RSSFeed {
                             label = (String) value;
                             break;
                         case SolrConstants.IDDOC_PARENT:
-                            // TODO This query is executed O(size of feed) times.
-                            SolrDocumentList hits = DataManager.getInstance()
-                                    .getSearchIndex()
-                                    .search(new StringBuilder(SolrConstants.IDDOC).append(':').append(value).toString(), 1, null,
-                                            Collections.singletonList(SolrConstants.LABEL));
-                            if (hits != null && hits.getNumFound() > 0) {
-                                SolrDocument parent = hits.get(0);
-                                Object fieldParentLabel = parent.getFieldValue(SolrConstants.LABEL);
-                                if (fieldParentLabel != null) {
-                                    label = new StringBuilder((String) fieldParentLabel).append("; ").append(label).toString();
-                                    bookSeries = fieldParentLabel.toString();
-                                }
+                            String parentLabel = relatedDocs.getParentLabel(value);
+                            if (parentLabel != null) {
+                                label = new StringBuilder(parentLabel).append("; ").append(label).toString();
+                                bookSeries = parentLabel;
                             }
                             break;
                         case SolrConstants.PERSON_ONEFIELD:
@@ -710,11 +821,17 @@ public final class RSSFeed {
                 filterQueries = searchFacets.generateFacetFilterQueries(true);
             }
 
-            return RSSFeed.createRssFeed(ServletUtils.getServletPathWithHostAsUrlFromRequest(servletRequest),
-                    q, filterQueries, maxHits != null ? maxHits : DataManager.getInstance().getConfiguration().getRssFeedItems(),
-                    language != null ? language : servletRequest.getLocale().getLanguage(),
-                    sortField, sortDescending);
-        } catch (PresentationException | IndexUnreachableException | ViewerConfigurationException | DAOException e) {
+            String rootPath = ServletUtils.getServletPathWithHostAsUrlFromRequest(servletRequest);
+            int items = maxHits != null ? maxHits : DataManager.getInstance().getConfiguration().getRssFeedItems();
+            String lang = language != null ? language : servletRequest.getLocale().getLanguage();
+            String finalQuery = q;
+            List<String> finalFilterQueries = filterQueries;
+            return DataManager.getInstance()
+                    .getRssFeedCache()
+                    .get(RssFeedCache.buildKey(FORMAT_CHANNEL, rootPath, finalQuery, finalFilterQueries, lang, items, sortField, sortDescending),
+                            Channel.class,
+                            () -> RSSFeed.createRssFeed(rootPath, finalQuery, finalFilterQueries, items, lang, sortField, sortDescending));
+        } catch (PresentationException | IndexUnreachableException | ViewerConfigurationException | DAOException | FeedException e) {
             throw new ContentLibException(e.toString());
         }
     }
@@ -749,11 +866,17 @@ public final class RSSFeed {
                 filterQueries = searchFacets.generateFacetFilterQueries(true);
             }
 
-            SyndFeedOutput output = new SyndFeedOutput();
-            return output
-                    .outputString(RSSFeed.createRss(ServletUtils.getServletPathWithHostAsUrlFromRequest(servletRequest), q, filterQueries,
-                            language != null ? language : servletRequest.getLocale().getLanguage(),
-                            maxHits != null ? maxHits : DataManager.getInstance().getConfiguration().getRssFeedItems(), sortField, sortDescending));
+            String rootPath = ServletUtils.getServletPathWithHostAsUrlFromRequest(servletRequest);
+            int items = maxHits != null ? maxHits : DataManager.getInstance().getConfiguration().getRssFeedItems();
+            String lang = language != null ? language : servletRequest.getLocale().getLanguage();
+            String finalQuery = q;
+            List<String> finalFilterQueries = filterQueries;
+            return DataManager.getInstance()
+                    .getRssFeedCache()
+                    .get(RssFeedCache.buildKey(FORMAT_RSS, rootPath, finalQuery, finalFilterQueries, lang, items, sortField, sortDescending),
+                            String.class,
+                            () -> new SyndFeedOutput().outputString(
+                                    RSSFeed.createRss(rootPath, finalQuery, finalFilterQueries, lang, items, sortField, sortDescending)));
         } catch (PresentationException | IndexUnreachableException | ViewerConfigurationException | DAOException | FeedException e) {
             throw new ContentLibException(e.toString());
         }
@@ -0,0 +1,223 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.rss;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.rometools.rome.io.FeedException;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.exceptions.ViewerConfigurationException;
+
+/**
+ * Application-wide cache of rendered RSS feeds. A feed is built once per query, filter queries, language, format, sorting and number of items
+ * and then served to all clients until the index is committed again or the configured time to live has passed. The index version is checked
+ * at most once per configured interval, so that cache hits do not cost a Solr request each.
+ */
+public class RssFeedCache {
+
+    private static final Logger logger = LogManager.getLogger(RssFeedCache.class);
+
+    private final boolean enabled;
+
+    private final ApplicationCache<String, Object> cache;
+
+    /** Minimum time between two index version checks in nanoseconds */
+    private final long indexCheckIntervalNanos;
+
+    /** Index version of the cached feeds */
+    private final AtomicLong indexVersion = new AtomicLong(-1);
+
+    /** Value of {@link System#nanoTime()} after which the index version is checked again */
+    private final AtomicLong nextIndexCheck = new AtomicLong(System.nanoTime());
+
+    /**
+     * Builds a feed if it is not cached.
+     *
+     * @param <T> Feed type
+     */
+    @FunctionalInterface
+    public interface FeedBuilder<T> {
+        T build() throws PresentationException, IndexUnreachableException, ViewerConfigurationException, FeedException;
+    }
+
+    /**
+     * Unchecked wrapper for exceptions thrown while building a feed inside the cache loader.
+     */
+    private static final class FeedBuildException extends RuntimeException {
+
+        private static final long serialVersionUID = 5171209836390482236L;
+
+        private FeedBuildException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     *
+     * @param enabled If false, feeds are always built anew
+     * @param maxSize Maximum number of cached feeds
+     * @param timeToLive Maximum age of cached feeds
+     * @param indexCheckInterval Minimum time between two index version checks
+     */
+    public RssFeedCache(boolean enabled, int maxSize, Duration timeToLive, Duration indexCheckInterval) {
+        this.enabled = enabled;
+        this.indexCheckIntervalNanos = indexCheckInterval.toNanos();
+        this.cache = new ApplicationCache<>("rss", maxSize, timeToLive, 0, null);
+    }
+
+    /**
+     * Returns the cached feed for the given key or builds it with the given builder. All cached feeds are discarded once the index version
+     * advances; the index version is checked at most once per index check interval.
+     *
+     * @param <T> Feed type
+     * @param key Cache key as created by {@link #buildKey(String, String, String, List, String, int, String, boolean)}
+     * @param type Feed type
+     * @param builder Builds the feed if not cached
+     * @return Cached or newly built feed
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws ViewerConfigurationException
+     * @throws FeedException
+     * @should return cached feed for same key
+     * @should build feed again after index version change
+     * @should build feed every time if disabled
+     * @should check index version at most once per interval
+     */
+    public <T> T get(String key, Class<T> type, FeedBuilder<T> builder)
+            throws PresentationException, IndexUnreachableException, ViewerConfigurationException, FeedException {
+        if (!enabled) {
+            return builder.build();
+        }
+
+        if (isIndexCheckDue()) {
+            checkIndexVersion(DataManager.getInstance().getSearchIndex().getIndexVersion());
+        }
+        try {
+            return type.cast(cache.get(key, k -> {
+                try {
+                    return builder.build();
+                } catch (PresentationException | IndexUnreachableException | ViewerConfigurationException | FeedException e) {
+                    throw new FeedBuildException(e);
+                }
+            }));
+        } catch (FeedBuildException e) {
+            if (e.getCause() instanceof PresentationException pe) {
+                throw pe;
+            }
+            if (e.getCause() instanceof IndexUnreachableException iue) {
+                throw iue;
+            }
+            if (e.getCause() instanceof ViewerConfigurationException vce) {
+                throw vce;
+            }
+            throw (FeedException) e.getCause();
+        }
+    }
+
+    /**
+     * Determines whether the index version is to be checked by the calling thread. Only one thread per interval is selected.
+     *
+     * @return true if the index check interval has passed since the last check; false otherwise
+     */
+    private boolean isIndexCheckDue() {
+        long now = System.nanoTime();
+        long next = nextIndexCheck.get();
+        return now - next >= 0 && nextIndexCheck.compareAndSet(next, now + indexCheckIntervalNanos);
+    }
+
+    /**
+     * Discards all cached feeds if the given index version is newer than the version of the cached feeds. Older versions, e.g. reported by a
+     * replica that has not caught up yet, are ignored.
+     *
+     * @param currentIndexVersion
+     * @should discard feeds only if index version advances
+     */
+    void checkIndexVersion(long currentIndexVersion) {
+        long previous = indexVersion.get();
+        while (currentIndexVersion > previous) {
+            if (indexVersion.compareAndSet(previous, currentIndexVersion)) {
+                if (previous != -1) {
+                    logger.debug("Index version changed from {} to {}, discarding cached RSS feeds", previous, currentIndexVersion);
+                }
+                cache.invalidateAll();
+                return;
+            }
+            previous = indexVersion.get();
+        }
+    }
+
+    /**
+     * Removes all feeds.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Usage statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    /**
+     *
+     * @param format Output format
+     * @param rootPath Application root URL used in links
+     * @param query Final Solr query, including any access condition suffixes
+     * @param filterQueries
+     * @param language
+     * @param maxItems
+     * @param sortField
+     * @param sortDescending
+     * @return Cache key
+     */
+    static String buildKey(String format, String rootPath, String query, List<String> filterQueries, String language, int maxItems,
+            String sortField, boolean sortDescending) {
+        return new StringBuilder().append(format)
+                .append('|')
+                .append(rootPath)
+                .append('|')
+                .append(language)
+                .append('|')
+                .append(maxItems)
+                .append('|')
+                .append(sortField)
+                .append('|')
+                .append(sortDescending)
+                .append('|')
+                .append(query)
+                .append('|')
+                .append(filterQueries)
+                .toString();
+    }
+}
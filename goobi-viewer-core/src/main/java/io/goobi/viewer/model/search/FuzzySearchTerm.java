@@ -21,9 +21,11 @@
  */
 package io.goobi.viewer.model.search;
 
+import java.util.regex.Pattern;
+
 import org.apache.commons.lang3.StringUtils;
 
-import io.goobi.viewer.controller.DamerauLevenshtein;
+import io.goobi.viewer.controller.BoundedDamerauLevenshtein;
 import io.goobi.viewer.controller.StringTools;
 
 /**
@@ -60,12 +62,20 @@ public class FuzzySearchTerm {
      * itself is the first capture group
      */
     public static final String WORD_SURROUNDED_BY_OTHER_CHARACTERS = NOT_WORD_PATTERN + "(" + WORD_PATTERN + ")" + NOT_WORD_PATTERN;
+    /**
+     * Compiled {@link #WORD_PATTERN}
+     */
+    public static final Pattern PATTERN_WORD = Pattern.compile(WORD_PATTERN);
+
+    private static final Pattern PATTERN_FUZZY_TERM = Pattern.compile("[*]{0,1}" + WORD_PATTERN + "[*]{0,1}~\\d");
 
     private final String fullTerm;
     private final String term;
     private final boolean wildcardFront;
     private final boolean wildcardBack;
     private final int maxDistance;
+    /** Matcher for the cleaned up term, built once and reused for every compared word */
+    private final BoundedDamerauLevenshtein matcher;
 
     public FuzzySearchTerm(String term) {
         this.fullTerm = term;
@@ -82,6 +92,7 @@ public class FuzzySearchTerm {
             wildcardBack = this.fullTerm.endsWith("*");
         }
         wildcardFront = this.fullTerm.startsWith("*");
+        this.matcher = new BoundedDamerauLevenshtein(cleanup(this.term), this.maxDistance);
     }
 
     public String getFullTerm() {
@@ -105,7 +116,7 @@ public class FuzzySearchTerm {
     }
 
     public static boolean isFuzzyTerm(String term) {
-        return term.matches("[*]{0,1}" + WORD_PATTERN + "[*]{0,1}~\\d");
+        return PATTERN_FUZZY_TERM.matcher(term).matches();
     }
 
     /**
@@ -113,28 +124,56 @@ public class FuzzySearchTerm {
      * 
      * @param text
      * @return boolean
+     * @should match word within max distance
+     * @should match word containing term if wildcard
+     * @should not match word beyond max distance
      */
     public boolean matches(final String text) {
-        String t = cleanup(text);
-        String termToMatch = cleanup(this.term);
-        if ((wildcardFront || wildcardBack) && t.length() >= termToMatch.length() - this.maxDistance) {
-            for (int pos = 0; pos < t.length() - (termToMatch.length() - this.maxDistance); pos++) {
-                for (int length = termToMatch.length() - this.maxDistance; length <= Math.min(t.length() - pos,
-                        termToMatch.length() + maxDistance); length++) {
-                    String subString = t.substring(pos, pos + length);
-                    int distance = new DamerauLevenshtein(subString, termToMatch).getSimilarity();
-                    if (distance <= maxDistance) {
-                        return true;
-                    }
-                }
+        return matchesCleanedUp(cleanup(text));
+    }
+
+    /**
+     * Test if the given region of a text contains a matching single word. Regions consisting only of lowercase ASCII letters and digits are
+     * compared in place without creating a substring.
+     *
+     * @param text Text containing the word
+     * @param start Start index of the word (inclusive)
+     * @param end End index of the word (exclusive)
+     * @return boolean
+     * @should match region without surrounding text
+     */
+    public boolean matches(final CharSequence text, int start, int end) {
+        for (int i = start; i < end; ++i) {
+            char c = text.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < '0' || c > '9')) {
+                return matches(text.subSequence(start, end).toString());
             }
-            return false;
-        } else if (Math.abs(t.length() - termToMatch.length()) <= this.maxDistance) {
-            int distance = new DamerauLevenshtein(t, termToMatch).getSimilarity();
-            return distance <= maxDistance;
-        } else {
-            return false;
         }
+        if (isWildcardMatch(end - start)) {
+            return matcher.matchesSubstring(text, start, end);
+        }
+        return matcher.matches(text, start, end);
+    }
+
+    /**
+     * 
+     * @param t Cleaned up text
+     * @return true if t matches; false otherwise
+     */
+    private boolean matchesCleanedUp(String t) {
+        if (isWildcardMatch(t.length())) {
+            return matcher.matchesSubstring(t, 0, t.length());
+        }
+        return matcher.matches(t);
+    }
+
+    /**
+     * 
+     * @param length Length of the cleaned up text
+     * @return true if any part of the text may match the term; false if the whole text must match
+     */
+    private boolean isWildcardMatch(int length) {
+        return (wildcardFront || wildcardBack) && length >= matcher.getPattern().length() - this.maxDistance;
     }
 
     /**
@@ -53,13 +53,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.similarity.FuzzyScore;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.xssf.streaming.SXSSFCell;
-import org.apache.poi.xssf.streaming.SXSSFRow;
-import org.apache.poi.xssf.streaming.SXSSFSheet;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.FacetField.Count;
 import org.apache.solr.client.solrj.response.FieldStatsInfo;
@@ -70,8 +64,8 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.ExpandParams;
 import org.jsoup.Jsoup;
 
+import io.goobi.viewer.controller.BoundedDamerauLevenshtein;
 import io.goobi.viewer.controller.Configuration;
-import io.goobi.viewer.controller.DamerauLevenshtein;
 import io.goobi.viewer.controller.DataFileTools;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.NetTools;
@@ -86,7 +80,8 @@ import io.goobi.viewer.exceptions.ViewerConfigurationException;
 import io.goobi.viewer.managedbeans.NavigationHelper;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
-import io.goobi.viewer.model.export.ExportFieldConfiguration;
+import io.goobi.viewer.model.export.ExcelSearchExportWriter;
+import io.goobi.viewer.model.export.SearchExport;
 import io.goobi.viewer.model.search.SearchQueryItem.SearchItemOperator;
 import io.goobi.viewer.model.security.AccessConditionUtils;
 import io.goobi.viewer.model.security.IPrivilegeHolder;
@@ -169,6 +164,8 @@ public final class SearchHelper {
     private static final Pattern PATTERN_PROXIMITY_SEARCH_TOKEN = Pattern.compile("(?<=\")~(\\d+)");
     /** Constant <code>PATTERN_YEAR_RANGE</code> */
     private static final Pattern PATTERN_YEAR_RANGE = Pattern.compile("\\[\\d+ TO \\d+\\]");
+    /** Constant <code>PATTERN_WORD_WITH_HYPHEN</code> */
+    private static final Pattern PATTERN_WORD_WITH_HYPHEN = Pattern.compile("[\\w-]+");
     /** Constant <code>PATTERN_HYPHEN_LINK</code> */
     private static final Pattern PATTERN_HYPHEN_LINK = Pattern.compile("(<a (?:(?!<\\/a>).)*<\\/a>)");
 
@@ -269,6 +266,15 @@ public final class SearchHelper {
         int count = first;
         ThumbnailHandler thumbs = BeanUtils.getImageDeliveryBean().getThumbs();
         SearchHitFactory factory = new SearchHitFactory(searchTerms, sortFields, exportFields, proximitySearchDistance, thumbs, locale);
+        // Resolve data repositories of all records whose full-text is about to be loaded in one go
+        Set<String> fulltextPis = new HashSet<>();
+        for (SolrDocument doc : resp.getResults()) {
+            if (doc.containsKey(SolrConstants.FILENAME_ALTO) || doc.containsKey(SolrConstants.FILENAME_FULLTEXT)) {
+                fulltextPis.add((String) doc.getFirstValue(SolrConstants.PI_TOPSTRUCT));
+            }
+        }
+        DataManager.getInstance().getSearchIndex().getRecordLocationResolver().prefetch(fulltextPis);
+        factory.prefetchShapeMetadata(resp.getResults());
         for (SolrDocument doc : resp.getResults()) {
             logger.trace("result iddoc: {}", doc.getFieldValue(SolrConstants.IDDOC));
             String fulltext = null;
@@ -371,6 +377,7 @@ public final class SearchHelper {
             factory.setAdditionalMetadataListType(additionalMetadataListType);
         }
 
+        factory.prefetchShapeMetadata(resp.getResults());
         int count = first;
         Map<String, SolrDocumentList> childDocsMap = resp.getExpandedResults();
         for (SolrDocument doc : resp.getResults()) {
@@ -1252,6 +1259,7 @@ public final class SearchHelper {
         String fulltext = Jsoup.parse(inFulltext).text();
         List<String> ret = new ArrayList<>();
         if (searchTerms != null && !searchTerms.isEmpty()) {
+            String fulltextLowerCase = fulltext.toLowerCase();
             for (final String term : searchTerms) {
                 if (term.length() == 0) {
                     continue;
@@ -1279,15 +1287,14 @@ public final class SearchHelper {
                 if (FuzzySearchTerm.isFuzzyTerm(searchTerm)) {
                     // Fuzzy search
                     FuzzySearchTerm fuzzySearchTerm = new FuzzySearchTerm(searchTerm);
-                    Matcher m = Pattern.compile(FuzzySearchTerm.WORD_PATTERN).matcher(fulltext.toLowerCase());
+                    Matcher m = FuzzySearchTerm.PATTERN_WORD.matcher(fulltextLowerCase);
                     int lastIndex = -1;
                     while (m.find()) {
-                        String word = m.group();
-                        if (fuzzySearchTerm.matches(word)) {
+                        if (fuzzySearchTerm.matches(fulltextLowerCase, m.start(), m.end())) {
                             if (lastIndex != -1 && m.start() <= lastIndex + searchTerm.length()) {
                                 continue;
                             }
-                            lastIndex = createFulltextFragment(m, fulltext, word, targetFragmentLength, ret);
+                            lastIndex = createFulltextFragment(m, fulltext, m.group(), targetFragmentLength, ret);
                             if (firstMatchOnly) {
                                 break;
                             }
@@ -1297,7 +1304,7 @@ public final class SearchHelper {
                     // Proximity search
                     String regex = buildProximitySearchRegexPattern(searchTerm, proximitySearchDistance);
                     if (regex != null) {
-                        Matcher m = Pattern.compile(regex).matcher(fulltext.toLowerCase());
+                        Matcher m = Pattern.compile(regex).matcher(fulltextLowerCase);
                         // logger.trace(fulltext.toLowerCase()); //NOSONAR Debug
                         int lastIndex = -1;
                         while (m.find()) {
@@ -1314,7 +1321,7 @@ public final class SearchHelper {
                         }
                     }
                 } else {
-                    Matcher m = Pattern.compile(searchTerm.toLowerCase()).matcher(fulltext.toLowerCase());
+                    Matcher m = Pattern.compile(searchTerm.toLowerCase()).matcher(fulltextLowerCase);
                     int lastIndex = -1;
                     while (m.find()) {
                         // Skip match if it follows right after the last match
@@ -1476,6 +1483,7 @@ public final class SearchHelper {
         }
 
         String highlightedValue = phrase;
+        String normalizedPhrase = null;
         for (final String t : terms) {
             //remove fuzzy search suffix
             FuzzySearchTerm fuzzyTerm = new FuzzySearchTerm(t);
@@ -1485,7 +1493,9 @@ public final class SearchHelper {
                 continue;
             }
             term = SearchHelper.removeTruncation(term);
-            String normalizedPhrase = normalizeString(phrase);
+            if (normalizedPhrase == null) {
+                normalizedPhrase = normalizeString(phrase);
+            }
             String normalizedTerm = normalizeString(term);
             if (contains(normalizedPhrase, normalizedTerm, fuzzyTerm.getMaxDistance())) {
                 highlightedValue = SearchHelper.applyHighlightingToPhrase(highlightedValue, term);
@@ -1507,14 +1517,11 @@ public final class SearchHelper {
      */
     public static boolean contains(String phrase, String term, int maxDistance) {
         if (maxDistance > 0 && StringUtils.isNoneBlank(phrase, term)) {
-            Matcher matcher = Pattern.compile("[\\w-]+").matcher(phrase);
+            BoundedDamerauLevenshtein distance = new BoundedDamerauLevenshtein(term, maxDistance);
+            Matcher matcher = PATTERN_WORD_WITH_HYPHEN.matcher(phrase);
             while (matcher.find()) {
-                String word = matcher.group();
-                if (Math.abs(word.length() - term.length()) <= maxDistance) {
-                    int distance = new DamerauLevenshtein(word, term).getSimilarity();
-                    if (distance <= maxDistance) {
-                        return true;
-                    }
+                if (distance.matches(phrase, matcher.start(), matcher.end())) {
+                    return true;
                 }
             }
             return false;
@@ -3249,9 +3256,7 @@ public final class SearchHelper {
      * @param sortFields a {@link java.util.List} object.
      * @param filterQueries a {@link java.util.List} object.
      * @param params a {@link java.util.Map} object.
-     * @param searchTerms a {@link java.util.Map} object.
      * @param locale a {@link java.util.Locale} object.
-     * @param proximitySearchDistance
      * @throws io.goobi.viewer.exceptions.IndexUnreachableException if any.
      * @throws io.goobi.viewer.exceptions.DAOException if any.
      * @throws io.goobi.viewer.exceptions.PresentationException if any.
@@ -3259,69 +3264,18 @@ public final class SearchHelper {
      * @should create excel workbook correctly
      */
     public static void exportSearchAsExcel(SXSSFWorkbook wb, String finalQuery, String exportQuery, List<StringPair> sortFields,
-            List<String> filterQueries, Map<String, String> params, Map<String, Set<String>> searchTerms, Locale locale, int proximitySearchDistance)
+            List<String> filterQueries, Map<String, String> params, Locale locale)
             throws IndexUnreachableException, DAOException, PresentationException, ViewerConfigurationException {
         if (wb == null) {
             throw new IllegalArgumentException("wb may not be null");
         }
 
-        SXSSFSheet currentSheet = wb.createSheet("Goobi_viewer_search");
-        CellStyle styleBold = wb.createCellStyle();
-        Font font2 = wb.createFont();
-        font2.setFontHeightInPoints((short) 10);
-        font2.setBold(true);
-        styleBold.setFont(font2);
-
-        int currentRowIndex = 0;
-        int currentCellIndex = 0;
-
-        // Query row
-        SXSSFRow qRow = currentSheet.createRow(currentRowIndex++);
-        SXSSFCell qCell = qRow.createCell(currentCellIndex++);
-        qCell.setCellStyle(styleBold);
-        qCell.setCellValue(new XSSFRichTextString("Query:"));
-        qCell = qRow.createCell(currentCellIndex);
-        qCell.setCellValue(new XSSFRichTextString(exportQuery));
-        currentCellIndex = 0;
-
-        // Title row
-        SXSSFRow row = currentSheet.createRow(currentRowIndex++);
-        for (ExportFieldConfiguration field : DataManager.getInstance().getConfiguration().getSearchExcelExportFields()) {
-            SXSSFCell cell = row.createCell(currentCellIndex++);
-            cell.setCellStyle(styleBold);
-            cell.setCellValue(new XSSFRichTextString(ViewerResourceBundle.getTranslation(field.getField(), locale)));
-        }
-
-        List<ExportFieldConfiguration> exportFields = DataManager.getInstance().getConfiguration().getSearchExcelExportFields();
-        List<String> exportFieldNames = new ArrayList<>(exportFields.size());
-        for (ExportFieldConfiguration field : exportFields) {
-            exportFieldNames.add(field.getField());
-        }
-        long totalHits = DataManager.getInstance().getSearchIndex().getHitCount(finalQuery, filterQueries);
-        int batchSize = 100;
-        int totalBatches = (int) Math.ceil((double) totalHits / batchSize);
-        for (int i = 0; i < totalBatches; ++i) {
-            int first = i * batchSize;
-            int max = first + batchSize - 1;
-            if (max > totalHits) {
-                max = (int) (totalHits - 1);
-                batchSize = (int) (totalHits - first);
-            }
-            logger.trace("Fetching search hits {}-{} out of {}", first, max, totalHits);
-            List<SearchHit> batch =
-                    searchWithAggregation(finalQuery, first, batchSize, sortFields, null, filterQueries, params, searchTerms, exportFieldNames,
-                            Configuration.METADATA_LIST_TYPE_SEARCH_HIT, locale, false, proximitySearchDistance);
-
-            for (SearchHit hit : batch) {
-                // Create row
-                currentCellIndex = 0;
-                row = currentSheet.createRow(currentRowIndex++);
-                for (ExportFieldConfiguration field : exportFields) {
-                    SXSSFCell cell = row.createCell(currentCellIndex++);
-                    String value = hit.getExportMetadata().get(field.getField());
-                    cell.setCellValue(new XSSFRichTextString(value != null ? value : ""));
-                }
-            }
+        try (ExcelSearchExportWriter writer = new ExcelSearchExportWriter(wb)) {
+            new SearchExport(finalQuery, exportQuery, sortFields, filterQueries, params, locale)
+                    .setBatchSize(DataManager.getInstance().getConfiguration().getSearchExportBatchSize())
+                    .write(writer);
+        } catch (IOException e) {
+            throw new PresentationException(e.getMessage(), e);
         }
     }
 
@@ -69,6 +69,7 @@ import io.goobi.viewer.exceptions.ViewerConfigurationException;
 import io.goobi.viewer.managedbeans.CmsMediaBean;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.ViewerResourceBundle;
+import io.goobi.viewer.model.alto.AltoPage;
 import io.goobi.viewer.model.cms.media.CMSMediaHolder;
 import io.goobi.viewer.model.cms.media.CMSMediaItem;
 import io.goobi.viewer.model.cms.pages.CMSPage;
@@ -432,6 +433,9 @@ public class SearchHit implements Comparable<SearchHit> {
         }
         int childDocIndex = skip;
         int hitCount = getHitCount() - getHitsPreloaded();
+        if (num > 0) {
+            factory.prefetchShapeMetadata(childDocs.subList(skip, skip + num));
+        }
         while (childDocIndex < childDocs.size() && hitsPopulated < Math.min(hitCount, num + skip)) {
             SolrDocument childDoc = childDocs.get(childDocIndex);
             childDocIndex++;
@@ -591,9 +595,9 @@ public class SearchHit implements Comparable<SearchHit> {
                     if (StringUtils.isNotEmpty(authorityIdentifier)) {
                         // If authority identifier is used, load NE tags and match word with identifier
                         try {
-                            StringPair alto = DataFileTools.loadAlto(altoFilename);
-                            fulltext = ALTOTools.getFulltext(alto.getOne(), alto.getTwo(), true);
-                            List<TagCount> tags = ALTOTools.getNERTags(alto.getOne(), alto.getTwo(), null);
+                            AltoPage altoPage = DataFileTools.loadAltoPage(altoFilename);
+                            fulltext = ALTOTools.getFulltext(altoPage, true);
+                            List<TagCount> tags = ALTOTools.getNERTags(altoPage, null);
                             // logger.trace("found {} entity tags", tags.size()); //NOSONAR Debug
                             String highlightWord = null;
                             for (TagCount tag : tags) {
@@ -50,6 +50,7 @@ import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
 import io.goobi.viewer.messages.ViewerResourceBundle;
 import io.goobi.viewer.model.metadata.Metadata;
+import io.goobi.viewer.model.metadata.MetadataTools;
 import io.goobi.viewer.model.metadata.MetadataWrapper;
 import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.model.viewer.StructElement;
@@ -79,6 +80,10 @@ public class SearchHitFactory {
 
     private ThumbnailHandler thumbnailHandler;
     private Locale locale;
+    /** IDDOCs of docs whose shape metadata has been loaded in advance */
+    private final Set<String> shapePrefetchedIddocs = new HashSet<>();
+    /** Shape metadata docs loaded in advance, keyed by owner IDDOC */
+    private final Map<String, List<SolrDocument>> prefetchedShapeDocs = new HashMap<>();
 
     /**
      * 
@@ -121,6 +126,9 @@ public class SearchHitFactory {
                         : SearchHelper.truncateFulltext(searchTerms.get(SolrConstants.FULLTEXT), fulltext,
                                 DataManager.getInstance().getConfiguration().getFulltextFragmentLength(), true, true, proximitySearchDistance);
         StructElement se = new StructElement(Long.valueOf((String) doc.getFieldValue(SolrConstants.IDDOC)), doc, ownerDoc);
+        if (shapePrefetchedIddocs.contains(doc.getFieldValue(SolrConstants.IDDOC))) {
+            se.setShapeMetadataDocs(prefetchedShapeDocs.get(doc.getFieldValue(SolrConstants.IDDOC)));
+        }
         String docstructType = se.getDocStructType();
         if (DocType.METADATA.name().equals(se.getMetadataValue(SolrConstants.DOCTYPE))) {
             docstructType = DocType.METADATA.name();
@@ -250,6 +258,39 @@ public class SearchHitFactory {
         return hitType;
     }
 
+    /**
+     * Loads the shape metadata of all given docs that may have shapes and are not top-level elements with a single query, so that search hits
+     * created from these docs afterwards do not query it individually.
+     *
+     * @param docs Docs from which search hits will be created
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should prefetch shape metadata with a single query
+     */
+    public void prefetchShapeMetadata(Collection<SolrDocument> docs) throws PresentationException, IndexUnreachableException {
+        if (docs == null || docs.isEmpty()) {
+            return;
+        }
+
+        Set<String> iddocs = new HashSet<>();
+        for (SolrDocument doc : docs) {
+            // Shapes are only used for elements below the top level
+            if (StructElement.isShapeMetadataPossible(doc) && !Boolean.TRUE.equals(doc.getFirstValue(SolrConstants.ISWORK))
+                    && !Boolean.TRUE.equals(doc.getFirstValue(SolrConstants.ISANCHOR))
+                    && !DocType.GROUP.name().equals(doc.getFieldValue(SolrConstants.DOCTYPE))) {
+                String iddoc = (String) doc.getFieldValue(SolrConstants.IDDOC);
+                if (!shapePrefetchedIddocs.contains(iddoc)) {
+                    iddocs.add(iddoc);
+                }
+            }
+        }
+        if (iddocs.isEmpty()) {
+            return;
+        }
+        prefetchedShapeDocs.putAll(MetadataTools.getGroupedMetadata(iddocs, StructElement.SHAPE_METADATA_SUBQUERY));
+        shapePrefetchedIddocs.addAll(iddocs);
+    }
+
     /**
      * @param additionalMetadataListType the additionalMetadataListType to set
      * @return this
@@ -281,11 +322,10 @@ public class SearchHitFactory {
                 term = StringTools.removeDiacriticalMarks(term);
                 if (FuzzySearchTerm.isFuzzyTerm(term)) {
                     FuzzySearchTerm fuzzy = new FuzzySearchTerm(term);
-                    Matcher m = Pattern.compile(FuzzySearchTerm.WORD_PATTERN).matcher(foundValues);
+                    Matcher m = FuzzySearchTerm.PATTERN_WORD.matcher(foundValues);
                     while (m.find()) {
-                        String word = m.group();
-                        if (fuzzy.matches(word)) {
-                            newTerms.add(word);
+                        if (fuzzy.matches(foundValues, m.start(), m.end())) {
+                            newTerms.add(m.group());
                         }
                     }
                 } else {
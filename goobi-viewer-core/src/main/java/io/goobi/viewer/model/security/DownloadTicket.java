@@ -22,6 +22,8 @@
 package io.goobi.viewer.model.security;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Random;
@@ -141,6 +143,22 @@ public class DownloadTicket implements Serializable {
         return BCrypt.checkPassword(password, passwordHash);
     }
 
+    /**
+     * Compares the given hash with this ticket's password hash without hashing again.
+     * 
+     * @param hash bcrypt hash of a password, created with {@link #SALT}
+     * @return true if hash equals this ticket's password hash; false otherwise
+     * @should return true if hash matches
+     * @should return false if hash does not match
+     */
+    public boolean checkPasswordHash(String hash) {
+        if (StringUtils.isEmpty(hash) || passwordHash == null) {
+            return false;
+        }
+
+        return MessageDigest.isEqual(hash.getBytes(StandardCharsets.UTF_8), passwordHash.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Sets the dates.
      */
@@ -35,7 +35,9 @@ import org.apache.logging.log4j.LogManager;
 import io.goobi.viewer.controller.BCrypt;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.PasswordVerifier;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.model.security.user.User;
 
@@ -93,7 +95,10 @@ public class LocalAuthenticationProvider implements IAuthenticationProvider {
                 User user = DataManager.getInstance().getDao().getUserByEmail(email);
                 boolean refused = true;
                 if (user != null && StringUtils.isNotBlank(password) && user.getPasswordHash() != null
-                        && bcrypt.checkpw(password, user.getPasswordHash())) {
+                        && DataManager.getInstance()
+                                .getPasswordVerifier()
+                                .checkPassword(bcrypt, password, user.getPasswordHash(), PasswordVerifier.ipKey(ipAddress),
+                                        PasswordVerifier.accountKey(email))) {
                     refused = false;
                     // Reset failed failed login attempt penalty counters
                     DataManager.getInstance().getSecurityManager().resetFailedLoginAttemptForUserName(email);
@@ -104,6 +109,12 @@ public class LocalAuthenticationProvider implements IAuthenticationProvider {
                     DataManager.getInstance().getSecurityManager().addFailedLoginAttemptForIpAddress(ipAddress);
                 }
                 return CompletableFuture.completedFuture(new LoginResult(request, response, Optional.ofNullable(user), refused));
+            } catch (TooManyRequestsException e) {
+                // Too busy to check the password; refuse without counting a failed attempt
+                if (response != null) {
+                    response.setStatus(e.getCode());
+                }
+                return CompletableFuture.completedFuture(new LoginResult(request, response, Optional.empty(), true, e.getRetryAfter()));
             } catch (DAOException e) {
                 throw new AuthenticationProviderException(e);
             }
@@ -21,33 +21,52 @@
  */
 package io.goobi.viewer.model.security.recordlock;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import io.goobi.viewer.controller.cache.ApplicationCache;
 import io.goobi.viewer.exceptions.RecordLimitExceededException;
 
+/**
+ * Keeps track of which HTTP sessions currently view records with a concurrent views limit. Locks are indexed both by record (to enforce the
+ * limit) and by session (so that releasing all locks of a session does not have to visit every locked record). Changes to the locks of a
+ * record are atomic per record via {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)}, so requests for different records
+ * never wait for each other.
+ */
 public class RecordLockManager {
 
     /** Logger for this class. */
     private static final Logger logger = LogManager.getLogger(RecordLockManager.class);
 
+    /** Maximum number of records in each of the record data caches */
+    static final int RECORD_CACHE_MAX_SIZE = 10000;
+    /** Time to live of record data cache entries. Entries are also invalidated when a record is reindexed. */
+    static final Duration RECORD_CACHE_TTL = Duration.ofHours(1);
+
     /** Currently viewed records */
     private final Map<String, Set<RecordLock>> loadedRecordMap = new ConcurrentHashMap<>();
+    /** Identifiers of records locked by each session */
+    private final Map<String, Set<String>> sessionRecordMap = new ConcurrentHashMap<>();
     /**
-     * Cache for record access conditions. Null value means the record is not yet cached, while empty list means the record has no access conditions.
+     * Cache for record access conditions. Missing value means the record is not yet cached, while empty list means the record has no access
+     * conditions.
      */
-    private final Map<String, List<String>> recordAccessConditionsCache = new ConcurrentHashMap<>();
+    private final ApplicationCache<String, List<String>> recordAccessConditionsCache =
+            new ApplicationCache<>("recordAccessConditions", RECORD_CACHE_MAX_SIZE, RECORD_CACHE_TTL, 0, null);
     /**
-     * Cache for record access limits. Null value means the record is not yet cached, while empty list means the record has no limits.
+     * Cache for record access limits. Missing value means the record is not yet cached, while empty list means the record has no limits.
      */
-    private final Map<String, List<String>> recordLimitsCache = new ConcurrentHashMap<>();
+    private final ApplicationCache<String, List<String>> recordLimitsCache =
+            new ApplicationCache<>("recordLimits", RECORD_CACHE_MAX_SIZE, RECORD_CACHE_TTL, 0, null);
 
     /**
      *
@@ -59,8 +78,9 @@ public class RecordLockManager {
      * @should do nothing if limit null
      * @should do nothing if session id already in list
      * @should throw RecordLimitExceededException if limit exceeded
+     * @should never exceed limit with concurrent sessions
      */
-    public synchronized void lockRecord(String pi, String sessionId, Integer limit) throws RecordLimitExceededException {
+    public void lockRecord(String pi, String sessionId, Integer limit) throws RecordLimitExceededException {
         logger.trace("lockRecord: {}", pi);
         if (pi == null) {
             throw new IllegalArgumentException("pi may not be null");
@@ -73,18 +93,32 @@ public class RecordLockManager {
         if (limit == null) {
             return;
         }
-        Set<RecordLock> recordLocks = loadedRecordMap.computeIfAbsent(pi, k -> new HashSet<>(limit));
+
         RecordLock newLock = new RecordLock(pi, sessionId);
-        logger.trace("{} is currently locked {} times", pi, recordLocks.size());
-        if (recordLocks.size() == limit) {
+        AtomicBoolean limitExceeded = new AtomicBoolean();
+        loadedRecordMap.compute(pi, (k, locks) -> {
+            Set<RecordLock> recordLocks = locks != null ? locks : ConcurrentHashMap.newKeySet(limit);
+            logger.trace("{} is currently locked {} times", pi, recordLocks.size());
             if (recordLocks.contains(newLock)) {
-                return;
+                return recordLocks;
             }
+            if (recordLocks.size() >= limit) {
+                limitExceeded.set(true);
+                return locks;
+            }
+            recordLocks.add(newLock);
+            sessionRecordMap.compute(sessionId, (sid, pis) -> {
+                Set<String> ret = pis != null ? pis : ConcurrentHashMap.newKeySet();
+                ret.add(pi);
+                return ret;
+            });
+            logger.trace("Added lock: {}", newLock);
+            return recordLocks;
+        });
+
+        if (limitExceeded.get()) {
             throw new RecordLimitExceededException(pi + ":" + limit);
         }
-
-        recordLocks.add(newLock);
-        logger.trace("Added lock: {}", newLock);
     }
 
     /**
@@ -94,14 +128,20 @@ public class RecordLockManager {
      * @return true if session id removed from list successfully; false otherwise
      * @should return number of records if session id removed successfully
      * @should skip pi in list
+     * @should only remove locks of given session
      */
-    public synchronized int removeLocksForSessionId(String sessionId, List<String> skipPiList) {
+    public int removeLocksForSessionId(String sessionId, List<String> skipPiList) {
         if (sessionId == null) {
             throw new IllegalArgumentException("sessionId may not be null");
         }
 
+        Set<String> pis = sessionRecordMap.get(sessionId);
+        if (pis == null || pis.isEmpty()) {
+            return 0;
+        }
+
         int count = 0;
-        for (String pi : loadedRecordMap.keySet()) {
+        for (String pi : new ArrayList<>(pis)) {
             if (skipPiList != null && skipPiList.contains(pi)) {
                 continue;
             }
@@ -119,24 +159,23 @@ public class RecordLockManager {
      * @param sessionId
      * @return true if lock removed successfully; false otherwise
      */
-    public synchronized boolean removeLockForPiAndSessionId(String pi, String sessionId) {
+    public boolean removeLockForPiAndSessionId(String pi, String sessionId) {
         if (pi == null || sessionId == null) {
             return false;
         }
-        Set<RecordLock> recordLocks = loadedRecordMap.get(pi);
-        if (recordLocks == null) {
-            return false;
-        }
 
-        boolean ret = false;
         RecordLock lock = new RecordLock(pi, sessionId);
-        if (recordLocks.contains(lock)) {
-            recordLocks.remove(lock);
-            ret = true;
-            logger.trace("Removed record lock: {}", lock);
-        }
+        AtomicBoolean removed = new AtomicBoolean();
+        loadedRecordMap.computeIfPresent(pi, (k, locks) -> {
+            if (locks.remove(lock)) {
+                removed.set(true);
+                removeFromSessionIndex(sessionId, pi);
+                logger.trace("Removed record lock: {}", lock);
+            }
+            return locks.isEmpty() ? null : locks;
+        });
 
-        return ret;
+        return removed.get();
     }
 
     /**
@@ -147,40 +186,41 @@ public class RecordLockManager {
      * @return Number of removed locks
      * @should remove locks older than maxAge
      */
-    public synchronized int removeOldLocks(long maxAge) {
+    public int removeOldLocks(long maxAge) {
         if (loadedRecordMap.isEmpty()) {
             return 0;
         }
 
         long now = System.currentTimeMillis();
-        int count = 0;
-        Set<String> emptyPIs = new HashSet<>(loadedRecordMap.size());
-        for (Entry<String, Set<RecordLock>> entry : loadedRecordMap.entrySet()) {
-            if (entry.getValue() == null) {
-                continue;
-            }
-            Set<RecordLock> toRemove = new HashSet<>();
-            for (RecordLock lock : entry.getValue()) {
-                if (now - lock.getTimeCreated() > maxAge) {
-                    toRemove.add(lock);
-                }
-            }
-            if (!toRemove.isEmpty() && entry.getValue().removeAll(toRemove)) {
-                count += toRemove.size();
-            }
-            if (entry.getValue().isEmpty()) {
-                emptyPIs.add(entry.getKey());
-            }
+        AtomicInteger count = new AtomicInteger();
+        for (String pi : loadedRecordMap.keySet()) {
+            loadedRecordMap.computeIfPresent(pi, (k, locks) -> {
+                locks.removeIf(lock -> {
+                    if (now - lock.getTimeCreated() > maxAge) {
+                        removeFromSessionIndex(lock.getSessionId(), pi);
+                        count.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                });
+                // Remove empty entries
+                return locks.isEmpty() ? null : locks;
+            });
         }
 
-        // Remove empty entries
-        if (!emptyPIs.isEmpty()) {
-            for (String pi : emptyPIs) {
-                loadedRecordMap.remove(pi);
-            }
-        }
+        return count.get();
+    }
 
-        return count;
+    /**
+     *
+     * @param sessionId
+     * @param pi
+     */
+    private void removeFromSessionIndex(String sessionId, String pi) {
+        sessionRecordMap.computeIfPresent(sessionId, (sid, pis) -> {
+            pis.remove(pi);
+            return pis.isEmpty() ? null : pis;
+        });
     }
 
     /**
@@ -190,6 +230,13 @@ public class RecordLockManager {
         return loadedRecordMap;
     }
 
+    /**
+     * @return the sessionRecordMap
+     */
+    Map<String, Set<String>> getSessionRecordMap() {
+        return sessionRecordMap;
+    }
+
     /**
      *
      * @param pi
@@ -199,21 +246,21 @@ public class RecordLockManager {
             return;
         }
 
-        recordAccessConditionsCache.remove(pi);
-        recordLimitsCache.remove(pi);
+        recordAccessConditionsCache.invalidate(pi);
+        recordLimitsCache.invalidate(pi);
     }
 
     /**
      * @return the recordAccessConditionsCache
      */
-    public Map<String, List<String>> getRecordAccessConditionsCache() {
+    public ApplicationCache<String, List<String>> getRecordAccessConditionsCache() {
         return recordAccessConditionsCache;
     }
 
     /**
      * @return the recordLimitsCache
      */
-    public Map<String, List<String>> getRecordLimitsCache() {
+    public ApplicationCache<String, List<String>> getRecordLimitsCache() {
         return recordLimitsCache;
     }
 }
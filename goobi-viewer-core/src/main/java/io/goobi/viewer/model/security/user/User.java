@@ -61,10 +61,12 @@ import io.goobi.viewer.controller.BCrypt;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.FileTools;
 import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.PasswordVerifier;
 import io.goobi.viewer.exceptions.AuthenticationException;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.managedbeans.ActiveDocumentBean;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.model.cms.CMSCategory;
@@ -693,11 +695,15 @@ public class User extends AbstractLicensee implements HttpSessionBindingListener
      * @return The user, if successful.
      * @throws io.goobi.viewer.exceptions.AuthenticationException if any.
      * @throws io.goobi.viewer.exceptions.DAOException if any.
+     * @throws TooManyRequestsException if too many password checks are pending for this account
      */
-    public User auth(String email, String password) throws AuthenticationException, DAOException {
+    public User auth(String email, String password) throws AuthenticationException, DAOException, TooManyRequestsException {
         User user = DataManager.getInstance().getDao().getUserByEmail(email);
         // Only allow non-openID accounts
-        if (user != null && user.getPasswordHash() != null && bcrypt.checkpw(password, user.getPasswordHash())) {
+        if (user != null && user.getPasswordHash() != null
+                && DataManager.getInstance()
+                        .getPasswordVerifier()
+                        .checkPassword(bcrypt, password, user.getPasswordHash(), PasswordVerifier.accountKey(email))) {
             user.setLastLogin(LocalDateTime.now());
             return user;
         }
@@ -182,6 +182,9 @@ public final class UserTools {
         // Delete comments
         int comments = DataManager.getInstance().getDao().deleteComments(null, user);
         logger.debug("{} comment(s) of user {} deleted.", comments, user.getId());
+        if (comments > 0) {
+            DataManager.getInstance().getRecordAnnotationCache().invalidateAll();
+        }
 
         // Delete campaign statistics
         int statistics = DataManager.getInstance().getDao().deleteCampaignStatisticsForUser(user);
@@ -214,6 +217,9 @@ public final class UserTools {
         // Move comments
         int comments = DataManager.getInstance().getDao().changeCommentsOwner(user, anon);
         logger.debug("{} comment(s) of user {} anonymized.", comments, user.getId());
+        if (comments > 0) {
+            DataManager.getInstance().getRecordAnnotationCache().invalidateAll();
+        }
 
         // Move campaign statistics
         int statistics = DataManager.getInstance().getDao().changeCampaignStatisticContributors(user, anon);
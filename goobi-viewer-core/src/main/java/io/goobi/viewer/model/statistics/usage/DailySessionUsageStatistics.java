@@ -24,7 +24,10 @@ package io.goobi.viewer.model.statistics.usage;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
 
 import jakarta.persistence.CascadeType;
@@ -203,6 +206,38 @@ public class DailySessionUsageStatistics {
         return this.sessions.stream().flatMap(s -> s.getRecordIdentifier().stream()).distinct().collect(Collectors.toList());
     }
 
+    /**
+     * Aggregates the total and unique request counts of all records in a single pass over all sessions. The returned arrays are indexed by
+     * {@link RequestType#getTotalCountIndex()} and {@link RequestType#getUniqueCountIndex()}, i.e. they have the layout of the counts written to
+     * the statistics index. A session counts as one unique request for a record and type if it requested the record at least once.
+     * 
+     * @return Map of aggregated counts per record identifier, in order of first occurrence
+     * @should aggregate total and unique counts correctly
+     */
+    public Map<String, long[]> getRecordRequestCounts() {
+        RequestType[] types = RequestType.values();
+        int size = RequestType.getRecordCountsLength();
+        Map<String, long[]> ret = new LinkedHashMap<>();
+        for (SessionUsageStatistics session : this.sessions) {
+            for (Entry<String, long[]> entry : session.getRecordCounts().entrySet()) {
+                long[] sessionCounts = entry.getValue();
+                long[] recordCounts = ret.get(entry.getKey());
+                if (recordCounts == null) {
+                    recordCounts = new long[size];
+                    ret.put(entry.getKey(), recordCounts);
+                }
+                for (RequestType type : types) {
+                    long count = sessionCounts[type.getSessionCountIndex()];
+                    if (count > 0) {
+                        recordCounts[type.getTotalCountIndex()] += count;
+                        recordCounts[type.getUniqueCountIndex()]++;
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
     @Override
     public String toString() {
         String s = "Usage statistics for " + date + " in " + viewerInstance + ". Countains " + sessions.size() + " session instances\n";
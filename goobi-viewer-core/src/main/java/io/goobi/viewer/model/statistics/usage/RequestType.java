@@ -125,6 +125,20 @@ public enum RequestType {
         return Arrays.stream(types).filter(t -> t.getUniqueCountIndex() == index).findAny().orElse(null);
     }
 
+    /**
+     * Get the length of the count array of the SOLR field for the counts of a record identifier, i.e. the number of total and unique count
+     * indices of all types
+     * 
+     * @return Array length
+     */
+    public static int getRecordCountsLength() {
+        int ret = 0;
+        for (RequestType type : RequestType.values()) {
+            ret = Math.max(ret, Math.max(type.getTotalCountIndex(), type.getUniqueCountIndex()) + 1);
+        }
+        return ret;
+    }
+
     /**
      * Get the values for which request are recorded
      * 
@@ -22,30 +22,25 @@
 package io.goobi.viewer.model.statistics.usage;
 
 import java.util.Arrays;
-import java.util.EnumMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Objects;
-import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
-import org.json.JSONArray;
 
 /**
- * Class holding counts of requests of different {@link RequestType}s. Should be serialized to a string to dao storage
+ * Class holding counts of requests of different {@link RequestType}s. Should be serialized to a string to dao storage. Counts are kept in a
+ * primitive array indexed by {@link RequestType#getSessionCountIndex()}; the string form is a JSON array of the counts, e.g.
+ * <code>[23,4,3]</code>.
  * 
  * @author florian
  */
 public class SessionRequestCounts {
 
-    private final Map<RequestType, Long> counts = new EnumMap<>(RequestType.class);
+    private final long[] counts;
 
     /**
      * Empty default constructor
      */
     public SessionRequestCounts() {
-
+        this.counts = new long[RequestType.values().length];
     }
 
     /**
@@ -54,16 +49,7 @@ public class SessionRequestCounts {
      * @param data
      */
     public SessionRequestCounts(String data) {
-        if (StringUtils.isNotBlank(data)) {
-            JSONArray array = new JSONArray(data);
-            for (int i = 0; i < array.length(); i++) {
-                RequestType type = RequestType.getTypeForSessionCountIndex(i);
-                if (type != null) {
-                    long count = array.getLong(i);
-                    counts.put(type, count);
-                }
-            }
-        }
+        this.counts = parse(data);
     }
 
     /**
@@ -73,7 +59,7 @@ public class SessionRequestCounts {
      * @param count
      */
     public void setCount(RequestType type, long count) {
-        this.counts.put(type, count);
+        this.counts[type.getSessionCountIndex()] = count;
     }
 
     /**
@@ -82,8 +68,7 @@ public class SessionRequestCounts {
      * @param type
      */
     public void incrementCount(RequestType type) {
-        Long current = getCount(type);
-        setCount(type, current + 1);
+        this.counts[type.getSessionCountIndex()]++;
     }
 
     /**
@@ -93,7 +78,7 @@ public class SessionRequestCounts {
      * @return {@link Long}
      */
     public Long getCount(RequestType type) {
-        return Optional.ofNullable(this.counts.get(type)).orElse(0L);
+        return this.counts[type.getSessionCountIndex()];
     }
 
     /**
@@ -102,19 +87,85 @@ public class SessionRequestCounts {
      * @return a json String
      */
     public String toJsonArray() {
-        int numTypes = RequestType.values().length;
-        List<Long> countsList = Arrays.asList(new Long[numTypes]);
-        for (int index = 0; index < numTypes; index++) {
-            RequestType type = RequestType.getTypeForSessionCountIndex(index);
-            Long count = Optional.ofNullable(counts.get(type)).orElse(0L);
-            countsList.set(index, count);
+        return format(counts);
+    }
+
+    /**
+     * Parses the string form of request counts into an array indexed by {@link RequestType#getSessionCountIndex()} without creating
+     * intermediate JSON objects. Values for unknown indices are ignored, missing values are 0.
+     * 
+     * @param data JSON array of counts; may be null or blank
+     * @return Array with one count per {@link RequestType}
+     * @should parse counts correctly
+     * @should return zeros for blank data
+     * @should ignore surplus values
+     * @should throw IllegalArgumentException for invalid data
+     */
+    static long[] parse(String data) {
+        return parse(data, RequestType.values().length);
+    }
+
+    /**
+     * Parses a JSON array of counts into an array of the given length. Values beyond that length are ignored, missing values are 0.
+     * 
+     * @param data JSON array of counts; may be null or blank
+     * @param length Length of the returned array
+     * @return Array of counts
+     */
+    static long[] parse(String data, int length) {
+        long[] ret = new long[length];
+        if (StringUtils.isBlank(data)) {
+            return ret;
         }
-        return new JSONArray(countsList).toString();
+        int index = 0;
+        long value = 0;
+        boolean negative = false;
+        boolean digits = false;
+        for (int i = 0; i < data.length(); ++i) {
+            char c = data.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (c == '-' && !digits) {
+                negative = true;
+            } else if (c == ',' || c == ']') {
+                if (digits && index < ret.length) {
+                    ret[index] = negative ? -value : value;
+                }
+                if (c == ']') {
+                    break;
+                }
+                ++index;
+                value = 0;
+                negative = false;
+                digits = false;
+            } else if (c != '[' && !Character.isWhitespace(c)) {
+                throw new IllegalArgumentException("Invalid request counts: " + data);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Formats the given counts as JSON array.
+     * 
+     * @param counts Counts indexed by {@link RequestType#getSessionCountIndex()}
+     * @return JSON array string
+     */
+    static String format(long[] counts) {
+        StringBuilder sb = new StringBuilder(counts.length * 4 + 2).append('[');
+        for (int i = 0; i < counts.length; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(counts[i]);
+        }
+        return sb.append(']').toString();
     }
 
     @Override
     public int hashCode() {
-        return this.counts.hashCode();
+        return Arrays.hashCode(this.counts);
     }
 
     /**
@@ -126,17 +177,7 @@ public class SessionRequestCounts {
     public boolean equals(Object o) {
         if (o != null && o.getClass().equals(this.getClass())) {
             SessionRequestCounts other = (SessionRequestCounts) o;
-            if (other.counts.size() == this.counts.size()) {
-                for (Entry<RequestType, Long> entry : this.counts.entrySet()) {
-                    RequestType type = entry.getKey();
-                    Long thisCount = entry.getValue();
-                    Long otherCount = other.counts.get(type);
-                    if (!Objects.equals(thisCount, otherCount)) {
-                        return false;
-                    }
-                }
-                return true;
-            }
+            return Arrays.equals(this.counts, other.counts);
         }
         return false;
     }
@@ -25,9 +25,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import jakarta.persistence.CollectionTable;
@@ -40,6 +43,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Persistence class containing request counts for a single http session
@@ -87,6 +91,13 @@ public class SessionUsageStatistics {
     @Column(name = "count")
     private Map<String, String> recordRequests = new HashMap<>();
 
+    /**
+     * Parsed form of {@link #recordRequests}: request counts indexed by {@link RequestType#getSessionCountIndex()} mapped to record identifiers.
+     * Created on first access so that the stored strings are parsed only once.
+     */
+    @Transient
+    private transient volatile Map<String, long[]> recordCounts = null;
+
     /**
      * Empty constructor for persistence context initialization
      */
@@ -157,9 +168,8 @@ public class SessionUsageStatistics {
      * @return the number of requests for the type and identifier
      */
     public long getRecordRequestCount(RequestType type, String recordIdentifier) {
-        return Optional.ofNullable(getRecordRequests(recordIdentifier))
-                .map(count -> count.getCount(type))
-                .orElse(0L);
+        long[] counts = getRecordCounts().get(recordIdentifier);
+        return counts != null ? counts[type.getSessionCountIndex()] : 0L;
     }
 
     /**
@@ -180,11 +190,12 @@ public class SessionUsageStatistics {
      * @return a long
      */
     public long getTotalRequestCount(RequestType type, List<String> identifiersToInclude) {
-        Collection<String> requestValues = getRequestedCounts(identifiersToInclude);
-        return requestValues.stream()
-                .map(SessionRequestCounts::new)
-                .mapToLong(count -> count.getCount(type))
-                .sum();
+        int index = type.getSessionCountIndex();
+        long ret = 0;
+        for (long[] counts : getRequestedCounts(identifiersToInclude)) {
+            ret += counts[index];
+        }
+        return ret;
     }
 
     /**
@@ -194,12 +205,14 @@ public class SessionUsageStatistics {
      * @return the number of record identifiers requested at least once for the type
      */
     public long getRequestedRecordsCount(RequestType type) {
-        return this.recordRequests.values()
-                .stream()
-                .map(SessionRequestCounts::new)
-                .mapToLong(count -> count.getCount(type))
-                .map(count -> count > 0 ? 1 : 0)
-                .sum();
+        int index = type.getSessionCountIndex();
+        long ret = 0;
+        for (long[] counts : getRecordCounts().values()) {
+            if (counts[index] > 0) {
+                ret++;
+            }
+        }
+        return ret;
     }
 
     /**
@@ -211,9 +224,9 @@ public class SessionUsageStatistics {
      */
     public void setRecordRequectCount(RequestType type, String recordIdentifier, long count) {
         synchronized (this.recordRequests) {
-            SessionRequestCounts counts = getRecordRequests(recordIdentifier);
-            counts.setCount(type, count);
-            setRecordRequests(recordIdentifier, counts);
+            long[] counts = getRecordCounts().computeIfAbsent(recordIdentifier, k -> new long[RequestType.values().length]);
+            counts[type.getSessionCountIndex()] = count;
+            this.recordRequests.put(recordIdentifier, SessionRequestCounts.format(counts));
         }
     }
 
@@ -230,6 +243,29 @@ public class SessionUsageStatistics {
         }
     }
 
+    /**
+     * Returns the request counts of all records requested in this session. The arrays are indexed by {@link RequestType#getSessionCountIndex()}
+     * and must not be modified.
+     * 
+     * @return Map of request counts per record identifier
+     */
+    Map<String, long[]> getRecordCounts() {
+        Map<String, long[]> ret = this.recordCounts;
+        if (ret == null) {
+            synchronized (this.recordRequests) {
+                ret = this.recordCounts;
+                if (ret == null) {
+                    ret = new ConcurrentHashMap<>(Math.max(16, this.recordRequests.size() * 2));
+                    for (Entry<String, String> entry : this.recordRequests.entrySet()) {
+                        ret.put(entry.getKey(), SessionRequestCounts.parse(entry.getValue()));
+                    }
+                    this.recordCounts = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * Get a list of all record identifiers contained in {@link #recordRequests}
      * 
@@ -249,29 +285,14 @@ public class SessionUsageStatistics {
     /**
      * 
      * @param identifiersToInclude
-     * @return Collection<String> (immutable!)
+     * @return Collection<long[]> (immutable!)
      */
-    private Collection<String> getRequestedCounts(List<String> identifiersToInclude) {
-        Collection<String> requestValues;
+    private Collection<long[]> getRequestedCounts(List<String> identifiersToInclude) {
+        Map<String, long[]> counts = getRecordCounts();
         if (identifiersToInclude.isEmpty()) {
-            requestValues = this.recordRequests.values();
-        } else {
-            requestValues = this.recordRequests.keySet()
-                    .stream()
-                    .filter(identifiersToInclude::contains)
-                    .map(key -> this.recordRequests.get(key))
-                    .toList();
+            return counts.values();
         }
-        return requestValues;
-    }
-
-    private SessionRequestCounts getRecordRequests(String identifier) {
-        String s = this.recordRequests.get(identifier);
-        return new SessionRequestCounts(s);
-    }
-
-    private void setRecordRequests(String identifier, SessionRequestCounts counts) {
-        String s = counts.toJsonArray();
-        this.recordRequests.put(identifier, s);
+        Set<String> included = new HashSet<>(identifiersToInclude);
+        return counts.entrySet().stream().filter(e -> included.contains(e.getKey())).map(Entry::getValue).toList();
     }
 }
@@ -48,7 +48,8 @@ import io.goobi.viewer.solr.SolrSearchIndex;
 /**
  * Task managed by the viewers {@link TaskManager} which indexes all {@link DailySessionUsageStatistics} up to the day before today. The task monitors
  * the indexing progress and deletes the {@link DailySessionUsageStatistics} for each day once a STATISTICS_USAGE document exists in the index for
- * that day. Should run in its own thread
+ * that day. The {@link UsageStatisticsRollup}s containing such a day are discarded and rollups for the last completed month and year are built
+ * afterwards. Should run in its own thread
  * 
  * @author florian
  *
@@ -63,6 +64,7 @@ public class StatisticsIndexTask {
     private final IDAO dao;
     private final StatisticsIndexer indexer;
     private final SolrSearchIndex solrIndex;
+    private final UsageStatisticsRollupManager rollupManager;
 
     /**
      * Default constructor
@@ -75,6 +77,7 @@ public class StatisticsIndexTask {
         this.dao = dao;
         this.indexer = indexer;
         this.solrIndex = solrIndex;
+        this.rollupManager = new UsageStatisticsRollupManager(dao, solrIndex);
     }
 
     /**
@@ -86,6 +89,7 @@ public class StatisticsIndexTask {
         this.dao = DataManager.getInstance().getDao();
         this.indexer = new StatisticsIndexer();
         this.solrIndex = DataManager.getInstance().getSearchIndex();
+        this.rollupManager = new UsageStatisticsRollupManager(this.dao, this.solrIndex);
     }
 
     /**
@@ -127,6 +131,7 @@ public class StatisticsIndexTask {
                         statsIndexed.put(stat, Boolean.TRUE);
                         logger.info("Deleting usage statistics in DAO for {}", stat.getDate());
                         this.dao.deleteUsageStatistics(stat.getId());
+                        this.rollupManager.invalidate(stat.getDate());
                     }
                 }
                 if (!statsIndexed.containsValue(Boolean.FALSE)) {
@@ -140,6 +145,14 @@ public class StatisticsIndexTask {
         } catch (PresentationException | IndexUnreachableException e1) {
             logger.warn("Checking indexed status of usage statistics failed with error {}", e1.toString());
         }
+
+        if (DataManager.getInstance().getConfiguration().isUsageStatisticsRollupsEnabled()) {
+            try {
+                this.rollupManager.updateRollups();
+            } catch (DAOException | PresentationException | IndexUnreachableException e) {
+                logger.warn("Updating usage statistics rollups failed with error {}", e.toString());
+            }
+        }
     }
 
     private static long getCheckDelayMillis() {
@@ -28,6 +28,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Map.Entry;
 
 import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
@@ -96,14 +97,17 @@ public class StatisticsIndexer {
         statsObject.put("date", getAsFormattedString(stats.getDate()));
         statsObject.put("viewer-name", stats.getViewerInstance());
         statsObject.put("records", records);
-        for (String pi : stats.getRecordIdentifier()) {
+        // Aggregate counts of all records in one pass over all sessions
+        RequestType[] usedTypes = RequestType.getUsedValues();
+        for (Entry<String, long[]> entry : stats.getRecordRequestCounts().entrySet()) {
+            long[] recordCounts = entry.getValue();
             JSONObject recordObject = new JSONObject();
             records.put(recordObject);
-            recordObject.put("pi", pi);
+            recordObject.put("pi", entry.getKey());
             JSONArray counts = new JSONArray(6);
-            for (RequestType type : RequestType.getUsedValues()) {
-                counts.put(type.getTotalCountIndex(), stats.getTotalRequestCount(type, pi));
-                counts.put(type.getUniqueCountIndex(), stats.getUniqueRequestCount(type, pi));
+            for (RequestType type : usedTypes) {
+                counts.put(type.getTotalCountIndex(), recordCounts[type.getTotalCountIndex()]);
+                counts.put(type.getUniqueCountIndex(), recordCounts[type.getUniqueCountIndex()]);
             }
             recordObject.put("counts", counts);
         }
@@ -46,6 +46,8 @@ import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup.Granularity;
+import io.goobi.viewer.model.viewer.StringPair;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrSearchIndex;
 
@@ -72,13 +74,19 @@ public class StatisticsSummaryBuilder {
      */
     private final SolrSearchIndex searchIndex;
 
+    /**
+     * Provides the monthly and yearly sums for completed periods. If null, all statistics are read from the daily SOLR documents
+     */
+    private final UsageStatisticsRollupManager rollupManager;
+
     /**
      * Constructor using instances from {@link DataManager}
      * 
      * @throws DAOException
      */
     public StatisticsSummaryBuilder() throws DAOException {
-        this(DataManager.getInstance().getDao(), DataManager.getInstance().getSearchIndex());
+        this(DataManager.getInstance().getDao(), DataManager.getInstance().getSearchIndex(),
+                DataManager.getInstance().getConfiguration().isUsageStatisticsRollupsEnabled() ? new UsageStatisticsRollupManager() : null);
     }
 
     /**
@@ -88,8 +96,20 @@ public class StatisticsSummaryBuilder {
      * @param searchIndex the {@link SolrSearchIndex} to set
      */
     public StatisticsSummaryBuilder(IDAO dao, SolrSearchIndex searchIndex) {
+        this(dao, searchIndex, null);
+    }
+
+    /**
+     * Constructor with rollup support
+     * 
+     * @param dao the {@link IDAO} to set. May be null since it isn't used
+     * @param searchIndex the {@link SolrSearchIndex} to set
+     * @param rollupManager the {@link UsageStatisticsRollupManager} to use for completed months and years. May be null
+     */
+    public StatisticsSummaryBuilder(IDAO dao, SolrSearchIndex searchIndex, UsageStatisticsRollupManager rollupManager) {
         this.dao = dao;
         this.searchIndex = searchIndex;
+        this.rollupManager = rollupManager;
     }
 
     /**
@@ -100,11 +120,117 @@ public class StatisticsSummaryBuilder {
      * @throws DAOException
      * @throws IndexUnreachableException
      * @throws PresentationException
+     * @should return same summary from rollups as from daily statistics
+     * @should return same summary from rollups as from daily statistics for filtered records
      */
     public StatisticsSummary loadSummary(StatisticsSummaryFilter filter) throws IndexUnreachableException, PresentationException {
+        if (rollupManager != null && (filter.isDateRange() || (!filter.hasStartDateRestriction() && !filter.hasEndDateRestriction()))) {
+            try {
+                return loadFromRollups(filter);
+            } catch (DAOException e) {
+                logger.warn("Usage statistics rollups not available, reading daily statistics instead: {}", e.toString());
+            }
+        }
         return loadFromSolr(filter);
     }
 
+    /**
+     * Sums up the rollups of all completed years and months within the filter's date range and reads the daily SOLR documents only for the
+     * remaining days.
+     * 
+     * @param filter
+     * @return {@link StatisticsSummary}
+     * @throws DAOException
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     */
+    private StatisticsSummary loadFromRollups(StatisticsSummaryFilter filter) throws DAOException, IndexUnreachableException, PresentationException {
+        List<String> identifiersToInclude = getFilteredIdentifierList(filter);
+        if (filter.hasFilterQuery() && identifiersToInclude.isEmpty()) {
+            throw new WebApplicationException("No records found matching filter " + filter.getFilterQuery());
+        }
+
+        // Restrict the range to the days for which statistics exist
+        LocalDate firstIndexedDate = getIndexedDate(true);
+        LocalDate lastIndexedDate = getIndexedDate(false);
+        if (firstIndexedDate == null || lastIndexedDate == null) {
+            return StatisticsSummary.empty();
+        }
+        LocalDate start = filter.getStartDate().isAfter(firstIndexedDate) ? filter.getStartDate() : firstIndexedDate;
+        LocalDate end = filter.getEndDate().isBefore(lastIndexedDate) ? filter.getEndDate() : lastIndexedDate;
+
+        StatisticsSummary ret = StatisticsSummary.empty();
+        for (SummaryPeriod period : planPeriods(start, end, UsageStatisticsRollupManager.getLastCompleteDay())) {
+            if (period.getGranularity() != null) {
+                ret = ret.add(rollupManager.getSummary(period.getGranularity(), period.getStart(), identifiersToInclude));
+            } else {
+                ret = ret.add(loadFromSolr(getSolrQuery(StatisticsSummaryFilter.ofDateRange(period.getStart(), period.getEnd())),
+                        identifiersToInclude));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Splits the given date range into the least number of periods, using whole years and months where they have ended and ranges of single
+     * days for the rest.
+     * 
+     * @param start First day of the range
+     * @param end Last day of the range
+     * @param lastCompleteDay Last day for which no more statistics will be recorded
+     * @return List of {@link SummaryPeriod}s covering the range without overlap
+     * @should use years and months for completed periods
+     * @should use days for incomplete periods
+     * @should return empty list if start after end
+     */
+    static List<SummaryPeriod> planPeriods(LocalDate start, LocalDate end, LocalDate lastCompleteDay) {
+        List<SummaryPeriod> ret = new ArrayList<>();
+        LocalDate cursor = start;
+        LocalDate dayRangeStart = null;
+        while (!cursor.isAfter(end)) {
+            Granularity granularity = null;
+            for (Granularity g : new Granularity[] { Granularity.YEAR, Granularity.MONTH }) {
+                if (cursor.equals(g.getPeriodStart(cursor)) && !g.getPeriodEnd(cursor).isAfter(end)
+                        && UsageStatisticsRollupManager.isComplete(g, cursor, lastCompleteDay)) {
+                    granularity = g;
+                    break;
+                }
+            }
+            if (granularity != null) {
+                if (dayRangeStart != null) {
+                    ret.add(new SummaryPeriod(null, dayRangeStart, cursor.minusDays(1)));
+                    dayRangeStart = null;
+                }
+                ret.add(new SummaryPeriod(granularity, cursor, granularity.getPeriodEnd(cursor)));
+                cursor = granularity.getPeriodEnd(cursor).plusDays(1);
+            } else {
+                if (dayRangeStart == null) {
+                    dayRangeStart = cursor;
+                }
+                cursor = cursor.plusDays(1);
+            }
+        }
+        if (dayRangeStart != null) {
+            ret.add(new SummaryPeriod(null, dayRangeStart, end));
+        }
+        return ret;
+    }
+
+    /**
+     * 
+     * @param first If true, return the earliest date; otherwise the latest
+     * @return Date of the first or last STATISTICS_USAGE document; null if none exist
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private LocalDate getIndexedDate(boolean first) throws PresentationException, IndexUnreachableException {
+        SolrDocumentList docs = this.searchIndex.search(
+                "+" + SolrConstants.DOCTYPE + ":" + StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE, 1,
+                Collections.singletonList(new StringPair(StatisticsLuceneFields.DATE, first ? "asc" : "desc")),
+                Collections.singletonList(StatisticsLuceneFields.DATE));
+        return docs.isEmpty() ? null : getDate(docs.get(0));
+    }
+
     /**
      * 
      * @param filter
@@ -117,13 +243,25 @@ public class StatisticsSummaryBuilder {
         if (filter.hasFilterQuery() && identifiersToInclude.isEmpty()) {
             throw new WebApplicationException("No records found matching filter " + filter.getFilterQuery());
         }
+        return loadFromSolr(getSolrQuery(filter), identifiersToInclude);
+    }
+
+    /**
+     * 
+     * @param query
+     * @param identifiersToInclude
+     * @return {@link StatisticsSummary}
+     * @throws IndexUnreachableException
+     * @throws PresentationException
+     */
+    private StatisticsSummary loadFromSolr(String query, List<String> identifiersToInclude) throws IndexUnreachableException, PresentationException {
         List<String> fields = new ArrayList<>(getFieldListForRecords(identifiersToInclude));
         if (!fields.isEmpty()) {
             fields.add(StatisticsLuceneFields.DATE);
         }
         SolrDocumentList docs =
                 // search(getSolrQuery(filter), fields);
-                this.searchIndex.search(getSolrQuery(filter), fields);
+                this.searchIndex.search(query, fields);
         return docs.stream().reduce(StatisticsSummary.empty(), this::add, StatisticsSummary::add);
     }
 
@@ -150,7 +288,7 @@ public class StatisticsSummaryBuilder {
             if (fieldName.startsWith(StatisticsLuceneFields.RECORD_STATISTICS_PREFIX)) {
                 try {
                     List<Long> values = (List<Long>) doc.getFieldValue(fieldName);
-                    for (int i = 0; i < counts.length; i++) {
+                    for (int i = 0; i < Math.min(counts.length, values.size()); i++) {
                         counts[i] += values.get(i);
                     }
                 } catch (ClassCastException e) {
@@ -202,7 +340,7 @@ public class StatisticsSummaryBuilder {
         return map;
     }
 
-    private static LocalDate getDate(SolrDocument doc) {
+    static LocalDate getDate(SolrDocument doc) {
         if (doc.containsKey(StatisticsLuceneFields.DATE)) {
             Date date = (Date) doc.getFieldValue(StatisticsLuceneFields.DATE);
             return new Timestamp(date.getTime()).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
@@ -272,4 +410,47 @@ public class StatisticsSummaryBuilder {
         StatisticsSummary dailyStatsSummary = new StatisticsSummary(dailyStats, identifiersToInclude);
         return summary.add(dailyStatsSummary);
     }
+
+    /**
+     * Part of a date range which is summed up either from a rollup or from the daily SOLR documents
+     */
+    static final class SummaryPeriod {
+
+        /** Period length; null for a range of single days */
+        private final Granularity granularity;
+        private final LocalDate start;
+        private final LocalDate end;
+
+        SummaryPeriod(Granularity granularity, LocalDate start, LocalDate end) {
+            this.granularity = granularity;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * @return the granularity; null for a range of single days
+         */
+        public Granularity getGranularity() {
+            return granularity;
+        }
+
+        /**
+         * @return the start
+         */
+        public LocalDate getStart() {
+            return start;
+        }
+
+        /**
+         * @return the end
+         */
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return (granularity != null ? granularity : "DAYS") + " " + start + " - " + end;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.statistics.usage;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Persistence class holding the request counts of a whole month or year, either for all records or for a single record identifier. The counts
+ * are the sums of the counts of all STATISTICS_USAGE documents within the period and have the same layout as the per-record counts in those
+ * documents (see {@link RequestType#getTotalCountIndex()} and {@link RequestType#getUniqueCountIndex()}).
+ */
+@Entity
+@Table(name = "usage_statistics_rollup", indexes = { @Index(name = "idx_usage_statistics_rollup_period", columnList = "granularity,period_start") })
+public class UsageStatisticsRollup {
+
+    /**
+     * Length of the period covered by a rollup
+     */
+    public enum Granularity {
+        /** One calendar month */
+        MONTH,
+        /** One calendar year */
+        YEAR;
+
+        /**
+         * @param date Any date within the period
+         * @return First day of the period containing the given date
+         */
+        public LocalDate getPeriodStart(LocalDate date) {
+            return this == YEAR ? date.withDayOfYear(1) : date.withDayOfMonth(1);
+        }
+
+        /**
+         * @param periodStart First day of the period
+         * @return Last day of the period
+         */
+        public LocalDate getPeriodEnd(LocalDate periodStart) {
+            return this == YEAR ? periodStart.plusYears(1).minusDays(1) : periodStart.plusMonths(1).minusDays(1);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "usage_statistics_rollup_id")
+    private Long id;
+
+    @Column(name = "granularity", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private Granularity granularity;
+
+    /**
+     * First day of the period
+     */
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /**
+     * Record identifier; null for the counts of all records
+     */
+    @Column(name = "record_identifier")
+    private String recordIdentifier;
+
+    /**
+     * Stringified array of counts
+     */
+    @Column(name = "counts", nullable = false)
+    private String counts;
+
+    /**
+     * First day within the period with any requests; null if there were none
+     */
+    @Column(name = "first_date")
+    private LocalDate firstDate;
+
+    /**
+     * Last day within the period with any requests; null if there were none
+     */
+    @Column(name = "last_date")
+    private LocalDate lastDate;
+
+    /**
+     * Empty constructor for persistence context initialization
+     */
+    public UsageStatisticsRollup() {
+
+    }
+
+    /**
+     * 
+     * @param granularity
+     * @param periodStart
+     * @param recordIdentifier
+     * @param counts
+     * @param firstDate
+     * @param lastDate
+     */
+    public UsageStatisticsRollup(Granularity granularity, LocalDate periodStart, String recordIdentifier, long[] counts, LocalDate firstDate,
+            LocalDate lastDate) {
+        this.granularity = granularity;
+        this.periodStart = periodStart;
+        this.recordIdentifier = recordIdentifier;
+        this.counts = SessionRequestCounts.format(counts);
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+    }
+
+    /**
+     * @return the id
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return the granularity
+     */
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * @return the periodStart
+     */
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * @return the recordIdentifier
+     */
+    public String getRecordIdentifier() {
+        return recordIdentifier;
+    }
+
+    /**
+     * @return Counts indexed by {@link RequestType#getTotalCountIndex()} and {@link RequestType#getUniqueCountIndex()}
+     */
+    public long[] getCounts() {
+        return SessionRequestCounts.parse(counts, RequestType.getRecordCountsLength());
+    }
+
+    /**
+     * @return the firstDate
+     */
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    /**
+     * @return the lastDate
+     */
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    @Override
+    public String toString() {
+        return granularity + " " + periodStart + (recordIdentifier != null ? " " + recordIdentifier : "") + ": " + counts;
+    }
+}
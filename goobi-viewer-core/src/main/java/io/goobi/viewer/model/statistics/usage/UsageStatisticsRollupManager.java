@@ -0,0 +1,352 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.statistics.usage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup.Granularity;
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
+
+/**
+ * Maintains the monthly and yearly {@link UsageStatisticsRollup}s used by {@link StatisticsSummaryBuilder}. A rollup is only created for a
+ * period which has ended before the current day and is built from the STATISTICS_USAGE documents of that period (yearly rollups from the
+ * monthly ones). Rollups are created lazily when first requested and by {@link #updateRollups()} after each statistics indexing run; the
+ * rollups containing a day are deleted whenever the statistics document of that day is (re-)indexed.
+ */
+public class UsageStatisticsRollupManager {
+
+    private static final Logger logger = LogManager.getLogger(UsageStatisticsRollupManager.class);
+
+    /** Maximum number of record identifiers per database query */
+    private static final int MAX_IDENTIFIERS_PER_QUERY = 1000;
+
+    /** Makes sure each rollup is only built once, even across several manager instances */
+    private static final Object LOCK = new Object();
+
+    private final IDAO dao;
+    private final SolrSearchIndex searchIndex;
+
+    /**
+     * Default constructor
+     *
+     * @param dao the DAO in which to store the rollups
+     * @param searchIndex the {@link SolrSearchIndex} from which to read the STATISTICS_USAGE documents
+     */
+    public UsageStatisticsRollupManager(IDAO dao, SolrSearchIndex searchIndex) {
+        this.dao = dao;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Constructor using instances from {@link DataManager}
+     *
+     * @throws DAOException
+     */
+    public UsageStatisticsRollupManager() throws DAOException {
+        this(DataManager.getInstance().getDao(), DataManager.getInstance().getSearchIndex());
+    }
+
+    /**
+     * Checks whether a period has ended so that a rollup may be created for it.
+     *
+     * @param granularity Period length
+     * @param periodStart First day of the period
+     * @param lastCompleteDay Last day for which no more statistics will be recorded
+     * @return true if the last day of the period is not after lastCompleteDay; false otherwise
+     */
+    public static boolean isComplete(Granularity granularity, LocalDate periodStart, LocalDate lastCompleteDay) {
+        return !granularity.getPeriodEnd(periodStart).isAfter(lastCompleteDay);
+    }
+
+    /**
+     * @return Last day for which no more statistics will be recorded, i.e. yesterday
+     */
+    public static LocalDate getLastCompleteDay() {
+        return LocalDate.now().minusDays(1);
+    }
+
+    /**
+     * Returns the summed request counts of a completed period, building the rollup first if necessary.
+     *
+     * @param granularity Period length
+     * @param periodStart First day of the period
+     * @param identifiersToInclude Record identifiers to include; if empty, requests for all records are counted
+     * @return {@link StatisticsSummary}
+     * @throws DAOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should use stored rollup
+     * @should build and store rollups of completed month
+     * @should sum monthly rollups of given records into year
+     * @should throw IllegalArgumentException if period has not ended
+     */
+    public StatisticsSummary getSummary(Granularity granularity, LocalDate periodStart, List<String> identifiersToInclude)
+            throws DAOException, PresentationException, IndexUnreachableException {
+        UsageStatisticsRollup overall = getOrBuildRollup(granularity, periodStart);
+        if (identifiersToInclude.isEmpty()) {
+            return toSummary(overall.getCounts(), overall.getFirstDate(), overall.getLastDate());
+        }
+
+        Accumulator acc = new Accumulator();
+        for (int i = 0; i < identifiersToInclude.size(); i += MAX_IDENTIFIERS_PER_QUERY) {
+            List<String> chunk = identifiersToInclude.subList(i, Math.min(i + MAX_IDENTIFIERS_PER_QUERY, identifiersToInclude.size()));
+            for (UsageStatisticsRollup rollup : dao.getUsageStatisticsRollups(granularity, periodStart, chunk)) {
+                acc.add(rollup.getCounts(), rollup.getFirstDate(), rollup.getLastDate());
+            }
+        }
+        return toSummary(acc.counts, acc.firstDate, acc.lastDate);
+    }
+
+    /**
+     * Deletes the monthly and yearly rollups containing the given day. Must be called whenever the statistics document for that day changes.
+     *
+     * @param date Day whose statistics have changed
+     * @throws DAOException
+     * @should delete rollups containing date
+     */
+    public void invalidate(LocalDate date) throws DAOException {
+        synchronized (LOCK) {
+            for (Granularity granularity : Granularity.values()) {
+                int deleted = dao.deleteUsageStatisticsRollups(granularity, granularity.getPeriodStart(date));
+                if (deleted > 0) {
+                    logger.debug("Deleted {} usage statistics rollups for {} {}", deleted, granularity, granularity.getPeriodStart(date));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the rollups for the last completed month and year unless they already exist.
+     *
+     * @throws DAOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    public void updateRollups() throws DAOException, PresentationException, IndexUnreachableException {
+        LocalDate lastCompleteDay = getLastCompleteDay();
+        for (Granularity granularity : Granularity.values()) {
+            LocalDate periodStart = granularity.getPeriodStart(lastCompleteDay);
+            if (!isComplete(granularity, periodStart, lastCompleteDay)) {
+                periodStart = granularity.getPeriodStart(periodStart.minusDays(1));
+            }
+            getOrBuildRollup(granularity, periodStart);
+        }
+    }
+
+    /**
+     *
+     * @param granularity
+     * @param periodStart
+     * @return Rollup with the counts of all records
+     * @throws DAOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    UsageStatisticsRollup getOrBuildRollup(Granularity granularity, LocalDate periodStart)
+            throws DAOException, PresentationException, IndexUnreachableException {
+        UsageStatisticsRollup ret = dao.getUsageStatisticsRollup(granularity, periodStart);
+        if (ret != null) {
+            return ret;
+        }
+        synchronized (LOCK) {
+            ret = dao.getUsageStatisticsRollup(granularity, periodStart);
+            if (ret != null) {
+                return ret;
+            }
+            if (!isComplete(granularity, periodStart, getLastCompleteDay())) {
+                throw new IllegalArgumentException("Usage statistics period has not ended yet: " + granularity + " " + periodStart);
+            }
+            long start = System.currentTimeMillis();
+            List<UsageStatisticsRollup> rollups = granularity == Granularity.YEAR ? buildYear(periodStart) : buildMonth(periodStart);
+            if (!dao.addUsageStatisticsRollups(rollups)) {
+                logger.warn("Could not store usage statistics rollups for {} {}", granularity, periodStart);
+            }
+            logger.debug("Built {} usage statistics rollups for {} {} in {} ms", rollups.size(), granularity, periodStart,
+                    System.currentTimeMillis() - start);
+            return rollups.get(0);
+        }
+    }
+
+    /**
+     *
+     * @param periodStart
+     * @return List of rollups; the first element holds the counts of all records
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private List<UsageStatisticsRollup> buildMonth(LocalDate periodStart) throws PresentationException, IndexUnreachableException {
+        LocalDate periodEnd = Granularity.MONTH.getPeriodEnd(periodStart);
+        String query = new StringBuilder().append("+")
+                .append(SolrConstants.DOCTYPE)
+                .append(":")
+                .append(StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE)
+                .append(" +")
+                .append(StatisticsLuceneFields.DATE)
+                .append(":[")
+                .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(periodStart.atStartOfDay()))
+                .append(" TO ")
+                .append(StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(periodEnd.atStartOfDay()))
+                .append("]")
+                .toString();
+        SolrDocumentList docs = searchIndex.search(query, Collections.emptyList());
+
+        Accumulator overall = new Accumulator();
+        Map<String, Accumulator> records = new HashMap<>();
+        for (SolrDocument doc : docs) {
+            LocalDate date = StatisticsSummaryBuilder.getDate(doc);
+            long[] docCounts = new long[RequestType.getRecordCountsLength()];
+            for (String fieldName : doc.getFieldNames()) {
+                if (fieldName.startsWith(StatisticsLuceneFields.RECORD_STATISTICS_PREFIX)) {
+                    long[] counts = getCounts(fieldName, doc.getFieldValue(fieldName));
+                    if (counts != null) {
+                        records.computeIfAbsent(StatisticsLuceneFields.getPi(fieldName), k -> new Accumulator()).add(counts, date, date);
+                        for (int i = 0; i < counts.length; i++) {
+                            docCounts[i] += counts[i];
+                        }
+                    }
+                }
+            }
+            overall.add(docCounts, date, date);
+        }
+
+        return toRollups(Granularity.MONTH, periodStart, overall, records);
+    }
+
+    /**
+     *
+     * @param periodStart
+     * @return List of rollups; the first element holds the counts of all records
+     * @throws DAOException
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private List<UsageStatisticsRollup> buildYear(LocalDate periodStart) throws DAOException, PresentationException, IndexUnreachableException {
+        Accumulator overall = new Accumulator();
+        Map<String, Accumulator> records = new HashMap<>();
+        for (LocalDate month = periodStart; month.getYear() == periodStart.getYear(); month = month.plusMonths(1)) {
+            UsageStatisticsRollup monthOverall = getOrBuildRollup(Granularity.MONTH, month);
+            overall.add(monthOverall.getCounts(), monthOverall.getFirstDate(), monthOverall.getLastDate());
+            for (UsageStatisticsRollup rollup : dao.getUsageStatisticsRollups(Granularity.MONTH, month, null)) {
+                records.computeIfAbsent(rollup.getRecordIdentifier(), k -> new Accumulator())
+                        .add(rollup.getCounts(), rollup.getFirstDate(), rollup.getLastDate());
+            }
+        }
+
+        return toRollups(Granularity.YEAR, periodStart, overall, records);
+    }
+
+    private static List<UsageStatisticsRollup> toRollups(Granularity granularity, LocalDate periodStart, Accumulator overall,
+            Map<String, Accumulator> records) {
+        List<UsageStatisticsRollup> ret = new ArrayList<>(records.size() + 1);
+        // The overall rollup is stored even if empty, marking the period as processed
+        ret.add(new UsageStatisticsRollup(granularity, periodStart, null, overall.counts, overall.firstDate, overall.lastDate));
+        for (Entry<String, Accumulator> entry : records.entrySet()) {
+            Accumulator acc = entry.getValue();
+            if (acc.firstDate != null) {
+                ret.add(new UsageStatisticsRollup(granularity, periodStart, entry.getKey(), acc.counts, acc.firstDate, acc.lastDate));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @param fieldName
+     * @param value
+     * @return Counts as array; null if the value has an unexpected type
+     */
+    private static long[] getCounts(String fieldName, Object value) {
+        if (!(value instanceof List<?> values)) {
+            logger.warn("Encountered solr doc field of unexpected type: '{}' : '{}'", fieldName, value);
+            return null;
+        }
+        long[] ret = new long[RequestType.getRecordCountsLength()];
+        for (int i = 0; i < Math.min(ret.length, values.size()); i++) {
+            if (values.get(i) instanceof Number n) {
+                ret[i] = n.longValue();
+            }
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @param counts
+     * @param firstDate
+     * @param lastDate
+     * @return {@link StatisticsSummary}
+     */
+    static StatisticsSummary toSummary(long[] counts, LocalDate firstDate, LocalDate lastDate) {
+        if (firstDate == null) {
+            return StatisticsSummary.empty();
+        }
+        Map<RequestType, RequestTypeSummary> types = new EnumMap<>(RequestType.class);
+        for (RequestType type : RequestType.values()) {
+            types.put(type, new RequestTypeSummary(counts[type.getTotalCountIndex()], counts[type.getUniqueCountIndex()], firstDate, lastDate));
+        }
+        return new StatisticsSummary(types);
+    }
+
+    /**
+     * Sums counts and tracks the first and last day with any requests.
+     */
+    private static class Accumulator {
+
+        private final long[] counts = new long[RequestType.getRecordCountsLength()];
+        private LocalDate firstDate = null;
+        private LocalDate lastDate = null;
+
+        void add(long[] values, LocalDate first, LocalDate last) {
+            boolean hasRequests = false;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += values[i];
+            }
+            for (RequestType type : RequestType.values()) {
+                if (values[type.getTotalCountIndex()] > 0) {
+                    hasRequests = true;
+                }
+            }
+            if (hasRequests && first != null && last != null) {
+                firstDate = firstDate == null || first.isBefore(firstDate) ? first : firstDate;
+                lastDate = lastDate == null || last.isAfter(lastDate) ? last : lastDate;
+            }
+        }
+    }
+}
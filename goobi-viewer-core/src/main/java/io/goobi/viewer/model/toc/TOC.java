@@ -91,9 +91,21 @@ public class TOC implements Serializable {
      */
     public void generate(StructElement structElement, boolean addAllSiblings, String mimeType, int tocCurrentPage)
             throws PresentationException, IndexUnreachableException, DAOException, ViewerConfigurationException {
+        if (structElement == null) {
+            throw new IllegalArgumentException("structElement may not me null");
+        }
+        // The user-independent skeleton is shared between sessions; permissions and tree state are applied to per-session copies
+        TocSkeleton skeleton = DataManager.getInstance()
+                .getTocSkeletonCache()
+                .getSkeleton(structElement, addAllSiblings, mimeType, tocCurrentPage,
+                        DataManager.getInstance().getConfiguration().getTocAnchorGroupElementsPerPage());
+        Map<String, List<TOCElement>> elements = TocMaker.applyAccessPermissions(skeleton, BeanUtils.getRequest());
         synchronized (this) {
-            tocElementMap = TocMaker.generateToc(this, structElement, addAllSiblings, mimeType, tocCurrentPage,
-                    DataManager.getInstance().getConfiguration().getTocAnchorGroupElementsPerPage());
+            if (TocSkeleton.Type.ANCHOR.equals(skeleton.getType())) {
+                setTotalTocSize(skeleton.getTotalTocSize());
+                setCurrentPage(tocCurrentPage);
+            }
+            tocElementMap = elements;
         }
     }
 
@@ -22,6 +22,7 @@
 package io.goobi.viewer.model.toc;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -125,6 +126,40 @@ public class TOCElement implements Serializable {
                         .buildPageUrl(topStructPi, pageNo != null ? Integer.valueOf(pageNo) : 1, logId, pageType, false);
     }
 
+    /**
+     * Copy constructor used to create per-session instances from the shared elements of a {@link TocSkeleton}. Tree state (visibility,
+     * expansion, IDs) is copied as well; the URL prefix is determined again for the current request.
+     *
+     * @param orig Element to copy
+     * @param accessPermissionPdf PDF download permission of the current user for the copy
+     * @should copy all fields
+     * @should set given pdf permission
+     */
+    public TOCElement(TOCElement orig, boolean accessPermissionPdf) {
+        this.label = orig.label;
+        this.pageNo = orig.pageNo;
+        this.pageNoLabel = orig.pageNoLabel;
+        this.iddoc = orig.iddoc;
+        this.logId = orig.logId;
+        this.level = orig.level;
+        this.topStructPi = orig.topStructPi;
+        this.thumbnailUrl = orig.thumbnailUrl;
+        this.accessPermissionPdf = accessPermissionPdf;
+        this.anchorOrGroup = orig.anchorOrGroup;
+        this.recordMimeType = orig.recordMimeType;
+        this.footerId = orig.footerId;
+        this.metadata.putAll(orig.metadata);
+        this.visible = orig.visible;
+        this.id = orig.id;
+        this.parentId = orig.parentId;
+        this.expanded = orig.expanded;
+        this.hasChild = orig.hasChild;
+        this.groupIds = orig.groupIds != null ? new ArrayList<>(orig.groupIds) : null;
+        this.pageType = orig.pageType;
+        this.urlPrefix = new StringBuilder().append(BeanUtils.getServletPathWithHostAsUrlFromJsfContext()).append('/').toString();
+        this.urlSuffix = orig.urlSuffix;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
@@ -165,7 +165,39 @@ public final class TocMaker {
             throw new IllegalArgumentException("toc may not me null");
         }
 
-        logger.trace("generateToc: {}", structElement.getPi());
+        TocSkeleton skeleton = buildSkeleton(structElement, addAllSiblings, mimeType, tocCurrentPage, hitsPerPage);
+        if (TocSkeleton.Type.ANCHOR.equals(skeleton.getType())) {
+            toc.setTotalTocSize(skeleton.getTotalTocSize());
+            toc.setCurrentPage(tocCurrentPage);
+        }
+
+        return applyAccessPermissions(skeleton, BeanUtils.getRequest());
+    }
+
+    /**
+     * Builds the user-independent TOC skeleton for the given struct element. Elements are created without any PDF download permission and
+     * anchor volumes are not filtered by listing permission; use {@link #applyAccessPermissions(TocSkeleton, HttpServletRequest)} to obtain
+     * the elements for the current user.
+     *
+     * @param structElement Struct element for which to build the TOC
+     * @param addAllSiblings If true and <code>structElement</code> has a parent, other siblings will be listed as well and can be navigated.
+     * @param mimeType Mime type determines the target URL of the TOC element.
+     * @param tocCurrentPage Current page of a paginated TOC.
+     * @param hitsPerPage Hits per page of a paginated TOC.
+     * @return {@link TocSkeleton}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     * @should build skeleton without user permissions
+     * @should throw IllegalArgumentException if structElement is null
+     */
+    public static TocSkeleton buildSkeleton(StructElement structElement, boolean addAllSiblings, String mimeType, int tocCurrentPage,
+            int hitsPerPage) throws PresentationException, IndexUnreachableException, DAOException {
+        if (structElement == null) {
+            throw new IllegalArgumentException("structElement may not me null");
+        }
+
+        logger.trace("buildSkeleton: {}", structElement.getPi());
         LinkedHashMap<String, List<TOCElement>> ret = new LinkedHashMap<>();
         ret.put(StringConstants.DEFAULT_NAME, new ArrayList<>());
 
@@ -176,11 +208,14 @@ public final class TocMaker {
                 .getFirstDoc(new StringBuilder(SolrConstants.IDDOC).append(':').append(structElement.getLuceneId()).toString(),
                         getSolrFieldsToFetch(structElement.getDocStructType()));
         if (doc == null) {
-            return ret;
+            return new TocSkeleton(TocSkeleton.Type.RECORD, ret, 0, sourceFormatPdfAllowed);
         }
 
+        TocSkeleton.Type type;
+        int totalTocSize = 0;
         if (structElement.isGroup()) {
             // Group
+            type = TocSkeleton.Type.GROUP;
             int level = 0;
             // Try LABEL first (should equal MD_TITLE or MD_SERIESTITLE)
             IMetadataValue label = new SimpleMetadataValue(structElement.getLabel());
@@ -199,18 +234,100 @@ public final class TocMaker {
                             false, true, false, mimeType, docstruct, footerId));
             // ++level;
             buildGroupToc(ret.get(StringConstants.DEFAULT_NAME), DataManager.getInstance().getConfiguration().getRecordGroupIdentifierFields(),
-                    structElement.getPi(), sourceFormatPdfAllowed, mimeType);
+                    structElement.getPi(), mimeType);
         } else if (structElement.isAnchor()) {
             // MultiVolume
-            int numVolumes = buildAnchorToc(ret, doc, sourceFormatPdfAllowed, mimeType, tocCurrentPage, hitsPerPage);
-            toc.setTotalTocSize(numVolumes);
-            toc.setCurrentPage(tocCurrentPage);
+            type = TocSkeleton.Type.ANCHOR;
+            totalTocSize = buildAnchorToc(ret, doc, sourceFormatPdfAllowed, mimeType, tocCurrentPage, hitsPerPage);
         } else {
             // Stand-alone or volume
-            ret.put(StringConstants.DEFAULT_NAME, buildToc(doc, structElement, addAllSiblings, mimeType, sourceFormatPdfAllowed));
+            type = TocSkeleton.Type.RECORD;
+            ret.put(StringConstants.DEFAULT_NAME, buildToc(doc, structElement, addAllSiblings, mimeType));
+        }
+
+        logger.trace("buildSkeleton end: {} groups, {} elements in DEFAULT", ret.size(), ret.get(StringConstants.DEFAULT_NAME).size());
+        return new TocSkeleton(type, ret, totalTocSize, sourceFormatPdfAllowed);
+    }
+
+    /**
+     * Creates copies of the elements of the given skeleton with the permissions of the current user applied:
+     * <ul>
+     * <li>anchor volumes the user may not list are removed (only within a JSF context)</li>
+     * <li>group members and anchor volumes whose records cannot be found are removed</li>
+     * <li>the PDF download permission is checked for each element</li>
+     * </ul>
+     * Permission checks are cached per session by {@link AccessConditionUtils}.
+     *
+     * @param skeleton Shared TOC skeleton
+     * @param request Current request
+     * @return Per-user TOC elements grouped by TOC group name
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     * @should return copies of skeleton elements
+     * @should throw IllegalArgumentException if skeleton is null
+     */
+    public static Map<String, List<TOCElement>> applyAccessPermissions(TocSkeleton skeleton, HttpServletRequest request)
+            throws IndexUnreachableException, DAOException {
+        if (skeleton == null) {
+            throw new IllegalArgumentException("skeleton may not be null");
+        }
+
+        Map<String, List<TOCElement>> ret = new LinkedHashMap<>();
+        if (TocSkeleton.Type.RECORD.equals(skeleton.getType())) {
+            // Check PDF download permissions for all docstructs of each contained record at once
+            boolean checkPdf = skeleton.isSourceFormatPdfAllowed() && DataManager.getInstance().getConfiguration().isTocPdfEnabled();
+            Map<String, Map<String, AccessPermission>> pdfPermissionMaps = new HashMap<>();
+            for (Entry<String, List<TOCElement>> entry : skeleton.getElements().entrySet()) {
+                List<TOCElement> elements = new ArrayList<>(entry.getValue().size());
+                for (TOCElement element : entry.getValue()) {
+                    boolean accessPermissionPdf = false;
+                    if (checkPdf && element.getTopStructPi() != null && element.getLogId() != null) {
+                        Map<String, AccessPermission> pdfPermissionMap = pdfPermissionMaps.get(element.getTopStructPi());
+                        if (pdfPermissionMap == null) {
+                            pdfPermissionMap = AccessConditionUtils.checkAccessPermissionByIdentiferForAllLogids(element.getTopStructPi(),
+                                    IPrivilegeHolder.PRIV_DOWNLOAD_PDF, request);
+                            pdfPermissionMaps.put(element.getTopStructPi(), pdfPermissionMap);
+                        }
+                        AccessPermission permission = pdfPermissionMap.get(element.getLogId());
+                        accessPermissionPdf = permission != null && permission.isGranted();
+                    }
+                    elements.add(new TOCElement(element, accessPermissionPdf));
+                }
+                ret.put(entry.getKey(), elements);
+            }
+            return ret;
+        }
+
+        // Groups and anchors: top element followed by member records/volumes
+        boolean checkListing = TocSkeleton.Type.ANCHOR.equals(skeleton.getType()) && FacesContext.getCurrentInstance() != null;
+        for (Entry<String, List<TOCElement>> entry : skeleton.getElements().entrySet()) {
+            List<TOCElement> elements = new ArrayList<>(entry.getValue().size());
+            for (TOCElement element : entry.getValue()) {
+                if (element.getLevel() == 0) {
+                    elements.add(new TOCElement(element, element.isAccessPermissionPdf()));
+                    continue;
+                }
+                String topStructPi = element.getTopStructPi();
+                try {
+                    // Skip volumes that may not be listed
+                    if (checkListing && !AccessConditionUtils.checkAccessPermissionByIdentifierAndLogId(topStructPi, null,
+                            IPrivilegeHolder.PRIV_LIST, request).isGranted()) {
+                        continue;
+                    }
+                    boolean accessPermissionPdf = skeleton.isSourceFormatPdfAllowed() && AccessConditionUtils
+                            .checkAccessPermissionByIdentifierAndLogId(topStructPi, element.getLogId(), IPrivilegeHolder.PRIV_DOWNLOAD_PDF, request)
+                            .isGranted();
+                    elements.add(new TOCElement(element, accessPermissionPdf));
+                } catch (RecordNotFoundException e) {
+                    logger.error("Record not found in index: {}", topStructPi);
+                }
+            }
+            // Volume groups only exist if they contain at least one visible volume
+            if (!elements.isEmpty() || StringConstants.DEFAULT_NAME.equals(entry.getKey())) {
+                ret.put(entry.getKey(), elements);
+            }
         }
 
-        logger.trace("generateToc end: {} groups, {} elements in DEFAULT", ret.size(), ret.get(StringConstants.DEFAULT_NAME).size());
         return ret;
     }
 
@@ -221,14 +338,13 @@ public final class TocMaker {
      * @param structElement
      * @param addAllSiblings
      * @param mimeType
-     * @param sourceFormatPdfAllowed
      * @return List<TOCElement>
      * @throws PresentationException
      * @throws IndexUnreachableException
      * @throws DAOException
      */
-    private static List<TOCElement> buildToc(SolrDocument doc, StructElement structElement, boolean addAllSiblings, String mimeType,
-            boolean sourceFormatPdfAllowed) throws PresentationException, IndexUnreachableException, DAOException {
+    private static List<TOCElement> buildToc(SolrDocument doc, StructElement structElement, boolean addAllSiblings, String mimeType)
+            throws PresentationException, IndexUnreachableException, DAOException {
         logger.trace("buildToc");
         List<List<TOCElement>> ret = new ArrayList<>();
 
@@ -285,11 +401,10 @@ public final class TocMaker {
                 }
                 //                mainDocumentChain.addAll(ancestorList);
                 SolrDocument topAncestor = ancestorList.get(ancestorList.size() - 1);
-                populateTocTree(tree, mainDocumentChain, topAncestor, level, true, sourceFormatPdfAllowed, mimeType, ancestorField, addAllSiblings,
-                        footerId);
+                populateTocTree(tree, mainDocumentChain, topAncestor, level, true, mimeType, ancestorField, addAllSiblings, footerId);
             } else {
                 // No ancestors found, just populate the main record TOC
-                populateTocTree(tree, mainDocumentChain, doc, level, true, sourceFormatPdfAllowed, mimeType, ancestorField, addAllSiblings, footerId);
+                populateTocTree(tree, mainDocumentChain, doc, level, true, mimeType, ancestorField, addAllSiblings, footerId);
             }
             ret.add(tree);
         }
@@ -312,15 +427,14 @@ public final class TocMaker {
      * @param ret
      * @param groupIdFields
      * @param groupIdValue
-     * @param sourceFormatPdfAllowed
      * @param mimeType
      * @throws PresentationException
      * @throws IndexUnreachableException
      * @throws ViewerConfigurationException
      * @throws DAOException
      */
-    private static void buildGroupToc(List<TOCElement> ret, List<String> groupIdFields, String groupIdValue, boolean sourceFormatPdfAllowed,
-            String mimeType) throws PresentationException, IndexUnreachableException, DAOException {
+    private static void buildGroupToc(List<TOCElement> ret, List<String> groupIdFields, String groupIdValue, String mimeType)
+            throws PresentationException, IndexUnreachableException, DAOException {
         logger.trace("addMembersToGroup: {}", groupIdValue);
         if (ret == null) {
             throw new IllegalArgumentException("ret may not be null");
@@ -362,7 +476,6 @@ public final class TocMaker {
         // Create a manually sorted map of docs, since the order can be contained in different GROUPORDER_* fields
         Map<Integer, SolrDocument> docOrderMap = createOrderedGroupDocMap(groupMemberDocs, groupIdFields, groupIdValue);
 
-        HttpServletRequest request = BeanUtils.getRequest();
         for (int order : docOrderMap.keySet()) {
             SolrDocument doc = docOrderMap.get(order);
             // IMetadataValue label = new MultiLanguageMetadataValue(SolrSearchIndex.getMetadataValuesForLanguage(doc, SolrConstants.TITLE));
@@ -393,15 +506,8 @@ public final class TocMaker {
                 thumbnailUrl = thumbs.getThumbnailUrl(struct, ANCHOR_THUMBNAIL_WIDTH, ANCHOR_THUMBNAIL_HEIGHT);
             }
             label.mapEach(StringEscapeUtils::unescapeHtml4);
-            boolean accessPermissionPdf;
-            try {
-                accessPermissionPdf = sourceFormatPdfAllowed && AccessConditionUtils.checkAccessPermissionByIdentifierAndLogId(topStructPi,
-                        logId, IPrivilegeHolder.PRIV_DOWNLOAD_PDF, request).isGranted();
-            } catch (RecordNotFoundException e) {
-                logger.error("Record not found in index: {}", topStructPi);
-                continue;
-            }
-            ret.add(new TOCElement(label, "1", null, volumeIddoc, logId, 1, topStructPi, thumbnailUrl, accessPermissionPdf, false,
+            // PDF download permission is determined per user in applyAccessPermissions()
+            ret.add(new TOCElement(label, "1", null, volumeIddoc, logId, 1, topStructPi, thumbnailUrl, false, false,
                     thumbnailUrl != null, mimeType, docStructType, footerId));
         }
     }
@@ -505,20 +611,9 @@ public final class TocMaker {
                 .search(query, offset, useHitsPerPage,
                         DataManager.getInstance().getConfiguration().getTocVolumeSortFieldsForTemplate(anchorDocstructType), null, volumeFieldList);
         if (queryResponse != null) {
-            HttpServletRequest request = BeanUtils.getRequest();
             for (SolrDocument volumeDoc : queryResponse.getResults()) {
                 String topStructPi = (String) volumeDoc.getFieldValue(SolrConstants.PI_TOPSTRUCT);
-                // Skip volumes that may not be listed
-                try {
-                    if (FacesContext.getCurrentInstance() != null
-                            && !AccessConditionUtils.checkAccessPermissionByIdentifierAndLogId(topStructPi, null, IPrivilegeHolder.PRIV_LIST,
-                                    request).isGranted()) {
-                        continue;
-                    }
-                } catch (RecordNotFoundException e) {
-                    logger.error("Record not found in index: {}", topStructPi);
-                    continue;
-                }
+                // Listing and PDF download permissions are determined per user in applyAccessPermissions()
                 // Determine the TOC group for this volume based on the grouping field, if configured
                 String groupName = StringConstants.DEFAULT_NAME;
                 if (tocGroupField != null) {
@@ -549,16 +644,8 @@ public final class TocMaker {
 
                 IMetadataValue volumeLabel = buildLabel(volumeDoc, docStructType);
                 volumeLabel.mapEach(l -> StringEscapeUtils.unescapeHtml4(l));
-                boolean accessPermissionPdf;
-                try {
-                    accessPermissionPdf = sourceFormatPdfAllowed && AccessConditionUtils.checkAccessPermissionByIdentifierAndLogId(topStructPi,
-                            volumeLogId, IPrivilegeHolder.PRIV_DOWNLOAD_PDF, request).isGranted();
-                } catch (RecordNotFoundException e) {
-                    logger.error("Record not found in index: {}", topStructPi);
-                    continue;
-                }
                 TOCElement tocElement = new TOCElement(volumeLabel, "1", null, volumeIddoc, volumeLogId, 1, topStructPi, thumbnailUrl,
-                        accessPermissionPdf, false, thumbnailUrl != null, volumeMimeType, docStructType, footerId);
+                        false, false, thumbnailUrl != null, volumeMimeType, docStructType, footerId);
                 tocElement.getMetadata().put(SolrConstants.DOCSTRCT, docStructType);
                 tocElement.getMetadata().put(SolrConstants.CURRENTNO, (String) volumeDoc.getFieldValue(SolrConstants.CURRENTNO));
                 tocElement.getMetadata().put(SolrConstants.TITLE, (String) volumeDoc.getFirstValue(SolrConstants.TITLE));
@@ -611,7 +698,6 @@ public final class TocMaker {
      * @param doc
      * @param level
      * @param addChildren
-     * @param sourceFormatPdfAllowed
      * @param mimeType
      * @param ancestorField
      * @param addAllSiblings
@@ -621,7 +707,7 @@ public final class TocMaker {
      * @throws DAOException
      */
     private static void populateTocTree(List<TOCElement> ret, List<String> mainDocumentChain, SolrDocument doc, int level, boolean addChildren,
-            boolean sourceFormatPdfAllowed, String mimeType, String ancestorField, boolean addAllSiblings, String footerId)
+            String mimeType, String ancestorField, boolean addAllSiblings, String footerId)
             throws PresentationException, IndexUnreachableException, DAOException {
         Map<String, List<SolrDocument>> childrenMap = new HashMap<>();
         String pi = (String) doc.getFieldValue(SolrConstants.PI);
@@ -630,13 +716,6 @@ public final class TocMaker {
         }
         logger.trace("populateTocTree: {}; number of items in toc: {}", pi, ret.size());
 
-        // Check PDF download permissions for all docstructs and save into map
-        Map<String, AccessPermission> pdfPermissionMap = null;
-        if (sourceFormatPdfAllowed && DataManager.getInstance().getConfiguration().isTocPdfEnabled()) {
-            pdfPermissionMap =
-                    AccessConditionUtils.checkAccessPermissionByIdentiferForAllLogids(pi, IPrivilegeHolder.PRIV_DOWNLOAD_PDF, BeanUtils.getRequest());
-        }
-
         // Real children (struct elements of the main record)
         String iddoc = (String) doc.getFieldValue(SolrConstants.IDDOC);
         if (mainDocumentChain != null && !mainDocumentChain.isEmpty() && iddoc.equals(mainDocumentChain.get(0))) {
@@ -674,7 +753,7 @@ public final class TocMaker {
         }
 
         // Add current doc and recursively build the tree from the children map
-        addTocElementsRecusively(ret, childrenMap, doc, level, addChildren, pdfPermissionMap, mimeType, footerId);
+        addTocElementsRecusively(ret, childrenMap, doc, level, addChildren, mimeType, footerId);
 
         // Loosely referenced children (e.g. anchor volumes)
         if (StringUtils.isNotEmpty(ancestorField)) {
@@ -701,8 +780,7 @@ public final class TocMaker {
                 for (SolrDocument childDoc : childDocs) {
                     // Add child, if either all siblings are requested or the path leads to the main record
                     if (addSiblings || mainDocumentChain.contains(childDoc.getFieldValue(SolrConstants.IDDOC))) {
-                        populateTocTree(ret, mainDocumentChain, childDoc, level + 1, addChildren, sourceFormatPdfAllowed, mimeType, ancestorField,
-                                addSiblings, footerId);
+                        populateTocTree(ret, mainDocumentChain, childDoc, level + 1, addChildren, mimeType, ancestorField, addSiblings, footerId);
                     }
                 }
             }
@@ -716,13 +794,12 @@ public final class TocMaker {
      * @param doc
      * @param level
      * @param addChildren
-     * @param pdfPermissionMap
      * @param mimeType
      * @param footerId
      * @throws PresentationException
      */
     private static void addTocElementsRecusively(List<TOCElement> ret, Map<String, List<SolrDocument>> childrenMap, SolrDocument doc, int level,
-            boolean addChildren, Map<String, AccessPermission> pdfPermissionMap, String mimeType, String footerId) throws PresentationException {
+            boolean addChildren, String mimeType, String footerId) throws PresentationException {
         String logId = (String) doc.getFieldValue(SolrConstants.LOGID);
         String iddoc = (String) doc.getFieldValue(SolrConstants.IDDOC);
         String docstructType = (String) doc.getFieldValue(SolrConstants.DOCSTRCT);
@@ -743,11 +820,7 @@ public final class TocMaker {
         }
 
         IMetadataValue label = buildLabel(doc, docstructType);
-        boolean accessPermissionPdf = false;
-        if (pdfPermissionMap != null && logId != null && pdfPermissionMap.get(logId) != null) {
-            accessPermissionPdf = pdfPermissionMap.get(logId).isGranted();
-        }
-        TOCElement tocElement = new TOCElement(label, pageNo, pageNoLabel, iddoc, logId, level, pi, null, accessPermissionPdf, isAnchor,
+        TOCElement tocElement = new TOCElement(label, pageNo, pageNoLabel, iddoc, logId, level, pi, null, false, isAnchor,
                 pageNo != null, mimeType, docstructType, footerId);
         tocElement.getMetadata().put(SolrConstants.DOCSTRCT, docstructType);
         tocElement.getMetadata().put(SolrConstants.CURRENTNO, (String) doc.getFieldValue(SolrConstants.CURRENTNO));
@@ -760,7 +833,7 @@ public final class TocMaker {
             if (addChildren && childrenMap != null && childrenMap.get(iddoc) != null && !childrenMap.get(iddoc).isEmpty()) {
                 // logger.trace("Adding {} children for {}", childrenMap.get(iddoc).size(), iddoc); //NOSONAR Debug
                 for (SolrDocument childDoc : childrenMap.get(iddoc)) {
-                    addTocElementsRecusively(ret, childrenMap, childDoc, level + 1, true, pdfPermissionMap, mimeType, footerId);
+                    addTocElementsRecusively(ret, childrenMap, childDoc, level + 1, true, mimeType, footerId);
                 }
             }
         }
@@ -0,0 +1,119 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.toc;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * User-independent table of contents of a record, group or anchor. Skeletons are shared between sessions; elements are never handed out
+ * directly but copied with the permissions of the current user (see {@link TocMaker#applyAccessPermissions(TocSkeleton,
+ * javax.servlet.http.HttpServletRequest)}).
+ */
+public final class TocSkeleton {
+
+    /** Kind of TOC, which determines the access checks applied to the elements. */
+    public enum Type {
+        /** Record group (series, etc.) with its member records. */
+        GROUP,
+        /** Anchor record with its volumes. */
+        ANCHOR,
+        /** Stand-alone record or volume with its structure elements. */
+        RECORD;
+    }
+
+    private final Type type;
+    private final Map<String, List<TOCElement>> elements;
+    private final int totalTocSize;
+    private final boolean sourceFormatPdfAllowed;
+    private final Set<String> pis = new HashSet<>();
+
+    /**
+     *
+     * @param type TOC type
+     * @param elements Elements grouped by TOC group name; must not be modified after this call
+     * @param totalTocSize Total number of volumes for paginated anchor TOCs
+     * @param sourceFormatPdfAllowed true if PDFs may be generated from the source format of the record
+     */
+    public TocSkeleton(Type type, Map<String, List<TOCElement>> elements, int totalTocSize, boolean sourceFormatPdfAllowed) {
+        if (type == null) {
+            throw new IllegalArgumentException("type may not be null");
+        }
+        if (elements == null) {
+            throw new IllegalArgumentException("elements may not be null");
+        }
+        this.type = type;
+        Map<String, List<TOCElement>> copy = new LinkedHashMap<>(elements.size());
+        for (Entry<String, List<TOCElement>> entry : elements.entrySet()) {
+            copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+            for (TOCElement element : entry.getValue()) {
+                if (element.getTopStructPi() != null) {
+                    pis.add(element.getTopStructPi());
+                }
+            }
+        }
+        this.elements = Collections.unmodifiableMap(copy);
+        this.totalTocSize = totalTocSize;
+        this.sourceFormatPdfAllowed = sourceFormatPdfAllowed;
+    }
+
+    /**
+     * @param pi Record identifier
+     * @return true if any element of this skeleton belongs to the record with the given identifier; false otherwise
+     */
+    public boolean containsPi(String pi) {
+        return pi != null && pis.contains(pi);
+    }
+
+    /**
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Unmodifiable map of elements grouped by TOC group name
+     */
+    public Map<String, List<TOCElement>> getElements() {
+        return elements;
+    }
+
+    /**
+     * @return the totalTocSize
+     */
+    public int getTotalTocSize() {
+        return totalTocSize;
+    }
+
+    /**
+     * @return the sourceFormatPdfAllowed
+     */
+    public boolean isSourceFormatPdfAllowed() {
+        return sourceFormatPdfAllowed;
+    }
+}
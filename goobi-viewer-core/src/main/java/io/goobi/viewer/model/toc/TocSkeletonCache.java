@@ -0,0 +1,158 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.toc;
+
+import java.time.Duration;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.goobi.viewer.controller.cache.ApplicationCache;
+import io.goobi.viewer.controller.cache.CacheStatistics;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.viewer.StructElement;
+
+/**
+ * Application-wide cache of {@link TocSkeleton}s. A skeleton is built once per struct element, sibling mode, mime type and TOC page and
+ * then shared by all sessions and the TOC REST endpoint. Skeletons are discarded when one of the contained records is updated or after the
+ * configured time to live.
+ */
+public class TocSkeletonCache {
+
+    private static final Logger logger = LogManager.getLogger(TocSkeletonCache.class);
+
+    private final ApplicationCache<String, TocSkeleton> cache;
+
+    /**
+     * Unchecked wrapper for exceptions thrown while building a skeleton inside the cache loader.
+     */
+    private static final class SkeletonLoadException extends RuntimeException {
+
+        private static final long serialVersionUID = -2286021489254907733L;
+
+        private SkeletonLoadException(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     *
+     * @param maxSize Maximum number of cached skeletons
+     * @param timeToLive Maximum age of cached skeletons
+     */
+    public TocSkeletonCache(int maxSize, Duration timeToLive) {
+        this.cache = new ApplicationCache<>("toc", maxSize, timeToLive, 0, null);
+    }
+
+    /**
+     * Returns the cached skeleton for the given parameters or builds it via {@link TocMaker#buildSkeleton(StructElement, boolean, String, int,
+     * int)}.
+     *
+     * @param structElement
+     * @param addAllSiblings
+     * @param mimeType
+     * @param tocCurrentPage
+     * @param hitsPerPage
+     * @return {@link TocSkeleton}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @throws DAOException
+     */
+    public TocSkeleton getSkeleton(StructElement structElement, boolean addAllSiblings, String mimeType, int tocCurrentPage, int hitsPerPage)
+            throws PresentationException, IndexUnreachableException, DAOException {
+        if (structElement == null) {
+            throw new IllegalArgumentException("structElement may not me null");
+        }
+        String key = buildKey(structElement.getLuceneId(), addAllSiblings, mimeType, tocCurrentPage, hitsPerPage);
+        try {
+            return cache.get(key, k -> {
+                try {
+                    return TocMaker.buildSkeleton(structElement, addAllSiblings, mimeType, tocCurrentPage, hitsPerPage);
+                } catch (PresentationException | IndexUnreachableException | DAOException e) {
+                    throw new SkeletonLoadException(e);
+                }
+            });
+        } catch (SkeletonLoadException e) {
+            if (e.getCause() instanceof PresentationException pe) {
+                throw pe;
+            }
+            if (e.getCause() instanceof IndexUnreachableException iue) {
+                throw iue;
+            }
+            throw (DAOException) e.getCause();
+        }
+    }
+
+    /**
+     * Removes all skeletons that contain elements of the record with the given identifier (the record itself, its anchor or group TOCs, and
+     * TOCs of sibling volumes).
+     *
+     * @param pi Record identifier
+     */
+    public void invalidate(String pi) {
+        if (pi == null) {
+            return;
+        }
+        int count = cache.invalidateIf((key, skeleton) -> skeleton.containsPi(pi));
+        if (count > 0) {
+            logger.debug("Removed {} TOC skeleton(s) containing {}", count, pi);
+        }
+    }
+
+    /**
+     * Removes all skeletons.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Usage statistics
+     */
+    public CacheStatistics getStatistics() {
+        return cache.getStatistics();
+    }
+
+    /**
+     *
+     * @param iddoc
+     * @param addAllSiblings
+     * @param mimeType
+     * @param tocCurrentPage
+     * @param hitsPerPage
+     * @return Cache key
+     */
+    static String buildKey(long iddoc, boolean addAllSiblings, String mimeType, int tocCurrentPage, int hitsPerPage) {
+        return new StringBuilder().append(iddoc)
+                .append('|')
+                .append(addAllSiblings)
+                .append('|')
+                .append(mimeType)
+                .append('|')
+                .append(tocCurrentPage)
+                .append('|')
+                .append(hitsPerPage)
+                .toString();
+    }
+}
@@ -37,6 +37,7 @@ import java.util.Set;
 
 import javax.faces.context.FacesContext;
 import javax.servlet.http.HttpServletRequest;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -56,6 +57,7 @@ import de.unigoettingen.sub.commons.contentlib.exceptions.IllegalRequestExceptio
 import de.unigoettingen.sub.commons.contentlib.imagelib.ImageFileFormat;
 import de.unigoettingen.sub.commons.contentlib.imagelib.ImageType;
 import de.unigoettingen.sub.commons.contentlib.imagelib.transform.Scale;
+import io.goobi.viewer.api.rest.resourcebuilders.TextResourceBuilder;
 import io.goobi.viewer.controller.ALTOTools;
 import io.goobi.viewer.controller.Configuration;
 import io.goobi.viewer.controller.DataFileTools;
@@ -74,6 +76,9 @@ import io.goobi.viewer.exceptions.ViewerConfigurationException;
 import io.goobi.viewer.managedbeans.utils.BeanUtils;
 import io.goobi.viewer.messages.Messages;
 import io.goobi.viewer.messages.ViewerResourceBundle;
+import io.goobi.viewer.model.alto.AltoPage;
+import io.goobi.viewer.model.alto.AltoPageCache;
+import io.goobi.viewer.model.alto.AltoPageParser;
 import io.goobi.viewer.model.annotation.CrowdsourcingAnnotation;
 import io.goobi.viewer.model.annotation.comments.Comment;
 import io.goobi.viewer.model.metadata.Metadata;
@@ -950,7 +955,8 @@ public class PhysicalElement implements Comparable<PhysicalElement>, Serializabl
         }
         if (StringUtils.isNotEmpty(altoText)) {
             wordCoordsFormat = CoordsFormat.ALTO;
-            String text = ALTOTools.getFulltext(altoText, altoCharset, false);
+            AltoPage altoPage = getAltoPage();
+            String text = altoPage != null ? ALTOTools.getFulltext(altoPage, false) : null;
             if (StringUtils.isNotEmpty(text)) {
                 String cleanText = StringTools.stripJS(text);
                 if (cleanText.length() < text.length()) {
@@ -1077,13 +1083,45 @@ public class PhysicalElement implements Comparable<PhysicalElement>, Serializabl
         }
 
         if (altoText != null) {
-            return ALTOTools.getWordCoords(altoText, altoCharset, searchTerms, proximitySearchDistance, rotation);
+            AltoPage altoPage = getAltoPage();
+            if (altoPage != null) {
+                return ALTOTools.getWordCoords(altoPage, searchTerms, proximitySearchDistance, rotation);
+            }
+            return Collections.emptyList();
         }
         wordCoordsFormat = CoordsFormat.NONE;
 
         return Collections.emptyList();
     }
 
+    /**
+     * Returns the parsed ALTO page for this page. Pages available as local files are taken from the shared {@link AltoPageCache}, so that
+     * repeated requests for the same page (e.g. highlighting search terms on every page view) do not parse the ALTO document again. Otherwise
+     * the already loaded ALTO text is parsed. Access permission must have been checked before by loading the ALTO text.
+     *
+     * @return {@link AltoPage}; null if no ALTO is available
+     */
+    AltoPage getAltoPage() {
+        if (altoText == null) {
+            return null;
+        }
+        try {
+            return new TextResourceBuilder().getAltoPage(FileTools.getBottomFolderFromPathString(altoFileName),
+                    FileTools.getFilenameFromPathString(altoFileName));
+        } catch (ContentNotFoundException e) {
+            logger.trace("ALTO file not found locally: {}", altoFileName);
+        } catch (PresentationException | IndexUnreachableException e) {
+            logger.error(e.getMessage());
+        }
+        try {
+            return AltoPageParser.parse(altoText);
+        } catch (XMLStreamException e) {
+            logger.error("Could not parse ALTO: {}", e.getMessage());
+        }
+
+        return null;
+    }
+
     /**
      * Loads ALTO data for this page via the REST service, if not yet loaded.
      *
@@ -1655,6 +1693,7 @@ public class PhysicalElement implements Comparable<PhysicalElement>, Serializabl
     public void deleteCommentAction(Comment comment) throws DAOException {
         logger.trace("deleteCommentAction");
         if (DataManager.getInstance().getDao().deleteComment(comment)) {
+            DataManager.getInstance().getRecordAnnotationCache().invalidate(comment.getTargetPI());
             Messages.info("commentDeleteSuccess");
         } else {
             Messages.error("commentDeleteFailure");
@@ -1835,6 +1874,7 @@ public class PhysicalElement implements Comparable<PhysicalElement>, Serializabl
                     }
                     containedStructElements.add(ele);
                 }
+                StructElement.loadShapeMetadata(containedStructElements);
             }
         }
 
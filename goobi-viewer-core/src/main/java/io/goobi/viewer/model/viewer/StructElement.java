@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 
 import javax.faces.context.FacesContext;
@@ -73,6 +74,9 @@ public class StructElement extends StructElementStub implements Comparable<Struc
 
     private static final Logger logger = LogManager.getLogger(StructElement.class);
 
+    /** Filter query for grouped metadata docs of type SHAPE */
+    public static final String SHAPE_METADATA_SUBQUERY = " +" + SolrConstants.METADATATYPE + ':' + MetadataGroupType.SHAPE.name();
+
     /** If false; the Solr document with the given IDDOC does not exist in the index. */
     private boolean exists = false;
     /** True if full-text is available for this record (top-level structure elements only). */
@@ -89,8 +93,10 @@ public class StructElement extends StructElementStub implements Comparable<Struc
     private final Map<String, String> groupMemberships = new HashMap<>();
     /** Labels of the groups to which this record belongs. */
     private final Map<String, String> groupLabels = new HashMap<>();
-    /** Metadata describing the polygon that contains this docstruct within a page. */
+    /** Metadata describing the polygon that contains this docstruct within a page. Loaded on first access. */
     private List<ShapeMetadata> shapeMetadata;
+    /** True if shape metadata has been loaded or is known not to exist. */
+    private boolean shapeMetadataLoaded = false;
     private ComplexMetadataContainer metadataDocuments = null;
     private StructElement topStruct = null;
     /** True if this record has a right-to-left reading direction. */
@@ -268,24 +274,8 @@ public class StructElement extends StructElementStub implements Comparable<Struc
                 }
             }
             rtl = Boolean.valueOf(getMetadataValue(SolrConstants.BOOL_DIRECTION_RTL));
-            // Load shape metadata
-            // TODO use indicator field in doc to avoid this extra search for non-shape elements
-            String iddoc = Optional.ofNullable(doc.getFieldValue(SolrConstants.IDDOC)).map(Object::toString).orElse(null);
-            if (iddoc != null) {
-                SolrDocumentList shapeDocs =
-                        MetadataTools.getGroupedMetadata(iddoc, " +" + SolrConstants.METADATATYPE + ':' + MetadataGroupType.SHAPE.name(), null);
-                if (!shapeDocs.isEmpty()) {
-                    this.shapeMetadata = new ArrayList<>(shapeDocs.size());
-                    for (SolrDocument shapeDoc : shapeDocs) {
-                        String label = getLabel();
-                        String shape = SolrTools.getSingleFieldStringValue(shapeDoc, "MD_SHAPE");
-                        String coords = SolrTools.getSingleFieldStringValue(shapeDoc, "MD_COORDS");
-                        String order = String.valueOf(shapeDoc.getFieldValue(SolrConstants.ORDER));
-                        this.shapeMetadata.add(new ShapeMetadata(label, shape, coords, getPi(),
-                                "null".equals(order) ? getImageNumber() : Integer.parseInt(order), this.logid));
-                    }
-                }
-            }
+            // Shape metadata is only loaded on demand, and not at all if the indicator field says there is none
+            shapeMetadataLoaded = !isShapeMetadataPossible(doc);
         } catch (PresentationException e) {
             // Catch exception to skip the rest of the code block, but do not do anything (already logged elsewhere)
             logger.debug(StringConstants.LOG_PRESENTATION_EXCEPTION_THROWN_HERE, e.getMessage());
@@ -1002,7 +992,8 @@ public class StructElement extends StructElementStub implements Comparable<Struc
     }
 
     public boolean hasShapeMetadata() {
-        return shapeMetadata != null && !shapeMetadata.isEmpty();
+        List<ShapeMetadata> shapes = getShapeMetadata();
+        return shapes != null && !shapes.isEmpty();
     }
 
     /**
@@ -1011,8 +1002,13 @@ public class StructElement extends StructElementStub implements Comparable<Struc
      * @return List<ShapeMetadata>
      */
     public List<ShapeMetadata> getShapeMetadataForPage(int order) {
+        List<ShapeMetadata> shapes = getShapeMetadata();
+        if (shapes == null) {
+            return Collections.emptyList();
+        }
+
         List<ShapeMetadata> ret = new ArrayList<>();
-        for (ShapeMetadata smd : shapeMetadata) {
+        for (ShapeMetadata smd : shapes) {
             if (smd.getPageNo() == order) {
                 ret.add(smd);
             }
@@ -1022,9 +1018,24 @@ public class StructElement extends StructElementStub implements Comparable<Struc
     }
 
     /**
-     * @return the shapeMetadata
+     * Returns the shape metadata of this element, loading it from the index on first access.
+     *
+     * @return the shapeMetadata; null if there is none
+     * @should load shape metadata on first access
+     * @should not query index if indicator field is false
      */
     public List<ShapeMetadata> getShapeMetadata() {
+        if (!shapeMetadataLoaded) {
+            String iddoc = getMetadataValue(SolrConstants.IDDOC);
+            try {
+                setShapeMetadataDocs(iddoc != null
+                        ? MetadataTools.getGroupedMetadata(iddoc, SHAPE_METADATA_SUBQUERY, null) : Collections.emptyList());
+            } catch (PresentationException | IndexUnreachableException e) {
+                logger.error("Could not load shape metadata for {}: {}", iddoc, e.getMessage());
+                shapeMetadataLoaded = true;
+            }
+        }
+
         return shapeMetadata;
     }
 
@@ -1033,6 +1044,70 @@ public class StructElement extends StructElementStub implements Comparable<Struc
      */
     public void setShapeMetadata(List<ShapeMetadata> shapeMetadata) {
         this.shapeMetadata = shapeMetadata;
+        this.shapeMetadataLoaded = true;
+    }
+
+    /**
+     * Creates the shape metadata of this element from the given grouped metadata docs of type {@link MetadataGroupType#SHAPE}.
+     *
+     * @param shapeDocs Shape metadata docs owned by this element
+     */
+    public void setShapeMetadataDocs(List<SolrDocument> shapeDocs) {
+        List<ShapeMetadata> shapes = null;
+        if (shapeDocs != null && !shapeDocs.isEmpty()) {
+            shapes = new ArrayList<>(shapeDocs.size());
+            for (SolrDocument shapeDoc : shapeDocs) {
+                String shape = SolrTools.getSingleFieldStringValue(shapeDoc, "MD_SHAPE");
+                String coords = SolrTools.getSingleFieldStringValue(shapeDoc, "MD_COORDS");
+                String order = String.valueOf(shapeDoc.getFieldValue(SolrConstants.ORDER));
+                shapes.add(new ShapeMetadata(getLabel(), shape, coords, getPi(),
+                        "null".equals(order) ? getImageNumber() : Integer.parseInt(order), this.logid));
+            }
+        }
+        setShapeMetadata(shapes);
+    }
+
+    /**
+     * Loads the shape metadata of all given elements that have not loaded it yet with a single query.
+     *
+     * @param elements Struct elements
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     * @should load shape metadata of all elements with a single query
+     */
+    public static void loadShapeMetadata(Collection<StructElement> elements) throws PresentationException, IndexUnreachableException {
+        if (elements == null || elements.isEmpty()) {
+            return;
+        }
+
+        Map<String, StructElement> toLoad = new HashMap<>();
+        for (StructElement element : elements) {
+            String iddoc = element.getMetadataValue(SolrConstants.IDDOC);
+            if (!element.shapeMetadataLoaded && iddoc != null) {
+                toLoad.put(iddoc, element);
+            }
+        }
+        Map<String, List<SolrDocument>> shapeDocs = MetadataTools.getGroupedMetadata(toLoad.keySet(), SHAPE_METADATA_SUBQUERY);
+        for (Entry<String, StructElement> entry : toLoad.entrySet()) {
+            entry.getValue().setShapeMetadataDocs(shapeDocs.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * Checks whether the element represented by the given doc may have shape metadata. This is the case unless the doc has no IDDOC or the
+     * indexer has written {@link SolrConstants#BOOL_SHAPE} with the value false.
+     *
+     * @param doc Struct element doc
+     * @return true if shape metadata must be looked up; false otherwise
+     * @should return false if indicator field is false
+     * @should return true if indicator field is missing
+     */
+    public static boolean isShapeMetadataPossible(SolrDocument doc) {
+        if (doc == null || doc.getFieldValue(SolrConstants.IDDOC) == null) {
+            return false;
+        }
+        Object indicator = doc.getFirstValue(SolrConstants.BOOL_SHAPE);
+        return indicator == null || Boolean.parseBoolean(String.valueOf(indicator));
     }
 
     /**
@@ -51,7 +51,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -71,7 +71,6 @@ import org.jdom2.JDOMException;
 import org.json.JSONObject;
 import org.omnifaces.util.Faces;
 
-import de.undercouch.citeproc.CSL;
 import de.unigoettingen.sub.commons.contentlib.exceptions.ContentLibException;
 import de.unigoettingen.sub.commons.contentlib.exceptions.IllegalRequestException;
 import de.unigoettingen.sub.commons.contentlib.imagelib.ImageFileFormat;
@@ -92,6 +91,7 @@ import io.goobi.viewer.controller.NetTools;
 import io.goobi.viewer.controller.ProcessDataResolver;
 import io.goobi.viewer.controller.StringConstants;
 import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.controller.ThreadPoolManager;
 import io.goobi.viewer.controller.config.filter.IFilterConfiguration;
 import io.goobi.viewer.exceptions.ArchiveException;
 import io.goobi.viewer.exceptions.DAOException;
@@ -113,7 +113,6 @@ import io.goobi.viewer.model.calendar.CalendarView;
 import io.goobi.viewer.model.citation.Citation;
 import io.goobi.viewer.model.citation.CitationLink;
 import io.goobi.viewer.model.citation.CitationLink.CitationLinkLevel;
-import io.goobi.viewer.model.citation.CitationProcessorWrapper;
 import io.goobi.viewer.model.citation.CitationTools;
 import io.goobi.viewer.model.files.external.ExternalFilesDownloader;
 import io.goobi.viewer.model.job.download.DownloadOption;
@@ -202,7 +201,6 @@ public class ViewManager implements Serializable {
     private Boolean workHasTEIFiles = null;
     private Boolean metadataViewOnly = null;
     private String citationStyle = null;
-    private CitationProcessorWrapper citationProcessorWrapper;
     private ArchiveResource archiveResource = null;
     private Pair<Optional<String>, Optional<String>> archiveTreeNeighbours = Pair.of(Optional.empty(), Optional.empty());
     private List<CopyrightIndicatorStatus> copyrightIndicatorStatuses = null;
@@ -3639,7 +3637,8 @@ public class ViewManager implements Serializable {
                     "altoSource", DataFileTools.getAltoFolder(this.pi).toAbsolutePath().toString(),
                     "first", firstPageName,
                     "last", lastPageName));
-            Executors.newFixedThreadPool(1).submit(() -> {
+            // The writer must not run on this thread, which consumes the pipe
+            DataManager.getInstance().getThreadPoolManager().executeInBackground(ThreadPoolManager.POOL_IO, () -> {
                 try {
                     new GetPdfAction().writePdf(request, ContentServerConfiguration.getInstance(), out);
                 } catch (URISyntaxException | ContentLibException | IOException e) {
@@ -3647,6 +3646,8 @@ public class ViewManager implements Serializable {
                 }
             });
             Faces.sendFile(in, filename, true);
+        } catch (RejectedExecutionException e) {
+            logger.error("Page range pdf of {} not created, thread pool saturated: {}", this.pi, e.getMessage());
         } catch (PresentationException | IOException | URISyntaxException | IndexUnreachableException e) {
             logger.error("Error creating page range pdf", e);
         }
@@ -3970,15 +3971,11 @@ public class ViewManager implements Serializable {
             citationStyle = availableStyles.get(0);
         }
 
-        if (citationProcessorWrapper == null) {
-            citationProcessorWrapper = new CitationProcessorWrapper();
-        }
-        CSL processor = citationProcessorWrapper.getCitationProcessor(citationStyle);
         Metadata md = DataManager.getInstance().getConfiguration().getSidebarWidgetUsageCitationRecommendationSource();
         md.populate(topStructElement, String.valueOf(topStructElement.getLuceneId()), null, BeanUtils.getLocale());
         for (MetadataValue val : md.getValues()) {
             if (!val.getCitationValues().isEmpty()) {
-                Citation citation = new Citation(pi, processor, citationProcessorWrapper.getCitationItemDataProvider(),
+                Citation citation = new Citation(pi, citationStyle,
                         CitationTools.getCSLTypeForDocstrct(topStructElement.getDocStructType(), topStructElement.getDocStructType()),
                         val.getCitationValues());
                 return citation.getCitationString(outputFormat);
@@ -4002,20 +3999,6 @@ public class ViewManager implements Serializable {
         this.citationStyle = citationStyle;
     }
 
-    /**
-     * @return the citationProcessorWrapper
-     */
-    public CitationProcessorWrapper getCitationProcessorWrapper() {
-        return citationProcessorWrapper;
-    }
-
-    /**
-     * @param citationProcessorWrapper the citationProcessorWrapper to set
-     */
-    public void setCitationProcessorWrapper(CitationProcessorWrapper citationProcessorWrapper) {
-        this.citationProcessorWrapper = citationProcessorWrapper;
-    }
-
     /**
      * @param levelName
      * @return List of configured citation links for the given levelName, populated with values
@@ -58,7 +58,10 @@ import org.apache.logging.log4j.LogManager;
 
 import io.goobi.viewer.controller.BCrypt;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.NetTools;
+import io.goobi.viewer.controller.PasswordVerifier;
 import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 import io.goobi.viewer.managedbeans.UserBean;
 import io.goobi.viewer.model.security.authentication.AuthResponseListener;
 import io.goobi.viewer.model.security.authentication.AuthenticationProviderException;
@@ -198,7 +201,17 @@ public class OAuthServlet extends HttpServlet {
             case "openid-test":
                 String email = oar.getCode();
                 String password = oar.getParam("token");
-                Optional<User> user = loginUser(email, password);
+                Optional<User> user;
+                try {
+                    user = loginUser(email, password, NetTools.getIpAddress(request));
+                } catch (TooManyRequestsException e) {
+                    try {
+                        response.sendError(e.getCode(), e.getMessage());
+                    } catch (IOException e1) {
+                        logger.error(e1.getMessage());
+                    }
+                    return true;
+                }
                 if (user.isPresent()) {
                     JSONObject jsonProfile = new JSONObject(Collections.singletonMap("email", email));
                     redirected = provider.completeLogin(jsonProfile, request, response);
@@ -342,16 +355,22 @@ public class OAuthServlet extends HttpServlet {
      * 
      * @param email
      * @param password
+     * @param ipAddress
      * @return Optional<User>
      * @throws AuthenticationProviderException
+     * @throws TooManyRequestsException
      */
-    private static Optional<User> loginUser(String email, String password) throws AuthenticationProviderException {
+    private static Optional<User> loginUser(String email, String password, String ipAddress)
+            throws AuthenticationProviderException, TooManyRequestsException {
         if (StringUtils.isNotEmpty(email)) {
             try {
                 User user = DataManager.getInstance().getDao().getUserByEmail(email);
                 boolean refused = true;
                 if (user != null && StringUtils.isNotBlank(password) && user.getPasswordHash() != null
-                        && BCRYPT.checkpw(password, user.getPasswordHash())) {
+                        && DataManager.getInstance()
+                                .getPasswordVerifier()
+                                .checkPassword(BCRYPT, password, user.getPasswordHash(), PasswordVerifier.ipKey(ipAddress),
+                                        PasswordVerifier.accountKey(email))) {
                     refused = false;
                 }
                 return refused ? Optional.empty() : Optional.ofNullable(user);
@@ -0,0 +1,585 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.LukeRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.SolrPing;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+
+import io.goobi.viewer.controller.ThreadPoolManager;
+import io.goobi.viewer.controller.ThreadPoolManager.PoolSettings;
+import io.goobi.viewer.controller.ThreadPoolManager.RejectionPolicy;
+
+/**
+ * {@link SolrClient} distributing read requests over several Solr replicas (e.g. followers of a leader/follower setup). The first URL is the
+ * primary which receives all other requests. Read requests go to the healthy replica with the fewest outstanding requests and fail over to
+ * the next replica on connection or server errors. A replica failing repeatedly is removed for a backoff period, after which it receives
+ * requests again. A background health check pings each replica and removes dead or slow ones until they respond in time again. Optionally,
+ * a query that takes longer than the given percentile of recent query latencies is sent to a second replica as well (hedged request) and the
+ * first response is used. Hedged queries run in a bounded pool; once it is saturated, queries run on the calling thread without hedging.
+ */
+public class ReplicaSolrClient extends SolrClient {
+
+    private static final long serialVersionUID = 2451834506578376329L;
+
+    private static final Logger logger = LogManager.getLogger(ReplicaSolrClient.class);
+
+    /** Consecutive request failures after which a replica is removed for the failure backoff period */
+    static final int MAX_CONSECUTIVE_FAILURES = 3;
+    /** Number of recent query latencies from which the hedging delay is calculated */
+    static final int LATENCY_WINDOW_SIZE = 256;
+    /** Minimum number of recorded query latencies before requests are hedged */
+    static final int MIN_LATENCY_SAMPLES = 20;
+    /** Lower bound for the hedging delay in milliseconds */
+    static final long MIN_HEDGE_DELAY = 10;
+    /** Name of the pool running hedged queries */
+    static final String POOL_HEDGE = "solrReplica";
+
+    private final transient List<Replica> replicas;
+    private final long slowThreshold;
+    private final double hedgePercentile;
+    private final transient LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW_SIZE);
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final transient ScheduledExecutorService healthCheckExecutor;
+    private final transient ThreadPoolManager hedgePool;
+    /** One permit per thread of {@link #hedgePool}, held by each submitted query until it has finished or has been cancelled before starting */
+    private final transient Semaphore hedgePermits;
+
+    /**
+     *
+     * @param baseUrls Solr URLs; the first one is the primary
+     * @param clientFactory Creates the client for a single Solr URL
+     * @param healthCheckInterval Interval between health checks in milliseconds; 0 disables background health checks
+     * @param failureBackoff Milliseconds after which a replica removed due to request failures receives requests again; 0 leaves re-admission to
+     *            the health check
+     * @param slowThreshold Replicas whose ping takes longer than this many milliseconds are removed until the next check
+     * @param hedgePercentile Latency percentile (0-100) after which a query is also sent to a second replica; 0 disables hedging
+     * @param hedgePoolSize Maximum number of concurrently running queries while hedging is enabled
+     * @should reject disabled backoff without health checks
+     */
+    public ReplicaSolrClient(List<String> baseUrls, Function<String, SolrClient> clientFactory, long healthCheckInterval, long failureBackoff,
+            long slowThreshold, double hedgePercentile, int hedgePoolSize) {
+        if (baseUrls == null || baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("baseUrls may not be empty");
+        }
+        if (baseUrls.size() > 1 && healthCheckInterval <= 0 && failureBackoff <= 0) {
+            throw new IllegalArgumentException("failureBackoff must be greater than 0 if health checks are disabled");
+        }
+        List<Replica> list = new ArrayList<>(baseUrls.size());
+        for (String url : baseUrls) {
+            list.add(new Replica(url, clientFactory.apply(url), failureBackoff));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.slowThreshold = slowThreshold;
+        this.hedgePercentile = hedgePercentile;
+        if (hedgePercentile > 0 && replicas.size() > 1) {
+            this.hedgePool = new ThreadPoolManager(POOL_HEDGE, new PoolSettings(POOL_HEDGE, hedgePoolSize, hedgePoolSize, RejectionPolicy.ABORT));
+            this.hedgePermits = new Semaphore(Math.max(1, hedgePoolSize));
+        } else {
+            this.hedgePool = null;
+            this.hedgePermits = null;
+        }
+        if (healthCheckInterval > 0 && replicas.size() > 1) {
+            this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(r -> newDaemonThread(r, "solr-replica-health"));
+            this.healthCheckExecutor.scheduleWithFixedDelay(this::checkHealth, healthCheckInterval, healthCheckInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.healthCheckExecutor = null;
+        }
+        logger.info("Using {} Solr replicas: {}", replicas.size(), baseUrls);
+    }
+
+    private static Thread newDaemonThread(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NamedList<Object> request(SolrRequest<?> request, String collection) throws SolrServerException, IOException {
+        if (!isReadRequest(request) || replicas.size() == 1) {
+            return execute(replicas.get(0), request, collection);
+        }
+
+        Set<Replica> tried = new HashSet<>();
+        while (true) {
+            Replica replica = selectReplica(tried);
+            if (replica == null) {
+                // All replicas failed; let the primary report the error
+                return execute(replicas.get(0), request, collection);
+            }
+            tried.add(replica);
+            try {
+                if (hedgePool != null && request instanceof QueryRequest) {
+                    return hedgedRequest(replica, tried, request, collection);
+                }
+                return execute(replica, request, collection);
+            } catch (SolrServerException | IOException e) {
+                logger.warn("Solr replica {} failed, trying next one: {}", replica.getUrl(), e.getMessage());
+            } catch (SolrException e) {
+                if (e.code() < 500) {
+                    throw e;
+                }
+                logger.warn("Solr replica {} returned error {}, trying next one", replica.getUrl(), e.code());
+            }
+        }
+    }
+
+    /**
+     * Sends the request to the given replica and, if it hasn't responded within the hedging delay, additionally to another replica.
+     *
+     * @param first
+     * @param tried Replicas already used for this request
+     * @param request
+     * @param collection
+     * @return First successful response
+     * @throws SolrServerException
+     * @throws IOException
+     */
+    private NamedList<Object> hedgedRequest(Replica first, Set<Replica> tried, SolrRequest<?> request, String collection)
+            throws SolrServerException, IOException {
+        long delay = getHedgeDelay();
+        if (delay <= 0) {
+            return execute(first, request, collection);
+        }
+
+        CompletionService<NamedList<Object>> completionService = new ExecutorCompletionService<>(hedgePool.getExecutor(POOL_HEDGE));
+        List<Future<NamedList<Object>>> futures = new ArrayList<>(2);
+        List<PooledQuery> queries = new ArrayList<>(2);
+        try {
+            submit(completionService, new PooledQuery(first, request, collection), futures, queries);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Hedging pool saturated, querying {} directly", first.getUrl());
+            return execute(first, request, collection);
+        }
+        try {
+            Future<NamedList<Object>> done = completionService.poll(delay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                Replica second = selectReplica(tried);
+                if (second != null) {
+                    try {
+                        submit(completionService, new PooledQuery(second, request, collection), futures, queries);
+                        tried.add(second);
+                        hedgedRequests.incrementAndGet();
+                        logger.trace("Hedging query after {} ms: {} -> {}", delay, first.getUrl(), second.getUrl());
+                    } catch (RejectedExecutionException e) {
+                        logger.debug("Hedging pool saturated, not hedging query to {}", first.getUrl());
+                    }
+                }
+                done = completionService.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                if (futures.size() == 1) {
+                    throw e;
+                }
+                // One of the two attempts failed, use the other one
+                return completionService.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolrServerException(e);
+        } finally {
+            for (int i = 0; i < futures.size(); ++i) {
+                futures.get(i).cancel(true);
+                queries.get(i).releaseIfNotStarted();
+            }
+        }
+    }
+
+    /**
+     * Submits the given query to the hedging pool if one of its threads is free. Queries never wait in the pool's queue for a thread.
+     *
+     * @param completionService
+     * @param query
+     * @param futures Submitted futures
+     * @param queries Submitted queries
+     * @throws RejectedExecutionException if all threads of the pool are busy
+     */
+    private void submit(CompletionService<NamedList<Object>> completionService, PooledQuery query, List<Future<NamedList<Object>>> futures,
+            List<PooledQuery> queries) {
+        if (!hedgePermits.tryAcquire()) {
+            throw new RejectedExecutionException("Thread pool '" + POOL_HEDGE + "' is saturated");
+        }
+        try {
+            futures.add(completionService.submit(query));
+            queries.add(query);
+        } catch (RejectedExecutionException e) {
+            hedgePermits.release();
+            throw e;
+        }
+    }
+
+    private static SolrServerException unwrap(ExecutionException e) throws IOException {
+        Throwable cause = e.getCause();
+        if (cause instanceof SolrServerException sse) {
+            return sse;
+        }
+        if (cause instanceof IOException ioe) {
+            throw ioe;
+        }
+        if (cause instanceof RuntimeException re) {
+            throw re;
+        }
+        return new SolrServerException(cause);
+    }
+
+    private NamedList<Object> execute(Replica replica, SolrRequest<?> request, String collection) throws SolrServerException, IOException {
+        replica.getOutstanding().incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            NamedList<Object> ret = replica.getClient().request(request, collection);
+            replica.recordSuccess();
+            if (request instanceof QueryRequest) {
+                latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return ret;
+        } catch (SolrServerException | IOException e) {
+            replica.recordFailure();
+            throw e;
+        } catch (SolrException e) {
+            if (e.code() >= 500) {
+                replica.recordFailure();
+            }
+            throw e;
+        } finally {
+            replica.getOutstanding().decrementAndGet();
+        }
+    }
+
+    /**
+     * Selects the healthy replica with the fewest outstanding requests. Ties are broken in round-robin order.
+     *
+     * @param exclude Replicas not to select
+     * @return Selected replica; null if all replicas are excluded
+     */
+    Replica selectReplica(Set<Replica> exclude) {
+        Replica ret = selectReplica(exclude, true);
+        if (ret == null) {
+            // No healthy replica left, try the others anyway
+            ret = selectReplica(exclude, false);
+        }
+        return ret;
+    }
+
+    private Replica selectReplica(Set<Replica> exclude, boolean healthyOnly) {
+        int size = replicas.size();
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), size);
+        Replica ret = null;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < size; ++i) {
+            Replica replica = replicas.get((offset + i) % size);
+            if (exclude.contains(replica) || (healthyOnly && !replica.isHealthy())) {
+                continue;
+            }
+            int outstanding = replica.getOutstanding().get();
+            if (outstanding < min) {
+                min = outstanding;
+                ret = replica;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @return Milliseconds after which a query is sent to a second replica; 0 if there are not enough samples yet
+     */
+    long getHedgeDelay() {
+        if (hedgePercentile <= 0 || latencies.size() < MIN_LATENCY_SAMPLES) {
+            return 0;
+        }
+        return Math.max(latencies.getPercentile(hedgePercentile), MIN_HEDGE_DELAY);
+    }
+
+    /**
+     * Pings all replicas and marks those that fail or respond slower than the threshold as unhealthy.
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            long start = System.nanoTime();
+            try {
+                replica.getClient().ping();
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (slowThreshold > 0 && millis > slowThreshold) {
+                    replica.setHealthy(false, "ping took " + millis + " ms");
+                } else {
+                    replica.setHealthy(true, null);
+                }
+            } catch (Exception e) {
+                replica.setHealthy(false, e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isReadRequest(SolrRequest<?> request) {
+        return request instanceof QueryRequest || request instanceof LukeRequest || request instanceof SolrPing;
+    }
+
+    /**
+     *
+     * @return Solr URLs of all replicas; the first one is the primary
+     */
+    public List<String> getBaseUrls() {
+        return replicas.stream().map(Replica::getUrl).toList();
+    }
+
+    /**
+     *
+     * @return Number of replicas currently receiving read requests
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(Replica::isHealthy).count();
+    }
+
+    /**
+     *
+     * @return Number of queries that were sent to a second replica
+     */
+    public long getHedgedRequestCount() {
+        return hedgedRequests.get();
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        if (healthCheckExecutor != null) {
+            healthCheckExecutor.shutdownNow();
+        }
+        if (hedgePool != null) {
+            hedgePool.shutdown(Duration.ofSeconds(1));
+        }
+        IOException exception = null;
+        for (Replica replica : replicas) {
+            try {
+                replica.getClient().close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Query running in the hedging pool.
+     */
+    private final class PooledQuery implements Callable<NamedList<Object>> {
+
+        private final Replica replica;
+        private final SolrRequest<?> request;
+        private final String collection;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        PooledQuery(Replica replica, SolrRequest<?> request, String collection) {
+            this.replica = replica;
+            this.request = request;
+            this.collection = collection;
+        }
+
+        @Override
+        public NamedList<Object> call() throws SolrServerException, IOException {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException();
+            }
+            try {
+                return execute(replica, request, collection);
+            } finally {
+                hedgePermits.release();
+            }
+        }
+
+        /**
+         * Returns the permit of a query that has been cancelled before a thread picked it up.
+         */
+        void releaseIfNotStarted() {
+            if (started.compareAndSet(false, true)) {
+                hedgePermits.release();
+            }
+        }
+    }
+
+    /**
+     * Client and state of a single Solr replica.
+     */
+    static class Replica {
+
+        private final String url;
+        private final SolrClient client;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final long failureBackoffNanos;
+        private volatile boolean healthy = true;
+        /** True if the replica was removed due to request failures and receives requests again after {@link #readmitAt} */
+        private volatile boolean backingOff = false;
+        /** {@link System#nanoTime()} after which a backing off replica receives requests again */
+        private volatile long readmitAt;
+
+        Replica(String url, SolrClient client, long failureBackoff) {
+            this.url = url;
+            this.client = client;
+            this.failureBackoffNanos = TimeUnit.MILLISECONDS.toNanos(failureBackoff);
+        }
+
+        void recordSuccess() {
+            consecutiveFailures.set(0);
+            if (backingOff) {
+                setHealthy(true, null);
+            }
+        }
+
+        /**
+         * Removes the replica after {@link #MAX_CONSECUTIVE_FAILURES} consecutive failures. A replica re-admitted after its backoff period is
+         * removed again on its first failure.
+         *
+         * @should remove replica after consecutive failures
+         * @should readmit replica after backoff
+         */
+        void recordFailure() {
+            if (backingOff) {
+                readmitAt = System.nanoTime() + failureBackoffNanos;
+            } else if (consecutiveFailures.incrementAndGet() >= MAX_CONSECUTIVE_FAILURES && healthy) {
+                setHealthy(false, MAX_CONSECUTIVE_FAILURES + " consecutive failures");
+                if (failureBackoffNanos > 0) {
+                    readmitAt = System.nanoTime() + failureBackoffNanos;
+                    backingOff = true;
+                }
+            }
+        }
+
+        void setHealthy(boolean healthy, String reason) {
+            if (this.healthy != healthy) {
+                if (healthy) {
+                    logger.info("Solr replica {} is available again", url);
+                } else {
+                    logger.warn("Removing Solr replica {}: {}", url, reason);
+                }
+            }
+            if (healthy) {
+                consecutiveFailures.set(0);
+            }
+            this.healthy = healthy;
+            backingOff = false;
+        }
+
+        boolean isHealthy() {
+            return healthy || (backingOff && System.nanoTime() - readmitAt >= 0);
+        }
+
+        String getUrl() {
+            return url;
+        }
+
+        SolrClient getClient() {
+            return client;
+        }
+
+        AtomicInteger getOutstanding() {
+            return outstanding;
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer of recent latencies.
+     */
+    static class LatencyWindow {
+
+        private final long[] values;
+        private int count = 0;
+        private int next = 0;
+
+        LatencyWindow(int size) {
+            this.values = new long[size];
+        }
+
+        synchronized void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            if (count < values.length) {
+                count++;
+            }
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        /**
+         *
+         * @param percentile Value between 0 and 100
+         * @return Latency at the given percentile; 0 if empty
+         * @should return correct percentile
+         */
+        long getPercentile(double percentile) {
+            long[] copy;
+            synchronized (this) {
+                if (count == 0) {
+                    return 0;
+                }
+                copy = Arrays.copyOf(values, count);
+            }
+            Arrays.sort(copy);
+            int index = (int) Math.ceil(percentile / 100 * copy.length) - 1;
+            return copy[Math.min(Math.max(index, 0), copy.length - 1)];
+        }
+    }
+}
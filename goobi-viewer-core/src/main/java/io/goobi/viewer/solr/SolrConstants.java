@@ -335,6 +335,8 @@ public final class SolrConstants {
     public static final String BOOL_DIRECTION_RTL = "BOOL_DIRECTION_RTL";
     /** Field containing true if a page or any of the record's pages has an image. */
     public static final String BOOL_IMAGEAVAILABLE = "BOOL_IMAGEAVAILABLE";
+    /** Field containing true if a docstruct has shape metadata (only written by newer indexer versions). */
+    public static final String BOOL_SHAPE = "BOOL_SHAPE";
     /** Field containing a list of dates as year **/
     public static final String YEAR = "YEAR";
     /** Single field containing a date as year for sorting **/
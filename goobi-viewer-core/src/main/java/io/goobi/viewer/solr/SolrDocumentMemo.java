@@ -0,0 +1,258 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * Request-scoped memo for single Solr documents looked up by IDDOC or PI. While a memo is open on the current thread (see
+ * {@link #begin()}), {@link SolrSearchIndex} serves repeated lookups of the same document from the memo. A document fetched with a field
+ * list is reused for later lookups requesting a subset of those fields; a document fetched with all fields satisfies any field list.
+ * Documents are copied on the way out so that callers cannot affect each other. At most {@link #MAX_ENTRIES} lookups are memoized per
+ * request, so that requests iterating over many records do not keep all of them in memory.
+ */
+public final class SolrDocumentMemo {
+
+    /** Matches <code>IDDOC:123</code>, <code>+PI:"PPN123"</code> etc. */
+    private static final Pattern PATTERN_IDENTIFIER_QUERY =
+            Pattern.compile("^\\+?(" + SolrConstants.IDDOC + "|" + SolrConstants.PI + "):(\"?)([^\"\\s]+)\\2$");
+
+    /** Maximum number of memoized lookups per request */
+    static final int MAX_ENTRIES = 100;
+
+    private static final ThreadLocal<SolrDocumentMemo> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, List<Entry>> entries = new HashMap<>();
+    /** Number of memoized lookups */
+    private int entryCount = 0;
+    /** Nesting depth of {@link #begin()} calls on this thread (e.g. forwarded requests) */
+    private int depth = 0;
+    private int lookupCount = 0;
+    private int deduplicatedCount = 0;
+
+    /**
+     * Memoized document together with the fields it was loaded with.
+     */
+    private static class Entry {
+
+        /** Loaded fields; null if all fields were loaded */
+        private final Set<String> fields;
+        /** Loaded document; null if the query had no hits */
+        private final SolrDocument doc;
+
+        private Entry(Set<String> fields, SolrDocument doc) {
+            this.fields = fields;
+            this.doc = doc;
+        }
+
+        private boolean covers(List<String> fieldList) {
+            if (doc == null || fields == null) {
+                return true;
+            }
+            return fieldList != null && !fieldList.isEmpty() && fields.containsAll(fieldList);
+        }
+    }
+
+    private SolrDocumentMemo() {
+    }
+
+    /**
+     * Opens a memo for the current thread or joins the one already open.
+     *
+     * @return Memo bound to the current thread
+     */
+    public static SolrDocumentMemo begin() {
+        SolrDocumentMemo memo = CURRENT.get();
+        if (memo == null) {
+            memo = new SolrDocumentMemo();
+            CURRENT.set(memo);
+        }
+        memo.depth++;
+        return memo;
+    }
+
+    /**
+     * Closes the memo opened by the matching {@link #begin()} call. The memo is discarded once the outermost call has been closed.
+     *
+     * @should only discard memo after outermost call
+     */
+    public static void end() {
+        SolrDocumentMemo memo = CURRENT.get();
+        if (memo != null && --memo.depth <= 0) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return Memo bound to the current thread; null if none is open
+     */
+    public static SolrDocumentMemo getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns the memo key for the given query, if the query looks up a single document by IDDOC or PI.
+     *
+     * @param query Solr query
+     * @param fieldList Requested fields; null for all fields
+     * @return Key in the form <code>FIELD:value</code>; null if the query is not memoizable
+     * @should return key for iddoc query
+     * @should return key for pi query with plus and quotes
+     * @should return null for other queries
+     * @should return null for wildcard field list
+     */
+    static String getKey(String query, List<String> fieldList) {
+        if (query == null) {
+            return null;
+        }
+        if (fieldList != null && fieldList.stream().anyMatch(f -> f.contains("*"))) {
+            return null;
+        }
+        Matcher m = PATTERN_IDENTIFIER_QUERY.matcher(query.trim());
+        if (!m.matches()) {
+            return null;
+        }
+        return m.group(1) + ':' + m.group(3);
+    }
+
+    /**
+     * Checks whether a lookup for the given key and field list can be answered from this memo. Must be followed by {@link #get(String, List)}
+     * if true.
+     *
+     * @param key Memo key
+     * @param fieldList Requested fields; null for all fields
+     * @return true if memoized; false otherwise
+     * @should return true for subset of memoized fields
+     * @should return false for field outside memoized fields
+     * @should return true for any fields if all fields memoized
+     * @should return true for any fields if no hit memoized
+     */
+    public boolean contains(String key, List<String> fieldList) {
+        lookupCount++;
+        List<Entry> list = entries.get(key);
+        if (list != null) {
+            for (Entry entry : list) {
+                if (entry.covers(fieldList)) {
+                    deduplicatedCount++;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a copy of the memoized document for the given key, restricted to the requested fields.
+     *
+     * @param key Memo key
+     * @param fieldList Requested fields; null for all fields
+     * @return Copy of the memoized document; null if the memoized lookup had no hits or nothing is memoized
+     * @should only return requested fields
+     */
+    public SolrDocument get(String key, List<String> fieldList) {
+        List<Entry> list = entries.get(key);
+        if (list == null) {
+            return null;
+        }
+        for (Entry entry : list) {
+            if (entry.covers(fieldList)) {
+                return entry.doc != null ? copy(entry.doc, fieldList) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Memoizes the result of a lookup. Documents found by PI are also memoized under their IDDOC and vice versa, if the respective field was
+     * loaded. Does nothing once {@link #MAX_ENTRIES} lookups have been memoized.
+     *
+     * @param key Memo key
+     * @param fieldList Loaded fields; null for all fields
+     * @param doc Loaded document; null if the query had no hits
+     * @should memoize document under iddoc and pi
+     * @should not memoize more than max entries
+     */
+    public void put(String key, List<String> fieldList, SolrDocument doc) {
+        if (entryCount >= MAX_ENTRIES) {
+            return;
+        }
+        entryCount++;
+        Set<String> fields = fieldList == null || fieldList.isEmpty() ? null : new HashSet<>(fieldList);
+        SolrDocument stored = doc != null ? copy(doc, null) : null;
+        Entry entry = new Entry(fields, stored);
+        entries.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        if (stored != null) {
+            for (String field : new String[] { SolrConstants.IDDOC, SolrConstants.PI }) {
+                Object value = stored.getFirstValue(field);
+                if (value != null) {
+                    String altKey = field + ':' + value;
+                    if (!altKey.equals(key)) {
+                        entries.computeIfAbsent(altKey, k -> new ArrayList<>(2)).add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Number of memoizable lookups during this request
+     */
+    public int getLookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * @return Number of lookups answered from this memo instead of Solr
+     */
+    public int getDeduplicatedCount() {
+        return deduplicatedCount;
+    }
+
+    /**
+     *
+     * @param doc Document to copy
+     * @param fieldList Fields to copy; null for all fields
+     * @return Copy of doc
+     */
+    private static SolrDocument copy(SolrDocument doc, List<String> fieldList) {
+        SolrDocument ret = new SolrDocument();
+        for (String field : fieldList != null ? fieldList : doc.getFieldNames()) {
+            Object value = doc.getFieldValue(field);
+            if (value instanceof Collection<?> values) {
+                ret.setField(field, new ArrayList<>(values));
+            } else if (value != null) {
+                ret.setField(field, value);
+            }
+        }
+        return ret;
+    }
+}
@@ -30,12 +30,14 @@ import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -66,11 +68,17 @@ import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.luke.FieldFlag;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import io.goobi.viewer.controller.Configuration;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.RecordLocationResolver;
 import io.goobi.viewer.controller.StringTools;
+import io.goobi.viewer.controller.telemetry.QueryTelemetry;
+import io.goobi.viewer.controller.telemetry.QueryTelemetry.Backend;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
@@ -101,8 +109,8 @@ public class SolrSearchIndex {
 
     private long lastPing = 0;
 
-    /** Application-scoped map containing already looked up data repository names of records. */
-    private Map<String, String> dataRepositoryNames = new HashMap<>();
+    /** Application-scoped cache of data repository names and data folder contents of records. */
+    private final RecordLocationResolver recordLocationResolver;
 
     private SolrClient client;
 
@@ -125,19 +133,39 @@ public class SolrSearchIndex {
         } else {
             this.client = client;
         }
+        Configuration config = DataManager.getInstance().getConfiguration();
+        this.recordLocationResolver = new RecordLocationResolver(this, config.getRecordLocationCacheMaxSize(),
+                config.getRecordLocationCacheTtl() * 1000L, config.getRecordLocationCacheNotFoundTtl() * 1000L, config.getFolderListingCacheMaxSize(),
+                config.getFolderListingCacheTtl() * 1000L);
     }
 
     /**
      * Checks whether the server's configured URL matches that in the config file. If not, a new server instance is created.
      */
     public void checkReloadNeeded() {
+        if (client instanceof ReplicaSolrClient replicaClient) {
+            // Replica availability is checked by the client itself
+            if (!getConfiguredSolrUrls().equals(replicaClient.getBaseUrls())) {
+                logger.info("Solr URLs have changed, re-initializing Solr client...");
+                synchronized (this) {
+                    solrFields = null; // Reset available Solr field name list
+                    try {
+                        client.close();
+                    } catch (IOException e) {
+                        logger.error(e.getMessage());
+                    }
+                    client = getNewSolrClient();
+                }
+            }
+            return;
+        }
         if (!(client instanceof Http2SolrClient || client instanceof HttpSolrClient)) {
             return;
         }
 
         String baseUrl = client instanceof Http2SolrClient http2Client ? http2Client.getBaseURL() : ((HttpSolrClient) client).getBaseURL();
-        if (!DataManager.getInstance().getConfiguration().getSolrUrl().equals(baseUrl)) {
-            // Re-init Solr client if the configured Solr URL has been changed
+        if (!DataManager.getInstance().getConfiguration().getSolrUrl().equals(baseUrl) || getConfiguredSolrUrls().size() > 1) {
+            // Re-init Solr client if the configured Solr URL has been changed or replicas have been added
             logger.info("Solr URL has changed, re-initializing Solr client...");
             synchronized (this) {
                 solrFields = null; // Reset available Solr field name list
@@ -172,12 +200,40 @@ public class SolrSearchIndex {
      * @return New {@link SolrClient}
      */
     public static SolrClient getNewSolrClient() {
+        List<String> urls = getConfiguredSolrUrls();
+        if (urls.size() > 1) {
+            Configuration config = DataManager.getInstance().getConfiguration();
+            return new ReplicaSolrClient(urls, SolrSearchIndex::getNewSolrClient, config.getSolrReplicaHealthCheckInterval() * 1000L,
+                    config.getSolrReplicaFailureBackoff() * 1000L, config.getSolrReplicaSlowThreshold(), config.getSolrReplicaHedgePercentile(),
+                    config.getSolrReplicaHedgePoolSize());
+        }
+
+        return getNewSolrClient(urls.get(0));
+    }
+
+    /**
+     * 
+     * @param solrUrl
+     * @return New {@link SolrClient} for the given URL
+     */
+    static SolrClient getNewSolrClient(String solrUrl) {
         if (DataManager.getInstance().getConfiguration().isSolrUseHttp2()) {
-            return getNewHttp2SolrClient();
+            return getNewHttp2SolrClient(solrUrl);
         }
 
         logger.trace("Using HTTP1 compatiblity mode.");
-        return getNewHttpSolrClient();
+        return getNewHttpSolrClient(solrUrl);
+    }
+
+    /**
+     * 
+     * @return Configured Solr URL followed by all distinct configured replica URLs
+     */
+    static List<String> getConfiguredSolrUrls() {
+        Set<String> ret = new LinkedHashSet<>();
+        ret.add(DataManager.getInstance().getConfiguration().getSolrUrl());
+        ret.addAll(DataManager.getInstance().getConfiguration().getSolrReplicaUrls());
+        return new ArrayList<>(ret);
     }
 
     /**
@@ -185,13 +241,14 @@ public class SolrSearchIndex {
      * getNewHttpSolrClient.
      * </p>
      *
+     * @param solrUrl
      * @return a {@link org.apache.solr.client.solrj.impl.HttpSolrServer} object.
      * @deprecated Use getNewHttp2SolrClient(), if Solr 9 is available
      */
     @Deprecated(since = "24.01")
-    static HttpSolrClient getNewHttpSolrClient() {
+    static HttpSolrClient getNewHttpSolrClient(String solrUrl) {
         HttpSolrClient client = new HttpSolrClient.Builder()
-                .withBaseSolrUrl(DataManager.getInstance().getConfiguration().getSolrUrl())
+                .withBaseSolrUrl(solrUrl)
                 .withSocketTimeout(TIMEOUT_SO)
                 .withConnectionTimeout(TIMEOUT_CONNECTION)
                 .allowCompression(DataManager.getInstance().getConfiguration().isSolrCompressionEnabled())
@@ -214,10 +271,11 @@ public class SolrSearchIndex {
      * getNewHttp2SolrClient.
      * </p>
      *
+     * @param solrUrl
      * @return a {@link org.apache.solr.client.solrj.impl.HttpSolrServer} object.
      */
-    static Http2SolrClient getNewHttp2SolrClient() {
-        return new Http2SolrClient.Builder(DataManager.getInstance().getConfiguration().getSolrUrl())
+    static Http2SolrClient getNewHttp2SolrClient(String solrUrl) {
+        return new Http2SolrClient.Builder(solrUrl)
                 .withIdleTimeout(TIMEOUT_SO, TimeUnit.MILLISECONDS)
                 .withConnectionTimeout(TIMEOUT_CONNECTION, TimeUnit.MILLISECONDS)
                 .withFollowRedirects(false)
@@ -256,7 +314,48 @@ public class SolrSearchIndex {
         solrQuery.setStart(0);
         solrQuery.setRows(0);
 
-        return client.query(solrQuery);
+        return query(solrQuery, DEFAULT_QUERY_METHOD);
+    }
+
+    /**
+     * Executes the given query and records its timing in the {@link QueryTelemetry}.
+     *
+     * @param solrQuery
+     * @param queryMethod
+     * @return {@link QueryResponse}
+     * @throws SolrServerException
+     * @throws IOException
+     */
+    private QueryResponse query(SolrQuery solrQuery, METHOD queryMethod) throws SolrServerException, IOException {
+        long start = System.nanoTime();
+        QueryResponse resp = null;
+        try {
+            resp = client.query(solrQuery, queryMethod);
+            return resp;
+        } finally {
+            recordQuery(start, resp, () -> {
+                String[] filterQueries = solrQuery.getFilterQueries();
+                return filterQueries != null ? solrQuery.getQuery() + " fq:" + String.join(" fq:", filterQueries) : solrQuery.getQuery();
+            });
+        }
+    }
+
+    /**
+     * 
+     * @param start Value of {@link System#nanoTime()} before the query
+     * @param resp Response; null if the query failed
+     * @param query Supplies the query string for the slow query log
+     */
+    private static void recordQuery(long start, QueryResponse resp, Supplier<String> query) {
+        QueryTelemetry telemetry = DataManager.getInstance().getQueryTelemetry();
+        if (!telemetry.isEnabled()) {
+            return;
+        }
+        if (resp == null) {
+            telemetry.record(Backend.SOLR, null, start, -1, 0, true, query);
+        } else {
+            telemetry.record(Backend.SOLR, null, start, resp.getQTime(), resp.getResults() != null ? resp.getResults().size() : 0, false, query);
+        }
     }
 
     /**
@@ -345,7 +444,7 @@ public class SolrSearchIndex {
             //             logger.debug("range: {} - {}", first, first + rows); //NOSONAR Debug
             //             logger.debug("facetFields: {}", facetFields); //NOSONAR Debug
             //             logger.debug("fieldList: {}", fieldList); //NOSONAR Debug
-            QueryResponse resp = client.query(solrQuery, queryMethod);
+            QueryResponse resp = query(solrQuery, queryMethod);
             //             logger.debug("found: {}", resp.getResults().getNumFound()); //NOSONAR Debug
             //             logger.debug("fetched: {}", resp.getResults().size()); //NOSONAR Debug
 
@@ -491,12 +590,39 @@ public class SolrSearchIndex {
     public SolrDocument getFirstDoc(String query, List<String> fieldList, List<StringPair> sortFields)
             throws PresentationException, IndexUnreachableException {
         // logger.trace("getFirstDoc: {}", query); //NOSONAR Debug
-        SolrDocumentList hits = search(SolrTools.cleanUpQuery(query), 0, 1, sortFields, null, fieldList).getResults();
-        if (hits.getNumFound() > 0) {
-            return hits.get(0);
+        return getFirstDocMemoized(query, SolrTools.cleanUpQuery(query), fieldList, sortFields);
+    }
+
+    /**
+     * Retrieves the first document found by the given query. Lookups by IDDOC or PI are answered from the {@link SolrDocumentMemo} of the
+     * current request, if one is open.
+     *
+     * @param memoQuery Query used for the memo key
+     * @param query Query sent to Solr
+     * @param fieldList The fields retrieved
+     * @param sortFields Sorting; lookups with sorting are not memoized
+     * @return The first hit returned by the query
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    private SolrDocument getFirstDocMemoized(String memoQuery, String query, List<String> fieldList, List<StringPair> sortFields)
+            throws PresentationException, IndexUnreachableException {
+        SolrDocumentMemo memo = sortFields == null || sortFields.isEmpty() ? SolrDocumentMemo.getCurrent() : null;
+        String memoKey = memo != null ? SolrDocumentMemo.getKey(memoQuery, fieldList) : null;
+        if (memoKey != null && memo.contains(memoKey, fieldList)) {
+            return memo.get(memoKey, fieldList);
         }
 
-        return null;
+        SolrDocument ret = null;
+        SolrDocumentList hits = search(query, 0, 1, sortFields, null, fieldList).getResults();
+        if (hits != null && !hits.isEmpty()) {
+            ret = hits.get(0);
+        }
+        if (memoKey != null) {
+            memo.put(memoKey, fieldList, ret);
+        }
+
+        return ret;
     }
 
     /**
@@ -531,16 +657,8 @@ public class SolrSearchIndex {
      * @throws io.goobi.viewer.exceptions.PresentationException if any.
      */
     public SolrDocument getDocumentByIddoc(String iddoc) throws IndexUnreachableException, PresentationException {
-
-        SolrDocument ret = null;
-        SolrDocumentList hits =
-                search(new StringBuilder(SolrConstants.IDDOC).append(':').append(SolrTools.cleanUpQuery(iddoc)).toString(), 0, 1, null, null, null)
-                        .getResults();
-        if (hits != null && !hits.isEmpty()) {
-            ret = hits.get(0);
-        }
-
-        return ret;
+        return getFirstDocMemoized(SolrConstants.IDDOC + ':' + iddoc,
+                new StringBuilder(SolrConstants.IDDOC).append(':').append(SolrTools.cleanUpQuery(iddoc)).toString(), null, null);
     }
 
     /**
@@ -555,16 +673,9 @@ public class SolrSearchIndex {
      * @throws io.goobi.viewer.exceptions.PresentationException if any.
      */
     public SolrDocument getDocumentByPI(String pi) throws IndexUnreachableException, PresentationException {
-        // logger.trace("getDocumentByIddoc: {}", iddoc); //NOSONAR Debug
-        SolrDocument ret = null;
-        SolrDocumentList hits =
-                search(new StringBuilder(SolrConstants.PI).append(':').append(SolrTools.cleanUpQuery(pi)).toString(), 0, 1, null, null, null)
-                        .getResults();
-        if (hits != null && !hits.isEmpty()) {
-            ret = hits.get(0);
-        }
-
-        return ret;
+        // logger.trace("getDocumentByPI: {}", pi); //NOSONAR Debug
+        return getFirstDocMemoized(SolrConstants.PI + ':' + pi,
+                new StringBuilder(SolrConstants.PI).append(':').append(SolrTools.cleanUpQuery(pi)).toString(), null, null);
     }
 
     public SolrDocument getDocumentByPIAndLogId(String pi, String divId) throws IndexUnreachableException, PresentationException {
@@ -605,7 +716,7 @@ public class SolrSearchIndex {
         SolrQuery solrQuery =
                 new SolrQuery(query).setRows(DataManager.getInstance().getConfiguration().getTagCloudSampleSize(fieldName)).addField(fieldName);
         try {
-            QueryResponse resp = client.query(solrQuery);
+            QueryResponse resp = query(solrQuery, DEFAULT_QUERY_METHOD);
             logger.trace("query done");
             for (SolrDocument doc : resp.getResults()) {
                 Collection<Object> values = doc.getFieldValues(fieldName);
@@ -711,7 +822,7 @@ public class SolrSearchIndex {
         SolrQuery solrQuery = new SolrQuery(new StringBuilder(SolrConstants.IDDOC).append(":").append(iddoc).toString());
         solrQuery.setRows(1);
         try {
-            QueryResponse resp = client.query(solrQuery);
+            QueryResponse resp = query(solrQuery, DEFAULT_QUERY_METHOD);
             if (resp.getResults().getNumFound() > 0) {
                 return (String) resp.getResults().get(0).getFieldValue(SolrConstants.PI);
             }
@@ -835,22 +946,17 @@ public class SolrSearchIndex {
     }
 
     /**
-     * Retrieves the repository name for the record with the given PI and persists it in a map. This method is package private to discourage clients
-     * from constructing data file paths manually instead of using Helper methods.
+     * Retrieves the repository name for the record with the given PI, using the cache of the {@link RecordLocationResolver}. This method is
+     * package private to discourage clients from constructing data file paths manually instead of using Helper methods.
      *
      * @param pi
      * @return Data repository name for the record with the given identifier; null if not in a repository
      * @throws PresentationException
      * @throws IndexUnreachableException
-     * @should return value from map if available
+     * @should return cached value if available
      */
     public String findDataRepositoryName(String pi) throws PresentationException, IndexUnreachableException {
-        if (!dataRepositoryNames.containsKey(pi)) {
-            String dataRepositoryName = findDataRepository(pi);
-            updateDataRepositoryNames(pi, dataRepositoryName);
-        }
-
-        return dataRepositoryNames.get(pi);
+        return recordLocationResolver.getDataRepositoryName(pi);
     }
 
     /**
@@ -860,53 +966,7 @@ public class SolrSearchIndex {
      * @should update value correctly
      */
     public void updateDataRepositoryNames(String pi, String dataRepositoryName) {
-        dataRepositoryNames.put(pi, dataRepositoryName);
-    }
-
-    /**
-     * Retrieves the repository name for the record with the given PI from the index.
-     *
-     * @param pi
-     * @return Data repository name for the record with the given identifier; null if not in a repository
-     * @throws PresentationException
-     * @throws IndexUnreachableException
-     */
-    private String findDataRepository(String pi) throws PresentationException, IndexUnreachableException {
-        // logger.trace("findDataRepository: {}", pi); //NOSONAR Debug
-        if (StringUtils.isEmpty(pi)) {
-            throw new IllegalArgumentException("pi may not be null or empty");
-        }
-        SolrQuery solrQuery = new SolrQuery(new StringBuilder(SolrConstants.PI).append(":").append(SolrTools.cleanUpQuery(pi)).toString());
-        solrQuery.setRows(1);
-        solrQuery.setFields(SolrConstants.DATAREPOSITORY);
-
-        try {
-            QueryResponse resp = client.query(solrQuery);
-            if (!resp.getResults().isEmpty()) {
-                return (String) resp.getResults().get(0).getFieldValue(SolrConstants.DATAREPOSITORY);
-            }
-        } catch (SolrServerException e) {
-            if (e.getMessage().startsWith("Server refused connection")) {
-                logger.warn("Solr offline; Query: {}", solrQuery.getQuery());
-                throw new IndexUnreachableException(e.getMessage());
-            } else if (e.getMessage().startsWith("IOException occured when talking to server") || e.getMessage().contains("Timeout")) {
-                logger.warn("Solr communication timeout; Query: {}", solrQuery.getQuery());
-                throw new IndexUnreachableException(e.getMessage());
-            }
-            logger.error(e.getMessage(), e);
-            throw new PresentationException(e.getMessage() + ": " + solrQuery.getQuery());
-        } catch (RemoteSolrException e) {
-            if (SolrTools.isQuerySyntaxError(e)) {
-                logger.error("{}; Query: {}", e.getMessage(), solrQuery.getQuery());
-                throw new PresentationException("Bad query.");
-            }
-            logger.error("{} (this usually means Solr is returning 403); Query: {}", e.getMessage(), solrQuery.getQuery());
-            throw new IndexUnreachableException(e.getMessage());
-        } catch (IOException e) {
-            throw new IndexUnreachableException(e.getMessage());
-        }
-
-        return null;
+        recordLocationResolver.update(pi, dataRepositoryName);
     }
 
     /**
@@ -1002,7 +1062,7 @@ public class SolrSearchIndex {
         }
 
         try {
-            return client.query(solrQuery);
+            return query(solrQuery, DEFAULT_QUERY_METHOD);
         } catch (SolrServerException e) {
             if (e.getMessage().startsWith("Server refused connection")) {
                 logger.warn("Solr offline; Query: {}", solrQuery.getQuery());
@@ -1059,6 +1119,43 @@ public class SolrSearchIndex {
         return this.booleanSolrFields;
     }
 
+    /**
+     * Returns the version of the index, which changes with every commit. Only the index information is requested, no fields are inspected.
+     *
+     * @return Index version as reported by the Luke request handler
+     * @throws IndexUnreachableException
+     * @should return index version
+     */
+    public long getIndexVersion() throws IndexUnreachableException {
+        LukeRequest lukeRequest = new IndexInfoLukeRequest();
+        lukeRequest.setNumTerms(0);
+        try {
+            LukeResponse lukeResponse = lukeRequest.process(client);
+            Object version = lukeResponse.getIndexInfo() != null ? lukeResponse.getIndexInfo().get("version") : null;
+            if (version instanceof Number number) {
+                return number.longValue();
+            }
+            throw new IndexUnreachableException("Index version not found in Luke response");
+        } catch (IllegalStateException | SolrServerException | RemoteSolrException | IOException e) {
+            throw new IndexUnreachableException("Failed to load index version: " + e.toString());
+        }
+    }
+
+    /**
+     * Luke request that only returns the index information (<code>show=index</code>).
+     */
+    private static class IndexInfoLukeRequest extends LukeRequest {
+
+        private static final long serialVersionUID = -3405912769584301876L;
+
+        @Override
+        public SolrParams getParams() {
+            ModifiableSolrParams params = new ModifiableSolrParams(super.getParams());
+            params.set("show", "index");
+            return params;
+        }
+    }
+
     public void loadSolrFields() throws SolrServerException, IOException {
         LukeRequest lukeRequest = new LukeRequest();
         lukeRequest.setNumTerms(0);
@@ -1359,12 +1456,16 @@ public class SolrSearchIndex {
 
     /**
      *
-     * @return Base URL of the active Solr server
+     * @return Base URL of the active Solr server; the primary one if read requests are distributed over replicas
+     * @should return primary url if replicas are used
      */
     public String getSolrServerUrl() {
         if (client instanceof Http2SolrClient) {
             return ((Http2SolrClient) client).getBaseURL();
         }
+        if (client instanceof ReplicaSolrClient replicaClient) {
+            return replicaClient.getBaseUrls().get(0);
+        }
 
         return null;
     }
@@ -1414,8 +1515,10 @@ public class SolrSearchIndex {
                 .setLimit(0)
                 .withFacet("heatmapFacet", facetMap);
 
+        long start = System.nanoTime();
+        QueryResponse response = null;
         try {
-            QueryResponse response = request.process(client);
+            response = request.process(client);
             final NestableJsonFacet topLevelFacet = response.getJsonFacetingResponse();
             final HeatmapJsonFacet heatmap = topLevelFacet.getHeatmapFacetByName("heatmapFacet");
             if (heatmap != null) {
@@ -1424,6 +1527,8 @@ public class SolrSearchIndex {
             return "{}";
         } catch (SolrServerException | IOException e) {
             throw new IndexUnreachableException("Error getting facet heatmap: " + e.toString());
+        } finally {
+            recordQuery(start, response, () -> query + " heatmap:" + solrField);
         }
     }
 
@@ -1502,10 +1607,10 @@ public class SolrSearchIndex {
     }
 
     /**
-     * @return the dataRepositoryNames
+     * @return the recordLocationResolver
      */
-    public Map<String, String> getDataRepositoryNames() {
-        return dataRepositoryNames;
+    public RecordLocationResolver getRecordLocationResolver() {
+        return recordLocationResolver;
     }
 
     private class TermWeightComparator implements Comparator<String> {
@@ -26,7 +26,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -173,8 +172,7 @@ public class DownloadTaskEndpoint {
     private void sendUpdate(SocketMessage message) throws JsonProcessingException {
         SocketMessage answer = SocketMessage.buildAnswer(message, Status.DORMANT);
         ExternalFilesDownloadJob job = Optional.ofNullable(storageBean)
-                .flatMap(bean -> bean.getIfRecentOrRemove(message.url, 1, ChronoUnit.DAYS))
-                .map(ExternalFilesDownloadJob.class::cast)
+                .flatMap(bean -> bean.getDownloadJobs().getIfPresent(message.url))
                 .orElse(null);
         ViewerMessage queueMessage = queueManager.getMessageById(message.messageQueueId).orElse(null);
         if (queueMessage != null && job == null) {
@@ -184,12 +182,12 @@ public class DownloadTaskEndpoint {
                 answer.errorMessage = job.getErrorMessage();
                 answer.status = Status.ERROR;
                 if (storageBean != null) {
-                    storageBean.remove(message.url); //reset the status so a new download attempt is possible
+                    storageBean.getDownloadJobs().invalidate(message.url); //reset the status so a new download attempt is possible
                 }
             } else if (job.getProgress().complete() && !isFilesExist(message.pi, message.url)) {
                 //download task has completed but files are no longer available. remove job from storage bean and return waiting status
                 if (storageBean != null) {
-                    storageBean.remove(message.url);
+                    storageBean.getDownloadJobs().invalidate(message.url);
                 }
                 answer.status = Status.WAITING;
             } else {
@@ -220,7 +218,7 @@ public class DownloadTaskEndpoint {
                 FileUtils.deleteDirectory(resourceFolder.toFile());
             }
             if (storageBean != null) {
-                storageBean.remove(message.url);
+                storageBean.getDownloadJobs().invalidate(message.url);
             }
             if (deleted) {
                 sendMessage(SocketMessage.buildAnswer(message, Status.CANCELED));
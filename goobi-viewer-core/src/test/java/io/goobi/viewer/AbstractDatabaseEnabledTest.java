@@ -40,6 +40,7 @@ import io.goobi.viewer.dao.impl.JPADAO;
 public abstract class AbstractDatabaseEnabledTest extends AbstractTest {
 
     private static IDatabaseTester databaseTester;
+    private static JPADAO jpadao;
 
     //    protected static IDataSet getDataSet() throws Exception {
     //        return new XmlDataSet(new FileInputStream("resources/test_db_dataset.xml"));
@@ -49,7 +50,9 @@ public abstract class AbstractDatabaseEnabledTest extends AbstractTest {
     public static void setUpClass() throws Exception {
         AbstractTest.setUpClass();
 
-        DataManager.getInstance().injectDao(new JPADAO("intranda_viewer_test"));
+        // Use the instrumented DAO, as in production
+        jpadao = new JPADAO("intranda_viewer_test");
+        DataManager.getInstance().injectDao(DataManager.getInstance().getQueryTelemetry().instrument(jpadao));
         databaseTester = new H2JdbcDatabaseTester();
         try (FileInputStream fis = new FileInputStream("src/test/resources/test_db_dataset.xml")) {
             databaseTester.setDataSet(new FlatXmlDataSetBuilder().setColumnSensing(true).build(fis));
@@ -66,7 +69,7 @@ public abstract class AbstractDatabaseEnabledTest extends AbstractTest {
     @AfterEach
     public void tearDown() throws Exception {
         databaseTester.onTearDown();
-        ((JPADAO) DataManager.getInstance().getDao()).clear();
+        jpadao.clear();
 
         // FlatXmlDataSet
         // .write(databaseTester.getConnection().createDataSet(), new FileOutputStream("resources/" + System.currentTimeMillis() + ".xml"));
@@ -23,10 +23,42 @@ package io.goobi.viewer.api.rest.model;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.io.FileUtils;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.servlet.ServletRegistration;
+import org.glassfish.grizzly.servlet.WebappContext;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 class MediaDeliveryServiceTest {
 
+    private static final Duration TIMEOUT = Duration.ofMinutes(1);
+
     @Test
     void test_matchRangeHeader() {
         {
@@ -84,4 +116,361 @@ class MediaDeliveryServiceTest {
             assertFalse(MediaDeliveryService.matchesRangeHeaderPattern(range));
         }
     }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies not block request threads while slow clients read large files
+     */
+    @Test
+    void processRequest_shouldNotBlockRequestThreadsWhileSlowClientsReadLargeFiles() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        Semaphore permits = new Semaphore(64);
+        HttpServer server = null;
+        List<Socket> slowReaders = new ArrayList<>();
+        try {
+            byte[] large = createFile(dir, "large.mp4", 8 * 1024 * 1024);
+            byte[] small = createFile(dir, "small.mp4", 1024);
+            server = startServer(new MediaDeliveryService(permits, 65536, false, TIMEOUT), dir, 4);
+            int port = server.getListener("media").getPort();
+
+            // Five times as many stalled downloads as request threads
+            for (int i = 0; i < 20; i++) {
+                Socket socket = connect(port);
+                sendGet(socket, "/media/large.mp4", null);
+                slowReaders.add(socket);
+            }
+            Thread.sleep(500);
+
+            try (Socket socket = connect(port)) {
+                sendGet(socket, "/media/small.mp4", null);
+                RawResponse response = readResponse(socket);
+                assertEquals(200, response.status);
+                assertArrayEquals(small, response.body);
+            }
+
+            // The stalled downloads are completed once the clients read them
+            for (Socket socket : slowReaders) {
+                RawResponse response = readResponse(socket);
+                assertEquals(200, response.status);
+                assertEquals(String.valueOf(large.length), response.headers.get("content-length"));
+                assertArrayEquals(large, response.body);
+            }
+            waitForPermits(permits, 64);
+        } finally {
+            for (Socket socket : slowReaders) {
+                socket.close();
+            }
+            if (server != null) {
+                server.shutdownNow();
+            }
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies return 503 if too many large transfers are running
+     */
+    @Test
+    void processRequest_shouldReturn503IfTooManyLargeTransfersAreRunning() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        Semaphore permits = new Semaphore(1);
+        HttpServer server = null;
+        try {
+            byte[] large = createFile(dir, "large.mp4", 256 * 1024);
+            byte[] small = createFile(dir, "small.mp4", 1024);
+            server = startServer(new MediaDeliveryService(permits, 65536, false, TIMEOUT), dir, 4);
+            int port = server.getListener("media").getPort();
+
+            // Another large transfer is running
+            permits.acquire();
+            RawResponse response = get(port, "/media/large.mp4", null);
+            assertEquals(503, response.status);
+            assertEquals("5", response.headers.get("retry-after"));
+
+            // Small files are not limited
+            response = get(port, "/media/small.mp4", null);
+            assertEquals(200, response.status);
+            assertArrayEquals(small, response.body);
+
+            permits.release();
+            response = get(port, "/media/large.mp4", null);
+            assertEquals(200, response.status);
+            assertArrayEquals(large, response.body);
+            waitForPermits(permits, 1);
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies return requested range of large file
+     */
+    @Test
+    void processRequest_shouldReturnRequestedRangeOfLargeFile() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        HttpServer server = null;
+        try {
+            byte[] large = createFile(dir, "large.mp4", 1024 * 1024 + 17);
+            server = startServer(new MediaDeliveryService(new Semaphore(1), 65536, false, TIMEOUT), dir, 4);
+            int port = server.getListener("media").getPort();
+
+            RawResponse response = get(port, "/media/large.mp4", "bytes=1000-");
+            assertEquals(206, response.status);
+            assertEquals("bytes 1000-" + (large.length - 1) + "/" + large.length, response.headers.get("content-range"));
+            assertArrayEquals(Arrays.copyOfRange(large, 1000, large.length), response.body);
+
+            response = get(port, "/media/large.mp4", "bytes=100-199");
+            assertEquals(206, response.status);
+            assertArrayEquals(Arrays.copyOfRange(large, 100, 200), response.body);
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies hand large files to sendfile if supported
+     */
+    @Test
+    void processRequest_shouldHandLargeFilesToSendfileIfSupported() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        try {
+            byte[] large = createFile(dir, "large.mp4", 256 * 1024);
+            Path file = dir.resolve("large.mp4");
+            HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+            Mockito.when(request.getAttribute(MediaDeliveryService.ATTRIBUTE_SENDFILE_SUPPORT)).thenReturn(Boolean.TRUE);
+            Mockito.when(request.getHeader("Range")).thenReturn("bytes=100-");
+            Mockito.when(request.getDateHeader(Mockito.anyString())).thenReturn(-1L);
+            HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+            Semaphore permits = new Semaphore(1);
+
+            new MediaDeliveryService(permits, 65536, true, TIMEOUT).processRequest(request, response, file.toString(), "video/mp4");
+
+            Mockito.verify(request).setAttribute(MediaDeliveryService.ATTRIBUTE_SENDFILE_FILENAME, file.toFile().getCanonicalPath());
+            Mockito.verify(request).setAttribute(MediaDeliveryService.ATTRIBUTE_SENDFILE_START, 100L);
+            Mockito.verify(request).setAttribute(MediaDeliveryService.ATTRIBUTE_SENDFILE_END, (long) large.length);
+            Mockito.verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            Mockito.verify(response).setHeader("Content-Length", String.valueOf(large.length - 100));
+            Mockito.verify(response).flushBuffer();
+            Mockito.verify(response, Mockito.never()).getOutputStream();
+            assertEquals(1, permits.availablePermits());
+        } finally {
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies release permit and close connection if asynchronous transfer stalls
+     */
+    @Test
+    void processRequest_shouldReleasePermitAndCloseConnectionIfAsynchronousTransferStalls() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        Semaphore permits = new Semaphore(1);
+        HttpServer server = null;
+        try {
+            byte[] large = createFile(dir, "large.mp4", 8 * 1024 * 1024);
+            server = startServer(new MediaDeliveryService(permits, 65536, false, Duration.ofMillis(500)), dir, 4);
+            int port = server.getListener("media").getPort();
+
+            try (Socket socket = connect(port)) {
+                sendGet(socket, "/media/large.mp4", null);
+                // The client doesn't read until the transfer has stalled for longer than the timeout
+                Thread.sleep(1000);
+                waitForPermits(permits, 1);
+                RawResponse response = readResponse(socket);
+                assertEquals(200, response.status);
+                assertTrue(response.body.length < large.length);
+            }
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * @see MediaDeliveryService#processRequest(HttpServletRequest,HttpServletResponse,String,String)
+     * @verifies not abort slow asynchronous transfers that keep making progress
+     */
+    @Test
+    void processRequest_shouldNotAbortSlowAsynchronousTransfersThatKeepMakingProgress() throws Exception {
+        Path dir = Files.createTempDirectory("media");
+        Semaphore permits = new Semaphore(1);
+        HttpServer server = null;
+        try {
+            // Larger than what the container buffers ahead of the client
+            byte[] large = createFile(dir, "large.mp4", 16 * 1024 * 1024);
+            server = startServer(new MediaDeliveryService(permits, 65536, false, Duration.ofMillis(500)), dir, 4);
+            int port = server.getListener("media").getPort();
+
+            try (Socket socket = connect(port)) {
+                sendGet(socket, "/media/large.mp4", null);
+                // The client reads steadily, but the whole transfer takes several times the stall timeout
+                InputStream in = socket.getInputStream();
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+                byte[] buf = new byte[8192];
+                long nextPause = 256 * 1024;
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    received.write(buf, 0, read);
+                    if (received.size() >= nextPause) {
+                        Thread.sleep(50);
+                        nextPause += 256 * 1024;
+                    }
+                }
+                // Headers and body
+                assertTrue(received.size() > large.length);
+            }
+            waitForPermits(permits, 1);
+        } finally {
+            if (server != null) {
+                server.shutdownNow();
+            }
+            FileUtils.deleteQuietly(dir.toFile());
+        }
+    }
+
+    /**
+     * Creates a file with pseudo-random content.
+     *
+     * @param dir
+     * @param fileName
+     * @param size
+     * @return File content
+     * @throws IOException
+     */
+    private static byte[] createFile(Path dir, String fileName, int size) throws IOException {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Files.write(dir.resolve(fileName), content);
+        return content;
+    }
+
+    /**
+     * Starts a servlet container that serves the files in the given folder through {@link MediaDeliveryService}.
+     *
+     * @param service
+     * @param dir
+     * @param workerThreads Number of request threads
+     * @return Started server
+     * @throws IOException
+     */
+    private static HttpServer startServer(MediaDeliveryService service, Path dir, int workerThreads) throws IOException {
+        HttpServer server = new HttpServer();
+        NetworkListener listener = new NetworkListener("media", "localhost", 0);
+        listener.getTransport()
+                .setWorkerThreadPoolConfig(ThreadPoolConfig.defaultConfig().setCorePoolSize(workerThreads).setMaxPoolSize(workerThreads));
+        // Limit what the container buffers per connection, so that writes to a client that doesn't read have to wait
+        listener.getTransport().getAsyncQueueIO().getWriter().setMaxPendingBytesPerConnection(65536);
+        server.addListener(listener);
+
+        WebappContext context = new WebappContext("media", "");
+        ServletRegistration registration = context.addServlet("media", new MediaServlet(service, dir));
+        registration.addMapping("/media/*");
+        registration.setAsyncSupported(true);
+        context.deploy(server);
+        server.start();
+        return server;
+    }
+
+    /**
+     * @param port
+     * @return Socket with a small receive buffer, so that the server cannot write ahead of a client that doesn't read
+     * @throws IOException
+     */
+    private static Socket connect(int port) throws IOException {
+        Socket socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.setSoTimeout(10000);
+        socket.connect(new InetSocketAddress("localhost", port), 5000);
+        return socket;
+    }
+
+    private static RawResponse get(int port, String path, String range) throws IOException {
+        try (Socket socket = connect(port)) {
+            sendGet(socket, path, range);
+            return readResponse(socket);
+        }
+    }
+
+    private static void sendGet(Socket socket, String path, String range) throws IOException {
+        StringBuilder sb = new StringBuilder("GET ").append(path).append(" HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n");
+        if (range != null) {
+            sb.append("Range: ").append(range).append("\r\n");
+        }
+        sb.append("\r\n");
+        OutputStream out = socket.getOutputStream();
+        out.write(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static RawResponse readResponse(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed before end of headers");
+            }
+            head.write(b);
+            matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : 0;
+        }
+        String[] lines = head.toString(StandardCharsets.US_ASCII.name()).split("\r\n");
+        RawResponse response = new RawResponse();
+        response.status = Integer.parseInt(lines[0].split(" ")[1]);
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                response.headers.put(lines[i].substring(0, colon).trim().toLowerCase(), lines[i].substring(colon + 1).trim());
+            }
+        }
+        response.body = in.readAllBytes();
+        return response;
+    }
+
+    /**
+     * Permits are released by the container thread that completes the transfer, which may happen shortly after the client has read the last byte.
+     */
+    private static void waitForPermits(Semaphore permits, int expected) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (permits.availablePermits() < expected && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, permits.availablePermits());
+    }
+
+    private static class RawResponse {
+        private int status;
+        private final Map<String, String> headers = new HashMap<>();
+        private byte[] body;
+    }
+
+    private static class MediaServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient MediaDeliveryService service;
+        private final transient Path dir;
+
+        MediaServlet(MediaDeliveryService service, Path dir) {
+            this.service = service;
+            this.dir = dir;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            service.processRequest(req, resp, dir.resolve(req.getPathInfo().substring(1)).toString(), "video/mp4");
+        }
+    }
 }
@@ -24,12 +24,19 @@ package io.goobi.viewer.api.rest.v1.media;
 import static io.goobi.viewer.api.rest.v1.ApiUrls.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 
 import io.goobi.viewer.api.rest.v1.AbstractRestApiTest;
+import io.goobi.viewer.controller.DataFileTools;
+import io.goobi.viewer.controller.DataManager;
 
 /**
  * @author florian
@@ -87,6 +94,36 @@ class MediaResourceTest extends AbstractRestApiTest {
         }
     }
 
+    /**
+     * @see MediaResource#serveAudioContent(String,String)
+     * @verifies return file content without adding an entity
+     */
+    @Test
+    void serveAudioContent_shouldReturnFileContentWithoutAddingAnEntity() throws Exception {
+        Path folder = DataFileTools.getDataFolder(PI.toString(), DataManager.getInstance().getConfiguration().getMediaFolder());
+        boolean folderExisted = Files.isDirectory(folder);
+        Path file = folder.resolve("delivery_test.mp3");
+        try {
+            // Larger than the large transfer threshold of the test configuration
+            byte[] content = new byte[200 * 1024];
+            new Random(1).nextBytes(content);
+            Files.createDirectories(folder);
+            Files.write(file, content);
+
+            String url = urls.path(RECORDS_FILES, RECORDS_FILES_AUDIO).params(PI, MIMETYPE, file.getFileName().toString()).build();
+            try (Response response = target(url).request().get()) {
+                assertEquals(200, response.getStatus(), "Should return status 200");
+                assertArrayEquals(content, response.readEntity(byte[].class));
+            }
+        } finally {
+            if (folderExisted) {
+                Files.deleteIfExists(file);
+            } else {
+                FileUtils.deleteQuietly(folder.toFile());
+            }
+        }
+    }
+
     @Test
     void testLoadAudioIllegalRange() {
         String url = urls.path(RECORDS_FILES, RECORDS_FILES_AUDIO).params(PI, MIMETYPE, FILENAME + ".mp3").build();
@@ -23,9 +23,11 @@ package io.goobi.viewer.api.rest.v1.search;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.UUID;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -35,6 +37,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import io.goobi.viewer.AbstractDatabaseEnabledTest;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
 
 class SearchResultResourceTest extends AbstractDatabaseEnabledTest {
 
@@ -58,4 +61,35 @@ class SearchResultResourceTest extends AbstractDatabaseEnabledTest {
         Response response = resource.getRISAsFile("PI:AC13451894", "", "", 0);
         Assertions.assertEquals(Status.OK.getStatusCode(), response.getStatus());
     }
-}
\ No newline at end of file
+
+    /**
+     * @see SearchResultResource#exportSearch(String,String,String,String)
+     * @verifies return forbidden if request has no session
+     */
+    @Test
+    void exportSearch_shouldReturnForbiddenIfRequestHasNoSession() throws Exception {
+        Mockito.when(servletRequest.getSession(false)).thenReturn(null);
+        SearchResultResource resource = new SearchResultResource(this.servletRequest, this.servletResponse);
+        Response response = resource.exportSearch("PI:*", null, null, "csv");
+        Assertions.assertEquals(Status.FORBIDDEN.getStatusCode(), response.getStatus());
+    }
+
+    /**
+     * @see SearchResultResource#exportSearch(String,String,String,String)
+     * @verifies return too many requests if session already runs an export
+     */
+    @Test
+    void exportSearch_shouldReturnTooManyRequestsIfSessionAlreadyRunsAnExport() throws Exception {
+        HttpSession session = Mockito.mock(HttpSession.class);
+        Mockito.when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        Mockito.when(servletRequest.getSession()).thenReturn(session);
+        Mockito.when(servletRequest.getSession(false)).thenReturn(session);
+        SearchResultResource resource = new SearchResultResource(this.servletRequest, this.servletResponse);
+
+        // The first export is not streamed yet and therefore still running
+        Response response = resource.exportSearch("PI:*", null, null, "csv");
+        Assertions.assertEquals(Status.OK.getStatusCode(), response.getStatus());
+        response = resource.exportSearch("PI:*", null, null, "jsonl");
+        Assertions.assertEquals(TooManyRequestsException.SC_TOO_MANY_REQUESTS, response.getStatus());
+    }
+}
@@ -219,7 +219,7 @@ class ALTOToolsTest extends AbstractTest {
     void getFullText_shouldExtractFulltextCorrectly() throws Exception {
         File file = new File("src/test/resources/data/viewer/data/1/alto/00000010.xml");
         Assertions.assertTrue(file.isFile());
-        String text = ALTOTools.getFulltext(file.toPath(), StringTools.DEFAULT_ENCODING);
+        String text = ALTOTools.getFulltext(file.toPath());
         Assertions.assertNotNull(text);
         Assertions.assertTrue(text.length() > 100);
     }
@@ -232,7 +232,7 @@ class ALTOToolsTest extends AbstractTest {
     void getFullText_shouldAddUrisCorrectly() throws Exception {
         File file = new File("src/test/resources/data/viewer/data/1/alto/PPN648829383/00000014.xml");
         Assertions.assertTrue(file.isFile());
-        String text = ALTOTools.getFulltext(file.toPath(), StringTools.DEFAULT_ENCODING);
+        String text = ALTOTools.getFulltext(file.toPath());
         Assertions.assertNotNull(text);
         Assertions.assertTrue(text.contains("data-entity-authority-data-uri="));
     }
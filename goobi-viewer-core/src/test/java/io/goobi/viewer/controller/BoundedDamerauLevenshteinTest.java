@@ -0,0 +1,134 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedDamerauLevenshteinTest {
+
+    /**
+     * @see BoundedDamerauLevenshtein#matches(CharSequence,int,int)
+     * @verifies match words within max distance
+     */
+    @Test
+    void matches_shouldMatchWordsWithinMaxDistance() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("steigbugel", 1);
+        assertTrue(matcher.matches("steigbugel"));
+        assertTrue(matcher.matches("steigbügel"));
+        assertTrue(matcher.matches("steigbuegel"));
+        assertTrue(matcher.matches("steigbuge"));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#matches(CharSequence,int,int)
+     * @verifies not match words beyond max distance
+     */
+    @Test
+    void matches_shouldNotMatchWordsBeyondMaxDistance() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("steigbugel", 1);
+        assertFalse(matcher.matches("steigbügle"));
+        assertFalse(matcher.matches("steig"));
+        assertFalse(matcher.matches(""));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#matches(CharSequence,int,int)
+     * @verifies count transpositions as one edit
+     */
+    @Test
+    void matches_shouldCountTranspositionsAsOneEdit() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("steigbugel", 1);
+        assertTrue(matcher.matches("steigbugle"));
+        assertTrue(matcher.matches("tseigbugel"));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#matches(CharSequence,int,int)
+     * @verifies only compare given region
+     */
+    @Test
+    void matches_shouldOnlyCompareGivenRegion() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("dolor", 1);
+        String text = "lorem ipsum dolore sit";
+        assertTrue(matcher.matches(text, 12, 18));
+        assertFalse(matcher.matches(text, 6, 11));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#matchesSubstring(CharSequence,int,int)
+     * @verifies match pattern within longer text
+     */
+    @Test
+    void matchesSubstring_shouldMatchPatternWithinLongerText() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("bugel", 1);
+        assertTrue(matcher.matchesSubstring("steigbuglehalter", 0, 16));
+        assertTrue(matcher.matchesSubstring("bugel", 0, 5));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#matchesSubstring(CharSequence,int,int)
+     * @verifies not match if no substring is within max distance
+     */
+    @Test
+    void matchesSubstring_shouldNotMatchIfNoSubstringIsWithinMaxDistance() throws Exception {
+        BoundedDamerauLevenshtein matcher = new BoundedDamerauLevenshtein("bugel", 1);
+        assertFalse(matcher.matchesSubstring("steigbaglehalter", 0, 16));
+        assertFalse(matcher.matchesSubstring("steigbugelhalter", 0, 7));
+    }
+
+    /**
+     * @see BoundedDamerauLevenshtein#distance(CharSequence,int,int)
+     * @verifies return same distance as DamerauLevenshtein
+     */
+    @Test
+    void distance_shouldReturnSameDistanceAsDamerauLevenshtein() throws Exception {
+        Random random = new Random(42);
+        String alphabet = "abcdeäſ";
+        for (int i = 0; i < 5000; ++i) {
+            // Include patterns longer than 64 characters to cover the fallback
+            String pattern = randomString(random, alphabet, i % 50 == 0 ? 70 : 8);
+            String text = randomString(random, alphabet, i % 50 == 0 ? 75 : 10);
+            if (pattern.isEmpty() || text.isEmpty()) {
+                continue;
+            }
+            int maxDistance = random.nextInt(4);
+            int expected = Math.min(new DamerauLevenshtein(text, pattern).getSimilarity(), maxDistance + 1);
+            assertEquals(expected, new BoundedDamerauLevenshtein(pattern, maxDistance).distance(text, 0, text.length()),
+                    pattern + " / " + text);
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -1380,6 +1381,62 @@ class ConfigurationTest extends AbstractTest {
         assertTrue(DataManager.getInstance().getConfiguration().isSolrBackwardsCompatible());
     }
 
+    /**
+     * @see Configuration#getSolrReplicaUrls()
+     * @verifies return all configured elements
+     */
+    @Test
+    void getSolrReplicaUrls_shouldReturnAllConfiguredElements() throws Exception {
+        List<String> result = DataManager.getInstance().getConfiguration().getSolrReplicaUrls();
+        assertEquals(1, result.size());
+        assertEquals("https://viewer-testing-index.goobi.io/solr/collection1", result.get(0));
+    }
+
+    /**
+     * @see Configuration#getSolrReplicaHealthCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrReplicaHealthCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getSolrReplicaHealthCheckInterval());
+    }
+
+    /**
+     * @see Configuration#getSolrReplicaFailureBackoff()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrReplicaFailureBackoff_shouldReturnCorrectValue() throws Exception {
+        assertEquals(20, DataManager.getInstance().getConfiguration().getSolrReplicaFailureBackoff());
+    }
+
+    /**
+     * @see Configuration#getSolrReplicaSlowThreshold()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrReplicaSlowThreshold_shouldReturnCorrectValue() throws Exception {
+        assertEquals(1000, DataManager.getInstance().getConfiguration().getSolrReplicaSlowThreshold());
+    }
+
+    /**
+     * @see Configuration#getSolrReplicaHedgePercentile()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrReplicaHedgePercentile_shouldReturnCorrectValue() throws Exception {
+        assertEquals(95f, DataManager.getInstance().getConfiguration().getSolrReplicaHedgePercentile());
+    }
+
+    /**
+     * @see Configuration#getSolrReplicaHedgePoolSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getSolrReplicaHedgePoolSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(8, DataManager.getInstance().getConfiguration().getSolrReplicaHedgePoolSize());
+    }
+
     /**
      * @see Configuration#isSidebarFulltextLinkVisible()
      * @verifies return correct value
@@ -3610,4 +3667,407 @@ class ConfigurationTest extends AbstractTest {
     void getArchivesLazyLoadingThreshold_shouldReturnCorrectValue() throws Exception {
         assertEquals(100, DataManager.getInstance().getConfiguration().getArchivesLazyLoadingThreshold());
     }
+
+    /**
+     * @see Configuration#getAltoCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getAltoCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(32, DataManager.getInstance().getConfiguration().getAltoCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getNerIndexMaxRecords()
+     * @verifies return correct value
+     */
+    @Test
+    void getNerIndexMaxRecords_shouldReturnCorrectValue() throws Exception {
+        assertEquals(10, DataManager.getInstance().getConfiguration().getNerIndexMaxRecords());
+    }
+
+    /**
+     * @see Configuration#getNerIndexTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getNerIndexTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(600, DataManager.getInstance().getConfiguration().getNerIndexTtl());
+    }
+
+    /**
+     * @see Configuration#getSearchExportBatchSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getSearchExportBatchSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(200, DataManager.getInstance().getConfiguration().getSearchExportBatchSize());
+    }
+
+    /**
+     * @see Configuration#getSearchExportMaxHits()
+     * @verifies return correct value
+     */
+    @Test
+    void getSearchExportMaxHits_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5000, DataManager.getInstance().getConfiguration().getSearchExportMaxHits());
+    }
+
+    /**
+     * @see Configuration#getRecordLocationCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getRecordLocationCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5000, DataManager.getInstance().getConfiguration().getRecordLocationCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getRecordLocationCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getRecordLocationCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(1800, DataManager.getInstance().getConfiguration().getRecordLocationCacheTtl());
+    }
+
+    /**
+     * @see Configuration#getRecordLocationCacheNotFoundTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getRecordLocationCacheNotFoundTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(30, DataManager.getInstance().getConfiguration().getRecordLocationCacheNotFoundTtl());
+    }
+
+    /**
+     * @see Configuration#getFolderListingCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getFolderListingCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(500, DataManager.getInstance().getConfiguration().getFolderListingCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getFolderListingCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getFolderListingCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(10, DataManager.getInstance().getConfiguration().getFolderListingCacheTtl());
+    }
+
+    /**
+     * @see Configuration#getTocCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getTocCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(200, DataManager.getInstance().getConfiguration().getTocCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getTocCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getTocCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(120, DataManager.getInstance().getConfiguration().getTocCacheTtl());
+    }
+
+    /**
+     * @see Configuration#getAnnotationCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getAnnotationCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(100, DataManager.getInstance().getConfiguration().getAnnotationCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getAnnotationCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getAnnotationCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(30, DataManager.getInstance().getConfiguration().getAnnotationCacheTtl());
+    }
+
+    /**
+     * @see Configuration#isUsageStatisticsRollupsEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isUsageStatisticsRollupsEnabled_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isUsageStatisticsRollupsEnabled());
+    }
+
+    /**
+     * @see Configuration#isCmsFragmentCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isCmsFragmentCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isCmsFragmentCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getCmsFragmentCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getCmsFragmentCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(50, DataManager.getInstance().getConfiguration().getCmsFragmentCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getCmsFragmentCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getCmsFragmentCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(60, DataManager.getInstance().getConfiguration().getCmsFragmentCacheTtl());
+    }
+
+    /**
+     * @see Configuration#getCmsFragmentCacheContentTypeTtls()
+     * @verifies return all configured elements
+     */
+    @Test
+    void getCmsFragmentCacheContentTypeTtls_shouldReturnAllConfiguredElements() throws Exception {
+        Map<String, Integer> result = DataManager.getInstance().getConfiguration().getCmsFragmentCacheContentTypeTtls();
+        assertEquals(2, result.size());
+        assertEquals(30, result.get("CMSRecordListContent"));
+        assertEquals(0, result.get("CMSGeomapContent"));
+    }
+
+    /**
+     * @see Configuration#isQueryTelemetryEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isQueryTelemetryEnabled_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isQueryTelemetryEnabled());
+    }
+
+    /**
+     * @see Configuration#getQueryTelemetrySlowQueryThreshold()
+     * @verifies return correct value
+     */
+    @Test
+    void getQueryTelemetrySlowQueryThreshold_shouldReturnCorrectValue() throws Exception {
+        assertEquals(500, DataManager.getInstance().getConfiguration().getQueryTelemetrySlowQueryThreshold());
+    }
+
+    /**
+     * @see Configuration#getQueryTelemetrySlowQueryLogSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getQueryTelemetrySlowQueryLogSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(50, DataManager.getInstance().getConfiguration().getQueryTelemetrySlowQueryLogSize());
+    }
+
+    /**
+     * @see Configuration#isSolrRequestMemoEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isSolrRequestMemoEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isSolrRequestMemoEnabled());
+    }
+
+    /**
+     * @see Configuration#getCitationProcessorPoolMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getCitationProcessorPoolMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(2, DataManager.getInstance().getConfiguration().getCitationProcessorPoolMaxSize());
+    }
+
+    /**
+     * @see Configuration#isCitationProcessorWarmUpEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isCitationProcessorWarmUpEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isCitationProcessorWarmUpEnabled());
+    }
+
+    /**
+     * @see Configuration#isRssFeedCacheEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isRssFeedCacheEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isRssFeedCacheEnabled());
+    }
+
+    /**
+     * @see Configuration#getRssFeedCacheMaxSize()
+     * @verifies return correct value
+     */
+    @Test
+    void getRssFeedCacheMaxSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(20, DataManager.getInstance().getConfiguration().getRssFeedCacheMaxSize());
+    }
+
+    /**
+     * @see Configuration#getRssFeedCacheTtl()
+     * @verifies return correct value
+     */
+    @Test
+    void getRssFeedCacheTtl_shouldReturnCorrectValue() throws Exception {
+        assertEquals(60, DataManager.getInstance().getConfiguration().getRssFeedCacheTtl());
+    }
+
+    /**
+     * @see Configuration#getRssFeedCacheIndexCheckInterval()
+     * @verifies return correct value
+     */
+    @Test
+    void getRssFeedCacheIndexCheckInterval_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getRssFeedCacheIndexCheckInterval());
+    }
+
+    /**
+     * @see Configuration#getThreadPoolSize(String)
+     * @verifies return correct value
+     */
+    @Test
+    void getThreadPoolSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(4, DataManager.getInstance().getConfiguration().getThreadPoolSize(ThreadPoolManager.POOL_IO));
+        assertEquals(2, DataManager.getInstance().getConfiguration().getThreadPoolSize(ThreadPoolManager.POOL_CPU));
+        assertEquals(1, DataManager.getInstance().getConfiguration().getThreadPoolSize(ThreadPoolManager.POOL_AUTH));
+    }
+
+    /**
+     * @see Configuration#getThreadPoolQueueSize(String)
+     * @verifies return correct value
+     */
+    @Test
+    void getThreadPoolQueueSize_shouldReturnCorrectValue() throws Exception {
+        assertEquals(100, DataManager.getInstance().getConfiguration().getThreadPoolQueueSize(ThreadPoolManager.POOL_IO));
+        assertEquals(50, DataManager.getInstance().getConfiguration().getThreadPoolQueueSize(ThreadPoolManager.POOL_CPU));
+        assertEquals(10, DataManager.getInstance().getConfiguration().getThreadPoolQueueSize(ThreadPoolManager.POOL_AUTH));
+    }
+
+    /**
+     * @see Configuration#getThreadPoolRejectionPolicy(String)
+     * @verifies return correct value
+     */
+    @Test
+    void getThreadPoolRejectionPolicy_shouldReturnCorrectValue() throws Exception {
+        assertEquals("abort", DataManager.getInstance().getConfiguration().getThreadPoolRejectionPolicy(ThreadPoolManager.POOL_IO));
+    }
+
+    /**
+     * @see Configuration#getThreadPoolRejectionPolicy(String)
+     * @verifies return callerRuns if not configured
+     */
+    @Test
+    void getThreadPoolRejectionPolicy_shouldReturnCallerRunsIfNotConfigured() throws Exception {
+        assertEquals("callerRuns", DataManager.getInstance().getConfiguration().getThreadPoolRejectionPolicy(ThreadPoolManager.POOL_CPU));
+    }
+
+    /**
+     * @see Configuration#getPasswordVerificationMaxPendingPerClient()
+     * @verifies return correct value
+     */
+    @Test
+    void getPasswordVerificationMaxPendingPerClient_shouldReturnCorrectValue() throws Exception {
+        assertEquals(3, DataManager.getInstance().getConfiguration().getPasswordVerificationMaxPendingPerClient());
+    }
+
+    /**
+     * @see Configuration#getPasswordVerificationTimeout()
+     * @verifies return correct value
+     */
+    @Test
+    void getPasswordVerificationTimeout_shouldReturnCorrectValue() throws Exception {
+        assertEquals(2000, DataManager.getInstance().getConfiguration().getPasswordVerificationTimeout());
+    }
+
+    /**
+     * @see Configuration#getMediaDeliveryMaxConcurrentTransfers()
+     * @verifies return correct value
+     */
+    @Test
+    void getMediaDeliveryMaxConcurrentTransfers_shouldReturnCorrectValue() throws Exception {
+        assertEquals(5, DataManager.getInstance().getConfiguration().getMediaDeliveryMaxConcurrentTransfers());
+    }
+
+    /**
+     * @see Configuration#getMediaDeliveryLargeTransferThreshold()
+     * @verifies return correct value
+     */
+    @Test
+    void getMediaDeliveryLargeTransferThreshold_shouldReturnCorrectValue() throws Exception {
+        assertEquals(65536, DataManager.getInstance().getConfiguration().getMediaDeliveryLargeTransferThreshold());
+    }
+
+    /**
+     * @see Configuration#isMediaDeliverySendfileEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isMediaDeliverySendfileEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isMediaDeliverySendfileEnabled());
+    }
+
+    /**
+     * @see Configuration#getMediaDeliveryStallTimeout()
+     * @verifies return correct value
+     */
+    @Test
+    void getMediaDeliveryStallTimeout_shouldReturnCorrectValue() throws Exception {
+        assertEquals(30, DataManager.getInstance().getConfiguration().getMediaDeliveryStallTimeout());
+    }
+
+    /**
+     * @see Configuration#isThumbnailStoreEnabled()
+     * @verifies return correct value
+     */
+    @Test
+    void isThumbnailStoreEnabled_shouldReturnCorrectValue() throws Exception {
+        assertFalse(DataManager.getInstance().getConfiguration().isThumbnailStoreEnabled());
+    }
+
+    /**
+     * @see Configuration#getThumbnailStoreFolder()
+     * @verifies return correct value
+     */
+    @Test
+    void getThumbnailStoreFolder_shouldReturnCorrectValue() throws Exception {
+        assertEquals("target/thumbnails", DataManager.getInstance().getConfiguration().getThumbnailStoreFolder());
+    }
+
+    /**
+     * @see Configuration#getThumbnailStoreSizes()
+     * @verifies return correct value
+     */
+    @Test
+    void getThumbnailStoreSizes_shouldReturnCorrectValue() throws Exception {
+        assertEquals(Arrays.asList("!100,120", "!200,240"), DataManager.getInstance().getConfiguration().getThumbnailStoreSizes());
+    }
+
+    /**
+     * @see Configuration#getThumbnailStoreQuality()
+     * @verifies return correct value
+     */
+    @Test
+    void getThumbnailStoreQuality_shouldReturnCorrectValue() throws Exception {
+        assertEquals(80, DataManager.getInstance().getConfiguration().getThumbnailStoreQuality());
+    }
+
+    /**
+     * @see Configuration#isThumbnailStorePrecomputeOnIndex()
+     * @verifies return correct value
+     */
+    @Test
+    void isThumbnailStorePrecomputeOnIndex_shouldReturnCorrectValue() throws Exception {
+        assertTrue(DataManager.getInstance().getConfiguration().isThumbnailStorePrecomputeOnIndex());
+    }
 }
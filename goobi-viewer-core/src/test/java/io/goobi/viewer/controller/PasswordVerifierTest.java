@@ -0,0 +1,283 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.controller.ThreadPoolManager.PoolSettings;
+import io.goobi.viewer.controller.ThreadPoolManager.RejectionPolicy;
+import io.goobi.viewer.exceptions.TooManyRequestsException;
+
+class PasswordVerifierTest {
+
+    private static final String POOL = "auth";
+    private static final String SALT = BCrypt.gensalt(4);
+
+    private ThreadPoolManager threadPoolManager;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (threadPoolManager != null) {
+            threadPoolManager.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    private PasswordVerifier createVerifier(int threads, int queueSize, int maxPendingPerClient, long timeout) {
+        threadPoolManager = new ThreadPoolManager(POOL, new PoolSettings(POOL, threads, queueSize, RejectionPolicy.CALLER_RUNS));
+        return new PasswordVerifier(threadPoolManager, POOL, maxPendingPerClient, timeout, Duration.ofMinutes(1));
+    }
+
+    /**
+     * @return {@link BCrypt} whose checks block until {@link #release} is counted down
+     */
+    private BCrypt blockingBCrypt(CountDownLatch started) {
+        return new BCrypt() {
+            @Override
+            public boolean checkpw(String plaintext, String hashed) {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @see PasswordVerifier#checkPassword(BCrypt,String,String,String[])
+     * @verifies return check result
+     */
+    @Test
+    void checkPassword_shouldReturnCheckResult() throws Exception {
+        PasswordVerifier verifier = createVerifier(1, 1, 1, 5000);
+        String hash = BCrypt.hashpw("secret", SALT);
+        assertTrue(verifier.checkPassword(new BCrypt(), "secret", hash, PasswordVerifier.ipKey("1.2.3.4")));
+        assertFalse(verifier.checkPassword(new BCrypt(), "wrong", hash, PasswordVerifier.ipKey("1.2.3.4")));
+        assertEquals(0, verifier.getRefusedCount());
+    }
+
+    /**
+     * @see PasswordVerifier#checkPassword(BCrypt,String,String,String[])
+     * @verifies refuse client with too many pending verifications
+     */
+    @Test
+    void checkPassword_shouldRefuseClientWithTooManyPendingVerifications() throws Exception {
+        PasswordVerifier verifier = createVerifier(2, 2, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService requests = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> pending = requests.submit(() -> verifier.checkPassword(blockingBCrypt(started), "secret", "hash",
+                    PasswordVerifier.ipKey("1.2.3.4"), PasswordVerifier.accountKey("foo@example.com")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Same account from another address
+            TooManyRequestsException e = assertThrows(TooManyRequestsException.class, () -> verifier.checkPassword(new BCrypt(), "secret",
+                    BCrypt.hashpw("secret", SALT), PasswordVerifier.ipKey("5.6.7.8"), PasswordVerifier.accountKey("foo@example.com")));
+            assertEquals(429, e.getCode());
+            assertEquals(1, verifier.getRefusedCount());
+
+            // Other clients are not affected
+            assertTrue(verifier.checkPassword(new BCrypt(), "secret", BCrypt.hashpw("secret", SALT), PasswordVerifier.ipKey("5.6.7.8"),
+                    PasswordVerifier.accountKey("bar@example.com")));
+
+            release.countDown();
+            assertTrue(pending.get(5, TimeUnit.SECONDS));
+            // Keys are released after the check
+            assertTrue(verifier.checkPassword(new BCrypt(), "secret", BCrypt.hashpw("secret", SALT), PasswordVerifier.ipKey("5.6.7.8"),
+                    PasswordVerifier.accountKey("foo@example.com")));
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    /**
+     * @see PasswordVerifier#checkPassword(BCrypt,String,String,String[])
+     * @verifies refuse if pool saturated
+     */
+    @Test
+    void checkPassword_shouldRefuseIfPoolSaturated() throws Exception {
+        PasswordVerifier verifier = createVerifier(1, 1, 10, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        try {
+            requests.submit(() -> verifier.checkPassword(blockingBCrypt(started), "a", "hash", PasswordVerifier.ipKey("1.1.1.1")));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            requests.submit(() -> verifier.checkPassword(new BCrypt(), "b", BCrypt.hashpw("b", SALT), PasswordVerifier.ipKey("2.2.2.2")));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (threadPoolManager.getStatistics().get(0).getQueueDepth() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // The check must neither run on this thread nor wait
+            assertThrows(TooManyRequestsException.class,
+                    () -> verifier.checkPassword(new BCrypt(), "c", BCrypt.hashpw("c", SALT), PasswordVerifier.ipKey("3.3.3.3")));
+        } finally {
+            release.countDown();
+            requests.shutdown();
+        }
+    }
+
+    /**
+     * @see PasswordVerifier#checkPassword(BCrypt,String,String,String[])
+     * @verifies release client keys after timeout
+     */
+    @Test
+    void checkPassword_shouldReleaseClientKeysAfterTimeout() throws Exception {
+        PasswordVerifier verifier = createVerifier(1, 1, 1, 100);
+        CountDownLatch started = new CountDownLatch(1);
+        assertThrows(TooManyRequestsException.class,
+                () -> verifier.checkPassword(blockingBCrypt(started), "a", "hash", PasswordVerifier.ipKey("1.1.1.1")));
+        // Still running, so the key is still taken
+        assertThrows(TooManyRequestsException.class,
+                () -> verifier.checkPassword(new BCrypt(), "a", BCrypt.hashpw("a", SALT), PasswordVerifier.ipKey("1.1.1.1")));
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (threadPoolManager.getStatistics().get(0).getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(verifier.checkPassword(new BCrypt(), "a", BCrypt.hashpw("a", SALT), PasswordVerifier.ipKey("1.1.1.1")));
+    }
+
+    /**
+     * @see PasswordVerifier#hashPassword(String,String,String[])
+     * @verifies return remembered hash without hashing
+     */
+    @Test
+    void hashPassword_shouldReturnRememberedHashWithoutHashing() throws Exception {
+        PasswordVerifier verifier = createVerifier(1, 1, 1, 5000);
+        String hash = verifier.hashPassword("secret", SALT, PasswordVerifier.ipKey("1.1.1.1"));
+        assertEquals(BCrypt.hashpw("secret", SALT), hash);
+
+        verifier.addVerifiedHash("secret", SALT, "remembered");
+        assertEquals("remembered", verifier.hashPassword("secret", SALT, PasswordVerifier.ipKey("1.1.1.1")));
+        // Other passwords and salts are still hashed
+        assertEquals(BCrypt.hashpw("other", SALT), verifier.hashPassword("other", SALT, PasswordVerifier.ipKey("1.1.1.1")));
+    }
+
+    /**
+     * Floods the verifier with login attempts from many request threads while other request threads render "pages" and checks that the
+     * number of concurrent hashes stays bounded, that surplus attempts are refused quickly instead of pinning their threads and that page
+     * requests stay responsive.
+     */
+    @Test
+    void checkPassword_shouldKeepPageRequestsResponsiveDuringLoginFlood() throws Exception {
+        final int loginThreads = 32;
+        final long timeout = 2000;
+        PasswordVerifier verifier = createVerifier(1, 4, 2, timeout);
+        String salt = BCrypt.gensalt(8);
+        String hash = BCrypt.hashpw("secret", salt);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BCrypt countingBCrypt = new BCrypt() {
+            @Override
+            public boolean checkpw(String plaintext, String hashed) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return super.checkpw(plaintext, hashed);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+
+        ExecutorService loginRequests = Executors.newFixedThreadPool(loginThreads);
+        ExecutorService pageRequests = Executors.newFixedThreadPool(2);
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicLong slowestLogin = new AtomicLong();
+        try {
+            List<Future<?>> logins = new ArrayList<>(loginThreads);
+            for (int i = 0; i < loginThreads; ++i) {
+                String ip = PasswordVerifier.ipKey("10.0.0." + (i % 8));
+                logins.add(loginRequests.submit(() -> {
+                    while (flooding.get()) {
+                        long start = System.nanoTime();
+                        try {
+                            verifier.checkPassword(countingBCrypt, "wrong", hash, ip);
+                            accepted.incrementAndGet();
+                        } catch (TooManyRequestsException e) {
+                            refused.incrementAndGet();
+                        }
+                        slowestLogin.accumulateAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math::max);
+                    }
+                    return null;
+                }));
+            }
+
+            long slowestPage = 0;
+            for (int i = 0; i < 50; ++i) {
+                long start = System.nanoTime();
+                pageRequests.submit(() -> {
+                    // Stand-in for rendering a page
+                    StringBuilder sb = new StringBuilder();
+                    for (int j = 0; j < 1000; ++j) {
+                        sb.append(j);
+                    }
+                    return sb.length();
+                }).get(5, TimeUnit.SECONDS);
+                slowestPage = Math.max(slowestPage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                Thread.sleep(10);
+            }
+
+            flooding.set(false);
+            for (Future<?> login : logins) {
+                login.get(30, TimeUnit.SECONDS);
+            }
+
+            assertEquals(1, maxRunning.get());
+            assertTrue(accepted.get() > 0);
+            assertTrue(refused.get() > accepted.get());
+            assertEquals(refused.get(), verifier.getRefusedCount());
+            // No login request waits for longer than the timeout plus one hash
+            assertTrue(slowestLogin.get() < timeout + 1000, "Slowest login took " + slowestLogin.get() + " ms");
+            assertTrue(slowestPage < 500, "Slowest page took " + slowestPage + " ms");
+        } finally {
+            flooding.set(false);
+            loginRequests.shutdownNow();
+            pageRequests.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
+
+class RecordLocationResolverTest {
+
+    /**
+     * @see RecordLocationResolver#getDataRepositoryName(String)
+     * @verifies return cached value if available
+     */
+    @Test
+    void getDataRepositoryName_shouldReturnCachedValueIfAvailable() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        RecordLocationResolver resolver = new RecordLocationResolver(searchIndex, 10, 60000, 60000, 10, 60000);
+        resolver.update("PPN123", "repo1");
+        Assertions.assertEquals("repo1", resolver.getDataRepositoryName("PPN123"));
+        Mockito.verifyNoInteractions(searchIndex);
+    }
+
+    /**
+     * @see RecordLocationResolver#getDataRepositoryName(String)
+     * @verifies query index again once value expired
+     */
+    @Test
+    void getDataRepositoryName_shouldQueryIndexAgainOnceValueExpired() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        Mockito.when(searchIndex.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.anyList()))
+                .thenReturn(new SolrDocumentList());
+        // Negative TTL expires values immediately
+        RecordLocationResolver resolver = new RecordLocationResolver(searchIndex, 10, -1, 60000, 10, 60000);
+        resolver.update("PPN123", "repo1");
+        Assertions.assertNull(resolver.getDataRepositoryName("PPN123"));
+        Mockito.verify(searchIndex, Mockito.times(1))
+                .search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.anyList());
+    }
+
+    @Test
+    void prefetch_shouldResolveAllIdentifiersInOneQueryAndRememberMissingOnes() throws Exception {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.PI, "PPN123");
+        doc.setField(SolrConstants.DATAREPOSITORY, "repo1");
+        SolrDocumentList docs = new SolrDocumentList();
+        docs.add(doc);
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        Mockito.when(searchIndex.search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.anyList()))
+                .thenReturn(docs);
+
+        RecordLocationResolver resolver = new RecordLocationResolver(searchIndex, 10, 60000, 60000, 10, 60000);
+        resolver.prefetch(Arrays.asList("PPN123", "PPN456"));
+        Assertions.assertEquals("repo1", resolver.getDataRepositoryName("PPN123"));
+        Assertions.assertNull(resolver.getDataRepositoryName("PPN456"));
+        Mockito.verify(searchIndex, Mockito.times(1))
+                .search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt(), ArgumentMatchers.any(), ArgumentMatchers.anyList());
+    }
+
+    /**
+     * @see RecordLocationResolver#buildQuery(java.util.Collection)
+     * @verifies build query correctly
+     */
+    @Test
+    void buildQuery_shouldBuildQueryCorrectly() throws Exception {
+        Assertions.assertEquals("PI:(\"PPN123\" \"PPN456\")", RecordLocationResolver.buildQuery(Arrays.asList("PPN123", "PPN456")));
+    }
+
+    /**
+     * @see RecordLocationResolver#update(String,String)
+     * @verifies update value correctly
+     */
+    @Test
+    void update_shouldUpdateValueCorrectly() throws Exception {
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        resolver.update("PPN123", "repo1");
+        resolver.update("PPN123", "repo2");
+        Assertions.assertEquals("repo2", resolver.getCachedDataRepositoryName("PPN123"));
+    }
+
+    /**
+     * @see RecordLocationResolver#update(String,String)
+     * @verifies discard folder listings of record
+     */
+    @Test
+    void update_shouldDiscardFolderListingsOfRecord(@TempDir Path tempDir) throws Exception {
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        Assertions.assertTrue(resolver.listFiles("PPN123", tempDir).isEmpty());
+        Files.createFile(tempDir.resolve("00000001.xml"));
+        resolver.update("PPN123", "repo1");
+        Assertions.assertEquals(1, resolver.listFiles("PPN123", tempDir).size());
+    }
+
+    /**
+     * @see RecordLocationResolver#listFiles(String,Path)
+     * @verifies return sorted files
+     */
+    @Test
+    void listFiles_shouldReturnSortedFiles(@TempDir Path tempDir) throws Exception {
+        Files.createFile(tempDir.resolve("00000002.xml"));
+        Files.createFile(tempDir.resolve("00000001.xml"));
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        List<Path> files = resolver.listFiles("PPN123", tempDir);
+        Assertions.assertEquals(2, files.size());
+        Assertions.assertEquals("00000001.xml", files.get(0).getFileName().toString());
+        Assertions.assertEquals("00000002.xml", files.get(1).getFileName().toString());
+    }
+
+    /**
+     * @see RecordLocationResolver#listFiles(String,Path)
+     * @verifies return empty list if folder does not exist
+     */
+    @Test
+    void listFiles_shouldReturnEmptyListIfFolderDoesNotExist(@TempDir Path tempDir) throws Exception {
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        Assertions.assertEquals(Collections.emptyList(), resolver.listFiles("PPN123", tempDir.resolve("notfound")));
+    }
+
+    /**
+     * @see RecordLocationResolver#listFiles(String,Path)
+     * @verifies return cached listing within ttl
+     */
+    @Test
+    void listFiles_shouldReturnCachedListingWithinTtl(@TempDir Path tempDir) throws Exception {
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        Assertions.assertTrue(resolver.listFiles("PPN123", tempDir).isEmpty());
+        Files.createFile(tempDir.resolve("00000001.xml"));
+        Assertions.assertTrue(resolver.listFiles("PPN123", tempDir).isEmpty());
+
+        // Negative TTL always reads the folder
+        resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, -1);
+        Assertions.assertEquals(1, resolver.listFiles("PPN123", tempDir).size());
+    }
+
+    /**
+     * @see RecordLocationResolver#isFile(String,Path)
+     * @verifies return true if file exists
+     */
+    @Test
+    void isFile_shouldReturnTrueIfFileExists(@TempDir Path tempDir) throws Exception {
+        Path file = Files.createFile(tempDir.resolve("00000001.xml"));
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        Assertions.assertTrue(resolver.isFile("PPN123", file));
+    }
+
+    /**
+     * @see RecordLocationResolver#isFile(String,Path)
+     * @verifies return false if file does not exist
+     */
+    @Test
+    void isFile_shouldReturnFalseIfFileDoesNotExist(@TempDir Path tempDir) throws Exception {
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        Assertions.assertFalse(resolver.isFile("PPN123", tempDir.resolve("00000001.xml")));
+        Assertions.assertFalse(resolver.isFile("PPN123", tempDir.resolve("notfound").resolve("00000001.xml")));
+    }
+
+    /**
+     * @see RecordLocationResolver#invalidateListings(String)
+     * @verifies remove listings of given record only
+     */
+    @Test
+    void invalidateListings_shouldRemoveListingsOfGivenRecordOnly(@TempDir Path tempDir) throws Exception {
+        Path folder1 = Files.createDirectory(tempDir.resolve("PPN123"));
+        Path folder2 = Files.createDirectory(tempDir.resolve("PPN456"));
+        RecordLocationResolver resolver = new RecordLocationResolver(null, 10, 60000, 60000, 10, 60000);
+        resolver.listFiles("PPN123", folder1);
+        resolver.listFiles("PPN456", folder2);
+        Files.createFile(folder1.resolve("00000001.xml"));
+        Files.createFile(folder2.resolve("00000001.xml"));
+
+        resolver.invalidateListings("PPN123");
+        Assertions.assertEquals(1, resolver.listFiles("PPN123", folder1).size());
+        Assertions.assertTrue(resolver.listFiles("PPN456", folder2).isEmpty());
+    }
+}
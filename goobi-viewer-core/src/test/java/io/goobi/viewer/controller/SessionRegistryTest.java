@@ -0,0 +1,209 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class SessionRegistryTest {
+
+    /**
+     * @see SessionRegistry#update(String,Consumer)
+     * @verifies register new session
+     */
+    @Test
+    void update_shouldRegisterNewSession() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        assertTrue(registry.update("s1", m -> m.put("address", "127.0.0.1")));
+        assertFalse(registry.update("s1", m -> m.put("address", "127.0.0.2")));
+        assertEquals(1, registry.size());
+        assertEquals(1, registry.getCreatedCount());
+        assertEquals("127.0.0.2", registry.get("s1").get("address"));
+    }
+
+    /**
+     * @see SessionRegistry#update(String,Consumer)
+     * @verifies not modify previous snapshot
+     */
+    @Test
+    void update_shouldNotModifyPreviousSnapshot() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        registry.update("s1", m -> m.put("last request", "1"));
+        Map<String, String> snapshot = registry.get("s1");
+        registry.update("s1", m -> m.put("last request", "2"));
+        assertEquals("1", snapshot.get("last request"));
+        assertEquals("2", registry.get("s1").get("last request"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("foo", "bar"));
+    }
+
+    /**
+     * @see SessionRegistry#update(String,Consumer)
+     * @verifies limit number of entries
+     */
+    @Test
+    void update_shouldLimitNumberOfEntries() throws Exception {
+        SessionRegistry registry = new SessionRegistry(3, 100);
+        registry.update("s1", m -> {
+            for (int i = 0; i < 10; ++i) {
+                m.put("key" + i, "value");
+            }
+        });
+        Map<String, String> metadata = registry.get("s1");
+        assertEquals(3, metadata.size());
+        assertTrue(metadata.containsKey("key0"));
+        assertTrue(metadata.containsKey("key2"));
+        assertFalse(metadata.containsKey("key3"));
+    }
+
+    /**
+     * @see SessionRegistry#update(String,Consumer)
+     * @verifies truncate long values
+     */
+    @Test
+    void update_shouldTruncateLongValues() throws Exception {
+        SessionRegistry registry = new SessionRegistry(3, 5);
+        registry.update("s1", m -> {
+            m.put("long", "1234567890");
+            m.put("null", null);
+        });
+        assertEquals("12345", registry.get("s1").get("long"));
+        assertTrue(registry.get("s1").containsKey("null"));
+    }
+
+    /**
+     * @see SessionRegistry#remove(String)
+     * @verifies remove session
+     */
+    @Test
+    void remove_shouldRemoveSession() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        registry.update("s1", m -> m.put("id", "s1"));
+        assertTrue(registry.remove("s1"));
+        assertNull(registry.get("s1"));
+        assertEquals(0, registry.size());
+        assertEquals(1, registry.getDestroyedCount());
+    }
+
+    /**
+     * @see SessionRegistry#remove(String)
+     * @verifies return false if session unknown
+     */
+    @Test
+    void remove_shouldReturnFalseIfSessionUnknown() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        assertFalse(registry.remove("s1"));
+        assertFalse(registry.remove(null));
+        assertEquals(0, registry.getDestroyedCount());
+    }
+
+    /**
+     * @see SessionRegistry#asMap()
+     * @verifies not allow modifications
+     */
+    @Test
+    void asMap_shouldNotAllowModifications() throws Exception {
+        SessionRegistry registry = new SessionRegistry();
+        registry.update("s1", m -> m.put("id", "s1"));
+        Map<String, Map<String, String>> view = registry.asMap();
+        assertThrows(UnsupportedOperationException.class, () -> view.remove("s1"));
+        assertThrows(UnsupportedOperationException.class, () -> view.get("s1").put("foo", "bar"));
+        // The view is live
+        registry.update("s2", m -> m.put("id", "s2"));
+        assertEquals(2, view.size());
+    }
+
+    /**
+     * Creates, updates and removes thousands of sessions from many threads at once and checks that no update or count is lost.
+     */
+    @Test
+    void update_shouldKeepConsistentStateUnderConcurrentAccess() throws Exception {
+        final int threads = 16;
+        final int sessionsPerThread = 500;
+        final int updatesPerSession = 10;
+        SessionRegistry registry = new SessionRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads * 2);
+            for (int t = 0; t < threads; ++t) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int s = 0; s < sessionsPerThread; ++s) {
+                        String id = thread + "-" + s;
+                        for (int u = 0; u < updatesPerSession; ++u) {
+                            registry.update(id, m -> m.merge("requests", "1", (a, b) -> String.valueOf(Integer.parseInt(a) + 1)));
+                            // Shared session updated by all threads
+                            registry.update("shared", m -> m.merge("requests", "1", (a, b) -> String.valueOf(Integer.parseInt(a) + 1)));
+                        }
+                        // Every other session ends
+                        if (s % 2 == 1) {
+                            assertTrue(registry.remove(id));
+                        }
+                    }
+                    return null;
+                }));
+                // Concurrent readers
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < sessionsPerThread; ++i) {
+                        for (Map<String, String> metadata : registry.asMap().values()) {
+                            assertNotNull(metadata.get("requests"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int remaining = threads * sessionsPerThread / 2;
+        assertEquals(remaining + 1, registry.size());
+        assertEquals(threads * sessionsPerThread + 1, registry.getCreatedCount());
+        assertEquals(remaining, registry.getDestroyedCount());
+        assertEquals(String.valueOf(threads * sessionsPerThread * updatesPerSession), registry.get("shared").get("requests"));
+        for (int t = 0; t < threads; ++t) {
+            assertEquals(String.valueOf(updatesPerSession), registry.get(t + "-0").get("requests"));
+            assertNull(registry.get(t + "-1"));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.controller.ThreadPoolManager.PoolSettings;
+import io.goobi.viewer.controller.ThreadPoolManager.RejectionPolicy;
+
+class ThreadPoolManagerTest {
+
+    private ThreadPoolManager manager;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (manager != null) {
+            manager.shutdown(Duration.ofSeconds(5));
+        }
+    }
+
+    /**
+     * Creates a manager with a single-threaded default pool with room for one queued task.
+     * 
+     * @param policy
+     */
+    private void createManager(RejectionPolicy policy) {
+        manager = new ThreadPoolManager("test", new PoolSettings("test", 1, 1, policy), new PoolSettings("other", 1, 1, policy));
+    }
+
+    /**
+     * Occupies the thread and the queue of the default pool until {@link #release} is counted down.
+     * 
+     * @return {@link Future} of the queued task
+     * @throws InterruptedException
+     */
+    private Future<?> saturate() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        manager.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return manager.execute(this::awaitRelease);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @see RejectionPolicy#getByName(String)
+     * @verifies return correct policy
+     */
+    @Test
+    void getByName_shouldReturnCorrectPolicy() throws Exception {
+        assertEquals(RejectionPolicy.ABORT, RejectionPolicy.getByName("abort"));
+        assertEquals(RejectionPolicy.DISCARD_OLDEST, RejectionPolicy.getByName("discardOldest"));
+    }
+
+    /**
+     * @see RejectionPolicy#getByName(String)
+     * @verifies return caller runs if name unknown
+     */
+    @Test
+    void getByName_shouldReturnCallerRunsIfNameUnknown() throws Exception {
+        assertEquals(RejectionPolicy.CALLER_RUNS, RejectionPolicy.getByName("foo"));
+        assertEquals(RejectionPolicy.CALLER_RUNS, RejectionPolicy.getByName(null));
+    }
+
+    /**
+     * @see ThreadPoolManager#execute(String,Callable)
+     * @verifies run task in named pool
+     */
+    @Test
+    void execute_shouldRunTaskInNamedPool() throws Exception {
+        createManager(RejectionPolicy.ABORT);
+        Future<String> future = manager.execute("other", () -> Thread.currentThread().getName());
+        assertEquals("viewer-other-1", future.get(5, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> manager.execute("unknown", () -> "foo"));
+    }
+
+    /**
+     * @see ThreadPoolManager#execute(Runnable)
+     * @verifies reject tasks if saturated and policy is abort
+     */
+    @Test
+    void execute_shouldRejectTasksIfSaturatedAndPolicyIsAbort() throws Exception {
+        createManager(RejectionPolicy.ABORT);
+        saturate();
+        assertThrows(RejectedExecutionException.class, () -> manager.execute(() -> {
+        }));
+
+        ThreadPoolStatistics stats = manager.getStatistics().get(0);
+        assertEquals("test", stats.getName());
+        assertEquals(1, stats.getActiveCount());
+        assertEquals(1, stats.getQueueDepth());
+        assertEquals(1, stats.getRejectedCount());
+    }
+
+    /**
+     * @see ThreadPoolManager#execute(Runnable)
+     * @verifies run task on caller thread if saturated and policy is caller runs
+     */
+    @Test
+    void execute_shouldRunTaskOnCallerThreadIfSaturatedAndPolicyIsCallerRuns() throws Exception {
+        createManager(RejectionPolicy.CALLER_RUNS);
+        saturate();
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        manager.execute(() -> thread.set(Thread.currentThread()));
+        assertEquals(Thread.currentThread(), thread.get());
+        assertEquals(1, manager.getStatistics().get(0).getRejectedCount());
+    }
+
+    /**
+     * @see ThreadPoolManager#execute(Runnable)
+     * @verifies drop task if saturated and policy is discard
+     */
+    @Test
+    void execute_shouldDropTaskIfSaturatedAndPolicyIsDiscard() throws Exception {
+        createManager(RejectionPolicy.DISCARD);
+        saturate();
+        AtomicBoolean ran = new AtomicBoolean();
+        Future<?> future = manager.execute(() -> ran.set(true));
+        assertTrue(future.isCancelled());
+        release.countDown();
+        assertTrue(manager.shutdown(Duration.ofSeconds(5)));
+        assertFalse(ran.get());
+        assertEquals(1, manager.getStatistics().get(0).getRejectedCount());
+    }
+
+    /**
+     * @see ThreadPoolManager#execute(Runnable)
+     * @verifies cancel dropped tasks if policy is discard oldest
+     */
+    @Test
+    void execute_shouldCancelDroppedTasksIfPolicyIsDiscardOldest() throws Exception {
+        createManager(RejectionPolicy.DISCARD_OLDEST);
+        Future<?> queued = saturate();
+        AtomicBoolean ran = new AtomicBoolean();
+        Future<?> future = manager.execute(() -> ran.set(true));
+        assertTrue(queued.isCancelled());
+        release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue(ran.get());
+    }
+
+    /**
+     * @see ThreadPoolManager#getExecutor(String)
+     * @verifies throw RejectedExecutionException instead of dropping task if saturated and policy is discard
+     */
+    @Test
+    void getExecutor_shouldThrowRejectedExecutionExceptionInsteadOfDroppingTaskIfSaturatedAndPolicyIsDiscard() throws Exception {
+        createManager(RejectionPolicy.DISCARD);
+        saturate();
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThrows(RejectedExecutionException.class, () -> manager.getExecutor("test").execute(() -> ran.set(true)));
+        assertFalse(ran.get());
+    }
+
+    /**
+     * @see ThreadPoolManager#executeInBackground(String,Runnable)
+     * @verifies throw RejectedExecutionException instead of running task on caller thread
+     */
+    @Test
+    void executeInBackground_shouldThrowRejectedExecutionExceptionInsteadOfRunningTaskOnCallerThread() throws Exception {
+        createManager(RejectionPolicy.CALLER_RUNS);
+        saturate();
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThrows(RejectedExecutionException.class, () -> manager.executeInBackground("test", () -> ran.set(true)));
+        assertFalse(ran.get());
+    }
+
+    /**
+     * @see ThreadPoolManager#getStatistics()
+     * @verifies return statistics for all pools
+     */
+    @Test
+    void getStatistics_shouldReturnStatisticsForAllPools() throws Exception {
+        createManager(RejectionPolicy.ABORT);
+        manager.execute("other", () -> "foo").get(5, TimeUnit.SECONDS);
+        List<ThreadPoolStatistics> stats = manager.getStatistics();
+        assertEquals(2, stats.size());
+        assertEquals("test", stats.get(0).getName());
+        assertEquals("other", stats.get(1).getName());
+        assertEquals("abort", stats.get(1).getRejectionPolicy());
+        assertEquals(1, stats.get(1).getMaxPoolSize());
+        assertEquals(1, stats.get(1).getQueueCapacity());
+        // The completed count is updated after the future has been completed
+        long deadline = System.currentTimeMillis() + 5000;
+        while (manager.getStatistics().get(1).getCompletedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, manager.getStatistics().get(1).getCompletedCount());
+    }
+
+    /**
+     * @see ThreadPoolManager#toPrometheusText()
+     * @verifies contain metrics for all pools
+     */
+    @Test
+    void toPrometheusText_shouldContainMetricsForAllPools() throws Exception {
+        createManager(RejectionPolicy.ABORT);
+        String text = manager.toPrometheusText();
+        assertTrue(text.contains("# TYPE viewer_threadpool_queue_depth gauge"));
+        assertTrue(text.contains("viewer_threadpool_queue_depth{pool=\"test\"} 0"));
+        assertTrue(text.contains("viewer_threadpool_rejected_total{pool=\"other\"} 0"));
+    }
+
+    /**
+     * @see ThreadPoolManager#shutdown(Duration)
+     * @verifies run queued tasks before terminating
+     */
+    @Test
+    void shutdown_shouldRunQueuedTasksBeforeTerminating() throws Exception {
+        manager = new ThreadPoolManager("test", new PoolSettings("test", 1, 10, RejectionPolicy.ABORT));
+        AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 10; ++i) {
+            manager.execute(() -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                count.incrementAndGet();
+            });
+        }
+        assertTrue(manager.shutdown(Duration.ofSeconds(5)));
+        assertEquals(10, count.get());
+    }
+
+    /**
+     * @see ThreadPoolManager#shutdown(Duration)
+     * @verifies interrupt tasks still running after timeout
+     */
+    @Test
+    void shutdown_shouldInterruptTasksStillRunningAfterTimeout() throws Exception {
+        createManager(RejectionPolicy.ABORT);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        manager.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(manager.shutdown(Duration.ofMillis(100)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!interrupted.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(interrupted.get());
+    }
+
+    /**
+     * @see ThreadPoolManager#shutdown(Duration)
+     * @verifies reject tasks submitted after shutdown
+     */
+    @Test
+    void shutdown_shouldRejectTasksSubmittedAfterShutdown() throws Exception {
+        createManager(RejectionPolicy.CALLER_RUNS);
+        assertTrue(manager.shutdown(Duration.ofSeconds(1)));
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThrows(RejectedExecutionException.class, () -> manager.execute(() -> ran.set(true)));
+        assertFalse(ran.get());
+        assertEquals(0, manager.getStatistics().get(0).getRejectedCount());
+    }
+}
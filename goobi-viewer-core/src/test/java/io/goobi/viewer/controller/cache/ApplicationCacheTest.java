@@ -0,0 +1,286 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.cache;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ApplicationCacheTest {
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies return cached value if not expired
+     */
+    @Test
+    void get_shouldReturnCachedValueIfNotExpired() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        cache.put("key", "cached");
+        Assertions.assertEquals("cached", cache.get("key", k -> "loaded"));
+        Assertions.assertEquals(1, cache.getStatistics().getHitCount());
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies load value if missing
+     */
+    @Test
+    void get_shouldLoadValueIfMissing() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        Assertions.assertEquals("loaded", cache.get("key", k -> "loaded"));
+        Assertions.assertEquals("loaded", cache.getIfPresent("key").orElse(null));
+        Assertions.assertEquals(1, cache.getStatistics().getLoadCount());
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies reload value if expired
+     */
+    @Test
+    void get_shouldReloadValueIfExpired() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        cache.put("key", "cached");
+        Thread.sleep(5);
+        Assertions.assertEquals("loaded", cache.get("key", Duration.ofMillis(1), k -> "loaded"));
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies load value only once for concurrent callers
+     */
+    @Test
+    void get_shouldLoadValueOnlyOnceForConcurrentCallers() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("key", k -> {
+                loadCount.incrementAndGet();
+                loaderStarted.countDown();
+                await(release);
+                return "loaded";
+            }));
+            Assertions.assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(() -> cache.get("key", k -> {
+                loadCount.incrementAndGet();
+                return "other";
+            }));
+            Thread.sleep(50);
+            release.countDown();
+            Assertions.assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("loaded", second.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, loadCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies return stale value while value is loaded by another thread
+     */
+    @Test
+    void get_shouldReturnStaleValueWhileValueIsLoadedByAnotherThread() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMillis(1), 0, null);
+        cache.put("key", "stale");
+        Thread.sleep(5);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loading = executor.submit(() -> cache.get("key", k -> {
+                loaderStarted.countDown();
+                await(release);
+                return "fresh";
+            }));
+            Assertions.assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals("stale", cache.get("key", k -> "other"));
+            release.countDown();
+            Assertions.assertEquals("fresh", loading.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, cache.getStatistics().getStaleHitCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies refresh value in background after refresh ahead threshold
+     */
+    @Test
+    void get_shouldRefreshValueInBackgroundAfterRefreshAheadThreshold() throws Exception {
+        // Refresh after 1% of the time to live, i.e. after 10 ms
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofSeconds(1), 0.01, Runnable::run);
+        cache.put("key", "old");
+        Thread.sleep(20);
+        Assertions.assertEquals("old", cache.get("key", k -> "new"));
+        Assertions.assertEquals("new", cache.getIfPresent("key").orElse(null));
+        Assertions.assertEquals(1, cache.getStatistics().getRefreshCount());
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies pass loader exception to caller
+     */
+    @Test
+    void get_shouldPassLoaderExceptionToCaller() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("key", k -> {
+            throw new IllegalStateException();
+        }));
+        Assertions.assertFalse(cache.getIfPresent("key").isPresent());
+        Assertions.assertEquals(1, cache.getStatistics().getLoadFailureCount());
+    }
+
+    /**
+     * @see ApplicationCache#getIfPresent(Object,Duration)
+     * @verifies return empty if expired
+     */
+    @Test
+    void getIfPresent_shouldReturnEmptyIfExpired() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMillis(1), 0, null);
+        cache.put("key", "value");
+        Thread.sleep(5);
+        Assertions.assertFalse(cache.getIfPresent("key").isPresent());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntries() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 2, null, 0, null);
+        cache.put("a", "1");
+        Thread.sleep(1);
+        cache.put("b", "2");
+        Thread.sleep(1);
+        cache.getIfPresent("a");
+        cache.put("c", "3");
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.getIfPresent("a").isPresent());
+        Assertions.assertFalse(cache.getIfPresent("b").isPresent());
+        Assertions.assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    /**
+     * @see ApplicationCache#invalidateIf(java.util.function.BiPredicate)
+     * @verifies remove matching entries only
+     */
+    @Test
+    void invalidateIf_shouldRemoveMatchingEntriesOnly() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 0, null, 0, null);
+        cache.put("a", "PPN1");
+        cache.put("b", "PPN2");
+        cache.put("c", "PPN1");
+        Assertions.assertEquals(2, cache.invalidateIf((k, v) -> "PPN1".equals(v)));
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertTrue(cache.getIfPresent("b").isPresent());
+    }
+
+    /**
+     * @see ApplicationCache#get(Object,Duration,java.util.function.Function)
+     * @verifies not store value if key invalidated during load
+     */
+    @Test
+    void get_shouldNotStoreValueIfKeyInvalidatedDuringLoad() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loading = executor.submit(() -> cache.get("key", k -> {
+                loaderStarted.countDown();
+                await(release);
+                return "stale";
+            }));
+            Assertions.assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            cache.invalidate("key");
+            release.countDown();
+            Assertions.assertEquals("stale", loading.get(5, TimeUnit.SECONDS));
+            Assertions.assertFalse(cache.getIfPresent("key").isPresent());
+            Assertions.assertEquals("fresh", cache.get("key", k -> "fresh"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @see ApplicationCache#invalidateIf(java.util.function.BiPredicate)
+     * @verifies not store values loaded during invalidation
+     */
+    @Test
+    void invalidateIf_shouldNotStoreValuesLoadedDuringInvalidation() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 10, Duration.ofMinutes(1), 0, null);
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loading = executor.submit(() -> cache.get("key", k -> {
+                loaderStarted.countDown();
+                await(release);
+                return "PPN1";
+            }));
+            Assertions.assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            cache.invalidateIf((k, v) -> "PPN1".equals(v));
+            release.countDown();
+            Assertions.assertEquals("PPN1", loading.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, cache.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @see ApplicationCache#put(Object,Object)
+     * @verifies evict least recently used entries after removals
+     */
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntriesAfterRemovals() throws Exception {
+        ApplicationCache<String, String> cache = new ApplicationCache<>("test", 2, null, 0, null);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.invalidate("a");
+        cache.put("b", "3");
+        cache.put("c", "4");
+        cache.getIfPresent("b");
+        cache.put("d", "5");
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertTrue(cache.getIfPresent("b").isPresent());
+        Assertions.assertFalse(cache.getIfPresent("c").isPresent());
+        Assertions.assertTrue(cache.getIfPresent("d").isPresent());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
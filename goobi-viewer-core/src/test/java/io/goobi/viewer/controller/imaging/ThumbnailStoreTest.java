@@ -0,0 +1,445 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.imaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javax.imageio.ImageIO;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.goobi.viewer.controller.ThreadPoolManager;
+import io.goobi.viewer.controller.ThreadPoolManager.PoolSettings;
+import io.goobi.viewer.controller.ThreadPoolManager.RejectionPolicy;
+
+class ThumbnailStoreTest {
+
+    private static final Logger logger = LogManager.getLogger(ThumbnailStoreTest.class);
+
+    private static final String PI = "PPN123";
+    private static final List<String> SIZES = Arrays.asList("!100,120", "!200,240", "!400,480");
+
+    /**
+     * @see ThumbnailStore#getTargetSize(String,int,int)
+     * @verifies fit image into box
+     */
+    @Test
+    void getTargetSize_shouldFitImageIntoBox() throws Exception {
+        assertEquals(new Dimension(80, 120), ThumbnailStore.getTargetSize("!100,120", 2000, 3000));
+        assertEquals(new Dimension(100, 75), ThumbnailStore.getTargetSize("!100,120", 4000, 3000));
+    }
+
+    /**
+     * @see ThumbnailStore#getTargetSize(String,int,int)
+     * @verifies scale to width
+     */
+    @Test
+    void getTargetSize_shouldScaleToWidth() throws Exception {
+        assertEquals(new Dimension(200, 300), ThumbnailStore.getTargetSize("200,", 2000, 3000));
+    }
+
+    /**
+     * @see ThumbnailStore#getTargetSize(String,int,int)
+     * @verifies scale to height
+     */
+    @Test
+    void getTargetSize_shouldScaleToHeight() throws Exception {
+        assertEquals(new Dimension(200, 300), ThumbnailStore.getTargetSize(",300", 2000, 3000));
+    }
+
+    /**
+     * @see ThumbnailStore#getTargetSize(String,int,int)
+     * @verifies return null if image would be enlarged
+     */
+    @Test
+    void getTargetSize_shouldReturnNullIfImageWouldBeEnlarged() throws Exception {
+        assertNull(ThumbnailStore.getTargetSize("!100,120", 50, 60));
+        assertNull(ThumbnailStore.getTargetSize("100,", 100, 60));
+    }
+
+    /**
+     * @see ThumbnailStore#getTargetSize(String,int,int)
+     * @verifies return null for unsupported sizes
+     */
+    @Test
+    void getTargetSize_shouldReturnNullForUnsupportedSizes() throws Exception {
+        assertNull(ThumbnailStore.getTargetSize("max", 2000, 3000));
+        assertNull(ThumbnailStore.getTargetSize("pct:50", 2000, 3000));
+        assertNull(ThumbnailStore.getTargetSize("100,120", 2000, 3000));
+        assertNull(ThumbnailStore.getTargetSize("!100,", 2000, 3000));
+    }
+
+    /**
+     * @see ThumbnailStore#isStorableFileName(String)
+     * @verifies return false for external urls
+     */
+    @Test
+    void isStorableFileName_shouldReturnFalseForExternalUrls() throws Exception {
+        assertFalse(ThumbnailStore.isStorableFileName("https://example.com/images/00000001.jpg"));
+        assertFalse(ThumbnailStore.isStorableFileName("../00000001.jpg"));
+    }
+
+    /**
+     * @see ThumbnailStore#isStorableFileName(String)
+     * @verifies return false for unsupported formats
+     */
+    @Test
+    void isStorableFileName_shouldReturnFalseForUnsupportedFormats() throws Exception {
+        assertFalse(ThumbnailStore.isStorableFileName("00000001.xyz"));
+        assertFalse(ThumbnailStore.isStorableFileName("00000001"));
+        assertFalse(ThumbnailStore.isStorableFileName(""));
+    }
+
+    /**
+     * @see ThumbnailStore#isStorableFileName(String)
+     * @verifies return true for tiff and jpeg files
+     */
+    @Test
+    void isStorableFileName_shouldReturnTrueForTiffAndJpegFiles() throws Exception {
+        assertTrue(ThumbnailStore.isStorableFileName("00000001.tif"));
+        assertTrue(ThumbnailStore.isStorableFileName("00000001.JPG"));
+    }
+
+    /**
+     * @see ThumbnailStore#generate(String,String,Path)
+     * @verifies write derivatives for all sizes
+     */
+    @Test
+    void generate_shouldWriteDerivativesForAllSizes(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 2400, 3200);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+
+        assertEquals(3, store.generate(PI, "00000001.jpg", master));
+        assertImageSize(store.getDerivativePath(PI, "00000001.jpg", "!100,120"), 90, 120);
+        assertImageSize(store.getDerivativePath(PI, "00000001.jpg", "!200,240"), 180, 240);
+        assertImageSize(store.getDerivativePath(PI, "00000001.jpg", "!400,480"), 360, 480);
+        assertEquals(3, store.getGeneratedCount());
+    }
+
+    /**
+     * @see ThumbnailStore#generate(String,String,Path)
+     * @verifies read tiff images
+     */
+    @Test
+    void generate_shouldReadTiffImages(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.tif", "tif", 1600, 1200);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+
+        assertEquals(3, store.generate(PI, "00000001.tif", master));
+        assertImageSize(store.getDerivativePath(PI, "00000001.tif", "!100,120"), 100, 75);
+        assertImageSize(store.getDerivativePath(PI, "00000001.tif", "!400,480"), 400, 300);
+    }
+
+    /**
+     * @see ThumbnailStore#generate(String,String,Path)
+     * @verifies skip sizes larger than master
+     */
+    @Test
+    void generate_shouldSkipSizesLargerThanMaster(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 300, 300);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+
+        assertEquals(2, store.generate(PI, "00000001.jpg", master));
+        assertFalse(Files.exists(store.getDerivativePath(PI, "00000001.jpg", "!400,480")));
+
+        // Sample page of a test record
+        Path sample = Paths.get("src/test/resources/data/viewer/images/PPN615391702/00000002.tif");
+        BufferedImage image = ImageIO.read(sample.toFile());
+        int expected = (int) SIZES.stream().filter(size -> ThumbnailStore.getTargetSize(size, image.getWidth(), image.getHeight()) != null).count();
+        assertEquals(expected, store.generate("PPN615391702", "00000002.tif", sample));
+    }
+
+    /**
+     * @see ThumbnailStore#find(String,String,String,Path)
+     * @verifies return derivative if up to date
+     */
+    @Test
+    void find_shouldReturnDerivativeIfUpToDate(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        assertFalse(store.find(PI, "00000001.jpg", "!100,120", master).isPresent());
+
+        store.generate(PI, "00000001.jpg", master);
+        Optional<Path> derivative = store.find(PI, "00000001.jpg", "!100,120", master);
+        assertTrue(derivative.isPresent());
+        assertEquals(store.getDerivativePath(PI, "00000001.jpg", "!100,120"), derivative.get());
+        assertTrue(derivative.get().startsWith(store.getRecordFolder(PI)));
+    }
+
+    /**
+     * @see ThumbnailStore#find(String,String,String,Path)
+     * @verifies return empty if master is newer
+     */
+    @Test
+    void find_shouldReturnEmptyIfMasterIsNewer(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", master);
+
+        Files.setLastModifiedTime(master, FileTime.fromMillis(System.currentTimeMillis() + 60000));
+        assertFalse(store.find(PI, "00000001.jpg", "!100,120", master).isPresent());
+    }
+
+    /**
+     * @see ThumbnailStore#find(String,String,String,Path)
+     * @verifies return empty for sizes that are not stored
+     */
+    @Test
+    void find_shouldReturnEmptyForSizesThatAreNotStored(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", master);
+
+        assertFalse(store.find(PI, "00000001.jpg", "!150,150", master).isPresent());
+        assertFalse(store.find(PI, "00000001.jpg", "max", master).isPresent());
+    }
+
+    /**
+     * @see ThumbnailStore#invalidate(String)
+     * @verifies delete all derivatives of record
+     */
+    @Test
+    void invalidate_shouldDeleteAllDerivativesOfRecord(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", master);
+        store.generate("PPN456", "00000001.jpg", master);
+
+        assertEquals(3, store.invalidate(PI));
+        assertFalse(Files.exists(store.getRecordFolder(PI)));
+        assertTrue(store.find("PPN456", "00000001.jpg", "!100,120", master).isPresent());
+        assertEquals(0, store.invalidate(PI));
+    }
+
+    /**
+     * @see ThumbnailStore#precompute(String,Path)
+     * @verifies create derivatives for all images in folder
+     */
+    @Test
+    void precompute_shouldCreateDerivativesForAllImagesInFolder(@TempDir Path tempDir) throws Exception {
+        Path mediaFolder = tempDir.resolve("media");
+        createImage(mediaFolder, "00000001.jpg", "jpg", 1200, 1600);
+        createImage(mediaFolder, "00000002.tif", "tif", 1200, 1600);
+        Files.write(mediaFolder.resolve("00000003.xml"), new byte[] { 1 });
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+
+        assertEquals(6, store.precompute(PI, mediaFolder));
+        assertTrue(store.find(PI, "00000002.tif", "!200,240", mediaFolder.resolve("00000002.tif")).isPresent());
+    }
+
+    /**
+     * @see ThumbnailStore#precompute(String,Path)
+     * @verifies skip up to date images
+     */
+    @Test
+    void precompute_shouldSkipUpToDateImages(@TempDir Path tempDir) throws Exception {
+        Path mediaFolder = tempDir.resolve("media");
+        createImage(mediaFolder, "00000001.jpg", "jpg", 1200, 1600);
+        createImage(mediaFolder, "00000002.jpg", "jpg", 1200, 1600);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", mediaFolder.resolve("00000001.jpg"));
+
+        assertEquals(3, store.precompute(PI, mediaFolder));
+        assertEquals(0, store.precompute(PI, mediaFolder));
+    }
+
+    /**
+     * @see ThumbnailStore#precompute(String,Path)
+     * @verifies skip images smaller than stored sizes
+     */
+    @Test
+    void precompute_shouldSkipImagesSmallerThanStoredSizes(@TempDir Path tempDir) throws Exception {
+        Path mediaFolder = tempDir.resolve("media");
+        createImage(mediaFolder, "00000001.jpg", "jpg", 300, 300);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+
+        assertEquals(2, store.precompute(PI, mediaFolder));
+        assertEquals(0, store.precompute(PI, mediaFolder));
+    }
+
+    /**
+     * @see ThumbnailStore#isNotApplicable(String,String,String,Path)
+     * @verifies return true for sizes larger than master after generation
+     */
+    @Test
+    void isNotApplicable_shouldReturnTrueForSizesLargerThanMasterAfterGeneration(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 300, 300);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        assertFalse(store.isNotApplicable(PI, "00000001.jpg", "!400,480", master));
+
+        store.generate(PI, "00000001.jpg", master);
+        assertTrue(store.isNotApplicable(PI, "00000001.jpg", "!400,480", master));
+        assertFalse(store.isNotApplicable(PI, "00000001.jpg", "!200,240", master));
+        assertFalse(store.find(PI, "00000001.jpg", "!400,480", master).isPresent());
+    }
+
+    /**
+     * @see ThumbnailStore#isNotApplicable(String,String,String,Path)
+     * @verifies return false if master has changed since
+     */
+    @Test
+    void isNotApplicable_shouldReturnFalseIfMasterHasChangedSince(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 300, 300);
+        Files.setLastModifiedTime(master, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", master);
+
+        // Replaced by a larger image
+        createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        assertFalse(store.isNotApplicable(PI, "00000001.jpg", "!400,480", master));
+
+        store.generate(PI, "00000001.jpg", master);
+        assertFalse(Files.exists(store.getMarkerPath(PI, "00000001.jpg", "!400,480")));
+        assertTrue(store.find(PI, "00000001.jpg", "!400,480", master).isPresent());
+    }
+
+    /**
+     * @see ThumbnailStore#scheduleGeneration(String,String,Path)
+     * @verifies create derivatives in background
+     */
+    @Test
+    void scheduleGeneration_shouldCreateDerivativesInBackground(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 1200, 1600);
+        ThreadPoolManager threadPoolManager =
+                new ThreadPoolManager(ThreadPoolManager.POOL_CPU, new PoolSettings(ThreadPoolManager.POOL_CPU, 1, 10, RejectionPolicy.ABORT));
+        try {
+            ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, threadPoolManager);
+            assertTrue(store.scheduleGeneration(PI, "00000001.jpg", master));
+            long end = System.currentTimeMillis() + 10000;
+            while (store.getGeneratedCount() < 3 && System.currentTimeMillis() < end) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, store.getGeneratedCount());
+            assertTrue(store.find(PI, "00000001.jpg", "!400,480", master).isPresent());
+        } finally {
+            threadPoolManager.shutdown();
+        }
+    }
+
+    /**
+     * @see ThumbnailStore#scheduleGeneration(String,String,Path)
+     * @verifies not schedule images that could not be processed before
+     */
+    @Test
+    void scheduleGeneration_shouldNotScheduleImagesThatCouldNotBeProcessedBefore(@TempDir Path tempDir) throws Exception {
+        Path mediaFolder = Files.createDirectories(tempDir.resolve("media"));
+        Path master = Files.write(mediaFolder.resolve("00000001.jpg"), "not an image".getBytes());
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        assertThrows(IOException.class, () -> store.generate(PI, "00000001.jpg", master));
+
+        // precompute() remembers the failure
+        assertEquals(0, store.precompute(PI, mediaFolder));
+        assertFalse(store.scheduleGeneration(PI, "00000001.jpg", master));
+    }
+
+    /**
+     * Compares serving a stored thumbnail with decoding and scaling the master image for each request. Latencies are only logged; see
+     * ThumbnailStoreBenchmark in the benchmarks profile for a reliable comparison.
+     *
+     * @see ThumbnailStore#find(String,String,String,Path)
+     * @verifies serve stored thumbnail in same size as scaling on the fly
+     */
+    @Test
+    void find_shouldServeStoredThumbnailInSameSizeAsScalingOnTheFly(@TempDir Path tempDir) throws Exception {
+        Path master = createImage(tempDir.resolve("media"), "00000001.jpg", "jpg", 2400, 3200);
+        ThumbnailStore store = new ThumbnailStore(tempDir.resolve("store"), SIZES, 85, null);
+        store.generate(PI, "00000001.jpg", master);
+        int iterations = 10;
+
+        long start = System.nanoTime();
+        BufferedImage stored = null;
+        for (int i = 0; i < iterations; i++) {
+            stored = serveStored(store, master);
+        }
+        long storedNanos = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        BufferedImage onTheFly = null;
+        for (int i = 0; i < iterations; i++) {
+            onTheFly = serveOnTheFly(master);
+        }
+        long onTheFlyNanos = (System.nanoTime() - start) / iterations;
+
+        logger.info("Thumbnail latency: stored {} ms, on the fly {} ms", storedNanos / 1_000_000.0, onTheFlyNanos / 1_000_000.0);
+        assertEquals(onTheFly.getWidth(), stored.getWidth());
+        assertEquals(onTheFly.getHeight(), stored.getHeight());
+    }
+
+    private static BufferedImage serveStored(ThumbnailStore store, Path master) throws IOException {
+        Path derivative = store.find(PI, "00000001.jpg", "!100,120", master).orElseThrow(IllegalStateException::new);
+        ThumbnailStore.getEntityTag(derivative);
+        return ImageIO.read(new ByteArrayInputStream(Files.readAllBytes(derivative)));
+    }
+
+    private static BufferedImage serveOnTheFly(Path master) throws IOException {
+        BufferedImage image = ImageIO.read(master.toFile());
+        Dimension target = ThumbnailStore.getTargetSize("!100,120", image.getWidth(), image.getHeight());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(ThumbnailStore.scale(image, target.width, target.height), "jpg", out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static Path createImage(Path folder, String fileName, String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.WHITE, width, height, Color.DARK_GRAY));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLACK);
+        for (int y = 0; y < height; y += 40) {
+            g.drawString("Lorem ipsum dolor sit amet, consetetur sadipscing elitr", 20, y);
+        }
+        g.dispose();
+        Files.createDirectories(folder);
+        Path file = folder.resolve(fileName);
+        assertTrue(ImageIO.write(image, format, file.toFile()));
+        return file;
+    }
+
+    private static void assertImageSize(Path file, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    /**
+     * @see LatencyHistogram#getBucketIndex(long)
+     * @verifies return correct index
+     */
+    @Test
+    void getBucketIndex_shouldReturnCorrectIndex() throws Exception {
+        assertEquals(0, LatencyHistogram.getBucketIndex(0));
+        assertEquals(0, LatencyHistogram.getBucketIndex(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertEquals(1, LatencyHistogram.getBucketIndex(TimeUnit.MILLISECONDS.toNanos(1) + 1));
+        assertEquals(6, LatencyHistogram.getBucketIndex(TimeUnit.MILLISECONDS.toNanos(80)));
+        assertEquals(LatencyHistogram.BUCKET_BOUNDS_MILLIS.length, LatencyHistogram.getBucketIndex(TimeUnit.SECONDS.toNanos(60)));
+    }
+
+    /**
+     * @see LatencyHistogram#getPercentileMillis(double)
+     * @verifies return upper bound of bucket containing percentile
+     */
+    @Test
+    void getPercentileMillis_shouldReturnUpperBoundOfBucketContainingPercentile() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMillis(50));
+        for (int i = 0; i < 90; ++i) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        for (int i = 0; i < 10; ++i) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(300));
+        }
+        assertEquals(5, histogram.getPercentileMillis(50));
+        assertEquals(5, histogram.getPercentileMillis(90));
+        assertEquals(500, histogram.getPercentileMillis(95));
+        assertEquals(100, histogram.getCount());
+        assertEquals(300, histogram.getMaxMillis());
+    }
+}
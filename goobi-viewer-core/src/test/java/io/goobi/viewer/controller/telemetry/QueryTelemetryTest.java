@@ -0,0 +1,191 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.controller.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.controller.telemetry.QueryTelemetry.Backend;
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.exceptions.DAOException;
+import io.goobi.viewer.model.security.user.User;
+
+class QueryTelemetryTest {
+
+    /**
+     * @see QueryTelemetry#record(Backend,String,long,int,long,boolean,java.util.function.Supplier)
+     * @verifies group calls by call site
+     */
+    @Test
+    void record_shouldGroupCallsByCallSite() throws Exception {
+        QueryTelemetry telemetry = new QueryTelemetry(true, 1000, 10);
+        for (int i = 0; i < 3; ++i) {
+            telemetry.record(Backend.SOLR, "search", System.nanoTime(), 5, 10, false, () -> "PI:*");
+        }
+        telemetry.record(Backend.SOLR, "search", System.nanoTime(), -1, 0, true, () -> "PI:*");
+
+        List<CallSiteStatistics> stats = telemetry.getStatistics();
+        assertEquals(1, stats.size());
+        CallSiteStatistics stat = stats.get(0);
+        assertEquals("solr", stat.getBackend());
+        assertEquals("QueryTelemetryTest.record_shouldGroupCallsByCallSite", stat.getCallSite());
+        assertEquals("search", stat.getOperation());
+        assertEquals(4, stat.getCount());
+        assertEquals(1, stat.getErrors());
+        assertEquals(30, stat.getRows());
+        assertEquals(15, stat.getSolrQTimeMillis());
+        assertEquals(0, stat.getSlow());
+        assertTrue(telemetry.getSlowQueries().isEmpty());
+    }
+
+    /**
+     * @see QueryTelemetry#record(Backend,String,long,int,long,boolean,java.util.function.Supplier)
+     * @verifies keep most recent slow queries
+     */
+    @Test
+    void record_shouldKeepMostRecentSlowQueries() throws Exception {
+        QueryTelemetry telemetry = new QueryTelemetry(true, 100, 2);
+        long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(200);
+        telemetry.record(Backend.SOLR, "search", start, 150, 1, false, () -> "q1");
+        telemetry.record(Backend.SOLR, "search", start, 150, 1, false, () -> "q2");
+        telemetry.record(Backend.SOLR, "search", start, 150, 1, false, () -> "q3");
+        telemetry.record(Backend.SOLR, "search", System.nanoTime(), 1, 1, false, () -> "fast");
+
+        List<SlowQuery> slowQueries = telemetry.getSlowQueries();
+        assertEquals(2, slowQueries.size());
+        assertEquals("q3", slowQueries.get(0).getQuery());
+        assertEquals("q2", slowQueries.get(1).getQuery());
+        assertTrue(slowQueries.get(0).getDurationMillis() >= 200);
+        assertEquals(150, slowQueries.get(0).getSolrQTimeMillis());
+        assertEquals(3, telemetry.getStatistics().get(0).getSlow());
+    }
+
+    /**
+     * @see QueryTelemetry#record(Backend,String,long,int,long,boolean,java.util.function.Supplier)
+     * @verifies not record anything if disabled
+     */
+    @Test
+    void record_shouldNotRecordAnythingIfDisabled() throws Exception {
+        QueryTelemetry telemetry = new QueryTelemetry(false, 0, 10);
+        telemetry.record(Backend.SOLR, "search", System.nanoTime() - 1000, 1, 1, false, () -> "PI:*");
+        assertTrue(telemetry.getStatistics().isEmpty());
+        assertTrue(telemetry.getSlowQueries().isEmpty());
+    }
+
+    /**
+     * @see QueryTelemetry#instrument(IDAO)
+     * @verifies record dao calls by operation
+     */
+    @Test
+    void instrument_shouldRecordDaoCallsByOperation() throws Exception {
+        IDAO dao = Mockito.mock(IDAO.class);
+        Mockito.when(dao.getAllUsers(true)).thenReturn(List.of(new User(), new User()));
+        Mockito.when(dao.getUser(1)).thenThrow(new DAOException("test"));
+        QueryTelemetry telemetry = new QueryTelemetry(true, 1000, 10);
+        IDAO instrumented = telemetry.instrument(dao);
+
+        assertEquals(2, instrumented.getAllUsers(true).size());
+        assertThrows(DAOException.class, () -> instrumented.getUser(1));
+
+        List<CallSiteStatistics> stats = telemetry.getStatistics();
+        assertEquals(2, stats.size());
+        for (CallSiteStatistics stat : stats) {
+            assertEquals("dao", stat.getBackend());
+            assertEquals(QueryTelemetry.ANY_CALL_SITE, stat.getCallSite());
+            if ("getAllUsers".equals(stat.getOperation())) {
+                assertEquals(2, stat.getRows());
+                assertEquals(0, stat.getErrors());
+            } else {
+                assertEquals("getUser", stat.getOperation());
+                assertEquals(1, stat.getErrors());
+            }
+        }
+    }
+
+    /**
+     * @see QueryTelemetry#toPrometheusText()
+     * @verifies write histogram and counters for each call site
+     */
+    @Test
+    void toPrometheusText_shouldWriteHistogramAndCountersForEachCallSite() throws Exception {
+        QueryTelemetry telemetry = new QueryTelemetry(true, 1000, 10);
+        telemetry.record(Backend.SOLR, "search", System.nanoTime(), 3, 7, false, () -> "PI:*");
+
+        String text = telemetry.toPrometheusText();
+        String labels = "backend=\"solr\",call_site=\"QueryTelemetryTest.toPrometheusText_shouldWriteHistogramAndCountersForEachCallSite\","
+                + "operation=\"search\"";
+        assertTrue(text.contains("# TYPE viewer_query_duration_seconds histogram\n"));
+        assertTrue(text.contains("viewer_query_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("viewer_query_duration_seconds_count{" + labels + "} 1\n"));
+        assertTrue(text.contains("viewer_query_rows_total{" + labels + "} 7\n"));
+        assertTrue(text.contains("viewer_query_solr_qtime_seconds_total{" + labels + "} 0.003\n"));
+        assertTrue(text.contains("viewer_query_errors_total{" + labels + "} 0\n"));
+    }
+
+    /**
+     * @see QueryTelemetry#getArgumentsDescription(Object[])
+     * @verifies describe simple values and types of other arguments
+     */
+    @Test
+    void getArgumentsDescription_shouldDescribeSimpleValuesAndTypesOfOtherArguments() throws Exception {
+        assertEquals("()", QueryTelemetry.getArgumentsDescription(null));
+        assertEquals("(String[6], 5, null, User)", QueryTelemetry.getArgumentsDescription(new Object[] { "PPN123", 5, null, new User() }));
+    }
+
+    /**
+     * @see QueryTelemetry#getArgumentsDescription(Object[])
+     * @verifies not reveal strings
+     */
+    @Test
+    void getArgumentsDescription_shouldNotRevealStrings() throws Exception {
+        String description = QueryTelemetry.getArgumentsDescription(new Object[] { "jane.doe@example.com", "5f4dcc3b5aa765d61d8327deb882cf99" });
+        assertEquals("(String[20], String[32])", description);
+    }
+
+    /**
+     * @see QueryTelemetry#instrument(IDAO)
+     * @verifies log caller and redacted arguments of slow dao calls
+     */
+    @Test
+    void instrument_shouldLogCallerAndRedactedArgumentsOfSlowDaoCalls() throws Exception {
+        IDAO dao = Mockito.mock(IDAO.class);
+        Mockito.when(dao.getUserByEmail("jane.doe@example.com")).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return new User();
+        });
+        QueryTelemetry telemetry = new QueryTelemetry(true, 10, 10);
+        telemetry.instrument(dao).getUserByEmail("jane.doe@example.com");
+
+        List<SlowQuery> slowQueries = telemetry.getSlowQueries();
+        assertEquals(1, slowQueries.size());
+        assertEquals("QueryTelemetryTest.instrument_shouldLogCallerAndRedactedArgumentsOfSlowDaoCalls", slowQueries.get(0).getCallSite());
+        assertEquals("getUserByEmail(String[20])", slowQueries.get(0).getQuery());
+        assertEquals(QueryTelemetry.ANY_CALL_SITE, telemetry.getStatistics().get(0).getCallSite());
+    }
+}
@@ -31,6 +31,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -108,6 +109,8 @@ import io.goobi.viewer.model.security.user.User;
 import io.goobi.viewer.model.security.user.UserGroup;
 import io.goobi.viewer.model.security.user.UserRole;
 import io.goobi.viewer.model.security.user.icon.UserAvatarOption;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup.Granularity;
 
 /**
  * JPADAO test suite using H2 DB.
@@ -3376,4 +3379,111 @@ class JPADAOTest extends AbstractDatabaseEnabledTest {
 
     }
 
+    /**
+     * @see JPADAO#getUsageStatisticsRollup(Granularity,LocalDate)
+     * @verifies return overall rollup of period
+     */
+    @Test
+    void getUsageStatisticsRollup_shouldReturnOverallRollupOfPeriod() throws Exception {
+        UsageStatisticsRollup rollup = DataManager.getInstance().getDao().getUsageStatisticsRollup(Granularity.MONTH, LocalDate.of(2022, 8, 1));
+        assertNotNull(rollup);
+        assertEquals(Long.valueOf(1), rollup.getId());
+        assertNull(rollup.getRecordIdentifier());
+        assertEquals(22, rollup.getCounts()[0]);
+        assertEquals(4, rollup.getCounts()[1]);
+        assertEquals(LocalDate.of(2022, 8, 1), rollup.getFirstDate());
+        assertEquals(LocalDate.of(2022, 8, 2), rollup.getLastDate());
+    }
+
+    /**
+     * @see JPADAO#getUsageStatisticsRollup(Granularity,LocalDate)
+     * @verifies return null if period has no rollup
+     */
+    @Test
+    void getUsageStatisticsRollup_shouldReturnNullIfPeriodHasNoRollup() throws Exception {
+        assertNull(DataManager.getInstance().getDao().getUsageStatisticsRollup(Granularity.MONTH, LocalDate.of(2022, 9, 1)));
+        assertNull(DataManager.getInstance().getDao().getUsageStatisticsRollup(Granularity.YEAR, LocalDate.of(2022, 1, 1)));
+    }
+
+    /**
+     * @see JPADAO#getUsageStatisticsRollups(Granularity,LocalDate,List)
+     * @verifies return rollups of given records
+     */
+    @Test
+    void getUsageStatisticsRollups_shouldReturnRollupsOfGivenRecords() throws Exception {
+        List<UsageStatisticsRollup> result = DataManager.getInstance()
+                .getDao()
+                .getUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1), Arrays.asList("PI_04", "PI_05"));
+        assertEquals(1, result.size());
+        assertEquals("PI_04", result.get(0).getRecordIdentifier());
+        assertEquals(4, result.get(0).getCounts()[0]);
+    }
+
+    /**
+     * @see JPADAO#getUsageStatisticsRollups(Granularity,LocalDate,List)
+     * @verifies return rollups of all records if recordIdentifiers null
+     */
+    @Test
+    void getUsageStatisticsRollups_shouldReturnRollupsOfAllRecordsIfRecordIdentifiersNull() throws Exception {
+        List<UsageStatisticsRollup> result =
+                DataManager.getInstance().getDao().getUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1), null);
+        assertEquals(2, result.size());
+        for (UsageStatisticsRollup rollup : result) {
+            assertNotNull(rollup.getRecordIdentifier());
+        }
+    }
+
+    /**
+     * @see JPADAO#getUsageStatisticsRollups(Granularity,LocalDate,List)
+     * @verifies return empty list if recordIdentifiers empty
+     */
+    @Test
+    void getUsageStatisticsRollups_shouldReturnEmptyListIfRecordIdentifiersEmpty() throws Exception {
+        assertTrue(DataManager.getInstance()
+                .getDao()
+                .getUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1), Collections.emptyList())
+                .isEmpty());
+    }
+
+    /**
+     * @see JPADAO#addUsageStatisticsRollups(List)
+     * @verifies add all rollups
+     */
+    @Test
+    void addUsageStatisticsRollups_shouldAddAllRollups() throws Exception {
+        IDAO dao = DataManager.getInstance().getDao();
+        LocalDate periodStart = LocalDate.of(2022, 9, 1);
+        assertTrue(dao.addUsageStatisticsRollups(Arrays.asList(
+                new UsageStatisticsRollup(Granularity.MONTH, periodStart, null, new long[] { 7, 2, 1, 1, 0, 0 }, periodStart,
+                        LocalDate.of(2022, 9, 30)),
+                new UsageStatisticsRollup(Granularity.MONTH, periodStart, "PI_01", new long[] { 7, 2, 1, 1, 0, 0 }, periodStart,
+                        LocalDate.of(2022, 9, 30)))));
+
+        UsageStatisticsRollup overall = dao.getUsageStatisticsRollup(Granularity.MONTH, periodStart);
+        assertNotNull(overall);
+        assertNotNull(overall.getId());
+        Assertions.assertArrayEquals(new long[] { 7, 2, 1, 1, 0, 0 }, overall.getCounts());
+        assertEquals(periodStart, overall.getFirstDate());
+        assertEquals(LocalDate.of(2022, 9, 30), overall.getLastDate());
+
+        List<UsageStatisticsRollup> records = dao.getUsageStatisticsRollups(Granularity.MONTH, periodStart, null);
+        assertEquals(1, records.size());
+        assertEquals("PI_01", records.get(0).getRecordIdentifier());
+        Assertions.assertArrayEquals(new long[] { 7, 2, 1, 1, 0, 0 }, records.get(0).getCounts());
+    }
+
+    /**
+     * @see JPADAO#deleteUsageStatisticsRollups(Granularity,LocalDate)
+     * @verifies delete all rollups of period
+     */
+    @Test
+    void deleteUsageStatisticsRollups_shouldDeleteAllRollupsOfPeriod() throws Exception {
+        IDAO dao = DataManager.getInstance().getDao();
+        assertEquals(3, dao.deleteUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1)));
+        assertNull(dao.getUsageStatisticsRollup(Granularity.MONTH, LocalDate.of(2022, 8, 1)));
+        assertTrue(dao.getUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1), null).isEmpty());
+        // Rollups of other periods are kept
+        assertNotNull(dao.getUsageStatisticsRollup(Granularity.YEAR, LocalDate.of(2021, 1, 1)));
+    }
+
 }
@@ -202,4 +202,41 @@ class ViewerResourceBundleTest extends AbstractTest {
         Assertions.assertEquals("foo = foo, bar", fileContents);
 
     }
+
+    /**
+     * @see ViewerResourceBundle#getTranslation(String,Locale,boolean,boolean,boolean,boolean)
+     * @verifies resolve key variants
+     */
+    @Test
+    void getTranslation_shouldResolveKeyVariants() throws Exception {
+        Assertions.assertEquals("Autor", ViewerResourceBundle.getTranslation("MD_AUTHOR_LANG_EN", Locale.GERMAN));
+        Assertions.assertEquals("Autor", ViewerResourceBundle.getTranslation("MD_AUTHOR_UNTOKENIZED", Locale.GERMAN));
+        Assertions.assertEquals("Autor", ViewerResourceBundle.getTranslation("FACET_AUTHOR", Locale.GERMAN));
+        Assertions.assertEquals("Autor", ViewerResourceBundle.getTranslation("MD_AUTHOR*", Locale.GERMAN));
+        Assertions.assertEquals("MD_DOES_NOT_EXIST_LANG_EN", ViewerResourceBundle.getTranslation("MD_DOES_NOT_EXIST_LANG_EN", Locale.GERMAN));
+        Assertions.assertNull(ViewerResourceBundle.getTranslation("MD_DOES_NOT_EXIST", Locale.GERMAN, false, false, false, true));
+    }
+
+    /**
+     * @see ViewerResourceBundle#updateLocalMessageKey(String,String,String)
+     * @verifies make new value visible without restart
+     */
+    @Test
+    void updateLocalMessageKey_shouldMakeNewValueVisibleWithoutRestart() throws Exception {
+        DataManager.getInstance().getConfiguration().overrideValue("configFolder", "target/temp_messages");
+
+        File tempDir = new File("target/temp_messages");
+        Assertions.assertTrue(tempDir.isDirectory() || tempDir.mkdirs());
+        try {
+            Assertions.assertEquals("LOCAL_RELOAD_TEST", ViewerResourceBundle.getTranslation("LOCAL_RELOAD_TEST", Locale.GERMAN));
+
+            Assertions.assertTrue(ViewerResourceBundle.updateLocalMessageKey("LOCAL_RELOAD_TEST", "lokaler Wert", "de"));
+            Assertions.assertEquals("lokaler Wert", ViewerResourceBundle.getTranslation("LOCAL_RELOAD_TEST", Locale.GERMAN));
+            // Default values are still available
+            Assertions.assertEquals("Autor", ViewerResourceBundle.getTranslation("MD_AUTHOR", Locale.GERMAN));
+        } finally {
+            FileUtils.deleteDirectory(tempDir);
+            ViewerResourceBundle.reloadLocalBundles("de");
+        }
+    }
 }
@@ -0,0 +1,79 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AltoPageCacheTest {
+
+    private static final Path ALTO_FILE = Paths.get("src/test/resources/data/viewer/alto/0230L.xml");
+    private static final Path OTHER_ALTO_FILE = Paths.get("src/test/resources/data/sample_alto.xml");
+
+    /**
+     * @see AltoPageCache#getPage(Path)
+     * @verifies return cached page for unchanged file
+     */
+    @Test
+    void getPage_shouldReturnCachedPageForUnchangedFile() throws Exception {
+        AltoPageCache cache = new AltoPageCache(64L * 1024 * 1024);
+        AltoPage page = cache.getPage(ALTO_FILE);
+        Assertions.assertSame(page, cache.getPage(ALTO_FILE));
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getEntryCount());
+    }
+
+    /**
+     * @see AltoPageCache#getPage(Path)
+     * @verifies reparse file if modified
+     */
+    @Test
+    void getPage_shouldReparseFileIfModified(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("page.xml");
+        Files.copy(ALTO_FILE, file);
+        AltoPageCache cache = new AltoPageCache(64L * 1024 * 1024);
+        AltoPage page = cache.getPage(file);
+
+        Files.copy(OTHER_ALTO_FILE, file, StandardCopyOption.REPLACE_EXISTING);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10000));
+        AltoPage reparsed = cache.getPage(file);
+        Assertions.assertNotSame(page, reparsed);
+        Assertions.assertEquals(2, cache.getMisses());
+        Assertions.assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    void getPage_shouldNotCachePagesLargerThanMaxSize() throws Exception {
+        AltoPageCache cache = new AltoPageCache(1);
+        Assertions.assertNotNull(cache.getPage(ALTO_FILE));
+        Assertions.assertEquals(0, cache.getEntryCount());
+        Assertions.assertEquals(0, cache.getCurrentSize());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AltoPageParserTest {
+
+    private static final Path ALTO_FILE = Paths.get("src/test/resources/data/viewer/alto/0230L.xml");
+
+    /**
+     * @see AltoPageParser#parseInt(String)
+     * @verifies parse integers correctly
+     */
+    @Test
+    void parseInt_shouldParseIntegersCorrectly() {
+        Assertions.assertEquals(1553, AltoPageParser.parseInt("1553"));
+    }
+
+    /**
+     * @see AltoPageParser#parseInt(String)
+     * @verifies truncate decimal values
+     */
+    @Test
+    void parseInt_shouldTruncateDecimalValues() {
+        Assertions.assertEquals(12, AltoPageParser.parseInt("12.7"));
+    }
+
+    /**
+     * @see AltoPageParser#parseInt(String)
+     * @verifies return zero for invalid values
+     */
+    @Test
+    void parseInt_shouldReturnZeroForInvalidValues() {
+        Assertions.assertEquals(0, AltoPageParser.parseInt(null));
+        Assertions.assertEquals(0, AltoPageParser.parseInt("abc"));
+    }
+
+    @Test
+    void parse_shouldReadPageSizeAndLines() throws Exception {
+        AltoPage page = AltoPageParser.parse(ALTO_FILE);
+        Assertions.assertEquals(1553, page.getWidth());
+        Assertions.assertEquals(2601, page.getHeight());
+        Assertions.assertEquals(319, page.getLineCount());
+        Assertions.assertTrue(page.hasContent());
+    }
+
+    @Test
+    void parse_shouldLinkHyphenatedWords() throws Exception {
+        AltoPage page = AltoPageParser.parse(ALTO_FILE);
+        int index = -1;
+        for (int i = 0; i < page.getWordCount(); i++) {
+            if ("Textword_1827".equals(page.getWordId(i))) {
+                index = i;
+                break;
+            }
+        }
+        Assertions.assertNotEquals(-1, index);
+        Assertions.assertEquals("Wap-", page.getWordContent(index));
+        int next = page.getHyphenationPartNext(index);
+        Assertions.assertEquals(index + 1, next);
+        Assertions.assertEquals("pen", page.getWordContent(next));
+        Assertions.assertEquals("Wappen", page.getWordSubsContentOrContent(index));
+        Assertions.assertEquals("Wappen", page.getWordSubsContentOrContent(next));
+    }
+}
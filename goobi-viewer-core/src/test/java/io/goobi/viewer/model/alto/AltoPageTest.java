@@ -0,0 +1,69 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.alto;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class AltoPageTest {
+
+    private static final String ALTO = "<alto><Tags>"
+            + "<NamedEntityTag ID=\"Tag1\" TYPE=\"person\" LABEL=\"Goethe\"/>"
+            + "<NamedEntityTag ID=\"Tag2\" TYPE=\"location\" LABEL=\"Weimar\"/>"
+            + "<NamedEntityTag ID=\"Tag3\" TYPE=\"location\" LABEL=\"Jena\"/>"
+            + "</Tags><Layout><Page WIDTH=\"100\" HEIGHT=\"100\"><PrintSpace>"
+            + "<TextBlock ID=\"b1\" HPOS=\"0\" VPOS=\"0\" WIDTH=\"100\" HEIGHT=\"20\">"
+            + "<TextLine ID=\"l1\" HPOS=\"0\" VPOS=\"0\" WIDTH=\"100\" HEIGHT=\"10\">"
+            + "<String ID=\"w1\" CONTENT=\"Goethe\" TAGREFS=\"Tag1\" HPOS=\"0\" VPOS=\"0\" WIDTH=\"20\" HEIGHT=\"10\"/>"
+            + "<String ID=\"w2\" CONTENT=\"in\" HPOS=\"25\" VPOS=\"0\" WIDTH=\"10\" HEIGHT=\"10\"/>"
+            + "<String ID=\"w3\" CONTENT=\"Weimar\" TAGREFS=\" Tag2  Tag1 Tag2\" HPOS=\"40\" VPOS=\"0\" WIDTH=\"20\" HEIGHT=\"10\"/>"
+            + "</TextLine>"
+            + "<TextLine ID=\"l2\" HPOS=\"0\" VPOS=\"10\" WIDTH=\"100\" HEIGHT=\"10\">"
+            + "<String ID=\"w4\" CONTENT=\"Tag10\" TAGREFS=\"Tag10\" HPOS=\"0\" VPOS=\"10\" WIDTH=\"20\" HEIGHT=\"10\"/>"
+            + "<String ID=\"w5\" CONTENT=\"Weimar\" TAGREFS=\"Tag2\" HPOS=\"25\" VPOS=\"10\" WIDTH=\"20\" HEIGHT=\"10\"/>"
+            + "</TextLine></TextBlock></PrintSpace></Page></Layout></alto>";
+
+    /**
+     * @see AltoPage#getTagReferences(int)
+     * @verifies return words referencing tag in document order
+     */
+    @Test
+    void getTagReferences_shouldReturnWordsReferencingTagInDocumentOrder() throws Exception {
+        AltoPage page = AltoPageParser.parse(ALTO);
+        Assertions.assertEquals(5, page.getWordCount());
+        Assertions.assertEquals(Arrays.asList(0, 2), page.getTagReferences(page.getTagIndex("Tag1")));
+        Assertions.assertEquals(Arrays.asList(2, 4), page.getTagReferences(page.getTagIndex("Tag2")));
+    }
+
+    /**
+     * @see AltoPage#getTagReferences(int)
+     * @verifies return empty list for unreferenced tag
+     */
+    @Test
+    void getTagReferences_shouldReturnEmptyListForUnreferencedTag() throws Exception {
+        AltoPage page = AltoPageParser.parse(ALTO);
+        Assertions.assertEquals(Collections.emptyList(), page.getTagReferences(page.getTagIndex("Tag3")));
+    }
+}
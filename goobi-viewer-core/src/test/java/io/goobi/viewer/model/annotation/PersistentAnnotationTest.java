@@ -54,7 +54,6 @@ import io.goobi.viewer.api.rest.v1.ApiUrls;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.controller.DateTools;
 import io.goobi.viewer.dao.IDAO;
-import io.goobi.viewer.dao.impl.JPADAO;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.model.crowdsourcing.campaigns.Campaign;
 import io.goobi.viewer.model.crowdsourcing.questions.Question;
@@ -158,7 +157,7 @@ class PersistentAnnotationTest extends AbstractDatabaseEnabledTest {
     @Test
     void testSave() throws DAOException, JsonParseException, JsonMappingException, IOException {
 
-        JPADAO dao = (JPADAO) DataManager.getInstance().getDao();
+        IDAO dao = DataManager.getInstance().getDao();
 
         long existingAnnotations = getAnnotations(dao).size();
 
@@ -0,0 +1,57 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.annotation;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.AbstractDatabaseEnabledTest;
+
+class RecordAnnotationCacheTest extends AbstractDatabaseEnabledTest {
+
+    /**
+     * @see RecordAnnotationCache#get(String)
+     * @verifies load annotations only once
+     */
+    @Test
+    void get_shouldLoadAnnotationsOnlyOnce() throws Exception {
+        RecordAnnotationCache cache = new RecordAnnotationCache(10, Duration.ofMinutes(1));
+        RecordAnnotations annotations = cache.get("PI_1");
+        Assertions.assertEquals(4, annotations.getComments().size());
+        Assertions.assertEquals(3, annotations.getAnnotations().size());
+        Assertions.assertSame(annotations, cache.get("PI_1"));
+    }
+
+    /**
+     * @see RecordAnnotationCache#get(String)
+     * @verifies reload annotations after invalidation
+     */
+    @Test
+    void get_shouldReloadAnnotationsAfterInvalidation() throws Exception {
+        RecordAnnotationCache cache = new RecordAnnotationCache(10, Duration.ofMinutes(1));
+        RecordAnnotations annotations = cache.get("PI_1");
+        cache.invalidate("PI_1");
+        Assertions.assertNotSame(annotations, cache.get("PI_1"));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.annotation;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.model.annotation.comments.Comment;
+
+class RecordAnnotationsTest {
+
+    /**
+     * @see RecordAnnotations#getComments(int)
+     * @verifies return comments of given page only
+     */
+    @Test
+    void getComments_shouldReturnCommentsOfGivenPageOnly() throws Exception {
+        Comment comment1 = new Comment("PPN123", 1, null, "one", null, null);
+        Comment comment2 = new Comment("PPN123", 3, null, "two", null, null);
+        Comment comment3 = new Comment("PPN123", 1, null, "three", null, null);
+        RecordAnnotations annotations = new RecordAnnotations("PPN123", List.of(comment1, comment2, comment3), List.of());
+
+        Assertions.assertEquals(List.of(comment1, comment3), annotations.getComments(1));
+        Assertions.assertEquals(List.of(comment2), annotations.getComments(3));
+        Assertions.assertEquals(List.of(1, 3), annotations.getPagesWithComments());
+        Assertions.assertEquals(3, annotations.getComments().size());
+    }
+
+    /**
+     * @see RecordAnnotations#getComments(int)
+     * @verifies return empty list if page has no comments
+     */
+    @Test
+    void getComments_shouldReturnEmptyListIfPageHasNoComments() throws Exception {
+        RecordAnnotations annotations =
+                new RecordAnnotations("PPN123", List.of(new Comment("PPN123", 1, null, "one", null, null)), List.of());
+        Assertions.assertTrue(annotations.getComments(2).isEmpty());
+    }
+
+    /**
+     * @see RecordAnnotations#getAnnotations(Integer)
+     * @verifies return record annotations for null
+     */
+    @Test
+    void getAnnotations_shouldReturnRecordAnnotationsForNull() throws Exception {
+        CrowdsourcingAnnotation recordAnno = new CrowdsourcingAnnotation();
+        recordAnno.setTargetPI("PPN123");
+        CrowdsourcingAnnotation pageAnno = new CrowdsourcingAnnotation();
+        pageAnno.setTargetPI("PPN123");
+        pageAnno.setTargetPageOrder(2);
+        RecordAnnotations annotations = new RecordAnnotations("PPN123", List.of(), List.of(recordAnno, pageAnno));
+
+        Assertions.assertEquals(List.of(recordAnno), annotations.getAnnotations(null));
+        Assertions.assertEquals(List.of(pageAnno), annotations.getAnnotations(2));
+        Assertions.assertEquals(2, annotations.getAnnotations().size());
+    }
+}
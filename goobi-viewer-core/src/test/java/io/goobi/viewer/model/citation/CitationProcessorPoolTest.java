@@ -0,0 +1,151 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.citation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.undercouch.citeproc.csl.CSLType;
+
+class CitationProcessorPoolTest {
+
+    private static Citation createCitation(String id, String style, String author, String title, String year) {
+        Map<String, List<String>> fields = new HashMap<>();
+        fields.put(CitationDataProvider.AUTHOR, Collections.singletonList(author));
+        fields.put(CitationDataProvider.TITLE, Collections.singletonList(title));
+        fields.put(CitationDataProvider.ISSUED, Collections.singletonList(year));
+        return new Citation(id, style, CSLType.BOOK, fields);
+    }
+
+    /**
+     * @see CitationProcessorPool#getCitationStrings(String,Collection)
+     * @verifies render citations correctly
+     */
+    @Test
+    void getCitationStrings_shouldRenderCitationsCorrectly() throws Exception {
+        CitationProcessorPool pool = new CitationProcessorPool(1);
+        Map<String, String> result = pool.getCitationStrings("text",
+                Arrays.asList(createCitation("PPN2", "apa", "Zahn, Timothy", "Thrawn", "2017"),
+                        createCitation("PPN1", "apa", "Asimov, Isaac", "Foundation", "1951")));
+        Assertions.assertEquals(2, result.size());
+        // Order of the given citations is preserved
+        Assertions.assertEquals(Arrays.asList("PPN2", "PPN1"), new ArrayList<>(result.keySet()));
+        Assertions.assertEquals("Zahn, T. (2017). Thrawn.", result.get("PPN2"));
+        Assertions.assertEquals("Asimov, I. (1951). Foundation.", result.get("PPN1"));
+        Assertions.assertEquals(1, pool.getProcessorCount("apa"));
+    }
+
+    /**
+     * @see CitationProcessorPool#getCitationStrings(String,Collection)
+     * @verifies render citations with different styles
+     */
+    @Test
+    void getCitationStrings_shouldRenderCitationsWithDifferentStyles() throws Exception {
+        CitationProcessorPool pool = new CitationProcessorPool(1);
+        Map<String, String> result = pool.getCitationStrings("text",
+                Arrays.asList(createCitation("PPN1", "apa", "Zahn, Timothy", "Thrawn", "2017"),
+                        createCitation("PPN2", "ieee", "Zahn, Timothy", "Thrawn", "2017")));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("Zahn, T. (2017). Thrawn.", result.get("PPN1"));
+        Assertions.assertNotEquals(result.get("PPN1"), result.get("PPN2"));
+        Assertions.assertTrue(result.get("PPN2").contains("Thrawn"));
+        Assertions.assertEquals(1, pool.getProcessorCount("apa"));
+        Assertions.assertEquals(1, pool.getProcessorCount("ieee"));
+    }
+
+    /**
+     * @see CitationProcessorPool#getCitationStrings(String,Collection)
+     * @verifies return empty map if citations empty
+     */
+    @Test
+    void getCitationStrings_shouldReturnEmptyMapIfCitationsEmpty() throws Exception {
+        CitationProcessorPool pool = new CitationProcessorPool(1);
+        Assertions.assertTrue(pool.getCitationStrings("text", Collections.emptyList()).isEmpty());
+        Assertions.assertTrue(pool.getCitationStrings("text", null).isEmpty());
+    }
+
+    /**
+     * @see CitationProcessorPool#warmUp(List)
+     * @verifies create one processor per style
+     */
+    @Test
+    void warmUp_shouldCreateOneProcessorPerStyle() throws Exception {
+        CitationProcessorPool pool = new CitationProcessorPool(4);
+        pool.warmUp(Arrays.asList("apa", "ieee"));
+        Assertions.assertEquals(1, pool.getProcessorCount("apa"));
+        Assertions.assertEquals(1, pool.getProcessorCount("ieee"));
+    }
+
+    /**
+     * @see CitationProcessorPool#getCitationStrings(String,Collection)
+     * @verifies render citations concurrently
+     */
+    @Test
+    void getCitationStrings_shouldRenderCitationsConcurrently() throws Exception {
+        final int threads = 8;
+        final int citationsPerThread = 125;
+        CitationProcessorPool pool = new CitationProcessorPool(4);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; ++t) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    int count = 0;
+                    for (int i = 0; i < citationsPerThread; ++i) {
+                        String id = "PPN" + thread + "_" + i;
+                        String year = String.valueOf(1900 + i);
+                        String result = pool.getCitationStrings("text",
+                                Collections.singletonList(createCitation(id, "apa", "Zahn, Timothy", "Thrawn " + id, year)))
+                                .get(id);
+                        // Each result must belong to the requested item, even though processors are shared between threads
+                        Assertions.assertEquals("Zahn, T. (" + year + "). Thrawn " + id + ".", result);
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(120, TimeUnit.SECONDS);
+            }
+            Assertions.assertEquals(threads * citationsPerThread, total);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertTrue(pool.getProcessorCount("apa") >= 1);
+        Assertions.assertTrue(pool.getProcessorCount("apa") <= 4);
+    }
+}
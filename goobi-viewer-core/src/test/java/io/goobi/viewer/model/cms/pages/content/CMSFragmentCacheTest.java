@@ -0,0 +1,122 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.cms.pages.content;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.model.search.SearchHelper;
+
+class CMSFragmentCacheTest {
+
+    /**
+     * @see CMSFragmentCache#getTtl(java.util.Collection)
+     * @verifies return default ttl for components without content
+     */
+    @Test
+    void getTtl_shouldReturnDefaultTtlForComponentsWithoutContent() throws Exception {
+        CMSFragmentCache cache = new CMSFragmentCache(true, 10, 300, Collections.emptyMap());
+        assertEquals(300, cache.getTtl(Collections.emptyList()));
+    }
+
+    /**
+     * @see CMSFragmentCache#getTtl(java.util.Collection)
+     * @verifies return smallest configured ttl
+     */
+    @Test
+    void getTtl_shouldReturnSmallestConfiguredTtl() throws Exception {
+        CMSFragmentCache cache = new CMSFragmentCache(true, 10, 300, Map.of("CMSMediumTextContent", 60, "CMSGeomapContent", 0));
+        assertEquals(60, cache.getTtl(List.of("CMSShortTextContent", "CMSMediumTextContent")));
+        assertEquals(0, cache.getTtl(List.of("CMSMediumTextContent", "CMSGeomapContent")));
+    }
+
+    /**
+     * @see CMSFragmentCache#getTtl(java.util.Collection)
+     * @verifies return zero for uncached content types unless configured
+     */
+    @Test
+    void getTtl_shouldReturnZeroForUncachedContentTypesUnlessConfigured() throws Exception {
+        assertEquals(0, new CMSFragmentCache(true, 10, 300, Collections.emptyMap()).getTtl(List.of("CMSRecordListContent")));
+        assertEquals(30,
+                new CMSFragmentCache(true, 10, 300, Map.of("CMSRecordListContent", 30)).getTtl(List.of("CMSRecordListContent")));
+    }
+
+    /**
+     * @see CMSFragmentCache#buildKey(long,long,Integer,String,String,String)
+     * @verifies include all parameters
+     */
+    @Test
+    void buildKey_shouldIncludeAllParameters() throws Exception {
+        String key = CMSFragmentCache.buildKey(1, 2, 3, "de", "abc", "/viewer/cms/1/", "page=2");
+        assertEquals("1|2|3|de|abc|/viewer/cms/1/?page=2", key);
+        assertFalse(key.equals(CMSFragmentCache.buildKey(1, 2, 3, "en", "abc", "/viewer/cms/1/", "page=2")));
+        assertFalse(key.equals(CMSFragmentCache.buildKey(1, 2, 3, "de", "def", "/viewer/cms/1/", "page=2")));
+        assertTrue(CMSFragmentCache.buildKey(1, 2, 3, "de", "abc", "/viewer/cms/1/", null).endsWith("/viewer/cms/1/"));
+    }
+
+    /**
+     * @see CMSFragmentCache#getAccessContext(HttpServletRequest)
+     * @verifies return null if no suffix in session
+     */
+    @Test
+    void getAccessContext_shouldReturnNullIfNoSuffixInSession() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        assertNull(CMSFragmentCache.getAccessContext(request));
+
+        HttpSession session = Mockito.mock(HttpSession.class);
+        Mockito.when(request.getSession(false)).thenReturn(session);
+        assertNull(CMSFragmentCache.getAccessContext(request));
+    }
+
+    /**
+     * @see CMSFragmentCache#getAccessContext(HttpServletRequest)
+     * @verifies return different values for different suffixes
+     */
+    @Test
+    void getAccessContext_shouldReturnDifferentValuesForDifferentSuffixes() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        HttpSession session = Mockito.mock(HttpSession.class);
+        Mockito.when(request.getSession(false)).thenReturn(session);
+        Mockito.when(session.getAttribute(SearchHelper.PARAM_NAME_FILTER_QUERY_SUFFIX)).thenReturn(" +(ACCESSCONDITION:\"OPENACCESS\")");
+        String anonymous = CMSFragmentCache.getAccessContext(request);
+        assertNotNull(anonymous);
+        assertEquals(anonymous, CMSFragmentCache.getAccessContext(request));
+
+        Mockito.when(session.getAttribute(SearchHelper.PARAM_NAME_FILTER_QUERY_SUFFIX))
+                .thenReturn(" +(ACCESSCONDITION:\"OPENACCESS\" ACCESSCONDITION:\"campus\")");
+        assertNotEquals(anonymous, CMSFragmentCache.getAccessContext(request));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CsvSearchExportWriterTest {
+
+    /**
+     * @see CsvSearchExportWriter#escape(String)
+     * @verifies return empty string if value null
+     */
+    @Test
+    void escape_shouldReturnEmptyStringIfValueNull() throws Exception {
+        Assertions.assertEquals("", CsvSearchExportWriter.escape(null));
+    }
+
+    /**
+     * @see CsvSearchExportWriter#escape(String)
+     * @verifies leave plain values unchanged
+     */
+    @Test
+    void escape_shouldLeavePlainValuesUnchanged() throws Exception {
+        Assertions.assertEquals("Linz und seine Umgebungen", CsvSearchExportWriter.escape("Linz und seine Umgebungen"));
+    }
+
+    /**
+     * @see CsvSearchExportWriter#escape(String)
+     * @verifies quote values containing separators or line breaks
+     */
+    @Test
+    void escape_shouldQuoteValuesContainingSeparatorsOrLineBreaks() throws Exception {
+        Assertions.assertEquals("\"Goethe, Johann Wolfgang\"", CsvSearchExportWriter.escape("Goethe, Johann Wolfgang"));
+        Assertions.assertEquals("\"foo\nbar\"", CsvSearchExportWriter.escape("foo\nbar"));
+    }
+
+    /**
+     * @see CsvSearchExportWriter#escape(String)
+     * @verifies double contained quotes
+     */
+    @Test
+    void escape_shouldDoubleContainedQuotes() throws Exception {
+        Assertions.assertEquals("\"Das \"\"Buch\"\"\"", CsvSearchExportWriter.escape("Das \"Buch\""));
+    }
+
+    @Test
+    void writeRow_shouldWriteHeaderAndRows() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (CsvSearchExportWriter writer = new CsvSearchExportWriter(baos)) {
+            writer.writeHeader("foo", Arrays.asList("PI", "LABEL"), Arrays.asList("Persistent identifier", "Label"));
+            writer.writeRow(Arrays.asList("PPN123", "Gedichte"));
+            writer.writeRow(Arrays.asList("PPN456", null));
+        }
+        Assertions.assertEquals("Persistent identifier,Label\r\nPPN123,Gedichte\r\nPPN456,\r\n", baos.toString(StandardCharsets.UTF_8.name()));
+    }
+}
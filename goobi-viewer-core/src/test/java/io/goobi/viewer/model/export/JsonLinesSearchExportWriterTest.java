@@ -0,0 +1,61 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class JsonLinesSearchExportWriterTest {
+
+    /**
+     * @see JsonLinesSearchExportWriter#quote(String)
+     * @verifies escape quotes and backslashes
+     */
+    @Test
+    void quote_shouldEscapeQuotesAndBackslashes() throws Exception {
+        Assertions.assertEquals("\"a \\\"b\\\" c\\\\d\"", JsonLinesSearchExportWriter.quote("a \"b\" c\\d"));
+    }
+
+    /**
+     * @see JsonLinesSearchExportWriter#quote(String)
+     * @verifies escape control characters
+     */
+    @Test
+    void quote_shouldEscapeControlCharacters() throws Exception {
+        Assertions.assertEquals("\"a\\nb\\tc\\u0001\"", JsonLinesSearchExportWriter.quote("a\nb\tc\u0001"));
+    }
+
+    @Test
+    void writeRow_shouldWriteOneObjectPerLineAndSkipMissingValues() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (JsonLinesSearchExportWriter writer = new JsonLinesSearchExportWriter(baos)) {
+            writer.writeHeader("foo", Arrays.asList("PI", "LABEL"), Arrays.asList("Persistent identifier", "Label"));
+            writer.writeRow(Arrays.asList("PPN123", "Gedichte"));
+            writer.writeRow(Arrays.asList("PPN456", null));
+        }
+        Assertions.assertEquals("{\"PI\":\"PPN123\",\"LABEL\":\"Gedichte\"}\n{\"PI\":\"PPN456\"}\n", baos.toString(StandardCharsets.UTF_8.name()));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.export;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.AbstractSolrEnabledTest;
+import io.goobi.viewer.model.viewer.StringPair;
+import io.goobi.viewer.solr.SolrConstants;
+
+class SearchExportTest extends AbstractSolrEnabledTest {
+
+    /**
+     * @see SearchExport#getCursorSortFields(List)
+     * @verifies append IDDOC to given sort fields
+     */
+    @Test
+    void getCursorSortFields_shouldAppendIDDOCToGivenSortFields() throws Exception {
+        List<StringPair> result = SearchExport.getCursorSortFields(Collections.singletonList(new StringPair("SORT_YEARPUBLISH", "desc")));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("SORT_YEARPUBLISH", result.get(0).getOne());
+        Assertions.assertEquals("desc", result.get(0).getTwo());
+        Assertions.assertEquals(SolrConstants.IDDOC, result.get(1).getOne());
+        Assertions.assertEquals("asc", result.get(1).getTwo());
+    }
+
+    /**
+     * @see SearchExport#getCursorSortFields(List)
+     * @verifies sort by score if no sort fields given
+     */
+    @Test
+    void getCursorSortFields_shouldSortByScoreIfNoSortFieldsGiven() throws Exception {
+        List<StringPair> result = SearchExport.getCursorSortFields(null);
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("score", result.get(0).getOne());
+        Assertions.assertEquals(SolrConstants.IDDOC, result.get(1).getOne());
+    }
+
+    /**
+     * @see SearchExport#getCursorSortFields(List)
+     * @verifies skip relevance and random sort fields
+     */
+    @Test
+    void getCursorSortFields_shouldSkipRelevanceAndRandomSortFields() throws Exception {
+        List<StringPair> result = SearchExport.getCursorSortFields(
+                Arrays.asList(new StringPair(SolrConstants.SORT_RELEVANCE, "asc"), new StringPair(SolrConstants.SORT_RANDOM, "asc")));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals("score", result.get(0).getOne());
+    }
+
+    /**
+     * @see SearchExport#write(SearchExportWriter)
+     * @verifies stop after max hits
+     */
+    @Test
+    void write_shouldStopAfterMaxHits() throws Exception {
+        String query = "DOCSTRCT:monograph AND MD_YEARPUBLISH:18*";
+        List<List<String>> rows = new ArrayList<>();
+        SearchExportWriter writer = new SearchExportWriter() {
+
+            @Override
+            public void writeHeader(String query, List<String> fields, List<String> labels) {
+                //
+            }
+
+            @Override
+            public void writeRow(List<String> values) {
+                rows.add(new ArrayList<>(values));
+            }
+
+            @Override
+            public void close() {
+                //
+            }
+        };
+
+        long count = new SearchExport(query, query, null, null, null, Locale.ENGLISH).setBatchSize(1).setMaxHits(2).write(writer);
+        Assertions.assertEquals(2, count);
+        Assertions.assertEquals(2, rows.size());
+    }
+}
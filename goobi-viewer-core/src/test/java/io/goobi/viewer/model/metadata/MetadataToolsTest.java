@@ -22,10 +22,13 @@
 package io.goobi.viewer.model.metadata;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -90,4 +93,27 @@ class MetadataToolsTest extends AbstractSolrEnabledTest {
     void convertLanguageToIso2_shouldReturnOriginalValueIfLanguageNotFound() throws Exception {
         Assertions.assertEquals("###", MetadataTools.convertLanguageToIso2("###"));
     }
+
+    /**
+     * @see MetadataTools#getGroupedMetadata(Collection,String)
+     * @verifies return grouped metadata docs of all owners
+     */
+    @Test
+    void getGroupedMetadata_shouldReturnGroupedMetadataDocsOfAllOwners() throws Exception {
+        String iddoc = String.valueOf(iddocKleiuniv);
+        SolrDocumentList expected = MetadataTools.getGroupedMetadata(iddoc, null, null);
+
+        Map<String, List<SolrDocument>> result = MetadataTools.getGroupedMetadata(Arrays.asList(iddoc, "0"), null);
+        Assertions.assertEquals(expected.size(), result.getOrDefault(iddoc, Collections.emptyList()).size());
+        Assertions.assertFalse(result.containsKey("0"));
+    }
+
+    /**
+     * @see MetadataTools#getGroupedMetadata(Collection,String)
+     * @verifies return empty map if no owners given
+     */
+    @Test
+    void getGroupedMetadata_shouldReturnEmptyMapIfNoOwnersGiven() throws Exception {
+        Assertions.assertTrue(MetadataTools.getGroupedMetadata(Collections.emptyList(), null).isEmpty());
+    }
 }
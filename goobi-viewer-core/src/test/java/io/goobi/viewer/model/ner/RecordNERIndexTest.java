@@ -0,0 +1,101 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.ner;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.goobi.viewer.api.rest.model.ner.ElementReference;
+import io.goobi.viewer.api.rest.model.ner.NERTag;
+import io.goobi.viewer.api.rest.model.ner.TagCount;
+import io.goobi.viewer.model.ner.RecordNERIndex.PageEntry;
+
+class RecordNERIndexTest {
+
+    private static TagCount createTag(String value, NERTag.Type type, String id) {
+        return new TagCount(value, type, new ElementReference(id, new Rectangle(0, 0, 10, 10), value, null));
+    }
+
+    private static RecordNERIndex createIndex() {
+        return new RecordNERIndex("PPN123", Arrays.asList(
+                new PageEntry(3, "PPN123/00000003.xml", Arrays.asList(createTag("Berlin", NERTag.Type.LOCATION, "Tag_3"))),
+                new PageEntry(1, "PPN123/00000001.xml",
+                        Arrays.asList(createTag("Berlin", NERTag.Type.LOCATION, "Tag_1"), createTag("Goethe", NERTag.Type.PERSON, "Tag_2"))),
+                new PageEntry(2, null, null)));
+    }
+
+    /**
+     * @see RecordNERIndex#getPages(Integer,Integer)
+     * @verifies return all pages if no bounds given
+     */
+    @Test
+    void getPages_shouldReturnAllPagesIfNoBoundsGiven() throws Exception {
+        List<PageEntry> pages = createIndex().getPages(null, null);
+        Assertions.assertEquals(3, pages.size());
+        Assertions.assertEquals(1, pages.get(0).getOrder());
+        Assertions.assertEquals(3, pages.get(2).getOrder());
+    }
+
+    /**
+     * @see RecordNERIndex#getPages(Integer,Integer)
+     * @verifies return pages within bounds
+     */
+    @Test
+    void getPages_shouldReturnPagesWithinBounds() throws Exception {
+        RecordNERIndex index = createIndex();
+        Assertions.assertEquals(2, index.getPages(2, null).size());
+        Assertions.assertEquals(2, index.getPages(null, 2).size());
+        List<PageEntry> pages = index.getPages(2, 2);
+        Assertions.assertEquals(1, pages.size());
+        Assertions.assertEquals(2, pages.get(0).getOrder());
+    }
+
+    /**
+     * @see PageEntry#getTags(NERTag.Type)
+     * @verifies return copies of tags
+     */
+    @Test
+    void getTags_shouldReturnCopiesOfTags() throws Exception {
+        PageEntry page = createIndex().getPages(1, 1).get(0);
+        TagCount tag = page.getTags(null).get(0);
+        tag.addReferences(Arrays.asList(new ElementReference("Tag_99", new Rectangle(), "Berlin", null)));
+        Assertions.assertEquals(2, tag.getCounter());
+        Assertions.assertEquals(1, page.getTags(null).get(0).getCounter());
+    }
+
+    /**
+     * @see PageEntry#getTags(NERTag.Type)
+     * @verifies filter by type
+     */
+    @Test
+    void getTags_shouldFilterByType() throws Exception {
+        PageEntry page = createIndex().getPages(1, 1).get(0);
+        Assertions.assertEquals(2, page.getTags(null).size());
+        List<TagCount> tags = page.getTags(NERTag.Type.PERSON);
+        Assertions.assertEquals(1, tags.size());
+        Assertions.assertEquals("Goethe", tags.get(0).getValue());
+    }
+}
@@ -23,13 +23,18 @@ package io.goobi.viewer.model.rss;
 
 import java.util.List;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
+import com.rometools.rome.feed.synd.SyndEntry;
 import com.rometools.rome.feed.synd.SyndFeed;
 
 import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.solr.SolrSearchIndex;
 
 class RSSFeedTest extends AbstractDatabaseAndSolrEnabledTest {
 
@@ -61,4 +66,44 @@ class RSSFeedTest extends AbstractDatabaseAndSolrEnabledTest {
         Assertions.assertEquals(10, channel.getItems().size());
         // TODO in-detail assertions
     }
+
+    /**
+     * @see RSSFeed#createRss(String,String,List,String,int,String,boolean)
+     * @verifies load related docs with a constant number of queries
+     */
+    @Test
+    void createRss_shouldLoadRelatedDocsWithAConstantNumberOfQueries() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        // Pages use the metadata of their owner and top level docs
+        SyndFeed feed = RSSFeed.createRss("https://example.com", "+PI_TOPSTRUCT:" + PI_KLEIUNIV + " +DOCTYPE:PAGE", null, "en", 20, null, true);
+        Assertions.assertEquals(20, feed.getEntries().size());
+        for (SyndEntry entry : feed.getEntries()) {
+            Assertions.assertTrue(StringUtils.isNotBlank(entry.getTitle()));
+        }
+        // Main query plus at most one query each for top level docs, page owner docs and parent labels
+        Mockito.verify(searchIndex, Mockito.atMost(4))
+                .search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * @see RSSFeed#createRssFeed(String,String,List,int,String,String,boolean)
+     * @verifies load related docs with a constant number of queries
+     */
+    @Test
+    void createRssFeed_shouldLoadRelatedDocsWithAConstantNumberOfQueries() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        Channel channel = RSSFeed.createRssFeed("https://example.com", "+PI_TOPSTRUCT:" + PI_KLEIUNIV + " +DOCTYPE:PAGE", null, 20, "en", null, true);
+        Assertions.assertEquals(20, channel.getItems().size());
+        for (RssItem item : channel.getItems()) {
+            Assertions.assertTrue(StringUtils.isNotBlank(item.getTitle()));
+        }
+        Mockito.verify(searchIndex, Mockito.atMost(4))
+                .search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any(), Mockito.any(), Mockito.any());
+    }
 }
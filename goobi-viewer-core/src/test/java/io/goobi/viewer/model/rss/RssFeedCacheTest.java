@@ -0,0 +1,143 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.rss;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.AbstractTest;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.solr.SolrSearchIndex;
+
+class RssFeedCacheTest extends AbstractTest {
+
+    private SolrSearchIndex originalSearchIndex;
+
+    private SolrSearchIndex searchIndex;
+
+    @Override
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        originalSearchIndex = DataManager.getInstance().getSearchIndex();
+        searchIndex = Mockito.mock(SolrSearchIndex.class);
+        Mockito.when(searchIndex.getIndexVersion()).thenReturn(1L);
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DataManager.getInstance().injectSearchIndex(originalSearchIndex);
+    }
+
+    /**
+     * @see RssFeedCache#get(String,Class,RssFeedCache.FeedBuilder)
+     * @verifies return cached feed for same key
+     */
+    @Test
+    void get_shouldReturnCachedFeedForSameKey() throws Exception {
+        RssFeedCache cache = new RssFeedCache(true, 10, Duration.ofMinutes(1), Duration.ZERO);
+        AtomicInteger builds = new AtomicInteger();
+        String key = RssFeedCache.buildKey("rss_2.0", "https://example.com", "PI:*", null, "en", 10, null, true);
+
+        String feed = cache.get(key, String.class, () -> "feed" + builds.incrementAndGet());
+        Assertions.assertEquals("feed1", feed);
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Assertions.assertEquals(1, builds.get());
+
+        // Different language
+        String otherKey = RssFeedCache.buildKey("rss_2.0", "https://example.com", "PI:*", null, "de", 10, null, true);
+        Assertions.assertEquals("feed2", cache.get(otherKey, String.class, () -> "feed" + builds.incrementAndGet()));
+    }
+
+    /**
+     * @see RssFeedCache#get(String,Class,RssFeedCache.FeedBuilder)
+     * @verifies build feed again after index version change
+     */
+    @Test
+    void get_shouldBuildFeedAgainAfterIndexVersionChange() throws Exception {
+        RssFeedCache cache = new RssFeedCache(true, 10, Duration.ofMinutes(1), Duration.ZERO);
+        AtomicInteger builds = new AtomicInteger();
+        String key = RssFeedCache.buildKey("channel", "https://example.com", "PI:*", null, "en", 10, null, true);
+
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Mockito.when(searchIndex.getIndexVersion()).thenReturn(2L);
+        Assertions.assertEquals("feed2", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Assertions.assertEquals("feed2", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+    }
+
+    /**
+     * @see RssFeedCache#get(String,Class,RssFeedCache.FeedBuilder)
+     * @verifies build feed every time if disabled
+     */
+    @Test
+    void get_shouldBuildFeedEveryTimeIfDisabled() throws Exception {
+        RssFeedCache cache = new RssFeedCache(false, 10, Duration.ofMinutes(1), Duration.ZERO);
+        AtomicInteger builds = new AtomicInteger();
+        String key = RssFeedCache.buildKey("rss_2.0", "https://example.com", "PI:*", null, "en", 10, null, true);
+
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Assertions.assertEquals("feed2", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Mockito.verify(searchIndex, Mockito.never()).getIndexVersion();
+    }
+
+    /**
+     * @see RssFeedCache#get(String,Class,RssFeedCache.FeedBuilder)
+     * @verifies check index version at most once per interval
+     */
+    @Test
+    void get_shouldCheckIndexVersionAtMostOncePerInterval() throws Exception {
+        RssFeedCache cache = new RssFeedCache(true, 10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        AtomicInteger builds = new AtomicInteger();
+        String key = RssFeedCache.buildKey("rss_2.0", "https://example.com", "PI:*", null, "en", 10, null, true);
+
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Mockito.when(searchIndex.getIndexVersion()).thenReturn(2L);
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed" + builds.incrementAndGet()));
+        Mockito.verify(searchIndex, Mockito.times(1)).getIndexVersion();
+    }
+
+    /**
+     * @see RssFeedCache#checkIndexVersion(long)
+     * @verifies discard feeds only if index version advances
+     */
+    @Test
+    void checkIndexVersion_shouldDiscardFeedsOnlyIfIndexVersionAdvances() throws Exception {
+        RssFeedCache cache = new RssFeedCache(true, 10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        String key = RssFeedCache.buildKey("rss_2.0", "https://example.com", "PI:*", null, "en", 10, null, true);
+        cache.checkIndexVersion(5);
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed1"));
+
+        cache.checkIndexVersion(5);
+        cache.checkIndexVersion(4);
+        Assertions.assertEquals("feed1", cache.get(key, String.class, () -> "feed2"));
+
+        cache.checkIndexVersion(6);
+        Assertions.assertEquals("feed3", cache.get(key, String.class, () -> "feed3"));
+    }
+}
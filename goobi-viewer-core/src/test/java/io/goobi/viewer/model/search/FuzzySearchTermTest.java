@@ -35,4 +35,50 @@ class FuzzySearchTermTest {
         assertTrue(fuzzy.matches(text));
     }
 
+    /**
+     * @see FuzzySearchTerm#matches(String)
+     * @verifies match word within max distance
+     */
+    @Test
+    void matches_shouldMatchWordWithinMaxDistance() throws Exception {
+        FuzzySearchTerm fuzzy = new FuzzySearchTerm("Steigbügel~1");
+        assertTrue(fuzzy.matches("Steigbugle"));
+        assertTrue(fuzzy.matches("steigbügel,"));
+    }
+
+    /**
+     * @see FuzzySearchTerm#matches(String)
+     * @verifies match word containing term if wildcard
+     */
+    @Test
+    void matches_shouldMatchWordContainingTermIfWildcard() throws Exception {
+        FuzzySearchTerm fuzzy = new FuzzySearchTerm("*bügel*~1");
+        assertTrue(fuzzy.matches("Steigbuglehalter"));
+        assertFalse(fuzzy.matches("Steigbaglehalter"));
+    }
+
+    /**
+     * @see FuzzySearchTerm#matches(String)
+     * @verifies not match word beyond max distance
+     */
+    @Test
+    void matches_shouldNotMatchWordBeyondMaxDistance() throws Exception {
+        FuzzySearchTerm fuzzy = new FuzzySearchTerm("dolor~1");
+        assertTrue(fuzzy.matches("dolore"));
+        assertFalse(fuzzy.matches("dolores"));
+    }
+
+    /**
+     * @see FuzzySearchTerm#matches(CharSequence,int,int)
+     * @verifies match region without surrounding text
+     */
+    @Test
+    void matches_shouldMatchRegionWithoutSurroundingText() throws Exception {
+        FuzzySearchTerm fuzzy = new FuzzySearchTerm("dolor~1");
+        String text = "lorem ipsum dolore sit amet";
+        assertTrue(fuzzy.matches(text, 12, 18));
+        assertFalse(fuzzy.matches(text, 6, 11));
+        // Non-ASCII regions are cleaned up like whole words
+        assertTrue(fuzzy.matches("ipsum Dolör", 6, 11));
+    }
 }
@@ -33,8 +33,10 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import io.goobi.viewer.AbstractSolrEnabledTest;
 import io.goobi.viewer.controller.DataManager;
@@ -45,6 +47,8 @@ import io.goobi.viewer.model.metadata.Metadata;
 import io.goobi.viewer.model.metadata.MetadataWrapper;
 import io.goobi.viewer.model.viewer.StructElement;
 import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrConstants.DocType;
+import io.goobi.viewer.solr.SolrSearchIndex;
 
 class SearchHitFactoryTest extends AbstractSolrEnabledTest {
 
@@ -352,4 +356,30 @@ class SearchHitFactoryTest extends AbstractSolrEnabledTest {
         Assertions.assertEquals(1, be.getMetadataList("MD_IDENTIFIER").size());
         Assertions.assertEquals("id10T", be.getMetadataList("MD_IDENTIFIER").get(0).getValues().get(0).getComboValueShort(0));
     }
+
+    /**
+     * @see SearchHitFactory#prefetchShapeMetadata(Collection)
+     * @verifies prefetch shape metadata with a single query
+     */
+    @Test
+    void prefetchShapeMetadata_shouldPrefetchShapeMetadataWithASingleQuery() throws Exception {
+        SolrDocumentList docs = DataManager.getInstance()
+                .getSearchIndex()
+                .search("+" + SolrConstants.DOCTYPE + ":" + DocType.DOCSTRCT.name() + " -" + SolrConstants.ISWORK + ":true -"
+                        + SolrConstants.ISANCHOR + ":true", 100, null, null);
+        Assertions.assertEquals(100, docs.size());
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        SearchHitFactory factory = new SearchHitFactory(null, null, null, 0, null, Locale.ENGLISH);
+        factory.prefetchShapeMetadata(docs);
+        Mockito.verify(searchIndex, Mockito.times(1))
+                .search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any(), Mockito.any(), Mockito.any());
+        // Already prefetched docs are not queried again
+        factory.prefetchShapeMetadata(docs);
+        Mockito.verify(searchIndex, Mockito.times(1))
+                .search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any(), Mockito.any(), Mockito.any());
+    }
 }
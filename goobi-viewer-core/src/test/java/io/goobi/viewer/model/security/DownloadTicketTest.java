@@ -44,6 +44,30 @@ class DownloadTicketTest extends AbstractTest {
         Assertions.assertTrue(ticket.checkPassword("halbgeviertstrich"));
     }
 
+    /**
+     * @see DownloadTicket#checkPasswordHash(String)
+     * @verifies return true if hash matches
+     */
+    @Test
+    void checkPasswordHash_shouldReturnTrueIfHashMatches() throws Exception {
+        DownloadTicket ticket = new DownloadTicket();
+        ticket.setPasswordHash("$2a$10$H580saN37o2P03A5myUCm.V0ac/lO.79AfkiNjVhDzljqS3RGojzO");
+        Assertions.assertTrue(ticket.checkPasswordHash("$2a$10$H580saN37o2P03A5myUCm.V0ac/lO.79AfkiNjVhDzljqS3RGojzO"));
+    }
+
+    /**
+     * @see DownloadTicket#checkPasswordHash(String)
+     * @verifies return false if hash does not match
+     */
+    @Test
+    void checkPasswordHash_shouldReturnFalseIfHashDoesNotMatch() throws Exception {
+        DownloadTicket ticket = new DownloadTicket();
+        ticket.setPasswordHash("$2a$10$H580saN37o2P03A5myUCm.V0ac/lO.79AfkiNjVhDzljqS3RGojzO");
+        // Differs only in case, which a case-insensitive database lookup would not notice
+        Assertions.assertFalse(ticket.checkPasswordHash("$2a$10$H580saN37o2P03A5myUCm.v0ac/lO.79AfkiNjVhDzljqS3RGojzO"));
+        Assertions.assertFalse(ticket.checkPasswordHash(null));
+    }
+
     /**
      * @see DownloadTicket#isActive()
      * @verifies return true if ticket active
@@ -21,9 +21,17 @@
  */
 package io.goobi.viewer.model.security.recordlock;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -126,4 +134,89 @@ class RecordLockManagerTest extends AbstractTest {
         DataManager.getInstance().getRecordLockManager().removeOldLocks(5);
         Assertions.assertNull(DataManager.getInstance().getRecordLockManager().getLoadedRecordMap().get("PPN123"));
     }
+
+    /**
+     * @see RecordLockManager#lockRecord(String,String,Integer)
+     * @verifies never exceed limit with concurrent sessions
+     */
+    @Test
+    void lockRecord_shouldNeverExceedLimitWithConcurrentSessions() throws Exception {
+        final int threads = 16;
+        final int iterations = 2000;
+        final int limit = 3;
+        final String[] pis = { "PPN1", "PPN2", "PPN3", "PPN4" };
+
+        RecordLockManager manager = new RecordLockManager();
+        // Number of sessions holding a lock for each record, as observed from outside of the manager
+        ConcurrentHashMap<String, AtomicInteger> holders = new ConcurrentHashMap<>();
+        for (String pi : pis) {
+            holders.put(pi, new AtomicInteger());
+        }
+        AtomicInteger maxObserved = new AtomicInteger();
+        AtomicInteger granted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; ++t) {
+                final String sessionId = "SID" + t;
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < iterations; ++i) {
+                        String pi = pis[random.nextInt(pis.length)];
+                        try {
+                            manager.lockRecord(pi, sessionId, limit);
+                        } catch (RecordLimitExceededException e) {
+                            rejected.incrementAndGet();
+                            continue;
+                        }
+                        granted.incrementAndGet();
+                        int current = holders.get(pi).incrementAndGet();
+                        maxObserved.accumulateAndGet(current, Math::max);
+                        Set<RecordLock> locks = manager.getLoadedRecordMap().get(pi);
+                        if (locks != null) {
+                            maxObserved.accumulateAndGet(locks.size(), Math::max);
+                        }
+                        holders.get(pi).decrementAndGet();
+                        if (random.nextBoolean()) {
+                            manager.removeLockForPiAndSessionId(pi, sessionId);
+                        } else {
+                            manager.removeLocksForSessionId(sessionId, null);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertTrue(maxObserved.get() <= limit, "Limit exceeded: " + maxObserved.get());
+        Assertions.assertEquals(threads * iterations, granted.get() + rejected.get());
+        Assertions.assertTrue(granted.get() > 0);
+        Assertions.assertTrue(manager.getLoadedRecordMap().isEmpty());
+        Assertions.assertTrue(manager.getSessionRecordMap().isEmpty());
+    }
+
+    /**
+     * @see RecordLockManager#removeLocksForSessionId(String,List)
+     * @verifies only remove locks of given session
+     */
+    @Test
+    void removeLocksForSessionId_shouldOnlyRemoveLocksOfGivenSession() throws Exception {
+        RecordLockManager manager = new RecordLockManager();
+        manager.lockRecord("PPN1", "SID1", 2);
+        manager.lockRecord("PPN2", "SID1", 2);
+        manager.lockRecord("PPN1", "SID2", 2);
+
+        Assertions.assertEquals(2, manager.removeLocksForSessionId("SID1", null));
+        Assertions.assertNull(manager.getLoadedRecordMap().get("PPN2"));
+        Assertions.assertEquals(1, manager.getLoadedRecordMap().get("PPN1").size());
+        Assertions.assertNull(manager.getSessionRecordMap().get("SID1"));
+        Assertions.assertEquals(Collections.singleton("PPN1"), manager.getSessionRecordMap().get("SID2"));
+    }
 }
@@ -29,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -231,5 +232,35 @@ class DailySessionUsageStatisticsTest extends AbstractDatabaseEnabledTest {
         assertEquals(1, statsJune.size());
     }
 
+    /**
+     * @see DailySessionUsageStatistics#getRecordRequestCounts()
+     * @verifies aggregate total and unique counts correctly
+     */
+    @Test
+    void getRecordRequestCounts_shouldAggregateTotalAndUniqueCountsCorrectly() {
+        DailySessionUsageStatistics stats = new DailySessionUsageStatistics(LocalDate.of(2022, Month.JULY, 4), "viewer-test");
+
+        SessionUsageStatistics session1 = new SessionUsageStatistics("ABCD", "Ubuntu Firefox", "168.178.192.2");
+        session1.setRecordRequectCount(RequestType.RECORD_VIEW, "PI_01", 7);
+        session1.setRecordRequectCount(RequestType.FILE_DOWNLOAD, "PI_01", 1);
+        session1.setRecordRequectCount(RequestType.RECORD_VIEW, "PI_02", 3);
+        stats.addSession(session1);
+
+        SessionUsageStatistics session2 = new SessionUsageStatistics("EFGH", "Ubuntu Chrome", "168.178.192.3");
+        session2.setRecordRequectCount(RequestType.RECORD_VIEW, "PI_01", 2);
+        session2.setRecordRequectCount(RequestType.RECORD_VIEW, "PI_03", 4);
+        stats.addSession(session2);
 
+        Map<String, long[]> counts = stats.getRecordRequestCounts();
+        assertEquals(3, counts.size());
+        for (String pi : counts.keySet()) {
+            for (RequestType type : RequestType.values()) {
+                assertEquals(stats.getTotalRequestCount(type, pi), counts.get(pi)[type.getTotalCountIndex()]);
+                assertEquals(stats.getUniqueRequestCount(type, pi), counts.get(pi)[type.getUniqueCountIndex()]);
+            }
+        }
+        assertEquals(9, counts.get("PI_01")[RequestType.RECORD_VIEW.getTotalCountIndex()]);
+        assertEquals(2, counts.get("PI_01")[RequestType.RECORD_VIEW.getUniqueCountIndex()]);
+        assertEquals(1, counts.get("PI_01")[RequestType.FILE_DOWNLOAD.getUniqueCountIndex()]);
+    }
 }
@@ -21,7 +21,9 @@
  */
 package io.goobi.viewer.model.statistics.usage;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
@@ -68,4 +70,42 @@ class RequestCountsTest {
         assertEquals(Long.valueOf(4), counts.getCount(RequestType.FILE_DOWNLOAD));
         assertEquals(Long.valueOf(3), counts.getCount(RequestType.MEDIA_RESOURCE));
     }
+
+    /**
+     * @see SessionRequestCounts#parse(String)
+     * @verifies parse counts correctly
+     */
+    @Test
+    void parse_shouldParseCountsCorrectly() {
+        assertArrayEquals(new long[] { 23, 4, 3 }, SessionRequestCounts.parse("[23, 4,3]"));
+        assertArrayEquals(new long[] { 1, 0, 0 }, SessionRequestCounts.parse("[1]"));
+    }
+
+    /**
+     * @see SessionRequestCounts#parse(String)
+     * @verifies return zeros for blank data
+     */
+    @Test
+    void parse_shouldReturnZerosForBlankData() {
+        assertArrayEquals(new long[] { 0, 0, 0 }, SessionRequestCounts.parse(null));
+        assertArrayEquals(new long[] { 0, 0, 0 }, SessionRequestCounts.parse("[]"));
+    }
+
+    /**
+     * @see SessionRequestCounts#parse(String)
+     * @verifies ignore surplus values
+     */
+    @Test
+    void parse_shouldIgnoreSurplusValues() {
+        assertArrayEquals(new long[] { 1, 2, 3 }, SessionRequestCounts.parse("[1,2,3,4]"));
+    }
+
+    /**
+     * @see SessionRequestCounts#parse(String)
+     * @verifies throw IllegalArgumentException for invalid data
+     */
+    @Test
+    void parse_shouldThrowIllegalArgumentExceptionForInvalidData() {
+        assertThrows(IllegalArgumentException.class, () -> SessionRequestCounts.parse("{\"a\":1}"));
+    }
 }
@@ -23,6 +23,7 @@ package io.goobi.viewer.model.statistics.usage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDate;
 import java.time.Month;
@@ -38,16 +39,18 @@ import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import io.goobi.viewer.AbstractDatabaseAndSolrEnabledTest;
 import io.goobi.viewer.AbstractSolrEnabledTest;
 import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.dao.IDAO;
 import io.goobi.viewer.exceptions.DAOException;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup.Granularity;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrSearchIndex;
 
-class StatisticsSummaryBuilderTest extends AbstractSolrEnabledTest {
+class StatisticsSummaryBuilderTest extends AbstractDatabaseAndSolrEnabledTest {
 
     @Test
     void test_filterResults() throws DAOException, IndexUnreachableException, PresentationException {
@@ -142,4 +145,104 @@ class StatisticsSummaryBuilderTest extends AbstractSolrEnabledTest {
         assertEquals(1, result.size());
         assertEquals(AbstractSolrEnabledTest.PI_KLEIUNIV, result.get(0));
     }
+
+    /**
+     * @see StatisticsSummaryBuilder#planPeriods(LocalDate,LocalDate,LocalDate)
+     * @verifies use years and months for completed periods
+     */
+    @Test
+    void planPeriods_shouldUseYearsAndMonthsForCompletedPeriods() throws Exception {
+        List<StatisticsSummaryBuilder.SummaryPeriod> periods =
+                StatisticsSummaryBuilder.planPeriods(LocalDate.of(2021, 11, 20), LocalDate.of(2023, 2, 3), LocalDate.of(2024, 1, 1));
+        assertEquals(5, periods.size());
+        assertPeriod(periods.get(0), null, LocalDate.of(2021, 11, 20), LocalDate.of(2021, 11, 30));
+        assertPeriod(periods.get(1), Granularity.MONTH, LocalDate.of(2021, 12, 1), LocalDate.of(2021, 12, 31));
+        assertPeriod(periods.get(2), Granularity.YEAR, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31));
+        assertPeriod(periods.get(3), Granularity.MONTH, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+        assertPeriod(periods.get(4), null, LocalDate.of(2023, 2, 1), LocalDate.of(2023, 2, 3));
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#planPeriods(LocalDate,LocalDate,LocalDate)
+     * @verifies use days for incomplete periods
+     */
+    @Test
+    void planPeriods_shouldUseDaysForIncompletePeriods() throws Exception {
+        List<StatisticsSummaryBuilder.SummaryPeriod> periods =
+                StatisticsSummaryBuilder.planPeriods(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 10), LocalDate.of(2023, 2, 27));
+        assertEquals(2, periods.size());
+        assertPeriod(periods.get(0), Granularity.MONTH, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+        assertPeriod(periods.get(1), null, LocalDate.of(2023, 2, 1), LocalDate.of(2023, 3, 10));
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#planPeriods(LocalDate,LocalDate,LocalDate)
+     * @verifies return empty list if start after end
+     */
+    @Test
+    void planPeriods_shouldReturnEmptyListIfStartAfterEnd() throws Exception {
+        assertTrue(StatisticsSummaryBuilder.planPeriods(LocalDate.of(2023, 1, 2), LocalDate.of(2023, 1, 1), LocalDate.of(2024, 1, 1)).isEmpty());
+    }
+
+    private static void assertPeriod(StatisticsSummaryBuilder.SummaryPeriod period, Granularity granularity, LocalDate start, LocalDate end) {
+        assertEquals(granularity, period.getGranularity());
+        assertEquals(start, period.getStart());
+        assertEquals(end, period.getEnd());
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#loadSummary(StatisticsSummaryFilter)
+     * @verifies return same summary from rollups as from daily statistics
+     */
+    @Test
+    void loadSummary_shouldReturnSameSummaryFromRollupsAsFromDailyStatistics() throws Exception {
+        SolrSearchIndex searchIndex =
+                UsageStatisticsRollupManagerTest.mockStatisticsIndex(
+                        UsageStatisticsRollupManagerTest.createStatistics(LocalDate.of(2018, 12, 20), LocalDate.of(2020, 2, 10)));
+        StatisticsSummaryBuilder daily = new StatisticsSummaryBuilder(null, searchIndex);
+        StatisticsSummaryBuilder rollups =
+                new StatisticsSummaryBuilder(null, searchIndex, new UsageStatisticsRollupManager(DataManager.getInstance().getDao(), searchIndex));
+
+        // Partial December, year 2019, January and partial February
+        StatisticsSummaryFilter filter = StatisticsSummaryFilter.ofDateRange(LocalDate.of(2018, 12, 25), LocalDate.of(2020, 2, 5));
+        assertSummaryEquals(daily.loadSummary(filter), rollups.loadSummary(filter));
+        assertNotNull(DataManager.getInstance().getDao().getUsageStatisticsRollup(Granularity.YEAR, LocalDate.of(2019, 1, 1)));
+        // Again, now reading the stored rollups
+        assertSummaryEquals(daily.loadSummary(filter), rollups.loadSummary(filter));
+
+        filter = StatisticsSummaryFilter.of(StatisticsSummaryFilter.LOCAL_DATE_MIN, StatisticsSummaryFilter.LOCAL_DATE_MAX, "");
+        assertSummaryEquals(daily.loadSummary(filter), rollups.loadSummary(filter));
+    }
+
+    /**
+     * @see StatisticsSummaryBuilder#loadSummary(StatisticsSummaryFilter)
+     * @verifies return same summary from rollups as from daily statistics for filtered records
+     */
+    @Test
+    void loadSummary_shouldReturnSameSummaryFromRollupsAsFromDailyStatisticsForFilteredRecords() throws Exception {
+        SolrSearchIndex searchIndex =
+                UsageStatisticsRollupManagerTest.mockStatisticsIndex(
+                        UsageStatisticsRollupManagerTest.createStatistics(LocalDate.of(2018, 12, 20), LocalDate.of(2020, 2, 10)));
+        SolrDocumentList records = new SolrDocumentList();
+        records.add(new SolrDocument(Map.of(SolrConstants.PI, "PI_04")));
+        Mockito.when(searchIndex.search(Mockito.eq("+(DC:test) +(ISWORK:true ISANCHOR:true DOCTYPE:GROUP)"), Mockito.anyList()))
+                .thenReturn(records);
+        StatisticsSummaryBuilder daily = new StatisticsSummaryBuilder(null, searchIndex);
+        StatisticsSummaryBuilder rollups =
+                new StatisticsSummaryBuilder(null, searchIndex, new UsageStatisticsRollupManager(DataManager.getInstance().getDao(), searchIndex));
+
+        StatisticsSummaryFilter filter = StatisticsSummaryFilter.of(LocalDate.of(2019, 11, 17), LocalDate.of(2020, 1, 31), "DC:test");
+        StatisticsSummary expected = daily.loadSummary(filter);
+        assertTrue(expected.getTotalRequests(RequestType.RECORD_VIEW) > 0);
+        assertSummaryEquals(expected, rollups.loadSummary(filter));
+    }
+
+    private static void assertSummaryEquals(StatisticsSummary expected, StatisticsSummary actual) {
+        for (RequestType type : RequestType.getUsedValues()) {
+            assertEquals(expected.getTotalRequests(type), actual.getTotalRequests(type), type.name());
+            assertEquals(expected.getUniqueRequests(type), actual.getUniqueRequests(type), type.name());
+        }
+        assertEquals(expected.calculateStartDate(), actual.calculateStartDate());
+        assertEquals(expected.calculateEndDate(), actual.calculateEndDate());
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.model.statistics.usage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.goobi.viewer.AbstractDatabaseEnabledTest;
+import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.dao.IDAO;
+import io.goobi.viewer.exceptions.IndexUnreachableException;
+import io.goobi.viewer.exceptions.PresentationException;
+import io.goobi.viewer.model.statistics.usage.UsageStatisticsRollup.Granularity;
+import io.goobi.viewer.model.viewer.StringPair;
+import io.goobi.viewer.solr.SolrConstants;
+import io.goobi.viewer.solr.SolrSearchIndex;
+
+class UsageStatisticsRollupManagerTest extends AbstractDatabaseEnabledTest {
+
+    static final String STATISTICS_QUERY = SolrConstants.DOCTYPE + ":" + StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE;
+
+    private static final Pattern PATTERN_DATE_RANGE = Pattern.compile("\\[(\\S+) TO (\\S+)\\]");
+    private static final Pattern PATTERN_DATE = Pattern.compile(StatisticsLuceneFields.DATE + ":\"(\\S+)\"");
+
+    /**
+     * @see UsageStatisticsRollupManager#getSummary(Granularity,LocalDate,List)
+     * @verifies use stored rollup
+     */
+    @Test
+    void getSummary_shouldUseStoredRollup() throws Exception {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        UsageStatisticsRollupManager manager = new UsageStatisticsRollupManager(DataManager.getInstance().getDao(), searchIndex);
+
+        StatisticsSummary summary = manager.getSummary(Granularity.MONTH, LocalDate.of(2022, 8, 1), Collections.emptyList());
+        assertEquals(22, summary.getTotalRequests(RequestType.RECORD_VIEW));
+        assertEquals(4, summary.getUniqueRequests(RequestType.RECORD_VIEW));
+
+        summary = manager.getSummary(Granularity.MONTH, LocalDate.of(2022, 8, 1), Collections.singletonList("PI_01"));
+        assertEquals(18, summary.getTotalRequests(RequestType.RECORD_VIEW));
+        assertEquals(3, summary.getUniqueRequests(RequestType.RECORD_VIEW));
+
+        Mockito.verifyNoInteractions(searchIndex);
+    }
+
+    /**
+     * @see UsageStatisticsRollupManager#getSummary(Granularity,LocalDate,List)
+     * @verifies build and store rollups of completed month
+     */
+    @Test
+    void getSummary_shouldBuildAndStoreRollupsOfCompletedMonth() throws Exception {
+        List<SolrDocument> docs = createStatistics(LocalDate.of(2019, 2, 20), LocalDate.of(2019, 4, 10));
+        IDAO dao = DataManager.getInstance().getDao();
+        UsageStatisticsRollupManager manager = new UsageStatisticsRollupManager(dao, mockStatisticsIndex(docs));
+        LocalDate periodStart = LocalDate.of(2019, 3, 1);
+        assertNull(dao.getUsageStatisticsRollup(Granularity.MONTH, periodStart));
+
+        StatisticsSummary summary = manager.getSummary(Granularity.MONTH, periodStart, Collections.emptyList());
+        long[] expected = sum(docs, periodStart, LocalDate.of(2019, 3, 31), null);
+        assertEquals(expected[0], summary.getTotalRequests(RequestType.RECORD_VIEW));
+        assertEquals(expected[1], summary.getUniqueRequests(RequestType.RECORD_VIEW));
+        assertEquals(expected[2], summary.getTotalRequests(RequestType.FILE_DOWNLOAD));
+
+        UsageStatisticsRollup overall = dao.getUsageStatisticsRollup(Granularity.MONTH, periodStart);
+        assertNotNull(overall);
+        assertEquals(expected[0], overall.getCounts()[0]);
+        assertEquals(2, dao.getUsageStatisticsRollups(Granularity.MONTH, periodStart, null).size());
+    }
+
+    /**
+     * @see UsageStatisticsRollupManager#getSummary(Granularity,LocalDate,List)
+     * @verifies sum monthly rollups of given records into year
+     */
+    @Test
+    void getSummary_shouldSumMonthlyRollupsOfGivenRecordsIntoYear() throws Exception {
+        List<SolrDocument> docs = createStatistics(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31));
+        IDAO dao = DataManager.getInstance().getDao();
+        UsageStatisticsRollupManager manager = new UsageStatisticsRollupManager(dao, mockStatisticsIndex(docs));
+
+        StatisticsSummary summary = manager.getSummary(Granularity.YEAR, LocalDate.of(2019, 1, 1), Collections.singletonList("PI_04"));
+        long[] expected = sum(docs, LocalDate.of(2019, 1, 1), LocalDate.of(2019, 12, 31), "PI_04");
+        assertEquals(expected[0], summary.getTotalRequests(RequestType.RECORD_VIEW));
+        assertEquals(expected[1], summary.getUniqueRequests(RequestType.RECORD_VIEW));
+        assertEquals(expected[4], summary.getTotalRequests(RequestType.MEDIA_RESOURCE));
+
+        // The year is built from the months
+        for (int month = 1; month <= 12; month++) {
+            assertNotNull(dao.getUsageStatisticsRollup(Granularity.MONTH, LocalDate.of(2019, month, 1)));
+        }
+    }
+
+    /**
+     * @see UsageStatisticsRollupManager#getSummary(Granularity,LocalDate,List)
+     * @verifies throw IllegalArgumentException if period has not ended
+     */
+    @Test
+    void getSummary_shouldThrowIllegalArgumentExceptionIfPeriodHasNotEnded() throws Exception {
+        UsageStatisticsRollupManager manager =
+                new UsageStatisticsRollupManager(DataManager.getInstance().getDao(), Mockito.mock(SolrSearchIndex.class));
+        LocalDate periodStart = Granularity.MONTH.getPeriodStart(LocalDate.now());
+        List<String> identifiers = Collections.emptyList();
+        assertThrows(IllegalArgumentException.class, () -> manager.getSummary(Granularity.MONTH, periodStart, identifiers));
+    }
+
+    /**
+     * @see UsageStatisticsRollupManager#invalidate(LocalDate)
+     * @verifies delete rollups containing date
+     */
+    @Test
+    void invalidate_shouldDeleteRollupsContainingDate() throws Exception {
+        IDAO dao = DataManager.getInstance().getDao();
+        new UsageStatisticsRollupManager(dao, Mockito.mock(SolrSearchIndex.class)).invalidate(LocalDate.of(2022, 8, 15));
+        assertNull(dao.getUsageStatisticsRollup(Granularity.MONTH, LocalDate.of(2022, 8, 1)));
+        assertEquals(0, dao.getUsageStatisticsRollups(Granularity.MONTH, LocalDate.of(2022, 8, 1), null).size());
+        assertNotNull(dao.getUsageStatisticsRollup(Granularity.YEAR, LocalDate.of(2021, 1, 1)));
+    }
+
+    /**
+     * Creates one STATISTICS_USAGE document for every third day within the given range, with varying counts for the records PI_01 and PI_04.
+     *
+     * @param start
+     * @param end
+     * @return Documents sorted by date
+     */
+    static List<SolrDocument> createStatistics(LocalDate start, LocalDate end) {
+        List<SolrDocument> ret = new ArrayList<>();
+        int i = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(3), i++) {
+            SolrDocument doc = new SolrDocument();
+            doc.setField(SolrConstants.DOCTYPE, StatisticsLuceneFields.USAGE_STATISTICS_DOCTYPE);
+            doc.setField(StatisticsLuceneFields.DATE, Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            doc.setField(StatisticsLuceneFields.getFieldName("PI_01"),
+                    Arrays.asList(i % 7 + 1L, 1L, i % 3L, i % 3 > 0 ? 1L : 0L, 0L, 0L));
+            doc.setField(StatisticsLuceneFields.getFieldName("PI_04"),
+                    Arrays.asList(i % 5L, i % 5 > 0 ? 1L : 0L, 0L, 0L, 2L, 1L));
+            ret.add(doc);
+        }
+        return ret;
+    }
+
+    /**
+     *
+     * @param docs
+     * @param start
+     * @param end
+     * @param pi Record identifier; null for all records
+     * @return Summed counts of the given documents within the given range
+     */
+    static long[] sum(List<SolrDocument> docs, LocalDate start, LocalDate end, String pi) {
+        long[] ret = new long[RequestType.getRecordCountsLength()];
+        for (SolrDocument doc : docs) {
+            LocalDate date = StatisticsSummaryBuilder.getDate(doc);
+            if (date.isBefore(start) || date.isAfter(end)) {
+                continue;
+            }
+            for (String field : doc.getFieldNames()) {
+                if (field.startsWith(StatisticsLuceneFields.RECORD_STATISTICS_PREFIX)
+                        && (pi == null || field.equals(StatisticsLuceneFields.getFieldName(pi)))) {
+                    List<?> values = (List<?>) doc.getFieldValue(field);
+                    for (int i = 0; i < ret.length; i++) {
+                        ret[i] += (Long) values.get(i);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Creates a mocked index which answers queries for STATISTICS_USAGE documents from the given documents, honoring dates, date ranges, field
+     * lists and the sort order of single hit queries.
+     *
+     * @param docs Documents sorted by date
+     * @return Mocked {@link SolrSearchIndex}
+     * @throws PresentationException
+     * @throws IndexUnreachableException
+     */
+    static SolrSearchIndex mockStatisticsIndex(List<SolrDocument> docs) throws PresentationException, IndexUnreachableException {
+        SolrSearchIndex searchIndex = Mockito.mock(SolrSearchIndex.class);
+        Mockito.when(searchIndex.search(Mockito.contains(STATISTICS_QUERY), Mockito.anyList()))
+                .thenAnswer(invocation -> find(docs, invocation.getArgument(0), invocation.getArgument(1)));
+        Mockito.when(searchIndex.search(Mockito.contains(STATISTICS_QUERY), Mockito.eq(1), Mockito.anyList(), Mockito.anyList()))
+                .thenAnswer(invocation -> {
+                    List<StringPair> sortFields = invocation.getArgument(2);
+                    SolrDocumentList ret = new SolrDocumentList();
+                    if (!docs.isEmpty()) {
+                        ret.add("asc".equals(sortFields.get(0).getTwo()) ? docs.get(0) : docs.get(docs.size() - 1));
+                    }
+                    return ret;
+                });
+        return searchIndex;
+    }
+
+    private static SolrDocumentList find(List<SolrDocument> docs, String query, List<String> fieldList) {
+        Matcher m = PATTERN_DATE_RANGE.matcher(query);
+        String from = null;
+        String to = null;
+        if (m.find()) {
+            from = m.group(1);
+            to = m.group(2);
+        } else {
+            m = PATTERN_DATE.matcher(query);
+            if (m.find()) {
+                from = m.group(1);
+                to = m.group(1);
+            }
+        }
+        SolrDocumentList ret = new SolrDocumentList();
+        for (SolrDocument doc : docs) {
+            String date = StatisticsLuceneFields.SOLR_DATE_FORMATTER.format(StatisticsSummaryBuilder.getDate(doc).atStartOfDay());
+            if (from != null && (date.compareTo(from) < 0 || date.compareTo(to) > 0)) {
+                continue;
+            }
+            if (fieldList == null || fieldList.isEmpty()) {
+                ret.add(doc);
+                continue;
+            }
+            SolrDocument copy = new SolrDocument();
+            for (String field : fieldList) {
+                if (doc.containsKey(field)) {
+                    copy.setField(field, doc.getFieldValue(field));
+                }
+            }
+            ret.add(copy);
+        }
+        return ret;
+    }
+}
@@ -21,6 +21,8 @@
  */
 package io.goobi.viewer.model.toc;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -92,4 +94,50 @@ class TOCElementTest extends AbstractDatabaseAndSolrEnabledTest {
                 "image", null, null);
         Assertions.assertEquals('/' + PageType.viewFullscreen.getName() + "/PPN123/1/LOG_0001/", tef.getUrl(PageType.viewFullscreen.getName()));
     }
+
+    /**
+     * @see TOCElement#TOCElement(TOCElement,boolean)
+     * @verifies copy all fields
+     */
+    @Test
+    void TOCElement_shouldCopyAllFields() throws Exception {
+        TOCElement orig = new TOCElement(new SimpleMetadataValue("Label"), "1", "first", "123", "LOG_0001", 2, "PPN123", null, false, false, true,
+                "image", null, null);
+        orig.getMetadata().put("MD_TITLE", "Title");
+        orig.setGroupIds(List.of("GROUP1"));
+        orig.setID(5);
+        orig.setParentId(4);
+        orig.setExpanded(true);
+
+        TOCElement copy = new TOCElement(orig, false);
+        Assertions.assertEquals(orig, copy);
+        Assertions.assertEquals("Label", copy.getLabel("en"));
+        Assertions.assertEquals("first", copy.getPageNoLabel());
+        Assertions.assertEquals("123", copy.getIddoc());
+        Assertions.assertEquals(2, copy.getLevel());
+        Assertions.assertEquals("Title", copy.getMetadataValue("MD_TITLE"));
+        Assertions.assertEquals(List.of("GROUP1"), copy.getGroupIds());
+        Assertions.assertEquals(5, copy.getID());
+        Assertions.assertEquals(4, copy.getParentId());
+        Assertions.assertTrue(copy.isExpanded());
+        Assertions.assertEquals(orig.getUrl(), copy.getUrl());
+
+        // Changes to the copy must not affect the original
+        copy.getMetadata().put("MD_TITLE", "Other");
+        copy.setExpanded(false);
+        Assertions.assertEquals("Title", orig.getMetadataValue("MD_TITLE"));
+        Assertions.assertTrue(orig.isExpanded());
+    }
+
+    /**
+     * @see TOCElement#TOCElement(TOCElement,boolean)
+     * @verifies set given pdf permission
+     */
+    @Test
+    void TOCElement_shouldSetGivenPdfPermission() throws Exception {
+        TOCElement orig = new TOCElement(new SimpleMetadataValue("Label"), "1", "first", "123", "LOG_0001", 0, "PPN123", null, false, false, true,
+                "image", null, null);
+        Assertions.assertFalse(orig.isAccessPermissionPdf());
+        Assertions.assertTrue(new TOCElement(orig, true).isAccessPermissionPdf());
+    }
 }
@@ -287,4 +287,59 @@ class TocMakerTest extends AbstractDatabaseAndSolrEnabledTest {
         Assertions.assertEquals("2", result.get(4).getFieldValue(SolrConstants.IDDOC));
         Assertions.assertEquals("1", result.get(5).getFieldValue(SolrConstants.IDDOC));
     }
+
+    /**
+     * @see TocMaker#buildSkeleton(StructElement,boolean,String,int,int)
+     * @verifies build skeleton without user permissions
+     */
+    @Test
+    void buildSkeleton_shouldBuildSkeletonWithoutUserPermissions() throws Exception {
+        long iddoc = DataManager.getInstance().getSearchIndex().getIddocFromIdentifier("306653648_1891");
+        Assertions.assertTrue(iddoc > 0);
+        TocSkeleton skeleton = TocMaker.buildSkeleton(new StructElement(iddoc), true, BaseMimeType.IMAGE.getName(), 1, -1);
+        Assertions.assertEquals(TocSkeleton.Type.RECORD, skeleton.getType());
+        Assertions.assertEquals(111, skeleton.getElements().get(StringConstants.DEFAULT_NAME).size());
+        Assertions.assertTrue(skeleton.containsPi("306653648_1891"));
+        Assertions.assertTrue(skeleton.containsPi("306653648"));
+        Assertions.assertFalse(skeleton.containsPi("PPN123"));
+        for (TOCElement element : skeleton.getElements().get(StringConstants.DEFAULT_NAME)) {
+            Assertions.assertFalse(element.isAccessPermissionPdf());
+        }
+    }
+
+    /**
+     * @see TocMaker#buildSkeleton(StructElement,boolean,String,int,int)
+     * @verifies throw IllegalArgumentException if structElement is null
+     */
+    @Test
+    void buildSkeleton_shouldThrowIllegalArgumentExceptionIfStructElementIsNull() throws Exception {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TocMaker.buildSkeleton(null, false, BaseMimeType.IMAGE.getName(), 1, -1));
+    }
+
+    /**
+     * @see TocMaker#applyAccessPermissions(TocSkeleton,javax.servlet.http.HttpServletRequest)
+     * @verifies return copies of skeleton elements
+     */
+    @Test
+    void applyAccessPermissions_shouldReturnCopiesOfSkeletonElements() throws Exception {
+        long iddoc = DataManager.getInstance().getSearchIndex().getIddocFromIdentifier("306653648_1891");
+        Assertions.assertTrue(iddoc > 0);
+        TocSkeleton skeleton = TocMaker.buildSkeleton(new StructElement(iddoc), true, BaseMimeType.IMAGE.getName(), 1, -1);
+        Map<String, List<TOCElement>> tocElements = TocMaker.applyAccessPermissions(skeleton, null);
+        List<TOCElement> skeletonElements = skeleton.getElements().get(StringConstants.DEFAULT_NAME);
+        Assertions.assertEquals(skeletonElements.size(), tocElements.get(StringConstants.DEFAULT_NAME).size());
+        for (int i = 0; i < skeletonElements.size(); ++i) {
+            Assertions.assertEquals(skeletonElements.get(i), tocElements.get(StringConstants.DEFAULT_NAME).get(i));
+            Assertions.assertNotSame(skeletonElements.get(i), tocElements.get(StringConstants.DEFAULT_NAME).get(i));
+        }
+    }
+
+    /**
+     * @see TocMaker#applyAccessPermissions(TocSkeleton,javax.servlet.http.HttpServletRequest)
+     * @verifies throw IllegalArgumentException if skeleton is null
+     */
+    @Test
+    void applyAccessPermissions_shouldThrowIllegalArgumentExceptionIfSkeletonIsNull() throws Exception {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TocMaker.applyAccessPermissions(null, null));
+    }
 }
@@ -21,6 +21,9 @@
  */
 package io.goobi.viewer.model.viewer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.faces.component.UIViewRoot;
 import javax.faces.context.ExternalContext;
 import javax.faces.context.FacesContext;
@@ -28,6 +31,7 @@ import javax.faces.context.FacesContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,6 +43,7 @@ import io.goobi.viewer.controller.DataManager;
 import io.goobi.viewer.managedbeans.ContextMocker;
 import io.goobi.viewer.solr.SolrConstants;
 import io.goobi.viewer.solr.SolrConstants.DocType;
+import io.goobi.viewer.solr.SolrSearchIndex;
 
 class StructElementTest extends AbstractSolrEnabledTest {
 
@@ -267,4 +272,106 @@ class StructElementTest extends AbstractSolrEnabledTest {
         StructElement element = new StructElement(iddoc);
         Assertions.assertEquals(PI_KLEIUNIV, element.getPi());
     }
+
+    /**
+     * @see StructElement#getShapeMetadata()
+     * @verifies load shape metadata on first access
+     */
+    @Test
+    void getShapeMetadata_shouldLoadShapeMetadataOnFirstAccess() throws Exception {
+        SolrDocument doc = DataManager.getInstance().getSearchIndex().getDocumentByIddoc(String.valueOf(iddocKleiuniv));
+        Assertions.assertNotNull(doc);
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        StructElement element = new StructElement(iddocKleiuniv, doc);
+        verifySearchCount(searchIndex, 0);
+        element.getShapeMetadata();
+        verifySearchCount(searchIndex, 1);
+        element.getShapeMetadata();
+        element.hasShapeMetadata();
+        verifySearchCount(searchIndex, 1);
+    }
+
+    /**
+     * @see StructElement#getShapeMetadata()
+     * @verifies not query index if indicator field is false
+     */
+    @Test
+    void getShapeMetadata_shouldNotQueryIndexIfIndicatorFieldIsFalse() throws Exception {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.IDDOC, "123");
+        doc.setField(SolrConstants.DOCSTRCT, "chapter");
+        doc.setField(SolrConstants.BOOL_SHAPE, false);
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        StructElement element = new StructElement(123, doc);
+        Assertions.assertNull(element.getShapeMetadata());
+        Assertions.assertFalse(element.hasShapeMetadata());
+        verifySearchCount(searchIndex, 0);
+    }
+
+    /**
+     * @see StructElement#loadShapeMetadata(Collection)
+     * @verifies load shape metadata of all elements with a single query
+     */
+    @Test
+    void loadShapeMetadata_shouldLoadShapeMetadataOfAllElementsWithASingleQuery() throws Exception {
+        SolrDocumentList docs = DataManager.getInstance()
+                .getSearchIndex()
+                .search("+" + SolrConstants.DOCTYPE + ":" + DocType.DOCSTRCT.name() + " -" + SolrConstants.ISWORK + ":true -"
+                        + SolrConstants.ISANCHOR + ":true", 100, null, null);
+        Assertions.assertEquals(100, docs.size());
+        SolrSearchIndex searchIndex = Mockito.spy(DataManager.getInstance().getSearchIndex());
+        DataManager.getInstance().injectSearchIndex(searchIndex);
+
+        List<StructElement> elements = new ArrayList<>(docs.size());
+        for (SolrDocument doc : docs) {
+            elements.add(new StructElement(Long.parseLong((String) doc.getFieldValue(SolrConstants.IDDOC)), doc));
+        }
+        verifySearchCount(searchIndex, 0);
+        StructElement.loadShapeMetadata(elements);
+        verifySearchCount(searchIndex, 1);
+        for (StructElement element : elements) {
+            element.getShapeMetadata();
+        }
+        verifySearchCount(searchIndex, 1);
+    }
+
+    /**
+     * @see StructElement#isShapeMetadataPossible(SolrDocument)
+     * @verifies return false if indicator field is false
+     */
+    @Test
+    void isShapeMetadataPossible_shouldReturnFalseIfIndicatorFieldIsFalse() throws Exception {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.IDDOC, "123");
+        doc.setField(SolrConstants.BOOL_SHAPE, false);
+        Assertions.assertFalse(StructElement.isShapeMetadataPossible(doc));
+        doc.setField(SolrConstants.BOOL_SHAPE, true);
+        Assertions.assertTrue(StructElement.isShapeMetadataPossible(doc));
+    }
+
+    /**
+     * @see StructElement#isShapeMetadataPossible(SolrDocument)
+     * @verifies return true if indicator field is missing
+     */
+    @Test
+    void isShapeMetadataPossible_shouldReturnTrueIfIndicatorFieldIsMissing() throws Exception {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.IDDOC, "123");
+        Assertions.assertTrue(StructElement.isShapeMetadataPossible(doc));
+    }
+
+    /**
+     * 
+     * @param searchIndex Spied search index
+     * @param expected Expected number of executed Solr queries
+     */
+    private static void verifySearchCount(SolrSearchIndex searchIndex, int expected) throws Exception {
+        Mockito.verify(searchIndex, Mockito.times(expected))
+                .search(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                        Mockito.any(), Mockito.any(), Mockito.any());
+    }
 }
@@ -0,0 +1,343 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.SolrPing;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.util.NamedList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaSolrClientTest {
+
+    private final Map<String, MockSolrClient> mocks = new HashMap<>();
+    private ReplicaSolrClient client;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private ReplicaSolrClient createClient(double hedgePercentile, String... urls) {
+        return createClient(hedgePercentile, 10, urls);
+    }
+
+    private ReplicaSolrClient createClient(double hedgePercentile, int hedgePoolSize, String... urls) {
+        return createClient(60000, hedgePercentile, hedgePoolSize, urls);
+    }
+
+    private ReplicaSolrClient createClient(long failureBackoff, double hedgePercentile, int hedgePoolSize, String... urls) {
+        client = new ReplicaSolrClient(List.of(urls), url -> mocks.computeIfAbsent(url, MockSolrClient::new), 0, failureBackoff, 100,
+                hedgePercentile, hedgePoolSize);
+        return client;
+    }
+
+    private static QueryRequest newQuery() {
+        return new QueryRequest(new SolrQuery("*:*"));
+    }
+
+    /**
+     * @see ReplicaSolrClient#request(SolrRequest,String)
+     * @verifies send other requests to primary
+     */
+    @Test
+    void request_shouldSendOtherRequestsToPrimary() throws Exception {
+        createClient(0, "a", "b", "c");
+        for (int i = 0; i < 6; ++i) {
+            client.request(new UpdateRequest());
+        }
+        assertEquals(6, mocks.get("a").requests.get());
+        assertEquals(0, mocks.get("b").requests.get());
+        assertEquals(0, mocks.get("c").requests.get());
+    }
+
+    /**
+     * @see ReplicaSolrClient#request(SolrRequest,String)
+     * @verifies distribute queries across replicas
+     */
+    @Test
+    void request_shouldDistributeQueriesAcrossReplicas() throws Exception {
+        createClient(0, "a", "b", "c");
+        for (int i = 0; i < 6; ++i) {
+            client.request(newQuery());
+        }
+        assertEquals(2, mocks.get("a").requests.get());
+        assertEquals(2, mocks.get("b").requests.get());
+        assertEquals(2, mocks.get("c").requests.get());
+    }
+
+    /**
+     * @see ReplicaSolrClient#request(SolrRequest,String)
+     * @verifies fail over to next replica on error
+     */
+    @Test
+    void request_shouldFailOverToNextReplicaOnError() throws Exception {
+        createClient(0, "a", "b");
+        mocks.get("a").failing = true;
+        for (int i = 0; i < 6; ++i) {
+            assertEquals("b", client.request(newQuery()).get("replica"));
+        }
+        // Replica is removed after repeated failures
+        assertEquals(1, client.getHealthyReplicaCount());
+    }
+
+    /**
+     * @see ReplicaSolrClient#ReplicaSolrClient(List,java.util.function.Function,long,long,long,double,int)
+     * @verifies reject disabled backoff without health checks
+     */
+    @Test
+    void ReplicaSolrClient_shouldRejectDisabledBackoffWithoutHealthChecks() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> createClient(0, 0, 10, "a", "b"));
+    }
+
+    /**
+     * @see ReplicaSolrClient.Replica#recordFailure()
+     * @verifies remove replica after consecutive failures
+     */
+    @Test
+    void recordFailure_shouldRemoveReplicaAfterConsecutiveFailures() throws Exception {
+        createClient(0, "a", "b");
+        ReplicaSolrClient.Replica replica = client.getReplicas().get(1);
+        for (int i = 1; i < ReplicaSolrClient.MAX_CONSECUTIVE_FAILURES; ++i) {
+            replica.recordFailure();
+        }
+        assertTrue(replica.isHealthy());
+        replica.recordSuccess();
+        replica.recordFailure();
+        assertTrue(replica.isHealthy());
+        for (int i = 1; i < ReplicaSolrClient.MAX_CONSECUTIVE_FAILURES; ++i) {
+            replica.recordFailure();
+        }
+        assertFalse(replica.isHealthy());
+    }
+
+    /**
+     * @see ReplicaSolrClient.Replica#recordFailure()
+     * @verifies readmit replica after backoff
+     */
+    @Test
+    void recordFailure_shouldReadmitReplicaAfterBackoff() throws Exception {
+        createClient(200, 0, 10, "a", "b");
+        mocks.get("a").failing = true;
+        for (int i = 0; i < ReplicaSolrClient.MAX_CONSECUTIVE_FAILURES * 2; ++i) {
+            assertEquals("b", client.request(newQuery()).get("replica"));
+        }
+        assertEquals(1, client.getHealthyReplicaCount());
+
+        // Still failing after the backoff: a single failed request removes the replica again
+        Thread.sleep(300);
+        assertEquals(2, client.getHealthyReplicaCount());
+        int requests = mocks.get("a").requests.get();
+        for (int i = 0; i < 4; ++i) {
+            assertEquals("b", client.request(newQuery()).get("replica"));
+        }
+        assertEquals(requests + 1, mocks.get("a").requests.get());
+        assertEquals(1, client.getHealthyReplicaCount());
+
+        // Recovered after the next backoff
+        mocks.get("a").failing = false;
+        Thread.sleep(300);
+        for (int i = 0; i < 4; ++i) {
+            client.request(newQuery());
+        }
+        assertEquals(requests + 3, mocks.get("a").requests.get());
+        assertEquals(2, client.getHealthyReplicaCount());
+    }
+
+    /**
+     * @see ReplicaSolrClient#selectReplica(java.util.Set)
+     * @verifies select replica with fewest outstanding requests
+     */
+    @Test
+    void selectReplica_shouldSelectReplicaWithFewestOutstandingRequests() throws Exception {
+        createClient(0, "a", "b", "c");
+        client.getReplicas().get(0).getOutstanding().set(3);
+        client.getReplicas().get(1).getOutstanding().set(1);
+        client.getReplicas().get(2).getOutstanding().set(2);
+        for (int i = 0; i < 3; ++i) {
+            assertEquals("b", client.selectReplica(Collections.emptySet()).getUrl());
+        }
+    }
+
+    /**
+     * @see ReplicaSolrClient#checkHealth()
+     * @verifies remove dead and slow replicas
+     */
+    @Test
+    void checkHealth_shouldRemoveDeadAndSlowReplicas() throws Exception {
+        createClient(0, "a", "b", "c");
+        mocks.get("b").failing = true;
+        mocks.get("c").delay = 300;
+        client.checkHealth();
+        assertEquals(1, client.getHealthyReplicaCount());
+        for (int i = 0; i < 3; ++i) {
+            assertEquals("a", client.request(newQuery()).get("replica"));
+        }
+
+        mocks.get("b").failing = false;
+        mocks.get("c").delay = 0;
+        client.checkHealth();
+        assertEquals(3, client.getHealthyReplicaCount());
+    }
+
+    /**
+     * @see ReplicaSolrClient#request(SolrRequest,String)
+     * @verifies hedge slow queries
+     */
+    @Test
+    void request_shouldHedgeSlowQueries() throws Exception {
+        createClient(90, "a", "b");
+        // Record fast query times first
+        for (int i = 0; i < ReplicaSolrClient.MIN_LATENCY_SAMPLES; ++i) {
+            client.request(newQuery());
+        }
+        assertEquals(0, client.getHedgedRequestCount());
+
+        mocks.get("a").delay = 2000;
+        for (int i = 0; i < 2; ++i) {
+            long start = System.currentTimeMillis();
+            assertEquals("b", client.request(newQuery()).get("replica"));
+            assertTrue(System.currentTimeMillis() - start < 1000);
+        }
+        assertTrue(client.getHedgedRequestCount() > 0);
+    }
+
+    /**
+     * @see ReplicaSolrClient.LatencyWindow#getPercentile(double)
+     * @verifies return correct percentile
+     */
+    @Test
+    void getPercentile_shouldReturnCorrectPercentile() throws Exception {
+        ReplicaSolrClient.LatencyWindow window = new ReplicaSolrClient.LatencyWindow(10);
+        assertEquals(0, window.getPercentile(50));
+        for (int i = 1; i <= 20; ++i) {
+            window.add(i);
+        }
+        // Only the last 10 values are kept
+        assertEquals(10, window.size());
+        assertEquals(15, window.getPercentile(50));
+        assertEquals(20, window.getPercentile(100));
+        assertFalse(window.getPercentile(90) < 19);
+    }
+
+    /**
+     * Solr client answering every request with its own name.
+     */
+    /**
+     * @see ReplicaSolrClient#request(SolrRequest,String)
+     * @verifies query directly if hedge pool is saturated
+     */
+    @Test
+    void request_shouldQueryDirectlyIfHedgePoolIsSaturated() throws Exception {
+        createClient(90, 1, "a", "b");
+        for (int i = 0; i < ReplicaSolrClient.MIN_LATENCY_SAMPLES; ++i) {
+            client.request(newQuery());
+        }
+
+        // Occupy the only pool thread with a slow query
+        mocks.get("a").delay = 1000;
+        mocks.get("b").delay = 1000;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<NamedList<Object>> slow = executor.submit(() -> client.request(newQuery()));
+            Thread.sleep(200);
+            mocks.get("a").delay = 0;
+            mocks.get("b").delay = 0;
+            long start = System.currentTimeMillis();
+            assertNotNull(client.request(newQuery()).get("replica"));
+            assertTrue(System.currentTimeMillis() - start < 500);
+            assertNotNull(slow.get(5, TimeUnit.SECONDS).get("replica"));
+            assertEquals(0, client.getHedgedRequestCount());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // All pool permits are returned
+        for (int i = 0; i < 5; ++i) {
+            assertNotNull(client.request(newQuery()).get("replica"));
+        }
+    }
+
+    private static class MockSolrClient extends SolrClient {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final AtomicInteger requests = new AtomicInteger();
+        private volatile boolean failing = false;
+        private volatile long delay = 0;
+
+        MockSolrClient(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public NamedList<Object> request(SolrRequest<?> request, String collection) throws SolrServerException, IOException {
+            if (!(request instanceof SolrPing)) {
+                requests.incrementAndGet();
+            }
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SolrServerException(e);
+                }
+            }
+            if (failing) {
+                throw new SolrServerException("Replica " + name + " unreachable");
+            }
+            NamedList<Object> ret = new NamedList<>();
+            ret.add("replica", name);
+            return ret;
+        }
+
+        @Override
+        public void close() throws IOException {
+            //
+        }
+    }
+}
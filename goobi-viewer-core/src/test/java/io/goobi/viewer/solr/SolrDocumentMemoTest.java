@@ -0,0 +1,211 @@
+/*
+ * This file is part of the Goobi viewer - a content presentation and management
+ * application for digitized objects.
+ *
+ * Visit these websites for more information.
+ *          - http://www.intranda.com
+ *          - http://digiverso.com
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.
+ * See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.goobi.viewer.solr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.solr.common.SolrDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SolrDocumentMemoTest {
+
+    @AfterEach
+    void tearDown() {
+        while (SolrDocumentMemo.getCurrent() != null) {
+            SolrDocumentMemo.end();
+        }
+    }
+
+    private static SolrDocument createDoc() {
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.IDDOC, "123");
+        doc.setField(SolrConstants.PI, "PPN123");
+        doc.setField(SolrConstants.LABEL, "Label");
+        doc.setField(SolrConstants.NUMPAGES, 10);
+        return doc;
+    }
+
+    /**
+     * @see SolrDocumentMemo#getKey(String,List)
+     * @verifies return key for iddoc query
+     */
+    @Test
+    void getKey_shouldReturnKeyForIddocQuery() throws Exception {
+        assertEquals("IDDOC:123", SolrDocumentMemo.getKey("IDDOC:123", null));
+    }
+
+    /**
+     * @see SolrDocumentMemo#getKey(String,List)
+     * @verifies return key for pi query with plus and quotes
+     */
+    @Test
+    void getKey_shouldReturnKeyForPiQueryWithPlusAndQuotes() throws Exception {
+        assertEquals("PI:PPN123", SolrDocumentMemo.getKey("+PI:\"PPN123\"", null));
+        assertEquals("PI:PPN123", SolrDocumentMemo.getKey("PI:PPN123", Collections.singletonList(SolrConstants.LABEL)));
+    }
+
+    /**
+     * @see SolrDocumentMemo#getKey(String,List)
+     * @verifies return null for other queries
+     */
+    @Test
+    void getKey_shouldReturnNullForOtherQueries() throws Exception {
+        assertNull(SolrDocumentMemo.getKey("PI_TOPSTRUCT:PPN123", null));
+        assertNull(SolrDocumentMemo.getKey("+PI:PPN123 +DOCTYPE:DOCSTRCT", null));
+        assertNull(SolrDocumentMemo.getKey("PI:\"PPN123", null));
+        assertNull(SolrDocumentMemo.getKey(null, null));
+    }
+
+    /**
+     * @see SolrDocumentMemo#getKey(String,List)
+     * @verifies return null for wildcard field list
+     */
+    @Test
+    void getKey_shouldReturnNullForWildcardFieldList() throws Exception {
+        assertNull(SolrDocumentMemo.getKey("PI:PPN123", Arrays.asList(SolrConstants.LABEL, "MD_*")));
+    }
+
+    /**
+     * @see SolrDocumentMemo#contains(String,List)
+     * @verifies return true for subset of memoized fields
+     */
+    @Test
+    void contains_shouldReturnTrueForSubsetOfMemoizedFields() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.LABEL, "Label");
+        doc.setField(SolrConstants.NUMPAGES, 10);
+        memo.put("PI:PPN123", Arrays.asList(SolrConstants.LABEL, SolrConstants.NUMPAGES), doc);
+        assertTrue(memo.contains("PI:PPN123", Collections.singletonList(SolrConstants.LABEL)));
+        assertEquals(1, memo.getDeduplicatedCount());
+    }
+
+    /**
+     * @see SolrDocumentMemo#contains(String,List)
+     * @verifies return false for field outside memoized fields
+     */
+    @Test
+    void contains_shouldReturnFalseForFieldOutsideMemoizedFields() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        SolrDocument doc = new SolrDocument();
+        doc.setField(SolrConstants.LABEL, "Label");
+        memo.put("PI:PPN123", Collections.singletonList(SolrConstants.LABEL), doc);
+        assertFalse(memo.contains("PI:PPN123", Arrays.asList(SolrConstants.LABEL, SolrConstants.NUMPAGES)));
+        assertFalse(memo.contains("PI:PPN123", null));
+        assertEquals(2, memo.getLookupCount());
+        assertEquals(0, memo.getDeduplicatedCount());
+    }
+
+    /**
+     * @see SolrDocumentMemo#contains(String,List)
+     * @verifies return true for any fields if all fields memoized
+     */
+    @Test
+    void contains_shouldReturnTrueForAnyFieldsIfAllFieldsMemoized() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        memo.put("PI:PPN123", null, createDoc());
+        assertTrue(memo.contains("PI:PPN123", null));
+        assertTrue(memo.contains("PI:PPN123", Collections.singletonList("MD_NOT_LOADED")));
+    }
+
+    /**
+     * @see SolrDocumentMemo#contains(String,List)
+     * @verifies return true for any fields if no hit memoized
+     */
+    @Test
+    void contains_shouldReturnTrueForAnyFieldsIfNoHitMemoized() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        memo.put("PI:NOTFOUND", Collections.singletonList(SolrConstants.LABEL), null);
+        assertTrue(memo.contains("PI:NOTFOUND", null));
+        assertNull(memo.get("PI:NOTFOUND", null));
+    }
+
+    /**
+     * @see SolrDocumentMemo#get(String,List)
+     * @verifies only return requested fields
+     */
+    @Test
+    void get_shouldOnlyReturnRequestedFields() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        memo.put("PI:PPN123", null, createDoc());
+        SolrDocument doc = memo.get("PI:PPN123", Collections.singletonList(SolrConstants.LABEL));
+        assertNotNull(doc);
+        assertEquals(1, doc.getFieldNames().size());
+        assertEquals("Label", doc.getFieldValue(SolrConstants.LABEL));
+
+        // Full document is returned as a copy
+        SolrDocument full = memo.get("PI:PPN123", null);
+        full.removeFields(SolrConstants.LABEL);
+        assertEquals("Label", memo.get("PI:PPN123", null).getFieldValue(SolrConstants.LABEL));
+    }
+
+    /**
+     * @see SolrDocumentMemo#put(String,List,SolrDocument)
+     * @verifies memoize document under iddoc and pi
+     */
+    @Test
+    void put_shouldMemoizeDocumentUnderIddocAndPi() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        memo.put("PI:PPN123", null, createDoc());
+        assertTrue(memo.contains("IDDOC:123", null));
+        assertEquals("PPN123", memo.get("IDDOC:123", null).getFieldValue(SolrConstants.PI));
+    }
+
+    /**
+     * @see SolrDocumentMemo#put(String,List,SolrDocument)
+     * @verifies not memoize more than max entries
+     */
+    @Test
+    void put_shouldNotMemoizeMoreThanMaxEntries() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        for (int i = 0; i < SolrDocumentMemo.MAX_ENTRIES; ++i) {
+            memo.put("IDDOC:" + i, null, null);
+        }
+        memo.put("PI:PPN123", null, createDoc());
+        assertTrue(memo.contains("IDDOC:0", null));
+        assertFalse(memo.contains("PI:PPN123", null));
+        assertFalse(memo.contains("IDDOC:123", null));
+    }
+
+    /**
+     * @see SolrDocumentMemo#end()
+     * @verifies only discard memo after outermost call
+     */
+    @Test
+    void end_shouldOnlyDiscardMemoAfterOutermostCall() throws Exception {
+        SolrDocumentMemo memo = SolrDocumentMemo.begin();
+        assertEquals(memo, SolrDocumentMemo.begin());
+        SolrDocumentMemo.end();
+        assertEquals(memo, SolrDocumentMemo.getCurrent());
+        SolrDocumentMemo.end();
+        assertNull(SolrDocumentMemo.getCurrent());
+    }
+}
@@ -35,6 +35,7 @@ import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.response.FieldStatsInfo;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
@@ -42,9 +43,11 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 import io.goobi.viewer.AbstractSolrEnabledTest;
 import io.goobi.viewer.controller.DataManager;
+import io.goobi.viewer.controller.RecordLocationResolver;
 import io.goobi.viewer.exceptions.IndexUnreachableException;
 import io.goobi.viewer.model.viewer.StringPair;
 
@@ -261,11 +264,11 @@ class SolrSearchIndexTest extends AbstractSolrEnabledTest {
 
     /**
      * @see SolrSearchIndex#findDataRepositoryName(String)
-     * @verifies return value from map if available
+     * @verifies return cached value if available
      */
     @Test
-    void findDataRepositoryName_shouldReturnValueFromMapIfAvailable() throws Exception {
-        DataManager.getInstance().getSearchIndex().getDataRepositoryNames().put("PPN123", "superrepo");
+    void findDataRepositoryName_shouldReturnCachedValueIfAvailable() throws Exception {
+        DataManager.getInstance().getSearchIndex().getRecordLocationResolver().update("PPN123", "superrepo");
         Assertions.assertEquals("superrepo", DataManager.getInstance().getSearchIndex().findDataRepositoryName("PPN123"));
     }
 
@@ -275,9 +278,10 @@ class SolrSearchIndexTest extends AbstractSolrEnabledTest {
      */
     @Test
     void updateDataRepositoryNames_shouldUpdateValueCorrectly() throws Exception {
-        Assertions.assertNull(DataManager.getInstance().getSearchIndex().getDataRepositoryNames().get("PPN123"));
+        RecordLocationResolver resolver = DataManager.getInstance().getSearchIndex().getRecordLocationResolver();
+        Assertions.assertNull(resolver.getCachedDataRepositoryName("PPN123"));
         DataManager.getInstance().getSearchIndex().updateDataRepositoryNames("PPN123", "repo/a");
-        Assertions.assertEquals("repo/a", DataManager.getInstance().getSearchIndex().getDataRepositoryNames().get("PPN123"));
+        Assertions.assertEquals("repo/a", resolver.getCachedDataRepositoryName("PPN123"));
     }
 
     /**
@@ -324,4 +328,27 @@ class SolrSearchIndexTest extends AbstractSolrEnabledTest {
         assertEquals(JSONObject.NULL, rows.get(2));
         assertEquals(JSONObject.NULL, rows.get(3));
     }
+
+    /**
+     * @see SolrSearchIndex#getIndexVersion()
+     * @verifies return index version
+     */
+    @Test
+    void getIndexVersion_shouldReturnIndexVersion() throws Exception {
+        long version = DataManager.getInstance().getSearchIndex().getIndexVersion();
+        assertTrue(version > 0);
+        assertEquals(version, DataManager.getInstance().getSearchIndex().getIndexVersion());
+    }
+
+    /**
+     * @see SolrSearchIndex#getSolrServerUrl()
+     * @verifies return primary url if replicas are used
+     */
+    @Test
+    void getSolrServerUrl_shouldReturnPrimaryUrlIfReplicasAreUsed() throws Exception {
+        try (ReplicaSolrClient client = new ReplicaSolrClient(List.of("http://primary/solr", "http://replica/solr"),
+                url -> Mockito.mock(SolrClient.class), 0, 1000, 0, 0, 1)) {
+            assertEquals("http://primary/solr", new SolrSearchIndex(client).getSolrServerUrl());
+        }
+    }
 }